@@ -0,0 +1,28 @@
+// k6 load script for the DomiSMP participant lookup (GET /smp/{participant}).
+// The script is executed by the runBenchmark.sh for each SMP instance of the docker-compose.benchmark.yml.
+// Environment variables:
+//  - TARGET_URL: the SMP context url, e.g. http://smp-virtual-threads.local:8084/smp/
+//  - PARTICIPANT: the url encoded participant identifier. The unknown participant (404) executes the same
+//                 database lookup as the registered one.
+//  - VUS: number of the concurrent clients
+//  - DURATION: the duration of the test
+import http from 'k6/http';
+import {check} from 'k6';
+
+const targetUrl = __ENV.TARGET_URL || 'http://smp-platform-threads.local:8084/smp/';
+const participant = __ENV.PARTICIPANT || 'iso6523-actorid-upis%3A%3A0088%3Abenchmark';
+
+http.setResponseCallback(http.expectedStatuses(200, 404));
+
+export const options = {
+    vus: parseInt(__ENV.VUS || '400'),
+    duration: __ENV.DURATION || '2m',
+    summaryTrendStats: ['avg', 'med', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    const response = http.get(targetUrl + participant);
+    check(response, {
+        'lookup answered': (r) => r.status === 200 || r.status === 404,
+    });
+}
@@ -0,0 +1,64 @@
+#!/bin/bash
+# The script compares the lookup throughput of the DomiSMP spring-boot application with the platform threads and
+# with the virtual threads (smp.threads.virtual.enabled=true). The results (k6 summaries) are stored to the
+# results-benchmark folder.
+# Usage: ./runBenchmark.sh [-v SMP_VERSION] [-c VUS] [-d DURATION] [-p PARTICIPANT]
+
+# init plan variables
+WORKDIR="$(cd -P $(dirname ${BASH_SOURCE[0]} ) && pwd)"
+source "${WORKDIR}/../../functions/run-test.functions"
+initializeVariables
+
+VUS=400
+DURATION=2m
+PARTICIPANT="iso6523-actorid-upis%3A%3A0088%3Abenchmark"
+SMP_INIT_DATABASE="${SMP_PROJECT_FOLDER}/smp-webapp/src/main/smp-setup/database-scripts/mysql5innodb.ddl"
+SMP_INIT_DATABASE_DATA="${SMP_PROJECT_FOLDER}/domismp-tests/domismp-tests-api/groovy/mysql-4.1_integration_test_data.sql"
+BENCHMARK_PREFIX="${PLAN_PREFIX}-benchmark"
+
+# READ arguments
+while getopts v:c:d:p: option
+do
+  case "${option}"
+  in
+    v) SMP_VERSION=${OPTARG};;
+    c) VUS=${OPTARG};;
+    d) DURATION=${OPTARG};;
+    p) PARTICIPANT=${OPTARG};;
+    *) echo "Unknown option [${option}]. Usage: $0 [-v] [-c] [-d] [-p]"; exit 1;;
+  esac
+done
+
+echo "*************************************************************************"
+echo "SMP version: [${SMP_VERSION}]"
+echo "Concurrent clients: [${VUS}], duration: [${DURATION}]"
+echo "Participant: [${PARTICIPANT}]"
+echo "*************************************************************************"
+export SMP_VERSION
+
+mkdir -p "./properties/db-scripts/"
+cp "${SMP_INIT_DATABASE}" ./properties/db-scripts/mysql5innodb.ddl
+cp "${SMP_INIT_DATABASE_DATA}" ./properties/db-scripts/mysql5innodb-data.sql
+rm -rf ./results-benchmark
+mkdir -p ./results-benchmark
+
+COMPOSE_FILE="-f docker-compose.benchmark.yml"
+docker compose -p "${BENCHMARK_PREFIX}" ${COMPOSE_FILE} up -d --force-recreate --wait --wait-timeout 300 smp-platform-threads smp-virtual-threads
+
+for SMP_SERVICE in smp-platform-threads smp-virtual-threads; do
+  echo "Run benchmark for [${SMP_SERVICE}]"
+  docker compose -p "${BENCHMARK_PREFIX}" ${COMPOSE_FILE} run --rm \
+    -e TARGET_URL="http://${SMP_SERVICE}.local:8084/smp/" \
+    -e PARTICIPANT="${PARTICIPANT}" \
+    -e VUS="${VUS}" \
+    -e DURATION="${DURATION}" \
+    k6 run --summary-export "/results/${SMP_SERVICE}.json" /scripts/lookup.js | tee "./results-benchmark/${SMP_SERVICE}.log"
+  # the number of the live OS threads of the SMP processes after the test
+  docker compose -p "${BENCHMARK_PREFIX}" ${COMPOSE_FILE} exec "${SMP_SERVICE}" \
+    sh -c 'for p in /proc/[0-9]*; do grep -qs smp-springboot-exec.jar $p/cmdline && grep Threads: $p/status; done' \
+    > "./results-benchmark/${SMP_SERVICE}-threads.txt"
+done
+
+echo "Save docker log to the results-benchmark folder"
+docker compose -p "${BENCHMARK_PREFIX}" ${COMPOSE_FILE} logs > ./results-benchmark/smp-containers.log 2>&1
+docker compose -p "${BENCHMARK_PREFIX}" ${COMPOSE_FILE} rm -s -f -v
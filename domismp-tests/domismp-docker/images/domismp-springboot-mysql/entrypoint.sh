@@ -5,6 +5,8 @@
 # set java home
 if [ "${JDK_VERSION}" == "8" ]; then
   export JAVA_HOME=/opt/java/${JAVA_8_VERSION}
+elif [ "${JDK_VERSION}" == "21" ]; then
+  export JAVA_HOME=${JAVA_21_HOME}
 fi
 # parameters
 MYSQL_ROOT_PASSWORD=${MYSQL_ROOT_PASSWORD:-"root"}
@@ -151,4 +153,4 @@ echo '[INFO] start running SMP with JAVA version:'
 "${JAVA_HOME}/bin/java" -version
 cd $SMP_HOME/
 ls -ltr
-su -s /bin/sh smp -c "${JAVA_HOME}/bin/java -jar smp-springboot-exec.jar"
+su -s /bin/sh smp -c "${JAVA_HOME}/bin/java ${JAVA_OPTS} -jar smp-springboot-exec.jar"
@@ -8,6 +8,9 @@ import {
 import {
   AdminAlertsComponent
 } from "./system-settings/admin-alerts/admin-alerts.component";
+import {
+  AdminJobsComponent
+} from "./system-settings/admin-jobs/admin-jobs.component";
 import {
   AdminDomainComponent
 } from "./system-settings/admin-domain/admin-domain.component";
@@ -360,6 +363,7 @@ import {LocalStorageService} from "./common/services/local-storage.service";
         AccessTokenPanelComponent,
         AdminAlertsComponent,
         AdminDomainComponent,
+        AdminJobsComponent,
         AdminKeystoreComponent,
         AdminTruststoreComponent,
         AdminUserComponent,
@@ -55,6 +55,9 @@ import {
 import {
   AdminAlertsComponent
 } from "./system-settings/admin-alerts/admin-alerts.component";
+import {
+  AdminJobsComponent
+} from "./system-settings/admin-jobs/admin-jobs.component";
 import {
   ResetCredentialComponent
 } from "./security/reset-credential/reset-credential.component";
@@ -162,6 +165,11 @@ const appRoutes: Routes = [
         component: AdminAlertsComponent,
         canDeactivate: [dirtyDeactivateGuard]
       },
+      {
+        path: 'job',
+        component: AdminJobsComponent,
+        canDeactivate: [dirtyDeactivateGuard]
+      },
     ]
   },
   {
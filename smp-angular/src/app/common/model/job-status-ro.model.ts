@@ -0,0 +1,24 @@
+/**
+ * The scheduled job status and the run statistics on the SMP node.
+ *
+ * @since 5.2
+ */
+export interface JobStatusRo {
+
+  jobName: string;
+  pool: string;
+  clusterSingleton: boolean;
+  running: boolean;
+  lastStartedOn?: Date;
+  lastFinishedOn?: Date;
+  lastDurationMs: number;
+  lastProcessed: number;
+  lastFailed: number;
+  lastStatus?: string;
+  lastError?: string;
+  runCount: number;
+  failureCount: number;
+  skippedCount: number;
+  totalProcessed: number;
+  totalFailed: number;
+}
@@ -15,6 +15,8 @@ export interface ResourceRo extends SearchTableEntity {
   identifierScheme?: string;
 
   smlRegistered?: boolean;
+  smlOutboxAction?: string;
+  smlOutboxStatus?: string;
   reviewEnabled?: boolean;
   hasCurrentUserReviewPermission?: boolean;
   visibility?: VisibilityEnum;
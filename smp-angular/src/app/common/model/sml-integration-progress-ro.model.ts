@@ -0,0 +1,13 @@
+export interface SMLIntegrationProgressRo {
+
+  operation?: string;
+  running: boolean;
+  totalCount: number;
+  processedCount: number;
+  failedCount: number;
+  resourceCount: number;
+  smlRegisteredCount: number;
+  startedOn?: Date;
+  finishedOn?: Date;
+  errorMessage?: string;
+}
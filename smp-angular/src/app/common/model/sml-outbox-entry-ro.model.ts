@@ -0,0 +1,16 @@
+/**
+ * The participant registration/un-registration which is not yet sent to the SML.
+ *
+ * @since 5.2
+ */
+export interface SMLOutboxEntryRo {
+
+  identifierValue: string;
+  identifierScheme?: string;
+  action: string;
+  status: string;
+  attemptCount: number;
+  createdOn?: Date;
+  nextAttemptOn?: Date;
+  lastError?: string;
+}
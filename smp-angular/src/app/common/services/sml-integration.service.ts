@@ -7,6 +7,8 @@ import {SecurityService} from "../../security/security.service";
 import {User} from "../../security/user.model";
 import {SMLResult} from "../model/sml-result.model";
 import {DomainRo} from "../model/domain-ro.model";
+import {SMLIntegrationProgressRo} from "../model/sml-integration-progress-ro.model";
+import {SMLOutboxEntryRo} from "../model/sml-outbox-entry-ro.model";
 
 @Injectable()
 export class SmlIntegrationService {
@@ -29,4 +31,25 @@ export class SmlIntegrationService {
       .replace(SmpConstants.PATH_PARAM_ENC_USER_ID, currentUser.userId)
       .replace(SmpConstants.PATH_PARAM_ENC_DOMAIN_ID, domain.domainId), {});
   }
+
+  getSmlIntegrationProgress$(domain: DomainRo): Observable<SMLIntegrationProgressRo> {
+    const currentUser: User = this.securityService.getCurrentUser();
+    return this.http.get<SMLIntegrationProgressRo>(SmpConstants.REST_INTERNAL_DOMAIN_SML_PROGRESS
+      .replace(SmpConstants.PATH_PARAM_ENC_USER_ID, currentUser.userId)
+      .replace(SmpConstants.PATH_PARAM_ENC_DOMAIN_ID, domain.domainId));
+  }
+
+  getSmlOutboxEntries$(domain: DomainRo): Observable<SMLOutboxEntryRo[]> {
+    const currentUser: User = this.securityService.getCurrentUser();
+    return this.http.get<SMLOutboxEntryRo[]>(SmpConstants.REST_INTERNAL_DOMAIN_SML_OUTBOX
+      .replace(SmpConstants.PATH_PARAM_ENC_USER_ID, currentUser.userId)
+      .replace(SmpConstants.PATH_PARAM_ENC_DOMAIN_ID, domain.domainId));
+  }
+
+  retrySmlOutboxEntries$(domain: DomainRo): Observable<SMLOutboxEntryRo[]> {
+    const currentUser: User = this.securityService.getCurrentUser();
+    return this.http.put<SMLOutboxEntryRo[]>(SmpConstants.REST_INTERNAL_DOMAIN_SML_OUTBOX_RETRY
+      .replace(SmpConstants.PATH_PARAM_ENC_USER_ID, currentUser.userId)
+      .replace(SmpConstants.PATH_PARAM_ENC_DOMAIN_ID, domain.domainId), {});
+  }
 }
@@ -57,7 +57,7 @@ export class GroupResourcePanelComponent implements BeforeLeaveGuard {
   pageIndex = 0;
   isLoadingResults = false;
 
-  displayedColumns: string[] = ['identifierValue', 'identifierScheme', "resourceTypeIdentifier"];
+  displayedColumns: string[] = ['identifierValue', 'identifierScheme', "resourceTypeIdentifier", "smlOutboxStatus"];
   columns: SmpTableColDef[];
 
   constructor(private editGroupService: EditGroupService,
@@ -81,6 +81,11 @@ export class GroupResourcePanelComponent implements BeforeLeaveGuard {
         columnDef: 'resourceTypeIdentifier',
         header: 'group.resource.panel.label.resource.type',
         cell: (row: ResourceRo) => row.resourceTypeIdentifier
+      } as SmpTableColDef,
+      {
+        columnDef: 'smlOutboxStatus',
+        header: 'group.resource.panel.label.sml.status',
+        cell: (row: ResourceRo) => !row.smlOutboxAction ? '' : row.smlOutboxAction + ' (' + row.smlOutboxStatus + ')'
       } as SmpTableColDef
     ];
 
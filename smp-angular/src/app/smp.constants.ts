@@ -26,6 +26,9 @@ export class SmpConstants {
   public static readonly PATH_ACTION_GENERATE_DNS_QUERY: string = 'generate-dns-query';
   public static readonly PATH_ACTION_SML_REGISTER: string = 'sml-register';
   public static readonly PATH_ACTION_SML_UNREGISTER: string = 'sml-unregister';
+  public static readonly PATH_ACTION_SML_PROGRESS: string = 'sml-progress';
+  public static readonly PATH_ACTION_SML_OUTBOX: string = 'sml-outbox';
+  public static readonly PATH_ACTION_SML_OUTBOX_RETRY: string = 'sml-outbox-retry';
   /* URL variables */
   public static readonly PATH_PARAM_ENC_USER_ID: string = '{user-id}';
   public static readonly PATH_PARAM_ENC_DOMAIN_ID: string = '{domain-id}';
@@ -193,6 +196,9 @@ export class SmpConstants {
   public static readonly REST_INTERNAL_ALERT_MANAGE = SmpConstants.REST_INTERNAL + SmpConstants.PATH_RESOURCE_TYPE_ALERT +
     '/' + SmpConstants.PATH_PARAM_ENC_USER_ID;
 
+  public static readonly REST_INTERNAL_JOB_MANAGE = SmpConstants.REST_INTERNAL + 'job' +
+    '/' + SmpConstants.PATH_PARAM_ENC_USER_ID;
+
   public static readonly REST_INTERNAL_DOMAIN_MANAGE_DEPRECATED = SmpConstants.REST_INTERNAL + SmpConstants.PATH_RESOURCE_TYPE_DOMAIN;
 
   public static readonly REST_INTERNAL_DOMAIN_MANAGE = SmpConstants.REST_INTERNAL
@@ -214,6 +220,12 @@ export class SmpConstants {
     + '/' + SmpConstants.PATH_PARAM_ENC_DOMAIN_ID + '/' + SmpConstants.PATH_ACTION_SML_REGISTER;
   public static readonly REST_INTERNAL_DOMAIN_SML_UNREGISTER = SmpConstants.REST_INTERNAL_DOMAIN_MANAGE
     + '/' + SmpConstants.PATH_PARAM_ENC_DOMAIN_ID + '/' + SmpConstants.PATH_ACTION_SML_UNREGISTER;
+  public static readonly REST_INTERNAL_DOMAIN_SML_PROGRESS = SmpConstants.REST_INTERNAL_DOMAIN_MANAGE
+    + '/' + SmpConstants.PATH_PARAM_ENC_DOMAIN_ID + '/' + SmpConstants.PATH_ACTION_SML_PROGRESS;
+  public static readonly REST_INTERNAL_DOMAIN_SML_OUTBOX = SmpConstants.REST_INTERNAL_DOMAIN_MANAGE
+    + '/' + SmpConstants.PATH_PARAM_ENC_DOMAIN_ID + '/' + SmpConstants.PATH_ACTION_SML_OUTBOX;
+  public static readonly REST_INTERNAL_DOMAIN_SML_OUTBOX_RETRY = SmpConstants.REST_INTERNAL_DOMAIN_MANAGE
+    + '/' + SmpConstants.PATH_PARAM_ENC_DOMAIN_ID + '/' + SmpConstants.PATH_ACTION_SML_OUTBOX_RETRY;
 
   public static readonly REST_INTERNAL_DOMAIN_MANAGE_UPDATE_SML_INTEGRATION = SmpConstants.REST_INTERNAL_DOMAIN_MANAGE
     + '/' + SmpConstants.PATH_PARAM_ENC_DOMAIN_ID + '/' + SmpConstants.PATH_ACTION_UPDATE_SML_INTEGRATION;
@@ -1,4 +1,4 @@
-import {Component, EventEmitter, Input, Output,} from '@angular/core';
+import {Component, EventEmitter, Input, OnDestroy, Output,} from '@angular/core';
 import {DomainRo} from "../../../common/model/domain-ro.model";
 import {AbstractControl, FormBuilder, FormControl, FormGroup, Validators} from "@angular/forms";
 import {AdminDomainService} from "../admin-domain.service";
@@ -12,7 +12,10 @@ import {CertificateRo} from "../../../common/model/certificate-ro.model";
 import {SmlIntegrationService} from "../../../common/services/sml-integration.service";
 import {SMLResult} from "../../../common/model/sml-result.model";
 import {TranslateService} from "@ngx-translate/core";
-import {lastValueFrom} from "rxjs";
+import {interval, lastValueFrom, Subscription} from "rxjs";
+import {switchMap} from "rxjs/operators";
+import {SMLIntegrationProgressRo} from "../../../common/model/sml-integration-progress-ro.model";
+import {SMLOutboxEntryRo} from "../../../common/model/sml-outbox-entry-ro.model";
 
 
 @Component({
@@ -20,7 +23,7 @@ import {lastValueFrom} from "rxjs";
   templateUrl: './domain-sml-integration-panel.component.html',
   styleUrls: ['./domain-sml-integration-panel.component.scss']
 })
-export class DomainSmlIntegrationPanelComponent implements BeforeLeaveGuard {
+export class DomainSmlIntegrationPanelComponent implements BeforeLeaveGuard, OnDestroy {
   @Output() onSaveSmlIntegrationDataEvent: EventEmitter<DomainRo> = new EventEmitter();
   readonly dnsDomainPattern = '^([a-zA-Z]([a-zA-Z0-9-]{0,61}[a-zA-Z0-9])?){0,63}$';
   readonly subDomainPattern = this.dnsDomainPattern;
@@ -30,6 +33,10 @@ export class DomainSmlIntegrationPanelComponent implements BeforeLeaveGuard {
   domainForm: FormGroup;
 
   readonly warningTimeout: number = 50000;
+  readonly progressRefreshInterval: number = 2000;
+  smlProgress: SMLIntegrationProgressRo = null;
+  smlProgressSubscription: Subscription = null;
+  smlOutboxEntries: SMLOutboxEntryRo[] = [];
   fieldWarningTimeoutMap = {
     domainCodeTimeout: null,
     smlDomainCodeTimeout: null,
@@ -105,6 +112,17 @@ export class DomainSmlIntegrationPanelComponent implements BeforeLeaveGuard {
   }
 
   @Input() set domain(value: DomainRo) {
+    if (this._domain?.domainId !== value?.domainId) {
+      this.stopSmlProgressRefresh();
+      this.smlProgress = null;
+      this.smlOutboxEntries = [];
+      if (value?.smlRegistered) {
+        this.refreshSmlOutboxEntries(value);
+      }
+      if (value) {
+        this.resumeSmlProgressRefresh(value);
+      }
+    }
     this._domain = value;
     if (!!this._domain) {
       this.domainForm.controls['smlSubdomain'].setValue(this._domain.smlSubdomain);
@@ -156,7 +174,7 @@ export class DomainSmlIntegrationPanelComponent implements BeforeLeaveGuard {
   }
 
   enableSMLRegister(): boolean {
-    if (!this._domain || !this.isSMPIntegrationOn || this.isDirty()) {
+    if (!this._domain || !this.isSMPIntegrationOn || this.isDirty() || this.isSmlProgressRunning) {
       return false;
     }
 
@@ -168,7 +186,7 @@ export class DomainSmlIntegrationPanelComponent implements BeforeLeaveGuard {
   }
 
   enableSMLUnregister(): boolean {
-    if (!this._domain || !this.isSMPIntegrationOn || this.isDirty()) {
+    if (!this._domain || !this.isSMPIntegrationOn || this.isDirty() || this.isSmlProgressRunning) {
       return false;
     }
 
@@ -180,6 +198,10 @@ export class DomainSmlIntegrationPanelComponent implements BeforeLeaveGuard {
     return this.isDomainRegistered;
   }
 
+  get isSmlProgressRunning(): boolean {
+    return !!this.smlProgress?.running;
+  }
+
   get isDomainRegistered():boolean {
     return !!this._domain?.smlRegistered;
   }
@@ -223,9 +245,8 @@ export class DomainSmlIntegrationPanelComponent implements BeforeLeaveGuard {
     this.smlIntegrationService.registerDomainToSML$(domain).toPromise().then(async (res: SMLResult) => {
         if (res) {
           if (res.success) {
-            this.alertService.success(await lastValueFrom(this.translateService.get("domain.sml.integration.panel.success.register", {domainCode: domain.domainCode})));
-            domain.smlRegistered = true;
-            this.domain = domain;
+            // the registration runs in the background until the progress is not running anymore
+            this.startSmlProgressRefresh(domain);
           } else {
             this.alertService.exception(await lastValueFrom(this.translateService.get("domain.sml.integration.panel.error.register", {domainCode: domain.domainCode})), res.errorMessage);
           }
@@ -248,9 +269,8 @@ export class DomainSmlIntegrationPanelComponent implements BeforeLeaveGuard {
     this.smlIntegrationService.unregisterDomainToSML$(domain).toPromise().then(async (res: SMLResult) => {
         if (res) {
           if (res.success) {
-            this.alertService.success(await lastValueFrom(this.translateService.get("domain.sml.integration.panel.success.unregister", {domainCode: domain.domainCode})));
-            domain.smlRegistered = false;
-            this.domain = domain;
+            // the un-registration runs in the background until the progress is not running anymore
+            this.startSmlProgressRefresh(domain);
           } else {
             this.alertService.exception(await lastValueFrom(this.translateService.get("domain.sml.integration.panel.error.unregister", {domainCode: domain.domainCode})), res.errorMessage);
           }
@@ -268,4 +288,94 @@ export class DomainSmlIntegrationPanelComponent implements BeforeLeaveGuard {
       }
     )
   }
+
+  /**
+   * Refresh the progress of the domain participants SML registration while the register/unregister operation
+   * is running in the background. When the operation is finished, the result is shown.
+   * @param domain
+   */
+  startSmlProgressRefresh(domain: DomainRo) {
+    this.stopSmlProgressRefresh();
+    this.smlProgressSubscription = interval(this.progressRefreshInterval)
+      .pipe(switchMap(() => this.smlIntegrationService.getSmlIntegrationProgress$(domain)))
+      .subscribe({
+        next: (progress: SMLIntegrationProgressRo) => {
+          this.smlProgress = progress;
+          if (!progress?.running) {
+            this.stopSmlProgressRefresh();
+            this.showSmlProgressResult(domain, progress);
+          }
+        },
+        error: () => this.stopSmlProgressRefresh()
+      });
+  }
+
+  /**
+   * Retrieve the progress of the selected domain and resume the refresh if the operation is still running,
+   * for instance, when it was started by the other user or before the page was reloaded.
+   * @param domain
+   */
+  resumeSmlProgressRefresh(domain: DomainRo) {
+    this.smlIntegrationService.getSmlIntegrationProgress$(domain)
+      .subscribe((progress: SMLIntegrationProgressRo) => {
+        if (this._domain?.domainId !== domain.domainId) {
+          return;
+        }
+        this.smlProgress = progress;
+        if (progress?.running) {
+          this.startSmlProgressRefresh(domain);
+        }
+      });
+  }
+
+  async showSmlProgressResult(domain: DomainRo, progress: SMLIntegrationProgressRo) {
+    let register: boolean = progress?.operation !== 'UNREGISTER';
+    let operation: string = register ? 'register' : 'unregister';
+    if (progress?.errorMessage) {
+      this.alertService.exception(await lastValueFrom(this.translateService.get("domain.sml.integration.panel.error." + operation, {domainCode: domain.domainCode})), progress.errorMessage);
+      return;
+    }
+    this.alertService.success(await lastValueFrom(this.translateService.get("domain.sml.integration.panel.success." + operation, {domainCode: domain.domainCode})));
+    domain.smlRegistered = register;
+    this.domain = domain;
+  }
+
+  /**
+   * Stop the progress refresh.
+   */
+  stopSmlProgressRefresh() {
+    if (this.smlProgressSubscription) {
+      this.smlProgressSubscription.unsubscribe();
+      this.smlProgressSubscription = null;
+    }
+  }
+
+  /**
+   * Retrieve the participant registrations/un-registrations which are not yet sent to the SML.
+   * @param domain
+   */
+  refreshSmlOutboxEntries(domain: DomainRo) {
+    this.smlIntegrationService.getSmlOutboxEntries$(domain)
+      .subscribe((entries: SMLOutboxEntryRo[]) => this.smlOutboxEntries = entries);
+  }
+
+  get hasFailedSmlOutboxEntries(): boolean {
+    return this.smlOutboxEntries?.some(entry => entry.status === 'FAILED');
+  }
+
+  smlOutboxRetry() {
+    this.smlIntegrationService.retrySmlOutboxEntries$(this._domain).subscribe({
+      next: (entries: SMLOutboxEntryRo[]) => this.smlOutboxEntries = entries,
+      error: (err) => {
+        if (this.httpErrorHandlerService.logoutOnInvalidSessionError(err)) {
+          return;
+        }
+        this.alertService.error(err.error?.errorDescription);
+      }
+    });
+  }
+
+  ngOnDestroy(): void {
+    this.stopSmlProgressRefresh();
+  }
 }
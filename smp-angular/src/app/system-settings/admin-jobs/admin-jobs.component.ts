@@ -0,0 +1,54 @@
+import {Component, OnInit} from '@angular/core';
+import {HttpClient} from "@angular/common/http";
+import {SecurityService} from "../../security/security.service";
+import {AlertMessageService} from "../../common/alert-message/alert-message.service";
+import {SmpConstants} from "../../smp.constants";
+import {BeforeLeaveGuard} from "../../window/sidenav/navigation-on-leave-guard";
+import {JobStatusRo} from "../../common/model/job-status-ro.model";
+
+
+/**
+ * The scheduled job status and run statistics of the SMP node serving the request.
+ *
+ * @since 5.2
+ */
+@Component({
+  templateUrl: './admin-jobs.component.html',
+  styleUrls: ['./admin-jobs.component.scss']
+})
+export class AdminJobsComponent implements OnInit, BeforeLeaveGuard {
+
+  displayedColumns: string[] = ['jobName', 'pool', 'lastStatus', 'lastStartedOn', 'lastDurationMs',
+    'lastProcessed', 'lastFailed', 'runCount', 'failureCount', 'skippedCount'];
+  jobs: JobStatusRo[] = [];
+
+  constructor(
+    private http: HttpClient,
+    private securityService: SecurityService,
+    private alertService: AlertMessageService) {
+  }
+
+  ngOnInit(): void {
+    this.refresh();
+  }
+
+  refresh(): void {
+    this.http.get<JobStatusRo[]>(SmpConstants.REST_INTERNAL_JOB_MANAGE
+      .replace(SmpConstants.PATH_PARAM_ENC_USER_ID, this.securityService.getCurrentUser()?.userId))
+      .subscribe({
+        next: (result: JobStatusRo[]): void => {
+          this.jobs = result;
+        },
+        error: (err: any): void => {
+          this.alertService.error(err.error?.errorDescription);
+        }
+      });
+  }
+
+  /**
+   * This is a Readonly components, and it always returns false.
+   */
+  isDirty(): boolean {
+    return false;
+  }
+}
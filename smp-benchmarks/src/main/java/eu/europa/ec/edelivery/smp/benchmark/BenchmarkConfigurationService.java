@@ -0,0 +1,68 @@
+/*-
+ * #START_LICENSE#
+ * smp-benchmarks
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.benchmark;
+
+import eu.europa.ec.edelivery.smp.services.ConfigurationService;
+
+import java.io.File;
+
+/**
+ * The configuration service with the fixed keystore configuration for the benchmarks. The benchmarks do not use
+ * the database configuration.
+ *
+ * @since 5.2
+ */
+public class BenchmarkConfigurationService extends ConfigurationService {
+
+    private final File keystoreFile;
+    private final String keystoreType;
+    private final String keystorePassword;
+
+    public BenchmarkConfigurationService(File keystoreFile, String keystoreType, String keystorePassword) {
+        super(null);
+        this.keystoreFile = keystoreFile;
+        this.keystoreType = keystoreType;
+        this.keystorePassword = keystorePassword;
+    }
+
+    @Override
+    public File getKeystoreFile() {
+        return keystoreFile;
+    }
+
+    @Override
+    public String getKeystoreType() {
+        return keystoreType;
+    }
+
+    @Override
+    public String getKeystoreCredentialToken() {
+        return keystorePassword;
+    }
+
+    @Override
+    public boolean isResourceResponseCacheEnabled() {
+        return false;
+    }
+
+    @Override
+    public File getResourceSnapshotFolder() {
+        return null;
+    }
+}
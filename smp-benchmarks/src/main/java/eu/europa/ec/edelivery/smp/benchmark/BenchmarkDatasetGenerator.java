@@ -0,0 +1,178 @@
+/*-
+ * #START_LICENSE#
+ * smp-benchmarks
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.benchmark;
+
+import eu.europa.ec.edelivery.smp.data.dao.ResourceDefDao;
+import eu.europa.ec.edelivery.smp.data.enums.DocumentVersionStatusType;
+import eu.europa.ec.edelivery.smp.data.enums.VisibilityType;
+import eu.europa.ec.edelivery.smp.data.model.DBDomain;
+import eu.europa.ec.edelivery.smp.data.model.DBDomainResourceDef;
+import eu.europa.ec.edelivery.smp.data.model.DBGroup;
+import eu.europa.ec.edelivery.smp.data.model.doc.DBDocument;
+import eu.europa.ec.edelivery.smp.data.model.doc.DBDocumentVersion;
+import eu.europa.ec.edelivery.smp.data.model.doc.DBResource;
+import eu.europa.ec.edelivery.smp.data.model.doc.DBSubresource;
+import eu.europa.ec.edelivery.smp.data.model.ext.DBResourceDef;
+import eu.europa.ec.edelivery.smp.data.model.ext.DBSubresourceDef;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Generator of the benchmark dataset: one public domain and group with the OASIS SMP 1.0 resource type, and the
+ * participants (ServiceGroups) with the published documents and service metadata (subresources).
+ *
+ * @since 5.2
+ */
+@Component
+public class BenchmarkDatasetGenerator {
+
+    public static final String PARTICIPANT_SCHEME = "iso6523-actorid-upis";
+    public static final String DOCUMENT_SCHEME = "busdox-docid-qns";
+    private static final String PARTICIPANT_VALUE = "0088:%09d";
+    private static final String DOCUMENT_VALUE = "urn:oasis:names:specification:ubl:schema:xsd:invoice-2::invoice##urn:cen.eu:en16931:2017::2.1-%d";
+    private static final String SMP10_RESOURCE_DEF = "edelivery-oasis-smp-1.0-servicegroup";
+    private static final int FLUSH_SIZE = 500;
+
+    @PersistenceContext(unitName = "smpEntityManagerFactory")
+    private EntityManager entityManager;
+
+    private final ResourceDefDao resourceDefDao;
+
+    public BenchmarkDatasetGenerator(ResourceDefDao resourceDefDao) {
+        this.resourceDefDao = resourceDefDao;
+    }
+
+    public static String participantValue(int index) {
+        return String.format(PARTICIPANT_VALUE, index);
+    }
+
+    public static String documentValue(int index) {
+        return String.format(DOCUMENT_VALUE, index);
+    }
+
+    /**
+     * Generate the benchmark dataset.
+     *
+     * @param domainCode       the domain code
+     * @param keyAlias         the domain signature key alias
+     * @param participantCount the number of participants
+     * @param serviceCount     the number of service metadata for each participant
+     * @return the detached domain entity
+     */
+    @Transactional
+    public DBDomain generate(String domainCode, String keyAlias, int participantCount, int serviceCount) {
+        DBResourceDef resourceDef = resourceDefDao.getResourceDefByIdentifier(SMP10_RESOURCE_DEF)
+                .orElseThrow(() -> new IllegalStateException("Resource definition [" + SMP10_RESOURCE_DEF + "] is not registered!"));
+        DBSubresourceDef subresourceDef = resourceDef.getSubresources().get(0);
+
+        DBDomain domain = new DBDomain();
+        domain.setDomainCode(domainCode);
+        domain.setSignatureKeyAlias(keyAlias);
+        domain.setSmlSubdomain(domainCode);
+        domain.setSmlSmpId("SMP-" + domainCode);
+        entityManager.persist(domain);
+
+        DBGroup group = new DBGroup();
+        group.setGroupName(domainCode + "-group");
+        group.setGroupDescription("Benchmark group");
+        group.setVisibility(VisibilityType.PUBLIC);
+        group.setDomain(domain);
+        entityManager.persist(group);
+
+        DBDomainResourceDef domainResourceDef = new DBDomainResourceDef();
+        domainResourceDef.setDomain(domain);
+        domainResourceDef.setResourceDef(resourceDef);
+        entityManager.persist(domainResourceDef);
+
+        for (int i = 0; i < participantCount; i++) {
+            String participantValue = participantValue(i);
+            DBResource resource = new DBResource();
+            resource.setIdentifierValue(participantValue);
+            resource.setIdentifierScheme(PARTICIPANT_SCHEME);
+            resource.setVisibility(VisibilityType.PUBLIC);
+            resource.setGroup(group);
+            resource.setDomainResourceDef(domainResourceDef);
+            resource.setDocument(createDocument(createServiceGroup(participantValue)));
+            entityManager.persist(resource);
+
+            for (int j = 0; j < serviceCount; j++) {
+                String documentValue = documentValue(j);
+                DBSubresource subresource = new DBSubresource();
+                subresource.setIdentifierValue(documentValue);
+                subresource.setIdentifierScheme(DOCUMENT_SCHEME);
+                subresource.setSubresourceDef(subresourceDef);
+                subresource.setResource(resource);
+                subresource.setDocument(createDocument(createServiceMetadata(participantValue, documentValue)));
+                entityManager.persist(subresource);
+            }
+
+            if (i % FLUSH_SIZE == FLUSH_SIZE - 1) {
+                entityManager.flush();
+                entityManager.clear();
+                group = entityManager.find(DBGroup.class, group.getId());
+                domainResourceDef = entityManager.find(DBDomainResourceDef.class, domainResourceDef.getId());
+                subresourceDef = entityManager.find(DBSubresourceDef.class, subresourceDef.getId());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return entityManager.find(DBDomain.class, domain.getId());
+    }
+
+    private static DBDocument createDocument(String content) {
+        DBDocumentVersion documentVersion = new DBDocumentVersion();
+        documentVersion.setStatus(DocumentVersionStatusType.PUBLISHED);
+        documentVersion.setContent(content.getBytes(StandardCharsets.UTF_8));
+
+        DBDocument document = new DBDocument();
+        document.setMimeType("application/xml");
+        document.setName("benchmark-document");
+        document.setSharingEnabled(Boolean.FALSE);
+        document.addNewDocumentVersion(documentVersion);
+        return document;
+    }
+
+    private static String createServiceGroup(String participantValue) {
+        return "<ServiceGroup xmlns=\"http://docs.oasis-open.org/bdxr/ns/SMP/2016/05\">" +
+                "<ParticipantIdentifier scheme=\"" + PARTICIPANT_SCHEME + "\">" + participantValue + "</ParticipantIdentifier>" +
+                "<ServiceMetadataReferenceCollection />" +
+                "</ServiceGroup>";
+    }
+
+    private static String createServiceMetadata(String participantValue, String documentValue) {
+        return "<ServiceMetadata xmlns=\"http://docs.oasis-open.org/bdxr/ns/SMP/2016/05\"><ServiceInformation>" +
+                "<ParticipantIdentifier scheme=\"" + PARTICIPANT_SCHEME + "\">" + participantValue + "</ParticipantIdentifier>" +
+                "<DocumentIdentifier scheme=\"" + DOCUMENT_SCHEME + "\">" + documentValue + "</DocumentIdentifier>" +
+                "<ProcessList><Process>" +
+                "<ProcessIdentifier scheme=\"cenbii-procid-ubl\">urn:fdc:peppol.eu:2017:poacc:billing:01:1.0</ProcessIdentifier>" +
+                "<ServiceEndpointList>" +
+                "<Endpoint transportProfile=\"bdxr-transport-ebms3-as4-v1p0\">" +
+                "<EndpointURI>https://ap.example.eu/as4</EndpointURI>" +
+                "<Certificate>Q2VydGlmaWNhdGUgZGF0YSA=</Certificate>" +
+                "<ServiceDescription>Benchmark access point</ServiceDescription>" +
+                "<TechnicalContactUrl>https://www.example.eu/contact</TechnicalContactUrl>" +
+                "</Endpoint>" +
+                "</ServiceEndpointList>" +
+                "</Process></ProcessList></ServiceInformation></ServiceMetadata>";
+    }
+}
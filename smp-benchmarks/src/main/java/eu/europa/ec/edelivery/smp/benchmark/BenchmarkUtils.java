@@ -0,0 +1,88 @@
+/*-
+ * #START_LICENSE#
+ * smp-benchmarks
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.benchmark;
+
+import org.apache.commons.io.IOUtils;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Utility methods for preparing the benchmark data.
+ *
+ * @since 5.2
+ */
+public class BenchmarkUtils {
+
+    private BenchmarkUtils() {
+    }
+
+    /**
+     * Copy the classpath resource to the temporary file which is deleted at JVM exit.
+     *
+     * @param resourcePath the classpath resource
+     * @param suffix       the temporary file suffix
+     * @return the temporary file
+     * @throws IOException if the resource can not be copied
+     */
+    public static File copyResourceToTempFile(String resourcePath, String suffix) throws IOException {
+        File file = File.createTempFile("smp-benchmark-", suffix);
+        file.deleteOnExit();
+        try (InputStream inputStream = getResource(resourcePath)) {
+            Files.copy(inputStream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file;
+    }
+
+    public static Document loadDocument(String resourcePath) throws ParserConfigurationException, SAXException, IOException {
+        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        dbf.setNamespaceAware(true);
+        try (InputStream inputStream = getResource(resourcePath)) {
+            return dbf.newDocumentBuilder().parse(inputStream);
+        }
+    }
+
+    /**
+     * Read the classpath resource to the byte array.
+     *
+     * @param resourcePath the classpath resource
+     * @return the resource content
+     * @throws IOException if the resource can not be read
+     */
+    public static byte[] readResource(String resourcePath) throws IOException {
+        try (InputStream inputStream = getResource(resourcePath)) {
+            return IOUtils.toByteArray(inputStream);
+        }
+    }
+
+    private static InputStream getResource(String resourcePath) throws IOException {
+        InputStream inputStream = BenchmarkUtils.class.getResourceAsStream(resourcePath);
+        if (inputStream == null) {
+            throw new IOException("Benchmark resource [" + resourcePath + "] does not exist!");
+        }
+        return inputStream;
+    }
+}
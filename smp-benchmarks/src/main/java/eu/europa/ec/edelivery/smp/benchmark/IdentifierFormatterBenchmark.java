@@ -0,0 +1,86 @@
+/*-
+ * #START_LICENSE#
+ * smp-benchmarks
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.benchmark;
+
+import eu.europa.ec.dynamicdiscovery.model.identifiers.types.EBCorePartyIdFormatterType;
+import eu.europa.ec.dynamicdiscovery.model.identifiers.types.TemplateFormatterType;
+import eu.europa.ec.edelivery.smp.identifiers.Identifier;
+import eu.europa.ec.edelivery.smp.identifiers.IdentifierFormatter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Throughput of the participant identifier normalization and formatting with the eBCore party identifier formatter,
+ * the template formatter and the default formatter (scheme::identifier). The formatter is configured as for the
+ * DomiSMP domain, where both the eBCore and template formatter types are registered.
+ *
+ * @since 5.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class IdentifierFormatterBenchmark {
+
+    /**
+     * The identifier resolved by the eBCore, the template and the default formatter
+     */
+    @Param({"urn:oasis:names:tc:ebcore:partyid-type:iso6523:0088:123456789",
+            "urn:ehealth:si:1123445",
+            "iso6523-actorid-upis::0088:123456789"})
+    public String participantIdentifier;
+
+    private IdentifierFormatter identifierFormatter;
+    private Identifier normalizedIdentifier;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        TemplateFormatterType templateFormatterType = new TemplateFormatterType(
+                Pattern.compile("^(?i)\\s*(::)?((urn:ehealth:[a-zA-Z]{2})|mailto).*$"),
+                "${scheme}::${identifier}",
+                Pattern.compile("^(?i)\\s*(::)?(?<scheme>(urn:ehealth:[a-zA-Z]{2})|mailto):?(?<identifier>.+)?\\s*$"));
+
+        identifierFormatter = IdentifierFormatter.Builder
+                .create()
+                .addFormatterTypes(templateFormatterType, new EBCorePartyIdFormatterType())
+                .addCaseSensitiveSchemas("sensitive-participant-sc1", "sensitive-participant-sc2")
+                .build();
+        normalizedIdentifier = identifierFormatter.normalizeIdentifier(participantIdentifier);
+    }
+
+    @Benchmark
+    public Identifier normalizeIdentifier() {
+        return identifierFormatter.normalizeIdentifier(participantIdentifier);
+    }
+
+    @Benchmark
+    public String format() {
+        return identifierFormatter.format(normalizedIdentifier);
+    }
+
+    @Benchmark
+    public String urlEncodedFormat() {
+        return identifierFormatter.urlEncodedFormat(normalizedIdentifier);
+    }
+}
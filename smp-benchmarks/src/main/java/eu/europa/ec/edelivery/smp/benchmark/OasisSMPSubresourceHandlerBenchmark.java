@@ -0,0 +1,117 @@
+/*-
+ * #START_LICENSE#
+ * smp-benchmarks
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.benchmark;
+
+import eu.europa.ec.edelivery.smp.services.resource.ResourceResponseCache;
+import eu.europa.ec.edelivery.smp.services.resource.ResourceSnapshotStore;
+import eu.europa.ec.edelivery.smp.services.spi.SmpXmlSignatureService;
+import eu.europa.ec.edelivery.smp.services.spi.data.SpiRequestData;
+import eu.europa.ec.edelivery.smp.services.spi.data.SpiResponseData;
+import eu.europa.ec.edelivery.smp.services.ui.UIKeystoreService;
+import eu.europa.ec.smp.spi.api.SmpXmlSignatureApi;
+import eu.europa.ec.smp.spi.api.model.ResourceIdentifier;
+import eu.europa.ec.smp.spi.exceptions.ResourceException;
+import eu.europa.ec.smp.spi.handler.OasisSMPSubresource10Handler;
+import eu.europa.ec.smp.spi.handler.OasisSMPSubresource20Handler;
+import eu.europa.ec.smp.spi.resource.ResourceHandlerSpi;
+import eu.europa.ec.smp.spi.validation.Subresource10Validator;
+import eu.europa.ec.smp.spi.validation.Subresource20Validator;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.security.Security;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the OASIS SMP 1.0 and 2.0 ServiceMetadata read: parsing of the stored document, the enveloped
+ * signature with the RSA, EC and Ed25519 keys, and the serialization of the signed document.
+ *
+ * @since 5.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class OasisSMPSubresourceHandlerBenchmark {
+
+    private static final String KEYSTORE_RESOURCE = "/keystores/smp-keystore-all-keys.p12";
+    private static final String SMP10_DOCUMENT_RESOURCE = "/input/oasis-smp-1.0/SubresourceWithServiceOk.xml";
+    private static final String SMP20_DOCUMENT_RESOURCE = "/input/oasis-smp-2.0/subresource_unsigned_valid_iso6523.xml";
+    private static final String DOMAIN_CODE = "benchmark";
+
+    /**
+     * The RSA, EC and Ed25519 signing keys
+     */
+    @Param({"sample_key", "smp_ecdsa_nist-b409", "smp_eddsa_25519"})
+    public String keyAlias;
+
+    private OasisSMPSubresource10Handler subresource10Handler;
+    private OasisSMPSubresource20Handler subresource20Handler;
+    private byte[] smp10Document;
+    private byte[] smp20Document;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+        BenchmarkConfigurationService configurationService = new BenchmarkConfigurationService(
+                BenchmarkUtils.copyResourceToTempFile(KEYSTORE_RESOURCE, ".p12"), "PKCS12", "test123");
+        UIKeystoreService keystoreService = new UIKeystoreService(null, configurationService, new ResourceResponseCache(configurationService,
+                new ResourceSnapshotStore(configurationService, null, null)), null);
+        keystoreService.refreshData();
+        SmpXmlSignatureService signatureService = new SmpXmlSignatureService(null, keystoreService);
+        // the domain signing key is resolved by the handler caller (domain configuration), here it is set by the benchmark parameter
+        SmpXmlSignatureApi signatureApi = (resourceData, parentSignatureNode, signedElementURIList) ->
+                signatureService.createEnvelopedSignature(parentSignatureNode, signedElementURIList, keyAlias, null, null);
+
+        subresource10Handler = new OasisSMPSubresource10Handler(null, null, signatureApi, new Subresource10Validator(null));
+        subresource20Handler = new OasisSMPSubresource20Handler(null, null, signatureApi, new Subresource20Validator(null));
+        smp10Document = BenchmarkUtils.readResource(SMP10_DOCUMENT_RESOURCE);
+        smp20Document = BenchmarkUtils.readResource(SMP20_DOCUMENT_RESOURCE);
+    }
+
+    @Benchmark
+    public byte[] readSubresource10() throws ResourceException {
+        return readSubresource(subresource10Handler, smp10Document,
+                new ResourceIdentifier("urn:eu:ncpb:utest", "ehealth-actorid-qns"),
+                new ResourceIdentifier("urn::epsos##services:extended:epsos::107", "ehealth-resid-qns"));
+    }
+
+    @Benchmark
+    public byte[] readSubresource20() throws ResourceException {
+        return readSubresource(subresource20Handler, smp20Document,
+                new ResourceIdentifier("9915:123456789", "iso6523-actorid-upis"),
+                new ResourceIdentifier("urn:oasis:names:specification:ubl:schema:xsd:Invoice-2::Invoice", "bdx-docid-qns"));
+    }
+
+    private static byte[] readSubresource(ResourceHandlerSpi handler, byte[] document,
+                                          ResourceIdentifier resourceIdentifier,
+                                          ResourceIdentifier subresourceIdentifier) throws ResourceException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(document.length * 2);
+        handler.readResource(new SpiRequestData(DOMAIN_CODE, resourceIdentifier, subresourceIdentifier,
+                new ByteArrayInputStream(document)), new SpiResponseData(outputStream));
+        return outputStream.toByteArray();
+    }
+}
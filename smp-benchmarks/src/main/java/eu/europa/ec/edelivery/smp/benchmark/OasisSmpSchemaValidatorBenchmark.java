@@ -0,0 +1,88 @@
+/*-
+ * #START_LICENSE#
+ * smp-benchmarks
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.benchmark;
+
+import eu.europa.ec.dynamicdiscovery.core.validator.OasisSmpSchemaValidator;
+import eu.europa.ec.dynamicdiscovery.exception.XmlInvalidAgainstSchemaException;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the XSD validation of the OASIS SMP 1.0 ServiceMetadata documents of approximately 1 KB, 100 KB and
+ * 1 MB. The documents are generated by adding the endpoints to the service metadata until the document reaches the
+ * requested size.
+ *
+ * @since 5.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class OasisSmpSchemaValidatorBenchmark {
+
+    private static final String DOCUMENT_START = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<ServiceMetadata xmlns=\"http://docs.oasis-open.org/bdxr/ns/SMP/2016/05\"><ServiceInformation>" +
+            "<ParticipantIdentifier scheme=\"iso6523-actorid-upis\">0088:123456789</ParticipantIdentifier>" +
+            "<DocumentIdentifier scheme=\"busdox-docid-qns\">urn:oasis:names:specification:ubl:schema:xsd:Invoice-2::Invoice</DocumentIdentifier>" +
+            "<ProcessList><Process>" +
+            "<ProcessIdentifier scheme=\"cenbii-procid-ubl\">urn:www.cenbii.eu:profile:bii05:ver2.0</ProcessIdentifier>" +
+            "<ServiceEndpointList>";
+    private static final String ENDPOINT = "<Endpoint transportProfile=\"bdxr-transport-ebms3-as4-v1p0-%d\">" +
+            "<EndpointURI>https://ap-%d.example.eu/as4</EndpointURI>" +
+            "<RequireBusinessLevelSignature>false</RequireBusinessLevelSignature>" +
+            "<ServiceActivationDate>2024-01-01T00:00:00Z</ServiceActivationDate>" +
+            "<ServiceExpirationDate>2034-01-01T00:00:00Z</ServiceExpirationDate>" +
+            "<Certificate>Q2VydGlmaWNhdGUgZGF0YSA=</Certificate>" +
+            "<ServiceDescription>Service description for partners</ServiceDescription>" +
+            "<TechnicalContactUrl>https://www.example.eu/contact</TechnicalContactUrl>" +
+            "</Endpoint>";
+    private static final String DOCUMENT_END = "</ServiceEndpointList></Process></ProcessList></ServiceInformation></ServiceMetadata>";
+
+    /**
+     * The approximate document size in bytes
+     */
+    @Param({"1024", "102400", "1048576"})
+    public int documentSize;
+
+    private byte[] document;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        StringBuilder sb = new StringBuilder(documentSize + 1024);
+        sb.append(DOCUMENT_START);
+        int index = 0;
+        do {
+            sb.append(String.format(ENDPOINT, index, index));
+            index++;
+        } while (sb.length() + DOCUMENT_END.length() < documentSize);
+        sb.append(DOCUMENT_END);
+        document = sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] validateOasisSMP10Schema() throws XmlInvalidAgainstSchemaException {
+        OasisSmpSchemaValidator.validateOasisSMP10Schema(document);
+        return document;
+    }
+}
@@ -0,0 +1,132 @@
+/*-
+ * #START_LICENSE#
+ * smp-benchmarks
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.benchmark;
+
+import eu.europa.ec.edelivery.smp.data.model.DBDomain;
+import eu.europa.ec.edelivery.smp.servlet.ResourceAction;
+import eu.europa.ec.edelivery.smp.servlet.ResourceRequest;
+import eu.europa.ec.edelivery.smp.servlet.ResourceResponse;
+import eu.europa.ec.edelivery.smp.services.resource.ResourceService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static eu.europa.ec.edelivery.smp.config.enums.SMPEnvPropertyEnum.*;
+
+/**
+ * End-to-end throughput of the anonymous GET requests handled by the {@link ResourceService}: resolution of the
+ * domain, resource and subresource from the database, the document property resolution, the OASIS SMP 1.0 handler
+ * and the signature of the response. The application context is started on the in-memory H2 database which is filled
+ * by the {@link BenchmarkDatasetGenerator} and the participants are requested in the random order.
+ *
+ * @since 5.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(4)
+public class ResourceServiceBenchmark {
+
+    private static final String DOMAIN_CODE = "benchmark";
+    private static final String SIGNATURE_KEY_ALIAS = "sample_key";
+    private static final String SUBRESOURCE_URL_SEGMENT = "services";
+    private static final int SERVICE_COUNT = 3;
+
+    /**
+     * The number of participants in the database
+     */
+    @Param({"1000", "10000"})
+    public int participantCount;
+
+    private AnnotationConfigApplicationContext applicationContext;
+    private ResourceService resourceService;
+    private DBDomain domain;
+
+    @Configuration
+    @ComponentScan({"eu.europa.ec.edelivery.smp", "eu.europa.ec.smp.spi"})
+    public static class BenchmarkApplicationConfig {
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        File securityFolder = Files.createTempDirectory("smp-benchmark-security").toFile();
+        securityFolder.deleteOnExit();
+        System.setProperty(JDBC_DRIVER.getProperty(), "org.h2.Driver");
+        System.setProperty(HIBERNATE_DIALECT.getProperty(), "org.hibernate.dialect.H2Dialect");
+        System.setProperty(JDBC_URL.getProperty(), "jdbc:h2:mem:smp-benchmark-" + participantCount + ";DB_CLOSE_DELAY=-1");
+        System.setProperty(JDBC_USER.getProperty(), "smp");
+        System.setProperty(JDBC_PASSWORD.getProperty(), "smp");
+        // development mode creates the database schema and the sample keystore with the sample_key
+        System.setProperty(SMP_MODE_DEVELOPMENT.getProperty(), "true");
+        System.setProperty(DATABASE_CREATE_DDL.getProperty(), "true");
+        System.setProperty(DATABASE_SHOW_SQL.getProperty(), "false");
+        System.setProperty(SECURITY_FOLDER.getProperty(), securityFolder.getPath());
+
+        applicationContext = new AnnotationConfigApplicationContext(BenchmarkApplicationConfig.class);
+        resourceService = applicationContext.getBean(ResourceService.class);
+        domain = applicationContext.getBean(BenchmarkDatasetGenerator.class)
+                .generate(DOMAIN_CODE, SIGNATURE_KEY_ALIAS, participantCount, SERVICE_COUNT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (applicationContext != null) {
+            applicationContext.close();
+        }
+    }
+
+    @Benchmark
+    public byte[] readResource() {
+        return handleReadRequest(Collections.singletonList(randomParticipant()));
+    }
+
+    @Benchmark
+    public byte[] readSubresource() {
+        String document = BenchmarkDatasetGenerator.DOCUMENT_SCHEME + "::"
+                + BenchmarkDatasetGenerator.documentValue(ThreadLocalRandom.current().nextInt(SERVICE_COUNT));
+        return handleReadRequest(Arrays.asList(randomParticipant(), SUBRESOURCE_URL_SEGMENT, document));
+    }
+
+    private String randomParticipant() {
+        return BenchmarkDatasetGenerator.PARTICIPANT_SCHEME + "::"
+                + BenchmarkDatasetGenerator.participantValue(ThreadLocalRandom.current().nextInt(participantCount));
+    }
+
+    private byte[] handleReadRequest(List<String> pathParameters) {
+        ResourceRequest resourceRequest = new ResourceRequest(ResourceAction.READ, Collections.emptyMap(), pathParameters, null);
+        // the domain is resolved and authorized by the web layer (DomainGuard)
+        resourceRequest.setAuthorizedDomain(domain);
+        MockHttpServletResponse httpResponse = new MockHttpServletResponse();
+        resourceService.handleRequest(null, resourceRequest, new ResourceResponse(httpResponse));
+        return httpResponse.getContentAsByteArray();
+    }
+}
@@ -0,0 +1,126 @@
+/*-
+ * #START_LICENSE#
+ * smp-benchmarks
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.benchmark;
+
+import eu.europa.ec.edelivery.smp.services.resource.ResourceResponseCache;
+import eu.europa.ec.edelivery.smp.services.resource.ResourceSnapshotStore;
+import eu.europa.ec.edelivery.smp.services.spi.SmpXmlSignatureService;
+import eu.europa.ec.edelivery.smp.services.ui.UIKeystoreService;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.*;
+import org.w3c.dom.Document;
+
+import javax.xml.crypto.dsig.DigestMethod;
+import javax.xml.crypto.dsig.Reference;
+import javax.xml.crypto.dsig.SignedInfo;
+import javax.xml.crypto.dsig.XMLSignature;
+import javax.xml.crypto.dsig.XMLSignatureFactory;
+import javax.xml.crypto.dsig.dom.DOMSignContext;
+import javax.xml.crypto.dsig.keyinfo.KeyInfoFactory;
+import javax.xml.crypto.dsig.spec.C14NMethodParameterSpec;
+import javax.xml.crypto.dsig.spec.TransformParameterSpec;
+import java.security.Key;
+import java.security.Security;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+import static javax.xml.crypto.dsig.CanonicalizationMethod.INCLUSIVE;
+import static javax.xml.crypto.dsig.Transform.ENVELOPED;
+
+/**
+ * Throughput of the enveloped signature of the service metadata document. The benchmark compares the
+ * {@link SmpXmlSignatureService} with the reused signing context to the signing where the XMLSignatureFactory, the
+ * signing key and the KeyInfo are created for every signature (the implementation before DomiSMP 5.2).
+ *
+ * @since 5.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class SmpXmlSignatureServiceBenchmark {
+
+    private static final String KEYSTORE_RESOURCE = "/keystores/smp-keystore-all-keys.p12";
+    private static final String DOCUMENT_RESOURCE = "/input/SignedServiceMetadata_withoutSignature.xml";
+
+    /**
+     * The RSA, EC and Ed25519 signing keys
+     */
+    @Param({"sample_key", "smp_ecdsa_nist-b409", "smp_eddsa_25519"})
+    public String keyAlias;
+
+    private UIKeystoreService keystoreService;
+    private SmpXmlSignatureService signatureService;
+    private Document templateDocument;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+        BenchmarkConfigurationService configurationService = new BenchmarkConfigurationService(
+                BenchmarkUtils.copyResourceToTempFile(KEYSTORE_RESOURCE, ".p12"), "PKCS12", "test123");
+        keystoreService = new UIKeystoreService(null, configurationService, new ResourceResponseCache(configurationService,
+                new ResourceSnapshotStore(configurationService, null, null)), null);
+        keystoreService.refreshData();
+        signatureService = new SmpXmlSignatureService(null, keystoreService);
+        templateDocument = BenchmarkUtils.loadDocument(DOCUMENT_RESOURCE);
+    }
+
+    @Benchmark
+    public Document signWithSigningContext() {
+        Document document = (Document) templateDocument.cloneNode(true);
+        signatureService.sign(document, keyAlias, null, null);
+        return document;
+    }
+
+    @Benchmark
+    public Document signWithoutSigningContext() throws Exception {
+        Document document = (Document) templateDocument.cloneNode(true);
+        XMLSignatureFactory domSigFactory = XMLSignatureFactory.getInstance("DOM", new org.apache.jcp.xml.dsig.internal.dom.XMLDSigRI());
+        Key signingKey = keystoreService.getKey(keyAlias);
+        String signAlg = signatureService.getSignatureAlgorithmForKey(signingKey, null);
+        Reference reference = domSigFactory.newReference("",
+                domSigFactory.newDigestMethod(DigestMethod.SHA256, null),
+                singletonList(domSigFactory.newTransform(ENVELOPED, (TransformParameterSpec) null)),
+                null,
+                null);
+        SignedInfo signedInfo = domSigFactory.newSignedInfo(
+                domSigFactory.newCanonicalizationMethod(INCLUSIVE, (C14NMethodParameterSpec) null),
+                domSigFactory.newSignatureMethod(signAlg, null),
+                singletonList(reference));
+        DOMSignContext domSignContext = new DOMSignContext(keystoreService.getKey(keyAlias), document.getDocumentElement());
+
+        KeyInfoFactory keyInfoFactory = XMLSignatureFactory.getInstance("DOM", new org.apache.jcp.xml.dsig.internal.dom.XMLDSigRI()).getKeyInfoFactory();
+        List<Object> content = new ArrayList<>();
+        X509Certificate cert = keystoreService.getCert(keyAlias);
+        content.add(cert.getSubjectX500Principal().getName());
+        content.add(cert);
+        XMLSignature signature = domSigFactory.newXMLSignature(signedInfo,
+                keyInfoFactory.newKeyInfo(singletonList(keyInfoFactory.newX509Data(content))));
+        signature.sign(domSignContext);
+        return document;
+    }
+}
@@ -0,0 +1,110 @@
+/*-
+ * #START_LICENSE#
+ * smp-benchmarks
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.benchmark;
+
+import eu.europa.ec.edelivery.smp.utils.StringNamedSubstitutor;
+import eu.europa.ec.smp.spi.enums.TransientDocumentPropertyType;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the document template property resolution. The benchmark compares the resolution of the
+ * template string, the resolution from the input stream (template is compiled for every call) and the rendering
+ * of the precompiled template as it is used by the resource storage.
+ *
+ * @since 5.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class StringNamedSubstitutorBenchmark {
+
+    private static final String CHARSET = StandardCharsets.UTF_8.name();
+    private static final String ENDPOINT_TEMPLATE = "<Endpoint transportProfile=\"bdxr-transport-ebms3-as4-v1p0\">" +
+            "<EndpointURI>https://${resource.identifier.value}.example.eu/as4</EndpointURI>" +
+            "<Certificate>Q2VydGlmaWNhdGUgZGF0YSA=</Certificate>" +
+            "<ServiceDescription>Service for ${resource.identifier.scheme}::${resource.identifier.value}</ServiceDescription>" +
+            "<TechnicalContactUrl>https://www.example.eu/contact</TechnicalContactUrl>" +
+            "</Endpoint>";
+
+    /**
+     * The number of endpoints with placeholders in the template document
+     */
+    @Param({"1", "10", "100"})
+    public int endpointCount;
+
+    private String template;
+    private byte[] templateBytes;
+    private StringNamedSubstitutor.Template compiledTemplate;
+    private Map<String, String> properties;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        StringBuilder sb = new StringBuilder("<ServiceMetadata xmlns=\"http://docs.oasis-open.org/bdxr/ns/SMP/2016/05\">" +
+                "<ServiceInformation>" +
+                "<ParticipantIdentifier scheme=\"${resource.identifier.scheme}\">${resource.identifier.value}</ParticipantIdentifier>" +
+                "<DocumentIdentifier scheme=\"${subresource.identifier.scheme}\">${subresource.identifier.value}</DocumentIdentifier>" +
+                "<ProcessList><Process>" +
+                "<ProcessIdentifier scheme=\"cenbii-procid-ubl\">urn:www.cenbii.eu:profile:bii05:ver2.0</ProcessIdentifier>" +
+                "<ServiceEndpointList>");
+        for (int i = 0; i < endpointCount; i++) {
+            sb.append(ENDPOINT_TEMPLATE);
+        }
+        sb.append("</ServiceEndpointList></Process></ProcessList></ServiceInformation></ServiceMetadata>");
+        template = sb.toString();
+        templateBytes = template.getBytes(StandardCharsets.UTF_8);
+        compiledTemplate = StringNamedSubstitutor.compile(templateBytes, CHARSET);
+
+        properties = new HashMap<>();
+        properties.put(TransientDocumentPropertyType.RESOURCE_IDENTIFIER_VALUE.getPropertyName(), "0088:123456789");
+        properties.put(TransientDocumentPropertyType.RESOURCE_IDENTIFIER_SCHEME.getPropertyName(), "iso6523-actorid-upis");
+        properties.put(TransientDocumentPropertyType.SUBRESOURCE_IDENTIFIER_VALUE.getPropertyName(), "urn:oasis:names:specification:ubl:schema:xsd:Invoice-2::Invoice");
+        properties.put(TransientDocumentPropertyType.SUBRESOURCE_IDENTIFIER_SCHEME.getPropertyName(), "busdox-docid-qns");
+    }
+
+    @Benchmark
+    public String resolveString() {
+        return StringNamedSubstitutor.resolve(template, properties);
+    }
+
+    @Benchmark
+    public byte[] resolveStream() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(templateBytes.length);
+        StringNamedSubstitutor.resolve(new ByteArrayInputStream(templateBytes), properties, outputStream, CHARSET);
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] renderCompiledTemplate() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(templateBytes.length);
+        compiledTemplate.render(properties, outputStream);
+        return outputStream.toByteArray();
+    }
+}
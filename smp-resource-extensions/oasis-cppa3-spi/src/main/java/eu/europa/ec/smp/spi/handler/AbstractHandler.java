@@ -23,6 +23,7 @@ import eu.europa.ec.smp.spi.api.model.ResourceIdentifier;
 import eu.europa.ec.smp.spi.exceptions.CPPARuntimeException;
 import eu.europa.ec.smp.spi.exceptions.ResourceException;
 import eu.europa.ec.smp.spi.resource.ResourceHandlerSpi;
+import eu.europa.ec.smp.spi.utils.XmlProcessingUtils;
 import gen.eu.europa.ec.ddc.api.cppa.CPP;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -32,23 +33,16 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.xml.sax.SAXException;
 
-import javax.xml.XMLConstants;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
-import javax.xml.validation.Validator;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.net.URL;
 
 /**
  * The abstract class with common methods for implementation of the  ResourceHandlerSpi.
@@ -60,81 +54,10 @@ public abstract class AbstractHandler implements ResourceHandlerSpi {
 
     static final Logger LOG = LoggerFactory.getLogger(AbstractHandler.class);
 
-    private static final String DISALLOW_DOCTYPE_FEATURE = "http://apache.org/xml/features/disallow-doctype-decl";
-    private static final ThreadLocal<DocumentBuilder> threadLocalDocumentBuilder = ThreadLocal.withInitial(() -> createDocumentBuilder());
+    private static final Schema OASIS_CPPA_SCHEMA = XmlProcessingUtils.getSchema(AbstractHandler.class.getResource("/xsd/cppa3.xsd"));
 
-    public static DocumentBuilder createDocumentBuilder() {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(true);
-        factory.setValidating(true);
-        enableFeature(factory, DISALLOW_DOCTYPE_FEATURE);
-        enableFeature(factory, XMLConstants.FEATURE_SECURE_PROCESSING);
-
-        try {
-            return factory.newDocumentBuilder();
-        } catch (ParserConfigurationException ex) {
-            throw new CPPARuntimeException(CPPARuntimeException.ErrorCode.INITIALIZE_ERROR, "Can not create new XML Document builder! Error: [" + ExceptionUtils.getRootCauseMessage(ex) + "]", ex);
-        }
-    }
-
-    private static boolean enableFeature(DocumentBuilderFactory factory, String feature) {
-        try {
-            factory.setFeature(feature, true);
-            return true;
-        } catch (ParserConfigurationException e) {
-            LOG.warn("DocumentBuilderFactory initialization error. The feature [{}] is not supported by current factory. The feature is ignored.", feature);
-            return false;
-        }
-    }
-
-    private static final ThreadLocal<Unmarshaller> jaxbUnmarshaller = ThreadLocal.withInitial(() -> {
-        try {
-            JAXBContext jaxbContext = JAXBContext.newInstance(CPP.class);
-            return jaxbContext.createUnmarshaller();
-        } catch (JAXBException ex) {
-            LOG.error("Error occurred while initializing JAXBContext for ServiceGroup. Cause message:" + ex, ex);
-        }
-        return null;
-    });
-
-    private static final ThreadLocal<Marshaller> jaxbMarshaller = ThreadLocal.withInitial(() -> {
-        try {
-
-            JAXBContext jaxbContext = JAXBContext.newInstance(CPP.class);
-            return jaxbContext.createMarshaller();
-        } catch (JAXBException ex) {
-            LOG.error("Error occurred while initializing JAXBContext for ServiceGroup. Cause message:" + ex, ex);
-        }
-        return null;
-    });
-
-    private static final ThreadLocal<Validator> oasisCPPAValidator = ThreadLocal.withInitial(() -> {
-        URL xsdFilePath = AbstractHandler.class.getResource("/xsd/cppa3.xsd");
-        return generateValidatorForSchema(xsdFilePath);
-    });
-
-    protected static Validator getOasisCPPAValidator() {
-        return oasisCPPAValidator.get();
-    }
-
-    public Unmarshaller getUnmarshaller() {
-        return jaxbUnmarshaller.get();
-    }
-
-    public Marshaller getMarshaller() {
-        return jaxbMarshaller.get();
-    }
-
-    /**
-     * Removes the current thread's ServiceGroup Unmarshaller for this thread-local variable. If this thread-local variable
-     * is subsequently read by the current thread, its value will be reinitialized by invoking its initialValue method.
-     */
-    public void destroyUnmarshaller() {
-        jaxbUnmarshaller.remove();
-    }
-
-    public void destroyMarshaller() {
-        jaxbMarshaller.remove();
+    protected static Schema getOasisCPPASchema() {
+        return OASIS_CPPA_SCHEMA;
     }
 
     public byte[] readFromInputStream(InputStream inputStream) throws IOException {
@@ -148,43 +71,32 @@ public abstract class AbstractHandler implements ResourceHandlerSpi {
         return buffer.toByteArray();
     }
 
-    private static Validator generateValidatorForSchema(URL xsdFilePath) {
-        SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-        try {
-            Schema schema = schemaFactory.newSchema(xsdFilePath);
-            Validator vaInstance = schema.newValidator();
-            vaInstance.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
-            vaInstance.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
-            return vaInstance;
-        } catch (SAXException e) {
-            throw new IllegalStateException("Unable to initialize BDX CPPA OASIS XSD schema validator.", e);
-        }
-    }
-
     public Document parse(InputStream inputStream) throws IOException, SAXException {
-        DocumentBuilder builder = getDocumentBuilder();
+        DocumentBuilder builder = XmlProcessingUtils.borrowDocumentBuilder();
         try {
             return builder.parse(inputStream);
         } finally {
-            builder.reset();
+            XmlProcessingUtils.releaseDocumentBuilder(builder);
         }
     }
 
 
     public CPP parseNative(Document document) {
+        Unmarshaller unmarshaller = XmlProcessingUtils.borrowUnmarshaller(CPP.class);
         try {
-            return (CPP) jaxbUnmarshaller.get().unmarshal(document);
+            return (CPP) unmarshaller.unmarshal(document);
         } catch (JAXBException ex) {
             throw new CPPARuntimeException(CPPARuntimeException.ErrorCode.PARSE_ERROR, "Can not parse XML Document ! Error: [" + ExceptionUtils.getRootCauseMessage(ex) + "]", ex);
+        } finally {
+            XmlProcessingUtils.releaseUnmarshaller(CPP.class, unmarshaller);
         }
     }
 
 
     public CPP parseNative(InputStream inputStream) {
         try {
-            DocumentBuilder db = createDocumentBuilder();
             // just to validate DISALLOW_DOCTYPE_FEATURE parse to Document
-            Document document = db.parse(inputStream);
+            Document document = parse(inputStream);
             return parseNative(document);
         } catch (SAXException | IOException ex) {
             throw new CPPARuntimeException(CPPARuntimeException.ErrorCode.PARSE_ERROR, "Can not parse XML Document ! Error: [" + ExceptionUtils.getRootCauseMessage(ex) + "]", ex);
@@ -196,7 +108,7 @@ public abstract class AbstractHandler implements ResourceHandlerSpi {
         if (jaxbObject == null) {
             return;
         }
-        Marshaller jaxbMarsh = getMarshaller();
+        Marshaller jaxbMarsh = XmlProcessingUtils.borrowMarshaller(CPP.class);
 
         // Pretty Print XML
         try {
@@ -207,13 +119,11 @@ public abstract class AbstractHandler implements ResourceHandlerSpi {
             jaxbMarsh.marshal(jaxbObject, outputStream);
         } catch (JAXBException ex) {
             throw new CPPARuntimeException(CPPARuntimeException.ErrorCode.PARSE_ERROR, "Error occurred while serializing the CPP document! Error: [" + ExceptionUtils.getRootCauseMessage(ex) + "]", ex);
+        } finally {
+            XmlProcessingUtils.releaseMarshaller(CPP.class, jaxbMarsh);
         }
     }
 
-    protected DocumentBuilder getDocumentBuilder() {
-        return threadLocalDocumentBuilder.get();
-    }
-
 
     public QName getRootElementQName(Document document) {
         Element element = document.getDocumentElement();
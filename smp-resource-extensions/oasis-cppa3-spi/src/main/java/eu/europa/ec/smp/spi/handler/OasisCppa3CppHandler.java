@@ -29,6 +29,7 @@ import eu.europa.ec.smp.spi.exceptions.ResourceException;
 import eu.europa.ec.smp.spi.exceptions.SignatureException;
 import eu.europa.ec.smp.spi.utils.CPPUtils;
 import eu.europa.ec.smp.spi.utils.DomUtils;
+import eu.europa.ec.smp.spi.utils.XmlProcessingUtils;
 import gen.eu.europa.ec.ddc.api.cppa.*;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
@@ -38,10 +39,7 @@ import org.springframework.util.StreamUtils;
 import org.w3c.dom.Document;
 import org.xml.sax.SAXException;
 
-import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 import java.io.*;
 import java.math.BigInteger;
@@ -192,8 +190,7 @@ public class OasisCppa3CppHandler extends AbstractHandler {
     }
 
     public static void serialize(Document doc, OutputStream outputStream) throws TransformerException {
-        Transformer transformer = DomUtils.createNewSecureTransformer();
-        transformer.transform(new DOMSource(doc), new StreamResult(outputStream));
+        DomUtils.serialize(doc, outputStream);
     }
 
     public CPP validateAndParse(RequestData resourceData) throws ResourceException {
@@ -239,7 +236,7 @@ public class OasisCppa3CppHandler extends AbstractHandler {
     public static void validateOasisCPPASchema(InputStream xmlBody) throws ResourceException {
 
         try {
-            getOasisCPPAValidator().validate(new StreamSource(xmlBody));
+            XmlProcessingUtils.validate(getOasisCPPASchema(), new StreamSource(xmlBody));
         } catch (SAXException | IOException e) {
             throw new ResourceException(INVALID_RESOURCE, "Error occurred while parsing Oasis CPPA3 document. Error: " + ExceptionUtils.getRootCauseMessage(e), e);
         }
@@ -64,18 +64,16 @@ public class OasisSMPResource10Handler extends AbstractOasisSMPHandler {
 
     private static final Logger LOG = LoggerFactory.getLogger(OasisSMPResource10Handler.class);
 
-    OasisSMP10ServiceGroupReader reader = new OasisSMP10ServiceGroupReader();
-
     final SmpDataServiceApi smpDataApi;
     final SmpIdentifierServiceApi smpIdentifierApi;
 
-    final OasisSMP10ServiceGroupReader serviceGroupReader;
+    final OasisSMP10ServiceGroupReader reader;
 
     public OasisSMPResource10Handler(SmpDataServiceApi smpDataApi,
                                      SmpIdentifierServiceApi smpIdentifierApi) {
         this.smpDataApi = smpDataApi;
         this.smpIdentifierApi = smpIdentifierApi;
-        serviceGroupReader = new OasisSMP10ServiceGroupReader();
+        this.reader = new OasisSMP10ServiceGroupReader();
     }
 
     public void generateResource(RequestData resourceData, ResponseData responseData, List<String> fields) throws ResourceException {
@@ -0,0 +1,89 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.auth;
+
+/**
+ * The response delay of the current request. The authentication failure responses are delayed to mask the
+ * username/password and access token failures (see {@link eu.europa.ec.edelivery.smp.services.CredentialService#delayResponse}).
+ * When the request is processed by the filter supporting the asynchronous delay, the filter opens the context
+ * before the request is processed, and the credential service only records the time before which the response must
+ * not be sent. The filter then sends the response at that time without blocking the request thread. When the context
+ * is not opened (e.g. the request is not an HTTP request), the credential service blocks the thread until the time.
+ *
+ * @since 5.2
+ */
+public final class ResponseDelayContext {
+
+    private static final ThreadLocal<ResponseDelayContext> CURRENT_CONTEXT = new ThreadLocal<>();
+
+    private volatile long notBefore = 0;
+
+    private ResponseDelayContext() {
+    }
+
+    /**
+     * Opens the response delay context for the current thread.
+     *
+     * @return the opened context
+     */
+    public static ResponseDelayContext open() {
+        ResponseDelayContext context = new ResponseDelayContext();
+        CURRENT_CONTEXT.set(context);
+        return context;
+    }
+
+    /**
+     * Closes the response delay context of the current thread.
+     */
+    public static void close() {
+        CURRENT_CONTEXT.remove();
+    }
+
+    /**
+     * Method records the time before which the response of the current request must not be sent.
+     *
+     * @param notBeforeTimeInMillis the time in milliseconds since epoch
+     * @return true if the response delay is deferred to the context owner, false if the context is not opened for
+     * the current thread, and the caller must delay the response itself.
+     */
+    public static boolean deferResponseUntil(long notBeforeTimeInMillis) {
+        ResponseDelayContext context = CURRENT_CONTEXT.get();
+        if (context == null) {
+            return false;
+        }
+        context.notBefore = Math.max(context.notBefore, notBeforeTimeInMillis);
+        return true;
+    }
+
+    /**
+     * @return true if the response must be delayed
+     */
+    public boolean isDelayed() {
+        return notBefore > 0;
+    }
+
+    /**
+     * Returns the remaining delay of the response.
+     *
+     * @return the remaining delay in milliseconds or 0 if the response is not delayed.
+     */
+    public long getRemainingDelayInMillis() {
+        return Math.max(notBefore - System.currentTimeMillis(), 0);
+    }
+}
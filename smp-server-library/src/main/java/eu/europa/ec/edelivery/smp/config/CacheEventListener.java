@@ -0,0 +1,51 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.config;
+
+import eu.europa.ec.edelivery.smp.data.enums.CacheEventType;
+
+import java.util.List;
+
+/**
+ * Beans implementing CacheEventListener interface are invoked when the cached data is changed on the local SMP
+ * node (after the change is committed) or on the other SMP node in the cluster (when the cache event is polled).
+ *
+ * @since 5.2
+ */
+public interface CacheEventListener {
+
+    /**
+     * Evict the cache entries affected by the change.
+     *
+     * @param eventType the changed data type
+     * @param eventKey  the key of the changed data, or null if all data of the type was changed
+     */
+    void onCacheEvent(CacheEventType eventType, String eventKey);
+
+    /**
+     * Return list of handled cache event types
+     *
+     * @return list of CacheEventType handled by the listener
+     */
+    List<CacheEventType> handledCacheEvents();
+
+    default boolean handlesCacheEvent(CacheEventType eventType) {
+        return handledCacheEvents() != null && handledCacheEvents().contains(eventType);
+    }
+}
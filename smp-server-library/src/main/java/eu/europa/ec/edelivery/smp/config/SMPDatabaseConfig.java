@@ -20,8 +20,10 @@
 package eu.europa.ec.edelivery.smp.config;
 
 import eu.europa.ec.edelivery.smp.config.init.DatabaseConnectionBeanCreator;
+import eu.europa.ec.edelivery.smp.config.init.DatabaseConnectionPoolMetrics;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.monitor.RepositoryMetricsPostProcessor;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.*;
@@ -59,6 +61,24 @@ public class SMPDatabaseConfig {
         return databaseConnectionBeanCreator.getDataSource();
     }
 
+    @Bean(name = "smpDataSourcePoolMetrics")
+    public DatabaseConnectionPoolMetrics getDataSourcePoolMetrics() {
+        return databaseConnectionBeanCreator.getPoolMetrics();
+    }
+
+    @Bean(name = "smpReplicaDataSourcePoolMetrics")
+    public DatabaseConnectionPoolMetrics getReplicaDataSourcePoolMetrics() {
+        return databaseConnectionBeanCreator.getReplicaPoolMetrics();
+    }
+
+    /**
+     * The post processor must be static because it is instantiated before the configuration class.
+     */
+    @Bean
+    public static RepositoryMetricsPostProcessor repositoryMetricsPostProcessor() {
+        return new RepositoryMetricsPostProcessor();
+    }
+
     @Primary
     @Bean(name = "smpEntityManagerFactory")
     @Scope(value = ConfigurableBeanFactory.SCOPE_SINGLETON)
@@ -358,6 +358,91 @@ public class SMPEnvironmentProperties implements DatabaseConnectionProperties {
                 Boolean.parseBoolean(getEnvPropertyValue(DATABASE_SHOW_SQL));
     }
 
+    @Override
+    public boolean isDatabasePoolEnabled() {
+        return Boolean.parseBoolean(getEnvPropertyValue(JDBC_POOL_ENABLED));
+    }
+
+    @Override
+    public int getDatabasePoolMinIdle() {
+        return (int) getLongEnvPropertyValue(JDBC_POOL_MIN_IDLE);
+    }
+
+    @Override
+    public int getDatabasePoolMaxSize() {
+        return (int) getLongEnvPropertyValue(JDBC_POOL_MAX_SIZE);
+    }
+
+    @Override
+    public long getDatabasePoolConnectionTimeout() {
+        return getLongEnvPropertyValue(JDBC_POOL_CONNECTION_TIMEOUT);
+    }
+
+    @Override
+    public long getDatabasePoolIdleTimeout() {
+        return getLongEnvPropertyValue(JDBC_POOL_IDLE_TIMEOUT);
+    }
+
+    @Override
+    public long getDatabasePoolMaxLifetime() {
+        return getLongEnvPropertyValue(JDBC_POOL_MAX_LIFETIME);
+    }
+
+    @Override
+    public long getDatabasePoolLeakDetectionThreshold() {
+        return getLongEnvPropertyValue(JDBC_POOL_LEAK_DETECTION_THRESHOLD);
+    }
+
+    @Override
+    public int getDatabasePoolStatementCacheSize() {
+        return (int) getLongEnvPropertyValue(JDBC_POOL_STATEMENT_CACHE_SIZE);
+    }
+
+    @Override
+    public boolean isSecondLevelCacheEnabled() {
+        return Boolean.parseBoolean(getEnvPropertyValue(DATABASE_CACHE_ENABLED));
+    }
+
+    @Override
+    public String getReplicaDatabaseJNDI() {
+        return getEnvPropertyValue(DATABASE_REPLICA_JNDI);
+    }
+
+    @Override
+    public String getReplicaJdbcUrl() {
+        return getEnvPropertyValue(JDBC_REPLICA_URL);
+    }
+
+    @Override
+    public String getReplicaJdbcUsername() {
+        return getEnvPropertyValue(JDBC_REPLICA_USER);
+    }
+
+    @Override
+    public String getReplicaJdbcPassword() {
+        return getEnvPropertyValue(JDBC_REPLICA_PASSWORD);
+    }
+
+    @Override
+    public long getReplicaReadAfterWriteInterval() {
+        return getLongEnvPropertyValue(JDBC_REPLICA_READ_AFTER_WRITE);
+    }
+
+    /**
+     * Returns the numeric value of the property. If the value is not a valid number the default value is returned.
+     *
+     * @param property the environment property
+     * @return the property numeric value
+     */
+    protected long getLongEnvPropertyValue(SMPEnvPropertyEnum property) {
+        String value = StringUtils.trim(getEnvPropertyValue(property));
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            LOG.warn("Invalid numeric value [{}] for property [{}]. Use default value [{}]!", value, property.getProperty(), property.getDefValue());
+            return Long.parseLong(property.getDefValue());
+        }
+    }
 
     public boolean isSMPStartupInDevMode() {
         return Boolean.parseBoolean(getEnvPropertyValue(SMP_MODE_DEVELOPMENT));
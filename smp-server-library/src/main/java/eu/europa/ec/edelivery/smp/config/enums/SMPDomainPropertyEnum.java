@@ -42,6 +42,8 @@ public enum SMPDomainPropertyEnum {
     RESOURCE_IDENTIFIER_TMPL_CONCATENATE_NULL_SCHEME(SMPPropertyEnum.RESOURCE_IDENTIFIER_TMPL_CONCATENATE_NULL_SCHEME, false),
     RESOURCE_CASE_SENSITIVE_SCHEMES(SMPPropertyEnum.RESOURCE_CASE_SENSITIVE_SCHEMES, false),
     SUBRESOURCE_CASE_SENSITIVE_SCHEMES(SMPPropertyEnum.SUBRESOURCE_CASE_SENSITIVE_SCHEMES, false),
+    RESOURCE_HTTP_CACHE_MAX_AGE(SMPPropertyEnum.RESOURCE_HTTP_CACHE_MAX_AGE, false),
+    SML_MANAGE_PARALLEL_REQUESTS(SMPPropertyEnum.SML_MANAGE_PARALLEL_REQUESTS, true),
     ;
     // System equivalent property
     private final SMPPropertyEnum propertyEnum;
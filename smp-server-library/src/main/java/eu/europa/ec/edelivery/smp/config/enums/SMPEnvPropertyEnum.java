@@ -41,11 +41,25 @@ public enum SMPEnvPropertyEnum {
     DATABASE_CREATE_DDL("smp.database.create-ddl","false","Auto create/update database objects. The property is effective only when smp.mode.development=true!"),
 
     DATABASE_SHOW_SQL("smp.database.show-sql","false","Print generated sql queries to logs. The property is effective only when smp.mode.development=true!"),
+    DATABASE_CACHE_ENABLED("smp.database.cache.enabled","true","Enable the hibernate second-level cache for the configuration entities (domains, resource definitions, extensions). The cache regions are defined in the ehcache-default.xml."),
     HIBERNATE_DIALECT("smp.database.hibernate.dialect",null,"If for some reason it is not able to determine the proper DB dialect, you will need to set the hibernate dialect."),
     JDBC_DRIVER("smp.jdbc.driver",null," The jdbc driver as example: com.mysql.jdbc.Driver."),
     JDBC_USER("smp.jdbc.user",null," The jdbc connection username."),
     JDBC_PASSWORD("smp.jdbc.password",null,"The jdbc connection password."),
     JDBC_URL("smp.jdbc.url",null,"The jdbc URL as example: jdbc:mysql://localhost:3306/smp."),
+    JDBC_POOL_ENABLED("smp.jdbc.pool.enabled","true","Use the connection pool for the jdbc datasource. The property is not used when datasource is configured with JNDI."),
+    JDBC_POOL_MIN_IDLE("smp.jdbc.pool.min-idle","2","The minimum number of idle connections in the connection pool."),
+    JDBC_POOL_MAX_SIZE("smp.jdbc.pool.max-size","20","The maximum number of (active and idle) connections in the connection pool."),
+    JDBC_POOL_CONNECTION_TIMEOUT("smp.jdbc.pool.connection-timeout-ms","30000","The maximum time in milliseconds to wait for the connection from the pool."),
+    JDBC_POOL_IDLE_TIMEOUT("smp.jdbc.pool.idle-timeout-ms","600000","The maximum time in milliseconds that the connection is allowed to sit idle in the pool. Value 0 means that idle connections are never removed."),
+    JDBC_POOL_MAX_LIFETIME("smp.jdbc.pool.max-lifetime-ms","1800000","The maximum lifetime in milliseconds of the connection in the pool. The value must be shorter than database connection time limit. Value 0 means no maximum lifetime."),
+    JDBC_POOL_LEAK_DETECTION_THRESHOLD("smp.jdbc.pool.leak-detection-threshold-ms","0","The time in milliseconds that the connection can be out of the pool before a message is logged indicating a possible connection leak. Value 0 disables the leak detection."),
+    JDBC_POOL_STATEMENT_CACHE_SIZE("smp.jdbc.pool.statement-cache-size","250","The number of prepared statements the jdbc driver caches per connection (MySQL and Oracle drivers). Value 0 disables the statement cache."),
+    DATABASE_REPLICA_JNDI("smp.datasource.replica.jndi",null,"The JNDI name for the read replica datasource. If the read replica is configured, the read-only transactions are routed to the read replica."),
+    JDBC_REPLICA_URL("smp.jdbc.replica.url",null,"The jdbc URL of the read replica database. The read replica uses the jdbc driver and the connection pool settings of the primary datasource. If the read replica is configured, the read-only transactions are routed to the read replica."),
+    JDBC_REPLICA_USER("smp.jdbc.replica.user",null,"The jdbc connection username for the read replica. If not set, the primary datasource username is used."),
+    JDBC_REPLICA_PASSWORD("smp.jdbc.replica.password",null,"The jdbc connection password for the read replica. If not set, the primary datasource password is used."),
+    JDBC_REPLICA_READ_AFTER_WRITE("smp.jdbc.replica.read-after-write-ms","2000","Time in milliseconds after the committed read-write transaction in which the read-only transactions of the node still use the primary datasource, so that the node does not read its own changes from the lagging read replica. Value 0 disables the rule."),
 
 
     SMP_MODE_DEVELOPMENT("smp.mode.development","false","Set to true in test or development environment to make faster \"semi-random generation of secrets\"."),
@@ -89,7 +89,23 @@ public enum SMPPropertyEnum {
     // SML integration!
     SML_ENABLED("bdmsl.integration.enabled", "false", "BDMSL (SML) integration ON/OFF switch",
             OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, BOOLEAN),
-    SML_MANAGE_MAX_COUNT("bdmsl.participants.manage.max-count", "10000", "Maximum number of participants which can be registered/unregistered in one call of register/unregister domain",
+    SML_MANAGE_MAX_COUNT("bdmsl.participants.manage.max-count", "10000", "Deprecated: the participants are registered/unregistered in batches and the count is not limited anymore (see bdmsl.participants.manage.batch-size).",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    SML_MANAGE_BATCH_SIZE("bdmsl.participants.manage.batch-size", "100", "Number of participants registered/unregistered with one BDMSL createList/deleteList request when registering/unregistering the domain",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    SML_MANAGE_PARALLEL_REQUESTS("bdmsl.participants.manage.parallel-requests", "4", "Number of concurrent BDMSL requests when registering/unregistering the domain participants and when sending the domain participants from the SML outbox",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    SML_OUTBOX_CRON("bdmsl.participants.outbox.cronJobExpression", "*/10 * * * * *", "Cron expression for sending the participant registrations/un-registrations from the SML outbox to the SML",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, CRON_EXPRESSION),
+    SML_OUTBOX_BATCH_SIZE("bdmsl.participants.outbox.batch-size", "500", "Maximum number of the SML outbox entries sent by one execution of the SML outbox cron task",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    SML_OUTBOX_MAX_ATTEMPTS("bdmsl.participants.outbox.max-attempts", "10", "Number of attempts to send the SML outbox entry. When all attempts fail, the entry is marked as FAILED and must be retried by the system administrator",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    SML_OUTBOX_RETRY_DELAY("bdmsl.participants.outbox.retry.initial-delay-seconds", "30", "Delay in seconds before the first retry of the failed SML outbox entry. The delay is doubled with each failed attempt",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    SML_OUTBOX_RETRY_MAX_DELAY("bdmsl.participants.outbox.retry.max-delay-seconds", "3600", "Maximum delay in seconds between the retries of the failed SML outbox entry",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    SML_OUTBOX_PROCESSING_TIMEOUT("bdmsl.participants.outbox.processing-timeout-seconds", "300", "Time in seconds after which the SML outbox entry, which is being sent by the (crashed) SMP node, can be sent again",
             OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
     SML_URL("bdmsl.integration.url", "http://localhost:8080/edelivery-sml", "BDMSL (SML) endpoint",
             OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, URL),
@@ -123,6 +139,12 @@ public enum SMPPropertyEnum {
             OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, FILENAME),
     CERTIFICATE_CRL_FORCE("smp.certificate.crl.force", "false", "If false then if CRL is not reachable ignore CRL validation",
             OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, BOOLEAN),
+    CERTIFICATE_CRL_CACHE_GRACE_PERIOD("smp.certificate.crl.cache.grace-period-minutes", "60", "Time in minutes after the CRL next update time, when the cached CRL is still used while the new CRL is downloaded in the background.",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    CERTIFICATE_CRL_CACHE_REFRESH_AHEAD("smp.certificate.crl.cache.refresh-ahead-minutes", "10", "Time in minutes before the CRL next update time, when the CRL is refreshed in the background.",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    CERTIFICATE_CRL_CACHE_FOLDER("smp.certificate.crl.cache.folder", "", "The folder where the downloaded CRLs are stored, so they are not downloaded again after restart. If empty, the CRLs are not stored.",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, PATH),
     ENCRYPTION_FILENAME("encryption.key.filename", "encryptionPrivateKey.private", "Key filename to encrypt passwords",
             OPTIONAL, NOT_ENCRYPTED, RESTART_NEEDED, FILENAME),
     KEYSTORE_PASSWORD_DECRYPTED("smp.keystore.password.decrypted", "", "Only for backup purposes when  password is automatically created. Store password somewhere save and delete this entry!",
@@ -154,6 +176,12 @@ public enum SMPPropertyEnum {
             OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
     SMP_CLUSTER_ENABLED("smp.cluster.enabled", "false", "Define if application is set in cluster. In not cluster environment, properties are updated on setProperty.",
             OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, BOOLEAN),
+    SMP_JOB_LOCK_TIMEOUT("smp.jobs.lock.timeout-seconds", "3600", "The time in seconds after which the cluster lock of the scheduled job is released, if the node holding the lock does not release it (e.g. the node crashed). The lock is renewed while the job is running.",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    SMP_CACHE_EVENTS_CRON("smp.cluster.cache-events.cronJobExpression", "* * * * * *", "Cron expression for processing the cache change events written by the other cluster nodes. The events are processed only when smp.cluster.enabled is true.",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, CRON_EXPRESSION),
+    SMP_CACHE_EVENTS_RETENTION("smp.cluster.cache-events.retention-minutes", "60", "Time in minutes after which the processed cache change events are removed from the database.",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
 
     PASSWORD_POLICY_REGULAR_EXPRESSION("smp.passwordPolicy.validationRegex", "^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[~`!@#$%^&+=\\-_<>.,?:;*/()|\\[\\]{}'\"\\\\]).{16,32}$",
             "Password minimum complexity rules!",
@@ -196,6 +224,12 @@ public enum SMPPropertyEnum {
     ACCESS_TOKEN_FAIL_DELAY("smp.accessToken.login.fail.delay", "1000",
             "Delay in ms on invalid token id or token",
             OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    ACCESS_TOKEN_VERIFICATION_CACHE_TTL("smp.accessToken.verification.cache.ttl", "60",
+            "Time in seconds how long the successful accessToken verification is cached. (if 0 the verification is not cached)",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    ACCESS_TOKEN_VERIFICATION_CACHE_MAX_ENTRIES("smp.accessToken.verification.cache.max-entries", "1000",
+            "Maximum number of cached accessToken verifications",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
 
     // authentication
     UI_AUTHENTICATION_TYPES("smp.ui.authentication.types", "PASSWORD", "Set list of '|' separated authentication types: PASSWORD|SSO.",
@@ -381,8 +415,26 @@ public enum SMPPropertyEnum {
             OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, STRING),
     SMP_ALERT_BATCH_SIZE("smp.alert.credentials.batch.size", "200", "Max alertes generated in a batch for the type",
             OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    SMP_ALERT_BATCH_MAX_COUNT("smp.alert.credentials.batch.max-count", "10", "Max number of the batches processed for the alert type in one credential validation run. The remaining credentials are processed in the next run",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
     SMP_ALERT_MAIL_FROM("smp.alert.mail.from", "test@alert-send-mail.eu", "Alert send mail",
             OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, EMAIL),
+    SMP_ALERT_MAIL_CRON("smp.alert.mail.cronJobExpression", "0 */5 * * * *", "Cron expression for re-submitting the alert mails which were not sent yet (failed attempts, full submission queue or restarted SMP node)",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, CRON_EXPRESSION),
+    SMP_ALERT_MAIL_WORKERS("smp.alert.mail.workers", "2", "Number of the threads sending the alert mails",
+            OPTIONAL, NOT_ENCRYPTED, RESTART_NEEDED, INTEGER),
+    SMP_ALERT_MAIL_QUEUE_CAPACITY("smp.alert.mail.queue.capacity", "1000", "Maximum number of the alert mails waiting to be sent. The alerts which do not fit into the queue are sent by the alert mail cron task",
+            OPTIONAL, NOT_ENCRYPTED, RESTART_NEEDED, INTEGER),
+    SMP_ALERT_MAIL_BATCH_SIZE("smp.alert.mail.batch-size", "20", "Maximum number of the alert mails sent by one worker over the same SMTP connection",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    SMP_ALERT_MAIL_MAX_ATTEMPTS("smp.alert.mail.max-attempts", "5", "Number of attempts to send the alert mail. When all attempts fail, the alert is marked as FAILED",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    SMP_ALERT_MAIL_RETRY_DELAY("smp.alert.mail.retry.initial-delay-seconds", "60", "Delay in seconds before the first retry of the failed alert mail. The delay is doubled with each failed attempt",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    SMP_ALERT_MAIL_RETRY_MAX_DELAY("smp.alert.mail.retry.max-delay-seconds", "3600", "Maximum delay in seconds between the retries of the failed alert mail",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    SMP_ALERT_MAIL_PROCESSING_TIMEOUT("smp.alert.mail.processing-timeout-seconds", "300", "Time in seconds after which the alert mail, which is being sent by the (crashed) SMP node, can be sent again",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
 
 
     SMP_INSTANCE_NAME("smp.instance.name", "Test DomiSMP Instance", "The name of the SMP instance",
@@ -394,6 +446,37 @@ public enum SMPPropertyEnum {
     CREDENTIALS_RESET_POLICY_VALID_DAYS("smp.credentials.reset_request.url.validMinutes", "90", "Number of minutes token is valid",
             OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
 
+    // public resource response cache
+    RESOURCE_RESPONSE_CACHE_ENABLED("smp.resource.response.cache.enabled", "true", "Enable/disable the cache of rendered and signed resource responses for the public read path.",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, BOOLEAN),
+    RESOURCE_RESPONSE_CACHE_MAX_ENTRIES("smp.resource.response.cache.max-entries", "5000", "Maximum number of rendered resource/subresource responses kept in the response cache.",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    RESOURCE_RESPONSE_CACHE_TTL("smp.resource.response.cache.ttl-seconds", "300", "Time in seconds how long the rendered response is kept in the response cache. In a cluster, it is the maximum delay before a change made on other node is visible.",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    RESOURCE_HTTP_CACHE_MAX_AGE("smp.resource.http.cache.max-age", "0", "The max-age in seconds of the HTTP Cache-Control header of the resource read responses. If 0, the clients and proxies must revalidate the cached response with the ETag/Last-Modified validators.",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    RESOURCE_RESPONSE_COMPRESSION_ENABLED("smp.resource.response.compression.enabled", "true", "Enable/disable the gzip encoding of the resource read responses negotiated with the Accept-Encoding header. Only the rendered responses kept in the response cache or stored to the resource snapshot are encoded, and the encoded body is computed once per rendered response. Other responses are streamed without the encoding.",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, BOOLEAN),
+    // domain/resource definition metadata cache
+    METADATA_CACHE_TTL("smp.metadata.cache.ttl-seconds", "60", "Time in seconds how long the cached domain and resource definition snapshot is used before it is reloaded. Local changes are applied immediately; in a cluster, it is the maximum delay before a change made on other node is visible.",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    DOCUMENT_TEMPLATE_CACHE_MAX_SIZE("smp.document.template.cache.max-size-kb", "32768", "Maximum total size in kilobytes of the compiled document templates kept in the template cache. Value 0 disables the cache.",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    UI_SEARCH_COUNT_LIMIT("smp.ui.search.count.limit", "10000", "Maximum number of resources counted by the public resource search with the cursor pagination. If more resources match the search, the count is reported as limited.",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    // resource identifier filter
+    RESOURCE_IDENTIFIER_FILTER_ENABLED("smp.resource.identifier-filter.enabled", "true", "Enable/disable the in-memory filter of the registered resource identifiers. The public read requests for the resource identifiers not registered in the domain are rejected without the database access.",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, BOOLEAN),
+    RESOURCE_IDENTIFIER_FILTER_REBUILD("smp.resource.identifier-filter.rebuild-minutes", "60", "Time in minutes after which the resource identifier filter of the domain is rebuilt from the database to drop the deleted resource identifiers.",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    // resource snapshot store
+    RESOURCE_SNAPSHOT_FOLDER("smp.resource.snapshot.folder", "", "The folder of the memory-mapped snapshot file of the rendered public resource responses. Each SMP node uses its own file named by the node host name; the unused files of the other host names are removed (or reused) when the file is opened. If empty, the snapshot is not stored.",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, PATH),
+    RESOURCE_SNAPSHOT_MAX_AGE("smp.resource.snapshot.max-age-seconds", "0", "Time in seconds after the response snapshot was validated against the database, while the snapshot is served without the database access. If 0, the snapshot is served only when the database is not available.",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+    RESOURCE_SNAPSHOT_MAX_STALE("smp.resource.snapshot.max-stale-minutes", "1440", "Time in minutes after the response snapshot was validated against the database, while the snapshot is served when the database is not available. If 0, the snapshot is not served when the database is not available.",
+            OPTIONAL, NOT_ENCRYPTED, NO_RESTART_NEEDED, INTEGER),
+
     // deprecated properties
     // property was replaced by property: smp.automation.authentication.external.tls.clientCert.enabled
     CLIENT_CERT_HEADER_ENABLED_DEPRECATED("authentication.blueCoat.enabled", "false", "Property was replaced by property: smp.automation.authentication.external.tls.clientCert.enabled",
@@ -18,10 +18,13 @@
  */
 package eu.europa.ec.edelivery.smp.config.init;
 
+import com.zaxxer.hikari.HikariDataSource;
 import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.jndi.JndiObjectFactoryBean;
 import org.springframework.orm.jpa.JpaTransactionManager;
@@ -29,10 +32,15 @@ import org.springframework.orm.jpa.JpaVendorAdapter;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.ClassUtils;
 
 import javax.naming.NamingException;
 import javax.persistence.EntityManagerFactory;
+import javax.persistence.SharedCacheMode;
 import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.util.Properties;
 
 import static eu.europa.ec.edelivery.smp.exceptions.ErrorCode.CONFIGURATION_ERROR;
@@ -48,14 +56,52 @@ import static eu.europa.ec.edelivery.smp.exceptions.ErrorCode.INTERNAL_ERROR;
 public class DatabaseConnectionBeanCreator {
     private static final SMPLogger LOG = SMPLoggerFactory.getLogger(DatabaseConnectionBeanCreator.class);
 
+    public static final String POOL_NAME = "DomiSMPConnectionPool";
+    public static final String REPLICA_POOL_NAME = "DomiSMPReplicaConnectionPool";
+    public static final String CACHE_CONFIG_LOCATION = "ehcache-default.xml";
+    public static final String CACHE_PROVIDER = "org.ehcache.jsr107.EhcacheCachingProvider";
+
     final DatabaseConnectionProperties databaseConnectionConfig;
+    final DatabaseConnectionPoolMetrics poolMetrics = new DatabaseConnectionPoolMetrics();
+    final DatabaseConnectionPoolMetrics replicaPoolMetrics = new DatabaseConnectionPoolMetrics();
 
     public DatabaseConnectionBeanCreator(DatabaseConnectionProperties environmentProperties) {
         this.databaseConnectionConfig = environmentProperties;
     }
 
+    /**
+     * Create the DomiSMP datasource. If the read replica is configured, the returned datasource routes the read-only
+     * transactions to the read replica and all other connections to the primary datasource.
+     *
+     * @return the datasource
+     */
     public DataSource getDataSource() {
-        String jndiDatasourceName = databaseConnectionConfig.getDatabaseJNDI();
+        DataSource primaryDataSource = createDataSource(databaseConnectionConfig.getDatabaseJNDI(),
+                databaseConnectionConfig.getJdbcUrl(),
+                databaseConnectionConfig.getJdbcUsername(),
+                databaseConnectionConfig.getJdbcPassword(),
+                POOL_NAME, poolMetrics);
+        if (!isReplicaConfigured()) {
+            return primaryDataSource;
+        }
+
+        LOG.info("Route the read-only transactions to the read replica datasource.");
+        DataSource replicaDataSource = createDataSource(databaseConnectionConfig.getReplicaDatabaseJNDI(),
+                databaseConnectionConfig.getReplicaJdbcUrl(),
+                StringUtils.defaultIfBlank(databaseConnectionConfig.getReplicaJdbcUsername(), databaseConnectionConfig.getJdbcUsername()),
+                StringUtils.defaultIfBlank(databaseConnectionConfig.getReplicaJdbcPassword(), databaseConnectionConfig.getJdbcPassword()),
+                REPLICA_POOL_NAME, replicaPoolMetrics);
+        return new ReadReplicaRoutingDataSource(primaryDataSource, replicaDataSource,
+                databaseConnectionConfig.getReplicaReadAfterWriteInterval());
+    }
+
+    public boolean isReplicaConfigured() {
+        return StringUtils.isNotBlank(databaseConnectionConfig.getReplicaDatabaseJNDI())
+                || StringUtils.isNotBlank(databaseConnectionConfig.getReplicaJdbcUrl());
+    }
+
+    protected DataSource createDataSource(String jndiDatasourceName, String jdbcURL, String username, String password,
+                                          String poolName, DatabaseConnectionPoolMetrics metrics) {
         if (StringUtils.isNotBlank(jndiDatasourceName)) {
             LOG.info("User datasource with JNDI: [{}] ", jndiDatasourceName);
             JndiObjectFactoryBean jndiDataSource = new JndiObjectFactoryBean();
@@ -68,25 +114,128 @@ public class DatabaseConnectionBeanCreator {
             }
             return (DataSource) jndiDataSource.getObject();
         }
-        String jdbcURL = databaseConnectionConfig.getJdbcUrl();
         if (StringUtils.isBlank(jdbcURL)) {
             throw new SMPRuntimeException(CONFIGURATION_ERROR, "Invalid datasource configuration. Both jndi or jdbc url are empty");
         }
 
-        LOG.info("Create datasource with URL: [{}].", jdbcURL);
-        DriverManagerDataSource driverManagerDataSource = new DriverManagerDataSource();
-        driverManagerDataSource.setDriverClassName(databaseConnectionConfig.getJdbcDriver());
-        driverManagerDataSource.setUrl(jdbcURL);
-        driverManagerDataSource.setUsername(databaseConnectionConfig.getJdbcUsername());
-        driverManagerDataSource.setPassword(databaseConnectionConfig.getJdbcPassword());
+        if (!databaseConnectionConfig.isDatabasePoolEnabled()) {
+            LOG.info("Create datasource without connection pool with URL: [{}].", jdbcURL);
+            DriverManagerDataSource driverManagerDataSource = new DriverManagerDataSource();
+            driverManagerDataSource.setDriverClassName(databaseConnectionConfig.getJdbcDriver());
+            driverManagerDataSource.setUrl(jdbcURL);
+            driverManagerDataSource.setUsername(username);
+            driverManagerDataSource.setPassword(password);
+            return driverManagerDataSource;
+        }
+
+        LOG.info("Create pooled datasource [{}] with URL: [{}].", poolName, jdbcURL);
+        return createPooledDataSource(jdbcURL, username, password, poolName, metrics);
+    }
+
+    /**
+     * Create the pooled datasource. The pool is started lazily with the first connection request, so that the
+     * datasource can be created before the database is available.
+     *
+     * @param jdbcURL  the jdbc url
+     * @param username the jdbc username
+     * @param password the jdbc password
+     * @param poolName the connection pool name
+     * @param metrics  the connection pool statistics
+     * @return the pooled datasource
+     */
+    protected HikariDataSource createPooledDataSource(String jdbcURL, String username, String password,
+                                                      String poolName, DatabaseConnectionPoolMetrics metrics) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(poolName);
+        if (StringUtils.isNotBlank(databaseConnectionConfig.getJdbcDriver())) {
+            dataSource.setDriverClassName(databaseConnectionConfig.getJdbcDriver());
+        }
+        dataSource.setJdbcUrl(jdbcURL);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+
+        int maxSize = databaseConnectionConfig.getDatabasePoolMaxSize();
+        if (maxSize > 0) {
+            dataSource.setMaximumPoolSize(maxSize);
+        }
+        int minIdle = databaseConnectionConfig.getDatabasePoolMinIdle();
+        if (minIdle >= 0) {
+            dataSource.setMinimumIdle(maxSize > 0 ? Math.min(minIdle, maxSize) : minIdle);
+        }
+        long connectionTimeout = databaseConnectionConfig.getDatabasePoolConnectionTimeout();
+        if (connectionTimeout > 0) {
+            dataSource.setConnectionTimeout(connectionTimeout);
+        }
+        long idleTimeout = databaseConnectionConfig.getDatabasePoolIdleTimeout();
+        if (idleTimeout >= 0) {
+            dataSource.setIdleTimeout(idleTimeout);
+        }
+        long maxLifetime = databaseConnectionConfig.getDatabasePoolMaxLifetime();
+        if (maxLifetime >= 0) {
+            dataSource.setMaxLifetime(maxLifetime);
+        }
+        long leakDetectionThreshold = databaseConnectionConfig.getDatabasePoolLeakDetectionThreshold();
+        if (leakDetectionThreshold > 0) {
+            dataSource.setLeakDetectionThreshold(leakDetectionThreshold);
+        }
+        setStatementCacheProperties(dataSource, jdbcURL, databaseConnectionConfig.getDatabasePoolStatementCacheSize());
 
-        return driverManagerDataSource;
+        dataSource.setRegisterMbeans(true);
+        dataSource.setMetricsTrackerFactory(metrics);
+        return dataSource;
+    }
+
+    /**
+     * The pool does not cache the prepared statements, therefore the statement cache is enabled on the jdbc driver
+     * for the supported databases: MySQL and Oracle.
+     *
+     * @param dataSource         the pooled datasource
+     * @param jdbcURL            the jdbc url to determine the database type
+     * @param statementCacheSize the number of cached statements per connection
+     */
+    protected void setStatementCacheProperties(HikariDataSource dataSource, String jdbcURL, int statementCacheSize) {
+        if (statementCacheSize <= 0) {
+            LOG.debug("Statement cache is disabled.");
+            return;
+        }
+        String url = StringUtils.lowerCase(jdbcURL);
+        if (StringUtils.startsWithAny(url, "jdbc:mysql:", "jdbc:mariadb:")) {
+            dataSource.addDataSourceProperty("cachePrepStmts", "true");
+            dataSource.addDataSourceProperty("prepStmtCacheSize", String.valueOf(statementCacheSize));
+            dataSource.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            dataSource.addDataSourceProperty("useServerPrepStmts", "true");
+        } else if (StringUtils.startsWith(url, "jdbc:oracle:")) {
+            dataSource.addDataSourceProperty("oracle.jdbc.implicitStatementCacheSize", String.valueOf(statementCacheSize));
+        } else {
+            LOG.debug("Statement cache is not supported for the datasource URL: [{}].", jdbcURL);
+        }
+    }
+
+    /**
+     * Returns the connection pool statistics. The statistics are updated only when the datasource is created with the
+     * connection pool.
+     *
+     * @return the connection pool statistics
+     */
+    public DatabaseConnectionPoolMetrics getPoolMetrics() {
+        return poolMetrics;
+    }
+
+    /**
+     * Returns the read replica connection pool statistics. The statistics are updated only when the read replica
+     * datasource is created with the connection pool.
+     *
+     * @return the read replica connection pool statistics
+     */
+    public DatabaseConnectionPoolMetrics getReplicaPoolMetrics() {
+        return replicaPoolMetrics;
     }
 
     public LocalContainerEntityManagerFactoryBean smpEntityManagerFactory(DataSource dataSource, JpaVendorAdapter jpaVendorAdapter) {
         Properties prop = new Properties();
         // set envers to store deleted data
         prop.setProperty("org.hibernate.envers.store_data_at_delete", "true");
+        setSecondLevelCacheProperties(prop);
 
         LocalContainerEntityManagerFactoryBean lef = new LocalContainerEntityManagerFactoryBean();
         lef.setPersistenceUnitName("smpEntityManagerFactory");
@@ -103,6 +252,63 @@ public class DatabaseConnectionBeanCreator {
     }
 
 
+    /**
+     * Returns the resolved URI of the ehcache configuration on the classpath. The JCache caching provider returns the
+     * same CacheManager only for the same URI and class loader, so the hibernate second-level cache and the
+     * application (spring) cache manager must both use this URI and the default class loader of the provider.
+     *
+     * @return the URI of the cache configuration
+     * @throws IOException if the cache configuration is not on the classpath
+     */
+    public static URI getCacheConfigUri() throws IOException {
+        try {
+            return new ClassPathResource(CACHE_CONFIG_LOCATION).getURL().toURI();
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid cache configuration location: " + CACHE_CONFIG_LOCATION, e);
+        }
+    }
+
+    /**
+     * Configure the hibernate second-level cache for the entities annotated as cacheable. The cache regions are
+     * defined in the ehcache configuration file which is shared with the application (spring) caches. If the cache is
+     * disabled or the cache configuration is not on the classpath, the second-level cache is explicitly disabled.
+     *
+     * @param prop the jpa properties
+     */
+    protected void setSecondLevelCacheProperties(Properties prop) {
+        if (!databaseConnectionConfig.isSecondLevelCacheEnabled()) {
+            LOG.info("Hibernate second-level cache is disabled.");
+            prop.setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false");
+            prop.setProperty(AvailableSettings.USE_QUERY_CACHE, "false");
+            return;
+        }
+        URI cacheConfigUri = null;
+        if (ClassUtils.isPresent(CACHE_PROVIDER, getClass().getClassLoader())
+                && new ClassPathResource(CACHE_CONFIG_LOCATION).exists()) {
+            try {
+                cacheConfigUri = getCacheConfigUri();
+            } catch (IOException e) {
+                LOG.warn("Can not resolve the cache configuration [{}]: [{}]", CACHE_CONFIG_LOCATION, e.getMessage());
+            }
+        }
+        if (cacheConfigUri == null) {
+            LOG.warn("Hibernate second-level cache is disabled: cache provider [{}] or cache configuration [{}] is not available!",
+                    CACHE_PROVIDER, CACHE_CONFIG_LOCATION);
+            prop.setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false");
+            prop.setProperty(AvailableSettings.USE_QUERY_CACHE, "false");
+            return;
+        }
+        LOG.info("Hibernate second-level cache is enabled with configuration [{}].", cacheConfigUri);
+        prop.setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "true");
+        prop.setProperty(AvailableSettings.USE_QUERY_CACHE, "true");
+        prop.setProperty(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+        prop.setProperty(AvailableSettings.JPA_SHARED_CACHE_MODE, SharedCacheMode.ENABLE_SELECTIVE.name());
+        prop.setProperty(AvailableSettings.AUTO_EVICT_COLLECTION_CACHE, "true");
+        prop.setProperty("hibernate.javax.cache.provider", CACHE_PROVIDER);
+        // the same URI as the application cache manager: both use the same JCache CacheManager
+        prop.setProperty("hibernate.javax.cache.uri", cacheConfigUri.toString());
+    }
+
     public PlatformTransactionManager getSmpTransactionManager(EntityManagerFactory emf) {
         JpaTransactionManager transactionManager = new JpaTransactionManager();
         transactionManager.setEntityManagerFactory(emf);
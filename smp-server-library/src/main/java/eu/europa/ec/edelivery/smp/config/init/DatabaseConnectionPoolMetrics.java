@@ -0,0 +1,131 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.config.init;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The database connection pool statistics: the number of active, idle and total connections, the number of threads
+ * waiting for the connection and the connection acquire latency. The pool updates the statistics with the
+ * {@link IMetricsTracker} created by this factory.
+ *
+ * @since 5.2
+ */
+public class DatabaseConnectionPoolMetrics implements MetricsTrackerFactory {
+
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireTotalNanos = new LongAdder();
+    private final AtomicLong acquireMaxNanos = new AtomicLong();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+
+    private volatile String poolName;
+    private volatile PoolStats poolStats;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                createdCount.increment();
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireCount.increment();
+                acquireTotalNanos.add(elapsedAcquiredNanos);
+                acquireMaxNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeoutCount.increment();
+            }
+        };
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public int getActiveConnections() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getActiveConnections();
+    }
+
+    public int getIdleConnections() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getIdleConnections();
+    }
+
+    public int getTotalConnections() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getTotalConnections();
+    }
+
+    public int getPendingThreads() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getPendingThreads();
+    }
+
+    public int getMaxConnections() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getMaxConnections();
+    }
+
+    public long getAcquireCount() {
+        return acquireCount.sum();
+    }
+
+    public long getAcquireTotalTimeInMicroseconds() {
+        return TimeUnit.NANOSECONDS.toMicros(acquireTotalNanos.sum());
+    }
+
+    public long getAcquireMaxTimeInMicroseconds() {
+        return TimeUnit.NANOSECONDS.toMicros(acquireMaxNanos.get());
+    }
+
+    public long getAcquireAverageTimeInMicroseconds() {
+        long count = acquireCount.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(acquireTotalNanos.sum() / count);
+    }
+
+    public long getConnectionTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    public long getConnectionCreatedCount() {
+        return createdCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "pool: [" + poolName + "], active: [" + getActiveConnections() + "], idle: [" + getIdleConnections()
+                + "], waiting: [" + getPendingThreads() + "], acquire avg/max (us): [" + getAcquireAverageTimeInMicroseconds()
+                + "/" + getAcquireMaxTimeInMicroseconds() + "], timeouts: [" + getConnectionTimeoutCount() + "]";
+    }
+}
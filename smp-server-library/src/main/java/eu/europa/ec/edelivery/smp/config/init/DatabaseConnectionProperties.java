@@ -38,4 +38,32 @@ public interface DatabaseConnectionProperties {
     boolean updateDatabaseEnabled();
 
     boolean isShowSqlEnabled();
+
+    boolean isDatabasePoolEnabled();
+
+    int getDatabasePoolMinIdle();
+
+    int getDatabasePoolMaxSize();
+
+    long getDatabasePoolConnectionTimeout();
+
+    long getDatabasePoolIdleTimeout();
+
+    long getDatabasePoolMaxLifetime();
+
+    long getDatabasePoolLeakDetectionThreshold();
+
+    int getDatabasePoolStatementCacheSize();
+
+    boolean isSecondLevelCacheEnabled();
+
+    String getReplicaDatabaseJNDI();
+
+    String getReplicaJdbcUrl();
+
+    String getReplicaJdbcUsername();
+
+    String getReplicaJdbcPassword();
+
+    long getReplicaReadAfterWriteInterval();
 }
@@ -0,0 +1,142 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.config.init;
+
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The datasource routes the connections of the read-only transactions to the read replica and all other connections
+ * to the primary datasource. The connection is obtained lazily with the first statement, because the transaction
+ * manager requests the connection before the transaction read-only flag is bound to the thread.
+ * <p>
+ * After the read-write transaction is committed, the read-only transactions of the node use the primary datasource
+ * for the configured interval, so that the node does not read its own changes from the lagging replica (and does not
+ * put the stale data to the second-level cache).
+ *
+ * @since 5.2
+ */
+public class ReadReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(ReadReplicaRoutingDataSource.class);
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final DataSource primaryDataSource;
+    private final DataSource replicaDataSource;
+    private final long readAfterWriteInterval;
+    private final AtomicLong lastWriteCommitTime = new AtomicLong(0);
+
+    /**
+     * @param primaryDataSource      the primary datasource for the read-write transactions
+     * @param replicaDataSource      the read replica datasource for the read-only transactions
+     * @param readAfterWriteInterval the time in milliseconds after the committed read-write transaction when the
+     *                               read-only transactions still use the primary datasource
+     */
+    public ReadReplicaRoutingDataSource(DataSource primaryDataSource, DataSource replicaDataSource, long readAfterWriteInterval) {
+        this.primaryDataSource = primaryDataSource;
+        this.replicaDataSource = replicaDataSource;
+        this.readAfterWriteInterval = readAfterWriteInterval;
+
+        AbstractRoutingDataSource routingDataSource = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return determineRoute();
+            }
+        };
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(Route.PRIMARY, primaryDataSource);
+        targetDataSources.put(Route.REPLICA, replicaDataSource);
+        routingDataSource.setTargetDataSources(targetDataSources);
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+        routingDataSource.afterPropertiesSet();
+        setTargetDataSource(routingDataSource);
+        // the default must be known without fetching the connection, otherwise the transaction begin fetches the
+        // connection (from the primary datasource) before the read-only flag is set. The pools use auto-commit mode.
+        setDefaultAutoCommit(true);
+    }
+
+    /**
+     * Returns the datasource route for the current thread: the read replica for the read-only transactions, except
+     * in the read-after-write interval, otherwise the primary datasource. The commit of the read-write transaction
+     * starts the read-after-write interval.
+     *
+     * @return the datasource route
+     */
+    protected Route determineRoute() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Route.PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            registerWriteCommit();
+            return Route.PRIMARY;
+        }
+        if (System.currentTimeMillis() - lastWriteCommitTime.get() < readAfterWriteInterval) {
+            LOG.debug("Route the read-only transaction to the primary datasource in the read-after-write interval.");
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+
+    protected void registerWriteCommit() {
+        if (readAfterWriteInterval <= 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWriteCommitTime.set(System.currentTimeMillis());
+            }
+        });
+    }
+
+    public DataSource getPrimaryDataSource() {
+        return primaryDataSource;
+    }
+
+    public DataSource getReplicaDataSource() {
+        return replicaDataSource;
+    }
+
+    /**
+     * Close the primary and the replica datasource if they hold the resources (as example the connection pools).
+     */
+    @Override
+    public void close() throws Exception {
+        closeDataSource(replicaDataSource);
+        closeDataSource(primaryDataSource);
+    }
+
+    private void closeDataSource(DataSource dataSource) throws Exception {
+        if (dataSource instanceof AutoCloseable) {
+            ((AutoCloseable) dataSource).close();
+        }
+    }
+}
@@ -22,9 +22,12 @@ package eu.europa.ec.edelivery.smp.conversion;
 import ec.services.wsdl.bdmsl.data._1.ParticipantsType;
 import ec.services.wsdl.bdmsl.data._1.SMPAdvancedServiceForParticipantType;
 import eu.europa.ec.edelivery.smp.identifiers.Identifier;
+import org.busdox.servicemetadata.locator._1.ParticipantIdentifierPageType;
 import org.busdox.servicemetadata.locator._1.ServiceMetadataPublisherServiceForParticipantType;
 import org.busdox.transport.identifiers._1.ParticipantIdentifierType;
 
+import java.util.List;
+
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
 /**
@@ -43,6 +46,16 @@ public class SmlIdentifierConverter {
         return busdoxIdentifier;
     }
 
+    public static ParticipantIdentifierPageType toParticipantIdentifierPage(List<Identifier> participantIds, String smpId) {
+        ParticipantIdentifierPageType page = new ParticipantIdentifierPageType();
+        page.setServiceMetadataPublisherID(smpId);
+        for (Identifier participantId : participantIds) {
+            validate(participantId, smpId);
+            page.getParticipantIdentifier().add(toParticipantIdentifierType(participantId));
+        }
+        return page;
+    }
+
     public static ParticipantsType toParticipantsType(Identifier participantId, String smpId) {
         validate(participantId, smpId);
 
@@ -22,7 +22,10 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import static eu.europa.ec.edelivery.smp.config.enums.SMPPropertyEnum.SMP_ALERT_CREDENTIALS_CRON;
+import static eu.europa.ec.edelivery.smp.config.enums.SMPPropertyEnum.SMP_ALERT_MAIL_CRON;
+import static eu.europa.ec.edelivery.smp.config.enums.SMPPropertyEnum.SMP_CACHE_EVENTS_CRON;
 import static eu.europa.ec.edelivery.smp.config.enums.SMPPropertyEnum.SMP_PROPERTY_REFRESH_CRON;
+import static eu.europa.ec.edelivery.smp.config.enums.SMPPropertyEnum.SML_OUTBOX_CRON;
 
 /**
  * Class initialize the cron trigger beans
@@ -35,6 +38,9 @@ public class CronTriggerConfig {
 
     public static final String TRIGGER_BEAN_PROPERTY_REFRESH = "SMPCronTriggerPropertyRefresh";
     public static final String TRIGGER_BEAN_CREDENTIAL_ALERTS = "SMPCronTriggerCredentialsAlerts";
+    public static final String TRIGGER_BEAN_SML_OUTBOX = "SMPCronTriggerSMLOutbox";
+    public static final String TRIGGER_BEAN_ALERT_MAIL = "SMPCronTriggerAlertMail";
+    public static final String TRIGGER_BEAN_CACHE_EVENTS = "SMPCronTriggerCacheEvents";
 
 
     @Bean(TRIGGER_BEAN_PROPERTY_REFRESH)
@@ -46,4 +52,19 @@ public class CronTriggerConfig {
     public SMPDynamicCronTrigger getCredentialAlertsCronTrigger() {
         return new SMPDynamicCronTrigger(SMP_ALERT_CREDENTIALS_CRON.getDefValue(), SMP_ALERT_CREDENTIALS_CRON);
     }
+
+    @Bean(TRIGGER_BEAN_SML_OUTBOX)
+    public SMPDynamicCronTrigger getSMLOutboxCronTrigger() {
+        return new SMPDynamicCronTrigger(SML_OUTBOX_CRON.getDefValue(), SML_OUTBOX_CRON);
+    }
+
+    @Bean(TRIGGER_BEAN_ALERT_MAIL)
+    public SMPDynamicCronTrigger getAlertMailCronTrigger() {
+        return new SMPDynamicCronTrigger(SMP_ALERT_MAIL_CRON.getDefValue(), SMP_ALERT_MAIL_CRON);
+    }
+
+    @Bean(TRIGGER_BEAN_CACHE_EVENTS)
+    public SMPDynamicCronTrigger getCacheEventsCronTrigger() {
+        return new SMPDynamicCronTrigger(SMP_CACHE_EVENTS_CRON.getDefValue(), SMP_CACHE_EVENTS_CRON);
+    }
 }
@@ -0,0 +1,62 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.cron;
+
+/**
+ * The result of the scheduled job run: the number of the processed and failed items.
+ *
+ * @since 5.2
+ */
+public final class SMPJobResult {
+
+    public static final SMPJobResult EMPTY = new SMPJobResult(0, 0);
+
+    private final int processed;
+    private final int failed;
+
+    private SMPJobResult(int processed, int failed) {
+        this.processed = processed;
+        this.failed = failed;
+    }
+
+    public static SMPJobResult of(int processed) {
+        return of(processed, 0);
+    }
+
+    public static SMPJobResult of(int processed, int failed) {
+        return processed == 0 && failed == 0 ? EMPTY : new SMPJobResult(processed, failed);
+    }
+
+    public SMPJobResult add(SMPJobResult result) {
+        return result == null ? this : of(processed + result.processed, failed + result.failed);
+    }
+
+    public int getProcessed() {
+        return processed;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    @Override
+    public String toString() {
+        return "SMPJobResult{processed=" + processed + ", failed=" + failed + '}';
+    }
+}
@@ -0,0 +1,140 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.cron;
+
+import java.time.OffsetDateTime;
+
+/**
+ * The run statistics of the scheduled job on the current SMP node. The statistics are updated by the job thread
+ * and read by the admin UI, so all the methods are synchronized.
+ *
+ * @since 5.2
+ */
+public class SMPJobStatistics {
+
+    public enum RunStatus {
+        SUCCESS,
+        FAILED,
+        SKIPPED_RUNNING,
+        SKIPPED_LOCKED
+    }
+
+    private final SMPJobType jobType;
+    private boolean running;
+    private OffsetDateTime lastStartedOn;
+    private OffsetDateTime lastFinishedOn;
+    private long lastDurationMs;
+    private int lastProcessed;
+    private int lastFailed;
+    private RunStatus lastStatus;
+    private String lastError;
+    private long runCount;
+    private long failureCount;
+    private long skippedCount;
+    private long totalProcessed;
+    private long totalFailed;
+
+    public SMPJobStatistics(SMPJobType jobType) {
+        this.jobType = jobType;
+    }
+
+    public synchronized void started(OffsetDateTime startedOn) {
+        running = true;
+        lastStartedOn = startedOn;
+    }
+
+    public synchronized void finished(OffsetDateTime finishedOn, long durationMs, SMPJobResult result, String error) {
+        running = false;
+        runCount++;
+        lastFinishedOn = finishedOn;
+        lastDurationMs = durationMs;
+        lastProcessed = result == null ? 0 : result.getProcessed();
+        lastFailed = result == null ? 0 : result.getFailed();
+        lastError = error;
+        lastStatus = error == null ? RunStatus.SUCCESS : RunStatus.FAILED;
+        totalProcessed += lastProcessed;
+        totalFailed += lastFailed;
+        if (error != null) {
+            failureCount++;
+        }
+    }
+
+    public synchronized void skipped(RunStatus status) {
+        skippedCount++;
+        if (!running) {
+            lastStatus = status;
+        }
+    }
+
+    public SMPJobType getJobType() {
+        return jobType;
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    public synchronized OffsetDateTime getLastStartedOn() {
+        return lastStartedOn;
+    }
+
+    public synchronized OffsetDateTime getLastFinishedOn() {
+        return lastFinishedOn;
+    }
+
+    public synchronized long getLastDurationMs() {
+        return lastDurationMs;
+    }
+
+    public synchronized int getLastProcessed() {
+        return lastProcessed;
+    }
+
+    public synchronized int getLastFailed() {
+        return lastFailed;
+    }
+
+    public synchronized RunStatus getLastStatus() {
+        return lastStatus;
+    }
+
+    public synchronized String getLastError() {
+        return lastError;
+    }
+
+    public synchronized long getRunCount() {
+        return runCount;
+    }
+
+    public synchronized long getFailureCount() {
+        return failureCount;
+    }
+
+    public synchronized long getSkippedCount() {
+        return skippedCount;
+    }
+
+    public synchronized long getTotalProcessed() {
+        return totalProcessed;
+    }
+
+    public synchronized long getTotalFailed() {
+        return totalFailed;
+    }
+}
@@ -0,0 +1,52 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.cron;
+
+/**
+ * The SMP scheduled jobs. Each job belongs to the job pool, and the jobs of the same pool share the bounded
+ * thread pool, so the slow job (e.g. the SML outbox dispatcher waiting on the unavailable SML) can not delay the
+ * jobs of the other pools. The cluster singleton jobs are executed only on one SMP node at the time. The
+ * RESOURCE_SNAPSHOT_REVALIDATION job is not scheduled: it is triggered by the system administrator.
+ *
+ * @since 5.2
+ */
+public enum SMPJobType {
+    PROPERTY_REFRESH("configuration", false),
+    CREDENTIAL_VALIDATION("alert", true),
+    ALERT_MAIL("alert", false),
+    SML_OUTBOX("sml", false),
+    CACHE_EVENTS("configuration", false),
+    RESOURCE_SNAPSHOT_REVALIDATION("resource", false);
+
+    private final String pool;
+    private final boolean clusterSingleton;
+
+    SMPJobType(String pool, boolean clusterSingleton) {
+        this.pool = pool;
+        this.clusterSingleton = clusterSingleton;
+    }
+
+    public String getPool() {
+        return pool;
+    }
+
+    public boolean isClusterSingleton() {
+        return clusterSingleton;
+    }
+}
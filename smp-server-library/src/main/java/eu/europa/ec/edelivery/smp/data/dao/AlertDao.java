@@ -19,7 +19,19 @@
 package eu.europa.ec.edelivery.smp.data.dao;
 
 import eu.europa.ec.edelivery.smp.data.model.DBAlert;
+import eu.europa.ec.edelivery.smp.data.ui.enums.AlertStatusEnum;
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.TypedQuery;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.*;
 
 /**
  * Database DAO implementation for managing the alert resources
@@ -29,4 +41,61 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public class AlertDao extends BaseDao<DBAlert> {
+
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(AlertDao.class);
+
+    /**
+     * Returns the ids of the alerts which mails are due to be sent: the alerts in the PROCESS status with the
+     * next attempt time in the past. The alerts created before the mail submission queue was introduced (next
+     * attempt is not set) are not returned.
+     *
+     * @param now        the current time
+     * @param maxResults the maximum number of the alert ids
+     * @return the list of the alert ids ordered by id
+     */
+    public List<Long> getDueMailAlertIds(OffsetDateTime now, int maxResults) {
+        TypedQuery<Long> query = memEManager.createNamedQuery(QUERY_ALERT_DUE_MAIL_IDS, Long.class);
+        query.setParameter(PARAM_STATUS, AlertStatusEnum.PROCESS);
+        query.setParameter(PARAM_NEXT_ATTEMPT_ON, now);
+        query.setMaxResults(maxResults);
+        return query.getResultList();
+    }
+
+    /**
+     * Returns the alerts with the initialized properties, so that the alert mails can be composed out of the
+     * transaction.
+     *
+     * @param alertIds the alert ids
+     * @return the list of the alerts
+     */
+    @Transactional(readOnly = true)
+    public List<DBAlert> getAlertsWithProperties(Collection<Long> alertIds) {
+        if (alertIds == null || alertIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        TypedQuery<DBAlert> query = memEManager.createNamedQuery(QUERY_ALERT_BY_IDS, DBAlert.class);
+        query.setParameter(PARAM_ALERT_IDS, alertIds);
+        return query.getResultList();
+    }
+
+    /**
+     * Method claims the alert mail for sending. The alert is claimed only if it is still in the PROCESS status,
+     * and it is not claimed by another mail worker (or its processing timeout expired).
+     *
+     * @param alertId         the alert id
+     * @param now             the current time
+     * @param processingUntil the time until the alert is reserved for the mail worker
+     * @return true if the alert was claimed
+     */
+    @Transactional
+    public boolean claimMail(Long alertId, OffsetDateTime now, OffsetDateTime processingUntil) {
+        int count = memEManager.createNamedQuery(QUERY_ALERT_CLAIM_MAIL)
+                .setParameter(PARAM_NEXT_ATTEMPT_ON, processingUntil)
+                .setParameter(PARAM_LAST_UPDATED_ON, now)
+                .setParameter(PARAM_ALERT_ID, alertId)
+                .setParameter(PARAM_STATUS, AlertStatusEnum.PROCESS)
+                .executeUpdate();
+        LOG.debug("Claim alert [{}] mail: [{}]", alertId, count > 0);
+        return count > 0;
+    }
 }
@@ -0,0 +1,102 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.data.dao;
+
+import eu.europa.ec.edelivery.smp.data.enums.CacheEventType;
+import eu.europa.ec.edelivery.smp.data.model.DBCacheEvent;
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.*;
+
+/**
+ * Database DAO implementation for the cache change events. The event is written in the transaction of the data
+ * change, so the other SMP nodes see the event only when the change is committed.
+ *
+ * @since 5.2
+ */
+@Repository
+public class CacheEventDao extends BaseDao<DBCacheEvent> {
+
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(CacheEventDao.class);
+
+    /**
+     * Method writes the cache change event.
+     *
+     * @param eventType the changed data type
+     * @param eventKey  the key of the changed data, or null if all data of the type is affected
+     * @param nodeId    the SMP node which changed the data
+     * @return the persisted cache event
+     */
+    @Transactional
+    public DBCacheEvent addEvent(CacheEventType eventType, String eventKey, String nodeId) {
+        DBCacheEvent event = new DBCacheEvent();
+        event.setEventType(eventType);
+        event.setEventKey(eventKey);
+        event.setNodeId(nodeId);
+        memEManager.persist(event);
+        LOG.debug("Added cache event [{}]", event);
+        return event;
+    }
+
+    /**
+     * Returns the cache events with id greater than given id ordered by the id.
+     *
+     * @param eventId  the id of the last processed event
+     * @param maxCount maximum number of returned events
+     * @return the list of the cache events
+     */
+    public List<DBCacheEvent> getEventsAfter(long eventId, int maxCount) {
+        return memEManager.createNamedQuery(QUERY_CACHE_EVENT_AFTER_ID, DBCacheEvent.class)
+                .setParameter(PARAM_EVENT_ID, eventId)
+                .setMaxResults(maxCount)
+                .getResultList();
+    }
+
+    /**
+     * Returns the id of the last cache event or 0 if there are no events.
+     *
+     * @return the id of the last cache event
+     */
+    public long getLastEventId() {
+        Long maxId = memEManager.createNamedQuery(QUERY_CACHE_EVENT_MAX_ID, Long.class)
+                .getSingleResult();
+        return maxId == null ? 0L : maxId;
+    }
+
+    /**
+     * Method deletes the cache events created before the given date.
+     *
+     * @param createdBefore the events created before the date are deleted
+     * @return the number of deleted events
+     */
+    @Transactional
+    public int deleteEventsBefore(OffsetDateTime createdBefore) {
+        int count = memEManager.createNamedQuery(QUERY_CACHE_EVENT_DELETE_BEFORE)
+                .setParameter(PARAM_CREATED_ON, createdBefore)
+                .executeUpdate();
+        LOG.debug("Deleted [{}] cache events created before [{}]", count, createdBefore);
+        return count;
+    }
+}
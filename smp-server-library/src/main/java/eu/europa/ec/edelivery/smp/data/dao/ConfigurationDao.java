@@ -61,9 +61,11 @@ public class ConfigurationDao extends BaseDao<DBConfiguration> {
 
     private static final SMPLogger LOG = SMPLoggerFactory.getLogger(ConfigurationDao.class);
     boolean isRefreshProcess = false;
-    final Properties cachedProperties = new Properties();
-    Map<String, Object> cachedPropertyValues = new HashMap();
-    OffsetDateTime lastUpdate = null;
+    // the cached properties are replaced with new instances on refresh, so the readers never need a lock (no monitor
+    // pins the virtual request threads) and never see partially refreshed configuration
+    volatile Properties cachedProperties = new Properties();
+    volatile Map<String, Object> cachedPropertyValues = new HashMap<>();
+    volatile OffsetDateTime lastUpdate = null;
     OffsetDateTime initiateDate = null;
     boolean serverRestartNeeded = false;
 
@@ -229,14 +231,12 @@ public class ConfigurationDao extends BaseDao<DBConfiguration> {
                 return;
             }
             try {
-                synchronized (cachedProperties) {
-                    cachedProperties.clear();
-                    cachedPropertyValues.clear();
-                    cachedProperties.putAll(newProperties);
-                    cachedPropertyValues.putAll(resultProperties);
-                    // setup last update
-                    lastUpdate = newProperties.getLastUpdate();
-                }
+                Properties properties = new Properties();
+                properties.putAll(newProperties);
+                cachedPropertyValues = new HashMap<>(resultProperties);
+                cachedProperties = properties;
+                // setup last update
+                lastUpdate = newProperties.getLastUpdate();
             } finally {
                 isRefreshProcess = false;
             }
@@ -21,14 +21,22 @@ package eu.europa.ec.edelivery.smp.data.dao;
 
 import eu.europa.ec.edelivery.smp.data.enums.MembershipRoleType;
 import eu.europa.ec.edelivery.smp.data.enums.VisibilityType;
+import eu.europa.ec.edelivery.smp.data.model.CacheRegions;
 import eu.europa.ec.edelivery.smp.data.model.DBDomain;
+import eu.europa.ec.edelivery.smp.data.model.DBDomainConfiguration;
+import eu.europa.ec.edelivery.smp.data.model.DBDomainResourceDef;
+import eu.europa.ec.edelivery.smp.data.model.ext.DBResourceDef;
 import eu.europa.ec.edelivery.smp.data.model.user.DBUser;
 import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
 import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.persistence.NoResultException;
 import javax.persistence.NonUniqueResultException;
@@ -221,6 +229,49 @@ public class DomainDao extends BaseDao<DBDomain> {
         return false;
     }
 
+    /**
+     * Evicts the domain, its resource definition and configuration collections and the cached query results from the
+     * hibernate second-level cache. The method must be invoked when the domain children are changed without updating
+     * the domain collections. The data is evicted again after the transaction is completed, so that the data cached by
+     * a concurrent reader before the commit is not used.
+     *
+     * @param domainId the domain id
+     */
+    public void evictFromCache(Long domainId) {
+        evictDomainCacheData(domainId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictDomainCacheData(domainId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Evicts all domains, resource definitions, extensions and the cached query results from the hibernate
+     * second-level cache. The method is invoked when the data was changed by the other SMP node in the cluster.
+     */
+    public void evictAllFromCache() {
+        LOG.debug("Evict configuration entities from the second-level cache");
+        Cache cache = memEManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        cache.evictRegion(CacheRegions.CONFIGURATION_ENTITIES);
+        cache.evictQueryRegions();
+    }
+
+    protected void evictDomainCacheData(Long domainId) {
+        LOG.debug("Evict domain [{}] from the second-level cache", domainId);
+        Cache cache = memEManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(DBDomain.class, domainId);
+        cache.evictCollectionData(DBDomain.class.getName() + ".domainResourceDefs", domainId);
+        cache.evictCollectionData(DBDomain.class.getName() + ".domainConfigurations", domainId);
+        cache.evictCollectionData(DBResourceDef.class.getName() + ".domainResourceDefs");
+        cache.evictEntityData(DBDomainResourceDef.class);
+        cache.evictEntityData(DBDomainConfiguration.class);
+        cache.evictQueryRegions();
+    }
+
     /**
      * Method returns all public domains with all domains where user is direct or indirect member.
      * and have some resources assigned. See the EDELIVERY-13793
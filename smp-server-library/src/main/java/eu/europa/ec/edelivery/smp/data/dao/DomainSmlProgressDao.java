@@ -0,0 +1,134 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.data.dao;
+
+import eu.europa.ec.edelivery.smp.data.model.CommonColumnsLengths;
+import eu.europa.ec.edelivery.smp.data.model.DBDomainSmlProgress;
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+
+import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.*;
+
+/**
+ * Database DAO implementation for the progress of the domain participants SML registration. The operation is started
+ * with the conditional update, so only one operation runs for the domain on all SMP nodes. The methods are executed
+ * in the new transaction, so that the progress is visible to the other nodes while the operation is running.
+ *
+ * @since 5.2
+ */
+@Repository
+public class DomainSmlProgressDao extends BaseDao<DBDomainSmlProgress> {
+
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(DomainSmlProgressDao.class);
+
+    /**
+     * Method starts the operation for the domain if no operation is running. If the progress row is concurrently
+     * created by the other node, the method throws the persistence exception which must be handled as the not
+     * started operation.
+     *
+     * @param domainId     the domain id
+     * @param operation    the operation
+     * @param runId        the unique id of the operation run
+     * @param startedBy    the SMP node identifier
+     * @param now          the current time
+     * @param runningUntil the time until the operation is running, if the progress is not updated before
+     * @return true if the operation was started
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean tryStart(Long domainId, String operation, String runId, String startedBy, OffsetDateTime now,
+                            OffsetDateTime runningUntil) {
+        int count = memEManager.createNamedQuery(QUERY_DOMAIN_SML_PROGRESS_START)
+                .setParameter(PARAM_OPERATION, operation)
+                .setParameter(PARAM_RUN_ID, runId)
+                .setParameter(PARAM_STARTED_BY, startedBy)
+                .setParameter(PARAM_RUNNING_UNTIL, runningUntil)
+                .setParameter(PARAM_LAST_UPDATED_ON, now)
+                .setParameter(PARAM_DOMAIN_ID, domainId)
+                .executeUpdate();
+        if (count == 0 && find(domainId) == null) {
+            DBDomainSmlProgress progress = new DBDomainSmlProgress();
+            progress.setDomainId(domainId);
+            progress.setOperation(operation);
+            progress.setRunId(runId);
+            progress.setStartedBy(startedBy);
+            progress.setStartedOn(now);
+            progress.setRunningUntil(runningUntil);
+            memEManager.persist(progress);
+            memEManager.flush();
+            count = 1;
+        }
+        LOG.debug("Start [{}] for the domain [{}] by [{}]: [{}]", operation, domainId, startedBy, count > 0);
+        return count > 0;
+    }
+
+    /**
+     * Method updates the counts of the running operation and extends its running-until time.
+     *
+     * @return true if the progress of the run was updated
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean updateProgress(Long domainId, String runId, int totalCount, int processedCount, int failedCount,
+                                  OffsetDateTime now, OffsetDateTime runningUntil) {
+        return memEManager.createNamedQuery(QUERY_DOMAIN_SML_PROGRESS_UPDATE)
+                .setParameter(PARAM_TOTAL_COUNT, totalCount)
+                .setParameter(PARAM_PROCESSED_COUNT, processedCount)
+                .setParameter(PARAM_FAILED_COUNT, failedCount)
+                .setParameter(PARAM_RUNNING_UNTIL, runningUntil)
+                .setParameter(PARAM_LAST_UPDATED_ON, now)
+                .setParameter(PARAM_DOMAIN_ID, domainId)
+                .setParameter(PARAM_RUN_ID, runId)
+                .executeUpdate() > 0;
+    }
+
+    /**
+     * Method sets the final counts and the error of the operation, and marks it as not running.
+     *
+     * @return true if the progress of the run was updated
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean finish(Long domainId, String runId, int totalCount, int processedCount, int failedCount,
+                          String errorMessage, OffsetDateTime now) {
+        return memEManager.createNamedQuery(QUERY_DOMAIN_SML_PROGRESS_FINISH)
+                .setParameter(PARAM_TOTAL_COUNT, totalCount)
+                .setParameter(PARAM_PROCESSED_COUNT, processedCount)
+                .setParameter(PARAM_FAILED_COUNT, failedCount)
+                .setParameter(PARAM_ERROR_MESSAGE, StringUtils.left(errorMessage, CommonColumnsLengths.MAX_MEDIUM_TEXT_LENGTH))
+                .setParameter(PARAM_LAST_UPDATED_ON, now)
+                .setParameter(PARAM_DOMAIN_ID, domainId)
+                .setParameter(PARAM_RUN_ID, runId)
+                .executeUpdate() > 0;
+    }
+
+    /**
+     * Method removes the progress of the domain. It is invoked in the transaction of the domain removal.
+     *
+     * @param domainId the domain id
+     */
+    public void deleteForDomain(Long domainId) {
+        memEManager.createNamedQuery(QUERY_DOMAIN_SML_PROGRESS_DELETE)
+                .setParameter(PARAM_DOMAIN_ID, domainId)
+                .executeUpdate();
+    }
+}
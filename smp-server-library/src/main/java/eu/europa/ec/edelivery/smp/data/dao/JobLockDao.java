@@ -0,0 +1,117 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.data.dao;
+
+import eu.europa.ec.edelivery.smp.data.model.DBJobLock;
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+
+import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.*;
+
+/**
+ * Database DAO implementation for the cluster locks of the scheduled jobs. The lock is acquired with the
+ * conditional update, so only one of the concurrent nodes succeeds. The lock of the long-running job is renewed
+ * while the job is running. All methods are executed in the new transaction, so that the lock is visible to the other
+ * nodes while the job is running.
+ *
+ * @since 5.2
+ */
+@Repository
+public class JobLockDao extends BaseDao<DBJobLock> {
+
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(JobLockDao.class);
+
+    /**
+     * Method acquires the job lock if the lock does not exist yet, or the lock of the previous run expired.
+     * If the lock row is concurrently created by the other node, the method throws the persistence exception
+     * which must be handled as the not acquired lock.
+     *
+     * @param jobName     the job name
+     * @param lockedBy    the lock owner (SMP node) identifier
+     * @param now         the current time
+     * @param lockedUntil the time until the lock is held, if it is not released before
+     * @return true if the lock was acquired
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean tryLock(String jobName, String lockedBy, OffsetDateTime now, OffsetDateTime lockedUntil) {
+        int count = memEManager.createNamedQuery(QUERY_JOB_LOCK_ACQUIRE)
+                .setParameter(PARAM_LOCKED_BY, lockedBy)
+                .setParameter(PARAM_LOCKED_UNTIL, lockedUntil)
+                .setParameter(PARAM_LAST_UPDATED_ON, now)
+                .setParameter(PARAM_JOB_NAME, jobName)
+                .executeUpdate();
+        if (count == 0 && find(jobName) == null) {
+            DBJobLock lock = new DBJobLock();
+            lock.setJobName(jobName);
+            lock.setLockedBy(lockedBy);
+            lock.setLockedAt(now);
+            lock.setLockedUntil(lockedUntil);
+            memEManager.persist(lock);
+            memEManager.flush();
+            count = 1;
+        }
+        LOG.debug("Acquire lock for the job [{}] by [{}]: [{}]", jobName, lockedBy, count > 0);
+        return count > 0;
+    }
+
+    /**
+     * Method extends the job lock if it is still held by the given owner and has not expired yet.
+     *
+     * @param jobName     the job name
+     * @param lockedBy    the lock owner (SMP node) identifier
+     * @param now         the current time
+     * @param lockedUntil the new time until the lock is held
+     * @return true if the lock was renewed
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean renew(String jobName, String lockedBy, OffsetDateTime now, OffsetDateTime lockedUntil) {
+        int count = memEManager.createNamedQuery(QUERY_JOB_LOCK_RENEW)
+                .setParameter(PARAM_LOCKED_UNTIL, lockedUntil)
+                .setParameter(PARAM_LAST_UPDATED_ON, now)
+                .setParameter(PARAM_JOB_NAME, jobName)
+                .setParameter(PARAM_LOCKED_BY, lockedBy)
+                .executeUpdate();
+        LOG.debug("Renew lock for the job [{}] by [{}]: [{}]", jobName, lockedBy, count > 0);
+        return count > 0;
+    }
+
+    /**
+     * Method releases the job lock if it is still held by the given owner.
+     *
+     * @param jobName  the job name
+     * @param lockedBy the lock owner (SMP node) identifier
+     * @param now      the current time
+     * @return true if the lock was released
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean unlock(String jobName, String lockedBy, OffsetDateTime now) {
+        int count = memEManager.createNamedQuery(QUERY_JOB_LOCK_RELEASE)
+                .setParameter(PARAM_LAST_UPDATED_ON, now)
+                .setParameter(PARAM_JOB_NAME, jobName)
+                .setParameter(PARAM_LOCKED_BY, lockedBy)
+                .executeUpdate();
+        LOG.debug("Release lock for the job [{}] by [{}]: [{}]", jobName, lockedBy, count > 0);
+        return count > 0;
+    }
+}
@@ -84,13 +84,46 @@ public class QueryNames {
     public static final String QUERY_RESOURCE_BY_CS_IDENTIFIER_RESOURCE_DEF_DOMAIN = "DBResource.getResByCSIdentifierAndResourceDefAndDomain";
     public static final String QUERY_RESOURCES_BY_DOMAIN_ID_COUNT = "DBResource.getResByDomainIdCount";
     public static final String QUERY_RESOURCES_BY_DOMAIN_ID_RESOURCE_DEF_ID_COUNT = "DBResource.getResByDomainIdAndResourceDefCount";
+    public static final String QUERY_RESOURCES_BY_DOMAIN_ID_SML_REGISTERED_COUNT = "DBResource.getResByDomainIdAndSmlRegisteredCount";
+    public static final String QUERY_RESOURCE_SML_IDENTIFIERS_BY_DOMAIN_ID = "DBResource.getSmlIdentifiersByDomainId";
+    public static final String QUERY_RESOURCE_NORMALIZED_IDENTIFIERS_BY_DOMAIN_ID = "DBResource.getNormalizedIdentifiersByDomainId";
 
     public static final String QUERY_DOMAIN_CONFIGURATION_ALL = "DBDomainConfiguration.getAllForDomain";
 
+    public static final String QUERY_SML_OUTBOX_DUE_ENTRIES = "DBSMLOutboxEntry.getDueEntries";
+    public static final String QUERY_SML_OUTBOX_BY_PARTICIPANT = "DBSMLOutboxEntry.getByParticipant";
+    public static final String QUERY_SML_OUTBOX_BY_DOMAIN_ID = "DBSMLOutboxEntry.getByDomainId";
+    public static final String QUERY_SML_OUTBOX_BY_RESOURCE_IDS = "DBSMLOutboxEntry.getByResourceIds";
+    public static final String QUERY_SML_OUTBOX_CLAIM = "DBSMLOutboxEntry.claim";
+    public static final String QUERY_SML_OUTBOX_DELETE_NOT_SENT = "DBSMLOutboxEntry.deleteNotSent";
+    public static final String QUERY_SML_OUTBOX_DELETE_BY_DOMAIN_ID = "DBSMLOutboxEntry.deleteByDomainId";
+    public static final String QUERY_SML_OUTBOX_RETRY_FAILED_BY_DOMAIN_ID = "DBSMLOutboxEntry.retryFailedByDomainId";
+
+    public static final String QUERY_ALERT_DUE_MAIL_IDS = "DBAlert.getDueMailIds";
+    public static final String QUERY_ALERT_BY_IDS = "DBAlert.getByIds";
+    public static final String QUERY_ALERT_CLAIM_MAIL = "DBAlert.claimMail";
+
+    public static final String QUERY_JOB_LOCK_ACQUIRE = "DBJobLock.acquire";
+    public static final String QUERY_JOB_LOCK_RELEASE = "DBJobLock.release";
+    public static final String QUERY_JOB_LOCK_RENEW = "DBJobLock.renew";
+
+    public static final String QUERY_DOMAIN_SML_PROGRESS_START = "DBDomainSmlProgress.start";
+    public static final String QUERY_DOMAIN_SML_PROGRESS_UPDATE = "DBDomainSmlProgress.update";
+    public static final String QUERY_DOMAIN_SML_PROGRESS_FINISH = "DBDomainSmlProgress.finish";
+    public static final String QUERY_DOMAIN_SML_PROGRESS_DELETE = "DBDomainSmlProgress.delete";
+
+    public static final String QUERY_CACHE_EVENT_AFTER_ID = "DBCacheEvent.getAfterId";
+    public static final String QUERY_CACHE_EVENT_MAX_ID = "DBCacheEvent.getMaxId";
+    public static final String QUERY_CACHE_EVENT_DELETE_BEFORE = "DBCacheEvent.deleteBefore";
+
     public static final String QUERY_RESOURCE_ALL_FOR_USER = "DBResource.getPublicSearch";
 
     public static final String QUERY_RESOURCE_ALL_FOR_USER_COUNT = "DBResource.getPublicSearchCount";
 
+    public static final String QUERY_RESOURCE_ALL_FOR_USER_KEYSET = "DBResource.getPublicSearchKeyset";
+
+    public static final String QUERY_RESOURCE_ALL_FOR_USER_IDS = "DBResource.getPublicSearchIds";
+
     public static final String QUERY_RESOURCE_FILTER = "DBResource.getResourcesByFilter";
     public static final String QUERY_RESOURCE_FILTER_COUNT = "DBResource.getResourcesByFilterCount";
 
@@ -113,6 +146,7 @@ public class QueryNames {
     public static final String QUERY_SUBRESOURCE_BY_IDENTIFIER_RESOURCE_ID = "DBSubresource.getByIdentifierAndResourceId";
     public static final String QUERY_SUBRESOURCE_BY_RESOURCE_SUBRESDEF = "DBSubresource.getAllForResourceAndTypeIdentifier";
 
+    public static final String QUERY_SUBRESOURCE_BY_RESOURCE_IDS = "DBSubresource.getByResourceIds";
     public static final String QUERY_SUBRESOURCE_BY_RESOURCE_ID = "DBSubresource.getAllForResourceId";
     public static final String QUERY_SUBRESOURCE_DEF_ALL = "DBSubresource.getAll";
     public static final String QUERY_SUBRESOURCE_DEF_BY_IDENTIFIER = "DBResourceDef.getAllByIdentifier";
@@ -189,6 +223,9 @@ public class QueryNames {
     // resource identifier value
     public static final String PARAM_RESOURCE_IDENTIFIER = "resource_identifier";
     public static final String PARAM_RESOURCE_SCHEME = "resource_scheme";
+    // keyset pagination cursor: last normalized identifier value and resource id of the previous page
+    public static final String PARAM_CURSOR_IDENTIFIER_VALUE = "cursor_identifier_value";
+    public static final String PARAM_CURSOR_ID = "cursor_id";
 
     public static final String PARAM_SUBRESOURCE_IDENTIFIER = "subresource_identifier";
     public static final String PARAM_SUBRESOURCE_SCHEME = "subresource_scheme";
@@ -206,11 +243,31 @@ public class QueryNames {
     public static final String PARAM_DOMAIN_SML_SMP_ID = "sml_smp_id";
 
     public static final String PARAM_DOMAIN_IDS = "domain_ids";
+    public static final String PARAM_SML_REGISTERED = "sml_registered";
 
     public static final String PARAM_DOCUMENT_ID = "document_id";
     public static final String PARAM_DOCUMENT_TYPE = "document_type";
     public static final String PARAM_SHARING_ENABLED = "sharing_enabled";
     public static final String PARAM_STATUS = "status";
+    public static final String PARAM_STATUSES = "statuses";
+    public static final String PARAM_ENTRY_ID = "entry_id";
+    public static final String PARAM_NEXT_ATTEMPT_ON = "next_attempt_on";
+    public static final String PARAM_LAST_UPDATED_ON = "last_updated_on";
+    public static final String PARAM_ALERT_ID = "alert_id";
+    public static final String PARAM_ALERT_IDS = "alert_ids";
+    public static final String PARAM_JOB_NAME = "job_name";
+    public static final String PARAM_LOCKED_BY = "locked_by";
+    public static final String PARAM_LOCKED_UNTIL = "locked_until";
+    public static final String PARAM_OPERATION = "operation";
+    public static final String PARAM_RUN_ID = "run_id";
+    public static final String PARAM_STARTED_BY = "started_by";
+    public static final String PARAM_RUNNING_UNTIL = "running_until";
+    public static final String PARAM_TOTAL_COUNT = "total_count";
+    public static final String PARAM_PROCESSED_COUNT = "processed_count";
+    public static final String PARAM_FAILED_COUNT = "failed_count";
+    public static final String PARAM_ERROR_MESSAGE = "error_message";
+    public static final String PARAM_EVENT_ID = "event_id";
+    public static final String PARAM_CREATED_ON = "created_on";
 
     public static final String PARAM_GROUP_VISIBILITY = "group_visibility";
     public static final String PARAM_GROUP_ID = "group_id";
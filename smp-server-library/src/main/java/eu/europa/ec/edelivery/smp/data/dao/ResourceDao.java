@@ -33,11 +33,14 @@ import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.NoResultException;
 import javax.persistence.NonUniqueResultException;
+import javax.persistence.Query;
 import javax.persistence.Tuple;
 import javax.persistence.TypedQuery;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.*;
 
@@ -85,6 +88,44 @@ public class ResourceDao extends BaseDao<DBResource> {
         }
     }
 
+    /**
+     * The resource identifier data needed for the SML (BDMSL) participant registration. The wrapper allows processing
+     * the participants outside the persistence context.
+     */
+    public static final class DBResourceSmlIdentifier {
+
+        private final Long resourceId;
+
+        private final String identifierValue;
+
+        private final String identifierScheme;
+
+        private final String resourceDefIdentifier;
+
+        public DBResourceSmlIdentifier(Long resourceId, String identifierValue, String identifierScheme, String resourceDefIdentifier) {
+            this.resourceId = resourceId;
+            this.identifierValue = identifierValue;
+            this.identifierScheme = identifierScheme;
+            this.resourceDefIdentifier = resourceDefIdentifier;
+        }
+
+        public Long getResourceId() {
+            return resourceId;
+        }
+
+        public String getIdentifierValue() {
+            return identifierValue;
+        }
+
+        public String getIdentifierScheme() {
+            return identifierScheme;
+        }
+
+        public String getResourceDefIdentifier() {
+            return resourceDefIdentifier;
+        }
+    }
+
     /**
      * The method returns DBResource for the participant case insenstive identifier, domain, and resource type. If the resource does not exist, it returns an empty Option.
      * If more than one result exist, it returns IllegalStateException caused by database data inconsistency. Only one combination of
@@ -114,8 +155,9 @@ public class ResourceDao extends BaseDao<DBResource> {
                     QUERY_RESOURCE_BY_IDENTIFIER_RESOURCE_DEF_DOMAIN, DBResource.class);
             query.setParameter(PARAM_DOMAIN_ID, domain.getId());
             query.setParameter(PARAM_RESOURCE_DEF_ID, resourceDef.getId());
-            query.setParameter(IDENTIFIER_VALUE, identifierValue);
-            query.setParameter(IDENTIFIER_SCHEME, identifierSchema);
+            // case-insensitive query matches the lower-cased (normalized) identifier columns
+            query.setParameter(IDENTIFIER_VALUE, isCaseSenstive ? identifierValue : StringUtils.lowerCase(identifierValue));
+            query.setParameter(IDENTIFIER_SCHEME, isCaseSenstive ? identifierSchema : StringUtils.lowerCase(identifierSchema));
             DBResource res = query.getSingleResult();
             return Optional.of(res);
         } catch (NoResultException e) {
@@ -168,13 +210,36 @@ public class ResourceDao extends BaseDao<DBResource> {
         if (iPageSize > 0) {
             query.setMaxResults(iPageSize);
         }
-        query.setParameter(PARAM_USER_ID, user != null ? user.getId() : null);
-        query.setParameter(PARAM_RESOURCE_SCHEME, getNormalizedLikeParameter(schema));
-        query.setParameter(PARAM_RESOURCE_IDENTIFIER, getNormalizedLikeParameter(identifier));
-        query.setParameter(PARAM_DOMAIN_CODE, StringUtils.defaultIfBlank(domainCode, null));
-        query.setParameter(PARAM_DOCUMENT_TYPE, StringUtils.defaultIfBlank(documentType, null));
-        List<Tuple> resultList = query.getResultList();
+        setPublicSearchParameters(query, user, schema, identifier, domainCode, documentType);
+        return toResourceWrappers(query.getResultList());
+    }
+
+    /**
+     * Method returns the page of the public resources following the given keyset cursor. The resources are ordered by
+     * normalized identifier value and id, so the next page is selected by the index seek instead of skipping all
+     * rows of the previous pages.
+     *
+     * @param cursorIdentifierValue the normalized identifier value of the last resource of the previous page or null for the first page
+     * @param cursorId              the id of the last resource of the previous page or null for the first page
+     * @param iPageSize             the max number of returned resources
+     * @return the list of the resources
+     */
+    public List<DBResourceWrapper> getPublicResourcesSearchAfter(String cursorIdentifierValue, Long cursorId, int iPageSize,
+                                                                 DBUser user, String schema, String identifier, String domainCode, String documentType) {
+        LOG.debug("Get resources list for user [{}], search scheme [{}] and search value [{}] after cursor [{}]/[{}]",
+                user, schema, identifier, cursorIdentifierValue, cursorId);
 
+        TypedQuery<Tuple> query = memEManager.createNamedQuery(QUERY_RESOURCE_ALL_FOR_USER_KEYSET, Tuple.class);
+        if (iPageSize > 0) {
+            query.setMaxResults(iPageSize);
+        }
+        query.setParameter(PARAM_CURSOR_IDENTIFIER_VALUE, cursorId == null ? null : cursorIdentifierValue);
+        query.setParameter(PARAM_CURSOR_ID, cursorId);
+        setPublicSearchParameters(query, user, schema, identifier, domainCode, documentType);
+        return toResourceWrappers(query.getResultList());
+    }
+
+    private List<DBResourceWrapper> toResourceWrappers(List<Tuple> resultList) {
         return resultList.stream().map(tuple -> {
             DBResource resource = tuple.get(0, DBResource.class);
             String domainCodeValue = tuple.get("domainCode").toString();
@@ -184,8 +249,17 @@ public class ResourceDao extends BaseDao<DBResource> {
         }).collect(Collectors.toList());
     }
 
+    private void setPublicSearchParameters(Query query, DBUser user, String schema, String identifier, String domainCode, String documentType) {
+        query.setParameter(PARAM_USER_ID, user != null ? user.getId() : null);
+        query.setParameter(PARAM_RESOURCE_SCHEME, getNormalizedLikeParameter(schema));
+        query.setParameter(PARAM_RESOURCE_IDENTIFIER, getNormalizedLikeParameter(identifier));
+        query.setParameter(PARAM_DOMAIN_CODE, StringUtils.defaultIfBlank(domainCode, null));
+        query.setParameter(PARAM_DOCUMENT_TYPE, StringUtils.defaultIfBlank(documentType, null));
+    }
+
     /**
-     * Method 'Escapes' the \ characters of the value and wraps it with % if the value is not empty.
+     * Method 'Escapes' the \ characters of the value, converts it to lower case for the search on the normalized
+     * identifier columns and wraps it with % if the value is not empty.
      * @param value value to be "Normalized" and wrapped
      * @return escaped value
      */
@@ -193,23 +267,33 @@ public class ResourceDao extends BaseDao<DBResource> {
         if (StringUtils.isBlank(value)){
             return null;
         }
-        String escapedValue = value.replace("\\", "\\\\");
+        String escapedValue = StringUtils.lowerCase(value).replace("\\", "\\\\");
         return StringUtils.wrapIfMissing(escapedValue, "%");
     }
 
     public Long getPublicResourcesSearchCount(DBUser user, String schema, String identifier, String domainCode, String documentType) {
         LOG.debug("Get resources count for user [{}], search scheme [{}] and search value [{}]", user, schema, identifier);
         TypedQuery<Long> query = memEManager.createNamedQuery(QUERY_RESOURCE_ALL_FOR_USER_COUNT, Long.class);
-
-        query.setParameter(PARAM_USER_ID, user != null ? user.getId() : null);
-        query.setParameter(PARAM_RESOURCE_SCHEME, StringUtils.isBlank(schema) ? null : StringUtils.wrapIfMissing(schema, "%"));
-        query.setParameter(PARAM_RESOURCE_IDENTIFIER, StringUtils.isBlank(identifier) ? null : StringUtils.wrapIfMissing(identifier, "%"));
-        query.setParameter(PARAM_DOMAIN_CODE, StringUtils.defaultIfBlank(domainCode, null));
-        query.setParameter(PARAM_DOCUMENT_TYPE, StringUtils.defaultIfBlank(documentType, null));
-
+        setPublicSearchParameters(query, user, schema, identifier, domainCode, documentType);
         return query.getSingleResult();
     }
 
+    /**
+     * Method returns the number of the public resources for the search parameters, but it stops counting at the
+     * given limit. If the returned value is greater than the limit, the real number of the resources is not known.
+     * The capped count avoids counting all rows of the large domains when only the first pages are displayed.
+     *
+     * @param countLimit the max number of counted resources
+     * @return the number of the resources up to countLimit + 1
+     */
+    public long getPublicResourcesSearchCappedCount(int countLimit, DBUser user, String schema, String identifier, String domainCode, String documentType) {
+        LOG.debug("Get resources capped count [{}] for user [{}], search scheme [{}] and search value [{}]", countLimit, user, schema, identifier);
+        TypedQuery<Long> query = memEManager.createNamedQuery(QUERY_RESOURCE_ALL_FOR_USER_IDS, Long.class);
+        query.setMaxResults(countLimit + 1);
+        setPublicSearchParameters(query, user, schema, identifier, domainCode, documentType);
+        return query.getResultList().size();
+    }
+
 
     /**
      * Method returns ServiceGroup by participant identifier. If there is no service group it returns empty Option.
@@ -244,6 +328,70 @@ public class ResourceDao extends BaseDao<DBResource> {
         return query.getSingleResult();
     }
 
+    public Long getResourceCountForDomainIdAndSmlRegistered(Long domainId, boolean smlRegistered) {
+        TypedQuery<Long> query = memEManager.createNamedQuery(QUERY_RESOURCES_BY_DOMAIN_ID_SML_REGISTERED_COUNT, Long.class);
+        query.setParameter(PARAM_DOMAIN_ID, domainId);
+        query.setParameter(PARAM_SML_REGISTERED, smlRegistered);
+        return query.getSingleResult();
+    }
+
+    /**
+     * Method returns the identifiers of the domain resources with the given SML registration status ordered by
+     * the resource id.
+     *
+     * @param domainId      the domain id
+     * @param smlRegistered the SML registration status of the resources
+     * @return list of the resource identifiers
+     */
+    public List<DBResourceSmlIdentifier> getSmlIdentifiersForDomainId(Long domainId, boolean smlRegistered) {
+        LOG.debug("Get SML identifiers for domain [{}] and sml registered [{}]", domainId, smlRegistered);
+        TypedQuery<Tuple> query = memEManager.createNamedQuery(QUERY_RESOURCE_SML_IDENTIFIERS_BY_DOMAIN_ID, Tuple.class);
+        query.setParameter(PARAM_DOMAIN_ID, domainId);
+        query.setParameter(PARAM_SML_REGISTERED, smlRegistered);
+        return query.getResultList().stream().map(tuple -> new DBResourceSmlIdentifier(
+                tuple.get("id", Long.class),
+                tuple.get("identifierValue", String.class),
+                tuple.get("identifierScheme", String.class),
+                tuple.get("resourceDefIdentifier", String.class))
+        ).collect(Collectors.toList());
+    }
+
+    /**
+     * Method passes the normalized (lower-cased) identifier scheme and value of all domain resources to the consumer.
+     * The identifiers are streamed from the database, so that the resources are not loaded into the persistence
+     * context.
+     *
+     * @param domainId the domain id
+     * @param consumer the consumer of the normalized identifier scheme and value
+     */
+    public void forEachNormalizedIdentifierForDomainId(Long domainId, BiConsumer<String, String> consumer) {
+        LOG.debug("Get normalized resource identifiers for domain [{}]", domainId);
+        TypedQuery<Tuple> query = memEManager.createNamedQuery(QUERY_RESOURCE_NORMALIZED_IDENTIFIERS_BY_DOMAIN_ID, Tuple.class);
+        query.setParameter(PARAM_DOMAIN_ID, domainId);
+        try (Stream<Tuple> tuples = query.getResultStream()) {
+            tuples.forEach(tuple -> consumer.accept(
+                    tuple.get("identifierScheme", String.class),
+                    tuple.get("identifierValue", String.class)));
+        }
+    }
+
+    /**
+     * Method updates the SML registration status for the resources in one transaction. The entities are updated one
+     * by one (and not with the update query) so that the change is audited.
+     *
+     * @param resourceIds   the resource ids
+     * @param smlRegistered the new SML registration status
+     */
+    @Transactional
+    public void updateSmlRegistered(List<Long> resourceIds, boolean smlRegistered) {
+        for (Long resourceId : resourceIds) {
+            DBResource resource = find(resourceId);
+            if (resource != null) {
+                resource.setSmlRegistered(smlRegistered);
+            }
+        }
+    }
+
     /**
      * Method removes the resource from DB. Related entities (cascade): sub-resources, Document, Document version,
      * group memberships,
@@ -0,0 +1,169 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.data.dao;
+
+import eu.europa.ec.edelivery.smp.data.enums.SMLOutboxStatusType;
+import eu.europa.ec.edelivery.smp.data.model.DBSMLOutboxEntry;
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.TypedQuery;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.*;
+
+/**
+ * Database DAO implementation for the SML outbox entries. The status changes which can race with the outbox
+ * dispatcher (claiming and removing of the not yet sent entries) are executed with the conditional update/delete
+ * statements, so that only one of the concurrent changes succeeds.
+ *
+ * @since 5.2
+ */
+@Repository
+public class SMLOutboxDao extends BaseDao<DBSMLOutboxEntry> {
+
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(SMLOutboxDao.class);
+
+    private static final List<SMLOutboxStatusType> DISPATCHABLE_STATUSES = Arrays.asList(SMLOutboxStatusType.PENDING,
+            SMLOutboxStatusType.PROCESSING);
+    private static final List<SMLOutboxStatusType> NOT_SENT_STATUSES = Arrays.asList(SMLOutboxStatusType.PENDING,
+            SMLOutboxStatusType.FAILED);
+
+    /**
+     * Method returns the entries which are due to be sent. For each participant, only the oldest entry is
+     * returned so that the participant entries are sent in the order they were created. The entries in the
+     * PROCESSING status are returned only if their processing timeout expired (e.g. the node crashed while
+     * sending the entry).
+     *
+     * @param now        the current time
+     * @param maxResults the maximum number of entries
+     * @return the list of the due entries ordered by id
+     */
+    public List<DBSMLOutboxEntry> getDueEntries(OffsetDateTime now, int maxResults) {
+        TypedQuery<DBSMLOutboxEntry> query = memEManager.createNamedQuery(QUERY_SML_OUTBOX_DUE_ENTRIES, DBSMLOutboxEntry.class);
+        query.setParameter(PARAM_STATUSES, DISPATCHABLE_STATUSES);
+        query.setParameter(PARAM_NEXT_ATTEMPT_ON, now);
+        query.setMaxResults(maxResults);
+        return query.getResultList();
+    }
+
+    public List<DBSMLOutboxEntry> getEntriesForParticipant(Long domainId, String identifierValue, String identifierScheme) {
+        TypedQuery<DBSMLOutboxEntry> query = memEManager.createNamedQuery(QUERY_SML_OUTBOX_BY_PARTICIPANT, DBSMLOutboxEntry.class);
+        query.setParameter(PARAM_DOMAIN_ID, domainId);
+        query.setParameter(IDENTIFIER_VALUE, identifierValue);
+        query.setParameter(IDENTIFIER_SCHEME, identifierScheme);
+        return query.getResultList();
+    }
+
+    public List<DBSMLOutboxEntry> getEntriesForDomain(Long domainId) {
+        TypedQuery<DBSMLOutboxEntry> query = memEManager.createNamedQuery(QUERY_SML_OUTBOX_BY_DOMAIN_ID, DBSMLOutboxEntry.class);
+        query.setParameter(PARAM_DOMAIN_ID, domainId);
+        return query.getResultList();
+    }
+
+    public List<DBSMLOutboxEntry> getEntriesForResources(List<Long> resourceIds) {
+        if (resourceIds == null || resourceIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        TypedQuery<DBSMLOutboxEntry> query = memEManager.createNamedQuery(QUERY_SML_OUTBOX_BY_RESOURCE_IDS, DBSMLOutboxEntry.class);
+        query.setParameter(PARAM_RESOURCE_IDS, resourceIds);
+        return query.getResultList();
+    }
+
+    /**
+     * Method claims the entry for sending. The entry is claimed only if it is still due, and it is not claimed by
+     * another dispatcher (or its processing timeout expired).
+     *
+     * @param entryId         the entry id
+     * @param now             the current time
+     * @param processingUntil the time until the entry is reserved for the dispatcher
+     * @return true if the entry was claimed
+     */
+    @Transactional
+    public boolean claim(Long entryId, OffsetDateTime now, OffsetDateTime processingUntil) {
+        int count = memEManager.createNamedQuery(QUERY_SML_OUTBOX_CLAIM)
+                .setParameter(PARAM_STATUS, SMLOutboxStatusType.PROCESSING)
+                .setParameter(PARAM_NEXT_ATTEMPT_ON, processingUntil)
+                .setParameter(PARAM_LAST_UPDATED_ON, now)
+                .setParameter(PARAM_ENTRY_ID, entryId)
+                .setParameter(PARAM_STATUSES, DISPATCHABLE_STATUSES)
+                .executeUpdate();
+        LOG.debug("Claim SML outbox entry [{}]: [{}]", entryId, count > 0);
+        return count > 0;
+    }
+
+    /**
+     * Method removes the entry if it was not yet sent to the SML (the entry is not being processed).
+     *
+     * @param entryId the entry id
+     * @return true if the entry was removed
+     */
+    public boolean deleteNotSent(Long entryId) {
+        int count = memEManager.createNamedQuery(QUERY_SML_OUTBOX_DELETE_NOT_SENT)
+                .setParameter(PARAM_ENTRY_ID, entryId)
+                .setParameter(PARAM_STATUSES, NOT_SENT_STATUSES)
+                .executeUpdate();
+        return count > 0;
+    }
+
+    /**
+     * Method updates the entry after the failed attempt.
+     *
+     * @param entryId       the entry id
+     * @param status        the new status
+     * @param attemptCount  the number of the failed attempts
+     * @param nextAttemptOn the time of the next attempt
+     * @param lastError     the error message
+     */
+    @Transactional
+    public void updateFailedAttempt(Long entryId, SMLOutboxStatusType status, int attemptCount,
+                                    OffsetDateTime nextAttemptOn, String lastError) {
+        DBSMLOutboxEntry entry = find(entryId);
+        if (entry == null) {
+            LOG.debug("SML outbox entry [{}] does not exist anymore!", entryId);
+            return;
+        }
+        entry.setStatus(status);
+        entry.setAttemptCount(attemptCount);
+        entry.setNextAttemptOn(nextAttemptOn);
+        entry.setLastError(lastError);
+    }
+
+    @Transactional
+    public int retryFailedForDomain(Long domainId, OffsetDateTime now) {
+        return memEManager.createNamedQuery(QUERY_SML_OUTBOX_RETRY_FAILED_BY_DOMAIN_ID)
+                .setParameter(PARAM_STATUS, SMLOutboxStatusType.PENDING)
+                .setParameter(PARAM_NEXT_ATTEMPT_ON, now)
+                .setParameter(PARAM_LAST_UPDATED_ON, now)
+                .setParameter(PARAM_DOMAIN_ID, domainId)
+                .setParameter(PARAM_STATUSES, Collections.singletonList(SMLOutboxStatusType.FAILED))
+                .executeUpdate();
+    }
+
+    public int deleteForDomain(Long domainId) {
+        return memEManager.createNamedQuery(QUERY_SML_OUTBOX_DELETE_BY_DOMAIN_ID)
+                .setParameter(PARAM_DOMAIN_ID, domainId)
+                .executeUpdate();
+    }
+}
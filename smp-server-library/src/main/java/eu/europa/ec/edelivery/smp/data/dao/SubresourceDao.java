@@ -25,12 +25,15 @@ import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
 import eu.europa.ec.edelivery.smp.identifiers.Identifier;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.NoResultException;
 import javax.persistence.NonUniqueResultException;
 import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -43,6 +46,8 @@ import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.*;
 @Repository
 public class SubresourceDao extends BaseDao<DBSubresource> {
     private static final SMPLogger LOG = SMPLoggerFactory.getLogger(SubresourceDao.class);
+    // max number of resource ids in one "in" clause (Oracle allows max 1000 expressions in the list)
+    private static final int MAX_IN_CLAUSE_SIZE = 500;
 
     /**
      * Method returns DBSubresource for the resource object with given subresource identifier resource type.
@@ -59,8 +64,9 @@ public class SubresourceDao extends BaseDao<DBSubresource> {
         try {
             TypedQuery<DBSubresource> query = memEManager.createNamedQuery(
                     isCaseSensitive ? QUERY_SUBRESOURCE_BY_CS_IDENTIFIER_RESOURCE_SUBRESDEF : QUERY_SUBRESOURCE_BY_IDENTIFIER_RESOURCE_SUBRESDEF, DBSubresource.class);
-            query.setParameter(IDENTIFIER_VALUE, subresourceId.getValue());
-            query.setParameter(IDENTIFIER_SCHEME, subresourceId.getScheme());
+            // case-insensitive query matches the lower-cased (normalized) identifier columns
+            query.setParameter(IDENTIFIER_VALUE, isCaseSensitive ? subresourceId.getValue() : StringUtils.lowerCase(subresourceId.getValue()));
+            query.setParameter(IDENTIFIER_SCHEME, isCaseSensitive ? subresourceId.getScheme() : StringUtils.lowerCase(subresourceId.getScheme()));
             query.setParameter(PARAM_URL_SEGMENT, subresourceUrlCtx);
             query.setParameter(PARAM_RESOURCE_ID, resource.getId());
             DBSubresource res = query.getSingleResult();
@@ -113,6 +119,27 @@ public class SubresourceDao extends BaseDao<DBSubresource> {
         return query.getResultList();
     }
 
+    /**
+     * Method returns subresources with the fetched subresource definitions for all given resource ids. The method is
+     * used to load the subresources of the whole result page with few queries instead of one lazy load per resource.
+     *
+     * @param resourceIds the list of the resource ids
+     * @return list of subresources ordered by resource id and subresource id
+     */
+    public List<DBSubresource> getSubResourcesForResourceIds(List<Long> resourceIds) {
+        if (resourceIds == null || resourceIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<DBSubresource> result = new ArrayList<>();
+        for (int i = 0; i < resourceIds.size(); i += MAX_IN_CLAUSE_SIZE) {
+            List<Long> chunk = resourceIds.subList(i, Math.min(i + MAX_IN_CLAUSE_SIZE, resourceIds.size()));
+            TypedQuery<DBSubresource> query = memEManager.createNamedQuery(QUERY_SUBRESOURCE_BY_RESOURCE_IDS, DBSubresource.class);
+            query.setParameter(PARAM_RESOURCE_IDS, chunk);
+            result.addAll(query.getResultList());
+        }
+        return result;
+    }
+
     @Transactional
     public void remove(DBSubresource subresource) {
         removeById(subresource.getId());
@@ -0,0 +1,36 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.data.enums;
+
+/**
+ * The type of the cache change event. The event notifies the SMP nodes in the cluster that the cached data of the
+ * given type was changed and the node must evict the affected cache entries.
+ *
+ * @since 5.2
+ */
+public enum CacheEventType {
+    DOMAIN,
+    RESOURCE_DEF,
+    RESOURCE,
+    PROPERTY,
+    TRUSTSTORE,
+    KEYSTORE,
+    // the rendered resource responses: the key is the resource database id, or null for all responses
+    RESOURCE_RESPONSE
+}
@@ -0,0 +1,35 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.data.enums;
+
+/**
+ * The status of the SML outbox entry. The successfully processed entries are removed from the outbox.
+ * <ul>
+ *     <li>PENDING: the entry waits for the (next) attempt</li>
+ *     <li>PROCESSING: the entry is being sent to the SML</li>
+ *     <li>FAILED: all attempts failed, and the entry waits for the administrator to retry or discard it</li>
+ * </ul>
+ *
+ * @since 5.2
+ */
+public enum SMLOutboxStatusType {
+    PENDING,
+    PROCESSING,
+    FAILED
+}
@@ -31,6 +31,8 @@ import java.time.OffsetDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
+import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.*;
+
 /**
  * Database table containing update data
  *
@@ -39,8 +41,18 @@ import java.util.Map;
  */
 @Entity
 @Audited
-@Table(name = "SMP_ALERT")
+@Table(name = "SMP_ALERT",
+        indexes = {
+                @Index(name = "SMP_ALERT_STATUS_IDX", columnList = "ALERT_STATUS, NEXT_ATTEMPT_ON"),
+        })
 @org.hibernate.annotations.Table(appliesTo = "SMP_ALERT", comment = "SMP alerts")
+@NamedQuery(name = QUERY_ALERT_DUE_MAIL_IDS, query = "SELECT a.id FROM DBAlert a " +
+        " WHERE a.alertStatus = :status AND a.nextAttemptOn <= :next_attempt_on ORDER BY a.id")
+@NamedQuery(name = QUERY_ALERT_BY_IDS, query = "SELECT DISTINCT a FROM DBAlert a LEFT JOIN FETCH a.properties " +
+        " WHERE a.id in (:alert_ids)")
+@NamedQuery(name = QUERY_ALERT_CLAIM_MAIL, query = "UPDATE DBAlert a SET a.nextAttemptOn = :next_attempt_on, " +
+        " a.lastUpdatedOn = :last_updated_on " +
+        " WHERE a.id = :alert_id AND a.alertStatus = :status AND a.nextAttemptOn <= :last_updated_on")
 public class DBAlert extends BaseEntity {
 
     @Id
@@ -81,6 +93,14 @@ public class DBAlert extends BaseEntity {
     @Column(name = "FOR_USERNAME", length = CommonColumnsLengths.MAX_USERNAME_LENGTH)
     private String username;
 
+    @Column(name = "ATTEMPT_COUNT", nullable = false)
+    @ColumnDescription(comment = "The number of the failed mail submission attempts")
+    private int attemptCount = 0;
+
+    @Column(name = "NEXT_ATTEMPT_ON")
+    @ColumnDescription(comment = "Date time of the next mail submission attempt")
+    private OffsetDateTime nextAttemptOn;
+
 
     @OneToMany(mappedBy = "alert", cascade = CascadeType.ALL, orphanRemoval = true)
     @MapKey(name = "property")
@@ -169,6 +189,22 @@ public class DBAlert extends BaseEntity {
         this.username = username;
     }
 
+    public int getAttemptCount() {
+        return attemptCount;
+    }
+
+    public void setAttemptCount(int attemptCount) {
+        this.attemptCount = attemptCount;
+    }
+
+    public OffsetDateTime getNextAttemptOn() {
+        return nextAttemptOn;
+    }
+
+    public void setNextAttemptOn(OffsetDateTime nextAttemptOn) {
+        this.nextAttemptOn = nextAttemptOn;
+    }
+
     public void addProperty(final String key, final String value) {
         properties.put(key, new DBAlertProperty(key, value, this));
     }
@@ -191,6 +227,7 @@ public class DBAlert extends BaseEntity {
                 ", reportingTime=" + reportingTime +
                 ", alertStatus=" + alertStatus +
                 ", alertLevel=" + alertLevel +
+                ", attemptCount=" + attemptCount +
                 ", properties=" + String.join(",", properties.keySet()) +
                 '}';
     }
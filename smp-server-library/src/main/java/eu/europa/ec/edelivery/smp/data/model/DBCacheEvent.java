@@ -0,0 +1,107 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.data.model;
+
+import eu.europa.ec.edelivery.smp.data.dao.utils.ColumnDescription;
+import eu.europa.ec.edelivery.smp.data.enums.CacheEventType;
+import org.hibernate.annotations.GenericGenerator;
+
+import javax.persistence.*;
+
+import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.*;
+
+/**
+ * The cache change event written by the administration write paths. The SMP nodes in the cluster poll the new
+ * events and evict the affected cache entries. The events are removed after the retention period. The entity is
+ * not audited.
+ *
+ * @since 5.2
+ */
+@Entity
+@Table(name = "SMP_CACHE_EVENT",
+        indexes = {@Index(name = "SMP_CACHE_EVENT_CREATED_IDX", columnList = "CREATED_ON")})
+@org.hibernate.annotations.Table(appliesTo = "SMP_CACHE_EVENT", comment = "Cache change events for the cluster cache invalidation")
+@NamedQuery(name = QUERY_CACHE_EVENT_AFTER_ID, query = "SELECT e FROM DBCacheEvent e WHERE e.id > :event_id ORDER BY e.id")
+@NamedQuery(name = QUERY_CACHE_EVENT_MAX_ID, query = "SELECT max(e.id) FROM DBCacheEvent e")
+@NamedQuery(name = QUERY_CACHE_EVENT_DELETE_BEFORE, query = "DELETE FROM DBCacheEvent e WHERE e.createdOn < :created_on")
+public class DBCacheEvent extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO, generator = "SMP_CACHE_EVENT_SEQ")
+    @GenericGenerator(name = "SMP_CACHE_EVENT_SEQ", strategy = "native")
+    @Column(name = "ID")
+    @ColumnDescription(comment = "Unique cache event id")
+    Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "EVENT_TYPE", length = CommonColumnsLengths.MAX_TEXT_LENGTH_64, nullable = false)
+    @ColumnDescription(comment = "The changed data type: DOMAIN, RESOURCE_DEF, RESOURCE, PROPERTY, TRUSTSTORE, KEYSTORE, RESOURCE_RESPONSE")
+    private CacheEventType eventType;
+
+    @Column(name = "EVENT_KEY", length = CommonColumnsLengths.MAX_TEXT_LENGTH_256)
+    @ColumnDescription(comment = "The key of the changed data as example the domain code")
+    private String eventKey;
+
+    @Column(name = "NODE_ID", length = CommonColumnsLengths.MAX_TEXT_LENGTH_256, nullable = false)
+    @ColumnDescription(comment = "The SMP node which changed the data")
+    private String nodeId;
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public CacheEventType getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(CacheEventType eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getEventKey() {
+        return eventKey;
+    }
+
+    public void setEventKey(String eventKey) {
+        this.eventKey = eventKey;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public String toString() {
+        return "DBCacheEvent{" +
+                "id=" + id +
+                ", eventType=" + eventType +
+                ", eventKey='" + eventKey + '\'' +
+                ", nodeId='" + nodeId + '\'' +
+                '}';
+    }
+}
@@ -23,7 +23,9 @@ import eu.europa.ec.edelivery.smp.data.dao.utils.ColumnDescription;
 import eu.europa.ec.edelivery.smp.data.enums.VisibilityType;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.QueryHints;
 import org.hibernate.envers.Audited;
 
 import javax.persistence.*;
@@ -36,13 +38,16 @@ import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.*;
  * Created by gutowpa on 16/01/2018.
  */
 @Entity
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CONFIGURATION_ENTITIES)
 @Audited
+@EntityListeners(MetadataChangeListener.class)
 @Table(name = "SMP_DOMAIN",
         indexes = {@Index(name = "SMP_DOM_UNIQ_CODE_IDX", columnList = "DOMAIN_CODE", unique = true)
         })
-@NamedQuery(name = QUERY_DOMAIN_ALL, query = "SELECT d FROM DBDomain d order by d.id asc")
+@NamedQuery(name = QUERY_DOMAIN_ALL, query = "SELECT d FROM DBDomain d order by d.id asc", hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true"))
 @NamedQuery(name = QUERY_DOMAIN_ALL_CODES, query = "SELECT d.domainCode FROM DBDomain d")
-@NamedQuery(name = QUERY_DOMAIN_CODE, query = "SELECT d FROM DBDomain d WHERE d.domainCode = :domain_code")
+@NamedQuery(name = QUERY_DOMAIN_CODE, query = "SELECT d FROM DBDomain d WHERE d.domainCode = :domain_code", hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true"))
 @NamedQuery(name = QUERY_DOMAIN_SMP_SML_ID, query = "SELECT d FROM DBDomain d WHERE lower(d.smlSmpId) = lower(:sml_smp_id)")
 
 @NamedNativeQuery(name = "DBDomain.updateNullSignAlias",
@@ -163,6 +168,7 @@ public class DBDomain extends BaseEntity {
             orphanRemoval = true,
             fetch = FetchType.LAZY
     )
+    @org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CONFIGURATION_ENTITIES)
     private List<DBDomainResourceDef> domainResourceDefs = new ArrayList<>();
 
 
@@ -172,6 +178,7 @@ public class DBDomain extends BaseEntity {
             orphanRemoval = true,
             fetch = FetchType.LAZY
     )
+    @org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CONFIGURATION_ENTITIES)
     private List<DBDomainConfiguration> domainConfigurations = new ArrayList<>();
 
 
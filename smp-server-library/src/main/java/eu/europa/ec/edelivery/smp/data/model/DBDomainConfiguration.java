@@ -21,7 +21,9 @@ package eu.europa.ec.edelivery.smp.data.model;
 
 import eu.europa.ec.edelivery.smp.data.dao.QueryNames;
 import eu.europa.ec.edelivery.smp.data.dao.utils.ColumnDescription;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.QueryHints;
 import org.hibernate.envers.Audited;
 
 import javax.persistence.*;
@@ -34,14 +36,17 @@ import java.util.Objects;
  * @since 5.1
  */
 @Entity
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CONFIGURATION_ENTITIES)
 @Audited
+@EntityListeners(MetadataChangeListener.class)
 @Table(name = "SMP_DOMAIN_CONFIGURATION",
         indexes = {
 
                 @Index(name = "SMP_DOMAIN_CONF_IDX", columnList = "ID, PROPERTY_NAME, FK_DOMAIN_ID", unique = true),
         })
 @NamedQuery(name = QueryNames.QUERY_DOMAIN_CONFIGURATION_ALL,
-        query = "SELECT d FROM DBDomainConfiguration d where d.domain.id = :domain_id")
+        query = "SELECT d FROM DBDomainConfiguration d where d.domain.id = :domain_id", hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true"))
 @org.hibernate.annotations.Table(appliesTo = "SMP_DOMAIN_CONFIGURATION", comment = "SMP domain configuration")
 public class DBDomainConfiguration extends BaseEntity {
 
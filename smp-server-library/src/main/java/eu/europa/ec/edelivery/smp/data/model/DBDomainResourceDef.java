@@ -19,7 +19,9 @@
 package eu.europa.ec.edelivery.smp.data.model;
 
 import eu.europa.ec.edelivery.smp.data.model.ext.DBResourceDef;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.QueryHints;
 import org.hibernate.envers.Audited;
 
 import javax.persistence.*;
@@ -35,13 +37,16 @@ import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.*;
  * @since 4.1
  */
 @Entity
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CONFIGURATION_ENTITIES)
 @Audited
+@EntityListeners(MetadataChangeListener.class)
 @Table(name = "SMP_DOMAIN_RESOURCE_DEF",
         indexes = {@Index(name = "SMP_DOREDEF_UNIQ_DOM_RD_IDX", columnList = "FK_RESOURCE_DEF_ID, FK_DOMAIN_ID", unique = true)
         })
-@NamedQuery(name = QUERY_DOMAIN_RESOURCE_DEF_ALL, query = "SELECT d FROM DBDomainResourceDef d order by d.domain.id, d.id asc")
+@NamedQuery(name = QUERY_DOMAIN_RESOURCE_DEF_ALL, query = "SELECT d FROM DBDomainResourceDef d order by d.domain.id, d.id asc", hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true"))
 @NamedQuery(name = QUERY_DOMAIN_RESOURCE_DEF_DOMAIN_ALL, query = "SELECT d FROM DBDomainResourceDef d WHERE d.domain.id = :domain_id ")
-@NamedQuery(name = QUERY_DOMAIN_RESOURCE_DEF_DOMAIN_CODE_SEGMENT_URL, query = "SELECT d FROM DBDomainResourceDef d WHERE d.domain.domainCode=:domain_code AND d.resourceDef.urlSegment=:url_segment")
+@NamedQuery(name = QUERY_DOMAIN_RESOURCE_DEF_DOMAIN_CODE_SEGMENT_URL, query = "SELECT d FROM DBDomainResourceDef d WHERE d.domain.domainCode=:domain_code AND d.resourceDef.urlSegment=:url_segment", hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true"))
 @NamedQuery(name = QUERY_DOMAIN_RESOURCE_DEF_DOMAIN_RES_DEF, query = "SELECT d FROM DBDomainResourceDef d WHERE d.domain.id=:domain_id AND d.resourceDef.id=:resource_def_id")
 @NamedQuery(name = QUERY_DOMAIN_RESOURCE_DEF_DOMAIN_ID_RESDEF_IDENTIFIER, query = "SELECT d FROM DBDomainResourceDef d WHERE d.domain.id=:domain_id AND d.resourceDef.identifier=:resource_def_identifier")
 public class DBDomainResourceDef extends BaseEntity {
@@ -0,0 +1,194 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.data.model;
+
+import eu.europa.ec.edelivery.smp.data.dao.utils.ColumnDescription;
+
+import javax.persistence.*;
+import java.time.OffsetDateTime;
+
+import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.*;
+
+/**
+ * The progress of the last (or currently running) registration/un-registration of the domain participants to/from the
+ * SML. The operation runs in the background on one SMP node, and the progress is persisted so that it can be
+ * polled on any node. The operation is running until the running-until time, which is extended while the progress
+ * is updated, so the operation of the crashed node can be started again after the lease expires. The entity is not
+ * audited.
+ *
+ * @since 5.2
+ */
+@Entity
+@Table(name = "SMP_DOMAIN_SML_PROGRESS")
+@org.hibernate.annotations.Table(appliesTo = "SMP_DOMAIN_SML_PROGRESS", comment = "Progress of the domain participants SML registration")
+@NamedQuery(name = QUERY_DOMAIN_SML_PROGRESS_START, query = "UPDATE DBDomainSmlProgress p SET p.operation = :operation, " +
+        " p.runId = :run_id, p.startedBy = :started_by, p.startedOn = :last_updated_on, p.finishedOn = NULL, " +
+        " p.runningUntil = :running_until, p.totalCount = 0, p.processedCount = 0, p.failedCount = 0, " +
+        " p.errorMessage = NULL, p.lastUpdatedOn = :last_updated_on " +
+        " WHERE p.domainId = :domain_id AND p.runningUntil <= :last_updated_on")
+@NamedQuery(name = QUERY_DOMAIN_SML_PROGRESS_UPDATE, query = "UPDATE DBDomainSmlProgress p SET " +
+        " p.totalCount = :total_count, p.processedCount = :processed_count, p.failedCount = :failed_count, " +
+        " p.runningUntil = :running_until, p.lastUpdatedOn = :last_updated_on " +
+        " WHERE p.domainId = :domain_id AND p.runId = :run_id")
+@NamedQuery(name = QUERY_DOMAIN_SML_PROGRESS_FINISH, query = "UPDATE DBDomainSmlProgress p SET " +
+        " p.totalCount = :total_count, p.processedCount = :processed_count, p.failedCount = :failed_count, " +
+        " p.errorMessage = :error_message, p.finishedOn = :last_updated_on, p.runningUntil = :last_updated_on, " +
+        " p.lastUpdatedOn = :last_updated_on " +
+        " WHERE p.domainId = :domain_id AND p.runId = :run_id")
+@NamedQuery(name = QUERY_DOMAIN_SML_PROGRESS_DELETE, query = "DELETE FROM DBDomainSmlProgress p WHERE p.domainId = :domain_id")
+public class DBDomainSmlProgress extends BaseEntity {
+
+    @Id
+    @Column(name = "DOMAIN_ID")
+    @ColumnDescription(comment = "The domain id. The column has no foreign key because the progress is removed with the domain")
+    private Long domainId;
+
+    @Column(name = "OPERATION", length = CommonColumnsLengths.MAX_TEXT_LENGTH_64, nullable = false)
+    @ColumnDescription(comment = "The operation: REGISTER, UNREGISTER")
+    private String operation;
+
+    @Column(name = "RUN_ID", length = CommonColumnsLengths.MAX_TEXT_LENGTH_64, nullable = false)
+    @ColumnDescription(comment = "The unique id of the operation run")
+    private String runId;
+
+    @Column(name = "STARTED_BY", length = CommonColumnsLengths.MAX_TEXT_LENGTH_256)
+    @ColumnDescription(comment = "The SMP node which runs or ran the operation")
+    private String startedBy;
+
+    @Column(name = "STARTED_ON")
+    @ColumnDescription(comment = "Date time when the operation was started")
+    private OffsetDateTime startedOn;
+
+    @Column(name = "FINISHED_ON")
+    @ColumnDescription(comment = "Date time when the operation was finished")
+    private OffsetDateTime finishedOn;
+
+    @Column(name = "RUNNING_UNTIL", nullable = false)
+    @ColumnDescription(comment = "Date time until the operation is running, if it is not finished or the progress is not updated before")
+    private OffsetDateTime runningUntil;
+
+    @Column(name = "TOTAL_COUNT")
+    @ColumnDescription(comment = "The number of the participants to process")
+    private int totalCount;
+
+    @Column(name = "PROCESSED_COUNT")
+    @ColumnDescription(comment = "The number of the processed participants")
+    private int processedCount;
+
+    @Column(name = "FAILED_COUNT")
+    @ColumnDescription(comment = "The number of the failed participants")
+    private int failedCount;
+
+    @Column(name = "ERROR_MESSAGE", length = CommonColumnsLengths.MAX_MEDIUM_TEXT_LENGTH)
+    @ColumnDescription(comment = "The error of the failed operation")
+    private String errorMessage;
+
+    @Override
+    public Long getId() {
+        return domainId;
+    }
+
+    public Long getDomainId() {
+        return domainId;
+    }
+
+    public void setDomainId(Long domainId) {
+        this.domainId = domainId;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    public String getStartedBy() {
+        return startedBy;
+    }
+
+    public void setStartedBy(String startedBy) {
+        this.startedBy = startedBy;
+    }
+
+    public OffsetDateTime getStartedOn() {
+        return startedOn;
+    }
+
+    public void setStartedOn(OffsetDateTime startedOn) {
+        this.startedOn = startedOn;
+    }
+
+    public OffsetDateTime getFinishedOn() {
+        return finishedOn;
+    }
+
+    public void setFinishedOn(OffsetDateTime finishedOn) {
+        this.finishedOn = finishedOn;
+    }
+
+    public OffsetDateTime getRunningUntil() {
+        return runningUntil;
+    }
+
+    public void setRunningUntil(OffsetDateTime runningUntil) {
+        this.runningUntil = runningUntil;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(int totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public int getProcessedCount() {
+        return processedCount;
+    }
+
+    public void setProcessedCount(int processedCount) {
+        this.processedCount = processedCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(int failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
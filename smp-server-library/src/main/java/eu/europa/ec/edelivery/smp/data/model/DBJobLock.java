@@ -0,0 +1,102 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.data.model;
+
+import eu.europa.ec.edelivery.smp.data.dao.utils.ColumnDescription;
+
+import javax.persistence.*;
+import java.time.OffsetDateTime;
+
+import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.*;
+
+/**
+ * The cluster lock of the scheduled job, which must be executed only by one SMP node at the time. The lock is
+ * acquired by the conditional update when the lock of the previous run expired, so the lock of the crashed node
+ * is released after the lock timeout. The entity is not audited.
+ *
+ * @since 5.2
+ */
+@Entity
+@Table(name = "SMP_JOB_LOCK")
+@org.hibernate.annotations.Table(appliesTo = "SMP_JOB_LOCK", comment = "Cluster locks of the scheduled jobs")
+@NamedQuery(name = QUERY_JOB_LOCK_ACQUIRE, query = "UPDATE DBJobLock l SET l.lockedBy = :locked_by, " +
+        " l.lockedAt = :last_updated_on, l.lockedUntil = :locked_until, l.lastUpdatedOn = :last_updated_on " +
+        " WHERE l.jobName = :job_name AND l.lockedUntil <= :last_updated_on")
+@NamedQuery(name = QUERY_JOB_LOCK_RELEASE, query = "UPDATE DBJobLock l SET l.lockedUntil = :last_updated_on, " +
+        " l.lastUpdatedOn = :last_updated_on " +
+        " WHERE l.jobName = :job_name AND l.lockedBy = :locked_by")
+@NamedQuery(name = QUERY_JOB_LOCK_RENEW, query = "UPDATE DBJobLock l SET l.lockedUntil = :locked_until, " +
+        " l.lastUpdatedOn = :last_updated_on " +
+        " WHERE l.jobName = :job_name AND l.lockedBy = :locked_by AND l.lockedUntil > :last_updated_on")
+public class DBJobLock extends BaseEntity {
+
+    @Id
+    @Column(name = "JOB_NAME", length = CommonColumnsLengths.MAX_TEXT_LENGTH_64)
+    @ColumnDescription(comment = "The scheduled job name")
+    private String jobName;
+
+    @Column(name = "LOCKED_BY", length = CommonColumnsLengths.MAX_TEXT_LENGTH_256)
+    @ColumnDescription(comment = "The SMP node which holds or held the lock")
+    private String lockedBy;
+
+    @Column(name = "LOCKED_AT")
+    @ColumnDescription(comment = "Date time when the lock was acquired")
+    private OffsetDateTime lockedAt;
+
+    @Column(name = "LOCKED_UNTIL", nullable = false)
+    @ColumnDescription(comment = "Date time until the lock is held. The lock is released by setting the value to the release time")
+    private OffsetDateTime lockedUntil;
+
+    @Override
+    public String getId() {
+        return jobName;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public String getLockedBy() {
+        return lockedBy;
+    }
+
+    public void setLockedBy(String lockedBy) {
+        this.lockedBy = lockedBy;
+    }
+
+    public OffsetDateTime getLockedAt() {
+        return lockedAt;
+    }
+
+    public void setLockedAt(OffsetDateTime lockedAt) {
+        this.lockedAt = lockedAt;
+    }
+
+    public OffsetDateTime getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(OffsetDateTime lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+}
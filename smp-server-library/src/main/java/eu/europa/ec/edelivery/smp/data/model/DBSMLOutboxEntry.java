@@ -0,0 +1,220 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.data.model;
+
+import eu.europa.ec.edelivery.smp.data.dao.utils.ColumnDescription;
+import eu.europa.ec.edelivery.smp.data.enums.SMLOutboxActionType;
+import eu.europa.ec.edelivery.smp.data.enums.SMLOutboxStatusType;
+import org.hibernate.annotations.GenericGenerator;
+
+import javax.persistence.*;
+import java.time.OffsetDateTime;
+
+import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.*;
+
+/**
+ * The SML outbox entry: the participant registration/un-registration which must be sent to the SML. The entry
+ * is written in the same transaction as the resource change and is sent to the SML by the outbox dispatcher.
+ * The entries of the same participant are sent in the order of the ids. The entity is not audited, because the
+ * successfully sent entries are removed from the outbox.
+ *
+ * @since 5.2
+ */
+@Entity
+@Table(name = "SMP_SML_OUTBOX",
+        indexes = {
+                @Index(name = "SMP_SMLOBX_STATUS_IDX", columnList = "ENTRY_STATUS, NEXT_ATTEMPT_ON"),
+                @Index(name = "SMP_SMLOBX_PARTICIPANT_IDX", columnList = "FK_DOMAIN_ID, IDENTIFIER_VALUE, IDENTIFIER_SCHEME"),
+                @Index(name = "SMP_SMLOBX_RESOURCE_IDX", columnList = "RESOURCE_ID"),
+        })
+@org.hibernate.annotations.Table(appliesTo = "SMP_SML_OUTBOX", comment = "Participant registrations/un-registrations waiting to be sent to the SML")
+@NamedQuery(name = QUERY_SML_OUTBOX_DUE_ENTRIES, query = "SELECT e FROM DBSMLOutboxEntry e " +
+        " WHERE e.status in (:statuses) AND e.nextAttemptOn <= :next_attempt_on " +
+        " AND NOT EXISTS (SELECT p.id FROM DBSMLOutboxEntry p WHERE p.domain.id = e.domain.id " +
+        "   AND p.identifierValue = e.identifierValue " +
+        "   AND (p.identifierScheme IS NULL AND e.identifierScheme IS NULL OR p.identifierScheme = e.identifierScheme) " +
+        "   AND p.id < e.id) " +
+        " ORDER BY e.id")
+@NamedQuery(name = QUERY_SML_OUTBOX_BY_PARTICIPANT, query = "SELECT e FROM DBSMLOutboxEntry e WHERE e.domain.id = :domain_id " +
+        " AND e.identifierValue = :identifier_value " +
+        " AND (:identifier_scheme IS NULL AND e.identifierScheme IS NULL OR e.identifierScheme = :identifier_scheme) " +
+        " ORDER BY e.id")
+@NamedQuery(name = QUERY_SML_OUTBOX_BY_DOMAIN_ID, query = "SELECT e FROM DBSMLOutboxEntry e WHERE e.domain.id = :domain_id ORDER BY e.id")
+@NamedQuery(name = QUERY_SML_OUTBOX_BY_RESOURCE_IDS, query = "SELECT e FROM DBSMLOutboxEntry e WHERE e.resourceId in (:resource_ids) ORDER BY e.id")
+@NamedQuery(name = QUERY_SML_OUTBOX_CLAIM, query = "UPDATE DBSMLOutboxEntry e SET e.status = :status, " +
+        " e.nextAttemptOn = :next_attempt_on, e.lastUpdatedOn = :last_updated_on " +
+        " WHERE e.id = :entry_id AND e.status in (:statuses) AND e.nextAttemptOn <= :last_updated_on")
+@NamedQuery(name = QUERY_SML_OUTBOX_DELETE_NOT_SENT, query = "DELETE FROM DBSMLOutboxEntry e WHERE e.id = :entry_id AND e.status in (:statuses)")
+@NamedQuery(name = QUERY_SML_OUTBOX_DELETE_BY_DOMAIN_ID, query = "DELETE FROM DBSMLOutboxEntry e WHERE e.domain.id = :domain_id")
+@NamedQuery(name = QUERY_SML_OUTBOX_RETRY_FAILED_BY_DOMAIN_ID, query = "UPDATE DBSMLOutboxEntry e SET e.status = :status, " +
+        " e.attemptCount = 0, e.nextAttemptOn = :next_attempt_on, e.lastUpdatedOn = :last_updated_on " +
+        " WHERE e.domain.id = :domain_id AND e.status in (:statuses)")
+public class DBSMLOutboxEntry extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO, generator = "SMP_SML_OUTBOX_SEQ")
+    @GenericGenerator(name = "SMP_SML_OUTBOX_SEQ", strategy = "native")
+    @Column(name = "ID")
+    @ColumnDescription(comment = "Unique SML outbox entry id")
+    Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "FK_DOMAIN_ID", nullable = false)
+    private DBDomain domain;
+
+    @Column(name = "RESOURCE_ID")
+    @ColumnDescription(comment = "The id of the resource. The column has no foreign key because the resource can be deleted before the un-registration is sent")
+    private Long resourceId;
+
+    @Column(name = "IDENTIFIER_VALUE", length = CommonColumnsLengths.MAX_IDENTIFIER_VALUE_VALUE_LENGTH, nullable = false)
+    @ColumnDescription(comment = "The participant identifier value")
+    private String identifierValue;
+
+    @Column(name = "IDENTIFIER_SCHEME", length = CommonColumnsLengths.MAX_IDENTIFIER_VALUE_SCHEME_LENGTH)
+    @ColumnDescription(comment = "The participant identifier scheme")
+    private String identifierScheme;
+
+    @Column(name = "NAPTR_SERVICE", length = CommonColumnsLengths.MAX_TEXT_LENGTH_256)
+    @ColumnDescription(comment = "The custom naptr service for the participant registration")
+    private String naptrService;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ACTION_TYPE", length = CommonColumnsLengths.MAX_TEXT_LENGTH_64, nullable = false)
+    @ColumnDescription(comment = "The participant action: REGISTER, UNREGISTER")
+    private SMLOutboxActionType action;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ENTRY_STATUS", length = CommonColumnsLengths.MAX_TEXT_LENGTH_64, nullable = false)
+    @ColumnDescription(comment = "The entry status: PENDING, PROCESSING, FAILED")
+    private SMLOutboxStatusType status = SMLOutboxStatusType.PENDING;
+
+    @Column(name = "ATTEMPT_COUNT", nullable = false)
+    @ColumnDescription(comment = "The number of the failed attempts")
+    private int attemptCount = 0;
+
+    @Column(name = "NEXT_ATTEMPT_ON", nullable = false)
+    @ColumnDescription(comment = "Date time of the next attempt")
+    private OffsetDateTime nextAttemptOn;
+
+    @Column(name = "LAST_ERROR", length = CommonColumnsLengths.MAX_MEDIUM_TEXT_LENGTH)
+    @ColumnDescription(comment = "The error of the last failed attempt")
+    private String lastError;
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public DBDomain getDomain() {
+        return domain;
+    }
+
+    public void setDomain(DBDomain domain) {
+        this.domain = domain;
+    }
+
+    public Long getResourceId() {
+        return resourceId;
+    }
+
+    public void setResourceId(Long resourceId) {
+        this.resourceId = resourceId;
+    }
+
+    public String getIdentifierValue() {
+        return identifierValue;
+    }
+
+    public void setIdentifierValue(String identifierValue) {
+        this.identifierValue = identifierValue;
+    }
+
+    public String getIdentifierScheme() {
+        return identifierScheme;
+    }
+
+    public void setIdentifierScheme(String identifierScheme) {
+        this.identifierScheme = identifierScheme;
+    }
+
+    public String getNaptrService() {
+        return naptrService;
+    }
+
+    public void setNaptrService(String naptrService) {
+        this.naptrService = naptrService;
+    }
+
+    public SMLOutboxActionType getAction() {
+        return action;
+    }
+
+    public void setAction(SMLOutboxActionType action) {
+        this.action = action;
+    }
+
+    public SMLOutboxStatusType getStatus() {
+        return status;
+    }
+
+    public void setStatus(SMLOutboxStatusType status) {
+        this.status = status;
+    }
+
+    public int getAttemptCount() {
+        return attemptCount;
+    }
+
+    public void setAttemptCount(int attemptCount) {
+        this.attemptCount = attemptCount;
+    }
+
+    public OffsetDateTime getNextAttemptOn() {
+        return nextAttemptOn;
+    }
+
+    public void setNextAttemptOn(OffsetDateTime nextAttemptOn) {
+        this.nextAttemptOn = nextAttemptOn;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    @Override
+    public String toString() {
+        return "DBSMLOutboxEntry{" +
+                "id=" + id +
+                ", action=" + action +
+                ", status=" + status +
+                ", identifierValue='" + identifierValue + '\'' +
+                ", identifierScheme='" + identifierScheme + '\'' +
+                ", attemptCount=" + attemptCount +
+                ", nextAttemptOn=" + nextAttemptOn +
+                '}';
+    }
+}
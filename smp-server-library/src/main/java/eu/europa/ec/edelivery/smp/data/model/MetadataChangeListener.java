@@ -0,0 +1,72 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * 
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.data.model;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JPA entity listener for the domain, domain configuration and resource definition entities. The listener increments
+ * the metadata version on every insert, update and delete of the entity. If the change is done in the transaction, the
+ * version is incremented again after the transaction is completed, so that the snapshot loaded by the concurrent
+ * reader before the commit is also invalidated.
+ *
+ * @since 5.2
+ */
+public class MetadataChangeListener {
+
+    private static final AtomicLong METADATA_VERSION = new AtomicLong();
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onMetadataChange(Object entity) {
+        markChanged();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    markChanged();
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the current version of the domain and resource definition metadata.
+     *
+     * @return the metadata version
+     */
+    public static long getMetadataVersion() {
+        return METADATA_VERSION.get();
+    }
+
+    /**
+     * Increment the metadata version. Method must be invoked when the domain or resource definition data is changed
+     * outside the JPA persistence context (as for example by the database scripts).
+     */
+    public static void markChanged() {
+        METADATA_VERSION.incrementAndGet();
+    }
+}
@@ -26,8 +26,10 @@ import eu.europa.ec.edelivery.smp.data.model.CommonColumnsLengths;
 import eu.europa.ec.edelivery.smp.data.model.DBDomainResourceDef;
 import eu.europa.ec.edelivery.smp.data.model.DBGroup;
 import eu.europa.ec.edelivery.smp.data.model.user.DBResourceMember;
+import org.apache.commons.lang3.StringUtils;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.envers.Audited;
+import org.hibernate.envers.NotAudited;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -39,17 +41,21 @@ import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.*;
 
 @Entity
 @Audited
+@EntityListeners(ResourceChangeListener.class)
 @Table(name = "SMP_RESOURCE",
         indexes = {@Index(name = "SMP_RS_UNIQ_IDENT_DOREDEF_IDX", columnList = "IDENTIFIER_SCHEME, IDENTIFIER_VALUE, FK_DOREDEF_ID", unique = true),
                 @Index(name = "SMP_RS_ID_IDX", columnList = "IDENTIFIER_VALUE"),
-                @Index(name = "SMP_RS_SCH_IDX", columnList = "IDENTIFIER_SCHEME")
+                @Index(name = "SMP_RS_SCH_IDX", columnList = "IDENTIFIER_SCHEME"),
+                @Index(name = "SMP_RS_NRM_ID_IDX", columnList = "NRM_IDENTIFIER_VALUE"),
+                @Index(name = "SMP_RS_NRM_SCH_IDX", columnList = "NRM_IDENTIFIER_SCHEME"),
+                @Index(name = "SMP_RS_NRM_IDENT_DOREDEF_IDX", columnList = "NRM_IDENTIFIER_VALUE, NRM_IDENTIFIER_SCHEME, FK_DOREDEF_ID")
         })
 @org.hibernate.annotations.Table(appliesTo = "SMP_RESOURCE", comment = "SMP resource Identifier and scheme")
 @NamedQuery(name = QUERY_RESOURCE_BY_IDENTIFIER_RESOURCE_DEF_DOMAIN, query = "SELECT d FROM DBResource d WHERE d.domainResourceDef.domain.id = :domain_id " +
         " AND d.domainResourceDef.resourceDef.id=:resource_def_id" +
-        " AND lower(d.identifierValue) = lower(:identifier_value) " +
-        " AND (:identifier_scheme IS NULL AND d.identifierScheme IS NULL " +
-        " OR lower(d.identifierScheme) = lower(:identifier_scheme))")
+        " AND d.normalizedIdentifierValue = :identifier_value " +
+        " AND (:identifier_scheme IS NULL AND d.normalizedIdentifierScheme IS NULL " +
+        " OR d.normalizedIdentifierScheme = :identifier_scheme)")
 @NamedQuery(name = QUERY_RESOURCE_BY_CS_IDENTIFIER_RESOURCE_DEF_DOMAIN, query = "SELECT d FROM DBResource d WHERE d.domainResourceDef.domain.id = :domain_id " +
         " AND d.domainResourceDef.resourceDef.id=:resource_def_id" +
         " AND d.identifierValue = :identifier_value " +
@@ -59,6 +65,17 @@ import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.*;
 @NamedQuery(name = QUERY_RESOURCES_BY_DOMAIN_ID_RESOURCE_DEF_ID_COUNT, query = "SELECT count(d.id) FROM DBResource d WHERE d.domainResourceDef.domain.id = :domain_id " +
         " and d.domainResourceDef.resourceDef.id = :resource_def_id ")
 @NamedQuery(name = QUERY_RESOURCES_BY_DOMAIN_ID_COUNT, query = "SELECT count(d.id) FROM DBResource d WHERE d.domainResourceDef.domain.id = :domain_id ")
+@NamedQuery(name = QUERY_RESOURCES_BY_DOMAIN_ID_SML_REGISTERED_COUNT, query = "SELECT count(d.id) FROM DBResource d WHERE d.domainResourceDef.domain.id = :domain_id " +
+        " and d.smlRegistered = :sml_registered ")
+@NamedQuery(name = QUERY_RESOURCE_SML_IDENTIFIERS_BY_DOMAIN_ID, query = "SELECT r.id as id, r.identifierValue as identifierValue, " +
+        " r.identifierScheme as identifierScheme, dr.resourceDef.identifier as resourceDefIdentifier FROM DBResource r " +
+        " JOIN DBDomainResourceDef dr ON dr.id = r.domainResourceDef.id  " +
+        " WHERE dr.domain.id = :domain_id AND r.smlRegistered = :sml_registered " +
+        " order by r.id asc")
+@NamedQuery(name = QUERY_RESOURCE_NORMALIZED_IDENTIFIERS_BY_DOMAIN_ID, query = "SELECT r.normalizedIdentifierScheme as identifierScheme, " +
+        " r.normalizedIdentifierValue as identifierValue FROM DBResource r " +
+        " JOIN DBDomainResourceDef dr ON dr.id = r.domainResourceDef.id  " +
+        " WHERE dr.domain.id = :domain_id")
 @NamedQuery(name = QUERY_RESOURCE_FILTER_COUNT, query = "SELECT count(r.id) FROM DBResource r " +
         " JOIN DBDomainResourceDef dr ON dr.id = r.domainResourceDef.id  " +
         " WHERE (:group_id IS NULL OR r.group.id = :group_id) " +
@@ -106,43 +123,46 @@ import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.*;
 )
 @NamedQuery(name = QUERY_RESOURCE_ALL_FOR_USER, query = "SELECT DISTINCT r, r.domainResourceDef.domain.domainCode as domainCode, " +
         "   r.domainResourceDef.resourceDef.urlSegment as urlSegment, r.domainResourceDef.resourceDef.name as documentType " +
-        "FROM  DBResource r LEFT JOIN DBResourceMember rm ON r.id = rm.resource.id WHERE " +
-        " (:resource_identifier IS NULL OR r.identifierValue like :resource_identifier) " +
-        " AND (:resource_scheme IS NULL OR r.identifierScheme like :resource_scheme) " +
-        " AND ( :user_id IS NOT NULL AND rm.user.id = :user_id "  +
-        " OR  r.visibility ='PUBLIC' " + // user must be member of the group or the group is public
-        "   AND (:user_id IS NOT NULL " +
-        "         AND  ((select count(gm.id) FROM  DBGroupMember gm where gm.user.id = :user_id and gm.group.id = r.group.id) > 0 " +
-        "            OR  (select count(rm.id) from DBResourceMember rm where rm.user.id = :user_id and rm.resource.group.id = r.group.id) > 0) " +
-        "       OR  r.group.visibility = 'PUBLIC'  " +
-        "           AND (r.group.domain.visibility = 'PUBLIC' " +
-        "            OR  (select count(dm.id) from DBDomainMember dm where dm.user.id = :user_id and dm.domain.id = r.group.domain.id) > 0 " +
-        "            OR (select count(gm.id) from DBGroupMember gm where gm.user.id = :user_id and gm.group.domain.id = r.group.domain.id) > 0 " +
-        "            OR (select count(rm.id) from DBResourceMember rm where rm.user.id = :user_id and rm.resource.group.domain.id = r.group.domain.id) > 0 " +
-        "))) " +
-        " AND (:domain_code IS NULL OR r.domainResourceDef.domain.domainCode = :domain_code) " +
-        " AND (:document_type IS NULL OR r.domainResourceDef.resourceDef.name = :document_type) " +
+        DBResource.PUBLIC_SEARCH_FROM_WHERE +
         " ORDER BY r.identifierScheme, r.identifierValue"
 )
-@NamedQuery(name = QUERY_RESOURCE_ALL_FOR_USER_COUNT, query = "SELECT count(distinct r.id) FROM  DBResource r LEFT JOIN DBResourceMember rm ON r.id = rm.resource.id WHERE " +
-        " (:resource_identifier IS NULL OR r.identifierValue like :resource_identifier) " +
-        " AND (:resource_scheme IS NULL OR r.identifierScheme like :resource_scheme) " +
-        " AND (:user_id IS NOT NULL AND rm.user.id = :user_id "  +
-        " OR  r.visibility ='PUBLIC' " + // user must be member of the group or the group is public
-        "   AND (:user_id IS NOT NULL " +
-        "         AND  ((select count(gm.id) FROM  DBGroupMember gm where gm.user.id = :user_id and gm.group.id = r.group.id) > 0 " +
-        "            OR  (select count(rm.id) from DBResourceMember rm where rm.user.id = :user_id and rm.resource.group.id = r.group.id) > 0) " +
-        "       OR  r.group.visibility = 'PUBLIC'  " +
-        "           AND (r.group.domain.visibility = 'PUBLIC' " +
-        "            OR  (select count(dm.id) from DBDomainMember dm where dm.user.id = :user_id and dm.domain.id = r.group.domain.id) > 0 " +
-        "            OR (select count(gm.id) from DBGroupMember gm where gm.user.id = :user_id and gm.group.domain.id = r.group.domain.id) > 0 " +
-        "            OR (select count(rm.id) from DBResourceMember rm where rm.user.id = :user_id and rm.resource.group.domain.id = r.group.domain.id) > 0 " +
-        "))) " +
-        " AND (:domain_code IS NULL OR r.domainResourceDef.domain.domainCode = :domain_code) " +
-        " AND (:document_type IS NULL OR r.domainResourceDef.resourceDef.name = :document_type) "
+@NamedQuery(name = QUERY_RESOURCE_ALL_FOR_USER_KEYSET, query = "SELECT DISTINCT r, r.domainResourceDef.domain.domainCode as domainCode, " +
+        "   r.domainResourceDef.resourceDef.urlSegment as urlSegment, r.domainResourceDef.resourceDef.name as documentType " +
+        DBResource.PUBLIC_SEARCH_FROM_WHERE +
+        " AND (:cursor_identifier_value IS NULL " +
+        "   OR r.normalizedIdentifierValue > :cursor_identifier_value " +
+        "   OR r.normalizedIdentifierValue = :cursor_identifier_value AND r.id > :cursor_id) " +
+        " ORDER BY r.normalizedIdentifierValue, r.id"
+)
+@NamedQuery(name = QUERY_RESOURCE_ALL_FOR_USER_COUNT, query = "SELECT count(distinct r.id) " +
+        DBResource.PUBLIC_SEARCH_FROM_WHERE
+)
+@NamedQuery(name = QUERY_RESOURCE_ALL_FOR_USER_IDS, query = "SELECT DISTINCT r.id " +
+        DBResource.PUBLIC_SEARCH_FROM_WHERE
 )
 public class DBResource extends BaseEntity {
 
+    /**
+     * The shared FROM/WHERE part of the public resource search queries. The identifier filters are applied to the
+     * lower-cased (normalized) columns, so the like parameters must be lower-cased as well.
+     */
+    static final String PUBLIC_SEARCH_FROM_WHERE = "FROM  DBResource r LEFT JOIN DBResourceMember rm ON r.id = rm.resource.id WHERE " +
+            " (:resource_identifier IS NULL OR r.normalizedIdentifierValue like :resource_identifier) " +
+            " AND (:resource_scheme IS NULL OR r.normalizedIdentifierScheme like :resource_scheme) " +
+            " AND ( :user_id IS NOT NULL AND rm.user.id = :user_id " +
+            " OR  r.visibility ='PUBLIC' " + // user must be member of the group or the group is public
+            "   AND (:user_id IS NOT NULL " +
+            "         AND  ((select count(gm.id) FROM  DBGroupMember gm where gm.user.id = :user_id and gm.group.id = r.group.id) > 0 " +
+            "            OR  (select count(rm.id) from DBResourceMember rm where rm.user.id = :user_id and rm.resource.group.id = r.group.id) > 0) " +
+            "       OR  r.group.visibility = 'PUBLIC'  " +
+            "           AND (r.group.domain.visibility = 'PUBLIC' " +
+            "            OR  (select count(dm.id) from DBDomainMember dm where dm.user.id = :user_id and dm.domain.id = r.group.domain.id) > 0 " +
+            "            OR (select count(gm.id) from DBGroupMember gm where gm.user.id = :user_id and gm.group.domain.id = r.group.domain.id) > 0 " +
+            "            OR (select count(rm.id) from DBResourceMember rm where rm.user.id = :user_id and rm.resource.group.domain.id = r.group.domain.id) > 0 " +
+            "))) " +
+            " AND (:domain_code IS NULL OR r.domainResourceDef.domain.domainCode = :domain_code) " +
+            " AND (:document_type IS NULL OR r.domainResourceDef.resourceDef.name = :document_type) ";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO, generator = "SMP_RESOURCE_SEQ")
     @GenericGenerator(name = "SMP_RESOURCE_SEQ", strategy = "native")
@@ -156,6 +176,20 @@ public class DBResource extends BaseEntity {
     @Column(name = "IDENTIFIER_SCHEME", length = CommonColumnsLengths.MAX_IDENTIFIER_VALUE_SCHEME_LENGTH)
     String identifierScheme;
 
+    /**
+     * The lower-cased identifier value and scheme used for the case-insensitive lookup and search. The values are
+     * derived from the identifier value and scheme and are updated in the entity lifecycle before the entity is saved.
+     */
+    @NotAudited
+    @Column(name = "NRM_IDENTIFIER_VALUE", length = CommonColumnsLengths.MAX_IDENTIFIER_VALUE_VALUE_LENGTH)
+    @ColumnDescription(comment = "Lower-cased identifier value for case-insensitive search")
+    String normalizedIdentifierValue;
+
+    @NotAudited
+    @Column(name = "NRM_IDENTIFIER_SCHEME", length = CommonColumnsLengths.MAX_IDENTIFIER_VALUE_SCHEME_LENGTH)
+    @ColumnDescription(comment = "Lower-cased identifier scheme for case-insensitive search")
+    String normalizedIdentifierScheme;
+
     @Column(name = "SML_REGISTERED")
     private boolean smlRegistered = false;
 
@@ -223,6 +257,21 @@ public class DBResource extends BaseEntity {
         this.identifierScheme = participantScheme;
     }
 
+    public String getNormalizedIdentifierValue() {
+        return normalizedIdentifierValue;
+    }
+
+    public String getNormalizedIdentifierScheme() {
+        return normalizedIdentifierScheme;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void updateNormalizedIdentifier() {
+        normalizedIdentifierValue = StringUtils.lowerCase(identifierValue);
+        normalizedIdentifierScheme = StringUtils.lowerCase(identifierScheme);
+    }
+
     public void addMember(DBResourceMember u) {
         this.resourceMembers.add(u);
     }
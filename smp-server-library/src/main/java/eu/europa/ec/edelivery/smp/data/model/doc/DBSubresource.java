@@ -23,8 +23,10 @@ import eu.europa.ec.edelivery.smp.data.dao.utils.ColumnDescription;
 import eu.europa.ec.edelivery.smp.data.model.BaseEntity;
 import eu.europa.ec.edelivery.smp.data.model.CommonColumnsLengths;
 import eu.europa.ec.edelivery.smp.data.model.ext.DBSubresourceDef;
+import org.apache.commons.lang3.StringUtils;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.envers.Audited;
+import org.hibernate.envers.NotAudited;
 
 import javax.persistence.*;
 import java.util.Objects;
@@ -37,14 +39,15 @@ import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.*;
 @Table(name = "SMP_SUBRESOURCE",
         indexes = {@Index(name = "SMP_SRS_UNIQ_ID_RES_SRT_IDX", columnList = "FK_RESOURCE_ID, IDENTIFIER_VALUE, IDENTIFIER_SCHEME", unique = true),
                 @Index(name = "SMP_SMD_DOC_ID_IDX", columnList = "IDENTIFIER_VALUE", unique = false),
-                @Index(name = "SMP_SMD_DOC_SCH_IDX", columnList = "IDENTIFIER_SCHEME", unique = false)
+                @Index(name = "SMP_SMD_DOC_SCH_IDX", columnList = "IDENTIFIER_SCHEME", unique = false),
+                @Index(name = "SMP_SRS_NRM_ID_RES_IDX", columnList = "FK_RESOURCE_ID, NRM_IDENTIFIER_VALUE, NRM_IDENTIFIER_SCHEME", unique = false)
         })
 @org.hibernate.annotations.Table(appliesTo = "SMP_SUBRESOURCE", comment = "Service metadata")
 @NamedQuery(name = QUERY_SUBRESOURCE_BY_IDENTIFIER_RESOURCE_SUBRESDEF, query = "SELECT d FROM DBSubresource d WHERE d.resource.id = :resource_id " +
         " AND d.subresourceDef.urlSegment=:url_segment" +
-        " AND lower(d.identifierValue) = lower(:identifier_value) " +
-        " AND (:identifier_scheme IS NULL AND d.identifierScheme IS NULL " +
-        " OR lower(d.identifierScheme) = lower(:identifier_scheme))"
+        " AND d.normalizedIdentifierValue = :identifier_value " +
+        " AND (:identifier_scheme IS NULL AND d.normalizedIdentifierScheme IS NULL " +
+        " OR d.normalizedIdentifierScheme = :identifier_scheme)"
 )
 @NamedQuery(name = QUERY_SUBRESOURCE_BY_CS_IDENTIFIER_RESOURCE_SUBRESDEF, query = "SELECT d FROM DBSubresource d WHERE d.resource.id = :resource_id " +
         " AND d.subresourceDef.urlSegment=:url_segment" +
@@ -64,6 +67,8 @@ import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.*;
 )
 
 @NamedQuery(name = QUERY_SUBRESOURCE_BY_RESOURCE_ID , query = "SELECT d FROM DBSubresource d WHERE d.resource.id = :resource_id order by id asc")
+@NamedQuery(name = QUERY_SUBRESOURCE_BY_RESOURCE_IDS, query = "SELECT d FROM DBSubresource d JOIN FETCH d.subresourceDef " +
+        " WHERE d.resource.id in (:resource_ids) order by d.resource.id, d.id asc")
 @NamedQuery(name = "DBSubresource.deleteById", query = "DELETE FROM DBSubresource d WHERE d.id = :id")
 public class DBSubresource extends BaseEntity {
 
@@ -80,6 +85,20 @@ public class DBSubresource extends BaseEntity {
     @Column(name = "IDENTIFIER_SCHEME", length = CommonColumnsLengths.MAX_DOCUMENT_TYPE_IDENTIFIER_SCHEME_LENGTH)
     String identifierScheme;
 
+    /**
+     * The lower-cased identifier value and scheme used for the case-insensitive lookup. The values are derived from
+     * the identifier value and scheme and are updated in the entity lifecycle before the entity is saved.
+     */
+    @NotAudited
+    @Column(name = "NRM_IDENTIFIER_VALUE", length = CommonColumnsLengths.MAX_DOCUMENT_TYPE_IDENTIFIER_VALUE_LENGTH)
+    @ColumnDescription(comment = "Lower-cased identifier value for case-insensitive lookup")
+    String normalizedIdentifierValue;
+
+    @NotAudited
+    @Column(name = "NRM_IDENTIFIER_SCHEME", length = CommonColumnsLengths.MAX_DOCUMENT_TYPE_IDENTIFIER_SCHEME_LENGTH)
+    @ColumnDescription(comment = "Lower-cased identifier scheme for case-insensitive lookup")
+    String normalizedIdentifierScheme;
+
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "FK_RESOURCE_ID")
     private DBResource resource;
@@ -118,6 +137,21 @@ public class DBSubresource extends BaseEntity {
         this.identifierScheme = documentIdentifierScheme;
     }
 
+    public String getNormalizedIdentifierValue() {
+        return normalizedIdentifierValue;
+    }
+
+    public String getNormalizedIdentifierScheme() {
+        return normalizedIdentifierScheme;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void updateNormalizedIdentifier() {
+        normalizedIdentifierValue = StringUtils.lowerCase(identifierValue);
+        normalizedIdentifierScheme = StringUtils.lowerCase(identifierScheme);
+    }
+
     public DBSubresourceDef getSubresourceDef() {
         return subresourceDef;
     }
@@ -0,0 +1,116 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * 
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.data.model.doc;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostRemove;
+import javax.persistence.PrePersist;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * JPA entity listener for the resource entity. The listener notifies the registered handlers when the resource is
+ * created or deleted. The new resource is reported when it is persisted (before the database insert, so that the
+ * resource is visible to the handlers also before the flush) and again when the transaction is committed, so that the
+ * handler state loaded by the concurrent reader before the commit is also updated. The deleted resource is reported
+ * when the transaction is committed.
+ * <p>
+ * The resource identifier can not be changed, so the updates are not reported.
+ *
+ * @since 5.2
+ */
+public class ResourceChangeListener {
+
+    /**
+     * The handler of the resource changes. The handler is invoked in the thread persisting/deleting the resource and
+     * must not access the persistence context.
+     */
+    public interface ResourceChangeHandler {
+
+        void onResourceCreated(Long domainId, String identifierScheme, String identifierValue);
+
+        void onResourceDeleted(Long domainId);
+    }
+
+    private static final List<ResourceChangeHandler> HANDLERS = new CopyOnWriteArrayList<>();
+
+    @PrePersist
+    public void onResourcePersist(DBResource resource) {
+        Long domainId = getDomainId(resource);
+        if (domainId == null || HANDLERS.isEmpty()) {
+            return;
+        }
+        String identifierScheme = resource.getIdentifierScheme();
+        String identifierValue = resource.getIdentifierValue();
+        HANDLERS.forEach(handler -> handler.onResourceCreated(domainId, identifierScheme, identifierValue));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    HANDLERS.forEach(handler -> handler.onResourceCreated(domainId, identifierScheme, identifierValue));
+                }
+            });
+        }
+    }
+
+    @PostRemove
+    public void onResourceRemove(DBResource resource) {
+        Long domainId = getDomainId(resource);
+        if (domainId == null || HANDLERS.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            HANDLERS.forEach(handler -> handler.onResourceDeleted(domainId));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                HANDLERS.forEach(handler -> handler.onResourceDeleted(domainId));
+            }
+        });
+    }
+
+    /**
+     * Register the handler of the resource changes.
+     *
+     * @param handler the resource change handler
+     */
+    public static void addHandler(ResourceChangeHandler handler) {
+        HANDLERS.add(handler);
+    }
+
+    /**
+     * Unregister the handler of the resource changes.
+     *
+     * @param handler the resource change handler
+     */
+    public static void removeHandler(ResourceChangeHandler handler) {
+        HANDLERS.remove(handler);
+    }
+
+    private static Long getDomainId(DBResource resource) {
+        if (resource.getDomainResourceDef() == null || resource.getDomainResourceDef().getDomain() == null) {
+            return null;
+        }
+        return resource.getDomainResourceDef().getDomain().getId();
+    }
+}
@@ -20,10 +20,13 @@ package eu.europa.ec.edelivery.smp.data.model.ext;
 
 import eu.europa.ec.edelivery.smp.data.dao.utils.ColumnDescription;
 import eu.europa.ec.edelivery.smp.data.model.BaseEntity;
+import eu.europa.ec.edelivery.smp.data.model.CacheRegions;
 import eu.europa.ec.edelivery.smp.data.model.CommonColumnsLengths;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.QueryHints;
 import org.hibernate.envers.Audited;
 
 import javax.persistence.*;
@@ -40,12 +43,14 @@ import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.QUERY_EXTENSION_BY_
  * @since 5.0
  */
 @Entity
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CONFIGURATION_ENTITIES)
 @Audited
 @Table(name = "SMP_EXTENSION",
         indexes = {@Index(name = "SMP_EXT_UNIQ_NAME_IDX", columnList = "IMPLEMENTATION_NAME", unique = true)
 })
-@NamedQuery(name = QUERY_EXTENSION_ALL, query = "SELECT d FROM DBExtension d")
-@NamedQuery(name = QUERY_EXTENSION_BY_IDENTIFIER, query = "SELECT d FROM DBExtension d WHERE d.identifier = :identifier")
+@NamedQuery(name = QUERY_EXTENSION_ALL, query = "SELECT d FROM DBExtension d", hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true"))
+@NamedQuery(name = QUERY_EXTENSION_BY_IDENTIFIER, query = "SELECT d FROM DBExtension d WHERE d.identifier = :identifier", hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true"))
 @org.hibernate.annotations.Table(appliesTo = "SMP_EXTENSION", comment = "SMP extension definitions")
 public class DBExtension extends BaseEntity {
 
@@ -75,6 +80,7 @@ public class DBExtension extends BaseEntity {
     @OneToMany(mappedBy = "extension", cascade = CascadeType.ALL,
             orphanRemoval = true,
             fetch = FetchType.LAZY)
+    @org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CONFIGURATION_ENTITIES)
     private List<DBResourceDef> resourceDefs = new ArrayList<>();
 
 
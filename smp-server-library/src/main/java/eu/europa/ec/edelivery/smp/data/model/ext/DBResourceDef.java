@@ -20,11 +20,15 @@ package eu.europa.ec.edelivery.smp.data.model.ext;
 
 import eu.europa.ec.edelivery.smp.data.dao.utils.ColumnDescription;
 import eu.europa.ec.edelivery.smp.data.model.BaseEntity;
+import eu.europa.ec.edelivery.smp.data.model.CacheRegions;
 import eu.europa.ec.edelivery.smp.data.model.CommonColumnsLengths;
 import eu.europa.ec.edelivery.smp.data.model.DBDomainResourceDef;
+import eu.europa.ec.edelivery.smp.data.model.MetadataChangeListener;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.QueryHints;
 import org.hibernate.envers.Audited;
 
 import javax.persistence.*;
@@ -40,17 +44,20 @@ import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.*;
  * @since 5.0
  */
 @Entity
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CONFIGURATION_ENTITIES)
 @Audited
+@EntityListeners(MetadataChangeListener.class)
 @Table(name = "SMP_RESOURCE_DEF",
         indexes = {@Index(name = "SMP_RESDEF_UNIQ_EXTID_CODE_IDX", columnList = "FK_EXTENSION_ID,IDENTIFIER", unique = true)
 })
 @org.hibernate.annotations.Table(appliesTo = "SMP_RESOURCE_DEF", comment = "SMP extension resource definitions")
 
-@NamedQuery(name = QUERY_RESOURCE_DEF_ALL, query = "SELECT d FROM DBResourceDef d order by d.id asc")
+@NamedQuery(name = QUERY_RESOURCE_DEF_ALL, query = "SELECT d FROM DBResourceDef d order by d.id asc", hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true"))
 @NamedQuery(name = QUERY_RESOURCE_DEF_BY_IDENTIFIER_EXTENSION, query = "SELECT d FROM DBResourceDef d WHERE d.extension.id = :extension_id AND d.identifier = :identifier")
 @NamedQuery(name = QUERY_RESOURCE_DEF_BY_DOMAIN, query = "SELECT d FROM DBResourceDef d JOIN d.domainResourceDefs dr where dr.domain.id = :domain_id order by d.id asc")
-@NamedQuery(name = QUERY_RESOURCE_DEF_URL_SEGMENT, query = "SELECT d FROM DBResourceDef d WHERE d.urlSegment = :url_segment")
-@NamedQuery(name = QUERY_RESOURCE_DEF_BY_IDENTIFIER, query = "SELECT d FROM DBResourceDef d WHERE d.identifier = :identifier")
+@NamedQuery(name = QUERY_RESOURCE_DEF_URL_SEGMENT, query = "SELECT d FROM DBResourceDef d WHERE d.urlSegment = :url_segment", hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true"))
+@NamedQuery(name = QUERY_RESOURCE_DEF_BY_IDENTIFIER, query = "SELECT d FROM DBResourceDef d WHERE d.identifier = :identifier", hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true"))
 @NamedQuery(name = QUERY_RESOURCE_DEF_FOR_USER, query = "SELECT distinct rd FROM DBResourceDef rd " +
         " JOIN DBDomainResourceDef drd ON drd.resourceDef.id = rd.id " +
         " JOIN DBDomain d ON d.id = drd.domain.id " +
@@ -113,6 +120,7 @@ public class DBResourceDef extends BaseEntity {
             cascade = CascadeType.ALL,
             orphanRemoval = true
     )
+    @org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CONFIGURATION_ENTITIES)
     private List<DBSubresourceDef> subresources = new ArrayList<>();
 
     @OneToMany(
@@ -120,6 +128,7 @@ public class DBResourceDef extends BaseEntity {
             cascade = CascadeType.ALL,
             orphanRemoval = true
     )
+    @org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CONFIGURATION_ENTITIES)
     private List<DBDomainResourceDef> domainResourceDefs = new ArrayList<>();
 
 
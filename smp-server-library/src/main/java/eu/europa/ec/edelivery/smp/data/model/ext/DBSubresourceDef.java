@@ -20,10 +20,14 @@ package eu.europa.ec.edelivery.smp.data.model.ext;
 
 import eu.europa.ec.edelivery.smp.data.dao.utils.ColumnDescription;
 import eu.europa.ec.edelivery.smp.data.model.BaseEntity;
+import eu.europa.ec.edelivery.smp.data.model.CacheRegions;
 import eu.europa.ec.edelivery.smp.data.model.CommonColumnsLengths;
+import eu.europa.ec.edelivery.smp.data.model.MetadataChangeListener;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.QueryHints;
 import org.hibernate.envers.Audited;
 
 import javax.persistence.*;
@@ -37,15 +41,18 @@ import static eu.europa.ec.edelivery.smp.data.dao.QueryNames.*;
  * @since 5.0
  */
 @Entity
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CONFIGURATION_ENTITIES)
 @Audited
+@EntityListeners(MetadataChangeListener.class)
 @Table(name = "SMP_SUBRESOURCE_DEF",
         indexes = {@Index(name = "SMP_RD_UNIQ_RDID_UCTX_IDX", columnList = "FK_RESOURCE_DEF_ID,URL_SEGMENT", unique = true),
                 @Index(name = "SMP_RESDEF_UNIQ_IDENTIFIER", columnList = "IDENTIFIER", unique = true)
 })
 @org.hibernate.annotations.Table(appliesTo = "SMP_SUBRESOURCE_DEF", comment = "SMP extension subresource definitions")
-@NamedQuery(name = QUERY_SUBRESOURCE_DEF_ALL, query = "SELECT d FROM DBSubresourceDef d order by d.id asc")
-@NamedQuery(name = QUERY_SUBRESOURCE_DEF_BY_IDENTIFIER, query = "SELECT d FROM DBSubresourceDef d WHERE d.identifier = :identifier")
-@NamedQuery(name = QUERY_SUBRESOURCE_DEF_URL_SEGMENT, query = "SELECT d FROM DBSubresourceDef d WHERE d.urlSegment = :url_segment")
+@NamedQuery(name = QUERY_SUBRESOURCE_DEF_ALL, query = "SELECT d FROM DBSubresourceDef d order by d.id asc", hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true"))
+@NamedQuery(name = QUERY_SUBRESOURCE_DEF_BY_IDENTIFIER, query = "SELECT d FROM DBSubresourceDef d WHERE d.identifier = :identifier", hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true"))
+@NamedQuery(name = QUERY_SUBRESOURCE_DEF_URL_SEGMENT, query = "SELECT d FROM DBSubresourceDef d WHERE d.urlSegment = :url_segment", hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true"))
 
 public class DBSubresourceDef extends BaseEntity {
     private static final long serialVersionUID = 1008583888835630002L;
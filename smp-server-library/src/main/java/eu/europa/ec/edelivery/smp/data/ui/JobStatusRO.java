@@ -0,0 +1,177 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.data.ui;
+
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+
+/**
+ * The scheduled job status and the run statistics on the SMP node.
+ *
+ * @since 5.2
+ */
+public class JobStatusRO implements Serializable {
+
+    private static final long serialVersionUID = 9008583888835630043L;
+
+    private String jobName;
+    private String pool;
+    private boolean clusterSingleton;
+    private boolean running;
+    private OffsetDateTime lastStartedOn;
+    private OffsetDateTime lastFinishedOn;
+    private long lastDurationMs;
+    private int lastProcessed;
+    private int lastFailed;
+    private String lastStatus;
+    private String lastError;
+    private long runCount;
+    private long failureCount;
+    private long skippedCount;
+    private long totalProcessed;
+    private long totalFailed;
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public String getPool() {
+        return pool;
+    }
+
+    public void setPool(String pool) {
+        this.pool = pool;
+    }
+
+    public boolean isClusterSingleton() {
+        return clusterSingleton;
+    }
+
+    public void setClusterSingleton(boolean clusterSingleton) {
+        this.clusterSingleton = clusterSingleton;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void setRunning(boolean running) {
+        this.running = running;
+    }
+
+    public OffsetDateTime getLastStartedOn() {
+        return lastStartedOn;
+    }
+
+    public void setLastStartedOn(OffsetDateTime lastStartedOn) {
+        this.lastStartedOn = lastStartedOn;
+    }
+
+    public OffsetDateTime getLastFinishedOn() {
+        return lastFinishedOn;
+    }
+
+    public void setLastFinishedOn(OffsetDateTime lastFinishedOn) {
+        this.lastFinishedOn = lastFinishedOn;
+    }
+
+    public long getLastDurationMs() {
+        return lastDurationMs;
+    }
+
+    public void setLastDurationMs(long lastDurationMs) {
+        this.lastDurationMs = lastDurationMs;
+    }
+
+    public int getLastProcessed() {
+        return lastProcessed;
+    }
+
+    public void setLastProcessed(int lastProcessed) {
+        this.lastProcessed = lastProcessed;
+    }
+
+    public int getLastFailed() {
+        return lastFailed;
+    }
+
+    public void setLastFailed(int lastFailed) {
+        this.lastFailed = lastFailed;
+    }
+
+    public String getLastStatus() {
+        return lastStatus;
+    }
+
+    public void setLastStatus(String lastStatus) {
+        this.lastStatus = lastStatus;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public long getRunCount() {
+        return runCount;
+    }
+
+    public void setRunCount(long runCount) {
+        this.runCount = runCount;
+    }
+
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    public void setFailureCount(long failureCount) {
+        this.failureCount = failureCount;
+    }
+
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    public void setSkippedCount(long skippedCount) {
+        this.skippedCount = skippedCount;
+    }
+
+    public long getTotalProcessed() {
+        return totalProcessed;
+    }
+
+    public void setTotalProcessed(long totalProcessed) {
+        this.totalProcessed = totalProcessed;
+    }
+
+    public long getTotalFailed() {
+        return totalFailed;
+    }
+
+    public void setTotalFailed(long totalFailed) {
+        this.totalFailed = totalFailed;
+    }
+}
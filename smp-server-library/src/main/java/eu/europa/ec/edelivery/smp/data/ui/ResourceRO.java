@@ -39,6 +39,8 @@ public class ResourceRO extends BaseRO {
     private String identifierValue;
     private String identifierScheme;
     private boolean smlRegistered = false;
+    private String smlOutboxAction;
+    private String smlOutboxStatus;
     private Boolean reviewEnabled;
     private Boolean hasCurrentUserReviewPermission;
     private VisibilityType visibility = VisibilityType.PUBLIC;
@@ -83,6 +85,26 @@ public class ResourceRO extends BaseRO {
         this.smlRegistered = smlRegistered;
     }
 
+    /**
+     * Returns the action of the not yet sent SML outbox entry (REGISTER, UNREGISTER) or null if there is no
+     * pending SML change for the resource.
+     */
+    public String getSmlOutboxAction() {
+        return smlOutboxAction;
+    }
+
+    public void setSmlOutboxAction(String smlOutboxAction) {
+        this.smlOutboxAction = smlOutboxAction;
+    }
+
+    public String getSmlOutboxStatus() {
+        return smlOutboxStatus;
+    }
+
+    public void setSmlOutboxStatus(String smlOutboxStatus) {
+        this.smlOutboxStatus = smlOutboxStatus;
+    }
+
     public Boolean isReviewEnabled() {
         return reviewEnabled;
     }
@@ -0,0 +1,51 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * 
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.data.ui;
+
+/**
+ * The result page of the public resource search with the keyset (cursor) pagination. The nextCursor is the opaque
+ * value which must be submitted to get the next page. If the value is null, there are no more resources. When the
+ * countLimited is true, the count value is the search count limit and the real number of the resources is greater.
+ * The count is returned only with the first page; the following pages have no count.
+ *
+ * @since 5.2
+ */
+public class ResourceSearchResult extends ServiceResult<ResourceSearchRO> {
+
+    private static final long serialVersionUID = 5220415066297406313L;
+
+    private String nextCursor;
+    private boolean countLimited;
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isCountLimited() {
+        return countLimited;
+    }
+
+    public void setCountLimited(boolean countLimited) {
+        this.countLimited = countLimited;
+    }
+}
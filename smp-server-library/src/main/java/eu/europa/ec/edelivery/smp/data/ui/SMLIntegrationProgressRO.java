@@ -0,0 +1,125 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * 
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.data.ui;
+
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+
+/**
+ * The progress of the domain participants registration/un-registration to/from the SML. The running counts are
+ * for the last (or current) register/unregister operation, while the registered count is the persisted status of
+ * the domain resources.
+ *
+ * @since 5.2
+ */
+public class SMLIntegrationProgressRO implements Serializable {
+
+    private static final long serialVersionUID = 9008583888835630033L;
+
+    private String operation;
+    private boolean running;
+    private int totalCount;
+    private int processedCount;
+    private int failedCount;
+    private long resourceCount;
+    private long smlRegisteredCount;
+    private OffsetDateTime startedOn;
+    private OffsetDateTime finishedOn;
+    private String errorMessage;
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void setRunning(boolean running) {
+        this.running = running;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(int totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public int getProcessedCount() {
+        return processedCount;
+    }
+
+    public void setProcessedCount(int processedCount) {
+        this.processedCount = processedCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(int failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public long getResourceCount() {
+        return resourceCount;
+    }
+
+    public void setResourceCount(long resourceCount) {
+        this.resourceCount = resourceCount;
+    }
+
+    public long getSmlRegisteredCount() {
+        return smlRegisteredCount;
+    }
+
+    public void setSmlRegisteredCount(long smlRegisteredCount) {
+        this.smlRegisteredCount = smlRegisteredCount;
+    }
+
+    public OffsetDateTime getStartedOn() {
+        return startedOn;
+    }
+
+    public void setStartedOn(OffsetDateTime startedOn) {
+        this.startedOn = startedOn;
+    }
+
+    public OffsetDateTime getFinishedOn() {
+        return finishedOn;
+    }
+
+    public void setFinishedOn(OffsetDateTime finishedOn) {
+        this.finishedOn = finishedOn;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
@@ -0,0 +1,67 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.monitor;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.ClassUtils;
+
+/**
+ * The bean post processor adds the method interceptor to all {@link Repository} beans. The interceptor records the
+ * duration and the outcome of each DAO method call to the {@link SMPMetrics#METRIC_DAO_QUERY} timer tagged with the
+ * DAO class and method name.
+ *
+ * @since 5.2
+ */
+public class RepositoryMetricsPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    public RepositoryMetricsPostProcessor() {
+        setProxyTargetClass(true);
+        // measure the DAO method together with the transaction handling
+        setBeforeExistingAdvisors(true);
+        this.advisor = new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(Repository.class, true),
+                new RepositoryMetricsInterceptor());
+    }
+
+    static class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            long start = System.nanoTime();
+            Throwable failure = null;
+            try {
+                return invocation.proceed();
+            } catch (Throwable ex) {
+                failure = ex;
+                throw ex;
+            } finally {
+                Object target = invocation.getThis();
+                Class<?> daoClass = target != null ? ClassUtils.getUserClass(target) : invocation.getMethod().getDeclaringClass();
+                SMPMetrics.recordTime(SMPMetrics.METRIC_DAO_QUERY, start,
+                        SMPMetrics.TAG_CLASS, daoClass.getSimpleName(),
+                        SMPMetrics.TAG_METHOD, invocation.getMethod().getName(),
+                        SMPMetrics.TAG_OUTCOME, SMPMetrics.outcome(failure));
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.monitor;
+
+import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The SMP application metrics. The meters are registered to the Micrometer global registry, so the services can record
+ * the metrics without depending on the registry implementation. The webapp adds the Prometheus registry to the global
+ * registry and exposes the metrics on the monitor endpoint.
+ *
+ * @since 5.2
+ */
+public final class SMPMetrics {
+
+    public static final String METRIC_RESOURCE_REQUEST = "smp.resource.request";
+    public static final String METRIC_RESOURCE_REQUEST_STAGE = "smp.resource.request.stage";
+    public static final String METRIC_DAO_QUERY = "smp.dao.query";
+    public static final String METRIC_SML_CALL = "smp.sml.call";
+    public static final String METRIC_SML_OUTBOX = "smp.sml.outbox";
+    public static final String METRIC_CRL_DOWNLOAD = "smp.crl.download";
+    public static final String METRIC_CRL_CACHE = "smp.crl.cache";
+    public static final String METRIC_CREDENTIAL_VERIFICATION = "smp.credential.verification";
+    public static final String METRIC_ALERT_MAIL = "smp.alert.mail";
+    public static final String METRIC_ALERT_MAIL_QUEUE = "smp.alert.mail.queue";
+    public static final String METRIC_JOB = "smp.job";
+    public static final String METRIC_JOB_ITEMS = "smp.job.items";
+    public static final String METRIC_JOB_SKIPPED = "smp.job.skipped";
+    public static final String METRIC_RESOURCE_IDENTIFIER_FILTER = "smp.resource.identifier.filter";
+    public static final String METRIC_RESOURCE_SNAPSHOT = "smp.resource.snapshot";
+    public static final String METRIC_RESOURCE_RESPONSE_BYTES = "smp.resource.response.bytes";
+
+    public static final String TAG_DOMAIN = "domain";
+    public static final String TAG_RESOURCE_TYPE = "resource_type";
+    public static final String TAG_ACTION = "action";
+    public static final String TAG_STAGE = "stage";
+    public static final String TAG_OUTCOME = "outcome";
+    public static final String TAG_CLASS = "class";
+    public static final String TAG_METHOD = "method";
+    public static final String TAG_RESULT = "result";
+    public static final String TAG_TYPE = "type";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_FAILURE = "failure";
+    public static final String TAG_VALUE_NONE = "none";
+
+    /**
+     * The stages of the resource request. Each stage is recorded as the {@link #METRIC_RESOURCE_REQUEST_STAGE} timer
+     * with the stage tag. The signing is done by the resource handler, so the SIGN stage time is included in the
+     * RENDER stage time.
+     */
+    public enum RequestStage {
+        RESOLVE,
+        AUTHORIZE,
+        LOAD,
+        SUBSTITUTE,
+        RENDER,
+        SIGN,
+        WRITE;
+
+        public String getTagValue() {
+            return name().toLowerCase();
+        }
+    }
+
+    private static final AtomicInteger ALERT_MAIL_QUEUE_DEPTH = Metrics.gauge(METRIC_ALERT_MAIL_QUEUE, new AtomicInteger());
+
+    private SMPMetrics() {
+    }
+
+    /**
+     * Records the time elapsed from the startNanos to the timer with the given name and tags.
+     *
+     * @param name       the timer name
+     * @param startNanos the start time as returned by {@link System#nanoTime()}
+     * @param tags       the tag key and value pairs. The null or empty values are replaced with "none".
+     */
+    public static void recordTime(String name, long startNanos, String... tags) {
+        Timer.builder(name)
+                .tags(toTags(tags))
+                .register(Metrics.globalRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the resource request processing time. The request timer publishes the percentile histogram, so the
+     * latency percentiles can be aggregated over the cluster nodes.
+     */
+    public static void recordRequest(String domain, String resourceType, String action, String outcome, long startNanos) {
+        Timer.builder(METRIC_RESOURCE_REQUEST)
+                .tags(toTags(TAG_DOMAIN, domain, TAG_RESOURCE_TYPE, resourceType, TAG_ACTION, action, TAG_OUTCOME, outcome))
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static void recordStage(RequestStage stage, String domain, long startNanos) {
+        recordTime(METRIC_RESOURCE_REQUEST_STAGE, startNanos, TAG_STAGE, stage.getTagValue(), TAG_DOMAIN, domain);
+    }
+
+    public static void increment(String name, String... tags) {
+        Metrics.globalRegistry.counter(name, toTags(tags)).increment();
+    }
+
+    public static void increment(String name, double amount, String... tags) {
+        Metrics.globalRegistry.counter(name, toTags(tags)).increment(amount);
+    }
+
+    /**
+     * Returns the outcome tag value for the given exception: "success" if exception is null, lower case error code for
+     * the {@link SMPRuntimeException} and the exception simple class name for all other exceptions.
+     */
+    public static String outcome(Throwable exception) {
+        if (exception == null) {
+            return OUTCOME_SUCCESS;
+        }
+        if (exception instanceof SMPRuntimeException && ((SMPRuntimeException) exception).getErrorCode() != null) {
+            return ((SMPRuntimeException) exception).getErrorCode().name().toLowerCase();
+        }
+        return exception.getClass().getSimpleName();
+    }
+
+    /**
+     * Wraps the target with the proxy which records the duration and the outcome of each interface method call to the
+     * timer with the given name. The method name is added as the "method" tag.
+     *
+     * @param type   the proxied interface
+     * @param target the target object
+     * @param name   the timer name
+     * @param tags   the additional tag key and value pairs
+     * @return the timed proxy implementing the given interface
+     */
+    public static <T> T timedProxy(Class<T> type, T target, String name, String... tags) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(target, args);
+            }
+            long start = System.nanoTime();
+            Throwable failure = null;
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                failure = ex.getTargetException();
+                throw failure;
+            } finally {
+                recordTime(name, start, Tags.of(toTags(tags))
+                        .and(TAG_METHOD, method.getName())
+                        .and(TAG_OUTCOME, outcome(failure)));
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    /**
+     * Returns the number of alert mails waiting to be sent. The value is exposed as the
+     * {@link #METRIC_ALERT_MAIL_QUEUE} gauge.
+     */
+    public static AtomicInteger getAlertMailQueueDepth() {
+        return ALERT_MAIL_QUEUE_DEPTH;
+    }
+
+    private static void recordTime(String name, long startNanos, Tags tags) {
+        Timer.builder(name)
+                .tags(tags)
+                .register(Metrics.globalRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Tags toTags(String... keyValues) {
+        Tags tags = Tags.empty();
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            tags = tags.and(keyValues[i], StringUtils.defaultIfBlank(keyValues[i + 1], TAG_VALUE_NONE));
+        }
+        return tags;
+    }
+}
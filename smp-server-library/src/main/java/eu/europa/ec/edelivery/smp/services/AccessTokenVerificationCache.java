@@ -0,0 +1,165 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services;
+
+import eu.europa.ec.edelivery.smp.data.model.user.DBCredential;
+import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
+import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+/**
+ * The short-lived cache of the successfully verified access tokens. The cache allows skipping the expensive BCrypt
+ * verification for the clients which invoke many REST calls with the same access token. The cache does not store the
+ * access token value, but the SHA-256 fingerprint of the token value and the stored token hash. Therefore, the cached
+ * verification is not valid anymore when the token value is changed. The credential validity (active, expiration,
+ * suspension) is still validated by the caller for each request.
+ *
+ * @since 5.2
+ */
+@Component
+public class AccessTokenVerificationCache {
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(AccessTokenVerificationCache.class);
+
+    private final ConfigurationService configurationService;
+    private final LinkedHashMap<String, VerifiedAccessToken> cache = new LinkedHashMap<>(64, 0.75f, true);
+
+    public AccessTokenVerificationCache(ConfigurationService configurationService) {
+        this.configurationService = configurationService;
+    }
+
+    public boolean isEnabled() {
+        return configurationService.getAccessTokenVerificationCacheTTLInSeconds() > 0
+                && configurationService.getAccessTokenVerificationCacheMaxEntries() > 0;
+    }
+
+    /**
+     * Method returns true if the access token value was already successfully verified for the credential and the
+     * verification is not expired.
+     *
+     * @param credential the access token credential
+     * @param tokenValue the access token value
+     * @return true if the token is verified
+     */
+    public boolean isVerified(DBCredential credential, String tokenValue) {
+        if (credential == null || credential.getName() == null || tokenValue == null || !isEnabled()) {
+            return false;
+        }
+        long ttlInMillis = configurationService.getAccessTokenVerificationCacheTTLInSeconds() * 1000L;
+        synchronized (cache) {
+            VerifiedAccessToken verifiedToken = cache.get(credential.getName());
+            if (verifiedToken == null) {
+                return false;
+            }
+            if (System.currentTimeMillis() - verifiedToken.verifiedOn > ttlInMillis
+                    || !Objects.equals(verifiedToken.credentialId, credential.getId())
+                    || !MessageDigest.isEqual(verifiedToken.fingerprint, fingerprint(credential, tokenValue))) {
+                LOG.debug("Cached verification for access token [{}] is not valid anymore!", credential.getName());
+                cache.remove(credential.getName());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void put(DBCredential credential, String tokenValue) {
+        if (credential == null || credential.getName() == null || tokenValue == null || !isEnabled()) {
+            return;
+        }
+        int maxEntries = configurationService.getAccessTokenVerificationCacheMaxEntries();
+        VerifiedAccessToken verifiedToken = new VerifiedAccessToken(credential.getId(),
+                credential.getUser() == null ? null : credential.getUser().getId(),
+                fingerprint(credential, tokenValue));
+        synchronized (cache) {
+            cache.put(credential.getName(), verifiedToken);
+            while (cache.size() > maxEntries) {
+                // remove the least recently accessed entry
+                cache.remove(cache.keySet().iterator().next());
+            }
+        }
+    }
+
+    public void evict(String tokenId) {
+        if (tokenId == null) {
+            return;
+        }
+        synchronized (cache) {
+            if (cache.remove(tokenId) != null) {
+                LOG.debug("Evicted cached verification for access token [{}]", tokenId);
+            }
+        }
+    }
+
+    public void evictForUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        synchronized (cache) {
+            cache.values().removeIf(verifiedToken -> Objects.equals(verifiedToken.userId, userId));
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    protected byte[] fingerprint(DBCredential credential, String tokenValue) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(tokenValue.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            // stored hash is part of the fingerprint so that the token change invalidates the cached verification
+            if (credential.getValue() != null) {
+                digest.update(credential.getValue().getBytes(StandardCharsets.UTF_8));
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new SMPRuntimeException(ErrorCode.INTERNAL_ERROR, e, "SHA-256 algorithm is not supported", e.getMessage());
+        }
+    }
+
+    private static class VerifiedAccessToken {
+        private final Long credentialId;
+        private final Long userId;
+        private final byte[] fingerprint;
+        private final long verifiedOn;
+
+        VerifiedAccessToken(Long credentialId, Long userId, byte[] fingerprint) {
+            this.credentialId = credentialId;
+            this.userId = userId;
+            this.fingerprint = fingerprint;
+            this.verifiedOn = System.currentTimeMillis();
+        }
+    }
+}
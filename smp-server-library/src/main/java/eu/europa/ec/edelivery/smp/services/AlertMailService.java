@@ -0,0 +1,318 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services;
+
+import eu.europa.ec.edelivery.smp.data.dao.AlertDao;
+import eu.europa.ec.edelivery.smp.data.dao.UserDao;
+import eu.europa.ec.edelivery.smp.data.model.DBAlert;
+import eu.europa.ec.edelivery.smp.data.model.user.DBUser;
+import eu.europa.ec.edelivery.smp.data.ui.enums.AlertStatusEnum;
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.monitor.SMPMetrics;
+import eu.europa.ec.edelivery.smp.services.mail.MailDataModel;
+import eu.europa.ec.edelivery.smp.services.mail.MailMessage;
+import eu.europa.ec.edelivery.smp.services.mail.MailService;
+import eu.europa.ec.edelivery.smp.utils.SMPThreadFactory;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
+
+import static eu.europa.ec.edelivery.smp.data.model.CommonColumnsLengths.MAX_MEDIUM_TEXT_LENGTH;
+import static eu.europa.ec.edelivery.smp.utils.DateTimeUtils.formatOffsetDateTimeWithLocal;
+
+/**
+ * The alert mail service sends the alert mails asynchronously, so that the slow or unavailable mail server does not
+ * block the user login or the credential validation task. The alerts in the PROCESS status are the persistent
+ * mail queue: the new alert id is submitted to the bounded in-memory queue after the alert transaction is
+ * committed, and the queue is drained by the configured number of the mail workers (see smp.alert.mail.workers).
+ * <p>
+ * Each worker takes the batch of the alerts, claims them, and sends the alert mails over one SMTP connection. The
+ * alert mails with the identical subject and content are merged to one mail with all recipients in BCC. The failed
+ * mails are retried with the exponential backoff until the max attempts is reached. The alerts which did not fit
+ * into the queue, the alerts of the failed attempts and the alerts of the crashed SMP node are re-submitted by the
+ * alert mail cron task (see smp.alert.mail.cronJobExpression).
+ *
+ * @since 5.2
+ */
+@Service
+public class AlertMailService {
+
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(AlertMailService.class);
+
+    private final AlertDao alertDao;
+    private final UserDao userDao;
+    private final MailService mailService;
+    private final ConfigurationService configurationService;
+    private BlockingQueue<Long> alertQueue;
+    private ExecutorService mailWorkers;
+
+    public AlertMailService(AlertDao alertDao,
+                            UserDao userDao,
+                            MailService mailService,
+                            ConfigurationService configurationService) {
+        this.alertDao = alertDao;
+        this.userDao = userDao;
+        this.mailService = mailService;
+        this.configurationService = configurationService;
+    }
+
+    /**
+     * Method submits the persisted alert to the mail queue. If the method is called in the transaction, the alert
+     * is submitted after the transaction is committed.
+     *
+     * @param alert the persisted alert
+     */
+    public void submit(DBAlert alert) {
+        Long alertId = alert.getId();
+        if (alertId == null) {
+            LOG.warn("Alert [{}] is not persisted and can not be submitted to the mail queue!", alert);
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(alertId);
+                }
+            });
+        } else {
+            enqueue(alertId);
+        }
+    }
+
+    /**
+     * Method submits the alerts which mails are due to be sent, and are not in the mail queue yet. The method is
+     * called by the alert mail cron task.
+     *
+     * @return the number of the submitted alerts
+     */
+    public int submitDueAlerts() {
+        BlockingQueue<Long> queue = getAlertQueue();
+        int freeCapacity = queue.remainingCapacity();
+        if (freeCapacity < 1) {
+            LOG.debug("Alert mail queue is full, skip submitting the due alerts!");
+            return 0;
+        }
+        Set<Long> queuedAlertIds = new HashSet<>(queue);
+        List<Long> alertIds = alertDao.getDueMailAlertIds(OffsetDateTime.now(), freeCapacity + queuedAlertIds.size());
+        int count = 0;
+        for (Long alertId : alertIds) {
+            if (queuedAlertIds.contains(alertId)) {
+                continue;
+            }
+            if (!enqueue(alertId)) {
+                break;
+            }
+            count++;
+        }
+        LOG.debug("Submitted [{}] due alerts to the mail queue", count);
+        return count;
+    }
+
+    protected boolean enqueue(Long alertId) {
+        BlockingQueue<Long> queue = getAlertQueue();
+        boolean added = queue.offer(alertId);
+        if (!added) {
+            LOG.warn("Alert mail queue is full! The mail of the alert [{}] will be sent by the alert mail cron task.", alertId);
+        }
+        SMPMetrics.getAlertMailQueueDepth().set(queue.size());
+        return added;
+    }
+
+    /**
+     * Returns the alert mail queue. The queue and the mail workers are created with the first submitted alert,
+     * because the configuration is not available yet when the service is created.
+     *
+     * @return the alert mail queue
+     */
+    protected synchronized BlockingQueue<Long> getAlertQueue() {
+        if (alertQueue == null) {
+            alertQueue = new LinkedBlockingQueue<>(configurationService.getAlertMailQueueCapacity());
+            int workerCount = configurationService.getAlertMailWorkers();
+            mailWorkers = Executors.newFixedThreadPool(workerCount, new SMPThreadFactory("alert-mail-"));
+            BlockingQueue<Long> queue = alertQueue;
+            for (int i = 0; i < workerCount; i++) {
+                mailWorkers.execute(() -> processQueue(queue));
+            }
+            LOG.info("Started [{}] alert mail workers", workerCount);
+        }
+        return alertQueue;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (mailWorkers != null) {
+            mailWorkers.shutdownNow();
+        }
+    }
+
+    protected void processQueue(BlockingQueue<Long> queue) {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<Long> alertIds = new ArrayList<>();
+                alertIds.add(queue.take());
+                queue.drainTo(alertIds, configurationService.getAlertMailBatchSize() - 1);
+                SMPMetrics.getAlertMailQueueDepth().set(queue.size());
+                sendAlertMails(alertIds);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                LOG.error("Error occurred while sending the alert mails!", e);
+            }
+        }
+    }
+
+    /**
+     * Method claims the alerts and sends the alert mails over one SMTP connection. The alerts are updated with the
+     * result of the mail submission.
+     *
+     * @param alertIds the alert ids
+     */
+    protected void sendAlertMails(List<Long> alertIds) {
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime processingUntil = now.plusSeconds(configurationService.getAlertMailProcessingTimeoutInSeconds());
+        List<Long> claimedAlertIds = alertIds.stream()
+                .distinct()
+                .filter(alertId -> alertDao.claimMail(alertId, now, processingUntil))
+                .collect(Collectors.toList());
+        if (claimedAlertIds.isEmpty()) {
+            LOG.debug("Alerts [{}] are already claimed or processed!", alertIds);
+            return;
+        }
+
+        // merge the alert mails with the same subject and content
+        Map<String, MailMessage> mailMessages = new LinkedHashMap<>();
+        Map<MailMessage, List<DBAlert>> mailAlerts = new LinkedHashMap<>();
+        for (DBAlert alert : alertDao.getAlertsWithProperties(claimedAlertIds)) {
+            if (StringUtils.isBlank(alert.getMailTo())) {
+                LOG.warn("Can not send mail (empty mail) for alert [{}]!", alert);
+                updateAlertStatus(alert, AlertStatusEnum.SUCCESS, "Alert created but mail not send (empty mail) for alert!");
+                continue;
+            }
+            try {
+                MailMessage alertMail = mailService.composeMail(createMailDataModel(alert), alert.getMailTo());
+                MailMessage mailMessage = mailMessages.computeIfAbsent(alertMail.getSubject() + '\n' + alertMail.getHtmlContent(),
+                        key -> new MailMessage(alertMail.getSubject(), alertMail.getHtmlContent()));
+                mailMessage.addRecipients(alertMail.getRecipients().toArray(new String[0]));
+                mailAlerts.computeIfAbsent(mailMessage, key -> new ArrayList<>()).add(alert);
+            } catch (RuntimeException exc) {
+                updateFailedAttempt(alert, exc, now);
+            }
+        }
+        if (mailAlerts.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Map<MailMessage, Exception> failedMails;
+        try {
+            failedMails = mailService.sendMails(new ArrayList<>(mailAlerts.keySet()), configurationService.getAlertEmailFrom());
+        } catch (RuntimeException exc) {
+            failedMails = mailAlerts.keySet().stream().collect(Collectors.toMap(mailMessage -> mailMessage, mailMessage -> exc));
+        }
+        for (Map.Entry<MailMessage, List<DBAlert>> entry : mailAlerts.entrySet()) {
+            Exception exc = failedMails.get(entry.getKey());
+            for (DBAlert alert : entry.getValue()) {
+                String alertType = alert.getAlertType() == null ? null : alert.getAlertType().name();
+                SMPMetrics.recordTime(SMPMetrics.METRIC_ALERT_MAIL, start, SMPMetrics.TAG_TYPE, alertType,
+                        SMPMetrics.TAG_OUTCOME, exc == null ? SMPMetrics.OUTCOME_SUCCESS : SMPMetrics.outcome(exc));
+                if (exc == null) {
+                    // update alert subject
+                    alert.setMailSubject(StringUtils.left(entry.getKey().getSubject(), 1023));
+                    updateAlertStatus(alert, AlertStatusEnum.SUCCESS, null);
+                } else {
+                    updateFailedAttempt(alert, exc, now);
+                }
+            }
+        }
+    }
+
+    protected MailDataModel createMailDataModel(DBAlert alert) {
+        String locale = StringUtils.isBlank(alert.getUsername()) ? null : userDao.findUserByUsername(alert.getUsername())
+                .map(DBUser::getSmpLocale)
+                .orElse(null);
+        MailDataModel mailDataModel = new MailDataModel(locale, alert);
+        // add additional common properties to the model
+        mailDataModel.getModel().put(MailDataModel.CommonProperties.SMP_INSTANCE_NAME.name(),
+                configurationService.getSMPInstanceName());
+        mailDataModel.getModel().put(MailDataModel.CommonProperties.CURRENT_DATETIME.name(),
+                formatOffsetDateTimeWithLocal(OffsetDateTime.now(), locale));
+        return mailDataModel;
+    }
+
+    /**
+     * Method updates the alert after the failed mail submission. The next attempt is scheduled with the exponential
+     * backoff, or the alert is marked as FAILED when the max attempts is reached.
+     *
+     * @param alert the alert
+     * @param exc   the mail submission error
+     * @param now   the time of the attempt
+     */
+    protected void updateFailedAttempt(DBAlert alert, Throwable exc, OffsetDateTime now) {
+        int attemptCount = alert.getAttemptCount() + 1;
+        int maxAttempts = configurationService.getAlertMailMaxAttempts();
+        String error = StringUtils.left(ExceptionUtils.getRootCauseMessage(exc), MAX_MEDIUM_TEXT_LENGTH);
+        LOG.error("Can not send mail [" + alert.getMailTo() + "] for alert [" + alert + "], attempt ["
+                + attemptCount + "/" + maxAttempts + "]!", exc);
+        alert.setAttemptCount(attemptCount);
+        if (attemptCount >= maxAttempts) {
+            updateAlertStatus(alert, AlertStatusEnum.FAILED, error);
+        } else {
+            alert.setNextAttemptOn(now.plusSeconds(getRetryDelayInSeconds(attemptCount)));
+            updateAlertStatus(alert, AlertStatusEnum.PROCESS, error);
+        }
+    }
+
+    public void updateAlertStatus(DBAlert alert, AlertStatusEnum status, String statusDesc) {
+        alert.setAlertStatus(status);
+        alert.setAlertStatusDesc(statusDesc);
+        if (status == AlertStatusEnum.SUCCESS
+                || status == AlertStatusEnum.FAILED) {
+            alert.setProcessedTime(OffsetDateTime.now());
+            alert.setNextAttemptOn(null);
+        }
+        alertDao.update(alert);
+    }
+
+    /**
+     * Returns the delay before the next attempt: the initial delay is doubled after each failed attempt and
+     * limited by the max delay.
+     *
+     * @param attemptCount the number of the failed attempts
+     * @return the delay in seconds
+     */
+    protected long getRetryDelayInSeconds(int attemptCount) {
+        long initialDelay = configurationService.getAlertMailRetryDelayInSeconds();
+        long maxDelay = configurationService.getAlertMailRetryMaxDelayInSeconds();
+        int shift = Math.min(Math.max(attemptCount - 1, 0), 30);
+        return Math.min(initialDelay << shift, maxDelay);
+    }
+}
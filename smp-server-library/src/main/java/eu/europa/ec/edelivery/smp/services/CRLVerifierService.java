@@ -24,7 +24,9 @@ import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
 import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.monitor.SMPMetrics;
 import eu.europa.ec.edelivery.smp.utils.HttpUtils;
+import eu.europa.ec.edelivery.smp.utils.SMPThreadFactory;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.cxf.helpers.IOUtils;
@@ -40,15 +42,29 @@ import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
 import javax.security.auth.x500.X500Principal;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.security.cert.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 
+/**
+ * The service validates the certificates against the certificate revocation lists (CRL). The downloaded CRLs are
+ * cached by the distribution point URL until the CRL next update time. The CRL is refreshed in the background
+ * shortly before the next update time, and the cached (stale) CRL is used within the configured grace period while
+ * the new CRL is downloaded. Concurrent requests for the same CRL URL share a single download. If the cache folder
+ * is configured, the downloaded CRLs are stored to the disk, so they are not downloaded again after the restart.
+ */
 @Service
 public class CRLVerifierService implements ICRLVerifierService {
 
@@ -56,14 +72,17 @@ public class CRLVerifierService implements ICRLVerifierService {
 
     public static final int DEF_PROXY_PORT = 80;
 
-    Map<String, X509CRL> crlCacheMap = new HashMap<>();
-    Map<String, Long> crlCacheNextRefreshMap = new HashMap<>();
     public static final long REFRESH_CRL_INTERVAL = 1000L * 60 * 60;
     public static final Long NULL_LONG = Long.valueOf(-1);
+    private static final String CRL_FILE_EXTENSION = ".crl";
 
     private static final X500Principal NULL_ISSUER = new X500Principal("");
     private static final CRLReason NULL_CRL_REASON = CRLReason.UNSPECIFIED;
 
+    final Map<String, CachedCRL> crlCache = new ConcurrentHashMap<>();
+    final Map<String, CompletableFuture<CachedCRL>> crlDownloads = new ConcurrentHashMap<>();
+    final Set<String> crlBackgroundRefreshes = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refreshExecutor = Executors.newFixedThreadPool(2, new SMPThreadFactory("smp-crl-refresh-"));
 
     protected final ConfigurationService configurationService;
 
@@ -71,6 +90,11 @@ public class CRLVerifierService implements ICRLVerifierService {
         this.configurationService = configurationService;
     }
 
+    @PreDestroy
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
     @Override
     public void verifyCertificateCRLs(X509Certificate cert) throws CertificateRevokedException, CertificateParsingException {
 
@@ -95,60 +119,202 @@ public class CRLVerifierService implements ICRLVerifierService {
 
     @Override
     public void verifyCertificateCRLs(BigInteger serial, String crlDistributionPointURL) throws CertificateRevokedException {
-        LOG.info("Download CRL {}.", crlDistributionPointURL);
+        LOG.debug("Verify serial [{}] with CRL [{}].", serial, crlDistributionPointURL);
         X509CRL crl = getCRLByURL(crlDistributionPointURL);
-        if (crl != null && crl.getRevokedCertificates() != null) {
-            validateCertificateCRL(crl, serial);
+        if (crl != null) {
+            validateCertificateCRL(getRevokedCertificates(crlDistributionPointURL, crl), serial);
         }
     }
 
+    /**
+     * Returns the CRL for the URL. The cached CRL is returned if it is not expired or if it is expired but still in the
+     * grace period. In the later case and when the CRL next update time is near, the CRL is refreshed in the background.
+     * Otherwise, the CRL is downloaded.
+     *
+     * @param crlURL the CRL distribution point URL
+     * @return the CRL or null if CRL can not be retrieved and CRL validation is not mandatory
+     */
     public X509CRL getCRLByURL(String crlURL) {
-        X509CRL x509CRL = null;
         if (StringUtils.isBlank(crlURL)) {
-            return x509CRL;
+            return null;
         }
-        Date currentDate = Calendar.getInstance().getTime();
         String url = crlURL.trim();
-        x509CRL = getCachedCRLByURL(url, currentDate);
-
-        if (x509CRL == null) {
-            // if CRL is null try to get one
-            boolean mandatoryCrlValidation = configurationService.forceCRLValidation();
-            x509CRL = downloadCRL(crlURL, mandatoryCrlValidation);
-            // calculate next update in milliseconds...
-            Long nextRefresh = x509CRL != null && x509CRL.getNextUpdate() != null ? x509CRL.getNextUpdate().getTime()
-                    : currentDate.getTime() + REFRESH_CRL_INTERVAL;
-
-            // set /replace data
-            crlCacheMap.put(crlURL, x509CRL);
-            crlCacheNextRefreshMap.put(crlURL, nextRefresh);
+        long now = System.currentTimeMillis();
+        CachedCRL cachedCRL = crlCache.get(url);
+        if (cachedCRL != null) {
+            if (now < cachedCRL.getNextRefresh()) {
+                if (now >= cachedCRL.getNextRefresh() - getRefreshAheadInMillis()) {
+                    refreshCRLInBackground(url);
+                }
+                SMPMetrics.increment(SMPMetrics.METRIC_CRL_CACHE, SMPMetrics.TAG_RESULT, "hit");
+                return cachedCRL.getCrl();
+            }
+            if (cachedCRL.isUsable(now, getGracePeriodInMillis())) {
+                LOG.debug("Use expired CRL [{}] in the grace period while the CRL is refreshed.", url);
+                refreshCRLInBackground(url);
+                SMPMetrics.increment(SMPMetrics.METRIC_CRL_CACHE, SMPMetrics.TAG_RESULT, "stale");
+                return cachedCRL.getCrl();
+            }
         }
-        return x509CRL;
+        SMPMetrics.increment(SMPMetrics.METRIC_CRL_CACHE, SMPMetrics.TAG_RESULT, "miss");
+        return loadCRL(url, configurationService.forceCRLValidation()).getCrl();
     }
 
     protected X509CRL getCachedCRLByURL(String crlURL, Date currentDate) {
-        X509CRL x509CRL = null;
         if (StringUtils.isBlank(crlURL)) {
-            return x509CRL;
+            return null;
         }
-        String url = crlURL.trim();
-        if (crlCacheMap.containsKey(url)) {
-            X509CRL crlTmp = crlCacheMap.get(url);
-            Long nextRefresh = crlCacheNextRefreshMap.getOrDefault(url, NULL_LONG);
-            if (nextRefresh > currentDate.getTime()) {
-                x509CRL = crlTmp;
+        CachedCRL cachedCRL = crlCache.get(crlURL.trim());
+        return cachedCRL != null && cachedCRL.getNextRefresh() > currentDate.getTime() ? cachedCRL.getCrl() : null;
+    }
+
+    /**
+     * Loads the CRL and stores it to the cache. If the CRL for the same URL is already being downloaded by another
+     * thread, the method waits for the download and returns its result.
+     *
+     * @param url                    the CRL URL
+     * @param mandatoryCRLValidation if true, the exception is thrown if CRL can not be downloaded
+     * @return the cached CRL
+     */
+    protected CachedCRL loadCRL(String url, boolean mandatoryCRLValidation) {
+        CompletableFuture<CachedCRL> newDownload = new CompletableFuture<>();
+        CompletableFuture<CachedCRL> download = crlDownloads.putIfAbsent(url, newDownload);
+        if (download == null) {
+            download = newDownload;
+            try {
+                newDownload.complete(downloadAndCacheCRL(url, mandatoryCRLValidation));
+            } catch (RuntimeException exc) {
+                newDownload.completeExceptionally(exc);
+            } finally {
+                crlDownloads.remove(url, newDownload);
+            }
+        } else {
+            LOG.debug("Wait for the CRL [{}] download in progress.", url);
+        }
+
+        try {
+            return download.join();
+        } catch (CompletionException exc) {
+            if (exc.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exc.getCause();
+            }
+            throw exc;
+        }
+    }
+
+    protected CachedCRL downloadAndCacheCRL(String url, boolean mandatoryCRLValidation) {
+        long now = System.currentTimeMillis();
+        CachedCRL currentCRL = crlCache.get(url);
+        if (currentCRL == null) {
+            // at startup try to use the stored CRL
+            CachedCRL storedCRL = readStoredCRL(url, now);
+            if (storedCRL != null) {
+                crlCache.put(url, storedCRL);
+                return storedCRL;
+            }
+        }
+
+        LOG.info("Download CRL [{}].", url);
+        X509CRL crl = downloadCRL(url, mandatoryCRLValidation);
+        if (crl == null && currentCRL != null && currentCRL.isUsable(now, getGracePeriodInMillis())) {
+            LOG.warn(SMPLogger.SECURITY_MARKER, "CRL [{}] can not be refreshed. The cached CRL is used in the grace period.", url);
+            return currentCRL;
+        }
+        CachedCRL cachedCRL = new CachedCRL(crl, now);
+        crlCache.put(url, cachedCRL);
+        if (crl != null) {
+            storeCRL(url, crl);
+        }
+        return cachedCRL;
+    }
+
+    protected void refreshCRLInBackground(String url) {
+        if (!crlBackgroundRefreshes.add(url)) {
+            LOG.debug("Refresh of CRL [{}] is already scheduled.", url);
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    loadCRL(url, configurationService.forceCRLValidation());
+                } catch (RuntimeException exc) {
+                    LOG.warn(SMPLogger.SECURITY_MARKER, "Error occurred while refreshing CRL [" + url + "]: " + ExceptionUtils.getRootCauseMessage(exc), exc);
+                } finally {
+                    crlBackgroundRefreshes.remove(url);
+                }
+            });
+        } catch (RejectedExecutionException exc) {
+            crlBackgroundRefreshes.remove(url);
+            LOG.warn("Refresh of CRL [{}] was rejected: [{}]", url, ExceptionUtils.getRootCauseMessage(exc));
+        }
+    }
+
+    protected Map<BigInteger, X509CRLEntry> getRevokedCertificates(String crlURL, X509CRL crl) {
+        CachedCRL cachedCRL = StringUtils.isBlank(crlURL) ? null : crlCache.get(crlURL.trim());
+        if (cachedCRL != null && cachedCRL.getCrl() == crl) {
+            return cachedCRL.getRevokedCertificates();
+        }
+        return indexRevokedCertificates(crl);
+    }
+
+    protected CachedCRL readStoredCRL(String url, long now) {
+        File crlFile = getStoredCRLFile(url);
+        if (crlFile == null || !crlFile.exists()) {
+            return null;
+        }
+        try (InputStream crlStream = Files.newInputStream(crlFile.toPath())) {
+            X509CRL crl = (X509CRL) CertificateFactory.getInstance("X.509").generateCRL(crlStream);
+            CachedCRL cachedCRL = new CachedCRL(crl, crlFile.lastModified());
+            if (!cachedCRL.isUsable(now, getGracePeriodInMillis())) {
+                LOG.debug("Stored CRL [{}] for URL [{}] is expired.", crlFile, url);
+                return null;
             }
+            LOG.info("Use stored CRL [{}] for URL [{}].", crlFile, url);
+            return cachedCRL;
+        } catch (IOException | CertificateException | CRLException | ClassCastException exc) {
+            LOG.warn("Can not read stored CRL [{}] for URL [{}]: [{}]", crlFile, url, ExceptionUtils.getRootCauseMessage(exc));
+            return null;
         }
-        return x509CRL;
     }
 
+    protected void storeCRL(String url, X509CRL crl) {
+        File crlFile = getStoredCRLFile(url);
+        if (crlFile == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(crlFile.getParentFile().toPath());
+            Path tmpFile = Files.createTempFile(crlFile.getParentFile().toPath(), crlFile.getName(), ".tmp");
+            Files.write(tmpFile, crl.getEncoded());
+            Files.move(tmpFile, crlFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOG.debug("CRL for URL [{}] stored to [{}].", url, crlFile);
+        } catch (IOException | CRLException exc) {
+            LOG.warn("Can not store CRL for URL [{}] to [{}]: [{}]", url, crlFile, ExceptionUtils.getRootCauseMessage(exc));
+        }
+    }
+
+    protected File getStoredCRLFile(String url) {
+        File folder = configurationService.getCRLCacheFolder();
+        if (folder == null) {
+            return null;
+        }
+        return new File(folder, UUID.nameUUIDFromBytes(url.getBytes(StandardCharsets.UTF_8)) + CRL_FILE_EXTENSION);
+    }
+
+    protected long getGracePeriodInMillis() {
+        return Math.max(0, configurationService.getCRLCacheGracePeriodInMinutes()) * 60 * 1000L;
+    }
+
+    protected long getRefreshAheadInMillis() {
+        return Math.max(0, configurationService.getCRLCacheRefreshAheadInMinutes()) * 60 * 1000L;
+    }
 
     /**
      * Downloads CRL from given URL. Supports http, https, ftp based
      * URLs.
      */
     public X509CRL downloadCRL(String crlURL, boolean mandatoryCRLValidation) {
-
+        long start = System.nanoTime();
         X509CRL crl = null;
         SMPRuntimeException exception = null;
         try (InputStream crlStream = downloadURL(crlURL)) {
@@ -168,6 +334,7 @@ public class CRLVerifierService implements ICRLVerifierService {
         } catch (SMPRuntimeException exc) {
             exception = exc;
         }
+        SMPMetrics.recordTime(SMPMetrics.METRIC_CRL_DOWNLOAD, start, SMPMetrics.TAG_OUTCOME, SMPMetrics.outcome(exception));
         // if exception occurred
         if (exception != null) {
             if (mandatoryCRLValidation) {
@@ -265,8 +432,8 @@ public class CRLVerifierService implements ICRLVerifierService {
         return true;
     }
 
-    private void validateCertificateCRL(X509CRL x509CRL, BigInteger bi) throws CertificateRevokedException {
-        X509CRLEntry entry = x509CRL.getRevokedCertificate(bi);
+    private void validateCertificateCRL(Map<BigInteger, X509CRLEntry> revokedCertificates, BigInteger bi) throws CertificateRevokedException {
+        X509CRLEntry entry = revokedCertificates.get(bi);
         if (entry != null) {
             Map<String, Extension> map = new HashMap<>();
 
@@ -275,4 +442,60 @@ public class CRLVerifierService implements ICRLVerifierService {
                     entry.getCertificateIssuer() == null ? NULL_ISSUER : entry.getCertificateIssuer(), map);
         }
     }
+
+    /**
+     * Index revoked certificates of the CRL issuer by serial number for constant time lookup. The entries of other
+     * certificate issuers (indirect CRL) are not indexed as they are not matched by the serial number only.
+     *
+     * @param crl the CRL
+     * @return the map of revoked certificates by serial number
+     */
+    protected static Map<BigInteger, X509CRLEntry> indexRevokedCertificates(X509CRL crl) {
+        Set<? extends X509CRLEntry> entries = crl == null ? null : crl.getRevokedCertificates();
+        if (entries == null || entries.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<BigInteger, X509CRLEntry> index = new HashMap<>(entries.size() * 4 / 3 + 1);
+        for (X509CRLEntry entry : entries) {
+            X500Principal certificateIssuer = entry.getCertificateIssuer();
+            if (certificateIssuer == null || certificateIssuer.equals(crl.getIssuerX500Principal())) {
+                index.putIfAbsent(entry.getSerialNumber(), entry);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * The cached CRL with the revoked certificates indexed by serial number. The null CRL is cached when
+     * the CRL could not be downloaded and CRL validation is not mandatory.
+     */
+    protected static class CachedCRL {
+        private final X509CRL crl;
+        private final Map<BigInteger, X509CRLEntry> revokedCertificates;
+        private final long nextRefresh;
+
+        CachedCRL(X509CRL crl, long downloadTime) {
+            this.crl = crl;
+            this.revokedCertificates = indexRevokedCertificates(crl);
+            long nextUpdate = crl != null && crl.getNextUpdate() != null ? crl.getNextUpdate().getTime() : NULL_LONG;
+            // if next update is not given or it is already in the past use the default refresh interval
+            this.nextRefresh = nextUpdate > downloadTime ? nextUpdate : downloadTime + REFRESH_CRL_INTERVAL;
+        }
+
+        public X509CRL getCrl() {
+            return crl;
+        }
+
+        public Map<BigInteger, X509CRLEntry> getRevokedCertificates() {
+            return revokedCertificates;
+        }
+
+        public long getNextRefresh() {
+            return nextRefresh;
+        }
+
+        public boolean isUsable(long now, long gracePeriod) {
+            return crl != null && now < nextRefresh + gracePeriod;
+        }
+    }
 }
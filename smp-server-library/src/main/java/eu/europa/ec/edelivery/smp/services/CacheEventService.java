@@ -0,0 +1,259 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services;
+
+import eu.europa.ec.edelivery.smp.config.CacheEventListener;
+import eu.europa.ec.edelivery.smp.cron.SMPJobResult;
+import eu.europa.ec.edelivery.smp.data.dao.CacheEventDao;
+import eu.europa.ec.edelivery.smp.data.dao.ConfigurationDao;
+import eu.europa.ec.edelivery.smp.data.enums.CacheEventType;
+import eu.europa.ec.edelivery.smp.data.model.DBCacheEvent;
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cluster cache invalidation. The administration write paths publish the cache change event, which is written
+ * to the SMP_CACHE_EVENT table in the transaction of the change (only in cluster mode). The local cache listeners are
+ * notified when the change is committed, and the other SMP nodes poll the new events with the CACHE_EVENTS job and
+ * notify their cache listeners. The events written by the node itself are skipped by the poller.
+ * <p>
+ * The events are polled by the event id. Because the event with the lower id can be committed after the event with
+ * the higher id, the missing ids are re-checked until the gap timeout expires. When the poller starts, or when the
+ * missing ids expire or exceed the limit, the changes of the other nodes might be lost: all local caches are then
+ * reloaded.
+ *
+ * @since 5.2
+ */
+@Service
+public class CacheEventService {
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(CacheEventService.class);
+
+    static final int MAX_EVENTS_PER_RUN = 1000;
+    static final int MAX_PENDING_IDS = 1000;
+    static final long PENDING_ID_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(1);
+    static final long PURGE_INTERVAL_MS = TimeUnit.MINUTES.toMillis(5);
+    static final long SYNCHRONIZED_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private final CacheEventDao cacheEventDao;
+    private final ConfigurationDao configurationDao;
+    private final ConfigurationService configurationService;
+    private final SMPJobService jobService;
+    private final ApplicationContext applicationContext;
+
+    // the poller state is accessed only by the CACHE_EVENTS job, which never runs concurrently
+    private Long lastEventId;
+    private final Map<Long, Long> pendingEventIds = new HashMap<>();
+    private long lastPurgeTime = 0;
+    // the time of the last successful poll, read by the request threads
+    private volatile long lastPollTime = 0;
+
+    public CacheEventService(CacheEventDao cacheEventDao,
+                             ConfigurationDao configurationDao,
+                             ConfigurationService configurationService,
+                             SMPJobService jobService,
+                             ApplicationContext applicationContext) {
+        this.cacheEventDao = cacheEventDao;
+        this.configurationDao = configurationDao;
+        this.configurationService = configurationService;
+        this.jobService = jobService;
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * Publish the cache change event. In cluster mode the event is written to the database in the current
+     * transaction. The local cache listeners are notified when the current transaction is committed, or immediately
+     * if the method is not invoked in the transaction.
+     *
+     * @param eventType the changed data type
+     * @param eventKey  the key of the changed data, or null if all data of the type was changed
+     */
+    public void publish(CacheEventType eventType, String eventKey) {
+        if (configurationService.isClusterEnabled()) {
+            cacheEventDao.addEvent(eventType, StringUtils.left(eventKey, 256), jobService.getNodeId());
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            notifyListeners(eventType, eventKey);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                notifyListeners(eventType, eventKey);
+            }
+        });
+    }
+
+    /**
+     * Process the cache change events written by the other SMP nodes since the last run. The method is executed by
+     * the CACHE_EVENTS job.
+     *
+     * @return the job result with the number of the processed changes
+     */
+    public synchronized SMPJobResult processEvents() {
+        if (!configurationService.isClusterEnabled()) {
+            // start again from the last event when the cluster mode is enabled
+            lastEventId = null;
+            lastPollTime = 0;
+            pendingEventIds.clear();
+            return SMPJobResult.EMPTY;
+        }
+        long now = System.currentTimeMillis();
+        if (lastEventId == null) {
+            // process only the events written from now on. The caches loaded before might miss the changes
+            // of the other nodes: reload them
+            lastEventId = cacheEventDao.getLastEventId();
+            LOG.info("Start processing the cache events after the event id [{}]", lastEventId);
+            reloadListeners();
+            lastPollTime = now;
+            return SMPJobResult.EMPTY;
+        }
+        int pendingCount = pendingEventIds.size();
+        pendingEventIds.values().removeIf(detectedOn -> now - detectedOn > PENDING_ID_TIMEOUT_MS);
+        boolean eventsLost = pendingEventIds.size() < pendingCount;
+        long fromEventId = pendingEventIds.isEmpty() ? lastEventId
+                : Math.min(lastEventId, Collections.min(pendingEventIds.keySet()) - 1);
+
+        Set<Map.Entry<CacheEventType, String>> changes = new LinkedHashSet<>();
+        for (DBCacheEvent event : cacheEventDao.getEventsAfter(fromEventId, MAX_EVENTS_PER_RUN)) {
+            long eventId = event.getId();
+            if (eventId > lastEventId) {
+                eventsLost |= !addPendingEventIds(lastEventId + 1, eventId, now);
+                lastEventId = eventId;
+            } else if (pendingEventIds.remove(eventId) == null) {
+                // already processed
+                continue;
+            }
+            if (!StringUtils.equals(jobService.getNodeId(), event.getNodeId())) {
+                changes.add(new AbstractMap.SimpleImmutableEntry<>(event.getEventType(), event.getEventKey()));
+            }
+        }
+        if (eventsLost) {
+            LOG.warn("The missing cache events expired or exceeded the limit [{}]: reload all caches", MAX_PENDING_IDS);
+            reloadListeners();
+        } else {
+            changes.forEach(change -> notifyListeners(change.getKey(), change.getValue()));
+        }
+        lastPollTime = now;
+        purgeEvents(now);
+        return SMPJobResult.of(changes.size());
+    }
+
+    /**
+     * Returns true if the node is not in cluster mode, or if the cache events of the other nodes were successfully
+     * polled recently. The caches which must not miss the changes of the other nodes (for example the negative
+     * lookup results) should not be trusted while the node is not synchronized.
+     *
+     * @return true if the local caches are synchronized with the changes of the other nodes
+     */
+    public boolean isSynchronized() {
+        return !configurationService.isClusterEnabled()
+                || System.currentTimeMillis() - lastPollTime <= SYNCHRONIZED_TIMEOUT_MS;
+    }
+
+    /**
+     * Reload all caches: notify the cache listeners of every event type with the null key.
+     */
+    protected void reloadListeners() {
+        for (CacheEventType eventType : CacheEventType.values()) {
+            notifyListeners(eventType, null);
+        }
+    }
+
+    /**
+     * Notify the cache listeners handling the event type. The failure of one listener does not prevent the
+     * notification of the other listeners.
+     *
+     * @param eventType the changed data type
+     * @param eventKey  the key of the changed data, or null if all data of the type was changed
+     */
+    public void notifyListeners(CacheEventType eventType, String eventKey) {
+        LOG.debug("Notify cache listeners for the change [{}]: [{}]", eventType, eventKey);
+        if (eventType == CacheEventType.PROPERTY) {
+            // the configuration properties are reloaded only if they were changed in the database
+            configurationDao.refreshProperties();
+        }
+        for (Map.Entry<String, CacheEventListener> entry : getCacheEventListeners().entrySet()) {
+            if (!entry.getValue().handlesCacheEvent(eventType)) {
+                continue;
+            }
+            try {
+                entry.getValue().onCacheEvent(eventType, eventKey);
+            } catch (RuntimeException exc) {
+                LOG.error("Cache listener [{}] failed to process the change [{}]: [{}]. Error: [{}]", entry.getKey(),
+                        eventType, eventKey, ExceptionUtils.getRootCauseMessage(exc), exc);
+            }
+        }
+    }
+
+    /**
+     * To avoid circular dependencies (the listeners are using the CacheEventService to publish the changes) the
+     * listeners are retrieved from the application context.
+     *
+     * @return the cache event listeners
+     */
+    protected Map<String, CacheEventListener> getCacheEventListeners() {
+        return applicationContext.getBeansOfType(CacheEventListener.class);
+    }
+
+    /**
+     * Add the missing event ids to the pending ids.
+     *
+     * @return false if the ids exceeded the limit and some of them were not added
+     */
+    protected boolean addPendingEventIds(long fromEventId, long toEventId, long now) {
+        for (long eventId = fromEventId; eventId < toEventId; eventId++) {
+            if (pendingEventIds.size() >= MAX_PENDING_IDS) {
+                return false;
+            }
+            pendingEventIds.put(eventId, now);
+        }
+        return true;
+    }
+
+    protected void purgeEvents(long now) {
+        if (now - lastPurgeTime < PURGE_INTERVAL_MS) {
+            return;
+        }
+        lastPurgeTime = now;
+        try {
+            cacheEventDao.deleteEventsBefore(OffsetDateTime.now()
+                    .minusMinutes(configurationService.getCacheEventsRetentionInMinutes()));
+        } catch (RuntimeException exc) {
+            LOG.warn("Failed to delete the expired cache events: [{}]", ExceptionUtils.getRootCauseMessage(exc));
+        }
+    }
+
+    Long getLastEventId() {
+        return lastEventId;
+    }
+
+    Set<Long> getPendingEventIds() {
+        return pendingEventIds.keySet();
+    }
+}
@@ -128,6 +128,26 @@ public class ConfigurationService {
         return delay == null ? 1000 : delay;
     }
 
+    public int getAccessTokenVerificationCacheTTLInSeconds() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(ACCESS_TOKEN_VERIFICATION_CACHE_TTL);
+        return intVal == null ? 60 : intVal;
+    }
+
+    public int getDocumentTemplateCacheMaxSizeInKB() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(DOCUMENT_TEMPLATE_CACHE_MAX_SIZE);
+        return intVal == null ? 32768 : intVal;
+    }
+
+    public int getUISearchCountLimit() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(UI_SEARCH_COUNT_LIMIT);
+        return intVal == null ? 10000 : intVal;
+    }
+
+    public int getAccessTokenVerificationCacheMaxEntries() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(ACCESS_TOKEN_VERIFICATION_CACHE_MAX_ENTRIES);
+        return intVal == null ? 1000 : intVal;
+    }
+
     public Integer getHttpHeaderHstsMaxAge() {
         return configurationDAO.getCachedPropertyValue(HTTP_HSTS_MAX_AGE);
     }
@@ -237,6 +257,20 @@ public class ConfigurationService {
         return value != null && value;
     }
 
+    public int getCRLCacheGracePeriodInMinutes() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(CERTIFICATE_CRL_CACHE_GRACE_PERIOD);
+        return intVal == null ? 60 : intVal;
+    }
+
+    public int getCRLCacheRefreshAheadInMinutes() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(CERTIFICATE_CRL_CACHE_REFRESH_AHEAD);
+        return intVal == null ? 10 : intVal;
+    }
+
+    public File getCRLCacheFolder() {
+        return configurationDAO.getCachedPropertyValue(CERTIFICATE_CRL_CACHE_FOLDER);
+    }
+
     public boolean isExternalTLSAuthenticationWithClientCertHeaderEnabled() {
         Boolean value = configurationDAO.getCachedPropertyValue(SMPPropertyEnum.EXTERNAL_TLS_AUTHENTICATION_CLIENT_CERT_HEADER_ENABLED);
         // by default is not forced -> if missing is false!
@@ -427,6 +461,41 @@ public class ConfigurationService {
         return intVal == null ? 10000 : intVal;
     }
 
+    public int getManageSMLBatchSize() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(SML_MANAGE_BATCH_SIZE);
+        return intVal == null || intVal < 1 ? 100 : intVal;
+    }
+
+    public int getManageSMLParallelRequests() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(SML_MANAGE_PARALLEL_REQUESTS);
+        return intVal == null || intVal < 1 ? 4 : intVal;
+    }
+
+    public int getSMLOutboxBatchSize() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(SML_OUTBOX_BATCH_SIZE);
+        return intVal == null || intVal < 1 ? 500 : intVal;
+    }
+
+    public int getSMLOutboxMaxAttempts() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(SML_OUTBOX_MAX_ATTEMPTS);
+        return intVal == null || intVal < 1 ? 10 : intVal;
+    }
+
+    public int getSMLOutboxRetryDelayInSeconds() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(SML_OUTBOX_RETRY_DELAY);
+        return intVal == null || intVal < 1 ? 30 : intVal;
+    }
+
+    public int getSMLOutboxRetryMaxDelayInSeconds() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(SML_OUTBOX_RETRY_MAX_DELAY);
+        return intVal == null || intVal < 1 ? 3600 : intVal;
+    }
+
+    public int getSMLOutboxProcessingTimeoutInSeconds() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(SML_OUTBOX_PROCESSING_TIMEOUT);
+        return intVal == null || intVal < 1 ? 300 : intVal;
+    }
+
 
     public List<String> getCasURLTokenValidationGroups() {
         return configurationDAO.getCachedPropertyValue(SSO_CAS_TOKEN_VALIDATION_GROUPS);
@@ -616,10 +685,117 @@ public class ConfigurationService {
         return configurationDAO.getCachedPropertyValue(SMP_ALERT_BATCH_SIZE);
     }
 
+    public int getAlertCredentialsBatchMaxCount() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(SMP_ALERT_BATCH_MAX_COUNT);
+        return intVal == null || intVal < 1 ? 10 : intVal;
+    }
+
+    public int getJobLockTimeoutInSeconds() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(SMP_JOB_LOCK_TIMEOUT);
+        return intVal == null || intVal < 1 ? 3600 : intVal;
+    }
+
+    public int getCacheEventsRetentionInMinutes() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(SMP_CACHE_EVENTS_RETENTION);
+        return intVal == null || intVal < 1 ? 60 : intVal;
+    }
+
     public String getAlertEmailFrom() {
         return configurationDAO.getCachedPropertyValue(SMP_ALERT_MAIL_FROM);
     }
 
+    public int getAlertMailWorkers() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(SMP_ALERT_MAIL_WORKERS);
+        return intVal == null || intVal < 1 ? 2 : intVal;
+    }
+
+    public int getAlertMailQueueCapacity() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(SMP_ALERT_MAIL_QUEUE_CAPACITY);
+        return intVal == null || intVal < 1 ? 1000 : intVal;
+    }
+
+    public int getAlertMailBatchSize() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(SMP_ALERT_MAIL_BATCH_SIZE);
+        return intVal == null || intVal < 1 ? 20 : intVal;
+    }
+
+    public int getAlertMailMaxAttempts() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(SMP_ALERT_MAIL_MAX_ATTEMPTS);
+        return intVal == null || intVal < 1 ? 5 : intVal;
+    }
+
+    public int getAlertMailRetryDelayInSeconds() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(SMP_ALERT_MAIL_RETRY_DELAY);
+        return intVal == null || intVal < 1 ? 60 : intVal;
+    }
+
+    public int getAlertMailRetryMaxDelayInSeconds() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(SMP_ALERT_MAIL_RETRY_MAX_DELAY);
+        return intVal == null || intVal < 1 ? 3600 : intVal;
+    }
+
+    public int getAlertMailProcessingTimeoutInSeconds() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(SMP_ALERT_MAIL_PROCESSING_TIMEOUT);
+        return intVal == null || intVal < 1 ? 300 : intVal;
+    }
+
+    public boolean isResourceResponseCacheEnabled() {
+        Boolean value = configurationDAO.getCachedPropertyValue(RESOURCE_RESPONSE_CACHE_ENABLED);
+        // by default is true - return false only in case is declared in configuration
+        return value == null || value;
+    }
+
+    public int getResourceResponseCacheMaxEntries() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(RESOURCE_RESPONSE_CACHE_MAX_ENTRIES);
+        return intVal == null ? 5000 : intVal;
+    }
+
+    public int getResourceResponseCacheTTLInSeconds() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(RESOURCE_RESPONSE_CACHE_TTL);
+        return intVal == null ? 300 : intVal;
+    }
+
+    public int getResourceHttpCacheMaxAgeInSeconds() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(RESOURCE_HTTP_CACHE_MAX_AGE);
+        return intVal == null ? 0 : intVal;
+    }
+
+    public boolean isResourceResponseCompressionEnabled() {
+        Boolean value = configurationDAO.getCachedPropertyValue(RESOURCE_RESPONSE_COMPRESSION_ENABLED);
+        // by default is true - return false only in case is declared in configuration
+        return value == null || value;
+    }
+
+    public int getMetadataCacheTTLInSeconds() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(METADATA_CACHE_TTL);
+        return intVal == null ? 60 : intVal;
+    }
+
+    public boolean isResourceIdentifierFilterEnabled() {
+        Boolean value = configurationDAO.getCachedPropertyValue(RESOURCE_IDENTIFIER_FILTER_ENABLED);
+        // by default is true - return false only in case is declared in configuration
+        return value == null || value;
+    }
+
+    public int getResourceIdentifierFilterRebuildInMinutes() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(RESOURCE_IDENTIFIER_FILTER_REBUILD);
+        return intVal == null || intVal < 1 ? 60 : intVal;
+    }
+
+    public File getResourceSnapshotFolder() {
+        return configurationDAO.getCachedPropertyValue(RESOURCE_SNAPSHOT_FOLDER);
+    }
+
+    public int getResourceSnapshotMaxAgeInSeconds() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(RESOURCE_SNAPSHOT_MAX_AGE);
+        return intVal == null ? 0 : intVal;
+    }
+
+    public int getResourceSnapshotMaxStaleInMinutes() {
+        Integer intVal = configurationDAO.getCachedPropertyValue(RESOURCE_SNAPSHOT_MAX_STALE);
+        return intVal == null ? 1440 : intVal;
+    }
+
     public String getDefaultDomainConfiguration(SMPDomainPropertyEnum property) {
         return configurationDAO.getCachedProperty(property.getPropertyEnum());
     }
@@ -20,6 +20,7 @@ package eu.europa.ec.edelivery.smp.services;
 
 import eu.europa.ec.edelivery.security.PreAuthenticatedCertificatePrincipal;
 import eu.europa.ec.edelivery.security.utils.SecurityUtils;
+import eu.europa.ec.edelivery.smp.auth.ResponseDelayContext;
 import eu.europa.ec.edelivery.smp.auth.SMPAuthenticationToken;
 import eu.europa.ec.edelivery.smp.auth.SMPUserDetails;
 import eu.europa.ec.edelivery.smp.auth.UILoginAuthenticationToken;
@@ -38,6 +39,7 @@ import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
 import eu.europa.ec.edelivery.smp.logging.SMPMessageCode;
+import eu.europa.ec.edelivery.smp.monitor.SMPMetrics;
 import eu.europa.ec.edelivery.smp.services.ui.UITruststoreService;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -86,6 +88,7 @@ public class CredentialService {
     final UITruststoreService truststoreService;
     final ConfigurationService configurationService;
     final CredentialsAlertService alertService;
+    final AccessTokenVerificationCache accessTokenVerificationCache;
 
     /**
      * thread safe validator
@@ -93,7 +96,7 @@ public class CredentialService {
     private static final ThreadLocal<DateFormat> dateFormatLocal = ThreadLocal.withInitial(() -> new SimpleDateFormat("MMM d hh:mm:ss yyyy zzz", US));
 
 
-    public CredentialService(UserDao mUserDao, CredentialDao credentialDao, ConversionService conversionService, CRLVerifierService crlVerifierService, UITruststoreService truststoreService, ConfigurationService configurationService, CredentialsAlertService alertService) {
+    public CredentialService(UserDao mUserDao, CredentialDao credentialDao, ConversionService conversionService, CRLVerifierService crlVerifierService, UITruststoreService truststoreService, ConfigurationService configurationService, CredentialsAlertService alertService, AccessTokenVerificationCache accessTokenVerificationCache) {
         this.userDao = mUserDao;
         this.credentialDao = credentialDao;
         this.conversionService = conversionService;
@@ -101,6 +104,7 @@ public class CredentialService {
         this.truststoreService = truststoreService;
         this.configurationService = configurationService;
         this.alertService = alertService;
+        this.accessTokenVerificationCache = accessTokenVerificationCache;
     }
 
     @Transactional(noRollbackFor = {AuthenticationException.class, SMPRuntimeException.class, RuntimeException.class})
@@ -138,7 +142,7 @@ public class CredentialService {
                 userDetails);
         try {
             LOG.debug("authenticateByUsernamePassword:validate security token [{}]", username);
-            if (!BCrypt.checkpw(userCredentialToken, credential.getValue())) {
+            if (!verifyCredentialHash(credential, userCredentialToken)) {
                 LOG.securityWarn(SMPMessageCode.SEC_INVALID_USER_CREDENTIALS, username, credential.getName(), credential.getCredentialType(), credential.getCredentialTarget());
                 loginAttemptFailedAndThrowError(credential, true, startTime);
             }
@@ -168,6 +172,7 @@ public class CredentialService {
             Optional<DBCredential> dbCredential = credentialDao.findAccessTokenCredentialForAPI(authenticationTokenId);
 
             if (!dbCredential.isPresent() || isNotValidCredential(dbCredential.get())) {
+                accessTokenVerificationCache.evict(authenticationTokenId);
                 LOG.securityWarn(SMPMessageCode.SEC_USER_NOT_EXISTS, authenticationTokenId);
                 //https://www.owasp.org/index.php/Authentication_Cheat_Sheet
                 // Do not reveal the status of an existing account. Not to use UsernameNotFoundException
@@ -186,18 +191,21 @@ public class CredentialService {
 
         DBUser user = credential.getUser();
 
-        try {
-            if (!BCrypt.checkpw(authenticationTokenValue, credential.getValue())) {
+        if (accessTokenVerificationCache.isVerified(credential, authenticationTokenValue)) {
+            LOG.debug("Access token [{}] was already verified.", authenticationTokenId);
+        } else {
+            try {
+                if (!verifyCredentialHash(credential, authenticationTokenValue)) {
+                    loginAttemptFailedAndThrowError(credential, true, startTime);
+                }
+                accessTokenVerificationCache.put(credential, authenticationTokenValue);
+            } catch (java.lang.IllegalArgumentException ex) {
+                // password is not hashed
                 loginAttemptFailedAndThrowError(credential, true, startTime);
+                LOG.securityWarn(SMPMessageCode.SEC_INVALID_USER_CREDENTIALS, ex, authenticationTokenId);
             }
-            credential.setSequentialLoginFailureCount(0);
-            credential.setLastFailedLoginAttempt(null);
-            credentialDao.update(credential);
-        } catch (java.lang.IllegalArgumentException ex) {
-            // password is not hashed
-            loginAttemptFailedAndThrowError(credential, true, startTime);
-            LOG.securityWarn(SMPMessageCode.SEC_INVALID_USER_CREDENTIALS, ex, authenticationTokenId);
         }
+        clearFailedLoginAttempts(credential);
         SMPAuthority authority = SMPAuthority.getAuthorityByRoleName(user.getApplicationRole().apiName());
         // the webservice authentication does not support session set the session secret is null!
         SMPUserDetails userDetails = new SMPUserDetails(user, null, Collections.singletonList(authority));
@@ -210,6 +218,31 @@ public class CredentialService {
         return smpAuthenticationToken;
     }
 
+    /**
+     * Verifies the value against the credential BCrypt hash. The verification time and the result are recorded to the
+     * {@link SMPMetrics#METRIC_CREDENTIAL_VERIFICATION} timer.
+     *
+     * @param credential the credential with the BCrypt hash
+     * @param value      the value to verify
+     * @return true if value matches the credential hash
+     */
+    protected boolean verifyCredentialHash(DBCredential credential, String value) {
+        long start = System.nanoTime();
+        String outcome = null;
+        try {
+            boolean match = BCrypt.checkpw(value, credential.getValue());
+            outcome = match ? SMPMetrics.OUTCOME_SUCCESS : SMPMetrics.OUTCOME_FAILURE;
+            return match;
+        } catch (RuntimeException ex) {
+            outcome = SMPMetrics.outcome(ex);
+            throw ex;
+        } finally {
+            SMPMetrics.recordTime(SMPMetrics.METRIC_CREDENTIAL_VERIFICATION, start,
+                    SMPMetrics.TAG_TYPE, credential.getCredentialType() == null ? null : credential.getCredentialType().name(),
+                    SMPMetrics.TAG_OUTCOME, outcome);
+        }
+    }
+
     protected boolean isNotValidCredential(DBCredential credential) {
         if (!credential.isActive()) {
             LOG.debug("User credential [{}] is not active", credential);
@@ -546,8 +579,21 @@ public class CredentialService {
     }
 
 
+    /**
+     * Delays the response to mask the password/username login failures. If the request is processed by the filter
+     * supporting the asynchronous response delay, the delay is deferred to the filter, and the request thread is
+     * not blocked. Otherwise, the current thread sleeps for the remaining delay.
+     *
+     * @param credentialType the credential type of the authentication
+     * @param startTime      the time of the authentication start in milliseconds
+     */
     public void delayResponse(CredentialType credentialType, long startTime) {
-        int delayInMS = getLoginFailDelayInMilliSeconds(credentialType) - (int) (Calendar.getInstance().getTimeInMillis() - startTime);
+        long currentTime = Calendar.getInstance().getTimeInMillis();
+        int delayInMS = getLoginFailDelayInMilliSeconds(credentialType) - (int) (currentTime - startTime);
+        if (delayInMS > 0 && ResponseDelayContext.deferResponseUntil(currentTime + delayInMS)) {
+            LOG.debug("Defer response for [{}] ms to mask password/username login failures!", delayInMS);
+            return;
+        }
         if (delayInMS > 0) {
             try {
                 LOG.debug("Delay response for [{}] ms to mask password/username login failures!", delayInMS);
@@ -559,9 +605,48 @@ public class CredentialService {
         }
     }
 
+    /**
+     * Clear the failed login attempts of the credential. The credential is updated only if it has failed login attempts.
+     *
+     * @param credential the credential
+     */
+    protected void clearFailedLoginAttempts(DBCredential credential) {
+        boolean hasFailedAttempts = credential.getSequentialLoginFailureCount() != null
+                && credential.getSequentialLoginFailureCount() != 0;
+        if (!hasFailedAttempts && credential.getLastFailedLoginAttempt() == null) {
+            return;
+        }
+        credential.setSequentialLoginFailureCount(0);
+        credential.setLastFailedLoginAttempt(null);
+        credentialDao.update(credential);
+    }
+
+    /**
+     * Evict the cached verification of the access token. The method must be invoked when the access token credential
+     * is changed, deactivated or deleted.
+     *
+     * @param credential the access token credential
+     */
+    public void evictVerifiedAccessToken(DBCredential credential) {
+        if (credential != null && credential.getCredentialType() == CredentialType.ACCESS_TOKEN) {
+            accessTokenVerificationCache.evict(credential.getName());
+        }
+    }
+
+    /**
+     * Evict the cached verifications of all user access tokens. The method must be invoked when the user is
+     * deactivated or deleted.
+     *
+     * @param userId the user id
+     */
+    public void evictVerifiedAccessTokensForUser(Long userId) {
+        accessTokenVerificationCache.evictForUser(userId);
+    }
+
     protected void loginAttemptFailedAndThrowError(DBCredential credential, boolean notYetSuspended, long startTime) {
 
         CredentialType credentialType = credential.getCredentialType();
+        evictVerifiedAccessToken(credential);
         credential.setSequentialLoginFailureCount(credential.getSequentialLoginFailureCount() != null ? credential.getSequentialLoginFailureCount() + 1 : 1);
         credential.setLastFailedLoginAttempt(OffsetDateTime.now());
         credentialDao.update(credential);
@@ -18,6 +18,7 @@
  */
 package eu.europa.ec.edelivery.smp.services;
 
+import eu.europa.ec.edelivery.smp.cron.SMPJobResult;
 import eu.europa.ec.edelivery.smp.data.dao.CredentialDao;
 import eu.europa.ec.edelivery.smp.data.model.user.DBCredential;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
@@ -26,7 +27,11 @@ import eu.europa.ec.edelivery.smp.utils.HttpUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 /**
  * Credential validator service for validating and alerting usernames password expirations, access token expirations and
@@ -53,104 +58,144 @@ public class CredentialValidatorService {
 
     /**
      * Method validates username, access tokens, and certificates.
-     * If the credentials are about to expire or are expired, it generates alerts.
+     * If the credentials are about to expire or are expired, it generates alerts. The credentials are processed in
+     * the batches (see smp.alert.credentials.batch.size) up to the max number of the batches per alert type
+     * (see smp.alert.credentials.batch.max-count). The alerted credentials are excluded from the next batches,
+     * so the remaining credentials are processed by the next validation run, also when the previous run was
+     * interrupted.
+     *
+     * @return the number of the alerted and failed credentials
      */
-    public void validateCredentials() {
+    public SMPJobResult validateCredentials() {
         if (skipCredentialValidation()) {
             LOG.debug("Skip Credentials validation");
-            return;
+            return SMPJobResult.EMPTY;
         }
-        validateCredentialsForBeforeExpireUsernames();
-        validateCredentialsForExpiredUsernames();
-
-        validateCredentialsForBeforeExpireAccessToken();
-        validateCredentialsForExpiredAccessToken();
-
-        validateCredentialsForBeforeExpireCertificate();
-        validateCredentialsForExpiredCertificate();
+        return validateCredentialsForBeforeExpireUsernames()
+                .add(validateCredentialsForExpiredUsernames())
+                .add(validateCredentialsForBeforeExpireAccessToken())
+                .add(validateCredentialsForExpiredAccessToken())
+                .add(validateCredentialsForBeforeExpireCertificate())
+                .add(validateCredentialsForExpiredCertificate());
     }
 
-    protected void validateCredentialsForBeforeExpireUsernames() {
+    protected SMPJobResult validateCredentialsForBeforeExpireUsernames() {
 
         Boolean alertBeforeExpire = configurationService.getAlertBeforeExpirePasswordEnabled();
         if (alertBeforeExpire == null || !alertBeforeExpire) {
             LOG.debug("Before expire user password validation is disabled");
-            return;
+            return SMPJobResult.EMPTY;
         }
-        List<DBCredential> dbUserBeforeExpireList = credentialDao.getBeforePasswordExpireUsersForAlerts(
-                configurationService.getAlertBeforeExpirePasswordPeriod(),
-                configurationService.getAlertBeforeExpirePasswordInterval(),
-                configurationService.getAlertCredentialsBatchSize());
-
-        dbUserBeforeExpireList.forEach(alertService::alertBeforeCredentialExpire);
+        int period = configurationService.getAlertBeforeExpirePasswordPeriod();
+        int interval = configurationService.getAlertBeforeExpirePasswordInterval();
+        return processInBatches(batchSize -> credentialDao.getBeforePasswordExpireUsersForAlerts(period, interval, batchSize),
+                alertService::alertBeforeCredentialExpire);
     }
 
-    protected void validateCredentialsForExpiredUsernames() {
+    protected SMPJobResult validateCredentialsForExpiredUsernames() {
         Boolean alertExpired = configurationService.getAlertExpiredPasswordEnabled();
         if (alertExpired == null || !alertExpired) {
             LOG.debug("Expire user password validation is disabled");
-            return;
+            return SMPJobResult.EMPTY;
         }
-        List<DBCredential> dbUserExpiredList = credentialDao.getPasswordExpiredUsersForAlerts(
-                configurationService.getAlertExpiredPasswordPeriod(),
-                configurationService.getAlertExpiredPasswordInterval(),
-                configurationService.getAlertCredentialsBatchSize());
-        dbUserExpiredList.forEach(alertService::alertCredentialExpired);
+        int period = configurationService.getAlertExpiredPasswordPeriod();
+        int interval = configurationService.getAlertExpiredPasswordInterval();
+        return processInBatches(batchSize -> credentialDao.getPasswordExpiredUsersForAlerts(period, interval, batchSize),
+                alertService::alertCredentialExpired);
     }
 
-    protected void validateCredentialsForBeforeExpireAccessToken() {
+    protected SMPJobResult validateCredentialsForBeforeExpireAccessToken() {
 
         Boolean alertBeforeExpire = configurationService.getAlertBeforeExpireAccessTokenEnabled();
         if (alertBeforeExpire == null || !alertBeforeExpire) {
             LOG.debug("Before expire user AccessToken validation is disabled");
-            return;
+            return SMPJobResult.EMPTY;
         }
-        List<DBCredential> dbUserBeforeExpireList = credentialDao.getBeforeAccessTokenExpireUsersForAlerts(
-                configurationService.getAlertBeforeExpireAccessTokenPeriod(),
-                configurationService.getAlertBeforeExpireAccessTokenInterval(),
-                configurationService.getAlertCredentialsBatchSize());
-        dbUserBeforeExpireList.forEach(alertService::alertBeforeCredentialExpire);
+        int period = configurationService.getAlertBeforeExpireAccessTokenPeriod();
+        int interval = configurationService.getAlertBeforeExpireAccessTokenInterval();
+        return processInBatches(batchSize -> credentialDao.getBeforeAccessTokenExpireUsersForAlerts(period, interval, batchSize),
+                alertService::alertBeforeCredentialExpire);
     }
 
-    protected void validateCredentialsForExpiredAccessToken() {
+    protected SMPJobResult validateCredentialsForExpiredAccessToken() {
         Boolean alertExpired = configurationService.getAlertExpiredAccessTokenEnabled();
         if (alertExpired == null || !alertExpired) {
             LOG.debug("Expire user AccessToken validation is disabled");
-            return;
+            return SMPJobResult.EMPTY;
         }
-        List<DBCredential> dbUserExpiredList = credentialDao.getAccessTokenExpiredUsersForAlerts(
-                configurationService.getAlertExpiredAccessTokenPeriod(),
-                configurationService.getAlertExpiredAccessTokenInterval(),
-                configurationService.getAlertCredentialsBatchSize());
-        dbUserExpiredList.forEach(alertService::alertCredentialExpired);
+        int period = configurationService.getAlertExpiredAccessTokenPeriod();
+        int interval = configurationService.getAlertExpiredAccessTokenInterval();
+        return processInBatches(batchSize -> credentialDao.getAccessTokenExpiredUsersForAlerts(period, interval, batchSize),
+                alertService::alertCredentialExpired);
     }
 
 
-    protected void validateCredentialsForBeforeExpireCertificate() {
+    protected SMPJobResult validateCredentialsForBeforeExpireCertificate() {
 
         Boolean alertBeforeExpire = configurationService.getAlertBeforeExpireCertificateEnabled();
         if (alertBeforeExpire == null || !alertBeforeExpire) {
             LOG.debug("Before expire user Certificate validation is disabled");
-            return;
+            return SMPJobResult.EMPTY;
         }
-        List<DBCredential> dbUserBeforeExpireList = credentialDao.getBeforeCertificateExpireUsersForAlerts(
-                configurationService.getAlertBeforeExpireCertificatePeriod(),
-                configurationService.getAlertBeforeExpireCertificateInterval(),
-                configurationService.getAlertCredentialsBatchSize());
-        dbUserBeforeExpireList.forEach(alertService::alertBeforeCredentialExpire);
+        int period = configurationService.getAlertBeforeExpireCertificatePeriod();
+        int interval = configurationService.getAlertBeforeExpireCertificateInterval();
+        return processInBatches(batchSize -> credentialDao.getBeforeCertificateExpireUsersForAlerts(period, interval, batchSize),
+                alertService::alertBeforeCredentialExpire);
     }
 
-    protected void validateCredentialsForExpiredCertificate() {
+    protected SMPJobResult validateCredentialsForExpiredCertificate() {
         Boolean alertExpired = configurationService.getAlertExpiredCertificateEnabled();
         if (alertExpired == null || !alertExpired) {
             LOG.debug("Expire user Certificate validation is disabled");
-            return;
+            return SMPJobResult.EMPTY;
+        }
+        int period = configurationService.getAlertExpiredCertificatePeriod();
+        int interval = configurationService.getAlertExpiredCertificateInterval();
+        return processInBatches(batchSize -> credentialDao.getCertificateExpiredUsersForAlerts(period, interval, batchSize),
+                alertService::alertCredentialExpired);
+    }
+
+    /**
+     * Method fetches and alerts the credentials in batches until the batch is not full, the batch contains only the
+     * credentials which were already processed in this run (e.g. the alert failed), or the max number of the
+     * batches is reached.
+     *
+     * @param batchFetcher the function returning the next batch of the credentials for the given batch size
+     * @param alertAction  the alert action for the credential
+     * @return the number of the processed and failed credentials
+     */
+    protected SMPJobResult processInBatches(IntFunction<List<DBCredential>> batchFetcher, Consumer<DBCredential> alertAction) {
+        Integer batchSizeValue = configurationService.getAlertCredentialsBatchSize();
+        int batchSize = batchSizeValue == null ? 0 : batchSizeValue;
+        int maxBatchCount = Math.max(1, configurationService.getAlertCredentialsBatchMaxCount());
+        Set<Long> processedIds = new HashSet<>();
+        int processed = 0;
+        int failed = 0;
+        int batchCount = 0;
+        List<DBCredential> batch;
+        boolean newCredentials;
+        do {
+            batch = batchFetcher.apply(batchSize);
+            batchCount++;
+            newCredentials = false;
+            for (DBCredential credential : batch) {
+                if (!processedIds.add(credential.getId())) {
+                    continue;
+                }
+                newCredentials = true;
+                try {
+                    alertAction.accept(credential);
+                    processed++;
+                } catch (RuntimeException exc) {
+                    LOG.error("Failed to alert credential [" + credential.getId() + "]", exc);
+                    failed++;
+                }
+            }
+        } while (newCredentials && batch.size() >= batchSize && batchCount < maxBatchCount);
+        if (batchCount >= maxBatchCount && batch.size() >= batchSize) {
+            LOG.info("Max batch count [{}] reached, the remaining credentials are processed in the next run", maxBatchCount);
         }
-        List<DBCredential> dbUserExpiredList = credentialDao.getCertificateExpiredUsersForAlerts(
-                configurationService.getAlertExpiredCertificatePeriod(),
-                configurationService.getAlertExpiredCertificateInterval(),
-                configurationService.getAlertCredentialsBatchSize());
-        dbUserExpiredList.forEach(alertService::alertCredentialExpired);
+        return SMPJobResult.of(processed, failed);
     }
 
     /**
@@ -33,13 +33,10 @@ import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
 import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
-import eu.europa.ec.edelivery.smp.services.mail.MailDataModel;
-import eu.europa.ec.edelivery.smp.services.mail.MailService;
 import eu.europa.ec.edelivery.smp.services.mail.prop.*;
 import eu.europa.ec.edelivery.smp.utils.HttpUtils;
 import eu.europa.ec.edelivery.smp.utils.SmpUrlBuilder;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
@@ -63,7 +60,7 @@ import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 public class CredentialsAlertService {
     private static final SMPLogger LOG = SMPLoggerFactory.getLogger(CredentialsAlertService.class);
     final AlertDao alertDao;
-    final MailService mailService;
+    final AlertMailService alertMailService;
     final ConfigurationService configurationService;
     final UserDao userDao;
     final CredentialDao credentialDao;
@@ -71,14 +68,14 @@ public class CredentialsAlertService {
     final SmpUrlBuilder smpUrlBuilder;
 
     public CredentialsAlertService(AlertDao alertDao,
-                                   MailService mailService,
+                                   AlertMailService alertMailService,
                                    ConfigurationService configurationService,
                                    UserDao userDao,
                                    CredentialDao credentialDao,
                                    SmpUrlBuilder smpUrlBuilder,
                                    @Qualifier(TRIGGER_BEAN_CREDENTIAL_ALERTS) SMPDynamicCronTrigger alertCronTrigger) {
         this.alertDao = alertDao;
-        this.mailService = mailService;
+        this.alertMailService = alertMailService;
         this.configurationService = configurationService;
         this.userDao = userDao;
         this.credentialDao = credentialDao;
@@ -459,56 +456,19 @@ public class CredentialsAlertService {
         alert.setAlertType(alertType);
         alert.setAlertLevel(level);
         alert.setAlertStatus(AlertStatusEnum.PROCESS);
+        alert.setNextAttemptOn(alert.getReportingTime());
         alert.addProperty(CredentialSuspendedProperties.SERVER_NAME.name(), serverName);
         return alert;
     }
 
     /**
-     * Submit mail  for the alert
+     * Submit mail  for the alert. The mail is sent asynchronously by the alert mail service.
      *
      * @param alert
      */
     public void submitAlertMail(DBAlert alert, DBUser user) {
-        String mailTo = alert.getMailTo();
-        if (StringUtils.isBlank(mailTo)) {
-            LOG.warn("Can not send mail (empty mail) for alert [{}]!", alert);
-            updateAlertStatus(alert, AlertStatusEnum.SUCCESS, "Alert created but mail not send (empty mail) for alert!");
-            return;
-        }
-
-        String mailFrom = configurationService.getAlertEmailFrom();
-        MailDataModel props = new MailDataModel(user.getSmpLocale(), alert);
-
-        // add additional common properties to the model
-        props.getModel().put(MailDataModel.CommonProperties.SMP_INSTANCE_NAME.name(),
-                configurationService.getSMPInstanceName());
-        props.getModel().put(MailDataModel.CommonProperties.CURRENT_DATETIME.name(),
-                formatOffsetDateTimeWithLocal(OffsetDateTime.now(), user.getSmpLocale()));
-
-        try {
-            String mailSubject = mailService.sendMail(props, mailFrom, alert.getMailTo());
-            // update alert subject
-            if (mailSubject != null){
-                alert.setMailSubject(StringUtils.left(mailSubject, 1023));
-            }
-            updateAlertStatus(alert, AlertStatusEnum.SUCCESS, null);
-        } catch (Throwable exc) {
-            LOG.error("Can not send mail [{}] for alert [{}]! Error [{}]",
-                    mailTo, alert, ExceptionUtils.getRootCauseMessage(exc));
-            LOG.error("Error sending mail", exc);
-            updateAlertStatus(alert, AlertStatusEnum.FAILED, ExceptionUtils.getRootCauseMessage(exc));
-        }
-
-    }
-
-    public void updateAlertStatus(DBAlert alert, AlertStatusEnum status, String statusDesc) {
-        alert.setAlertStatus(status);
-        alert.setAlertStatusDesc(statusDesc);
-        if (status == AlertStatusEnum.SUCCESS
-                || status == AlertStatusEnum.FAILED) {
-            alert.setProcessedTime(OffsetDateTime.now());
-        }
-        alertDao.update(alert);
+        LOG.debug("Submit mail of alert [{}] for user [{}]", alert.getId(), user.getUsername());
+        alertMailService.submit(alert);
     }
 
     public boolean isNextExecutionExpired(OffsetDateTime expireOn) {
@@ -19,22 +19,40 @@
 package eu.europa.ec.edelivery.smp.services;
 
 
+import eu.europa.ec.bdmsl.ws.soap.IManageParticipantIdentifierWS;
 import eu.europa.ec.edelivery.smp.data.dao.DomainDao;
+import eu.europa.ec.edelivery.smp.data.dao.DomainSmlProgressDao;
 import eu.europa.ec.edelivery.smp.data.dao.ResourceDao;
+import eu.europa.ec.edelivery.smp.data.dao.ResourceDao.DBResourceSmlIdentifier;
 import eu.europa.ec.edelivery.smp.data.model.DBDomain;
-import eu.europa.ec.edelivery.smp.data.model.doc.DBResource;
-import eu.europa.ec.edelivery.smp.data.model.doc.DBResourceFilter;
+import eu.europa.ec.edelivery.smp.data.model.DBDomainSmlProgress;
+import eu.europa.ec.edelivery.smp.data.ui.SMLIntegrationProgressRO;
+import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
 import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
+import eu.europa.ec.edelivery.smp.identifiers.Identifier;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.sml.SmlConnector;
+import eu.europa.ec.edelivery.smp.utils.SMPThreadFactory;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.springframework.stereotype.Service;
 
-import javax.transaction.Transactional;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
-
-import static eu.europa.ec.edelivery.smp.config.enums.SMPPropertyEnum.SML_MANAGE_MAX_COUNT;
+import java.util.stream.Collectors;
 
 
 /**
@@ -51,103 +69,338 @@ public class DomainSMLIntegrationService {
 
     public static final Pattern DOMAIN_ID_PATTERN = Pattern.compile("[a-zA-Z0-9]{1,50}");
 
+    public static final String OPERATION_REGISTER = "REGISTER";
+    public static final String OPERATION_UNREGISTER = "UNREGISTER";
+
     private final SMLIntegrationService smlIntegrationService;
+    private final SmlConnector smlConnector;
     private final ResourceDao resourceDao;
     private final DomainDao domainDao;
     private final ConfigurationService configurationService;
+    private final DomainSmlProgressDao domainSmlProgressDao;
+    private final SMPJobService jobService;
 
     public DomainSMLIntegrationService(SMLIntegrationService smlIntegrationService,
+                                       SmlConnector smlConnector,
                                        ResourceDao resourceDao,
                                        DomainDao domainDao,
-                                       ConfigurationService configurationService) {
+                                       ConfigurationService configurationService,
+                                       DomainSmlProgressDao domainSmlProgressDao,
+                                       SMPJobService jobService) {
         this.smlIntegrationService = smlIntegrationService;
+        this.smlConnector = smlConnector;
         this.resourceDao = resourceDao;
         this.domainDao = domainDao;
         this.configurationService = configurationService;
+        this.domainSmlProgressDao = domainSmlProgressDao;
+        this.jobService = jobService;
     }
 
     /**
-     * If domain is not yet registered and SML integration is on, it tries to register a domain and all participants
-     * on that domain. If integration is disabled, it returns a configuration exception. The participants are registered
-     * not registered if count of participants is higher than defined in  max bdmsl.participants.manage.max-count.
-     * In this case they must be registered manually.
+     * Method starts the registration of the domain and its participants in the background and returns immediately.
+     * If the registration or the un-registration of the domain is already running on any SMP node, the method throws
+     * the INVALID_REQUEST exception. The progress and the result of the registration are persisted and can be polled
+     * with the {@link #getSMLIntegrationProgress(Long)} on any SMP node.
+     *
+     * @param domainId domain id
+     */
+    public void startRegisterDomainAndParticipants(Long domainId) {
+        DBDomain dbDomain = getDomain(domainId);
+        SMLParticipantsProgress progress = startProgress(dbDomain, OPERATION_REGISTER);
+        jobService.runInBackground("sml-register-" + dbDomain.getDomainCode(),
+                () -> registerDomainAndParticipants(dbDomain, progress));
+    }
+
+    /**
+     * Method starts the un-registration of the domain and its participants in the background and returns
+     * immediately. See the {@link #startRegisterDomainAndParticipants(Long)}.
+     *
+     * @param domainId domain id
+     */
+    public void startUnregisterDomainAndParticipants(Long domainId) {
+        DBDomain dbDomain = getDomain(domainId);
+        SMLParticipantsProgress progress = startProgress(dbDomain, OPERATION_UNREGISTER);
+        jobService.runInBackground("sml-unregister-" + dbDomain.getDomainCode(),
+                () -> unregisterDomainAndParticipants(dbDomain, progress));
+    }
+
+    /**
+     * If SML integration is on, it tries to register a domain and all not yet registered participants on that domain.
+     * If integration is disabled, it returns a configuration exception. The participants are registered in batches
+     * (see bdmsl.participants.manage.batch-size) with the BDMSL createList requests, and the batches are processed
+     * concurrently (see bdmsl.participants.manage.parallel-requests).
      * <p>
-     * Method is not in transaction - but sub-methods are. if registering domain or particular serviceGroup succeed
-     * then the database flag (SML_REGISTERED) is turned on ( if method fails
-     * while execution the SML_REGISTERED reflect the real status in SML). Running the method again updates only
-     * serviceGroup which are not yet registered.
+     * Method is not in transaction - the SML_REGISTERED flag of the participants is updated in a short transaction
+     * after each successfully registered batch. If method fails while execution the SML_REGISTERED reflects the real
+     * status in SML. Running the method again registers only participants which are not yet registered.
      *
      * @param domainId domain id
      */
-    @Transactional
     public void registerDomainAndParticipants(Long domainId) {
+        DBDomain dbDomain = getDomain(domainId);
+        registerDomainAndParticipants(dbDomain, startProgress(dbDomain, OPERATION_REGISTER));
+    }
 
-        DBDomain dbDomain = domainDao.find(domainId);
+    protected void registerDomainAndParticipants(DBDomain dbDomain, SMLParticipantsProgress progress) {
         LOG.info("Start registerDomainAndParticipants for domain: [{}]", dbDomain);
-        DBResourceFilter filter = DBResourceFilter.createBuilder().domain(dbDomain).build();
-        smlIntegrationService.registerDomain(dbDomain);
-
-        Long resourceCnt = resourceDao.getResourcesForFilterCount(filter);
-        int maxSMLRecordCount = configurationService.getManageMaxSMLRecordCount();
-        if (resourceCnt > maxSMLRecordCount) {
-            LOG.warn("Too many resources to register for the domain [{}]. Count: [{}], max. allowed [{}]!" +
-                            "For details check the configuration option [{}]!",
-                    dbDomain, resourceCnt, maxSMLRecordCount, SML_MANAGE_MAX_COUNT.getProperty());
-            return;
+        try {
+            smlIntegrationService.registerDomain(dbDomain);
+            List<DBResourceSmlIdentifier> resources = resourceDao.getSmlIdentifiersForDomainId(dbDomain.getId(), false);
+            processParticipants(dbDomain, resources, true, progress);
+            progress.finish(null);
+        } catch (RuntimeException exc) {
+            progress.finish(ExceptionUtils.getRootCauseMessage(exc));
+            throw exc;
         }
+    }
 
-        List<DBResource> resources = resourceDao.getResourcesForFilter(-1, -1, filter);
-        List<DBResource> processed = new ArrayList<>();
+    /**
+     * If SML integration is on, it tries to unregister all registered participants of the domain and the domain
+     * itself. The participants are unregistered in batches with the BDMSL deleteList requests. The domain is
+     * unregistered only if all participants are successfully unregistered. Running the method again unregisters
+     * only participants which are still registered.
+     *
+     * @param domainId domain id
+     */
+    public void unregisterDomainAndParticipantsFromSml(Long domainId) {
+        DBDomain dbDomain = getDomain(domainId);
+        unregisterDomainAndParticipants(dbDomain, startProgress(dbDomain, OPERATION_UNREGISTER));
+    }
+
+    protected void unregisterDomainAndParticipants(DBDomain dbDomain, SMLParticipantsProgress progress) {
+        LOG.info("Start unregisterDomainAndParticipants for domain: [{}]", dbDomain);
         try {
-            for (DBResource resource : resources) {
-                smlIntegrationService.registerParticipant(resource, dbDomain);
-                processed.add(resource);
-            }
-        } catch (SMPRuntimeException exc) {
-            // rollback dns records
-            for (DBResource resource : processed) {
-                smlIntegrationService.unregisterParticipant(resource, dbDomain);
+            if (!smlIntegrationService.isSMLIntegrationEnabled()) {
+                throw new SMPRuntimeException(ErrorCode.CONFIGURATION_ERROR, "SML integration is not enabled!");
             }
+            List<DBResourceSmlIdentifier> resources = resourceDao.getSmlIdentifiersForDomainId(dbDomain.getId(), true);
+            processParticipants(dbDomain, resources, false, progress);
+            smlIntegrationService.unRegisterDomain(dbDomain);
+            progress.finish(null);
+        } catch (RuntimeException exc) {
+            progress.finish(ExceptionUtils.getRootCauseMessage(exc));
             throw exc;
         }
     }
 
     /**
-     * If domain is registered and SML integration is on, it tries to unregister a domain and all its participants
-     * The participants are not unregistered if count of participants is higher than defined in  max bdmsl.participants.manage.max-count.
-     * In this case they must be unregistered manually.
+     * Returns the persisted progress of the last (or currently running) register/unregister operation for the domain
+     * together with the persisted count of the SML registered domain resources.
      *
      * @param domainId domain id
+     * @return the progress of the domain participants SML integration
      */
-    @Transactional
-    public void unregisterDomainAndParticipantsFromSml(Long domainId) {
+    public SMLIntegrationProgressRO getSMLIntegrationProgress(Long domainId) {
+        SMLIntegrationProgressRO progressRO = new SMLIntegrationProgressRO();
+        DBDomainSmlProgress progress = domainSmlProgressDao.find(domainId);
+        if (progress != null) {
+            progressRO.setOperation(progress.getOperation());
+            progressRO.setRunning(progress.getRunningUntil().isAfter(OffsetDateTime.now()));
+            progressRO.setTotalCount(progress.getTotalCount());
+            progressRO.setProcessedCount(progress.getProcessedCount());
+            progressRO.setFailedCount(progress.getFailedCount());
+            progressRO.setStartedOn(progress.getStartedOn());
+            progressRO.setFinishedOn(progress.getFinishedOn());
+            progressRO.setErrorMessage(progress.getErrorMessage());
+        }
+        long registeredCount = resourceDao.getResourceCountForDomainIdAndSmlRegistered(domainId, true);
+        long notRegisteredCount = resourceDao.getResourceCountForDomainIdAndSmlRegistered(domainId, false);
+        progressRO.setSmlRegisteredCount(registeredCount);
+        progressRO.setResourceCount(registeredCount + notRegisteredCount);
+        return progressRO;
+    }
+
+    protected DBDomain getDomain(Long domainId) {
         DBDomain dbDomain = domainDao.find(domainId);
-        LOG.info("Start unregisterDomainAndParticipants for domain: [{}]", dbDomain);
-        DBResourceFilter filter = DBResourceFilter.createBuilder().domain(dbDomain).build();
-        Long resourceCnt = resourceDao.getResourcesForFilterCount(filter);
-        int maxSMLRecordCount = configurationService.getManageMaxSMLRecordCount();
-        if (resourceCnt > maxSMLRecordCount) {
-            LOG.warn("Too many resources to unregister for the domain [{}]. Count: [{}], max. allowed [{}]!" +
-                            "For details check the configuration option [{}]!",
-                    dbDomain, resourceCnt, maxSMLRecordCount, SML_MANAGE_MAX_COUNT.getProperty());
-            return;
+        if (dbDomain == null) {
+            throw new SMPRuntimeException(ErrorCode.INVALID_REQUEST, "SML integration", "Domain with id [" + domainId + "] does not exist!");
         }
+        return dbDomain;
+    }
 
-        List<DBResource> resources = resourceDao.getResourcesForFilter(-1, -1, filter);
-        List<DBResource> processed = new ArrayList<>();
+    /**
+     * Method starts the persisted progress of the operation. The operation is running until the running-until time
+     * (see smp.jobs.lock.timeout-seconds), which is extended after each processed batch. If the node running the
+     * operation is stopped, the operation can be started again when the running-until time expires.
+     */
+    protected SMLParticipantsProgress startProgress(DBDomain domain, String operation) {
+        SMLParticipantsProgress progress = new SMLParticipantsProgress(domain.getId(), UUID.randomUUID().toString(), operation);
+        OffsetDateTime now = OffsetDateTime.now();
+        boolean started;
         try {
-            for (DBResource resource : resources) {
-                smlIntegrationService.unregisterParticipant(resource, dbDomain);
-                processed.add(resource);
+            started = domainSmlProgressDao.tryStart(domain.getId(), operation, progress.runId, jobService.getNodeId(),
+                    now, progress.getRunningUntil(now));
+        } catch (RuntimeException exc) {
+            // the progress was concurrently created by the other node
+            LOG.debug("Failed to start the SML [{}] of the domain [{}]: [{}]", operation, domain.getDomainCode(),
+                    ExceptionUtils.getRootCauseMessage(exc));
+            started = false;
+        }
+        if (!started) {
+            throw new SMPRuntimeException(ErrorCode.INVALID_REQUEST, "SML integration",
+                    "The SML integration of the domain [" + domain.getDomainCode() + "] participants is already running");
+        }
+        return progress;
+    }
+
+    /**
+     * Method splits the participants into batches and processes them with the configured number of the workers.
+     * Each worker uses its own pre-configured BDMSL client for all the batches it processes. On the first error
+     * the workers stop processing the remaining batches, and the error is thrown when all the workers finish.
+     *
+     * @param domain    the domain
+     * @param resources the participants to register/unregister
+     * @param register  true to register the participants; false to unregister them
+     * @param progress  the progress to update
+     */
+    protected void processParticipants(DBDomain domain, List<DBResourceSmlIdentifier> resources, boolean register, SMLParticipantsProgress progress) {
+        progress.totalCount = resources.size();
+        progress.persist();
+        if (resources.isEmpty()) {
+            LOG.info("No participants to [{}] for the domain [{}]", progress.operation, domain.getDomainCode());
+            return;
+        }
+        int batchSize = configurationService.getManageSMLBatchSize();
+        Queue<List<DBResourceSmlIdentifier>> batches = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < resources.size(); i += batchSize) {
+            batches.add(resources.subList(i, Math.min(i + batchSize, resources.size())));
+        }
+        int workerCount = Math.min(configurationService.getManageSMLParallelRequests(), batches.size());
+        LOG.info("Process [{}] participants for domain [{}] in [{}] batches with [{}] workers", resources.size(),
+                domain.getDomainCode(), batches.size(), workerCount);
+
+        AtomicReference<RuntimeException> error = new AtomicReference<>();
+        if (workerCount == 1) {
+            processBatches(domain, batches, register, progress, error);
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(workerCount,
+                    new SMPThreadFactory("sml-participants-" + domain.getDomainCode() + "-"));
+            try {
+                List<CompletableFuture<Void>> workers = new ArrayList<>();
+                for (int i = 0; i < workerCount; i++) {
+                    workers.add(CompletableFuture.runAsync(() -> processBatches(domain, batches, register, progress, error), executor));
+                }
+                CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])).join();
+            } finally {
+                executor.shutdownNow();
             }
-        } catch (SMPRuntimeException exc) {
-            // rollback dns records
-            for (DBResource resource : processed) {
-                smlIntegrationService.registerParticipant(resource, dbDomain);
+        }
+        if (error.get() != null) {
+            throw error.get();
+        }
+    }
+
+    protected void processBatches(DBDomain domain, Queue<List<DBResourceSmlIdentifier>> batches, boolean register,
+                                  SMLParticipantsProgress progress, AtomicReference<RuntimeException> error) {
+        IManageParticipantIdentifierWS client = null;
+        List<DBResourceSmlIdentifier> batch;
+        while (error.get() == null && (batch = batches.poll()) != null) {
+            try {
+                if (client == null) {
+                    client = smlConnector.createParticipantWSClient(domain);
+                }
+                List<DBResourceSmlIdentifier> processed = processBatch(client, domain, batch, register);
+                if (!processed.isEmpty()) {
+                    resourceDao.updateSmlRegistered(processed.stream().map(DBResourceSmlIdentifier::getResourceId)
+                            .collect(Collectors.toList()), register);
+                }
+                progress.processedCount.addAndGet(processed.size());
+                int skippedCount = batch.size() - processed.size();
+                if (skippedCount > 0) {
+                    LOG.warn("[{}] participants of the batch were not [{}] for domain [{}]: SML integration is disabled or the domain is not registered",
+                            skippedCount, progress.operation, domain.getDomainCode());
+                    progress.failedCount.addAndGet(skippedCount);
+                }
+                progress.persist();
+            } catch (RuntimeException exc) {
+                LOG.error("Failed to [" + progress.operation + "] participants batch for domain [" + domain.getDomainCode() + "]", exc);
+                progress.failedCount.addAndGet(batch.size());
+                error.compareAndSet(null, exc);
+                progress.persist();
             }
-            throw exc;
         }
-        smlIntegrationService.unRegisterDomain(dbDomain);
     }
 
+    /**
+     * Method registers/unregisters the batch of participants and returns the participants which were
+     * registered/unregistered. The SML connector does not call the SML if the integration is disabled or the domain is
+     * not registered, and such participants must not change the SML registered flag.
+     *
+     * @return the registered/unregistered participants of the batch
+     */
+    protected List<DBResourceSmlIdentifier> processBatch(IManageParticipantIdentifierWS client, DBDomain domain,
+                                                         List<DBResourceSmlIdentifier> batch, boolean register) {
+        if (!register) {
+            return smlConnector.unregisterParticipantsFromDns(client, toIdentifiers(batch), domain) ?
+                    batch : Collections.emptyList();
+        }
+        List<DBResourceSmlIdentifier> processed = new ArrayList<>();
+        // participants with the custom naptr service can not be registered with the createList request
+        Map<String, String> customNaptrServices = configurationService.getCustomNaptrServicesMap();
+        List<DBResourceSmlIdentifier> regularParticipants = new ArrayList<>();
+        for (DBResourceSmlIdentifier resource : batch) {
+            String customNaptrService = customNaptrServices == null || resource.getResourceDefIdentifier() == null ? null :
+                    customNaptrServices.get(resource.getResourceDefIdentifier());
+            if (StringUtils.isBlank(customNaptrService)) {
+                regularParticipants.add(resource);
+            } else if (smlConnector.registerInDns(resource.getIdentifierScheme(), resource.getIdentifierValue(), domain,
+                    customNaptrService)) {
+                processed.add(resource);
+            }
+        }
+        if (!regularParticipants.isEmpty()
+                && smlConnector.registerParticipantsInDns(client, toIdentifiers(regularParticipants), domain)) {
+            processed.addAll(regularParticipants);
+        }
+        return processed;
+    }
+
+    private List<Identifier> toIdentifiers(List<DBResourceSmlIdentifier> resources) {
+        return resources.stream()
+                .map(resource -> new Identifier(resource.getIdentifierValue(), resource.getIdentifierScheme()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The progress of the register/unregister operation run. The counts are updated by the workers and persisted
+     * after each processed batch.
+     */
+    protected class SMLParticipantsProgress {
+        final Long domainId;
+        final String runId;
+        final String operation;
+        final AtomicInteger processedCount = new AtomicInteger();
+        final AtomicInteger failedCount = new AtomicInteger();
+        volatile int totalCount;
+
+        SMLParticipantsProgress(Long domainId, String runId, String operation) {
+            this.domainId = domainId;
+            this.runId = runId;
+            this.operation = operation;
+        }
+
+        OffsetDateTime getRunningUntil(OffsetDateTime now) {
+            return now.plusSeconds(configurationService.getJobLockTimeoutInSeconds());
+        }
+
+        synchronized void persist() {
+            OffsetDateTime now = OffsetDateTime.now();
+            try {
+                domainSmlProgressDao.updateProgress(domainId, runId, totalCount, processedCount.get(),
+                        failedCount.get(), now, getRunningUntil(now));
+            } catch (RuntimeException exc) {
+                LOG.warn("Failed to persist the SML [{}] progress of the domain [{}]: [{}]", operation, domainId,
+                        ExceptionUtils.getRootCauseMessage(exc));
+            }
+        }
+
+        synchronized void finish(String errorMessage) {
+            try {
+                domainSmlProgressDao.finish(domainId, runId, totalCount, processedCount.get(), failedCount.get(),
+                        errorMessage, OffsetDateTime.now());
+            } catch (RuntimeException exc) {
+                LOG.error("Failed to persist the SML [" + operation + "] result of the domain [" + domainId + "]", exc);
+            }
+        }
+    }
 }
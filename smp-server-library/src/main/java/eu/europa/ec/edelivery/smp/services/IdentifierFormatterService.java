@@ -22,11 +22,13 @@ package eu.europa.ec.edelivery.smp.services;
 import eu.europa.ec.dynamicdiscovery.enums.DNSLookupFormatType;
 import eu.europa.ec.dynamicdiscovery.model.identifiers.types.EBCorePartyIdFormatterType;
 import eu.europa.ec.dynamicdiscovery.model.identifiers.types.TemplateFormatterType;
+import eu.europa.ec.edelivery.smp.config.CacheEventListener;
 import eu.europa.ec.edelivery.smp.config.enums.SMPDomainPropertyEnum;
 import eu.europa.ec.edelivery.smp.config.enums.SMPPropertyEnum;
 import eu.europa.ec.edelivery.smp.config.enums.SMPPropertyTypeEnum;
 import eu.europa.ec.edelivery.smp.data.dao.DomainConfigurationDao;
 import eu.europa.ec.edelivery.smp.data.dao.DomainDao;
+import eu.europa.ec.edelivery.smp.data.enums.CacheEventType;
 import eu.europa.ec.edelivery.smp.data.model.DBDomain;
 import eu.europa.ec.edelivery.smp.data.model.DBDomainConfiguration;
 import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
@@ -36,9 +38,11 @@ import eu.europa.ec.edelivery.smp.utils.PropertyUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -48,7 +52,7 @@ import java.util.regex.Pattern;
  * @since 5.1
  */
 @Component
-public class IdentifierFormatterService {
+public class IdentifierFormatterService implements CacheEventListener {
 
     public static final String CACHE_NAME_DOMAIN_RESOURCE_IDENTIFIER_FORMATTER = "domain-resource-identifier-formatter";
     public static final String CACHE_NAME_DOMAIN_SUBRESOURCE_IDENTIFIER_FORMATTER = "domain-subresource-identifier-formatter";
@@ -67,6 +71,22 @@ public class IdentifierFormatterService {
         this.configurationService = configurationService;
     }
 
+    /**
+     * The domain configuration or the system properties (the default formatter) were changed on the local or on the
+     * other SMP node in the cluster: evict all cached identifier formatters.
+     */
+    @Override
+    @CacheEvict(cacheNames = {CACHE_NAME_DOMAIN_RESOURCE_IDENTIFIER_FORMATTER,
+            CACHE_NAME_DOMAIN_SUBRESOURCE_IDENTIFIER_FORMATTER}, allEntries = true)
+    public void onCacheEvent(CacheEventType eventType, String eventKey) {
+        LOG.debug("Evict identifier formatters for the change [{}]: [{}]", eventType, eventKey);
+    }
+
+    @Override
+    public List<CacheEventType> handledCacheEvents() {
+        return Arrays.asList(CacheEventType.DOMAIN, CacheEventType.PROPERTY);
+    }
+
     /**
      * Method returns participant identifier formatter for given domain. If the
      * domain code is empty, default resource identifier formatter is returned.
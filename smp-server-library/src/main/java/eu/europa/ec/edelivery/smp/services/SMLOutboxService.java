@@ -0,0 +1,365 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services;
+
+import eu.europa.ec.edelivery.smp.config.enums.SMPDomainPropertyEnum;
+import eu.europa.ec.edelivery.smp.config.enums.SMPPropertyEnum;
+import eu.europa.ec.edelivery.smp.data.dao.DomainDao;
+import eu.europa.ec.edelivery.smp.data.dao.ResourceDao;
+import eu.europa.ec.edelivery.smp.data.dao.SMLOutboxDao;
+import eu.europa.ec.edelivery.smp.data.enums.SMLOutboxActionType;
+import eu.europa.ec.edelivery.smp.data.enums.SMLOutboxStatusType;
+import eu.europa.ec.edelivery.smp.data.model.DBDomain;
+import eu.europa.ec.edelivery.smp.data.model.DBSMLOutboxEntry;
+import eu.europa.ec.edelivery.smp.data.model.doc.DBResource;
+import eu.europa.ec.edelivery.smp.data.ui.SMLOutboxEntryRO;
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.monitor.SMPMetrics;
+import eu.europa.ec.edelivery.smp.services.resource.ResourceMetadataCache;
+import eu.europa.ec.edelivery.smp.sml.SmlConnector;
+import eu.europa.ec.edelivery.smp.utils.PropertyUtils;
+import eu.europa.ec.edelivery.smp.utils.SMPThreadFactory;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static eu.europa.ec.edelivery.smp.data.model.CommonColumnsLengths.MAX_MEDIUM_TEXT_LENGTH;
+
+/**
+ * The SML outbox service. The participant registrations/un-registrations are not sent to the SML while the
+ * resource is created/deleted, but they are written to the SML outbox in the same transaction as the resource
+ * change. The outbox entries are sent to the SML asynchronously by the outbox dispatcher (see
+ * bdmsl.participants.outbox.cronJobExpression) so that the slow or unavailable SML does not block the resource
+ * PUT/DELETE requests, and the SML status can not diverge from the database status when the transaction is rolled
+ * back.
+ * <p>
+ * The opposite not yet sent actions of the same participant cancel out each other (e.g. the resource is created
+ * and deleted before the registration is sent). The failed attempts are retried with the exponential backoff until
+ * the max attempts is reached. After that the entry stays in the FAILED status until the system administrator
+ * triggers the retry.
+ *
+ * @since 5.2
+ */
+@Service
+public class SMLOutboxService {
+
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(SMLOutboxService.class);
+
+    private final SMLOutboxDao smlOutboxDao;
+    private final DomainDao domainDao;
+    private final ResourceDao resourceDao;
+    private final SMLIntegrationService smlIntegrationService;
+    private final SmlConnector smlConnector;
+    private final ConfigurationService configurationService;
+    private final ResourceMetadataCache resourceMetadataCache;
+    private final AtomicBoolean dispatching = new AtomicBoolean(false);
+
+    public SMLOutboxService(SMLOutboxDao smlOutboxDao,
+                            DomainDao domainDao,
+                            ResourceDao resourceDao,
+                            SMLIntegrationService smlIntegrationService,
+                            SmlConnector smlConnector,
+                            ConfigurationService configurationService,
+                            ResourceMetadataCache resourceMetadataCache) {
+        this.smlOutboxDao = smlOutboxDao;
+        this.domainDao = domainDao;
+        this.resourceDao = resourceDao;
+        this.smlIntegrationService = smlIntegrationService;
+        this.smlConnector = smlConnector;
+        this.configurationService = configurationService;
+        this.resourceMetadataCache = resourceMetadataCache;
+    }
+
+    /**
+     * Method adds the participant registration to the SML outbox. The method must be called in the transaction of
+     * the resource creation. If the last not yet sent entry of the participant is un-registration, the entry is
+     * removed instead, and the resource is marked as registered.
+     *
+     * @param resource the created resource
+     * @param domain   the domain of the resource
+     */
+    @Transactional
+    public void enqueueRegisterParticipant(DBResource resource, DBDomain domain) {
+        if (!isDomainIntegrated(domain)) {
+            LOG.debug("Skip SML registration of participant [{}]: SML integration is not enabled or domain [{}] is not registered!",
+                    resource.getIdentifierValue(), domain.getDomainCode());
+            return;
+        }
+        DBSMLOutboxEntry lastEntry = getLastEntry(resource, domain);
+        if (isNotSent(lastEntry, SMLOutboxActionType.UNREGISTER) && smlOutboxDao.deleteNotSent(lastEntry.getId())) {
+            LOG.debug("Participant [{}] un-registration cancelled by the registration!", resource.getIdentifierValue());
+            resource.setSmlRegistered(true);
+            return;
+        }
+        if (resource.isSmlRegistered()) {
+            LOG.debug("Participant [{}] is already registered to SML!", resource.getIdentifierValue());
+            return;
+        }
+        addEntry(resource, domain, SMLOutboxActionType.REGISTER, smlIntegrationService.getNaptrServiceForResource(resource));
+    }
+
+    /**
+     * Method adds the participant un-registration to the SML outbox. The method must be called in the transaction of
+     * the resource deletion. If the last not yet sent entry of the participant is registration, the entry is
+     * removed instead.
+     *
+     * @param resource the deleted resource
+     * @param domain   the domain of the resource
+     */
+    @Transactional
+    public void enqueueUnregisterParticipant(DBResource resource, DBDomain domain) {
+        if (!isDomainIntegrated(domain)) {
+            LOG.debug("Skip SML un-registration of participant [{}]: SML integration is not enabled or domain [{}] is not registered!",
+                    resource.getIdentifierValue(), domain.getDomainCode());
+            return;
+        }
+        DBSMLOutboxEntry lastEntry = getLastEntry(resource, domain);
+        if (isNotSent(lastEntry, SMLOutboxActionType.REGISTER) && smlOutboxDao.deleteNotSent(lastEntry.getId())) {
+            LOG.debug("Participant [{}] registration cancelled by the un-registration!", resource.getIdentifierValue());
+            return;
+        }
+        boolean registrationInProgress = lastEntry != null && lastEntry.getAction() == SMLOutboxActionType.REGISTER;
+        if (!resource.isSmlRegistered() && !registrationInProgress) {
+            LOG.debug("Participant [{}] is not registered to SML!", resource.getIdentifierValue());
+            return;
+        }
+        addEntry(resource, domain, SMLOutboxActionType.UNREGISTER, null);
+    }
+
+    /**
+     * Method sends the due outbox entries to the SML. The entries are grouped by domain, and each domain entries
+     * are sent concurrently by the configured number of the workers (see the domain property
+     * bdmsl.participants.manage.parallel-requests). Each entry is claimed before it is sent, so the dispatchers
+     * of the cluster nodes do not send the same entry. The method is not in transaction.
+     *
+     * @return the number of the dispatched due entries
+     */
+    public int dispatch() {
+        if (!smlIntegrationService.isSMLIntegrationEnabled()) {
+            LOG.debug("SML integration is not enabled, skip dispatching the SML outbox!");
+            return 0;
+        }
+        if (!dispatching.compareAndSet(false, true)) {
+            LOG.debug("SML outbox dispatcher is already running!");
+            return 0;
+        }
+        try {
+            List<DBSMLOutboxEntry> entries = smlOutboxDao.getDueEntries(OffsetDateTime.now(),
+                    configurationService.getSMLOutboxBatchSize());
+            if (entries.isEmpty()) {
+                return 0;
+            }
+            LOG.info("Dispatch [{}] SML outbox entries", entries.size());
+            Map<Long, List<DBSMLOutboxEntry>> entriesByDomain = entries.stream()
+                    .collect(Collectors.groupingBy(entry -> entry.getDomain().getId(), LinkedHashMap::new, Collectors.toList()));
+            dispatchDomainEntries(entriesByDomain);
+            return entries.size();
+        } finally {
+            dispatching.set(false);
+        }
+    }
+
+    protected void dispatchDomainEntries(Map<Long, List<DBSMLOutboxEntry>> entriesByDomain) {
+        List<Runnable> workers = new ArrayList<>();
+        for (Map.Entry<Long, List<DBSMLOutboxEntry>> domainEntries : entriesByDomain.entrySet()) {
+            DBDomain domain = domainDao.find(domainEntries.getKey());
+            if (domain == null) {
+                LOG.warn("Domain [{}] for the SML outbox entries does not exist!", domainEntries.getKey());
+                continue;
+            }
+            Queue<DBSMLOutboxEntry> queue = new ConcurrentLinkedQueue<>(domainEntries.getValue());
+            int workerCount = Math.min(getParallelRequests(domain), queue.size());
+            for (int i = 0; i < workerCount; i++) {
+                workers.add(() -> processEntries(domain, queue));
+            }
+        }
+        if (workers.size() == 1) {
+            workers.get(0).run();
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(workers.size(), new SMPThreadFactory("sml-outbox-"));
+        try {
+            CompletableFuture.allOf(workers.stream()
+                    .map(worker -> CompletableFuture.runAsync(worker, executor))
+                    .toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    protected void processEntries(DBDomain domain, Queue<DBSMLOutboxEntry> queue) {
+        DBSMLOutboxEntry entry;
+        while ((entry = queue.poll()) != null) {
+            processEntry(domain, entry);
+        }
+    }
+
+    /**
+     * Method claims the entry and sends it to the SML. If the entry is sent, it is removed from the outbox and the
+     * resource SML registered flag is updated. If sending fails, the next attempt is scheduled with the exponential
+     * backoff.
+     *
+     * @param domain the domain of the entry
+     * @param entry  the outbox entry
+     */
+    protected void processEntry(DBDomain domain, DBSMLOutboxEntry entry) {
+        OffsetDateTime now = OffsetDateTime.now();
+        if (!smlOutboxDao.claim(entry.getId(), now, now.plusSeconds(configurationService.getSMLOutboxProcessingTimeoutInSeconds()))) {
+            LOG.debug("SML outbox entry [{}] is already claimed or removed!", entry.getId());
+            return;
+        }
+        String action = entry.getAction().name();
+        try {
+            boolean register = entry.getAction() == SMLOutboxActionType.REGISTER;
+            boolean sent = register ?
+                    smlConnector.registerInDns(entry.getIdentifierScheme(), entry.getIdentifierValue(), domain, entry.getNaptrService()) :
+                    smlConnector.unregisterFromDns(entry.getIdentifierScheme(), entry.getIdentifierValue(), domain);
+            smlOutboxDao.removeById(entry.getId());
+            if (sent && entry.getResourceId() != null) {
+                resourceDao.updateSmlRegistered(Collections.singletonList(entry.getResourceId()), register);
+            }
+            LOG.debug("SML outbox entry [{}] processed. Sent to SML: [{}]", entry, sent);
+            SMPMetrics.increment(SMPMetrics.METRIC_SML_OUTBOX, SMPMetrics.TAG_ACTION, action,
+                    SMPMetrics.TAG_OUTCOME, SMPMetrics.OUTCOME_SUCCESS);
+        } catch (RuntimeException exc) {
+            int attemptCount = entry.getAttemptCount() + 1;
+            int maxAttempts = configurationService.getSMLOutboxMaxAttempts();
+            SMLOutboxStatusType status = attemptCount >= maxAttempts ? SMLOutboxStatusType.FAILED : SMLOutboxStatusType.PENDING;
+            LOG.error("Failed to send SML outbox entry [" + entry + "], attempt [" + attemptCount + "/" + maxAttempts + "]", exc);
+            smlOutboxDao.updateFailedAttempt(entry.getId(), status, attemptCount,
+                    now.plusSeconds(getRetryDelayInSeconds(attemptCount)),
+                    StringUtils.left(ExceptionUtils.getRootCauseMessage(exc), MAX_MEDIUM_TEXT_LENGTH));
+            SMPMetrics.increment(SMPMetrics.METRIC_SML_OUTBOX, SMPMetrics.TAG_ACTION, action,
+                    SMPMetrics.TAG_OUTCOME, SMPMetrics.outcome(exc));
+        }
+    }
+
+    /**
+     * Returns the delay before the next attempt: the initial delay is doubled after each failed attempt and
+     * limited by the max delay.
+     *
+     * @param attemptCount the number of the failed attempts
+     * @return the delay in seconds
+     */
+    protected long getRetryDelayInSeconds(int attemptCount) {
+        long initialDelay = configurationService.getSMLOutboxRetryDelayInSeconds();
+        long maxDelay = configurationService.getSMLOutboxRetryMaxDelayInSeconds();
+        int shift = Math.min(Math.max(attemptCount - 1, 0), 30);
+        return Math.min(initialDelay << shift, maxDelay);
+    }
+
+    protected int getParallelRequests(DBDomain domain) {
+        Integer parallelRequests = resourceMetadataCache.getSnapshot()
+                .getDomainConfiguration(domain, SMPDomainPropertyEnum.SML_MANAGE_PARALLEL_REQUESTS)
+                .filter(configuration -> !configuration.isUseSystemDefault())
+                .map(configuration -> (Integer) PropertyUtils.parseProperty(SMPPropertyEnum.SML_MANAGE_PARALLEL_REQUESTS,
+                        configuration.getValue(), null))
+                .orElse(null);
+        return parallelRequests == null || parallelRequests < 1 ? configurationService.getManageSMLParallelRequests() : parallelRequests;
+    }
+
+    /**
+     * Returns the not yet sent SML outbox entries of the domain.
+     *
+     * @param domainId the domain id
+     * @return the list of the outbox entries
+     */
+    @Transactional(readOnly = true)
+    public List<SMLOutboxEntryRO> getDomainEntries(Long domainId) {
+        return smlOutboxDao.getEntriesForDomain(domainId).stream()
+                .map(this::toRO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Method schedules the failed entries of the domain for the immediate retry.
+     *
+     * @param domainId the domain id
+     * @return the number of the rescheduled entries
+     */
+    public int retryFailedDomainEntries(Long domainId) {
+        int count = smlOutboxDao.retryFailedForDomain(domainId, OffsetDateTime.now());
+        LOG.info("Rescheduled [{}] failed SML outbox entries for domain [{}]", count, domainId);
+        return count;
+    }
+
+    /**
+     * Returns the last outbox entry for each of the given resources.
+     *
+     * @param resourceIds the resource ids
+     * @return the map of the resource id to the last outbox entry
+     */
+    public Map<Long, DBSMLOutboxEntry> getLastEntriesForResources(List<Long> resourceIds) {
+        // entries are ordered by id, so the last entry of the resource overrides the older ones
+        return smlOutboxDao.getEntriesForResources(resourceIds).stream()
+                .collect(Collectors.toMap(DBSMLOutboxEntry::getResourceId, entry -> entry, (older, newer) -> newer));
+    }
+
+    private boolean isDomainIntegrated(DBDomain domain) {
+        return smlIntegrationService.isSMLIntegrationEnabled() && domain.isSmlRegistered();
+    }
+
+    private DBSMLOutboxEntry getLastEntry(DBResource resource, DBDomain domain) {
+        List<DBSMLOutboxEntry> entries = smlOutboxDao.getEntriesForParticipant(domain.getId(),
+                resource.getIdentifierValue(), resource.getIdentifierScheme());
+        return entries.isEmpty() ? null : entries.get(entries.size() - 1);
+    }
+
+    private boolean isNotSent(DBSMLOutboxEntry entry, SMLOutboxActionType action) {
+        return entry != null && entry.getAction() == action && entry.getStatus() != SMLOutboxStatusType.PROCESSING;
+    }
+
+    private void addEntry(DBResource resource, DBDomain domain, SMLOutboxActionType action, String naptrService) {
+        DBSMLOutboxEntry entry = new DBSMLOutboxEntry();
+        entry.setDomain(domain);
+        entry.setResourceId(resource.getId());
+        entry.setIdentifierValue(resource.getIdentifierValue());
+        entry.setIdentifierScheme(resource.getIdentifierScheme());
+        entry.setNaptrService(naptrService);
+        entry.setAction(action);
+        entry.setStatus(SMLOutboxStatusType.PENDING);
+        entry.setNextAttemptOn(OffsetDateTime.now());
+        smlOutboxDao.persist(entry);
+        LOG.debug("Added SML outbox entry [{}]", entry);
+    }
+
+    private SMLOutboxEntryRO toRO(DBSMLOutboxEntry entry) {
+        SMLOutboxEntryRO entryRO = new SMLOutboxEntryRO();
+        entryRO.setIdentifierValue(entry.getIdentifierValue());
+        entryRO.setIdentifierScheme(entry.getIdentifierScheme());
+        entryRO.setAction(entry.getAction().name());
+        entryRO.setStatus(entry.getStatus().name());
+        entryRO.setAttemptCount(entry.getAttemptCount());
+        entryRO.setCreatedOn(entry.getCreatedOn());
+        entryRO.setNextAttemptOn(entry.getNextAttemptOn());
+        entryRO.setLastError(entry.getLastError());
+        return entryRO;
+    }
+}
@@ -0,0 +1,327 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services;
+
+import eu.europa.ec.edelivery.smp.cron.SMPJobResult;
+import eu.europa.ec.edelivery.smp.cron.SMPJobStatistics;
+import eu.europa.ec.edelivery.smp.cron.SMPJobTask;
+import eu.europa.ec.edelivery.smp.cron.SMPJobType;
+import eu.europa.ec.edelivery.smp.data.dao.JobLockDao;
+import eu.europa.ec.edelivery.smp.data.ui.JobStatusRO;
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.monitor.SMPMetrics;
+import eu.europa.ec.edelivery.smp.utils.HttpUtils;
+import eu.europa.ec.edelivery.smp.utils.SMPThreadFactory;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static eu.europa.ec.edelivery.smp.data.model.CommonColumnsLengths.MAX_TEXT_LENGTH_256;
+
+/**
+ * The scheduled job runner. The cron triggers only submit the jobs to this service, and the jobs are executed
+ * on the bounded thread pool of the job pool (see {@link SMPJobType#getPool()}), so the long-running job does not
+ * block the scheduler and the jobs of the other pools. The job is not started if its previous run is still running
+ * on this node. The cluster singleton jobs are executed only if the node acquires the job database lock when
+ * running in cluster mode. The lock is held for smp.jobs.lock.timeout-seconds and is renewed while the job is
+ * running, so the lock of the long-running job does not expire and the job is not started on the other node.
+ * <p>
+ * For each run, the duration and the processed/failed item counts are recorded to the job statistics (shown in the
+ * admin UI) and to the {@link SMPMetrics#METRIC_JOB} metrics.
+ * <p>
+ * The service also runs the long-running administration tasks (e.g. the SML registration of the domain participants)
+ * in the background, so the request which starts the task is not blocked until the task is finished.
+ *
+ * @since 5.2
+ */
+@Service
+public class SMPJobService {
+
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(SMPJobService.class);
+
+    private final ConfigurationService configurationService;
+    private final JobLockDao jobLockDao;
+    private final Map<String, ThreadPoolExecutor> jobPools = new HashMap<>();
+    private final Map<SMPJobType, AtomicBoolean> runningJobs = new EnumMap<>(SMPJobType.class);
+    private final Map<SMPJobType, SMPJobStatistics> jobStatistics = new EnumMap<>(SMPJobType.class);
+    // the number of the background tasks is limited by the callers, e.g. one SML registration per domain
+    private final ExecutorService taskPool = Executors.newCachedThreadPool(new SMPThreadFactory("smp-task-"));
+    private final ScheduledExecutorService lockRenewalExecutor = Executors.newSingleThreadScheduledExecutor(
+            new SMPThreadFactory("smp-job-lock-renewal-"));
+    private final String nodeId;
+
+    public SMPJobService(ConfigurationService configurationService, JobLockDao jobLockDao) {
+        this.configurationService = configurationService;
+        this.jobLockDao = jobLockDao;
+        this.nodeId = StringUtils.left(HttpUtils.getServerAddress() + "/"
+                + ManagementFactory.getRuntimeMXBean().getName(), MAX_TEXT_LENGTH_256);
+
+        Map<String, Integer> poolSizes = new LinkedHashMap<>();
+        for (SMPJobType jobType : SMPJobType.values()) {
+            runningJobs.put(jobType, new AtomicBoolean(false));
+            jobStatistics.put(jobType, new SMPJobStatistics(jobType));
+            poolSizes.merge(jobType.getPool(), 1, Integer::sum);
+        }
+        // each job has at most one running and no queued run, so the pool never rejects the run of the idle job
+        poolSizes.forEach((pool, size) -> jobPools.put(pool, new ThreadPoolExecutor(size, size,
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(size),
+                new SMPThreadFactory("smp-job-" + pool + "-"))));
+    }
+
+    /**
+     * Method submits the job run to the job pool. The run is skipped if the previous run of the job is still running.
+     *
+     * @param jobType the job type
+     * @param task    the job task
+     * @return true if the job run was submitted
+     */
+    public boolean trigger(SMPJobType jobType, SMPJobTask task) {
+        AtomicBoolean running = runningJobs.get(jobType);
+        if (!running.compareAndSet(false, true)) {
+            LOG.debug("Job [{}] is still running, skip the triggered run!", jobType);
+            skipped(jobType, SMPJobStatistics.RunStatus.SKIPPED_RUNNING);
+            return false;
+        }
+        try {
+            jobPools.get(jobType.getPool()).execute(() -> {
+                try {
+                    runJob(jobType, task);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RejectedExecutionException exc) {
+            running.set(false);
+            LOG.warn("Job [{}] run rejected: [{}]", jobType, ExceptionUtils.getRootCauseMessage(exc));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Method executes the job in the current thread. The cluster singleton job is executed only if the job lock is
+     * acquired, and the lock is released after the run.
+     *
+     * @param jobType the job type
+     * @param task    the job task
+     */
+    protected void runJob(SMPJobType jobType, SMPJobTask task) {
+        boolean clusterLock = jobType.isClusterSingleton() && configurationService.isClusterEnabled();
+        if (clusterLock && !tryLock(jobType)) {
+            LOG.debug("Job [{}] is locked by the other node, skip the run!", jobType);
+            skipped(jobType, SMPJobStatistics.RunStatus.SKIPPED_LOCKED);
+            return;
+        }
+        ScheduledFuture<?> lockRenewal = clusterLock ? scheduleLockRenewal(jobType) : null;
+        SMPJobStatistics statistics = jobStatistics.get(jobType);
+        statistics.started(OffsetDateTime.now());
+        long startNanos = System.nanoTime();
+        SMPJobResult result = null;
+        Throwable error = null;
+        try {
+            result = task.execute();
+        } catch (RuntimeException exc) {
+            LOG.error("Job [" + jobType + "] failed!", exc);
+            error = exc;
+        } finally {
+            if (lockRenewal != null) {
+                lockRenewal.cancel(false);
+            }
+            if (clusterLock) {
+                unlock(jobType);
+            }
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            statistics.finished(OffsetDateTime.now(), durationMs, result,
+                    error == null ? null : ExceptionUtils.getRootCauseMessage(error));
+            recordMetrics(jobType, startNanos, result, error);
+            LOG.debug("Job [{}] finished in [{}] ms with result [{}]", jobType, durationMs, result);
+        }
+    }
+
+    /**
+     * Method runs the task in the background. The task must persist its progress and result, because the failure
+     * of the task is only logged.
+     *
+     * @param taskName the task name for the logging
+     * @param task     the task
+     */
+    public void runInBackground(String taskName, Runnable task) {
+        taskPool.execute(() -> {
+            LOG.info("Start the background task [{}]", taskName);
+            try {
+                task.run();
+            } catch (RuntimeException exc) {
+                LOG.error("Background task [" + taskName + "] failed!", exc);
+            }
+        });
+    }
+
+    protected boolean tryLock(SMPJobType jobType) {
+        OffsetDateTime now = OffsetDateTime.now();
+        try {
+            return jobLockDao.tryLock(jobType.name(), nodeId, now,
+                    now.plusSeconds(configurationService.getJobLockTimeoutInSeconds()));
+        } catch (RuntimeException exc) {
+            // the lock row was concurrently created by the other node
+            LOG.debug("Failed to acquire lock for the job [{}]: [{}]", jobType, ExceptionUtils.getRootCauseMessage(exc));
+            return false;
+        }
+    }
+
+    /**
+     * Method schedules the periodic renewal of the job lock. The lock is renewed three times per lock timeout, so
+     * the lock does not expire if a single renewal fails. If the lock can not be renewed because it expired or was
+     * acquired by the other node, the renewal is stopped and the error is logged: the job might run concurrently on
+     * the other node.
+     *
+     * @param jobType the job type
+     * @return the scheduled renewal, or null if the renewal can not be scheduled
+     */
+    protected ScheduledFuture<?> scheduleLockRenewal(SMPJobType jobType) {
+        long intervalMillis = getLockRenewalIntervalInMillis();
+        AtomicReference<ScheduledFuture<?>> renewal = new AtomicReference<>();
+        try {
+            renewal.set(lockRenewalExecutor.scheduleAtFixedRate(() -> {
+                if (!renewLock(jobType)) {
+                    LOG.error("The lock of the job [{}] was lost while the job is running. The job might be started on the other node!", jobType);
+                    renewal.get().cancel(false);
+                }
+            }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS));
+        } catch (RejectedExecutionException exc) {
+            LOG.warn("Can not schedule the lock renewal for the job [{}]: [{}]", jobType, ExceptionUtils.getRootCauseMessage(exc));
+        }
+        return renewal.get();
+    }
+
+    protected long getLockRenewalIntervalInMillis() {
+        return Math.max(1000L, TimeUnit.SECONDS.toMillis(configurationService.getJobLockTimeoutInSeconds()) / 3);
+    }
+
+    protected boolean renewLock(SMPJobType jobType) {
+        OffsetDateTime now = OffsetDateTime.now();
+        try {
+            return jobLockDao.renew(jobType.name(), nodeId, now,
+                    now.plusSeconds(configurationService.getJobLockTimeoutInSeconds()));
+        } catch (RuntimeException exc) {
+            // the renewal is retried on the next run, before the lock expires
+            LOG.warn("Failed to renew lock for the job [{}]: [{}]", jobType, ExceptionUtils.getRootCauseMessage(exc));
+            return true;
+        }
+    }
+
+    protected void unlock(SMPJobType jobType) {
+        try {
+            jobLockDao.unlock(jobType.name(), nodeId, OffsetDateTime.now());
+        } catch (RuntimeException exc) {
+            LOG.warn("Failed to release lock for the job [{}]. The lock expires after the lock timeout: [{}]", jobType,
+                    ExceptionUtils.getRootCauseMessage(exc));
+        }
+    }
+
+    protected void skipped(SMPJobType jobType, SMPJobStatistics.RunStatus status) {
+        jobStatistics.get(jobType).skipped(status);
+        SMPMetrics.increment(SMPMetrics.METRIC_JOB_SKIPPED, SMPMetrics.TAG_TYPE, jobType.name(),
+                SMPMetrics.TAG_RESULT, status.name().toLowerCase());
+    }
+
+    protected void recordMetrics(SMPJobType jobType, long startNanos, SMPJobResult result, Throwable error) {
+        SMPMetrics.recordTime(SMPMetrics.METRIC_JOB, startNanos, SMPMetrics.TAG_TYPE, jobType.name(),
+                SMPMetrics.TAG_OUTCOME, SMPMetrics.outcome(error));
+        if (result == null) {
+            return;
+        }
+        if (result.getProcessed() > 0) {
+            SMPMetrics.increment(SMPMetrics.METRIC_JOB_ITEMS, result.getProcessed(), SMPMetrics.TAG_TYPE, jobType.name(),
+                    SMPMetrics.TAG_RESULT, SMPMetrics.OUTCOME_SUCCESS);
+        }
+        if (result.getFailed() > 0) {
+            SMPMetrics.increment(SMPMetrics.METRIC_JOB_ITEMS, result.getFailed(), SMPMetrics.TAG_TYPE, jobType.name(),
+                    SMPMetrics.TAG_RESULT, SMPMetrics.OUTCOME_FAILURE);
+        }
+    }
+
+    /**
+     * Returns the run statistics of all jobs on this node.
+     *
+     * @return the list of the job statistics ordered by the job type
+     */
+    public List<SMPJobStatistics> getStatistics() {
+        return new ArrayList<>(jobStatistics.values());
+    }
+
+    public SMPJobStatistics getStatistics(SMPJobType jobType) {
+        return jobStatistics.get(jobType);
+    }
+
+    /**
+     * Returns the status and the run statistics of all jobs on this node for the admin UI.
+     *
+     * @return the list of the job statuses ordered by the job type
+     */
+    public List<JobStatusRO> getJobStatusList() {
+        return jobStatistics.values().stream()
+                .map(this::toJobStatusRO)
+                .collect(Collectors.toList());
+    }
+
+    protected JobStatusRO toJobStatusRO(SMPJobStatistics statistics) {
+        JobStatusRO jobStatus = new JobStatusRO();
+        synchronized (statistics) {
+            SMPJobType jobType = statistics.getJobType();
+            jobStatus.setJobName(jobType.name());
+            jobStatus.setPool(jobType.getPool());
+            jobStatus.setClusterSingleton(jobType.isClusterSingleton());
+            jobStatus.setRunning(statistics.isRunning());
+            jobStatus.setLastStartedOn(statistics.getLastStartedOn());
+            jobStatus.setLastFinishedOn(statistics.getLastFinishedOn());
+            jobStatus.setLastDurationMs(statistics.getLastDurationMs());
+            jobStatus.setLastProcessed(statistics.getLastProcessed());
+            jobStatus.setLastFailed(statistics.getLastFailed());
+            jobStatus.setLastStatus(statistics.getLastStatus() == null ? null : statistics.getLastStatus().name());
+            jobStatus.setLastError(statistics.getLastError());
+            jobStatus.setRunCount(statistics.getRunCount());
+            jobStatus.setFailureCount(statistics.getFailureCount());
+            jobStatus.setSkippedCount(statistics.getSkippedCount());
+            jobStatus.setTotalProcessed(statistics.getTotalProcessed());
+            jobStatus.setTotalFailed(statistics.getTotalFailed());
+        }
+        return jobStatus;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobPools.values().forEach(ThreadPoolExecutor::shutdownNow);
+        taskPool.shutdownNow();
+        lockRenewalExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,70 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services.mail;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The composed mail: the subject and the html content rendered from the mail templates, and the mail recipients.
+ * The mails with the identical subject and content can be merged to one mail with all recipients in BCC.
+ *
+ * @since 5.2
+ */
+public class MailMessage {
+
+    private final String subject;
+    private final String htmlContent;
+    private final Set<String> recipients = new LinkedHashSet<>();
+
+    public MailMessage(String subject, String htmlContent) {
+        this.subject = subject;
+        this.htmlContent = htmlContent;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getHtmlContent() {
+        return htmlContent;
+    }
+
+    public List<String> getRecipients() {
+        return new ArrayList<>(recipients);
+    }
+
+    public void addRecipients(String... recipientList) {
+        for (String recipient : recipientList) {
+            if (recipient != null && !recipient.trim().isEmpty()) {
+                recipients.add(recipient.trim());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MailMessage{" +
+                "subject='" + subject + '\'' +
+                ", recipients=" + recipients.size() +
+                '}';
+    }
+}
@@ -25,6 +25,7 @@ import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Component;
@@ -32,6 +33,10 @@ import org.springframework.stereotype.Component;
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -64,24 +69,9 @@ public class MailService {
             throw new IllegalArgumentException("The 'from' property cannot be null");
         }
 
-
-        MimeMessage message = javaMailSender.createMimeMessage();
-        String subject;
+        MailMessage mailMessage = composeMail(model, to);
         try {
-
-            MimeMessageHelper helper = getMimeMessageHelper(message);
-            subject = mailTemplateService.getMailTitle(model);
-            String html = mailTemplateService.getMailHtmlContent(model);
-
-            // if to contains multiple emails, split them and send as anonymously as BCC
-            if (to.contains(";")) {
-                helper.setBcc(to.split(";"));
-            } else {
-                helper.setTo(to);
-            }
-            helper.setText(html, true);
-            helper.setSubject(subject);
-            helper.setFrom(from);
+            MimeMessage message = createMimeMessage(mailMessage, from);
             LOG.info("Send mail to : [{}:{}]", javaMailSender.getHost(), javaMailSender.getPort());
 
             javaMailSender.send(message);
@@ -89,7 +79,87 @@ public class MailService {
             LOG.error("Exception while sending mail from [{}] to [{}]", from, to, e);
             throw new SMPRuntimeException(ErrorCode.MAIL_SUBMISSION_ERROR, e, ExceptionUtils.getRootCauseMessage(e));
         }
-        return subject;
+        return mailMessage.getSubject();
+    }
+
+    /**
+     * Method renders the mail subject and content from the mail templates.
+     *
+     * @param model the mail data model
+     * @param to    the mail recipients. Multiple recipients are separated by ';'
+     * @return the composed mail
+     */
+    public MailMessage composeMail(final MailDataModel model, final String to) {
+        MailMessage mailMessage = new MailMessage(mailTemplateService.getMailTitle(model),
+                mailTemplateService.getMailHtmlContent(model));
+        if (StringUtils.isNotBlank(to)) {
+            mailMessage.addRecipients(to.split(";"));
+        }
+        return mailMessage;
+    }
+
+    /**
+     * Method sends the mails over the same SMTP connection. The method does not throw the exception when the mails
+     * can not be sent, but it returns the errors of the mails which were not sent.
+     *
+     * @param mailMessages the mails to send
+     * @param from         the mail sender
+     * @return the map of the mails which were not sent and their errors. The map is empty if all mails were sent.
+     */
+    public Map<MailMessage, Exception> sendMails(final List<MailMessage> mailMessages, final String from) {
+        if (StringUtils.isBlank(from)) {
+            throw new IllegalArgumentException("The 'from' property cannot be null");
+        }
+        Map<MailMessage, Exception> failedMessages = new HashMap<>();
+        Map<MimeMessage, MailMessage> mimeMessages = new LinkedHashMap<>();
+        for (MailMessage mailMessage : mailMessages) {
+            try {
+                mimeMessages.put(createMimeMessage(mailMessage, from), mailMessage);
+            } catch (MessagingException | RuntimeException e) {
+                LOG.error("Exception while creating mail [{}]", mailMessage, e);
+                failedMessages.put(mailMessage, e);
+            }
+        }
+        if (mimeMessages.isEmpty()) {
+            return failedMessages;
+        }
+
+        LOG.info("Send [{}] mails to : [{}:{}]", mimeMessages.size(), javaMailSender.getHost(), javaMailSender.getPort());
+        try {
+            javaMailSender.send(mimeMessages.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            // some of the mails were not sent
+            e.getFailedMessages().forEach((message, exc) -> {
+                MailMessage mailMessage = mimeMessages.get(message);
+                if (mailMessage != null) {
+                    failedMessages.put(mailMessage, exc);
+                }
+            });
+            if (e.getFailedMessages().isEmpty()) {
+                mimeMessages.values().forEach(mailMessage -> failedMessages.put(mailMessage, e));
+            }
+        } catch (MailException e) {
+            // the connection to the mail server failed
+            LOG.error("Exception while sending [{}] mails from [{}]", mimeMessages.size(), from, e);
+            mimeMessages.values().forEach(mailMessage -> failedMessages.put(mailMessage, e));
+        }
+        return failedMessages;
+    }
+
+    protected MimeMessage createMimeMessage(final MailMessage mailMessage, final String from) throws MessagingException {
+        MimeMessage message = javaMailSender.createMimeMessage();
+        MimeMessageHelper helper = getMimeMessageHelper(message);
+        List<String> recipients = mailMessage.getRecipients();
+        // if there are multiple recipients, send the mail anonymously as BCC
+        if (recipients.size() > 1) {
+            helper.setBcc(recipients.toArray(new String[0]));
+        } else if (!recipients.isEmpty()) {
+            helper.setTo(recipients.get(0));
+        }
+        helper.setText(mailMessage.getHtmlContent(), true);
+        helper.setSubject(mailMessage.getSubject());
+        helper.setFrom(from);
+        return message;
     }
 
     MimeMessageHelper getMimeMessageHelper(MimeMessage message) throws MessagingException {
@@ -27,6 +27,7 @@ import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
 import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.monitor.SMPMetrics;
 import eu.europa.ec.edelivery.smp.services.spi.SPIUtils;
 import eu.europa.ec.edelivery.smp.services.spi.data.SpiRequestData;
 import eu.europa.ec.edelivery.smp.servlet.ResourceResponse;
@@ -37,12 +38,12 @@ import eu.europa.ec.smp.spi.exceptions.ResourceException;
 import eu.europa.ec.smp.spi.resource.ResourceDefinitionSpi;
 import eu.europa.ec.smp.spi.resource.ResourceHandlerSpi;
 import eu.europa.ec.smp.spi.resource.SubresourceDefinitionSpi;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -110,23 +111,29 @@ public class AbstractResourceHandler {
      * @return data handler request data
      */
     public RequestData buildRequestDataForResource(DBDomain domain, DBResource resource) {
-
-        byte[] content = resourceStorage.getDocumentContentForResource(resource);
-        if (content == null || content.length == 0) {
+        long start = System.nanoTime();
+        StringNamedSubstitutor.Template template = resourceStorage.getDocumentTemplateForResource(resource, EXPECTED_RESOURCE_CHARSET);
+        if (template == null) {
             throw new SMPRuntimeException(ErrorCode.RESOURCE_DOCUMENT_MISSING, resource.getIdentifierValue(), resource.getIdentifierScheme());
         }
-        return buildRequestDataForResource(domain, resource, new ByteArrayInputStream(content));
+        Map<String, String> docProp = template.hasPlaceholders() ? resourceStorage.getResourceProperties(resource)
+                : Collections.emptyMap();
+        SMPMetrics.recordStage(SMPMetrics.RequestStage.LOAD, domain.getDomainCode(), start);
+
+        start = System.nanoTime();
+        InputStream document = template.render(docProp);
+        SMPMetrics.recordStage(SMPMetrics.RequestStage.SUBSTITUTE, domain.getDomainCode(), start);
+        return new SpiRequestData(domain.getDomainCode(),
+                SPIUtils.toUrlIdentifier(resource),
+                document);
     }
 
     public RequestData buildRequestDataForResource(DBDomain domain, DBResource resource, InputStream inputStream) {
         Map<String, String> docProp = resourceStorage.getResourceProperties(resource);
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            if (inputStream != null && inputStream.available() != 0) {
-                StringNamedSubstitutor.resolve(inputStream, docProp, baos, EXPECTED_RESOURCE_CHARSET);
-            }
+        try {
             return new SpiRequestData(domain.getDomainCode(),
                     SPIUtils.toUrlIdentifier(resource),
-                    new ByteArrayInputStream(baos.toByteArray()));
+                    compileTemplate(inputStream).render(docProp));
         } catch (IOException e) {
             throw new SMPRuntimeException(ErrorCode.RESOURCE_DOCUMENT_MISSING, resource.getIdentifierValue(), resource.getIdentifierScheme());
         }
@@ -142,13 +149,24 @@ public class AbstractResourceHandler {
      */
     public RequestData buildRequestDataForSubResource(DBDomain domain, DBResource resource,
                                                       DBSubresource subresource) {
-        byte[] content = resourceStorage.getDocumentContentForSubresource(subresource);
-        if (content == null || content.length == 0) {
+        long start = System.nanoTime();
+        StringNamedSubstitutor.Template template = resourceStorage.getDocumentTemplateForSubresource(subresource, EXPECTED_RESOURCE_CHARSET);
+        if (template == null) {
             throw new SMPRuntimeException(ErrorCode.SUBRESOURCE_DOCUMENT_MISSING,
                     subresource.getIdentifierValue(), subresource.getIdentifierScheme(),
                     resource.getIdentifierValue(), resource.getIdentifierScheme());
         }
-        return buildRequestDataForSubResource(domain, resource, subresource, new ByteArrayInputStream(content));
+        Map<String, String> docProp = template.hasPlaceholders() ? resourceStorage.getSubresourceProperties(resource, subresource)
+                : Collections.emptyMap();
+        SMPMetrics.recordStage(SMPMetrics.RequestStage.LOAD, domain.getDomainCode(), start);
+
+        start = System.nanoTime();
+        InputStream document = template.render(docProp);
+        SMPMetrics.recordStage(SMPMetrics.RequestStage.SUBSTITUTE, domain.getDomainCode(), start);
+        return new SpiRequestData(domain.getDomainCode(),
+                SPIUtils.toUrlIdentifier(resource),
+                SPIUtils.toUrlIdentifier(subresource),
+                document);
     }
 
     /**
@@ -162,22 +180,26 @@ public class AbstractResourceHandler {
      */
     public RequestData buildRequestDataForSubResource(DBDomain domain, DBResource resource, DBSubresource subresource, InputStream inputStream) {
         Map<String, String> docProp = resourceStorage.getSubresourceProperties(resource, subresource);
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            if (inputStream != null && inputStream.available() != 0) {
-                StringNamedSubstitutor.resolve(inputStream, docProp, baos, EXPECTED_RESOURCE_CHARSET);
-            }
+        try {
             return new SpiRequestData(domain.getDomainCode(),
                     SPIUtils.toUrlIdentifier(resource),
                     SPIUtils.toUrlIdentifier(subresource),
-                    new ByteArrayInputStream(baos.toByteArray()));
+                    compileTemplate(inputStream).render(docProp));
         } catch (IOException e) {
             throw new SMPRuntimeException(ErrorCode.RESOURCE_DOCUMENT_MISSING, resource.getIdentifierValue(), resource.getIdentifierScheme());
         }
     }
 
+    private StringNamedSubstitutor.Template compileTemplate(InputStream inputStream) throws IOException {
+        byte[] content = inputStream == null ? new byte[0] : IOUtils.toByteArray(inputStream);
+        return StringNamedSubstitutor.compile(content, EXPECTED_RESOURCE_CHARSET);
+    }
+
     public void handleReadResource(ResourceHandlerSpi handlerSpi, RequestData requestData, ResponseData responseData, ResourceResponse resourceResponse) {
+        long start = System.nanoTime();
         try {
             handlerSpi.readResource(requestData, responseData);
+            SMPMetrics.recordStage(SMPMetrics.RequestStage.RENDER, requestData.getDomainCode(), start);
             if (StringUtils.isNotBlank(responseData.getContentType())) {
                 resourceResponse.setContentType(responseData.getContentType());
             }
@@ -0,0 +1,107 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services.resource;
+
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.services.ConfigurationService;
+import eu.europa.ec.edelivery.smp.utils.StringNamedSubstitutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The cache of the compiled document templates. The templates are stored by the document revision (document id and
+ * current version) and therefore never become stale: a new document version gets a new revision key and the templates
+ * of the old revisions are evicted as the least recently used entries when the cache exceeds the configured size.
+ *
+ * @since 5.2
+ */
+@Component
+public class DocumentTemplateCache {
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(DocumentTemplateCache.class);
+
+    private final ConfigurationService configurationService;
+    private final LinkedHashMap<String, StringNamedSubstitutor.Template> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private long cacheSize = 0;
+
+    public DocumentTemplateCache(ConfigurationService configurationService) {
+        this.configurationService = configurationService;
+    }
+
+    public boolean isEnabled() {
+        return getMaxSizeInBytes() > 0;
+    }
+
+    /**
+     * Method returns the cached template for the document revision.
+     *
+     * @param revision the document revision
+     * @return the compiled template or null if template is not cached
+     */
+    public StringNamedSubstitutor.Template get(String revision) {
+        if (revision == null || !isEnabled()) {
+            return null;
+        }
+        synchronized (cache) {
+            return cache.get(revision);
+        }
+    }
+
+    public void put(String revision, StringNamedSubstitutor.Template template) {
+        long maxSize = getMaxSizeInBytes();
+        if (revision == null || template == null || maxSize <= 0) {
+            return;
+        }
+        if (template.getSize() > maxSize) {
+            LOG.debug("Template for revision [{}] with size [{}] exceeds the cache size!", revision, template.getSize());
+            return;
+        }
+        synchronized (cache) {
+            StringNamedSubstitutor.Template previous = cache.put(revision, template);
+            cacheSize += template.getSize() - (previous == null ? 0 : previous.getSize());
+            Iterator<Map.Entry<String, StringNamedSubstitutor.Template>> iterator = cache.entrySet().iterator();
+            while (cacheSize > maxSize && iterator.hasNext()) {
+                // remove the least recently accessed entries
+                cacheSize -= iterator.next().getValue().getSize();
+                iterator.remove();
+            }
+        }
+    }
+
+    public void clear() {
+        LOG.debug("Clear document template cache");
+        synchronized (cache) {
+            cache.clear();
+            cacheSize = 0;
+        }
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private long getMaxSizeInBytes() {
+        return configurationService.getDocumentTemplateCacheMaxSizeInKB() * 1024L;
+    }
+}
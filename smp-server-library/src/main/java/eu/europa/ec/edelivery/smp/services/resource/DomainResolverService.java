@@ -19,7 +19,6 @@
 package eu.europa.ec.edelivery.smp.services.resource;
 
 import eu.europa.ec.edelivery.smp.config.enums.SMPPropertyEnum;
-import eu.europa.ec.edelivery.smp.data.dao.DomainDao;
 import eu.europa.ec.edelivery.smp.data.dao.GroupDao;
 import eu.europa.ec.edelivery.smp.data.model.DBDomain;
 import eu.europa.ec.edelivery.smp.data.model.DBGroup;
@@ -56,12 +55,12 @@ public class DomainResolverService {
      * Domain pattern as defined in documentation since SMP 3.0.0
      */
     public static final Pattern DOMAIN_ID_PATTERN = Pattern.compile("[a-zA-Z0-9]{1,50}");
-    final DomainDao domainDao;
+    final ResourceMetadataCache resourceMetadataCache;
     final GroupDao groupDao;
     final ConfigurationService configurationService;
 
-    public DomainResolverService(DomainDao domainDao, ConfigurationService configurationService, GroupDao groupDao) {
-        this.domainDao = domainDao;
+    public DomainResolverService(ResourceMetadataCache resourceMetadataCache, ConfigurationService configurationService, GroupDao groupDao) {
+        this.resourceMetadataCache = resourceMetadataCache;
         this.groupDao = groupDao;
         this.configurationService = configurationService;
     }
@@ -87,17 +86,17 @@ public class DomainResolverService {
      */
     public DBDomain resolveDomain(String headerParameter, String pathParameter) {
         LOG.info("Resolve domain for HTTP header [{}] and path parameter [{}]", headerParameter, pathParameter);
-
+        ResourceMetadataCache.MetadataSnapshot metadata = resourceMetadataCache.getSnapshot();
 
         // get single domain
-        Optional<DBDomain> optDomain = domainDao.getTheOnlyDomain();
+        Optional<DBDomain> optDomain = metadata.getTheOnlyDomain();
         if (optDomain.isPresent()) {
             LOG.debug("Only one domain is registered to DomiSmp [{}]", optDomain.get().getDomainCode());
             return optDomain.get();
         }
         // get
         if (StringUtils.isNotBlank(headerParameter)) {
-            optDomain = validatedAndReturnDomainByCode(headerParameter);
+            optDomain = validatedAndReturnDomainByCode(metadata, headerParameter);
             if (optDomain.isPresent()) {
                 LOG.debug("Located domain by the http header [{}]", headerParameter);
                 return optDomain.get();
@@ -106,19 +105,19 @@ public class DomainResolverService {
             }
         }
 
-        optDomain = domainDao.getDomainByCode(pathParameter);
+        optDomain = metadata.getDomainByCode(pathParameter);
         if (optDomain.isPresent()) {
             LOG.debug("Located domain by the path parameter header [{}]", pathParameter);
             return optDomain.get();
         }
 
         String domainCode = configurationService.getDefaultDomainCode();
-        optDomain = domainDao.getDomainByCode(domainCode);
+        optDomain = metadata.getDomainByCode(domainCode);
         if (optDomain.isPresent()) {
             LOG.debug("Located domain by DomiSMP configuration [{}] value [{}]", SMPPropertyEnum.DEFAULT_DOMAIN.getProperty(), domainCode);
             return optDomain.get();
         }
-        optDomain = domainDao.getFirstDomain();
+        optDomain = metadata.getFirstDomain();
         if (optDomain.isPresent()) {
             DBDomain domain = optDomain.get();
             LOG.info("Can not locate the domain, user the registered domain [{}]", domain.getDomainCode());
@@ -128,13 +127,17 @@ public class DomainResolverService {
     }
 
     public Optional<DBDomain> validatedAndReturnDomainByCode(final String domain) {
+        return validatedAndReturnDomainByCode(resourceMetadataCache.getSnapshot(), domain);
+    }
+
+    protected Optional<DBDomain> validatedAndReturnDomainByCode(ResourceMetadataCache.MetadataSnapshot metadata, final String domain) {
 
         // else test if domain is ok.
         if (!DOMAIN_ID_PATTERN.matcher(domain).matches()) {
             throw new SMPRuntimeException(INVALID_DOMAIN_CODE, domain, DOMAIN_ID_PATTERN);
         }
         // get domain by code
-        return domainDao.getDomainByCode(domain);
+        return metadata.getDomainByCode(domain);
     }
 
 
@@ -33,6 +33,7 @@ public class ResolvedData {
     DBSubresourceDef subResourceDef;
     DBResource resource;
     DBSubresource subresource;
+    String snapshotKey;
 
     public DBDomain getDomain() {
         return domain;
@@ -89,4 +90,15 @@ public class ResolvedData {
     public void setGroup(DBGroup group) {
         this.group = group;
     }
+
+    /**
+     * Returns the {@link ResourceSnapshotStore} key of the read request or null if the response is not stored.
+     */
+    public String getSnapshotKey() {
+        return snapshotKey;
+    }
+
+    public void setSnapshotKey(String snapshotKey) {
+        this.snapshotKey = snapshotKey;
+    }
 }
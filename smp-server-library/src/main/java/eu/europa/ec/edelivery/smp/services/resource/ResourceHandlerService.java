@@ -19,10 +19,13 @@
 package eu.europa.ec.edelivery.smp.services.resource;
 
 
+import eu.europa.ec.edelivery.smp.config.enums.SMPDomainPropertyEnum;
+import eu.europa.ec.edelivery.smp.config.enums.SMPPropertyEnum;
 import eu.europa.ec.edelivery.smp.data.dao.GroupDao;
 import eu.europa.ec.edelivery.smp.data.dao.ResourceDao;
 import eu.europa.ec.edelivery.smp.data.dao.ResourceMemberDao;
 import eu.europa.ec.edelivery.smp.data.enums.EventSourceType;
+import eu.europa.ec.edelivery.smp.data.enums.VisibilityType;
 import eu.europa.ec.edelivery.smp.data.model.DBDomain;
 import eu.europa.ec.edelivery.smp.data.model.DBGroup;
 import eu.europa.ec.edelivery.smp.data.model.doc.DBDocument;
@@ -36,8 +39,14 @@ import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
 import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
-import eu.europa.ec.edelivery.smp.services.SMLIntegrationService;
+import eu.europa.ec.edelivery.smp.monitor.SMPMetrics;
+import eu.europa.ec.edelivery.smp.services.ConfigurationService;
+import eu.europa.ec.edelivery.smp.services.SMLOutboxService;
 import eu.europa.ec.edelivery.smp.services.spi.data.SpiResponseData;
+import eu.europa.ec.edelivery.smp.utils.HttpCacheUtils;
+import eu.europa.ec.edelivery.smp.utils.HttpEncodingUtils;
+import eu.europa.ec.edelivery.smp.utils.PropertyUtils;
+import eu.europa.ec.edelivery.smp.utils.SmpUrlBuilder;
 import eu.europa.ec.edelivery.smp.servlet.ResourceRequest;
 import eu.europa.ec.edelivery.smp.servlet.ResourceResponse;
 import eu.europa.ec.smp.spi.api.model.RequestData;
@@ -47,13 +56,23 @@ import eu.europa.ec.smp.spi.resource.ResourceDefinitionSpi;
 import eu.europa.ec.smp.spi.resource.ResourceHandlerSpi;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import static eu.europa.ec.edelivery.smp.servlet.WebConstants.HTTP_RESPONSE_CODE_CREATED;
+import static eu.europa.ec.edelivery.smp.servlet.WebConstants.HTTP_RESPONSE_CODE_NOT_MODIFIED;
 import static eu.europa.ec.edelivery.smp.servlet.WebConstants.HTTP_RESPONSE_CODE_UPDATED;
 
 /**
@@ -68,55 +87,397 @@ public class ResourceHandlerService extends AbstractResourceHandler {
 
     final ResourceMemberDao resourceMemberDao;
     final GroupDao groupDao;
-    final SMLIntegrationService integrationService;
+    final SMLOutboxService smlOutboxService;
     final DocumentVersionService documentVersionService;
+    final ResourceResponseCache resourceResponseCache;
+    final SmpUrlBuilder smpUrlBuilder;
+    final ResourceMetadataCache resourceMetadataCache;
+    final ConfigurationService configurationService;
+    final ResourceSnapshotStore resourceSnapshotStore;
 
     public ResourceHandlerService(List<ResourceDefinitionSpi> resourceDefinitionSpiList,
                                   ResourceMemberDao resourceMemberDao,
                                   GroupDao groupDao,
                                   ResourceStorage resourceStorage,
-                                  SMLIntegrationService integrationService,
-                                  DocumentVersionService documentVersionService) {
+                                  SMLOutboxService smlOutboxService,
+                                  DocumentVersionService documentVersionService,
+                                  ResourceResponseCache resourceResponseCache,
+                                  SmpUrlBuilder smpUrlBuilder,
+                                  ResourceMetadataCache resourceMetadataCache,
+                                  ConfigurationService configurationService,
+                                  ResourceSnapshotStore resourceSnapshotStore) {
         super(resourceDefinitionSpiList, resourceStorage);
         this.resourceMemberDao = resourceMemberDao;
         this.groupDao = groupDao;
-        this.integrationService = integrationService;
+        this.smlOutboxService = smlOutboxService;
         this.documentVersionService = documentVersionService;
+        this.resourceResponseCache = resourceResponseCache;
+        this.smpUrlBuilder = smpUrlBuilder;
+        this.resourceMetadataCache = resourceMetadataCache;
+        this.configurationService = configurationService;
+        this.resourceSnapshotStore = resourceSnapshotStore;
     }
 
     public void readResource(ResourceRequest resourceRequest,
                              ResourceResponse resourceResponse) {
         LOG.debug("Handle the READ action for resource request [{}]", resourceRequest);
         ResolvedData resolvedData = resourceRequest.getResolvedData();
+        DBResource resource = resolvedData.getResource();
+        String snapshotKey = getSnapshotKey(resolvedData);
+        long changeSequence = resourceSnapshotStore.getChangeSequence();
+        ResourceStorage.DocumentRevision revision = resourceStorage.getDocumentRevisionForResource(resource);
+        String fingerprint = getResponseFingerprint(resolvedData.getDomain(), revision);
+        if (isNotModified(resourceRequest, resourceResponse, revision, fingerprint, snapshotKey)) {
+            if (snapshotKey != null) {
+                resourceSnapshotStore.touch(snapshotKey, fingerprint, changeSequence);
+            }
+            return;
+        }
+
         ResourceHandlerSpi handlerSpi = getResourceHandler(resolvedData.getResourceDef());
         // set default mimetype - it can be overwritten by handler
         resourceResponse.setContentType(resolvedData.getResourceDef().getMimeType());
 
-        RequestData requestData = buildRequestDataForResource(resolvedData.getDomain(), resolvedData.getResource());
-        ResponseData responseData = new SpiResponseData(resourceResponse.getOutputStream());
-        // get resource byte array
-
-        handleReadResource(handlerSpi, requestData, responseData, resourceResponse);
+        if (!resourceResponseCache.isEnabled() && snapshotKey == null) {
+            RequestData requestData = buildRequestDataForResource(resolvedData.getDomain(), resource);
+            ResponseData responseData = new SpiResponseData(resourceResponse.getOutputStream());
+            handleReadResource(handlerSpi, requestData, responseData, resourceResponse);
+            return;
+        }
 
+        String encoding = getResponseEncoding(resourceRequest, snapshotKey);
+        ResourceResponseCache.CachedResponse response = handleCachedReadResource(resolvedData.getDomain().getDomainCode(),
+                resource.getId(), null, fingerprint, encoding, handlerSpi,
+                () -> buildRequestDataForResource(resolvedData.getDomain(), resource), resourceResponse);
+        storeSnapshot(snapshotKey, resource.getId(), null, revision, response, changeSequence);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public void readSubresource(ResourceRequest resourceRequest,
                                 ResourceResponse resourceResponse) {
 
         LOG.debug("Handle the READ action for subresource request [{}]", resourceRequest);
         ResolvedData resolvedData = resourceRequest.getResolvedData();
         DBSubresource resolvedSubresource = resolvedData.getSubresource();
+        String snapshotKey = getSnapshotKey(resolvedData);
+        long changeSequence = resourceSnapshotStore.getChangeSequence();
+        ResourceStorage.DocumentRevision revision = resourceStorage.getDocumentRevisionForSubresource(resolvedSubresource);
+        String fingerprint = getResponseFingerprint(resolvedData.getDomain(), revision);
+        if (isNotModified(resourceRequest, resourceResponse, revision, fingerprint, snapshotKey)) {
+            if (snapshotKey != null) {
+                resourceSnapshotStore.touch(snapshotKey, fingerprint, changeSequence);
+            }
+            return;
+        }
         // set default mimetype - it can be overwritten by handler
         resourceResponse.setContentType(resolvedSubresource.getSubresourceDef().getMimeType());
 
         ResourceHandlerSpi handlerSpi = getSubresourceHandler(resolvedSubresource.getSubresourceDef(), resolvedData.getResourceDef());
-        // generate request and respond
-        RequestData requestData = buildRequestDataForSubResource(resolvedData.getDomain(), resolvedData.getResource(),
-                resolvedData.getSubresource());
-        ResponseData responseData = new SpiResponseData(resourceResponse.getOutputStream());
-        // handle data
-        handleReadResource(handlerSpi, requestData, responseData, resourceResponse);
+        if (!resourceResponseCache.isEnabled() && snapshotKey == null) {
+            // generate request and respond
+            RequestData requestData = buildRequestDataForSubResource(resolvedData.getDomain(), resolvedData.getResource(),
+                    resolvedSubresource);
+            ResponseData responseData = new SpiResponseData(resourceResponse.getOutputStream());
+            // handle data
+            handleReadResource(handlerSpi, requestData, responseData, resourceResponse);
+            return;
+        }
+
+        String encoding = getResponseEncoding(resourceRequest, snapshotKey);
+        ResourceResponseCache.CachedResponse response = handleCachedReadResource(resolvedData.getDomain().getDomainCode(),
+                resolvedData.getResource().getId(), resolvedSubresource.getId(), fingerprint, encoding, handlerSpi,
+                () -> buildRequestDataForSubResource(resolvedData.getDomain(), resolvedData.getResource(), resolvedSubresource),
+                resourceResponse);
+        storeSnapshot(snapshotKey, resolvedData.getResource().getId(), resolvedSubresource.getId(), revision, response,
+                changeSequence);
+    }
+
+    /**
+     * Method serves the read request from the {@link ResourceSnapshotStore} without the database access. The snapshot
+     * is served only if the domain is public, the snapshot was rendered with the current domain signature
+     * configuration and SMP url, and it was validated against the database within the configured max-age (or within
+     * the max-stale time if the database is not available).
+     *
+     * @param resourceRequest     the read request with the authorized domain
+     * @param resourceResponse    the response
+     * @param snapshotKey         the snapshot key resolved from the request
+     * @param databaseUnavailable true if the request can not be served from the database
+     * @return true if the response was served from the snapshot
+     */
+    public boolean readSnapshot(ResourceRequest resourceRequest, ResourceResponse resourceResponse,
+                                String snapshotKey, boolean databaseUnavailable) {
+        DBDomain domain = resourceRequest.getAuthorizedDomain();
+        if (snapshotKey == null || domain == null || !isPublic(domain.getVisibility())) {
+            return false;
+        }
+        ResourceSnapshotFile.Snapshot snapshot = resourceSnapshotStore.get(snapshotKey, databaseUnavailable);
+        if (snapshot == null) {
+            return false;
+        }
+        String fingerprint = getResponseFingerprint(domain, snapshot.getRevision());
+        if (!StringUtils.equals(fingerprint, snapshot.getFingerprint())) {
+            LOG.debug("Snapshot [{}] was rendered with different domain configuration or SMP url", snapshotKey);
+            return false;
+        }
+        LOG.debug("Serve the snapshot [{}] validated on [{}]", snapshotKey, snapshot.getValidatedOn());
+        Instant lastModified = snapshot.getLastModified() == null ? null : Instant.ofEpochMilli(snapshot.getLastModified());
+        if (setCacheHeaders(resourceRequest, resourceResponse, fingerprint, lastModified, true, domain, snapshotKey)) {
+            return true;
+        }
+        if (StringUtils.isNotBlank(snapshot.getContentType())) {
+            resourceResponse.setContentType(snapshot.getContentType());
+        }
+        snapshot.getHttpHeaders().forEach(resourceResponse::setHttpHeader);
+        String encoding = getResponseEncoding(resourceRequest, snapshotKey);
+        writeContent(domain.getDomainCode(), encoding,
+                encoding == null ? snapshot.getContent() : snapshot.getEncodedContent(encoding), resourceResponse);
+        return true;
+    }
+
+    /**
+     * Returns the snapshot key if the response of the resolved resource can be stored to the snapshot: only the
+     * responses of the public resources in the public groups and domains are stored.
+     */
+    protected String getSnapshotKey(ResolvedData resolvedData) {
+        return resolvedData.getSnapshotKey() != null && isPublic(resolvedData) ? resolvedData.getSnapshotKey() : null;
+    }
+
+    protected void storeSnapshot(String snapshotKey, Long resourceId, Long subresourceId,
+                                 ResourceStorage.DocumentRevision revision,
+                                 ResourceResponseCache.CachedResponse response, long changeSequence) {
+        if (snapshotKey == null || resourceId == null || revision == null || response == null) {
+            return;
+        }
+        Long lastModified = revision.getLastModified() == null ? null : revision.getLastModified().toInstant().toEpochMilli();
+        // store the encoded variants with the snapshot, so they are not computed when the snapshot is served
+        Map<String, byte[]> encodedContents = new LinkedHashMap<>();
+        if (configurationService.isResourceResponseCompressionEnabled()) {
+            HttpEncodingUtils.SUPPORTED_ENCODINGS.forEach(encoding ->
+                    encodedContents.put(encoding, response.getEncodedContent(encoding)));
+        }
+        resourceSnapshotStore.put(new ResourceSnapshotFile.Snapshot(snapshotKey, resourceId, subresourceId,
+                revision.getRevision(), response.getFingerprint(), response.getContentType(), response.getHttpHeaders(),
+                lastModified, response.getContent(), encodedContents), changeSequence);
+    }
+
+    /**
+     * Method sets the ETag, Last-Modified and Cache-Control headers of the read response. If the request validators
+     * (If-None-Match or If-Modified-Since) match the current document revision, the response status is set to
+     * 304 (Not Modified) and the document is not loaded, rendered nor signed.
+     *
+     * @param resourceRequest  the resource request with the resolved data
+     * @param resourceResponse the response
+     * @param revision         the document revision or null if the document does not exist
+     * @param fingerprint      the response fingerprint
+     * @param snapshotKey      the snapshot key or null if the response is not stored to the snapshot
+     * @return true if the response is not modified and the 304 status was set
+     */
+    protected boolean isNotModified(ResourceRequest resourceRequest, ResourceResponse resourceResponse,
+                                    ResourceStorage.DocumentRevision revision, String fingerprint, String snapshotKey) {
+        if (revision == null) {
+            // the document does not exist: let the handler report the error
+            return false;
+        }
+        ResolvedData resolvedData = resourceRequest.getResolvedData();
+        Instant lastModified = revision.getLastModified() == null ? null : revision.getLastModified().toInstant();
+        if (!setCacheHeaders(resourceRequest, resourceResponse, fingerprint, lastModified, isPublic(resolvedData),
+                resolvedData.getDomain(), snapshotKey)) {
+            return false;
+        }
+        LOG.debug("Resource [{}] is not modified for revision [{}]", resolvedData.getResource(), revision);
+        return true;
+    }
+
+    /**
+     * Method sets the ETag, Last-Modified and Cache-Control headers of the read response and sets the 304
+     * (Not Modified) status if the request validators match the response. Because the encoded response is a different
+     * representation, its ETag is created from the fingerprint and the negotiated content coding, and the Vary header
+     * is set when the response can be encoded.
+     *
+     * @return true if the response is not modified and the 304 status was set
+     */
+    protected boolean setCacheHeaders(ResourceRequest resourceRequest, ResourceResponse resourceResponse,
+                                      String fingerprint, Instant lastModified, boolean isPublic, DBDomain domain,
+                                      String snapshotKey) {
+        String encoding = getResponseEncoding(resourceRequest, snapshotKey);
+        String eTag = HttpCacheUtils.createETag(encoding == null ? fingerprint : fingerprint + "|" + encoding);
+        resourceResponse.setHttpHeader(HttpHeaders.ETAG, eTag);
+        if (isResponseEncodingEnabled(snapshotKey)) {
+            resourceResponse.setHttpHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (lastModified != null) {
+            resourceResponse.setHttpDateHeader(HttpHeaders.LAST_MODIFIED, lastModified.toEpochMilli());
+        }
+        resourceResponse.setHttpHeader(HttpHeaders.CACHE_CONTROL, HttpCacheUtils.createCacheControl(
+                isPublic, getHttpCacheMaxAge(domain)));
+
+        if (!HttpCacheUtils.isNotModified(resourceRequest.getHeader(HttpHeaders.IF_NONE_MATCH),
+                resourceRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE), eTag, lastModified)) {
+            return false;
+        }
+        resourceResponse.setHttpStatus(HTTP_RESPONSE_CODE_NOT_MODIFIED);
+        return true;
+    }
+
+    /**
+     * Returns true if the domain, the group and the resource are public, and the response can be cached by the
+     * shared caches.
+     */
+    protected boolean isPublic(ResolvedData resolvedData) {
+        return isPublic(resolvedData.getDomain() == null ? null : resolvedData.getDomain().getVisibility())
+                && isPublic(resolvedData.getGroup() == null ? null : resolvedData.getGroup().getVisibility())
+                && isPublic(resolvedData.getResource() == null ? null : resolvedData.getResource().getVisibility());
+    }
+
+    private static boolean isPublic(VisibilityType visibility) {
+        return visibility == null || visibility == VisibilityType.PUBLIC;
+    }
+
+    /**
+     * Returns the max-age of the Cache-Control header for the domain. If the value is not set for the domain, the
+     * system default value is returned.
+     *
+     * @param domain the domain of the resource
+     * @return the max-age in seconds
+     */
+    protected int getHttpCacheMaxAge(DBDomain domain) {
+        Integer maxAge = resourceMetadataCache.getSnapshot()
+                .getDomainConfiguration(domain, SMPDomainPropertyEnum.RESOURCE_HTTP_CACHE_MAX_AGE)
+                .filter(configuration -> !configuration.isUseSystemDefault())
+                .map(configuration -> (Integer) PropertyUtils.parseProperty(SMPPropertyEnum.RESOURCE_HTTP_CACHE_MAX_AGE,
+                        configuration.getValue(), null))
+                .orElse(null);
+        return maxAge == null ? configurationService.getResourceHttpCacheMaxAgeInSeconds() : maxAge;
+    }
+
+    /**
+     * Method writes the cached response if it exists for the same fingerprint. Otherwise, the response is rendered
+     * by the resource handler, stored to the cache and written to the response.
+     *
+     * @param domainCode         the domain code of the resource
+     * @param resourceId         the resource database id
+     * @param subresourceId      the subresource database id or null when resource is read
+     * @param fingerprint        fingerprint of the data used to render the response
+     * @param encoding           the negotiated content coding or null if the response is not encoded
+     * @param handlerSpi         the resource handler
+     * @param requestDataSupplier supplier of the handler request data. It is invoked only if response is not cached
+     * @param resourceResponse   the response
+     * @return the written response
+     */
+    protected ResourceResponseCache.CachedResponse handleCachedReadResource(String domainCode, Long resourceId, Long subresourceId, String fingerprint,
+                                            String encoding, ResourceHandlerSpi handlerSpi,
+                                            Supplier<RequestData> requestDataSupplier,
+                                            ResourceResponse resourceResponse) {
+
+        ResourceResponseCache.CachedResponse cachedResponse = resourceResponseCache.get(resourceId, subresourceId, fingerprint);
+        if (cachedResponse == null) {
+            LOG.debug("Render response for resource id [{}] and subresource id [{}]", resourceId, subresourceId);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ResponseData responseData = new SpiResponseData(baos);
+            handleReadResource(handlerSpi, requestDataSupplier.get(), responseData, resourceResponse);
+            cachedResponse = new ResourceResponseCache.CachedResponse(fingerprint,
+                    responseData.getContentType(), responseData.getHttpHeaders(), baos.toByteArray());
+            resourceResponseCache.put(resourceId, subresourceId, cachedResponse);
+        } else {
+            LOG.debug("Return cached response for resource id [{}] and subresource id [{}]", resourceId, subresourceId);
+            if (StringUtils.isNotBlank(cachedResponse.getContentType())) {
+                resourceResponse.setContentType(cachedResponse.getContentType());
+            }
+            cachedResponse.getHttpHeaders().forEach(resourceResponse::setHttpHeader);
+        }
+
+        writeContent(domainCode, encoding, ByteBuffer.wrap(
+                encoding == null ? cachedResponse.getContent() : cachedResponse.getEncodedContent(encoding)),
+                resourceResponse);
+        return cachedResponse;
+    }
+
+    /**
+     * Method writes the rendered response body. If the body is encoded, the Content-Encoding header is set. The body
+     * can be the view of the mapped snapshot file, so it is written without copying it to the heap.
+     *
+     * @param domainCode       the domain code of the resource
+     * @param encoding         the content coding of the body or null if the body is not encoded
+     * @param content          the response body
+     * @param resourceResponse the response
+     */
+    protected void writeContent(String domainCode, String encoding, ByteBuffer content, ResourceResponse resourceResponse) {
+        if (encoding != null) {
+            resourceResponse.setHttpHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+        int length = content.remaining();
+        long start = System.nanoTime();
+        try {
+            WritableByteChannel outputChannel = Channels.newChannel(resourceResponse.getOutputStream());
+            while (content.hasRemaining()) {
+                outputChannel.write(content);
+            }
+            SMPMetrics.recordStage(SMPMetrics.RequestStage.WRITE, domainCode, start);
+        } catch (IOException e) {
+            throw new SMPRuntimeException(ErrorCode.INTERNAL_ERROR, "Error occurred while writing the response!", e);
+        }
+        SMPMetrics.increment(SMPMetrics.METRIC_RESOURCE_RESPONSE_BYTES, length,
+                SMPMetrics.TAG_TYPE, encoding == null ? HttpEncodingUtils.ENCODING_IDENTITY : encoding);
+    }
+
+    /**
+     * Returns true if the read response can be encoded. The response is encoded only when it is buffered: when the
+     * response cache is enabled or the response is stored to the snapshot, the encoded body is computed once and kept
+     * with the rendered response. Otherwise, the response is streamed to the client without the encoding.
+     *
+     * @param snapshotKey the snapshot key or null if the response is not stored to the snapshot
+     * @return true if the response can be encoded
+     */
+    protected boolean isResponseEncodingEnabled(String snapshotKey) {
+        return configurationService.isResourceResponseCompressionEnabled()
+                && (resourceResponseCache.isEnabled() || snapshotKey != null);
+    }
+
+    /**
+     * Returns the content coding of the read response negotiated with the Accept-Encoding request header, or null if
+     * the response is not encoded.
+     *
+     * @param resourceRequest the read request
+     * @param snapshotKey     the snapshot key or null if the response is not stored to the snapshot
+     * @return the content coding or null
+     */
+    protected String getResponseEncoding(ResourceRequest resourceRequest, String snapshotKey) {
+        if (!isResponseEncodingEnabled(snapshotKey)) {
+            return null;
+        }
+        return HttpEncodingUtils.negotiateEncoding(resourceRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    /**
+     * The response fingerprint contains all data which are used to render the response and are not part of the
+     * document: the domain signature configuration and the SMP url used to build the references.
+     *
+     * @param domain           the domain of the resource
+     * @param documentRevision the document revision
+     * @return the fingerprint
+     */
+    protected String getResponseFingerprint(DBDomain domain, ResourceStorage.DocumentRevision documentRevision) {
+        return getResponseFingerprint(domain, documentRevision == null ? null : documentRevision.getRevision());
+    }
+
+    protected String getResponseFingerprint(DBDomain domain, String documentRevision) {
+        return getDocumentFingerprint(domain, documentRevision)
+                + "|" + smpUrlBuilder.buildSMPUrlForApplication();
+    }
+
+    /**
+     * Returns the part of the response fingerprint which does not depend on the current HTTP request. It is used to
+     * revalidate the resource snapshots outside of the request scope.
+     *
+     * @param domain           the domain of the resource
+     * @param documentRevision the document revision
+     * @return the request independent fingerprint
+     */
+    public String getDocumentFingerprint(DBDomain domain, String documentRevision) {
+        return documentRevision
+                + "|" + domain.getSignatureKeyAlias()
+                + "|" + domain.getSignatureAlgorithm()
+                + "|" + domain.getSignatureDigestMethod();
     }
 
     @Transactional
@@ -186,7 +547,7 @@ public class ResourceHandlerService extends AbstractResourceHandler {
                     managedResource.setGroup(groupList.get(0));
                 }
             }
-            integrationService.registerParticipant(managedResource, domain);
+            smlOutboxService.enqueueRegisterParticipant(managedResource, domain);
         }
     }
 
@@ -253,7 +614,7 @@ public class ResourceHandlerService extends AbstractResourceHandler {
         // locate the resource handler
         ResolvedData resolvedData = resourceRequest.getResolvedData();
         DBResource resource = resolvedData.getResource();
-        integrationService.unregisterParticipant(resource, resolvedData.getDomain());
+        smlOutboxService.enqueueUnregisterParticipant(resource, resolvedData.getDomain());
         resourceStorage.deleteResource(resource);
     }
 
@@ -0,0 +1,356 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services.resource;
+
+import eu.europa.ec.edelivery.smp.config.CacheEventListener;
+import eu.europa.ec.edelivery.smp.data.dao.DomainDao;
+import eu.europa.ec.edelivery.smp.data.dao.ResourceDao;
+import eu.europa.ec.edelivery.smp.data.enums.CacheEventType;
+import eu.europa.ec.edelivery.smp.data.model.DBDomain;
+import eu.europa.ec.edelivery.smp.data.model.doc.DBResource;
+import eu.europa.ec.edelivery.smp.data.model.doc.ResourceChangeListener;
+import eu.europa.ec.edelivery.smp.identifiers.Identifier;
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.monitor.SMPMetrics;
+import eu.europa.ec.edelivery.smp.services.CacheEventService;
+import eu.europa.ec.edelivery.smp.services.ConfigurationService;
+import eu.europa.ec.edelivery.smp.services.SMPJobService;
+import eu.europa.ec.edelivery.smp.utils.BloomFilter;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The in-memory filter of the resource identifiers registered in the domain. The public read requests for the
+ * resource identifiers which are definitely not registered in the domain are rejected without the database lookup.
+ * The filter is a Bloom filter of the normalized (lower-cased) identifier scheme and value, so the case-sensitive
+ * and the case-insensitive identifier lookups can be filtered with the same filter.
+ * <p>
+ * The filters of all domains are loaded from the database in the background when the application starts. The filters
+ * are never loaded by the request threads: the filter of the domain which is not loaded yet is loaded in the
+ * background on the first lookup, and until the filter is loaded the lookups are not filtered. The created resources
+ * are added to the filter by the {@link ResourceChangeListener}, and in cluster mode the other SMP nodes add them when
+ * they process the RESOURCE cache event. The deleted identifiers can not be removed from the Bloom filter: the filter
+ * is reloaded in the background when too many resources were deleted, when more resources were added than the filter
+ * was sized for, or when it is older than the configured rebuild interval. While the filter is reloaded, the lookups
+ * use the previous filter. In cluster mode the lookups are not filtered while the cache events of the other nodes are
+ * not polled, and all filters are reloaded when the poller starts or might have lost the events.
+ *
+ * @since 5.2
+ */
+@Component
+public class ResourceIdentifierFilter implements CacheEventListener, ResourceChangeListener.ResourceChangeHandler {
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(ResourceIdentifierFilter.class);
+
+    static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+    static final long MIN_CAPACITY = 10000;
+    static final String KEY_SEPARATOR = "::";
+    static final int MAX_EVENT_KEY_LENGTH = 256;
+    static final String RESULT_REJECTED = "rejected";
+    static final String RESULT_PASSED = "passed";
+    static final String RESULT_FALSE_POSITIVE = "false_positive";
+
+    private final DomainDao domainDao;
+    private final ResourceDao resourceDao;
+    private final ConfigurationService configurationService;
+    private final CacheEventService cacheEventService;
+    private final SMPJobService jobService;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, DomainFilter> domainFilters = new ConcurrentHashMap<>();
+    // the keys of the resources created while the domain filter is loaded from the database
+    private final Map<Long, Set<String>> loadingDomainKeys = new ConcurrentHashMap<>();
+
+    public ResourceIdentifierFilter(DomainDao domainDao,
+                                    ResourceDao resourceDao,
+                                    ConfigurationService configurationService,
+                                    CacheEventService cacheEventService,
+                                    SMPJobService jobService,
+                                    PlatformTransactionManager txManager) {
+        this.domainDao = domainDao;
+        this.resourceDao = resourceDao;
+        this.configurationService = configurationService;
+        this.cacheEventService = cacheEventService;
+        this.jobService = jobService;
+        // load the identifiers in the new transaction to read only the committed resources. The transaction is not
+        // read-only so that the identifiers are read from the primary datasource and not from the lagging read replica
+        this.transactionTemplate = new TransactionTemplate(txManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void init() {
+        ResourceChangeListener.addHandler(this);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        ResourceChangeListener.removeHandler(this);
+    }
+
+    /**
+     * Load the filters of all domains in the background when the application context is initialized.
+     */
+    @EventListener({ContextRefreshedEvent.class})
+    public void contextRefreshedEvent() {
+        loadAllDomainFilters();
+    }
+
+    /**
+     * Returns false if the resource identifier is definitely not registered in the domain, and true if the resource
+     * might be registered or if the filter is disabled, not available or not synchronized with the other cluster
+     * nodes. The lookup result is recorded as the {@link SMPMetrics#METRIC_RESOURCE_IDENTIFIER_FILTER} metric.
+     *
+     * @param domain             the domain of the resource
+     * @param resourceIdentifier the normalized resource identifier
+     * @return false if the resource is definitely not registered in the domain
+     */
+    public boolean mightBeRegistered(DBDomain domain, Identifier resourceIdentifier) {
+        if (!configurationService.isResourceIdentifierFilterEnabled()) {
+            return true;
+        }
+        if (!cacheEventService.isSynchronized()) {
+            // the resources created on the other nodes might be missing in the filter
+            return true;
+        }
+        DomainFilter domainFilter = getDomainFilter(domain.getId());
+        if (domainFilter == null) {
+            return true;
+        }
+        boolean mightBeRegistered = domainFilter.filter.mightContain(
+                createKey(resourceIdentifier.getScheme(), resourceIdentifier.getValue()));
+        SMPMetrics.increment(SMPMetrics.METRIC_RESOURCE_IDENTIFIER_FILTER, SMPMetrics.TAG_DOMAIN, domain.getDomainCode(),
+                SMPMetrics.TAG_RESULT, mightBeRegistered ? RESULT_PASSED : RESULT_REJECTED);
+        return mightBeRegistered;
+    }
+
+    /**
+     * Record the false positive lookup: the identifier passed the filter, but the resource is not registered.
+     *
+     * @param domain the domain of the resource
+     */
+    public void recordFalsePositive(DBDomain domain) {
+        if (configurationService.isResourceIdentifierFilterEnabled()) {
+            SMPMetrics.increment(SMPMetrics.METRIC_RESOURCE_IDENTIFIER_FILTER, SMPMetrics.TAG_DOMAIN,
+                    domain.getDomainCode(), SMPMetrics.TAG_RESULT, RESULT_FALSE_POSITIVE);
+        }
+    }
+
+    /**
+     * Publish the RESOURCE cache event for the created resource, so that the other SMP nodes in the cluster add the
+     * resource identifier to their filters. The local filter is updated by the {@link ResourceChangeListener}.
+     *
+     * @param resource the created resource
+     */
+    public void publishResourceCreated(DBResource resource) {
+        if (!configurationService.isClusterEnabled() || resource.getDomainResourceDef() == null) {
+            return;
+        }
+        String eventKey = resource.getDomainResourceDef().getDomain().getId() + KEY_SEPARATOR
+                + createKey(resource.getIdentifierScheme(), resource.getIdentifierValue());
+        // the too long key can not be stored: the other nodes reload all filters
+        cacheEventService.publish(CacheEventType.RESOURCE, eventKey.length() > MAX_EVENT_KEY_LENGTH ? null : eventKey);
+    }
+
+    @Override
+    public void onResourceCreated(Long domainId, String identifierScheme, String identifierValue) {
+        addKey(domainId, createKey(identifierScheme, identifierValue));
+    }
+
+    @Override
+    public void onResourceDeleted(Long domainId) {
+        DomainFilter domainFilter = domainFilters.get(domainId);
+        if (domainFilter != null) {
+            domainFilter.deletedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * The resource was created on the other SMP node in the cluster. The event key is the domain id and the filter key
+     * of the resource. If the key is not given, all filters are reloaded.
+     */
+    @Override
+    public void onCacheEvent(CacheEventType eventType, String eventKey) {
+        int separatorIndex = StringUtils.indexOf(eventKey, KEY_SEPARATOR);
+        Long domainId = separatorIndex > 0 ? parseDomainId(eventKey.substring(0, separatorIndex)) : null;
+        if (domainId == null) {
+            LOG.debug("Reload all resource identifier filters for the change [{}]: [{}]", eventType, eventKey);
+            invalidate();
+            return;
+        }
+        addKey(domainId, eventKey.substring(separatorIndex + KEY_SEPARATOR.length()));
+    }
+
+    @Override
+    public List<CacheEventType> handledCacheEvents() {
+        return Collections.singletonList(CacheEventType.RESOURCE);
+    }
+
+    /**
+     * Discard all domain filters and reload them in the background. The lookups are not filtered until the filters
+     * are reloaded.
+     */
+    public void invalidate() {
+        LOG.debug("Invalidate resource identifier filters");
+        domainFilters.clear();
+        loadAllDomainFilters();
+    }
+
+    /**
+     * Load the filters of all domains in the background. The filters which are already loaded or are being loaded
+     * are skipped.
+     */
+    protected void loadAllDomainFilters() {
+        if (!configurationService.isResourceIdentifierFilterEnabled()) {
+            return;
+        }
+        try {
+            jobService.runInBackground("resource-identifier-filters", () -> domainDao.getAllDomains().stream()
+                    .map(DBDomain::getId)
+                    .filter(domainId -> !domainFilters.containsKey(domainId))
+                    .forEach(this::loadDomainFilterInBackground));
+        } catch (RejectedExecutionException exc) {
+            LOG.warn("Can not load the resource identifier filters. Error: [{}]", ExceptionUtils.getRootCauseMessage(exc));
+        }
+    }
+
+    protected void addKey(Long domainId, String key) {
+        // add the key to the loading keys before the filter: the key added to the previous filter
+        // after the new filter was loaded is then added to the new filter as well
+        Set<String> loadingKeys = loadingDomainKeys.get(domainId);
+        if (loadingKeys != null) {
+            loadingKeys.add(key);
+        }
+        DomainFilter domainFilter = domainFilters.get(domainId);
+        if (domainFilter != null) {
+            domainFilter.filter.add(key);
+        }
+    }
+
+    /**
+     * Returns the filter of the domain. If the filter does not exist or must be rebuilt, the filter is loaded in the
+     * background, and the lookups use the previous filter, or no filter if the filter was not loaded yet.
+     *
+     * @param domainId the domain id
+     * @return the filter of the domain or null if the filter is not available
+     */
+    protected DomainFilter getDomainFilter(Long domainId) {
+        DomainFilter current = domainFilters.get(domainId);
+        if (current != null && !isRebuildNeeded(current)) {
+            return current;
+        }
+        loadDomainFilterInBackground(domainId);
+        return domainFilters.get(domainId);
+    }
+
+    /**
+     * Start the load of the domain filter in the background, if the filter is not already being loaded.
+     *
+     * @param domainId the domain id
+     */
+    protected void loadDomainFilterInBackground(Long domainId) {
+        if (loadingDomainKeys.putIfAbsent(domainId, ConcurrentHashMap.newKeySet()) != null) {
+            // the filter is already being loaded
+            return;
+        }
+        try {
+            jobService.runInBackground("resource-identifier-filter-" + domainId, () -> reloadDomainFilter(domainId));
+        } catch (RejectedExecutionException exc) {
+            LOG.warn("Can not load the resource identifier filter for the domain [{}]. Error: [{}]", domainId,
+                    ExceptionUtils.getRootCauseMessage(exc));
+            loadingDomainKeys.remove(domainId);
+        }
+    }
+
+    protected void reloadDomainFilter(Long domainId) {
+        try {
+            DomainFilter loaded = transactionTemplate.execute(status -> loadDomainFilter(domainId));
+            domainFilters.put(domainId, loaded);
+            loadingDomainKeys.get(domainId).forEach(loaded.filter::add);
+        } catch (RuntimeException exc) {
+            LOG.warn("Can not load the resource identifier filter for the domain [{}]. Error: [{}]", domainId,
+                    ExceptionUtils.getRootCauseMessage(exc));
+        } finally {
+            loadingDomainKeys.remove(domainId);
+        }
+    }
+
+    protected boolean isRebuildNeeded(DomainFilter domainFilter) {
+        long rebuildMillis = TimeUnit.MINUTES.toMillis(configurationService.getResourceIdentifierFilterRebuildInMinutes());
+        return domainFilter.filter.isSaturated()
+                || domainFilter.deletedCount.get() > domainFilter.filter.getSize() / 4
+                || System.currentTimeMillis() - domainFilter.createdOn > rebuildMillis;
+    }
+
+    protected DomainFilter loadDomainFilter(Long domainId) {
+        long start = System.currentTimeMillis();
+        Long resourceCount = domainDao.getResourceCountForDomain(domainId);
+        // leave the space for the resources created until the next rebuild
+        long capacity = Math.max(MIN_CAPACITY, resourceCount == null ? 0 : resourceCount * 2);
+        DomainFilter domainFilter = new DomainFilter(new BloomFilter(capacity, FALSE_POSITIVE_PROBABILITY));
+        resourceDao.forEachNormalizedIdentifierForDomainId(domainId,
+                (scheme, value) -> domainFilter.filter.add(createKey(scheme, value)));
+        LOG.info("Loaded resource identifier filter for domain [{}] with [{}] identifiers in [{}] ms", domainId,
+                domainFilter.filter.getSize(), System.currentTimeMillis() - start);
+        return domainFilter;
+    }
+
+    /**
+     * Returns the filter key of the resource identifier: the lower-cased identifier scheme and value. The null scheme
+     * is handled as the empty scheme.
+     */
+    protected static String createKey(String identifierScheme, String identifierValue) {
+        return StringUtils.lowerCase(StringUtils.defaultString(identifierScheme)) + KEY_SEPARATOR
+                + StringUtils.lowerCase(StringUtils.defaultString(identifierValue));
+    }
+
+    private static Long parseDomainId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException exc) {
+            return null;
+        }
+    }
+
+    protected static class DomainFilter {
+        final BloomFilter filter;
+        final long createdOn = System.currentTimeMillis();
+        final AtomicLong deletedCount = new AtomicLong();
+
+        DomainFilter(BloomFilter filter) {
+            this.filter = filter;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services.resource;
+
+import eu.europa.ec.edelivery.smp.config.CacheEventListener;
+import eu.europa.ec.edelivery.smp.config.enums.SMPDomainPropertyEnum;
+import eu.europa.ec.edelivery.smp.data.dao.DomainConfigurationDao;
+import eu.europa.ec.edelivery.smp.data.dao.DomainDao;
+import eu.europa.ec.edelivery.smp.data.dao.ResourceDefDao;
+import eu.europa.ec.edelivery.smp.data.dao.SubresourceDefDao;
+import eu.europa.ec.edelivery.smp.data.enums.CacheEventType;
+import eu.europa.ec.edelivery.smp.data.model.DBDomain;
+import eu.europa.ec.edelivery.smp.data.model.DBDomainConfiguration;
+import eu.europa.ec.edelivery.smp.data.model.MetadataChangeListener;
+import eu.europa.ec.edelivery.smp.data.model.ext.DBResourceDef;
+import eu.europa.ec.edelivery.smp.data.model.ext.DBSubresourceDef;
+import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.services.ConfigurationService;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cache of the domain, domain configuration, resource definition and subresource definition metadata used to resolve the resource
+ * requests. The metadata is loaded as immutable snapshot in a separate read-only transaction so that the
+ * entities are detached and can be shared between the request threads. The snapshot is reloaded when the
+ * metadata version (see {@link MetadataChangeListener}) is changed by the domain or resource definition write
+ * paths or by the cache event of the other cluster node, or when the snapshot is older than the configured time-to-live.
+ *
+ * @since 5.2
+ */
+@Component
+public class ResourceMetadataCache implements CacheEventListener {
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(ResourceMetadataCache.class);
+
+    private final DomainDao domainDao;
+    private final DomainConfigurationDao domainConfigurationDao;
+    private final ResourceDefDao resourceDefDao;
+    private final SubresourceDefDao subresourceDefDao;
+    private final ConfigurationService configurationService;
+    private final TransactionTemplate transactionTemplate;
+    private volatile MetadataSnapshot snapshot;
+
+    public ResourceMetadataCache(DomainDao domainDao,
+                                 DomainConfigurationDao domainConfigurationDao,
+                                 ResourceDefDao resourceDefDao,
+                                 SubresourceDefDao subresourceDefDao,
+                                 ConfigurationService configurationService,
+                                 PlatformTransactionManager txManager) {
+        this.domainDao = domainDao;
+        this.domainConfigurationDao = domainConfigurationDao;
+        this.resourceDefDao = resourceDefDao;
+        this.subresourceDefDao = subresourceDefDao;
+        this.configurationService = configurationService;
+        // the snapshot is shared between threads: load it in new transaction to get detached entities and to avoid
+        // caching the uncommitted data of the caller transaction
+        this.transactionTemplate = new TransactionTemplate(txManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Returns the current metadata snapshot. If the metadata was changed or the snapshot expired, the snapshot is
+     * reloaded from the database.
+     *
+     * @return the metadata snapshot
+     */
+    public MetadataSnapshot getSnapshot() {
+        MetadataSnapshot current = snapshot;
+        if (isValid(current)) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (isValid(current)) {
+                return current;
+            }
+            // read the version before loading: a change committed during the loading invalidates the new snapshot
+            long version = MetadataChangeListener.getMetadataVersion();
+            current = transactionTemplate.execute(status -> loadSnapshot(version));
+            snapshot = current;
+            return current;
+        }
+    }
+
+    /**
+     * Discard the current snapshot. The snapshot is reloaded on the next access.
+     */
+    public void invalidate() {
+        LOG.debug("Invalidate resource metadata snapshot");
+        snapshot = null;
+    }
+
+    /**
+     * The domain or resource definition data was changed on the local or on the other SMP node in the cluster.
+     * Method evicts the data from the hibernate second-level cache and discards the current snapshot.
+     */
+    @Override
+    public void onCacheEvent(CacheEventType eventType, String eventKey) {
+        LOG.debug("Metadata change [{}]: [{}]", eventType, eventKey);
+        domainDao.evictAllFromCache();
+        MetadataChangeListener.markChanged();
+        invalidate();
+    }
+
+    @Override
+    public List<CacheEventType> handledCacheEvents() {
+        return Arrays.asList(CacheEventType.DOMAIN, CacheEventType.RESOURCE_DEF);
+    }
+
+    protected boolean isValid(MetadataSnapshot current) {
+        if (current == null || current.getVersion() != MetadataChangeListener.getMetadataVersion()) {
+            return false;
+        }
+        int ttlSeconds = configurationService.getMetadataCacheTTLInSeconds();
+        return ttlSeconds < 1
+                || System.currentTimeMillis() - current.getCreatedOn() < TimeUnit.SECONDS.toMillis(ttlSeconds);
+    }
+
+    protected MetadataSnapshot loadSnapshot(long version) {
+        LOG.debug("Load resource metadata snapshot for version [{}]", version);
+        List<DBDomain> domains = domainDao.getAllDomains();
+        Map<Long, List<DBResourceDef>> resourceDefsByDomainId = new HashMap<>();
+        Map<Long, List<DBDomainConfiguration>> domainConfigurationByDomainId = new HashMap<>();
+        for (DBDomain domain : domains) {
+            resourceDefsByDomainId.put(domain.getId(),
+                    Collections.unmodifiableList(new ArrayList<>(resourceDefDao.getAllResourceDefForDomain(domain))));
+            domainConfigurationByDomainId.put(domain.getId(), domainConfigurationDao.getDomainConfiguration(domain));
+        }
+        Map<Long, List<DBSubresourceDef>> subresourceDefsByResourceDefId = new HashMap<>();
+        for (DBSubresourceDef subresourceDef : subresourceDefDao.getAllSubresourceDef()) {
+            subresourceDefsByResourceDefId.computeIfAbsent(subresourceDef.getResourceDef().getId(), id -> new ArrayList<>())
+                    .add(subresourceDef);
+        }
+        return new MetadataSnapshot(version, domains, domainConfigurationByDomainId, resourceDefsByDomainId,
+                subresourceDefsByResourceDefId);
+    }
+
+    /**
+     * Immutable snapshot of the domain, domain configuration, resource definition and subresource definition metadata. The entities in the
+     * snapshot are detached and only the entity attributes (not the lazy loaded relations) are available.
+     */
+    public static class MetadataSnapshot {
+        private final long version;
+        private final long createdOn;
+        private final List<DBDomain> domains;
+        private final Map<String, DBDomain> domainsByCode;
+        private final Map<Long, Map<String, DBDomainConfiguration>> domainConfigurationByDomainId;
+        private final Map<Long, List<DBResourceDef>> resourceDefsByDomainId;
+        private final Map<Long, List<DBSubresourceDef>> subresourceDefsByResourceDefId;
+        private final Map<String, DBSubresourceDef> subresourceDefsByIdentifier;
+
+        public MetadataSnapshot(long version,
+                                List<DBDomain> domains,
+                                Map<Long, List<DBDomainConfiguration>> domainConfigurationByDomainId,
+                                Map<Long, List<DBResourceDef>> resourceDefsByDomainId,
+                                Map<Long, List<DBSubresourceDef>> subresourceDefsByResourceDefId) {
+            this.version = version;
+            this.createdOn = System.currentTimeMillis();
+            this.domains = Collections.unmodifiableList(new ArrayList<>(domains));
+            Map<String, DBDomain> byCode = new HashMap<>();
+            domains.forEach(domain -> byCode.putIfAbsent(domain.getDomainCode(), domain));
+            this.domainsByCode = Collections.unmodifiableMap(byCode);
+            Map<Long, Map<String, DBDomainConfiguration>> domainConfiguration = new HashMap<>();
+            domainConfigurationByDomainId.forEach((id, list) -> {
+                Map<String, DBDomainConfiguration> byProperty = new HashMap<>();
+                list.forEach(conf -> byProperty.putIfAbsent(conf.getProperty(), conf));
+                domainConfiguration.put(id, Collections.unmodifiableMap(byProperty));
+            });
+            this.domainConfigurationByDomainId = Collections.unmodifiableMap(domainConfiguration);
+            this.resourceDefsByDomainId = Collections.unmodifiableMap(new HashMap<>(resourceDefsByDomainId));
+            Map<Long, List<DBSubresourceDef>> subresourceDefs = new HashMap<>();
+            Map<String, DBSubresourceDef> byIdentifier = new HashMap<>();
+            subresourceDefsByResourceDefId.forEach((id, list) -> {
+                subresourceDefs.put(id, Collections.unmodifiableList(new ArrayList<>(list)));
+                list.forEach(def -> byIdentifier.putIfAbsent(def.getIdentifier(), def));
+            });
+            this.subresourceDefsByResourceDefId = Collections.unmodifiableMap(subresourceDefs);
+            this.subresourceDefsByIdentifier = Collections.unmodifiableMap(byIdentifier);
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public long getCreatedOn() {
+            return createdOn;
+        }
+
+        public List<DBDomain> getDomains() {
+            return domains;
+        }
+
+        /**
+         * Returns the domain if only one domain is registered.
+         *
+         * @return the only registered domain or Optional.empty() if more than one domain is registered
+         * @throws IllegalStateException if no domain is registered
+         */
+        public Optional<DBDomain> getTheOnlyDomain() {
+            if (domains.isEmpty()) {
+                throw new IllegalStateException(ErrorCode.NO_DOMAIN.getMessage());
+            }
+            return domains.size() == 1 ? Optional.of(domains.get(0)) : Optional.empty();
+        }
+
+        public Optional<DBDomain> getFirstDomain() {
+            return domains.isEmpty() ? Optional.empty() : Optional.of(domains.get(0));
+        }
+
+        public Optional<DBDomain> getDomainByCode(String domainCode) {
+            return domainCode == null ? Optional.empty() : Optional.ofNullable(domainsByCode.get(domainCode));
+        }
+
+        /**
+         * Returns the domain configuration for the domain property. If the property is not configured for the domain
+         * Optional.empty() is returned.
+         *
+         * @param domain   the domain
+         * @param property the domain property
+         * @return the domain configuration entity
+         */
+        public Optional<DBDomainConfiguration> getDomainConfiguration(DBDomain domain, SMPDomainPropertyEnum property) {
+            if (domain == null || property == null) {
+                return Optional.empty();
+            }
+            return Optional.ofNullable(domainConfigurationByDomainId.getOrDefault(domain.getId(), Collections.emptyMap())
+                    .get(property.getProperty()));
+        }
+
+        public List<DBResourceDef> getResourceDefsForDomain(DBDomain domain) {
+            if (domain == null) {
+                return Collections.emptyList();
+            }
+            return resourceDefsByDomainId.getOrDefault(domain.getId(), Collections.emptyList());
+        }
+
+        public Optional<DBSubresourceDef> getSubresourceDef(DBResourceDef resourceDef, String urlSegment) {
+            if (resourceDef == null) {
+                return Optional.empty();
+            }
+            return subresourceDefsByResourceDefId.getOrDefault(resourceDef.getId(), Collections.emptyList())
+                    .stream()
+                    .filter(subresourceDef -> StringUtils.equals(subresourceDef.getUrlSegment(), urlSegment))
+                    .findFirst();
+        }
+
+        public Optional<DBSubresourceDef> getSubresourceDefByIdentifier(String identifier) {
+            return identifier == null ? Optional.empty() : Optional.ofNullable(subresourceDefsByIdentifier.get(identifier));
+        }
+    }
+}
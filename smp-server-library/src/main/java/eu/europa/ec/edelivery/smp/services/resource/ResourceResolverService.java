@@ -69,35 +69,38 @@ public class ResourceResolverService {
     final DomainGroupGuard domainGroupGuard;
     final ConfigurationService configurationService;
     final IdentifierService identifierService;
-    final DomainDao domainDao;
     final GroupDao groupDao;
-    final ResourceDefDao resourceDefinitionDao;
     final DomainResourceDefDao domainResourceDefDao;
     final ResourceDao resourceDao;
     final SubresourceDao subresourceDao;
+    final ResourceMetadataCache resourceMetadataCache;
+    final ResourceIdentifierFilter resourceIdentifierFilter;
+    final ResourceSnapshotStore resourceSnapshotStore;
 
 
     public ResourceResolverService(ResourceGuard resourceGuard,
                                       DomainGroupGuard domainGroupGuard,
                                    ConfigurationService configurationService,
                                    IdentifierService identifierService,
-                                   DomainDao domainDao,
                                    GroupDao groupDao,
                                    DomainResourceDefDao domainResourceDefDao,
-                                   ResourceDefDao resourceDefinitionDao,
                                    ResourceDao resourceDao,
-                                   SubresourceDao subresourceDao) {
+                                   SubresourceDao subresourceDao,
+                                   ResourceMetadataCache resourceMetadataCache,
+                                   ResourceIdentifierFilter resourceIdentifierFilter,
+                                   ResourceSnapshotStore resourceSnapshotStore) {
 
         this.resourceGuard = resourceGuard;
         this.configurationService = configurationService;
         this.identifierService = identifierService;
-        this.domainDao = domainDao;
         this.groupDao = groupDao;
         this.domainResourceDefDao = domainResourceDefDao;
-        this.resourceDefinitionDao = resourceDefinitionDao;
         this.resourceDao = resourceDao;
         this.subresourceDao = subresourceDao;
         this.domainGroupGuard = domainGroupGuard;
+        this.resourceMetadataCache = resourceMetadataCache;
+        this.resourceIdentifierFilter = resourceIdentifierFilter;
+        this.resourceSnapshotStore = resourceSnapshotStore;
     }
 
     @Transactional
@@ -135,7 +138,9 @@ public class ResourceResolverService {
         Identifier resourceId = identifierService.normalizeParticipantIdentifier(domain.getDomainCode(), currentParameter);
         boolean isCaseSensitive = identifierService.isResourceIdentifierCaseSensitive(resourceId, domain.getDomainCode());
         // validate identifier
-        DBResource resource = resolveResourceIdentifier(domain, resourceDef, resourceId, isCaseSensitive);
+        DBResource resource = resourceRequest.getAction() == ResourceAction.READ ?
+                resolveFilteredResourceIdentifier(domain, resourceDef, resourceId, isCaseSensitive) :
+                resolveResourceIdentifier(domain, resourceDef, resourceId, isCaseSensitive);
         if (resource == null) {
             // the resource must be found because if action is not "create" action nor the last parameter to be resolved
             if (resourceRequest.getAction() != ResourceAction.CREATE_UPDATE
@@ -214,6 +219,54 @@ public class ResourceResolverService {
 
     }
 
+    /**
+     * Method resolves the {@link ResourceSnapshotStore} key of the read request without the database access: the
+     * resource type and the subresource type are resolved from the metadata cache, and the identifiers are normalized
+     * in the same way as by the {@link #resolveAndAuthorizeRequest} method.
+     *
+     * @param resourceRequest the read request with the authorized domain
+     * @return the snapshot key or null if the snapshot store is disabled or the request path can not be resolved
+     */
+    public String resolveSnapshotKey(ResourceRequest resourceRequest) {
+        List<String> pathParameters = resourceRequest.getUrlPathParameters();
+        DBDomain domain = resourceRequest.getAuthorizedDomain();
+        if (!resourceSnapshotStore.isEnabled() || domain == null
+                || pathParameters == null || pathParameters.isEmpty() || pathParameters.size() > MAX_COUNT_COORDINATES) {
+            return null;
+        }
+        try {
+            int iParameterIndex = 0;
+            if (StringUtils.equals(pathParameters.get(iParameterIndex), domain.getDomainCode())) {
+                iParameterIndex++;
+            }
+            if (pathParameters.size() <= iParameterIndex) {
+                return null;
+            }
+            DBResourceDef resourceDef = resolveResourceType(domain, resourceRequest.getResourceTypeHttpParameter(),
+                    pathParameters.get(iParameterIndex));
+            if (StringUtils.equals(pathParameters.get(iParameterIndex), resourceDef.getUrlSegment())) {
+                iParameterIndex++;
+            }
+            int remainingParameters = pathParameters.size() - iParameterIndex;
+            if (remainingParameters != 1 && remainingParameters != 3) {
+                return null;
+            }
+            Identifier resourceId = identifierService.normalizeParticipantIdentifier(domain.getDomainCode(),
+                    pathParameters.get(iParameterIndex));
+            if (remainingParameters == 1) {
+                return resourceSnapshotStore.buildKey(domain.getDomainCode(), resourceDef, resourceId, null, null);
+            }
+            DBSubresourceDef subresourceDef = getSubresourceDefinition(resourceDef, pathParameters.get(iParameterIndex + 1));
+            Identifier subResourceId = identifierService.normalizeDocumentIdentifier(domain.getDomainCode(),
+                    pathParameters.get(iParameterIndex + 2));
+            return resourceSnapshotStore.buildKey(domain.getDomainCode(), resourceDef, resourceId, subresourceDef, subResourceId);
+        } catch (RuntimeException exc) {
+            // the request is resolved and the error is reported by the resolveAndAuthorizeRequest
+            LOG.debug("Can not resolve the snapshot key for request [{}]: [{}]", resourceRequest, exc.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Method executes basic  resource request data validation
      *
@@ -259,7 +312,7 @@ public class ResourceResolverService {
         LOG.debug("Resolve ResourceType for domain [{}] for HTTP header [{}] and path parameter [{}]", domain.getDomainCode(), headerParameter, pathParameter);
 
         // get single domain
-        List<DBResourceDef> resourceDefs = resourceDefinitionDao.getAllResourceDefForDomain(domain);
+        List<DBResourceDef> resourceDefs = resourceMetadataCache.getSnapshot().getResourceDefsForDomain(domain);
         if (resourceDefs.isEmpty()) {
             throw new SMPRuntimeException(ErrorCode.CONFIGURATION_ERROR, "No resource type is registered for the domain!");
         }
@@ -297,7 +350,7 @@ public class ResourceResolverService {
         }
         // return first
         LOG.info("Return first (default) ResourceDef [{}] for domain [{}] by the path parameter [{}]",
-                resourceDefs.get(0).getDomainResourceDefs(),
+                resourceDefs.get(0).getIdentifier(),
                 domain.getDomainCode(),
                 pathParameter);
         return resourceDefs.get(0);
@@ -310,6 +363,24 @@ public class ResourceResolverService {
         return optResource.orElse(null);
     }
 
+    /**
+     * Method resolves the resource for the read request. The identifiers which are definitely not registered in the
+     * domain are rejected by the {@link ResourceIdentifierFilter} without the database lookup.
+     *
+     * @return the resource or null if the resource is not registered
+     */
+    public DBResource resolveFilteredResourceIdentifier(DBDomain domain, DBResourceDef resourceDef, Identifier resourceIdentifier, boolean isCaseSensitive) {
+        if (!resourceIdentifierFilter.mightBeRegistered(domain, resourceIdentifier)) {
+            LOG.debug("Resource identifier [{}] is not registered in the domain [{}]", resourceIdentifier, domain.getDomainCode());
+            return null;
+        }
+        DBResource resource = resolveResourceIdentifier(domain, resourceDef, resourceIdentifier, isCaseSensitive);
+        if (resource == null) {
+            resourceIdentifierFilter.recordFalsePositive(domain);
+        }
+        return resource;
+    }
+
     /**
      * Method resolves the group for the given domain, admin user and group name.
      * If the group name is null/not given, the first group is returned. If the group name is provided
@@ -385,10 +456,8 @@ public class ResourceResolverService {
     }
 
     public DBSubresourceDef getSubresourceDefinition(DBResourceDef resourceDef, String urlPathSegment) {
-        return resourceDef.getSubresources()
-                .stream()
-                .filter(subresourceDef -> StringUtils.equals(subresourceDef.getUrlSegment(), urlPathSegment))
-                .findFirst().orElseThrow(() -> new SMPRuntimeException(ErrorCode.INVALID_REQUEST,
+        return resourceMetadataCache.getSnapshot().getSubresourceDef(resourceDef, urlPathSegment)
+                .orElseThrow(() -> new SMPRuntimeException(ErrorCode.INVALID_REQUEST,
                         urlPathSegment, "Subresource [" + urlPathSegment + "] does not exist for resource type [" + resourceDef.getName() + "]"));
     }
 
@@ -0,0 +1,253 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services.resource;
+
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.services.ConfigurationService;
+import eu.europa.ec.edelivery.smp.utils.HttpEncodingUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The cache of the rendered (property substituted, serialized and signed) resource and subresource responses for the
+ * public read path. The entries are stored by resource and subresource database id and are validated with the
+ * fingerprint of the data used to render the response: the document revision, the domain signature configuration
+ * and the SMP base url. Entries are evicted when the resource documents are changed, and the whole cache is cleared
+ * when the keystore or shared (referenced) documents are changed. The evictions are applied also to the persistent
+ * {@link ResourceSnapshotStore}.
+ *
+ * @since 5.2
+ */
+@Component
+public class ResourceResponseCache {
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(ResourceResponseCache.class);
+
+    private final ConfigurationService configurationService;
+    private final ResourceSnapshotStore resourceSnapshotStore;
+    private final LinkedHashMap<CacheKey, CachedResponse> cache = new LinkedHashMap<>(256, 0.75f, true);
+
+    public ResourceResponseCache(ConfigurationService configurationService, ResourceSnapshotStore resourceSnapshotStore) {
+        this.configurationService = configurationService;
+        this.resourceSnapshotStore = resourceSnapshotStore;
+    }
+
+    public boolean isEnabled() {
+        return configurationService.isResourceResponseCacheEnabled();
+    }
+
+    /**
+     * Method returns the cached response for the resource/subresource if the response exists, is not expired and was
+     * rendered with the same fingerprint.
+     *
+     * @param resourceId    the resource database id
+     * @param subresourceId the subresource database id or null for the resource response
+     * @param fingerprint   the fingerprint of the data used to render the response
+     * @return cached response or null
+     */
+    public CachedResponse get(Long resourceId, Long subresourceId, String fingerprint) {
+        if (resourceId == null || !isEnabled()) {
+            return null;
+        }
+        CacheKey key = new CacheKey(resourceId, subresourceId);
+        CachedResponse response;
+        synchronized (cache) {
+            response = cache.get(key);
+            if (response == null) {
+                return null;
+            }
+            if (!Objects.equals(response.getFingerprint(), fingerprint)
+                    || response.isExpired(System.currentTimeMillis(), configurationService.getResourceResponseCacheTTLInSeconds())) {
+                LOG.debug("Cached response for [{}] is not valid anymore!", key);
+                cache.remove(key);
+                return null;
+            }
+        }
+        return response;
+    }
+
+    public void put(Long resourceId, Long subresourceId, CachedResponse response) {
+        if (resourceId == null || response == null || !isEnabled()) {
+            return;
+        }
+        int maxEntries = configurationService.getResourceResponseCacheMaxEntries();
+        synchronized (cache) {
+            cache.put(new CacheKey(resourceId, subresourceId), response);
+            while (cache.size() > maxEntries) {
+                // remove the least recently accessed entry
+                cache.remove(cache.keySet().iterator().next());
+            }
+        }
+    }
+
+    /**
+     * Evict the resource response and the responses of all its subresources. Because the service group response lists
+     * the subresources, a subresource change must also evict the resource response. If the method is called in
+     * the transaction, the entries are evicted again after the commit so that response rendered by concurrent reader
+     * before the commit is not kept in the cache.
+     *
+     * @param resourceId the resource database id
+     */
+    public void evictResource(Long resourceId) {
+        if (resourceId == null) {
+            return;
+        }
+        LOG.debug("Evict cached responses for resource id [{}]", resourceId);
+        removeResourceEntries(resourceId);
+        resourceSnapshotStore.evictResource(resourceId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    removeResourceEntries(resourceId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Clear all cached responses. Method is invoked when the data used for all responses is changed, as for example
+     * the keystore or shared document.
+     */
+    public void clear() {
+        LOG.debug("Clear resource response cache");
+        synchronized (cache) {
+            cache.clear();
+        }
+        resourceSnapshotStore.clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    synchronized (cache) {
+                        cache.clear();
+                    }
+                }
+            });
+        }
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private void removeResourceEntries(Long resourceId) {
+        synchronized (cache) {
+            cache.keySet().removeIf(key -> Objects.equals(key.resourceId, resourceId));
+        }
+    }
+
+    /**
+     * The rendered response: the content type, http headers set by the resource handler and the response body. The
+     * encoded (compressed) variants of the body are computed on the first request which accepts the encoding and
+     * are kept with the response, so the document version is compressed only once.
+     */
+    public static class CachedResponse {
+        private final String fingerprint;
+        private final String contentType;
+        private final Map<String, String> httpHeaders;
+        private final byte[] content;
+        private final Map<String, byte[]> encodedContent = new ConcurrentHashMap<>(2);
+        private final long created;
+
+        public CachedResponse(String fingerprint, String contentType, Map<String, String> httpHeaders, byte[] content) {
+            this.fingerprint = fingerprint;
+            this.contentType = contentType;
+            this.httpHeaders = httpHeaders == null || httpHeaders.isEmpty() ? Collections.emptyMap() :
+                    Collections.unmodifiableMap(new HashMap<>(httpHeaders));
+            this.content = content;
+            this.created = System.currentTimeMillis();
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public Map<String, String> getHttpHeaders() {
+            return httpHeaders;
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+
+        /**
+         * Returns the response body encoded with the content coding. The body is encoded only once.
+         *
+         * @param encoding the supported content coding
+         * @return the encoded response body
+         */
+        public byte[] getEncodedContent(String encoding) {
+            return encodedContent.computeIfAbsent(encoding, key -> HttpEncodingUtils.encode(key, content));
+        }
+
+        /**
+         * Returns the encoded variants of the response body computed so far.
+         */
+        public Map<String, byte[]> getEncodedContents() {
+            return Collections.unmodifiableMap(encodedContent);
+        }
+
+        boolean isExpired(long now, int ttlInSeconds) {
+            return ttlInSeconds <= 0 || now - created > ttlInSeconds * 1000L;
+        }
+    }
+
+    private static class CacheKey {
+        private final Long resourceId;
+        private final Long subresourceId;
+
+        CacheKey(Long resourceId, Long subresourceId) {
+            this.resourceId = resourceId;
+            this.subresourceId = subresourceId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            CacheKey cacheKey = (CacheKey) o;
+            return Objects.equals(resourceId, cacheKey.resourceId) && Objects.equals(subresourceId, cacheKey.subresourceId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(resourceId, subresourceId);
+        }
+
+        @Override
+        public String toString() {
+            return "resource id: [" + resourceId + "], subresource id: [" + subresourceId + "]";
+        }
+    }
+}
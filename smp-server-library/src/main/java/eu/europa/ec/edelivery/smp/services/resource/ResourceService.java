@@ -27,13 +27,27 @@ import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
 import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.monitor.SMPMetrics;
+import eu.europa.ec.edelivery.smp.servlet.ResourceAction;
 import eu.europa.ec.edelivery.smp.servlet.ResourceRequest;
 import eu.europa.ec.edelivery.smp.servlet.ResourceResponse;
 import eu.europa.ec.edelivery.text.DistinguishedNamesCodingUtil;
 import eu.europa.ec.smp.spi.resource.ResourceDefinitionSpi;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.hibernate.exception.JDBCConnectionException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.QueryTimeoutException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -56,18 +70,23 @@ public class ResourceService {
 
     final SubresourceDao subresourceDao;
     final UserDao userDao;
+    final TransactionTemplate readOnlyTransactionTemplate;
 
 
     public ResourceService(List<ResourceDefinitionSpi> resourceDefinitionSpiList,
                            ResourceResolverService resolverService,
                            ResourceHandlerService resourceHandlerService,
                            SubresourceDao subresourceDao,
-                           UserDao userDao) {
+                           UserDao userDao,
+                           PlatformTransactionManager transactionManager) {
         this.resourceDefinitionSpiList = resourceDefinitionSpiList;
         this.resolverService = resolverService;
         this.resourceHandlerService = resourceHandlerService;
         this.subresourceDao = subresourceDao;
         this.userDao = userDao;
+        // the read requests are resolved and handled in one read-only transaction which can use the read replica
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
     }
 
     /**
@@ -82,8 +101,75 @@ public class ResourceService {
                               ResourceRequest resourceRequest,
                               ResourceResponse resourceResponse) {
         LOG.info("Handle request [{}] for user: [{}]", user, resourceRequest);
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            if (resourceRequest.getAction() == ResourceAction.READ) {
+                handleReadRequest(user, resourceRequest, resourceResponse, start);
+            } else {
+                resolveAndHandleRequest(user, resourceRequest, resourceResponse, null, start);
+            }
+        } catch (RuntimeException ex) {
+            failure = ex;
+            throw ex;
+        } finally {
+            SMPMetrics.recordRequest(getDomainCode(resourceRequest), getResourceType(resourceRequest),
+                    resourceRequest.getAction() == null ? null : resourceRequest.getAction().name().toLowerCase(),
+                    SMPMetrics.outcome(failure), start);
+        }
+    }
+
+    /**
+     * The read request is served from the resource snapshot if the snapshot was validated within the max-age.
+     * Otherwise, it is resolved and handled in the read-only transaction, and if the database is not available, the
+     * snapshot validated within the max-stale time is served.
+     */
+    private void handleReadRequest(SMPUserDetails user,
+                                   ResourceRequest resourceRequest,
+                                   ResourceResponse resourceResponse,
+                                   long start) {
+        String snapshotKey = resolverService.resolveSnapshotKey(resourceRequest);
+        if (resourceHandlerService.readSnapshot(resourceRequest, resourceResponse, snapshotKey, false)) {
+            return;
+        }
+        try {
+            readOnlyTransactionTemplate.executeWithoutResult(status ->
+                    resolveAndHandleRequest(user, resourceRequest, resourceResponse, snapshotKey, start));
+        } catch (RuntimeException ex) {
+            if (snapshotKey == null || !isDatabaseFailure(ex)
+                    || !resourceHandlerService.readSnapshot(resourceRequest, resourceResponse, snapshotKey, true)) {
+                throw ex;
+            }
+            LOG.warn("Database is not available, the request [{}] was served from the resource snapshot. Error: [{}]",
+                    snapshotKey, ExceptionUtils.getRootCauseMessage(ex));
+        }
+    }
+
+    /**
+     * Returns true if the exception or its cause reports the unavailable database: the connection failure or the
+     * query timeout.
+     */
+    protected static boolean isDatabaseFailure(Throwable exception) {
+        return ExceptionUtils.getThrowableList(exception).stream().anyMatch(cause ->
+                cause instanceof DataAccessResourceFailureException
+                        || cause instanceof TransientDataAccessException
+                        || cause instanceof RecoverableDataAccessException
+                        || cause instanceof CannotCreateTransactionException
+                        || cause instanceof JDBCConnectionException
+                        || cause instanceof QueryTimeoutException
+                        || cause instanceof SQLTransientException
+                        || cause instanceof SQLRecoverableException
+                        || cause instanceof SQLNonTransientConnectionException);
+    }
 
+    private void resolveAndHandleRequest(SMPUserDetails user,
+                                         ResourceRequest resourceRequest,
+                                         ResourceResponse resourceResponse,
+                                         String snapshotKey,
+                                         long start) {
         ResolvedData data = resolverService.resolveAndAuthorizeRequest(user, resourceRequest);
+        SMPMetrics.recordStage(SMPMetrics.RequestStage.RESOLVE, getDomainCode(resourceRequest), start);
+        data.setSnapshotKey(snapshotKey);
         resourceRequest.setResolvedData(data);
 
         if (data.getSubresource() == null) {
@@ -93,6 +179,21 @@ public class ResourceService {
         }
     }
 
+    private static String getDomainCode(ResourceRequest resourceRequest) {
+        return resourceRequest.getAuthorizedDomain() == null ? null : resourceRequest.getAuthorizedDomain().getDomainCode();
+    }
+
+    private static String getResourceType(ResourceRequest resourceRequest) {
+        ResolvedData data = resourceRequest.getResolvedData();
+        if (data == null) {
+            return null;
+        }
+        if (data.getSubResourceDef() != null) {
+            return data.getSubResourceDef().getIdentifier();
+        }
+        return data.getResourceDef() == null ? null : data.getResourceDef().getIdentifier();
+    }
+
     /**
      * Method handles the action (read, update, create, delete) for the  resource and user. The response is "written" to output stream
      *
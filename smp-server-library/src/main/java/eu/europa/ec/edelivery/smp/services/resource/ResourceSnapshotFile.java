@@ -0,0 +1,937 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services.resource;
+
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.utils.HttpEncodingUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * The memory-mapped, append-only file of the rendered resource response snapshots. Each snapshot and each removal
+ * (tombstone) is appended as the record, and the in-memory index maps the snapshot key to the offset of the last
+ * record for the key. The snapshots are read directly from the mapped file, so the file content does not occupy the
+ * heap and survives the restart of the SMP node.
+ * <p>
+ * Record layout: record length (int), validated-on time (long), record type (byte), the record data and the CRC32
+ * checksum (int) of the type and the data. The snapshot data contain also the encoded (compressed) variants of the
+ * response body. The file with the other version is reinitialized when opened. The validated-on time is not part of the
+ * checksum, because it is updated in place when the snapshot is revalidated. When the file is opened, the records are
+ * read until the first record with invalid length or checksum (e.g. the record partially written before the crash), and
+ * the next records are overwritten. The file is compacted when more than half of it is occupied by replaced or removed
+ * records.
+ * <p>
+ * The writes are synchronized, the reads are not locked. The written record is never overwritten while the file is
+ * opened: the new records are appended, and the compaction and clear write the new file which replaces the current
+ * one, so the buffers of the replaced file stay valid for the concurrent readers. Therefore, the checksum is verified
+ * only when the file is opened, and the snapshot read from the file returns the response body as the read-only view
+ * of the mapped buffer, without copying it to the heap. The file can be used only by one process: it is locked with
+ * the lock file (the file name with the ".lock" suffix) while opened. The files in the same folder which are not
+ * locked by any process (e.g. the files of the SMP node which was restarted with the new host name) can be removed
+ * when the file is opened, and the most recent of them is then used as the snapshot file if it does not exist yet.
+ *
+ * @since 5.2
+ */
+public class ResourceSnapshotFile implements Closeable {
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(ResourceSnapshotFile.class);
+
+    static final int FILE_MAGIC = 0x534D5053;
+    static final int FILE_VERSION = 2;
+    static final int HEADER_SIZE = 8;
+    static final int MIN_CAPACITY = 1024 * 1024;
+    static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+    static final int MIN_COMPACT_SIZE = 4 * 1024 * 1024;
+    static final byte RECORD_SNAPSHOT = 1;
+    static final byte RECORD_TOMBSTONE = 2;
+    // length + validated-on + type + checksum
+    static final int RECORD_OVERHEAD = 4 + 8 + 1 + 4;
+    static final int VALIDATED_ON_OFFSET = 4;
+    static final int TYPE_OFFSET = 12;
+    static final long NONE = -1L;
+    static final String LOCK_SUFFIX = ".lock";
+    static final String COMPACT_SUFFIX = ".compact";
+
+    private final Path path;
+    private FileChannel channel;
+    private FileChannel lockChannel;
+    private volatile Segment segment;
+    private int writePosition;
+    private long liveBytes;
+
+    protected ResourceSnapshotFile(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Open or create the snapshot file and load the index of the stored snapshots.
+     *
+     * @param path the snapshot file
+     * @return the opened snapshot file
+     * @throws IOException if the file can not be created or mapped, or if it is used by another process
+     */
+    public static ResourceSnapshotFile open(Path path) throws IOException {
+        return open(path, null);
+    }
+
+    /**
+     * Open or create the snapshot file and load the index of the stored snapshots. Before the file is loaded, the
+     * matching snapshot files in the same folder which are not used by any process are removed. If the snapshot file
+     * does not exist, the most recently modified unused file is renamed to the snapshot file, so the stored snapshots
+     * are kept when the file name changes.
+     *
+     * @param path        the snapshot file
+     * @param unusedFiles the filter of the snapshot files in the folder to remove when not used, or null to keep them
+     * @return the opened snapshot file
+     * @throws IOException if the file can not be created or mapped, or if it is used by another process
+     */
+    public static ResourceSnapshotFile open(Path path, Predicate<Path> unusedFiles) throws IOException {
+        ResourceSnapshotFile file = new ResourceSnapshotFile(path);
+        file.lock();
+        try {
+            if (unusedFiles != null) {
+                file.removeUnusedFiles(unusedFiles);
+            }
+            file.load();
+        } catch (IOException | RuntimeException exc) {
+            closeChannel(file.lockChannel);
+            throw exc;
+        }
+        return file;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int size() {
+        return segment.index.size();
+    }
+
+    /**
+     * Returns the number of bytes used by the records, including the replaced and removed records.
+     */
+    public synchronized int getUsedBytes() {
+        return writePosition;
+    }
+
+    /**
+     * Returns the snapshot for the key, or null if the snapshot does not exist.
+     *
+     * @param key the snapshot key
+     * @return the snapshot or null
+     */
+    public Snapshot get(String key) {
+        Segment current = segment;
+        IndexEntry entry = current.index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.offset + entry.length > current.buffer.capacity()) {
+            // the file was extended or replaced by concurrent write
+            current = segment;
+            entry = current.index.get(key);
+            if (entry == null) {
+                return null;
+            }
+        }
+        // the checksum of the record was verified when the file was opened or when the record was written
+        Snapshot snapshot = readSnapshot(current.buffer, entry.offset, entry.length);
+        if (snapshot == null || !Objects.equals(key, snapshot.getKey())) {
+            LOG.warn("Invalid snapshot record for key [{}]", key);
+            return null;
+        }
+        snapshot.validatedOn = entry.validatedOn;
+        return snapshot;
+    }
+
+    /**
+     * Returns the index entries of all stored snapshots.
+     *
+     * @return the map of the snapshot key to the index entry
+     */
+    public Map<String, IndexEntry> getEntries() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(segment.index));
+    }
+
+    /**
+     * Append the snapshot for the key. The previous snapshot of the key is replaced.
+     *
+     * @param snapshot    the snapshot to store
+     * @param validatedOn the time in milliseconds when the snapshot was validated against the database
+     * @throws IOException if the file can not be extended
+     */
+    public synchronized void put(Snapshot snapshot, long validatedOn) throws IOException {
+        byte[] record = createSnapshotRecord(snapshot, validatedOn);
+        int offset = append(record);
+        IndexEntry entry = new IndexEntry(offset, record.length, snapshot.getResourceId(), snapshot.getSubresourceId(),
+                snapshot.getRevision(), snapshot.getFingerprint(), validatedOn);
+        replaceEntry(snapshot.getKey(), entry);
+        compactIfNeeded();
+    }
+
+    /**
+     * Update the validated-on time of the snapshot if the stored snapshot was rendered with the given fingerprint.
+     * The method is not synchronized, because it is called for each served response: the time is set to the index
+     * entry, which is used by the readers, and it is written to the record only to keep it when the file is opened
+     * again. The update is lost if the record is concurrently moved by the compaction, and the snapshot is then
+     * validated again.
+     *
+     * @param key         the snapshot key
+     * @param fingerprint the fingerprint of the validated snapshot
+     * @param validatedOn the time in milliseconds when the snapshot was validated against the database
+     * @return true if the snapshot was updated
+     */
+    public boolean touch(String key, String fingerprint, long validatedOn) {
+        Segment current = segment;
+        IndexEntry entry = current.index.get(key);
+        if (entry == null || !Objects.equals(entry.fingerprint, fingerprint)) {
+            return false;
+        }
+        entry.validatedOn = validatedOn;
+        if (entry.offset + entry.length <= current.buffer.capacity()) {
+            // the validated-on time is not covered by the record checksum
+            current.buffer.putLong(entry.offset + VALIDATED_ON_OFFSET, validatedOn);
+        }
+        return true;
+    }
+
+    /**
+     * Remove the snapshot for the key.
+     *
+     * @param key the snapshot key
+     * @return true if the snapshot existed
+     * @throws IOException if the file can not be extended
+     */
+    public synchronized boolean remove(String key) throws IOException {
+        if (!segment.index.containsKey(key)) {
+            return false;
+        }
+        append(createTombstoneRecord(key));
+        replaceEntry(key, null);
+        compactIfNeeded();
+        return true;
+    }
+
+    /**
+     * Remove the snapshots of the resource and of all its subresources.
+     *
+     * @param resourceId the resource database id
+     * @return the number of removed snapshots
+     * @throws IOException if the file can not be extended
+     */
+    public synchronized int removeResource(long resourceId) throws IOException {
+        List<String> keys = new ArrayList<>();
+        segment.index.forEach((key, entry) -> {
+            if (entry.resourceId == resourceId) {
+                keys.add(key);
+            }
+        });
+        for (String key : keys) {
+            append(createTombstoneRecord(key));
+            replaceEntry(key, null);
+        }
+        compactIfNeeded();
+        return keys.size();
+    }
+
+    /**
+     * Remove all snapshots. The empty file replaces the current file. If the file can not be written, the snapshots
+     * are removed from the index and the file is reinitialized when it is opened again.
+     */
+    public synchronized void clear() {
+        try {
+            rewrite(Collections.emptyMap());
+        } catch (IOException | RuntimeException exc) {
+            LOG.warn("Can not clear the snapshot file [{}]: [{}]", path, exc.getMessage());
+            // the records can not be overwritten, because they might be read concurrently: invalidate the header
+            segment.buffer.putInt(0, 0);
+            liveBytes = 0;
+            segment = new Segment(segment.buffer, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Rewrite the file with the current snapshots only.
+     *
+     * @throws IOException if the compacted file can not be written
+     */
+    public synchronized void compact() throws IOException {
+        rewrite(segment.index);
+    }
+
+    /**
+     * Write the new file with the given snapshots. The new file is written next to the current file and atomically
+     * replaces it.
+     *
+     * @param entries the index entries of the snapshots in the current file to copy to the new file
+     * @throws IOException if the new file can not be written
+     */
+    protected void rewrite(Map<String, IndexEntry> entries) throws IOException {
+        Segment current = segment;
+        Path compactPath = path.resolveSibling(path.getFileName() + COMPACT_SUFFIX);
+        long entriesSize = entries.values().stream().mapToLong(entry -> entry.length).sum();
+        int capacity = getCapacity(HEADER_SIZE + entriesSize + 4, MIN_CAPACITY);
+        Map<String, IndexEntry> index = new ConcurrentHashMap<>();
+        FileChannel compactChannel = FileChannel.open(compactPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            MappedByteBuffer buffer = compactChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            writeHeader(buffer);
+            int position = HEADER_SIZE;
+            for (Map.Entry<String, IndexEntry> mapEntry : entries.entrySet()) {
+                IndexEntry entry = mapEntry.getValue();
+                ByteBuffer record = current.buffer.duplicate();
+                record.position(entry.offset).limit(entry.offset + entry.length);
+                ByteBuffer target = buffer.duplicate();
+                target.position(position);
+                target.put(record);
+                // the validated-on time of the record might be concurrently updated: write the time of the entry
+                buffer.putLong(position + VALIDATED_ON_OFFSET, entry.validatedOn);
+                index.put(mapEntry.getKey(), entry.moveTo(position));
+                position += entry.length;
+            }
+            buffer.putInt(position, 0);
+            buffer.force();
+            Files.move(compactPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOG.info("Snapshot file [{}] rewritten from [{}] to [{}] bytes", path, writePosition, position);
+            closeChannel(channel);
+            channel = compactChannel;
+            writePosition = position;
+            liveBytes = position - HEADER_SIZE;
+            segment = new Segment(buffer, index);
+        } catch (IOException | RuntimeException exc) {
+            closeChannel(compactChannel);
+            Files.deleteIfExists(compactPath);
+            throw exc;
+        }
+    }
+
+    /**
+     * Write the mapped content to the storage device.
+     */
+    public synchronized void flush() {
+        segment.buffer.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        closeChannel(channel);
+        // closing the channel releases the lock
+        closeChannel(lockChannel);
+    }
+
+    /**
+     * Lock the lock file of the snapshot file, so that the snapshot file is not used by the other process (e.g. the
+     * other SMP node using the same folder on the shared storage).
+     *
+     * @throws IOException if the lock file can not be created or it is locked by another process
+     */
+    protected void lock() throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path lockPath = path.resolveSibling(path.getFileName() + LOCK_SUFFIX);
+        lockChannel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (IOException | OverlappingFileLockException exc) {
+            // the file is already locked by this process or the file system does not support the locks
+            LOG.debug("Can not lock the snapshot lock file [{}]: [{}]", lockPath, exc.getMessage());
+            lock = null;
+        }
+        if (lock == null) {
+            closeChannel(lockChannel);
+            throw new IOException("The snapshot file [" + path + "] is used by another process");
+        }
+    }
+
+    /**
+     * Remove the snapshot files in the folder of this file which match the filter and are not locked by any process.
+     * The most recently modified of them is renamed to this file if this file does not exist. The method is invoked
+     * when this file is locked.
+     */
+    protected void removeUnusedFiles(Predicate<Path> unusedFiles) {
+        Path filePath = path.toAbsolutePath();
+        List<Path> files;
+        try (Stream<Path> folderFiles = Files.list(filePath.getParent())) {
+            files = folderFiles.filter(file -> !file.equals(filePath) && isSnapshotFile(file)
+                            && unusedFiles.test(file.getFileName()))
+                    .sorted(Comparator.comparing(ResourceSnapshotFile::getLastModifiedTime).reversed())
+                    .collect(Collectors.toList());
+        } catch (IOException | RuntimeException exc) {
+            LOG.warn("Can not list the snapshot files in the folder [{}]: [{}]", filePath.getParent(), exc.getMessage());
+            return;
+        }
+        for (Path file : files) {
+            ResourceSnapshotFile unusedFile = new ResourceSnapshotFile(file);
+            try {
+                unusedFile.lock();
+            } catch (IOException exc) {
+                LOG.debug("Snapshot file [{}] is used: [{}]", file, exc.getMessage());
+                continue;
+            }
+            try {
+                if (!Files.exists(file)) {
+                    // removed by another process before the lock was acquired
+                    continue;
+                }
+                if (Files.exists(filePath)) {
+                    Files.delete(file);
+                    LOG.info("Removed the unused snapshot file [{}]", file);
+                } else {
+                    Files.move(file, filePath, StandardCopyOption.ATOMIC_MOVE);
+                    LOG.info("Use the unused snapshot file [{}] as the snapshot file [{}]", file, filePath);
+                }
+                Files.deleteIfExists(file.resolveSibling(file.getFileName() + COMPACT_SUFFIX));
+            } catch (IOException | RuntimeException exc) {
+                LOG.warn("Can not remove the unused snapshot file [{}]: [{}]", file, exc.getMessage());
+            } finally {
+                closeChannel(unusedFile.lockChannel);
+                deleteQuietly(file.resolveSibling(file.getFileName() + LOCK_SUFFIX));
+            }
+        }
+    }
+
+    private static boolean isSnapshotFile(Path file) {
+        String name = file.getFileName().toString();
+        return Files.isRegularFile(file) && !name.endsWith(LOCK_SUFFIX) && !name.endsWith(COMPACT_SUFFIX);
+    }
+
+    private static FileTime getLastModifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException exc) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException exc) {
+            LOG.debug("Can not delete the file [{}]: [{}]", file, exc.getMessage());
+        }
+    }
+
+    protected void load() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long fileSize = channel.size();
+        int capacity = getCapacity(fileSize, MIN_CAPACITY);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        Map<String, IndexEntry> index = new ConcurrentHashMap<>();
+        segment = new Segment(buffer, index);
+        liveBytes = 0;
+        if (fileSize < HEADER_SIZE || buffer.getInt(0) != FILE_MAGIC || buffer.getInt(4) != FILE_VERSION) {
+            LOG.info("Initialize the snapshot file [{}]", path);
+            // the file is not read yet: it can be initialized in place
+            writeHeader(buffer);
+            writePosition = HEADER_SIZE;
+            buffer.putInt(writePosition, 0);
+            return;
+        }
+        int position = HEADER_SIZE;
+        while (position + RECORD_OVERHEAD <= capacity) {
+            int length = buffer.getInt(position);
+            if (length < RECORD_OVERHEAD || length > capacity - position || !isChecksumValid(buffer, position, length)) {
+                break;
+            }
+            if (buffer.get(position + TYPE_OFFSET) == RECORD_SNAPSHOT) {
+                Snapshot snapshot = readSnapshot(buffer, position, length);
+                if (snapshot == null) {
+                    break;
+                }
+                long validatedOn = buffer.getLong(position + VALIDATED_ON_OFFSET);
+                if (validatedOn > System.currentTimeMillis()) {
+                    // the time was not completely written: validate the snapshot again
+                    validatedOn = 0;
+                }
+                replaceEntry(snapshot.getKey(), new IndexEntry(position, length, snapshot.getResourceId(),
+                        snapshot.getSubresourceId(), snapshot.getRevision(), snapshot.getFingerprint(), validatedOn));
+            } else {
+                ByteBuffer data = recordData(buffer, position, length);
+                replaceEntry(readString(data), null);
+            }
+            position += length;
+        }
+        writePosition = position;
+        if (position + 4 <= capacity) {
+            // overwrite the partially written record
+            buffer.putInt(position, 0);
+        }
+        LOG.info("Snapshot file [{}] loaded with [{}] snapshots", path, index.size());
+    }
+
+    protected int append(byte[] record) throws IOException {
+        ensureCapacity(record.length + 4);
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = writePosition;
+        ByteBuffer target = buffer.duplicate();
+        target.position(offset + 4);
+        target.put(record, 4, record.length - 4);
+        // the length is written last, so the record is not visible to the scan before it is complete
+        buffer.putInt(offset + record.length, 0);
+        buffer.putInt(offset, record.length);
+        writePosition = offset + record.length;
+        return offset;
+    }
+
+    protected void ensureCapacity(int recordLength) throws IOException {
+        Segment current = segment;
+        long required = (long) writePosition + recordLength;
+        if (required <= current.buffer.capacity()) {
+            return;
+        }
+        if (writePosition - HEADER_SIZE > 2 * liveBytes) {
+            compact();
+            current = segment;
+            required = (long) writePosition + recordLength;
+            if (required <= current.buffer.capacity()) {
+                return;
+            }
+        }
+        if (required > MAX_CAPACITY) {
+            throw new IOException("The snapshot file [" + path + "] exceeded the maximum size!");
+        }
+        int capacity = getCapacity(required, current.buffer.capacity());
+        LOG.debug("Extend the snapshot file [{}] to [{}] bytes", path, capacity);
+        segment = new Segment(channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), current.index);
+    }
+
+    protected void compactIfNeeded() throws IOException {
+        if (writePosition > MIN_COMPACT_SIZE && writePosition - HEADER_SIZE > 2 * liveBytes) {
+            compact();
+        }
+    }
+
+    private void replaceEntry(String key, IndexEntry entry) {
+        IndexEntry previous = entry == null ? segment.index.remove(key) : segment.index.put(key, entry);
+        if (previous != null) {
+            liveBytes -= previous.length;
+        }
+        if (entry != null) {
+            liveBytes += entry.length;
+        }
+    }
+
+    private static int getCapacity(long required, int currentCapacity) {
+        long capacity = Math.max(currentCapacity, MIN_CAPACITY);
+        while (capacity < required) {
+            capacity *= 2;
+        }
+        return (int) Math.min(capacity, MAX_CAPACITY);
+    }
+
+    private static void writeHeader(ByteBuffer buffer) {
+        buffer.putInt(0, FILE_MAGIC);
+        buffer.putInt(4, FILE_VERSION);
+    }
+
+    private static void closeChannel(FileChannel fileChannel) {
+        try {
+            fileChannel.close();
+        } catch (IOException exc) {
+            LOG.warn("Can not close the snapshot file channel: [{}]", exc.getMessage());
+        }
+    }
+
+    protected static byte[] createSnapshotRecord(Snapshot snapshot, long validatedOn) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(snapshot.content.remaining() + 512);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeLong(validatedOn);
+        out.writeByte(RECORD_SNAPSHOT);
+        out.writeLong(snapshot.getResourceId());
+        out.writeLong(snapshot.getSubresourceId() == null ? NONE : snapshot.getSubresourceId());
+        out.writeLong(snapshot.getLastModified() == null ? NONE : snapshot.getLastModified());
+        writeString(out, snapshot.getKey());
+        writeString(out, snapshot.getRevision());
+        writeString(out, snapshot.getFingerprint());
+        writeString(out, snapshot.getContentType());
+        out.writeInt(snapshot.getHttpHeaders().size());
+        for (Map.Entry<String, String> header : snapshot.getHttpHeaders().entrySet()) {
+            writeString(out, header.getKey());
+            writeString(out, header.getValue());
+        }
+        writeBuffer(out, snapshot.content);
+        Map<String, ByteBuffer> encodedContents = snapshot.getEncodedContents();
+        out.writeInt(encodedContents.size());
+        for (Map.Entry<String, ByteBuffer> encoded : encodedContents.entrySet()) {
+            writeString(out, encoded.getKey());
+            writeBuffer(out, encoded.getValue());
+        }
+        out.writeInt(0);
+        return finishRecord(bytes.toByteArray());
+    }
+
+    protected static byte[] createTombstoneRecord(String key) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(key.length() + 32);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeLong(0);
+        out.writeByte(RECORD_TOMBSTONE);
+        writeString(out, key);
+        out.writeInt(0);
+        return finishRecord(bytes.toByteArray());
+    }
+
+    private static byte[] finishRecord(byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        buffer.putInt(0, record.length);
+        CRC32 crc = new CRC32();
+        crc.update(record, TYPE_OFFSET, record.length - TYPE_OFFSET - 4);
+        buffer.putInt(record.length - 4, (int) crc.getValue());
+        return record;
+    }
+
+    private static boolean isChecksumValid(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer data = buffer.duplicate();
+        data.position(offset + TYPE_OFFSET).limit(offset + length - 4);
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return (int) crc.getValue() == buffer.getInt(offset + length - 4);
+    }
+
+    private static ByteBuffer recordData(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer data = buffer.duplicate();
+        data.position(offset + TYPE_OFFSET + 1).limit(offset + length - 4);
+        return data;
+    }
+
+    /**
+     * Read the snapshot record. The checksum is not verified. The response bodies of the returned snapshot are the
+     * read-only views of the buffer. Returns null if the record at the offset is not the snapshot record.
+     */
+    protected static Snapshot readSnapshot(ByteBuffer buffer, int offset, int length) {
+        if (offset < HEADER_SIZE || length < RECORD_OVERHEAD || offset + length > buffer.capacity()
+                || buffer.getInt(offset) != length
+                || buffer.get(offset + TYPE_OFFSET) != RECORD_SNAPSHOT) {
+            return null;
+        }
+        try {
+            ByteBuffer data = recordData(buffer, offset, length);
+            long resourceId = data.getLong();
+            long subresourceId = data.getLong();
+            long lastModified = data.getLong();
+            String key = readString(data);
+            String revision = readString(data);
+            String fingerprint = readString(data);
+            String contentType = readString(data);
+            int headerCount = data.getInt();
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (int i = 0; i < headerCount; i++) {
+                headers.put(readString(data), readString(data));
+            }
+            ByteBuffer content = readBuffer(data);
+            // the encoded variants are read when requested
+            return new Snapshot(key, resourceId, subresourceId == NONE ? null : subresourceId, revision,
+                    fingerprint, contentType, headers, lastModified == NONE ? null : lastModified, content, null,
+                    data.slice());
+        } catch (BufferUnderflowException | IllegalArgumentException exc) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the read-only view of the encoded variant in the encoded variants section of the snapshot record, or
+     * null if the variant is not stored.
+     */
+    private static ByteBuffer findEncodedContent(ByteBuffer encodedSection, String encoding) {
+        ByteBuffer data = encodedSection.duplicate();
+        int encodedCount = data.getInt();
+        for (int i = 0; i < encodedCount; i++) {
+            String variant = readString(data);
+            ByteBuffer encoded = readBuffer(data);
+            if (Objects.equals(encoding, variant)) {
+                return encoded;
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, ByteBuffer> readEncodedContents(ByteBuffer encodedSection) {
+        ByteBuffer data = encodedSection.duplicate();
+        int encodedCount = data.getInt();
+        Map<String, ByteBuffer> encodedContents = new LinkedHashMap<>();
+        for (int i = 0; i < encodedCount; i++) {
+            String variant = readString(data);
+            encodedContents.put(variant, readBuffer(data));
+        }
+        return encodedContents;
+    }
+
+    /**
+     * Returns the read-only view of the length-prefixed bytes at the current position of the data and moves the
+     * position after them.
+     */
+    private static ByteBuffer readBuffer(ByteBuffer data) {
+        int length = data.getInt();
+        if (length < 0 || length > data.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        ByteBuffer content = data.slice();
+        content.limit(length);
+        data.position(data.position() + length);
+        return content.asReadOnlyBuffer();
+    }
+
+    private static void writeBuffer(DataOutputStream out, ByteBuffer buffer) throws IOException {
+        ByteBuffer data = buffer.duplicate();
+        out.writeInt(data.remaining());
+        if (data.hasArray()) {
+            out.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+            return;
+        }
+        byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        out.write(bytes);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer data) {
+        int length = data.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The mapped file buffer with the index of the snapshot records in the buffer.
+     */
+    private static class Segment {
+        private final MappedByteBuffer buffer;
+        private final Map<String, IndexEntry> index;
+
+        Segment(MappedByteBuffer buffer, Map<String, IndexEntry> index) {
+            this.buffer = buffer;
+            this.index = index;
+        }
+    }
+
+    /**
+     * The index entry of the snapshot record.
+     */
+    public static class IndexEntry {
+        private final int offset;
+        private final int length;
+        private final long resourceId;
+        private final Long subresourceId;
+        private final String revision;
+        private final String fingerprint;
+        private volatile long validatedOn;
+
+        IndexEntry(int offset, int length, long resourceId, Long subresourceId, String revision, String fingerprint,
+                   long validatedOn) {
+            this.offset = offset;
+            this.length = length;
+            this.resourceId = resourceId;
+            this.subresourceId = subresourceId;
+            this.revision = revision;
+            this.fingerprint = fingerprint;
+            this.validatedOn = validatedOn;
+        }
+
+        IndexEntry moveTo(int newOffset) {
+            return new IndexEntry(newOffset, length, resourceId, subresourceId, revision, fingerprint, validatedOn);
+        }
+
+        public long getResourceId() {
+            return resourceId;
+        }
+
+        public Long getSubresourceId() {
+            return subresourceId;
+        }
+
+        public String getRevision() {
+            return revision;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public long getValidatedOn() {
+            return validatedOn;
+        }
+    }
+
+    /**
+     * The rendered response of the resource or subresource with the data needed to validate it.
+     */
+    public static class Snapshot {
+        private final String key;
+        private final long resourceId;
+        private final Long subresourceId;
+        private final String revision;
+        private final String fingerprint;
+        private final String contentType;
+        private final Map<String, String> httpHeaders;
+        private final Long lastModified;
+        // the response bodies of the new snapshot, or the read-only views of the mapped record
+        private final ByteBuffer content;
+        private final Map<String, ByteBuffer> encodedContents;
+        private final ByteBuffer encodedSection;
+        private long validatedOn;
+
+        public Snapshot(String key, long resourceId, Long subresourceId, String revision, String fingerprint,
+                        String contentType, Map<String, String> httpHeaders, Long lastModified, byte[] content,
+                        Map<String, byte[]> encodedContents) {
+            this(key, resourceId, subresourceId, revision, fingerprint, contentType, httpHeaders, lastModified,
+                    ByteBuffer.wrap(content == null ? new byte[0] : content), wrapEncodedContents(encodedContents),
+                    null);
+        }
+
+        private Snapshot(String key, long resourceId, Long subresourceId, String revision, String fingerprint,
+                         String contentType, Map<String, String> httpHeaders, Long lastModified, ByteBuffer content,
+                         Map<String, ByteBuffer> encodedContents, ByteBuffer encodedSection) {
+            this.key = key;
+            this.resourceId = resourceId;
+            this.subresourceId = subresourceId;
+            this.revision = revision;
+            this.fingerprint = fingerprint;
+            this.contentType = contentType;
+            this.httpHeaders = httpHeaders == null || httpHeaders.isEmpty() ? Collections.emptyMap() :
+                    Collections.unmodifiableMap(new LinkedHashMap<>(httpHeaders));
+            this.lastModified = lastModified;
+            this.content = content;
+            this.encodedContents = encodedContents;
+            this.encodedSection = encodedSection;
+        }
+
+        private static Map<String, ByteBuffer> wrapEncodedContents(Map<String, byte[]> encodedContents) {
+            if (encodedContents == null || encodedContents.isEmpty()) {
+                return Collections.emptyMap();
+            }
+            Map<String, ByteBuffer> result = new LinkedHashMap<>();
+            encodedContents.forEach((encoding, encoded) -> result.put(encoding, ByteBuffer.wrap(encoded)));
+            return Collections.unmodifiableMap(result);
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getResourceId() {
+            return resourceId;
+        }
+
+        public Long getSubresourceId() {
+            return subresourceId;
+        }
+
+        public String getRevision() {
+            return revision;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public Map<String, String> getHttpHeaders() {
+            return httpHeaders;
+        }
+
+        public Long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Returns the read-only view of the response body.
+         */
+        public ByteBuffer getContent() {
+            return content.asReadOnlyBuffer();
+        }
+
+        /**
+         * Returns the read-only views of all stored encoded variants of the response body.
+         */
+        public Map<String, ByteBuffer> getEncodedContents() {
+            Map<String, ByteBuffer> result = new LinkedHashMap<>();
+            (encodedSection == null ? encodedContents : readEncodedContents(encodedSection))
+                    .forEach((encoding, encoded) -> result.put(encoding, encoded.asReadOnlyBuffer()));
+            return result;
+        }
+
+        /**
+         * Returns the read-only view of the stored encoded variant of the response body. If the variant was not
+         * stored (e.g. the encoding was enabled after the snapshot was stored), the body is encoded.
+         *
+         * @param encoding the supported content coding
+         * @return the encoded response body
+         */
+        public ByteBuffer getEncodedContent(String encoding) {
+            ByteBuffer encoded = encodedSection == null ? encodedContents.get(encoding)
+                    : findEncodedContent(encodedSection, encoding);
+            if (encoded != null) {
+                return encoded.asReadOnlyBuffer();
+            }
+            byte[] bytes = new byte[content.remaining()];
+            content.duplicate().get(bytes);
+            return ByteBuffer.wrap(HttpEncodingUtils.encode(encoding, bytes)).asReadOnlyBuffer();
+        }
+
+        public long getValidatedOn() {
+            return validatedOn;
+        }
+    }
+}
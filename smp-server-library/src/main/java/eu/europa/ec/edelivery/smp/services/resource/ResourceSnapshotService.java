@@ -0,0 +1,170 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services.resource;
+
+import eu.europa.ec.edelivery.smp.cron.SMPJobResult;
+import eu.europa.ec.edelivery.smp.data.dao.ResourceDao;
+import eu.europa.ec.edelivery.smp.data.dao.SubresourceDao;
+import eu.europa.ec.edelivery.smp.data.model.DBDomain;
+import eu.europa.ec.edelivery.smp.data.model.doc.DBResource;
+import eu.europa.ec.edelivery.smp.data.model.doc.DBSubresource;
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The resource snapshot maintenance. Because the responses are rendered with the SMP URL of the current HTTP request,
+ * the snapshots can not be re-rendered by the job. The job revalidates all stored snapshots against the database:
+ * the snapshots of the current public documents are marked as validated and all others are removed. At the end, the
+ * snapshot file is compacted. The removed snapshots are stored again on the first read served from the database.
+ *
+ * @since 5.2
+ */
+@Service
+public class ResourceSnapshotService {
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(ResourceSnapshotService.class);
+
+    static final int BATCH_SIZE = 100;
+
+    private final ResourceSnapshotStore resourceSnapshotStore;
+    private final ResourceDao resourceDao;
+    private final SubresourceDao subresourceDao;
+    private final ResourceStorage resourceStorage;
+    private final ResourceHandlerService resourceHandlerService;
+    private final TransactionTemplate transactionTemplate;
+
+    public ResourceSnapshotService(ResourceSnapshotStore resourceSnapshotStore,
+                                   ResourceDao resourceDao,
+                                   SubresourceDao subresourceDao,
+                                   ResourceStorage resourceStorage,
+                                   ResourceHandlerService resourceHandlerService,
+                                   PlatformTransactionManager transactionManager) {
+        this.resourceSnapshotStore = resourceSnapshotStore;
+        this.resourceDao = resourceDao;
+        this.subresourceDao = subresourceDao;
+        this.resourceStorage = resourceStorage;
+        this.resourceHandlerService = resourceHandlerService;
+        // the snapshots are validated against the primary database and not the read replica
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Revalidate all stored snapshots and compact the snapshot file.
+     *
+     * @return the number of the validated snapshots and the number of the snapshots which failed to validate
+     */
+    public SMPJobResult revalidate() {
+        if (!resourceSnapshotStore.isEnabled()) {
+            LOG.debug("Resource snapshot is not enabled");
+            return SMPJobResult.EMPTY;
+        }
+        List<Map.Entry<String, ResourceSnapshotFile.IndexEntry>> entries =
+                new ArrayList<>(resourceSnapshotStore.getEntries().entrySet());
+        LOG.info("Revalidate [{}] resource snapshots", entries.size());
+        SMPJobResult result = SMPJobResult.EMPTY;
+        for (int i = 0; i < entries.size(); i += BATCH_SIZE) {
+            result = result.add(revalidateBatch(entries.subList(i, Math.min(i + BATCH_SIZE, entries.size()))));
+        }
+        resourceSnapshotStore.compact();
+        LOG.info("Resource snapshots revalidated: [{}], snapshots in store: [{}]", result,
+                resourceSnapshotStore.size());
+        return result;
+    }
+
+    protected SMPJobResult revalidateBatch(List<Map.Entry<String, ResourceSnapshotFile.IndexEntry>> entries) {
+        long changeSequence = resourceSnapshotStore.getChangeSequence();
+        List<String> validKeys = new ArrayList<>();
+        List<String> invalidKeys = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Map.Entry<String, ResourceSnapshotFile.IndexEntry> entry : entries) {
+                    if (isValid(entry.getValue())) {
+                        validKeys.add(entry.getKey());
+                    } else {
+                        invalidKeys.add(entry.getKey());
+                    }
+                }
+            });
+        } catch (RuntimeException exc) {
+            LOG.warn("Can not revalidate [{}] resource snapshots: [{}]", entries.size(),
+                    ExceptionUtils.getRootCauseMessage(exc));
+            return SMPJobResult.of(0, entries.size());
+        }
+
+        int validated = 0;
+        for (String key : validKeys) {
+            ResourceSnapshotFile.IndexEntry entry = resourceSnapshotStore.getEntries().get(key);
+            // the snapshot changed during the validation: it is validated on the next read
+            if (entry != null && resourceSnapshotStore.touch(key, entry.getFingerprint(), changeSequence)) {
+                validated++;
+            }
+        }
+        invalidKeys.forEach(resourceSnapshotStore::remove);
+        return SMPJobResult.of(validated);
+    }
+
+    /**
+     * Returns true if the snapshot belongs to the public resource and was rendered from the current document revision
+     * with the current domain signature configuration.
+     */
+    protected boolean isValid(ResourceSnapshotFile.IndexEntry entry) {
+        DBResource resource = resourceDao.find(entry.getResourceId());
+        if (resource == null) {
+            return false;
+        }
+        DBDomain domain = resource.getDomainResourceDef() != null ? resource.getDomainResourceDef().getDomain()
+                : resource.getGroup() == null ? null : resource.getGroup().getDomain();
+        if (domain == null) {
+            return false;
+        }
+        ResolvedData resolvedData = new ResolvedData();
+        resolvedData.setDomain(domain);
+        resolvedData.setGroup(resource.getGroup());
+        resolvedData.setResource(resource);
+        if (!resourceHandlerService.isPublic(resolvedData)) {
+            return false;
+        }
+
+        ResourceStorage.DocumentRevision revision;
+        if (entry.getSubresourceId() == null) {
+            revision = resourceStorage.getDocumentRevisionForResource(resource);
+        } else {
+            DBSubresource subresource = subresourceDao.find(entry.getSubresourceId());
+            if (subresource == null || subresource.getResource() == null
+                    || !resource.getId().equals(subresource.getResource().getId())) {
+                return false;
+            }
+            revision = resourceStorage.getDocumentRevisionForSubresource(subresource);
+        }
+        return revision != null
+                && StringUtils.equals(revision.getRevision(), entry.getRevision())
+                && StringUtils.startsWith(entry.getFingerprint(),
+                resourceHandlerService.getDocumentFingerprint(domain, revision.getRevision()) + "|");
+    }
+}
@@ -0,0 +1,419 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services.resource;
+
+import eu.europa.ec.edelivery.smp.config.CacheEventListener;
+import eu.europa.ec.edelivery.smp.data.enums.CacheEventType;
+import eu.europa.ec.edelivery.smp.data.model.ext.DBResourceDef;
+import eu.europa.ec.edelivery.smp.data.model.ext.DBSubresourceDef;
+import eu.europa.ec.edelivery.smp.identifiers.Identifier;
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.monitor.SMPMetrics;
+import eu.europa.ec.edelivery.smp.services.CacheEventService;
+import eu.europa.ec.edelivery.smp.services.ConfigurationService;
+import eu.europa.ec.edelivery.smp.services.IdentifierService;
+import eu.europa.ec.edelivery.smp.utils.HttpUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The persistent snapshot of the rendered public resource and subresource responses, stored in the memory-mapped
+ * {@link ResourceSnapshotFile}. The snapshot is keyed by the domain code, the resource type, the normalized resource
+ * identifier and, for the subresources, the subresource type and the normalized subresource identifier, so the key
+ * can be resolved from the request path without the database. Only the responses of the public resources in the
+ * public groups and domains are stored.
+ * <p>
+ * Consistency guarantee: the snapshot is written when the response is served from the database, and each snapshot
+ * records the time when it was last validated against the database. The snapshot is served without the database
+ * only when it was validated within the configured max-age, or, when the database is not available, within the
+ * configured max-stale time. The local changes of the resource documents, visibility, shared documents and keystore
+ * remove the affected snapshots immediately, so the node never serves the snapshot of the change it committed. The
+ * removals are published as the {@link CacheEventType#RESOURCE_RESPONSE} cache events, so in a cluster the other
+ * nodes remove the affected snapshots when they poll the events. When the node might have missed the events of the
+ * other nodes (e.g. when the poller starts), all snapshots are removed. If the events can not be polled, the change
+ * made on the other node is visible on this node at the latest after the max-age (or after the max-stale time when
+ * the database is not available).
+ * <p>
+ * The snapshot file is node-local: the file name contains the host name of the SMP node, so the nodes configured
+ * with the same folder on the shared storage do not use the same file. The file is locked while opened, and the
+ * snapshot is disabled if the file is already used by another process. Because the host name can change when the
+ * node is restarted (e.g. in a container), the snapshot files in the folder which are not locked by any process are
+ * removed when the file is opened, and the most recent of them is used if the file of the node does not exist yet.
+ *
+ * @since 5.2
+ */
+@Component
+public class ResourceSnapshotStore implements CacheEventListener {
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(ResourceSnapshotStore.class);
+
+    static final String SNAPSHOT_FILENAME_PREFIX = "resource-snapshot";
+    static final String SNAPSHOT_FILENAME_SUFFIX = ".dat";
+    static final String KEY_SEPARATOR = "/";
+    static final String IDENTIFIER_SEPARATOR = "::";
+    static final String RESULT_SERVED = "served";
+    static final String RESULT_FALLBACK = "fallback";
+    static final String RESULT_EXPIRED = "expired";
+    static final String RESULT_STORED = "stored";
+
+    private final ConfigurationService configurationService;
+    private final IdentifierService identifierService;
+    private final CacheEventService cacheEventService;
+    private final String snapshotFilename;
+    // the sequence of the removals: the response read before the removal is not stored after it
+    private final AtomicLong changeSequence = new AtomicLong();
+    private volatile ResourceSnapshotFile snapshotFile;
+    private File failedPath;
+
+    public ResourceSnapshotStore(ConfigurationService configurationService, IdentifierService identifierService,
+                                 CacheEventService cacheEventService) {
+        this.configurationService = configurationService;
+        this.identifierService = identifierService;
+        this.cacheEventService = cacheEventService;
+        this.snapshotFilename = createSnapshotFilename(HttpUtils.getServerAddress());
+    }
+
+    /**
+     * Returns the name of the snapshot file of the SMP node with the given host name.
+     *
+     * @param hostName the host name of the SMP node
+     * @return the snapshot file name
+     */
+    protected static String createSnapshotFilename(String hostName) {
+        String nodeName = StringUtils.replacePattern(StringUtils.trimToEmpty(hostName), "[^A-Za-z0-9._-]", "_");
+        return SNAPSHOT_FILENAME_PREFIX + (nodeName.isEmpty() ? "" : "-" + nodeName) + SNAPSHOT_FILENAME_SUFFIX;
+    }
+
+    /**
+     * Returns true if the file name is the name of the snapshot file of any SMP node.
+     */
+    protected static boolean isSnapshotFilename(Path filename) {
+        String name = filename.toString();
+        return name.startsWith(SNAPSHOT_FILENAME_PREFIX) && name.endsWith(SNAPSHOT_FILENAME_SUFFIX);
+    }
+
+    public boolean isEnabled() {
+        return configurationService.getResourceSnapshotFolder() != null;
+    }
+
+    /**
+     * Returns the snapshot key for the resource or subresource. The identifiers must be normalized. The
+     * case-insensitive identifiers are lower-cased.
+     *
+     * @param domainCode     the domain code
+     * @param resourceDef    the resource type
+     * @param resourceId     the normalized resource identifier
+     * @param subresourceDef the subresource type or null for the resource response
+     * @param subresourceId  the normalized subresource identifier or null for the resource response
+     * @return the snapshot key
+     */
+    public String buildKey(String domainCode, DBResourceDef resourceDef, Identifier resourceId,
+                           DBSubresourceDef subresourceDef, Identifier subresourceId) {
+        StringBuilder key = new StringBuilder(domainCode)
+                .append(KEY_SEPARATOR).append(resourceDef.getIdentifier())
+                .append(KEY_SEPARATOR).append(toKey(resourceId,
+                        identifierService.isResourceIdentifierCaseSensitive(resourceId, domainCode)));
+        if (subresourceDef != null && subresourceId != null) {
+            key.append(KEY_SEPARATOR).append(subresourceDef.getIdentifier())
+                    .append(KEY_SEPARATOR).append(toKey(subresourceId,
+                            identifierService.isSubresourceIdentifierCaseSensitive(subresourceId, domainCode)));
+        }
+        return key.toString();
+    }
+
+    private static String toKey(Identifier identifier, boolean caseSensitive) {
+        String key = StringUtils.defaultString(identifier.getScheme()) + IDENTIFIER_SEPARATOR + identifier.getValue();
+        return caseSensitive ? key : StringUtils.lowerCase(key);
+    }
+
+    /**
+     * Returns the current change sequence. The response read from the database is stored only if no snapshot was
+     * removed since the response was read.
+     */
+    public long getChangeSequence() {
+        return changeSequence.get();
+    }
+
+    /**
+     * Returns the snapshot for the key if it was validated against the database within the configured max-age, or
+     * within the max-stale time if the database is not available.
+     *
+     * @param key                 the snapshot key
+     * @param databaseUnavailable true if the snapshot is used because the database is not available
+     * @return the snapshot or null
+     */
+    public ResourceSnapshotFile.Snapshot get(String key, boolean databaseUnavailable) {
+        long maxAgeInMillis = databaseUnavailable ?
+                Math.max(0, configurationService.getResourceSnapshotMaxStaleInMinutes()) * 60 * 1000L :
+                Math.max(0, configurationService.getResourceSnapshotMaxAgeInSeconds()) * 1000L;
+        if (key == null || maxAgeInMillis == 0) {
+            return null;
+        }
+        ResourceSnapshotFile file = getSnapshotFile();
+        ResourceSnapshotFile.Snapshot snapshot = file == null ? null : file.get(key);
+        if (snapshot == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - snapshot.getValidatedOn() > maxAgeInMillis) {
+            LOG.debug("Snapshot [{}] was validated too long ago", key);
+            SMPMetrics.increment(SMPMetrics.METRIC_RESOURCE_SNAPSHOT, SMPMetrics.TAG_RESULT, RESULT_EXPIRED);
+            return null;
+        }
+        SMPMetrics.increment(SMPMetrics.METRIC_RESOURCE_SNAPSHOT, SMPMetrics.TAG_RESULT,
+                databaseUnavailable ? RESULT_FALLBACK : RESULT_SERVED);
+        return snapshot;
+    }
+
+    /**
+     * Store the snapshot of the response served from the database. If the same response is already stored, only its
+     * validation time is updated without locking the file, so the served responses do not wait for each other (and do
+     * not pin the carrier of the virtual thread). The file is locked only to append the new snapshot.
+     *
+     * @param snapshot       the snapshot
+     * @param changeSequence the change sequence before the response was read from the database
+     */
+    public void put(ResourceSnapshotFile.Snapshot snapshot, long changeSequence) {
+        ResourceSnapshotFile file = getSnapshotFile();
+        if (file == null || snapshot.getKey() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (touch(file, snapshot.getKey(), snapshot.getFingerprint(), changeSequence, now)) {
+            return;
+        }
+        synchronized (file) {
+            if (changeSequence != this.changeSequence.get()) {
+                LOG.debug("Snapshot [{}] was changed while the response was rendered", snapshot.getKey());
+                return;
+            }
+            try {
+                file.put(snapshot, now);
+                SMPMetrics.increment(SMPMetrics.METRIC_RESOURCE_SNAPSHOT, SMPMetrics.TAG_RESULT, RESULT_STORED);
+            } catch (IOException | RuntimeException exc) {
+                LOG.warn("Can not store the snapshot [{}]: [{}]", snapshot.getKey(), ExceptionUtils.getRootCauseMessage(exc));
+            }
+        }
+    }
+
+    /**
+     * Update the validation time of the snapshot, if it was not changed since the change sequence. The file is not
+     * locked.
+     *
+     * @return true if the snapshot was updated
+     */
+    public boolean touch(String key, String fingerprint, long changeSequence) {
+        ResourceSnapshotFile file = getSnapshotFile();
+        return file != null && touch(file, key, fingerprint, changeSequence, System.currentTimeMillis());
+    }
+
+    private boolean touch(ResourceSnapshotFile file, String key, String fingerprint, long changeSequence,
+                          long validatedOn) {
+        // the sequence is incremented before the snapshots are removed, so the removed snapshot is not validated
+        return changeSequence == this.changeSequence.get() && file.touch(key, fingerprint, validatedOn);
+    }
+
+    /**
+     * Returns the index entries of all stored snapshots.
+     */
+    public Map<String, ResourceSnapshotFile.IndexEntry> getEntries() {
+        ResourceSnapshotFile file = getSnapshotFile();
+        return file == null ? Collections.emptyMap() : file.getEntries();
+    }
+
+    /**
+     * Remove the snapshot for the key.
+     *
+     * @param key the snapshot key
+     */
+    public void remove(String key) {
+        ResourceSnapshotFile file = getSnapshotFile();
+        if (file == null) {
+            return;
+        }
+        synchronized (file) {
+            changeSequence.incrementAndGet();
+            try {
+                file.remove(key);
+            } catch (IOException | RuntimeException exc) {
+                LOG.warn("Can not remove the snapshot [{}]: [{}]", key, ExceptionUtils.getRootCauseMessage(exc));
+                clearFile(file);
+            }
+        }
+    }
+
+    /**
+     * Remove the snapshots of the resource and all its subresources, and publish the change to the other SMP nodes. If
+     * the method is called in the transaction, the snapshots are removed again after the commit (when the local cache
+     * listeners are notified), so that the response rendered by the concurrent reader before the commit is not kept
+     * in the snapshot.
+     *
+     * @param resourceId the resource database id
+     */
+    public void evictResource(Long resourceId) {
+        if (resourceId == null) {
+            return;
+        }
+        removeResource(resourceId);
+        cacheEventService.publish(CacheEventType.RESOURCE_RESPONSE, String.valueOf(resourceId));
+    }
+
+    /**
+     * Remove all snapshots, and publish the change to the other SMP nodes. Method is invoked when the data used for
+     * all responses is changed, as for example the keystore, shared document or group visibility.
+     */
+    public void clear() {
+        clearSnapshots();
+        cacheEventService.publish(CacheEventType.RESOURCE_RESPONSE, null);
+    }
+
+    /**
+     * Remove the snapshots of the changed resource, or all snapshots if the event key is null. The change is not
+     * published again.
+     */
+    @Override
+    public void onCacheEvent(CacheEventType eventType, String eventKey) {
+        if (!StringUtils.isNumeric(eventKey)) {
+            LOG.debug("Clear the resource snapshots for the cache event [{}]: [{}]", eventType, eventKey);
+            clearSnapshots();
+            return;
+        }
+        removeResource(Long.valueOf(eventKey));
+    }
+
+    @Override
+    public List<CacheEventType> handledCacheEvents() {
+        return Collections.singletonList(CacheEventType.RESOURCE_RESPONSE);
+    }
+
+    /**
+     * Rewrite the snapshot file without the replaced and removed snapshots.
+     */
+    public void compact() {
+        ResourceSnapshotFile file = getSnapshotFile();
+        if (file == null) {
+            return;
+        }
+        synchronized (file) {
+            try {
+                file.compact();
+            } catch (IOException | RuntimeException exc) {
+                LOG.warn("Can not compact the snapshot file [{}]: [{}]", file.getPath(), ExceptionUtils.getRootCauseMessage(exc));
+            }
+        }
+    }
+
+    public int size() {
+        ResourceSnapshotFile file = getSnapshotFile();
+        return file == null ? 0 : file.size();
+    }
+
+    private void removeResource(Long resourceId) {
+        ResourceSnapshotFile file = getSnapshotFile();
+        if (file == null) {
+            return;
+        }
+        synchronized (file) {
+            changeSequence.incrementAndGet();
+            try {
+                int count = file.removeResource(resourceId);
+                LOG.debug("Removed [{}] snapshots for resource id [{}]", count, resourceId);
+            } catch (IOException | RuntimeException exc) {
+                LOG.warn("Can not remove the snapshots of resource id [{}]: [{}]", resourceId, ExceptionUtils.getRootCauseMessage(exc));
+                clearFile(file);
+            }
+        }
+    }
+
+    private void clearSnapshots() {
+        ResourceSnapshotFile file = getSnapshotFile();
+        if (file == null) {
+            return;
+        }
+        synchronized (file) {
+            clearFile(file);
+        }
+    }
+
+    private void clearFile(ResourceSnapshotFile file) {
+        LOG.debug("Clear the resource snapshots");
+        changeSequence.incrementAndGet();
+        file.clear();
+    }
+
+    /**
+     * Returns the snapshot file of the node in the configured folder. The file is opened on the first use and reopened
+     * when the folder is changed. Returns null if the snapshot is disabled or the file can not be opened.
+     */
+    protected ResourceSnapshotFile getSnapshotFile() {
+        File folder = configurationService.getResourceSnapshotFolder();
+        ResourceSnapshotFile file = snapshotFile;
+        if (folder == null) {
+            if (file != null) {
+                closeSnapshotFile();
+            }
+            return null;
+        }
+        File snapshotPath = new File(folder, snapshotFilename);
+        if (file != null && file.getPath().equals(snapshotPath.toPath())) {
+            return file;
+        }
+        return openSnapshotFile(snapshotPath);
+    }
+
+    private synchronized ResourceSnapshotFile openSnapshotFile(File snapshotPath) {
+        if (snapshotFile != null && snapshotFile.getPath().equals(snapshotPath.toPath())) {
+            return snapshotFile;
+        }
+        if (Objects.equals(failedPath, snapshotPath)) {
+            // do not retry until the folder is changed
+            return null;
+        }
+        closeSnapshotFile();
+        try {
+            snapshotFile = ResourceSnapshotFile.open(snapshotPath.toPath(), ResourceSnapshotStore::isSnapshotFilename);
+            failedPath = null;
+        } catch (IOException | RuntimeException exc) {
+            LOG.error("Can not open the resource snapshot file [{}]: [{}]", snapshotPath, ExceptionUtils.getRootCauseMessage(exc));
+            failedPath = snapshotPath;
+        }
+        return snapshotFile;
+    }
+
+    @PreDestroy
+    public synchronized void closeSnapshotFile() {
+        ResourceSnapshotFile file = snapshotFile;
+        snapshotFile = null;
+        if (file != null) {
+            synchronized (file) {
+                file.close();
+            }
+        }
+    }
+}
@@ -31,10 +31,12 @@ import eu.europa.ec.edelivery.smp.data.model.doc.DBResource;
 import eu.europa.ec.edelivery.smp.data.model.doc.DBSubresource;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.utils.StringNamedSubstitutor;
 import eu.europa.ec.smp.spi.enums.TransientDocumentPropertyType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -55,12 +57,22 @@ public class ResourceStorage {
     final ResourceDao resourceDao;
     final SubresourceDao subresourceDao;
     private final DocumentVersionService documentVersionService;
+    private final ResourceResponseCache resourceResponseCache;
+    private final DocumentTemplateCache documentTemplateCache;
+    private final ResourceIdentifierFilter resourceIdentifierFilter;
 
-    public ResourceStorage(DocumentDao documentDao, ResourceDao resourceDao, SubresourceDao subresourceDao, DocumentVersionService documentVersionService) {
+    public ResourceStorage(DocumentDao documentDao, ResourceDao resourceDao, SubresourceDao subresourceDao,
+                           DocumentVersionService documentVersionService,
+                           ResourceResponseCache resourceResponseCache,
+                           DocumentTemplateCache documentTemplateCache,
+                           ResourceIdentifierFilter resourceIdentifierFilter) {
         this.documentDao = documentDao;
         this.resourceDao = resourceDao;
         this.subresourceDao = subresourceDao;
         this.documentVersionService = documentVersionService;
+        this.resourceResponseCache = resourceResponseCache;
+        this.documentTemplateCache = documentTemplateCache;
+        this.resourceIdentifierFilter = resourceIdentifierFilter;
     }
 
     /**
@@ -96,11 +108,83 @@ public class ResourceStorage {
         return documentVersion.map(DBDocumentVersion::getContent).orElse(null);
     }
 
+    /**
+     * Method returns the revision of the resource document: document id and current version. If the document
+     * references shared document, the revision of the referenced document is appended. The revision is used to
+     * validate the cached responses without loading the document content.
+     *
+     * @param dbResource resource
+     * @return document revision or null if document does not exist
+     */
+    @Transactional
+    public DocumentRevision getDocumentRevisionForResource(DBResource dbResource) {
+        Optional<DBDocument> document = documentDao.getDocumentForResource(dbResource);
+        return document.map(this::getDocumentRevision).orElse(null);
+    }
+
+    @Transactional
+    public DocumentRevision getDocumentRevisionForSubresource(DBSubresource subresource) {
+        Optional<DBDocument> document = documentDao.getDocumentForSubresource(subresource);
+        return document.map(this::getDocumentRevision).orElse(null);
+    }
+
+    private DocumentRevision getDocumentRevision(DBDocument document) {
+        String revision = document.getId() + ":" + document.getCurrentVersion();
+        OffsetDateTime lastModified = document.getLastUpdatedOn();
+        DBDocument referenceDocument = document.getReferenceDocument();
+        if (referenceDocument != null && Boolean.TRUE.equals(referenceDocument.getSharingEnabled())) {
+            revision += "/" + referenceDocument.getId() + ":" + referenceDocument.getCurrentVersion();
+            if (lastModified == null || (referenceDocument.getLastUpdatedOn() != null
+                    && referenceDocument.getLastUpdatedOn().isAfter(lastModified))) {
+                lastModified = referenceDocument.getLastUpdatedOn();
+            }
+        }
+        return new DocumentRevision(revision, lastModified);
+    }
+
     public byte[] getDocumentContentForSubresource(DBSubresource subresource) {
         LOG.debug("getDocumentContentForSubresource: [{}]", subresource);
         Optional<DBDocument> document = documentDao.getDocumentForSubresource(subresource);
         return document.isPresent() ? getDocumentContent(document.get(), true) : null;
     }
+
+    /**
+     * Method returns the compiled template of the resource document content. The template is cached by the document
+     * revision, so the document content is loaded and compiled only once per document version.
+     *
+     * @param dbResource resource
+     * @param charset    the charset of the document content
+     * @return compiled document template or null if document or its content does not exist
+     */
+    @Transactional
+    public StringNamedSubstitutor.Template getDocumentTemplateForResource(DBResource dbResource, String charset) {
+        LOG.debug("getDocumentTemplateForResource: [{}]", dbResource);
+        Optional<DBDocument> document = documentDao.getDocumentForResource(dbResource);
+        return document.map(doc -> getDocumentTemplate(doc, charset)).orElse(null);
+    }
+
+    @Transactional
+    public StringNamedSubstitutor.Template getDocumentTemplateForSubresource(DBSubresource subresource, String charset) {
+        LOG.debug("getDocumentTemplateForSubresource: [{}]", subresource);
+        Optional<DBDocument> document = documentDao.getDocumentForSubresource(subresource);
+        return document.map(doc -> getDocumentTemplate(doc, charset)).orElse(null);
+    }
+
+    private StringNamedSubstitutor.Template getDocumentTemplate(DBDocument document, String charset) {
+        String revision = getDocumentRevision(document) + "@" + charset;
+        StringNamedSubstitutor.Template template = documentTemplateCache.get(revision);
+        if (template != null) {
+            LOG.debug("Use cached template for document revision [{}]", revision);
+            return template;
+        }
+        byte[] content = getDocumentContent(document, true);
+        if (content == null || content.length == 0) {
+            return null;
+        }
+        template = StringNamedSubstitutor.compile(content, charset);
+        documentTemplateCache.put(revision, template);
+        return template;
+    }
     @Transactional
     public Map<String, String> getResourceProperties(DBResource resource) {
 
@@ -177,7 +261,13 @@ public class ResourceStorage {
         if (resource.getId() == null && resource.getDocument() == null) {
             resource.setDocument(new DBDocument());
         }
-        DBResource managedResource = resource.getId() != null ? resourceDao.find(resource.getId()) : resourceDao.merge(resource);
+        DBResource managedResource;
+        if (resource.getId() != null) {
+            managedResource = resourceDao.find(resource.getId());
+        } else {
+            managedResource = resourceDao.merge(resource);
+            resourceIdentifierFilter.publishResourceCreated(managedResource);
+        }
         DBDocument document = managedResource.getDocument();
 
             // if document is not and alread have published version, retire it
@@ -186,6 +276,7 @@ public class ResourceStorage {
 
 
         managedResource.getDocument().addNewDocumentVersion(version);
+        resourceResponseCache.evictResource(managedResource.getId());
         return managedResource;
     }
 
@@ -205,18 +296,50 @@ public class ResourceStorage {
                             DocumentVersionStatusType.RETIRED,
                             EventSourceType.REST_API, null));});
         managedResource.getDocument().addNewDocumentVersion(version);
+        if (managedResource.getResource() != null) {
+            resourceResponseCache.evictResource(managedResource.getResource().getId());
+        }
         return managedResource;
     }
 
     @Transactional
     public void deleteResource(DBResource resource) {
         LOG.debug("deleteResource: [{}]", resource);
+        resourceResponseCache.evictResource(resource.getId());
         resourceDao.remove(resource);
     }
 
     public void deleteSubresource(DBSubresource subresource) {
         LOG.debug("deleteSubresource: [{}]", subresource);
+        if (subresource.getResource() != null) {
+            resourceResponseCache.evictResource(subresource.getResource().getId());
+        }
         subresourceDao.remove(subresource);
     }
 
+    /**
+     * The document revision and the time of the last document change.
+     */
+    public static class DocumentRevision {
+        private final String revision;
+        private final OffsetDateTime lastModified;
+
+        public DocumentRevision(String revision, OffsetDateTime lastModified) {
+            this.revision = revision;
+            this.lastModified = lastModified;
+        }
+
+        public String getRevision() {
+            return revision;
+        }
+
+        public OffsetDateTime getLastModified() {
+            return lastModified;
+        }
+
+        @Override
+        public String toString() {
+            return revision;
+        }
+    }
 }
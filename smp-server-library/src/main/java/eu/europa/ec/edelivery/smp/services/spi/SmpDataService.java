@@ -19,11 +19,11 @@
 package eu.europa.ec.edelivery.smp.services.spi;
 
 import eu.europa.ec.edelivery.smp.data.dao.SubresourceDao;
-import eu.europa.ec.edelivery.smp.data.dao.SubresourceDefDao;
 import eu.europa.ec.edelivery.smp.data.model.doc.DBSubresource;
 import eu.europa.ec.edelivery.smp.data.model.ext.DBSubresourceDef;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.services.resource.ResourceMetadataCache;
 import eu.europa.ec.edelivery.smp.utils.SmpUrlBuilder;
 import eu.europa.ec.smp.spi.api.SmpDataServiceApi;
 import eu.europa.ec.smp.spi.api.model.ResourceIdentifier;
@@ -44,12 +44,12 @@ import java.util.stream.Collectors;
 public class SmpDataService implements SmpDataServiceApi {
     private static final SMPLogger LOG = SMPLoggerFactory.getLogger(SmpDataServiceApi.class);
     final SubresourceDao subresourceDao;
-    final SubresourceDefDao subresourceDefDao;
+    final ResourceMetadataCache resourceMetadataCache;
     final SmpUrlBuilder smpUrlBuilder;
 
-    public SmpDataService(SubresourceDao subresourceDao, SubresourceDefDao subresourceDefDao, SmpUrlBuilder smpUrlBuilder) {
+    public SmpDataService(SubresourceDao subresourceDao, ResourceMetadataCache resourceMetadataCache, SmpUrlBuilder smpUrlBuilder) {
         this.subresourceDao = subresourceDao;
-        this.subresourceDefDao = subresourceDefDao;
+        this.resourceMetadataCache = resourceMetadataCache;
         this.smpUrlBuilder = smpUrlBuilder;
     }
 
@@ -69,7 +69,7 @@ public class SmpDataService implements SmpDataServiceApi {
     @Override
     public String getURIPathSegmentForSubresource(String subresourceIdentifier) {
         LOG.info("Get URI path segment for the sub-resource type: [{}]", subresourceIdentifier);
-        Optional<DBSubresourceDef> optSubresourceDef = subresourceDefDao.getSubresourceDefByIdentifier(subresourceIdentifier);
+        Optional<DBSubresourceDef> optSubresourceDef = resourceMetadataCache.getSnapshot().getSubresourceDefByIdentifier(subresourceIdentifier);
         return optSubresourceDef.isPresent() ? optSubresourceDef.get().getUrlSegment() : null;
     }
 }
@@ -18,12 +18,13 @@
  */
 package eu.europa.ec.edelivery.smp.services.spi;
 
-import eu.europa.ec.edelivery.smp.data.dao.DomainDao;
 import eu.europa.ec.edelivery.smp.data.model.DBDomain;
 import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
 import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.monitor.SMPMetrics;
+import eu.europa.ec.edelivery.smp.services.resource.ResourceMetadataCache;
 import eu.europa.ec.edelivery.smp.services.ui.UIKeystoreService;
 import eu.europa.ec.smp.spi.api.SmpXmlSignatureApi;
 import eu.europa.ec.smp.spi.api.model.RequestData;
@@ -46,11 +47,10 @@ import javax.xml.crypto.dsig.spec.TransformParameterSpec;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.Key;
 import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
 import java.security.cert.X509Certificate;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.singletonList;
@@ -62,21 +62,26 @@ public final class SmpXmlSignatureService implements SmpXmlSignatureApi {
 
     private static final SMPLogger LOG = SMPLoggerFactory.getLogger(SmpXmlSignatureService.class);
     private static final String DEFAULT_HASH_METHOD = javax.xml.crypto.dsig.DigestMethod.SHA256;
+    private static final int MAX_SIGNING_CONTEXTS = 64;
+    // set apache santuario xmlsec signature provider. The provider is thread-safe and can be shared.
+    private static final Provider XML_DSIG_PROVIDER = new org.apache.jcp.xml.dsig.internal.dom.XMLDSigRI();
+    // According to Javadoc, only static methods of this factory are thread-safe, therefore the factory
+    // instance is confined to the thread
+    private static final ThreadLocal<XMLSignatureFactory> DOM_SIG_FACTORY = ThreadLocal.withInitial(
+            () -> XMLSignatureFactory.getInstance("DOM", XML_DSIG_PROVIDER));
 
-    DomainDao domainDao;
+    ResourceMetadataCache resourceMetadataCache;
     UIKeystoreService uiKeystoreService;
+    private final Map<List<String>, SigningContext> signingContexts = new ConcurrentHashMap<>();
 
 
-    public SmpXmlSignatureService(DomainDao domainDao, UIKeystoreService uiKeystoreService) {
-        this.domainDao = domainDao;
+    public SmpXmlSignatureService(ResourceMetadataCache resourceMetadataCache, UIKeystoreService uiKeystoreService) {
+        this.resourceMetadataCache = resourceMetadataCache;
         this.uiKeystoreService = uiKeystoreService;
     }
 
     private static XMLSignatureFactory getDomSigFactory() {
-        // According to Javadoc, only static methods of this factory are thread-safe
-        // We cannot share and re-use the same instance in every place
-        // set apache santuario xmlsec signature factory
-        return XMLSignatureFactory.getInstance("DOM",  new org.apache.jcp.xml.dsig.internal.dom.XMLDSigRI());
+        return DOM_SIG_FACTORY.get();
     }
 
     /**
@@ -99,15 +104,17 @@ public final class SmpXmlSignatureService implements SmpXmlSignatureApi {
         if (StringUtils.isEmpty(resourceMetadata.getDomainCode())) {
             throw new SignatureException(SignatureException.ErrorCode.INVALID_PARAMETERS, "Missing resource domain code");
         }
-        Optional<DBDomain> optDomain = domainDao.getDomainByCode(resourceMetadata.getDomainCode());
+        Optional<DBDomain> optDomain = resourceMetadataCache.getSnapshot().getDomainByCode(resourceMetadata.getDomainCode());
         DBDomain domain = optDomain.orElseThrow(
                 () -> new SignatureException(SignatureException.ErrorCode.INVALID_PARAMETERS, "Domain for the domain code [" + resourceMetadata.getDomainCode() + "] does not exists!"));
 
+        long start = System.nanoTime();
         createEnvelopedSignature(parentSignatureNode,
                 Collections.emptyList(),
                 domain.getSignatureKeyAlias(),
                 domain.getSignatureAlgorithm(),
                 domain.getSignatureDigestMethod());
+        SMPMetrics.recordStage(SMPMetrics.RequestStage.SIGN, domain.getDomainCode(), start);
     }
 
     public void sign(Document documentToSign, String keyAlias, String signatureAlgorithm, String signatureHashMethod) {
@@ -122,33 +129,28 @@ public final class SmpXmlSignatureService implements SmpXmlSignatureApi {
                 LOG.warn("Undefined certificate for signing service metadata reposes! Define key in configuration!");
                 return;
             }
+            SigningContext signingContext = getSigningContext(keyAlias, signatureAlgorithm, signatureHashMethod);
             XMLSignatureFactory domSigFactory = getDomSigFactory();
 
-            Key signingKey = uiKeystoreService.getKey(keyAlias);
-            String signAlg = getSignatureAlgorithmForKey(signingKey, signatureAlgorithm);
-            String referenceHash = StringUtils.defaultIfEmpty(signatureHashMethod, DEFAULT_HASH_METHOD);
-
-
             List<Reference> referenceList;
             if (signedElementURIList.isEmpty()) {
                 // Create a Reference to the ENVELOPED document
                 // URI "" means that the whole document is signed
-                referenceList = singletonList(createReferenceForUri("", domSigFactory, referenceHash));
+                referenceList = singletonList(createReferenceForUri("", domSigFactory, signingContext.getReferenceHash()));
             } else {
-                referenceList = signedElementURIList.stream().map(uri -> createReferenceForUri(uri, domSigFactory, referenceHash)).collect(Collectors.toList());
+                referenceList = signedElementURIList.stream().map(uri -> createReferenceForUri(uri, domSigFactory, signingContext.getReferenceHash())).collect(Collectors.toList());
             }
-            LOG.info("Create signature with signature algorithm : [{}]", signAlg);
+            LOG.debug("Create signature with signature algorithm : [{}]", signingContext.getSignatureAlgorithm());
             SignedInfo singedInfo = domSigFactory.newSignedInfo(
                     domSigFactory.newCanonicalizationMethod(INCLUSIVE, (C14NMethodParameterSpec) null),
-                    domSigFactory.newSignatureMethod(signAlg, null),
+                    domSigFactory.newSignatureMethod(signingContext.getSignatureAlgorithm(), null),
                     referenceList);
 
 
-            DOMSignContext domSignContext = new DOMSignContext(uiKeystoreService.getKey(keyAlias), parentSignatureNode);
+            DOMSignContext domSignContext = new DOMSignContext(signingContext.getSigningKey(), parentSignatureNode);
 
             // Create the XMLSignature, but don't sign it yet
-            KeyInfo keyInfo = createKeyInfo(keyAlias);
-            XMLSignature signature = domSigFactory.newXMLSignature(singedInfo, keyInfo);
+            XMLSignature signature = domSigFactory.newXMLSignature(singedInfo, signingContext.getKeyInfo());
 
             // Marshal, generate, and sign the enveloped signature
             signature.sign(domSignContext);
@@ -157,6 +159,41 @@ public final class SmpXmlSignatureService implements SmpXmlSignatureApi {
         }
     }
 
+    /**
+     * Returns the signing context for the key alias, signature algorithm and the digest method. The context is created
+     * once and reused until the keystore is reloaded.
+     *
+     * @param keyAlias            the signing key alias
+     * @param signatureAlgorithm  the signature algorithm or null for the default algorithm for the key
+     * @param signatureHashMethod the reference digest method or null for the default digest method
+     * @return the signing context
+     */
+    protected SigningContext getSigningContext(String keyAlias, String signatureAlgorithm, String signatureHashMethod) {
+        long keystoreVersion = uiKeystoreService.getKeystoreVersion();
+        List<String> contextKey = Arrays.asList(keyAlias, signatureAlgorithm, signatureHashMethod);
+        SigningContext signingContext = signingContexts.get(contextKey);
+        if (signingContext != null && signingContext.getKeystoreVersion() == keystoreVersion) {
+            return signingContext;
+        }
+        LOG.debug("Create signing context for alias [{}], algorithm [{}] and digest method [{}]", keyAlias, signatureAlgorithm, signatureHashMethod);
+        signingContext = createSigningContext(keystoreVersion, keyAlias, signatureAlgorithm, signatureHashMethod);
+        if (signingContexts.size() >= MAX_SIGNING_CONTEXTS) {
+            // the contexts of the obsolete domain configurations
+            signingContexts.clear();
+        }
+        signingContexts.put(contextKey, signingContext);
+        return signingContext;
+    }
+
+    private SigningContext createSigningContext(long keystoreVersion, String keyAlias, String signatureAlgorithm, String signatureHashMethod) {
+        Key signingKey = uiKeystoreService.getKey(keyAlias);
+        return new SigningContext(keystoreVersion,
+                signingKey,
+                getSignatureAlgorithmForKey(signingKey, signatureAlgorithm),
+                StringUtils.defaultIfEmpty(signatureHashMethod, DEFAULT_HASH_METHOD),
+                createKeyInfo(keyAlias));
+    }
+
     private Reference createReferenceForUri(String elementUri, XMLSignatureFactory domSigFactory, String signatureHashMethod) {
         try {
             return domSigFactory.newReference(
@@ -199,4 +236,44 @@ public final class SmpXmlSignatureService implements SmpXmlSignatureApi {
         return org.apache.xml.security.signature.XMLSignature.ALGO_ID_SIGNATURE_RSA_SHA256;
     }
 
+    /**
+     * The immutable data needed to sign the document with the key alias: the signing key, resolved signature
+     * algorithm and digest method, and the KeyInfo with the signing certificate. The KeyInfo is not modified when the
+     * signature is marshalled and can be shared between the threads.
+     */
+    protected static class SigningContext {
+        private final long keystoreVersion;
+        private final Key signingKey;
+        private final String signatureAlgorithm;
+        private final String referenceHash;
+        private final KeyInfo keyInfo;
+
+        SigningContext(long keystoreVersion, Key signingKey, String signatureAlgorithm, String referenceHash, KeyInfo keyInfo) {
+            this.keystoreVersion = keystoreVersion;
+            this.signingKey = signingKey;
+            this.signatureAlgorithm = signatureAlgorithm;
+            this.referenceHash = referenceHash;
+            this.keyInfo = keyInfo;
+        }
+
+        public long getKeystoreVersion() {
+            return keystoreVersion;
+        }
+
+        public Key getSigningKey() {
+            return signingKey;
+        }
+
+        public String getSignatureAlgorithm() {
+            return signatureAlgorithm;
+        }
+
+        public String getReferenceHash() {
+            return referenceHash;
+        }
+
+        public KeyInfo getKeyInfo() {
+            return keyInfo;
+        }
+    }
 }
@@ -0,0 +1,86 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services.ui;
+
+import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
+import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * The position of the last resource of the public resource search page. The cursor is exchanged with the client as
+ * the opaque URL-safe base64 value of the "id:normalizedIdentifierValue" string.
+ *
+ * @since 5.2
+ */
+class ResourceSearchCursor {
+    private static final String CURSOR_REQUEST_TYPE = "SearchCursor";
+    private static final char SEPARATOR = ':';
+
+    private final Long id;
+    private final String identifierValue;
+
+    ResourceSearchCursor(Long id, String identifierValue) {
+        this.id = id;
+        this.identifierValue = identifierValue;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getIdentifierValue() {
+        return identifierValue;
+    }
+
+    public String encode() {
+        String value = id + String.valueOf(SEPARATOR) + StringUtils.defaultString(identifierValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode the cursor value returned to the client with the previous page.
+     *
+     * @param cursor the opaque cursor value
+     * @return the decoded cursor or null if the cursor value is blank
+     * @throws SMPRuntimeException if the cursor value is invalid
+     */
+    public static ResourceSearchCursor decode(String cursor) {
+        if (StringUtils.isBlank(cursor)) {
+            return null;
+        }
+        String value;
+        try {
+            value = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new SMPRuntimeException(ErrorCode.INVALID_REQUEST, CURSOR_REQUEST_TYPE, "Invalid cursor encoding!");
+        }
+        int separatorIndex = value.indexOf(SEPARATOR);
+        if (separatorIndex < 1) {
+            throw new SMPRuntimeException(ErrorCode.INVALID_REQUEST, CURSOR_REQUEST_TYPE, "Invalid cursor value!");
+        }
+        try {
+            return new ResourceSearchCursor(Long.valueOf(value.substring(0, separatorIndex)), value.substring(separatorIndex + 1));
+        } catch (NumberFormatException ex) {
+            throw new SMPRuntimeException(ErrorCode.INVALID_REQUEST, CURSOR_REQUEST_TYPE, "Invalid cursor value!");
+        }
+    }
+}
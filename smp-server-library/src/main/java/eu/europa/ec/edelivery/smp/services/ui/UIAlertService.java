@@ -58,7 +58,7 @@ public class UIAlertService extends UIServiceBase<DBAlert, AlertRO> {
      * @param filter
      * @return
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public ServiceResult<AlertRO> getTableList(int page, int pageSize,
                                                String sortField,
                                                String sortOrder, Object filter) {
@@ -36,6 +36,7 @@ import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
 import eu.europa.ec.edelivery.smp.services.resource.DocumentVersionService;
 import eu.europa.ec.edelivery.smp.services.resource.ResourceHandlerService;
+import eu.europa.ec.edelivery.smp.services.resource.ResourceResponseCache;
 import eu.europa.ec.edelivery.smp.services.spi.data.SpiResponseData;
 import eu.europa.ec.edelivery.smp.utils.SessionSecurityUtils;
 import eu.europa.ec.smp.spi.api.model.RequestData;
@@ -81,19 +82,22 @@ public class UIDocumentService {
     final ResourceHandlerService resourceHandlerService;
     final DocumentVersionService documentVersionService;
     final ConversionService conversionService;
+    final ResourceResponseCache resourceResponseCache;
 
     public UIDocumentService(ResourceDao resourceDao,
                              SubresourceDao subresourceDao,
                              DocumentDao documentDao,
                              ResourceHandlerService resourceHandlerService,
                              DocumentVersionService documentVersionService,
-                             ConversionService conversionService) {
+                             ConversionService conversionService,
+                             ResourceResponseCache resourceResponseCache) {
         this.resourceDao = resourceDao;
         this.subresourceDao = subresourceDao;
         this.documentDao = documentDao;
         this.resourceHandlerService = resourceHandlerService;
         this.documentVersionService = documentVersionService;
         this.conversionService = conversionService;
+        this.resourceResponseCache = resourceResponseCache;
     }
 
     @Transactional
@@ -131,7 +135,9 @@ public class UIDocumentService {
             LOG.warn("Document id [{}] does not match the resource document id [{}]", documentId, document.getId());
             throw new SMPRuntimeException(ErrorCode.INVALID_REQUEST, DOCUMENT_ID_MISMATCH_TAG, DOCUMENT_ID_MISMATCH);
         }
-        return publishDocumentVersion(document, version, resource.isReviewEnabled(), getInitialProperties(resource));
+        DocumentRO result = publishDocumentVersion(document, version, resource.isReviewEnabled(), getInitialProperties(resource));
+        evictCachedResponses(resource, Boolean.TRUE.equals(document.getSharingEnabled()));
+        return result;
     }
 
     @Transactional
@@ -144,7 +150,24 @@ public class UIDocumentService {
         if (!Objects.equals(document.getId(), documentId)) {
             throw new SMPRuntimeException(ErrorCode.INVALID_REQUEST, DOCUMENT_ID_MISMATCH_TAG, DOCUMENT_ID_MISMATCH);
         }
-        return publishDocumentVersion(document, version, resource.isReviewEnabled(), getInitialProperties(subresource));
+        DocumentRO result = publishDocumentVersion(document, version, resource.isReviewEnabled(), getInitialProperties(subresource));
+        evictCachedResponses(resource, Boolean.TRUE.equals(document.getSharingEnabled()));
+        return result;
+    }
+
+    /**
+     * Evict the cached public responses of the resource. If the document is shared, the responses of all the
+     * referencing documents are changed, and the whole response cache is cleared.
+     *
+     * @param resource the resource of the changed document
+     * @param isShared true if the changed document is (or was before the change) shared
+     */
+    private void evictCachedResponses(DBResource resource, boolean isShared) {
+        if (isShared) {
+            resourceResponseCache.clear();
+        } else {
+            resourceResponseCache.evictResource(resource.getId());
+        }
     }
 
 
@@ -555,6 +578,7 @@ public class UIDocumentService {
                 documentRo.getPayloadVersion() :
                 document.getCurrentVersion();
 
+        boolean wasShared = Boolean.TRUE.equals(document.getSharingEnabled());
         boolean isPayloadChanged = documentRo.getPayloadStatus() != EntityROStatus.PERSISTED.getStatusNumber();
         if (isPayloadChanged) {
             LOG.debug("Store (sub) resource payload for resource [{}], subresource [{}]", resource, subresource);
@@ -585,6 +609,7 @@ public class UIDocumentService {
             updateDocumentReferenceToDocument(document, docConfig);
         }
 
+        evictCachedResponses(resource, wasShared || Boolean.TRUE.equals(document.getSharingEnabled()));
         List<DocumentPropertyRO> initialProperties = subresource == null ? getInitialProperties(resource) : getInitialProperties(subresource);
         return convertWithVersion(document, returnDocVersion, initialProperties);
     }
@@ -19,6 +19,7 @@
 package eu.europa.ec.edelivery.smp.services.ui;
 
 import eu.europa.ec.edelivery.smp.data.dao.*;
+import eu.europa.ec.edelivery.smp.data.enums.CacheEventType;
 import eu.europa.ec.edelivery.smp.data.enums.VisibilityType;
 import eu.europa.ec.edelivery.smp.data.model.DBDomain;
 import eu.europa.ec.edelivery.smp.data.model.DBDomainResourceDef;
@@ -37,6 +38,7 @@ import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
 import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.services.CacheEventService;
 import eu.europa.ec.edelivery.smp.services.SMLIntegrationService;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.core.convert.ConversionService;
@@ -68,6 +70,9 @@ public class UIDomainAdminService extends UIServiceBase<DBDomain, DomainRO> {
     private final ConversionService conversionService;
     private final GroupMemberDao groupMemberDao;
     private final SMLIntegrationService smlIntegrationService;
+    private final SMLOutboxDao smlOutboxDao;
+    private final DomainSmlProgressDao domainSmlProgressDao;
+    private final CacheEventService cacheEventService;
 
     public UIDomainAdminService(ConversionService conversionService,
                                 DomainDao domainDao,
@@ -77,7 +82,10 @@ public class UIDomainAdminService extends UIServiceBase<DBDomain, DomainRO> {
                                 ResourceDefDao resourceDefDao,
                                 DomainResourceDefDao domainResourceDefDao,
                                 GroupMemberDao groupMemberDao,
-                                SMLIntegrationService smlIntegrationService) {
+                                SMLIntegrationService smlIntegrationService,
+                                SMLOutboxDao smlOutboxDao,
+                                DomainSmlProgressDao domainSmlProgressDao,
+                                CacheEventService cacheEventService) {
         this.conversionService = conversionService;
         this.domainDao = domainDao;
         this.domainConfigurationDao = domainConfigurationDao;
@@ -87,6 +95,9 @@ public class UIDomainAdminService extends UIServiceBase<DBDomain, DomainRO> {
         this.domainMemberDao = domainMemberDao;
         this.groupMemberDao = groupMemberDao;
         this.smlIntegrationService = smlIntegrationService;
+        this.smlOutboxDao = smlOutboxDao;
+        this.domainSmlProgressDao = domainSmlProgressDao;
+        this.cacheEventService = cacheEventService;
     }
 
     @Override
@@ -104,7 +115,7 @@ public class UIDomainAdminService extends UIServiceBase<DBDomain, DomainRO> {
      * @param filter
      * @return
      */
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
     public ServiceResult<DomainRO> getTableList(int page, int pageSize,
                                                 String sortField,
@@ -113,7 +124,7 @@ public class UIDomainAdminService extends UIServiceBase<DBDomain, DomainRO> {
         return super.getTableList(page, pageSize, sortField, sortOrder, filter);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public List<DomainRO> getAllDomains() {
         List<DBDomain> domains = domainDao.getAllDomains();
         return domains.stream().map(domain -> conversionService.convert(domain, DomainRO.class))
@@ -136,6 +147,7 @@ public class UIDomainAdminService extends UIServiceBase<DBDomain, DomainRO> {
         domain.setSignatureKeyAlias(data.getSignatureKeyAlias());
         domain.setVisibility(data.getVisibility() == null ? VisibilityType.PUBLIC : data.getVisibility());
         domainDao.persistFlushDetach(domain);
+        cacheEventService.publish(CacheEventType.DOMAIN, domain.getDomainCode());
     }
 
 
@@ -156,6 +168,7 @@ public class UIDomainAdminService extends UIServiceBase<DBDomain, DomainRO> {
         domain.setDefaultResourceTypeIdentifier(data.getDefaultResourceTypeIdentifier());
         domain.setSignatureKeyAlias(data.getSignatureKeyAlias());
         domain.setVisibility(data.getVisibility());
+        cacheEventService.publish(CacheEventType.DOMAIN, domain.getDomainCode());
     }
 
     @Transactional
@@ -185,6 +198,7 @@ public class UIDomainAdminService extends UIServiceBase<DBDomain, DomainRO> {
             String msg = "The SML-SMP certificate for domain [" + domain.getDomainCode() + "] is not valid!";
             throw new BadRequestException(ErrorBusinessCode.NOT_FOUND, msg);
         }
+        cacheEventService.publish(CacheEventType.DOMAIN, domain.getDomainCode());
     }
 
     @Transactional
@@ -212,6 +226,8 @@ public class UIDomainAdminService extends UIServiceBase<DBDomain, DomainRO> {
                 .forEach(resourceDef ->
                         domainResourceDefDao.create(domain, resourceDef)
                 );
+        domainDao.evictFromCache(domain.getId());
+        cacheEventService.publish(CacheEventType.RESOURCE_DEF, domain.getDomainCode());
     }
 
 
@@ -249,10 +265,13 @@ public class UIDomainAdminService extends UIServiceBase<DBDomain, DomainRO> {
         if (domain == null) {
             throw new BadRequestException(ErrorBusinessCode.NOT_FOUND, DOMAIN_DOES_NOT_EXIST_IN_DATABASE);
         }
-        return domainConfigurationDao.updateDomainPropertiesForRole(domain, domainProperties, SMPRole.SYSTEM_ADMIN)
+        List<DomainPropertyRO> result = domainConfigurationDao.updateDomainPropertiesForRole(domain, domainProperties, SMPRole.SYSTEM_ADMIN)
         .stream()
                 .map(domainConfiguration -> conversionService.convert(domainConfiguration, DomainPropertyRO.class))
                 .collect(Collectors.toList());
+        domainDao.evictFromCache(domainId);
+        cacheEventService.publish(CacheEventType.DOMAIN, domain.getDomainCode());
+        return result;
     }
 
     private boolean validateRemoveDomainResourceDef(DBDomain domain, DBResourceDef resourceDef) {
@@ -296,8 +315,13 @@ public class UIDomainAdminService extends UIServiceBase<DBDomain, DomainRO> {
             // all groups should be without resources see the check above:  getResourceCountForDomain
             deleteGroupMembers(group);
         }
+        // remove the SML outbox entries of the deleted resources
+        smlOutboxDao.deleteForDomain(domain.getId());
+        domainSmlProgressDao.deleteForDomain(domain.getId());
         // finally remove the domain
         domainDao.remove(domain);
+        domainDao.evictFromCache(domainId);
+        cacheEventService.publish(CacheEventType.DOMAIN, domain.getDomainCode());
         DomainRO domainRO = conversionService.convert(domain, DomainRO.class);
         domainRO.setStatus(EntityROStatus.REMOVED.getStatusNumber());
         return domainRO;
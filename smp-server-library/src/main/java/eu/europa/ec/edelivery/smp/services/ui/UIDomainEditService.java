@@ -20,6 +20,7 @@ package eu.europa.ec.edelivery.smp.services.ui;
 
 import eu.europa.ec.edelivery.smp.auth.SMPUserDetails;
 import eu.europa.ec.edelivery.smp.data.dao.*;
+import eu.europa.ec.edelivery.smp.data.enums.CacheEventType;
 import eu.europa.ec.edelivery.smp.data.enums.MembershipRoleType;
 import eu.europa.ec.edelivery.smp.data.model.DBDomain;
 import eu.europa.ec.edelivery.smp.data.model.DBDomainResourceDef;
@@ -33,6 +34,7 @@ import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
 import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.services.CacheEventService;
 import eu.europa.ec.edelivery.smp.utils.SessionSecurityUtils;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.stereotype.Service;
@@ -59,16 +61,18 @@ public class UIDomainEditService extends UIServiceBase<DBDomain, DomainPublicRO>
     private final DomainMemberDao domainMemberDao;
     private final UserDao userDao;
     private final ConversionService conversionService;
-
+    private final CacheEventService cacheEventService;
 
     public UIDomainEditService(DomainDao domainDao,
                                DomainConfigurationDao domainConfigurationDao,
-                               DomainMemberDao domainMemberDao, ConversionService conversionService, UserDao userDao) {
+                               DomainMemberDao domainMemberDao, ConversionService conversionService, UserDao userDao,
+                               CacheEventService cacheEventService) {
         this.domainDao = domainDao;
         this.domainConfigurationDao = domainConfigurationDao;
         this.domainMemberDao = domainMemberDao;
         this.conversionService = conversionService;
         this.userDao = userDao;
+        this.cacheEventService = cacheEventService;
     }
 
     @Override
@@ -123,28 +127,28 @@ public class UIDomainEditService extends UIServiceBase<DBDomain, DomainPublicRO>
         return result;
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public List<DomainRO> getAllDomainsForDomainAdminUser(Long userId) {
         List<DBDomain> domains = domainDao.getDomainsByUserIdAndDomainRoles(userId, MembershipRoleType.ADMIN);
         return domains.stream().map(domain -> conversionService.convert(domain, DomainRO.class))
                 .collect(Collectors.toList());
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public List<DomainRO> getAllDomainsForGroupAdminUser(Long userId) {
         List<DBDomain> domains = domainDao.getDomainsByUserIdAndGroupRoles(userId, MembershipRoleType.ADMIN);
         return domains.stream().map(domain -> conversionService.convert(domain, DomainRO.class))
                 .collect(Collectors.toList());
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public List<DomainRO> getAllDomainsForResourceAdminUser(Long userId) {
         List<DBDomain> domains = domainDao.getDomainsByUserIdAndResourceRoles(userId, MembershipRoleType.ADMIN);
         return domains.stream().map(domain -> conversionService.convert(domain, DomainRO.class))
                 .collect(Collectors.toList());
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public ServiceResult<MemberRO> getDomainMembers(Long domainId, int page, int pageSize,
                                                     String filter) {
         Long count = domainMemberDao.getDomainMemberCount(domainId, filter);
@@ -241,9 +245,12 @@ public class UIDomainEditService extends UIServiceBase<DBDomain, DomainPublicRO>
         if (domain == null) {
             throw new BadRequestException(ErrorBusinessCode.NOT_FOUND, DOMAIN_DOES_NOT_EXIST_IN_DATABASE);
         }
-        return domainConfigurationDao.updateDomainPropertiesForRole(domain, domainProperties, SMPRole.USER).stream()
+        List<DomainPropertyRO> result = domainConfigurationDao.updateDomainPropertiesForRole(domain, domainProperties, SMPRole.USER).stream()
                 .map(property -> conversionService.convert(property, DomainPropertyRO.class))
                 .collect(Collectors.toList());
+        domainDao.evictFromCache(domainId);
+        cacheEventService.publish(CacheEventType.DOMAIN, domain.getDomainCode());
+        return result;
     }
 
     public PropertyValidationRO validateDomainProperty(PropertyRO propertyRO) {
@@ -32,6 +32,7 @@ import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
 import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.services.resource.ResourceSnapshotStore;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.stereotype.Service;
@@ -62,14 +63,17 @@ public class UIGroupPublicService extends UIServiceBase<DBGroup, GroupRO> {
     private final ResourceDao resourceDao;
     private final UserDao userDao;
     private final ConversionService conversionService;
+    private final ResourceSnapshotStore resourceSnapshotStore;
 
-    public UIGroupPublicService(GroupDao groupDao, DomainDao domainDao, ResourceDao resourceDao, GroupMemberDao groupMemberDao, UserDao userDao, ConversionService conversionService) {
+    public UIGroupPublicService(GroupDao groupDao, DomainDao domainDao, ResourceDao resourceDao, GroupMemberDao groupMemberDao, UserDao userDao, ConversionService conversionService,
+                                ResourceSnapshotStore resourceSnapshotStore) {
         this.groupDao = groupDao;
         this.domainDao = domainDao;
         this.resourceDao = resourceDao;
         this.conversionService = conversionService;
         this.groupMemberDao = groupMemberDao;
         this.userDao = userDao;
+        this.resourceSnapshotStore = resourceSnapshotStore;
     }
 
     @Override
@@ -95,14 +99,14 @@ public class UIGroupPublicService extends UIServiceBase<DBGroup, GroupRO> {
         return super.getTableList(page, pageSize, sortField, sortOrder, filter);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public List<GroupRO> getAllGroupsForDomain(Long domainId) {
         List<DBGroup> domainGroups = groupDao.getAllGroupsForDomain(domainId);
         return domainGroups.stream().map(domain -> conversionService.convert(domain, GroupRO.class))
                 .collect(Collectors.toList());
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public List<GroupRO> getAllGroupsForDomainAndUserAndGroupRole(Long domainId, Long userId, MembershipRoleType role) {
         List<DBGroup> domainGroups = groupDao.getGroupsByDomainUserIdAndGroupRoles(domainId, userId, role);
 
@@ -110,7 +114,7 @@ public class UIGroupPublicService extends UIServiceBase<DBGroup, GroupRO> {
                 .collect(Collectors.toList());
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public List<GroupRO> getAllGroupsForDomainAndUserAndResourceRole(Long domainId, Long userId, MembershipRoleType role) {
         List<DBGroup> domainGroups = groupDao.getGroupsByDomainUserIdAndResourceRoles(domainId, userId, role);
         return domainGroups.stream().map(domain -> conversionService.convert(domain, GroupRO.class))
@@ -184,6 +188,10 @@ public class UIGroupPublicService extends UIServiceBase<DBGroup, GroupRO> {
 
         group.setGroupName(lowerCase(trim(groupRO.getGroupName())));
         group.setGroupDescription(groupRO.getGroupDescription());
+        if (group.getVisibility() != groupRO.getVisibility()) {
+            // only the responses of the public resources in the public groups are kept in the resource snapshot
+            resourceSnapshotStore.clear();
+        }
         group.setVisibility(groupRO.getVisibility());
         // to get ID for conversion
         groupDao.persistFlushDetach(group);
@@ -202,7 +210,7 @@ public class UIGroupPublicService extends UIServiceBase<DBGroup, GroupRO> {
         return group;
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public ServiceResult<MemberRO> getGroupMembers(Long groupId, Long domainId, int page, int pageSize,
                                                    String filter) {
         validateDomainAndGroup(groupId, domainId, "GetGroupMembers");
@@ -19,12 +19,16 @@
 package eu.europa.ec.edelivery.smp.services.ui;
 
 import eu.europa.ec.edelivery.security.utils.KeystoreUtils;
+import eu.europa.ec.edelivery.smp.config.CacheEventListener;
+import eu.europa.ec.edelivery.smp.data.enums.CacheEventType;
 import eu.europa.ec.edelivery.smp.data.ui.CertificateRO;
 import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
 import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.services.CacheEventService;
 import eu.europa.ec.edelivery.smp.services.ConfigurationService;
+import eu.europa.ec.edelivery.smp.services.resource.ResourceResponseCache;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.springframework.core.convert.ConversionService;
@@ -43,6 +47,7 @@ import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.list;
@@ -53,17 +58,22 @@ import static org.apache.commons.lang3.StringUtils.isBlank;
  * @since 4.1
  */
 @Service
-public class UIKeystoreService extends BasicKeystoreService {
+public class UIKeystoreService extends BasicKeystoreService implements CacheEventListener {
 
     private static final SMPLogger LOG = SMPLoggerFactory.getLogger(UIKeystoreService.class);
 
     private final ConversionService conversionService;
     private final ConfigurationService configurationService;
+    private final ResourceResponseCache resourceResponseCache;
+    private final CacheEventService cacheEventService;
 
-    public UIKeystoreService(ConversionService conversionService, ConfigurationService configurationService) {
+    public UIKeystoreService(ConversionService conversionService, ConfigurationService configurationService,
+                             ResourceResponseCache resourceResponseCache, CacheEventService cacheEventService) {
         super(null);
         this.conversionService = conversionService;
         this.configurationService = configurationService;
+        this.resourceResponseCache = resourceResponseCache;
+        this.cacheEventService = cacheEventService;
     }
 
     private final List<String> keystoreKeys = new ArrayList<>(); // list of aliases with private keys
@@ -74,6 +84,7 @@ public class UIKeystoreService extends BasicKeystoreService {
 
     private long lastUpdateKeystoreFileTime = 0;
     private File lastUpdateKeystoreFile = null;
+    private final AtomicLong keystoreVersion = new AtomicLong();
 
     /**
      * Method  validates the configuration properties and refresh the
@@ -135,6 +146,22 @@ public class UIKeystoreService extends BasicKeystoreService {
         lastUpdateKeystoreFile = keystoreFile;
         // clear list to reload RO when required
         certificateROList.clear();
+        keystoreVersion.incrementAndGet();
+        // signed responses must be signed again with the new keys
+        resourceResponseCache.clear();
+    }
+
+    /**
+     * Returns the version of the loaded keystore data. The version is incremented every time the keystore is
+     * (re)loaded, so the caller can detect that the keys and certificates cached from the keystore must be reloaded.
+     *
+     * @return the version of loaded keystore data
+     */
+    public long getKeystoreVersion() {
+        if (isKeyStoreChanged()) {
+            refreshData();
+        }
+        return keystoreVersion.get();
     }
 
     boolean isKeyStoreChanged() {
@@ -295,6 +322,7 @@ public class UIKeystoreService extends BasicKeystoreService {
             List<String> listAliases = KeystoreUtils.mergeKeystore(keyStore, keystoreSecToken, newKeystore, password);
             // store keystore
             storeKeystore(keyStore);
+            cacheEventService.publish(CacheEventType.KEYSTORE, null);
             // refresh and return added list of certificates
             List<CertificateRO> keystoreEntries = getKeystoreEntriesList();
             return keystoreEntries.stream().filter(cert -> listAliases.contains(cert.getAlias())).collect(Collectors.toList());
@@ -334,9 +362,24 @@ public class UIKeystoreService extends BasicKeystoreService {
         // store keystore
         storeKeystore(keyStore);
         refreshData();
+        cacheEventService.publish(CacheEventType.KEYSTORE, alias);
         return certificate;
     }
 
+    /**
+     * The keystore was changed on the local or on the other SMP node in the cluster (shared security folder).
+     */
+    @Override
+    public void onCacheEvent(CacheEventType eventType, String eventKey) {
+        LOG.debug("Reload keystore for the change [{}]: [{}]", eventType, eventKey);
+        refreshData();
+    }
+
+    @Override
+    public List<CacheEventType> handledCacheEvents() {
+        return Collections.singletonList(CacheEventType.KEYSTORE);
+    }
+
     /**
      * Store keystore
      *
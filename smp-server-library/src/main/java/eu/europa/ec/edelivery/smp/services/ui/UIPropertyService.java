@@ -23,6 +23,7 @@ import eu.europa.ec.edelivery.smp.config.enums.SMPEnvPropertyEnum;
 import eu.europa.ec.edelivery.smp.config.enums.SMPPropertyEnum;
 import eu.europa.ec.edelivery.smp.cron.SMPDynamicCronTrigger;
 import eu.europa.ec.edelivery.smp.data.dao.ConfigurationDao;
+import eu.europa.ec.edelivery.smp.data.enums.CacheEventType;
 import eu.europa.ec.edelivery.smp.data.model.DBConfiguration;
 import eu.europa.ec.edelivery.smp.data.ui.PropertyRO;
 import eu.europa.ec.edelivery.smp.data.ui.PropertyValidationRO;
@@ -30,6 +31,7 @@ import eu.europa.ec.edelivery.smp.data.ui.ServiceResultProperties;
 import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.services.CacheEventService;
 import eu.europa.ec.edelivery.smp.utils.PropertyUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -60,11 +62,14 @@ public class UIPropertyService {
     private static final SMPLogger LOG = SMPLoggerFactory.getLogger(UIPropertyService.class);
     ConfigurationDao configurationDao;
     final SMPDynamicCronTrigger refreshPropertiesTrigger;
+    final CacheEventService cacheEventService;
 
     public UIPropertyService(ConfigurationDao configurationDao,
-                             @Qualifier(TRIGGER_BEAN_PROPERTY_REFRESH) SMPDynamicCronTrigger refreshPropertiesTrigger) {
+                             @Qualifier(TRIGGER_BEAN_PROPERTY_REFRESH) SMPDynamicCronTrigger refreshPropertiesTrigger,
+                             CacheEventService cacheEventService) {
         this.configurationDao = configurationDao;
         this.refreshPropertiesTrigger = refreshPropertiesTrigger;
+        this.cacheEventService = cacheEventService;
     }
 
     /**
@@ -138,7 +143,9 @@ public class UIPropertyService {
         }
         Boolean isClusterEnabled = configurationDao.getCachedPropertyValue(SMP_CLUSTER_ENABLED);
         if (isClusterEnabled) {
-            LOG.info("Properties were updated in database. Changed properties will be activated to all cluster nodes at: [{}]!",
+            // the cluster nodes reload the properties on the cache event, and latest with the property refresh job
+            cacheEventService.publish(CacheEventType.PROPERTY, null);
+            LOG.info("Properties were updated in database. Changed properties will be activated to all cluster nodes with the next cache event poll or latest at: [{}]!",
                     ISO_8601_EXTENDED_DATETIME_FORMAT.format(refreshPropertiesTrigger.getNextExecutionDate()));
             return;
         }
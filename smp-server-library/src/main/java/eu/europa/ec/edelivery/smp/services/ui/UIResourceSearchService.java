@@ -23,23 +23,29 @@ import eu.europa.ec.edelivery.smp.data.dao.BaseDao;
 import eu.europa.ec.edelivery.smp.data.dao.DomainDao;
 import eu.europa.ec.edelivery.smp.data.dao.ResourceDao;
 import eu.europa.ec.edelivery.smp.data.dao.ResourceDefDao;
+import eu.europa.ec.edelivery.smp.data.dao.SubresourceDao;
 import eu.europa.ec.edelivery.smp.data.model.DBDomain;
 import eu.europa.ec.edelivery.smp.data.model.doc.DBResource;
+import eu.europa.ec.edelivery.smp.data.model.doc.DBSubresource;
 import eu.europa.ec.edelivery.smp.data.model.ext.DBResourceDef;
 import eu.europa.ec.edelivery.smp.data.model.user.DBUser;
 import eu.europa.ec.edelivery.smp.data.ui.ResourceFilterOptionsResult;
 import eu.europa.ec.edelivery.smp.data.ui.ResourceSearchRO;
+import eu.europa.ec.edelivery.smp.data.ui.ResourceSearchResult;
 import eu.europa.ec.edelivery.smp.data.ui.ServiceMetadataRO;
 import eu.europa.ec.edelivery.smp.data.ui.ServiceResult;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.services.ConfigurationService;
 import eu.europa.ec.edelivery.smp.services.ui.filters.ResourceFilter;
 import eu.europa.ec.edelivery.smp.utils.SessionSecurityUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -52,10 +58,17 @@ public class UIResourceSearchService extends UIServiceBase<DBResource, ResourceS
 
     private final ResourceDefDao resourceDefDao;
 
-    public UIResourceSearchService(DomainDao domainDao, ResourceDao resourceDao, ResourceDefDao resourceDefDao) {
+    private final SubresourceDao subresourceDao;
+
+    private final ConfigurationService configurationService;
+
+    public UIResourceSearchService(DomainDao domainDao, ResourceDao resourceDao, ResourceDefDao resourceDefDao,
+                                   SubresourceDao subresourceDao, ConfigurationService configurationService) {
         this.domainDao = domainDao;
         this.resourceDao = resourceDao;
         this.resourceDefDao = resourceDefDao;
+        this.subresourceDao = subresourceDao;
+        this.configurationService = configurationService;
     }
 
 
@@ -74,7 +87,7 @@ public class UIResourceSearchService extends UIServiceBase<DBResource, ResourceS
      * @param filter
      * @return
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public ServiceResult<ResourceSearchRO> getTableList(int page, int pageSize, String sortField, String sortOrder, ResourceFilter filter) {
         LOG.debug("Get table list for page: [{}], page size: [{}], sort field: [{}], sort order: [{}], filter: [{}]", page, pageSize, sortField, sortOrder, filter);
         ServiceResult<ResourceSearchRO> sg = new ServiceResult<>();
@@ -95,24 +108,101 @@ public class UIResourceSearchService extends UIServiceBase<DBResource, ResourceS
                 iStartIndex = pageSize < 0 ? -1 : page * pageSize;
             }
             List<ResourceDao.DBResourceWrapper> lst = resourceDao.getPublicResourcesSearch(page, pageSize, user, filter.getIdentifierSchemeLike(), filter.getIdentifierValueLike(), filter.getDomainCode(), filter.getDocumentType());
-            List<ResourceSearchRO> lstRo = new ArrayList<>();
-            for (ResourceDao.DBResourceWrapper resource : lst) {
-                ResourceSearchRO serviceGroupRo = convert(resource);
+            for (ResourceSearchRO serviceGroupRo : convert(lst)) {
                 serviceGroupRo.setIndex(iStartIndex++);
-                lstRo.add(serviceGroupRo);
+                sg.getServiceEntities().add(serviceGroupRo);
             }
-            sg.getServiceEntities().addAll(lstRo);
         }
         return sg;
     }
 
+    /**
+     * Method returns the page of the resources following the given cursor. The resources are ordered by the lower-cased
+     * identifier value, and the page is selected with the index seek from the cursor position, so the time to
+     * get the page does not depend on how deep the page is. The count of the resources is capped with the
+     * property smp.ui.search.count.limit, and it is computed only for the first page (empty cursor): the count of the
+     * following pages is not set, and the client keeps the count of the first page.
+     *
+     * @param cursor   the opaque cursor returned with the previous page or null for the first page
+     * @param pageSize the max number of the resources in the page
+     * @param filter   the search filter
+     * @return the page of the resources with the cursor for the next page
+     */
+    @Transactional(readOnly = true)
+    public ResourceSearchResult getTableListByCursor(String cursor, int pageSize, ResourceFilter filter) {
+        LOG.debug("Get table list for cursor: [{}], page size: [{}], filter: [{}]", cursor, pageSize, filter);
+        ResourceSearchCursor searchCursor = ResourceSearchCursor.decode(cursor);
+        DBUser user = SessionSecurityUtils.getSessionUserDetails() != null ?
+                SessionSecurityUtils.getSessionUserDetails().getUser() : null;
+
+        ResourceSearchResult result = new ResourceSearchResult();
+        result.setPageSize(pageSize);
+        if (searchCursor == null) {
+            setSearchCount(result, user, filter);
+            if (result.getCount() == 0) {
+                return result;
+            }
+        }
+        // read one more resource to find out if there is the next page
+        List<ResourceDao.DBResourceWrapper> lst = resourceDao.getPublicResourcesSearchAfter(
+                searchCursor == null ? null : searchCursor.getIdentifierValue(),
+                searchCursor == null ? null : searchCursor.getId(),
+                pageSize > 0 ? pageSize + 1 : pageSize,
+                user, filter.getIdentifierSchemeLike(), filter.getIdentifierValueLike(), filter.getDomainCode(), filter.getDocumentType());
+
+        if (pageSize > 0 && lst.size() > pageSize) {
+            lst = lst.subList(0, pageSize);
+            DBResource last = lst.get(pageSize - 1).getDbResource();
+            result.setNextCursor(new ResourceSearchCursor(last.getId(), last.getNormalizedIdentifierValue()).encode());
+        }
+        int index = 0;
+        for (ResourceSearchRO serviceGroupRo : convert(lst)) {
+            serviceGroupRo.setIndex(index++);
+            result.getServiceEntities().add(serviceGroupRo);
+        }
+        return result;
+    }
+
+    private void setSearchCount(ResourceSearchResult result, DBUser user, ResourceFilter filter) {
+        int countLimit = configurationService.getUISearchCountLimit();
+        if (countLimit > 0) {
+            long iCnt = resourceDao.getPublicResourcesSearchCappedCount(countLimit, user, filter.getIdentifierSchemeLike(),
+                    filter.getIdentifierValueLike(), filter.getDomainCode(), filter.getDocumentType());
+            result.setCountLimited(iCnt > countLimit);
+            result.setCount(Math.min(iCnt, countLimit));
+        } else {
+            result.setCount(resourceDao.getPublicResourcesSearchCount(user, filter.getIdentifierSchemeLike(),
+                    filter.getIdentifierValueLike(), filter.getDomainCode(), filter.getDocumentType()));
+        }
+    }
+
+    /**
+     * Convert Database objects to Rest objects for UI. The subresources of all resources are loaded with one query.
+     *
+     * @param resources - database entity wrappers
+     * @return list of ResourceSearchRO
+     */
+    private List<ResourceSearchRO> convert(List<ResourceDao.DBResourceWrapper> resources) {
+        List<Long> resourceIds = resources.stream().map(resource -> resource.getDbResource().getId())
+                .collect(Collectors.toList());
+        Map<Long, List<DBSubresource>> subresources = subresourceDao.getSubResourcesForResourceIds(resourceIds)
+                .stream().collect(Collectors.groupingBy(subresource -> subresource.getResource().getId()));
+
+        List<ResourceSearchRO> lstRo = new ArrayList<>();
+        for (ResourceDao.DBResourceWrapper resource : resources) {
+            lstRo.add(convert(resource, subresources.getOrDefault(resource.getDbResource().getId(), Collections.emptyList())));
+        }
+        return lstRo;
+    }
+
     /**
      * Convert Database object to Rest object for UI
      *
-     * @param resource - database entity wrapper
+     * @param resource     - database entity wrapper
+     * @param subresources - the subresources of the resource
      * @return ServiceGroupRO
      */
-    private ResourceSearchRO convert(ResourceDao.DBResourceWrapper resource) {
+    private ResourceSearchRO convert(ResourceDao.DBResourceWrapper resource, List<DBSubresource> subresources) {
         ResourceSearchRO serviceGroupRo = new ResourceSearchRO();
 
         serviceGroupRo.setId(resource.getDbResource().getId());
@@ -123,7 +213,7 @@ public class UIResourceSearchService extends UIServiceBase<DBResource, ResourceS
         serviceGroupRo.setParticipantScheme(resource.getDbResource().getIdentifierScheme());
         serviceGroupRo.setVisibility(resource.getDbResource().getVisibility());
 
-        resource.getDbResource().getSubresources().forEach(subresource -> {
+        subresources.forEach(subresource -> {
             ServiceMetadataRO smdro = new ServiceMetadataRO();
             smdro.setSubresourceDefUrlSegment(subresource.getSubresourceDef().getUrlSegment());
             smdro.setDocumentIdentifier(subresource.getIdentifierValue());
@@ -25,6 +25,7 @@ import eu.europa.ec.edelivery.smp.data.enums.MembershipRoleType;
 import eu.europa.ec.edelivery.smp.data.model.DBDomain;
 import eu.europa.ec.edelivery.smp.data.model.DBDomainResourceDef;
 import eu.europa.ec.edelivery.smp.data.model.DBGroup;
+import eu.europa.ec.edelivery.smp.data.model.DBSMLOutboxEntry;
 import eu.europa.ec.edelivery.smp.data.model.doc.DBDocument;
 import eu.europa.ec.edelivery.smp.data.model.doc.DBDocumentVersion;
 import eu.europa.ec.edelivery.smp.data.model.doc.DBResource;
@@ -41,8 +42,10 @@ import eu.europa.ec.edelivery.smp.identifiers.Identifier;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
 import eu.europa.ec.edelivery.smp.services.IdentifierService;
-import eu.europa.ec.edelivery.smp.services.SMLIntegrationService;
+import eu.europa.ec.edelivery.smp.services.SMLOutboxService;
 import eu.europa.ec.edelivery.smp.services.resource.DocumentVersionService;
+import eu.europa.ec.edelivery.smp.services.resource.ResourceIdentifierFilter;
+import eu.europa.ec.edelivery.smp.services.resource.ResourceResponseCache;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.stereotype.Service;
@@ -50,6 +53,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.io.ByteArrayOutputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -83,9 +87,11 @@ public class UIResourceService {
     private final DomainResourceDefDao domainResourceDefDao;
     private final IdentifierService identifierService;
     private final ConversionService conversionService;
-    private final SMLIntegrationService smlIntegrationService;
+    private final SMLOutboxService smlOutboxService;
     private final UIDocumentService uiDocumentService;
     private final DocumentVersionService documentVersionService;
+    private final ResourceResponseCache resourceResponseCache;
+    private final ResourceIdentifierFilter resourceIdentifierFilter;
 
 
     public UIResourceService(ResourceDao resourceDao,
@@ -95,8 +101,10 @@ public class UIResourceService {
                              DomainResourceDefDao domainResourceDefDao, UserDao userDao, GroupDao groupDao,
                              IdentifierService identifierService,
                              ConversionService conversionService,
-                             SMLIntegrationService smlIntegrationService,
-                             UIDocumentService uiDocumentService, DocumentVersionService documentVersionService) {
+                             SMLOutboxService smlOutboxService,
+                             UIDocumentService uiDocumentService, DocumentVersionService documentVersionService,
+                             ResourceResponseCache resourceResponseCache,
+                             ResourceIdentifierFilter resourceIdentifierFilter) {
         this.resourceDao = resourceDao;
         this.resourceMemberDao = resourceMemberDao;
         this.resourceDefDao = resourceDefDao;
@@ -106,13 +114,15 @@ public class UIResourceService {
         this.userDao = userDao;
         this.identifierService = identifierService;
         this.conversionService = conversionService;
-        this.smlIntegrationService = smlIntegrationService;
+        this.smlOutboxService = smlOutboxService;
         this.uiDocumentService = uiDocumentService;
         this.documentVersionService = documentVersionService;
+        this.resourceResponseCache = resourceResponseCache;
+        this.resourceIdentifierFilter = resourceIdentifierFilter;
     }
 
 
-    @Transactional
+    @Transactional(readOnly = true)
     public ServiceResult<ResourceRO> getGroupResources(Long groupId, int page, int pageSize, String filterValue) {
 
         DBGroup group = groupDao.find(groupId);
@@ -136,14 +146,13 @@ public class UIResourceService {
         }
         result.setCount(count);
         List<DBResource> resources = resourceDao.getResourcesForFilter(page, pageSize, filter);
-        List<ResourceRO> resourceROS = resources.stream().map(resource -> conversionService.convert(resource, ResourceRO.class)).collect(Collectors.toList());
-        resourceDao.getResourcesForFilter(page, pageSize, filter);
+        List<ResourceRO> resourceROS = convertToResourceROs(resources);
         result.getServiceEntities().addAll(resourceROS);
         return result;
     }
 
 
-    @Transactional
+    @Transactional(readOnly = true)
     public ServiceResult<ResourceRO> getResourcesForUserAndGroup(Long userId, MembershipRoleType role, Long groupId, int page, int pageSize, String filterValue) {
 
         DBGroup group = groupDao.find(groupId);
@@ -173,12 +182,31 @@ public class UIResourceService {
         }
         result.setCount(count);
         List<DBResource> resources = resourceDao.getResourcesForFilter(page, pageSize, filter);
-        List<ResourceRO> resourceROS = resources.stream().map(resource -> conversionService.convert(resource, ResourceRO.class)).collect(Collectors.toList());
-        resourceDao.getResourcesForFilter(page, pageSize, filter);
+        List<ResourceRO> resourceROS = convertToResourceROs(resources);
         result.getServiceEntities().addAll(resourceROS);
         return result;
     }
 
+    /**
+     * Method converts the resources to the resource ROs and sets the status of the not yet sent SML outbox entries.
+     *
+     * @param resources the resources
+     * @return the list of the resource ROs
+     */
+    protected List<ResourceRO> convertToResourceROs(List<DBResource> resources) {
+        Map<Long, DBSMLOutboxEntry> smlOutboxEntries = smlOutboxService.getLastEntriesForResources(resources.stream()
+                .map(DBResource::getId).collect(Collectors.toList()));
+        return resources.stream().map(resource -> {
+            ResourceRO resourceRO = conversionService.convert(resource, ResourceRO.class);
+            DBSMLOutboxEntry smlOutboxEntry = smlOutboxEntries.get(resource.getId());
+            if (smlOutboxEntry != null) {
+                resourceRO.setSmlOutboxAction(smlOutboxEntry.getAction().name());
+                resourceRO.setSmlOutboxStatus(smlOutboxEntry.getStatus().name());
+            }
+            return resourceRO;
+        }).collect(Collectors.toList());
+    }
+
     @Transactional
     public ResourceRO deleteResourceFromGroup(Long resourceId, Long groupId, Long domainId) {
         DBResource resource = resourceDao.find(resourceId);
@@ -192,13 +220,16 @@ public class UIResourceService {
             throw new SMPRuntimeException(ErrorCode.INVALID_REQUEST, ACTION_RESOURCE_DELETE, GROUP_DOES_NOT_BELONG_TO_THE_GIVEN_DOMAIN);
         }
         DBDomain resourceDomain = resource.getGroup().getDomain();
-        if (smlIntegrationService.isSMLIntegrationEnabled() &&
-                resourceDomain.isSmlRegistered() && resource.isSmlRegistered()) {
-            smlIntegrationService.unregisterParticipant(resource, resourceDomain);
-        }
+        smlOutboxService.enqueueUnregisterParticipant(resource, resourceDomain);
 
         // remove all documents where resource is used as reference
+        if (resource.getDocument() != null && Boolean.TRUE.equals(resource.getDocument().getSharingEnabled())) {
+            // the referencing resources are changed
+            resourceResponseCache.clear();
+        }
         documentDao.unlinkDocument(resource.getDocument());
+        // the resource snapshot is served without the resource lookup
+        resourceResponseCache.evictResource(resource.getId());
 
         resourceDao.remove(resource);
         return conversionService.convert(resource, ResourceRO.class);
@@ -253,6 +284,7 @@ public class UIResourceService {
         DBDocument document = createDocumentForNewResource(resource);
         resource.setDocument(document);
         resourceDao.persist(resource);
+        resourceIdentifierFilter.publishResourceCreated(resource);
         // create first member as admin user
         DBUser user = userDao.find(userId);
         DBResourceMember dbResourceMember = new DBResourceMember();
@@ -260,12 +292,9 @@ public class UIResourceService {
         dbResourceMember.setResource(resource);
         dbResourceMember.setUser(user);
         resourceMemberDao.persist(dbResourceMember);
-        // try to register it to
+        // register it to SML with the outbox
         DBDomain resourceDomain = resource.getGroup().getDomain();
-        if (smlIntegrationService.isSMLIntegrationEnabled() &&
-                resourceDomain.isSmlRegistered()) {
-            smlIntegrationService.registerParticipant(resource, resourceDomain);
-        }
+        smlOutboxService.enqueueRegisterParticipant(resource, resourceDomain);
 
         return conversionService.convert(resource, ResourceRO.class);
     }
@@ -304,6 +333,10 @@ public class UIResourceService {
         // at the moment only visibility and review enabled
         // can be updated for the resource
         DBResource resource = resourceDao.find(resourceId);
+        if (resource.getVisibility() != resourceRO.getVisibility()) {
+            // only the responses of the public resources are kept in the resource snapshot
+            resourceResponseCache.evictResource(resource.getId());
+        }
         resource.setVisibility(resourceRO.getVisibility());
         if (resourceRO.isReviewEnabled() != null) {
             boolean newValue = isTrue(resourceRO.isReviewEnabled());
@@ -328,7 +361,7 @@ public class UIResourceService {
         return resourceROResult;
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public ServiceResult<MemberRO> getResourceMembers(Long resourceId, Long groupId, int page, int pageSize,
                                                       String filter) {
 
@@ -26,6 +26,7 @@ import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
 import org.apache.commons.beanutils.BeanUtils;
 import org.springframework.core.GenericTypeResolver;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
@@ -65,6 +66,7 @@ abstract class UIServiceBase<E extends BaseEntity, R> {
      * @param filter - filter object (null - no filter)
      * @return ServiceResult<R> - list of UI resource objects
      */
+    @Transactional(readOnly = true)
     public ServiceResult<R> getTableList(int page, int pageSize,
                                          String sortField,
                                          String sortOrder,
@@ -36,6 +36,7 @@ import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.identifiers.Identifier;
 import eu.europa.ec.edelivery.smp.services.IdentifierService;
 import eu.europa.ec.edelivery.smp.services.resource.DocumentVersionService;
+import eu.europa.ec.edelivery.smp.services.resource.ResourceResponseCache;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.stereotype.Service;
@@ -66,12 +67,14 @@ public class UISubresourceService {
     private final DocumentVersionService documentVersionService;
     private final UIDocumentService uiDocumentService;
     private final ConversionService conversionService;
+    private final ResourceResponseCache resourceResponseCache;
 
     public UISubresourceService(SubresourceDao subresourceDao, ResourceDao resourceDao, SubresourceDefDao subresourceDefDao, IdentifierService identifierService,
                                 DocumentDao documentDao,
                                 ConversionService conversionService,
                                 DocumentVersionService documentVersionService,
-                                UIDocumentService uiDocumentService
+                                UIDocumentService uiDocumentService,
+                                ResourceResponseCache resourceResponseCache
     ) {
         this.subresourceDao = subresourceDao;
         this.resourceDao = resourceDao;
@@ -81,10 +84,11 @@ public class UISubresourceService {
         this.conversionService = conversionService;
         this.documentVersionService = documentVersionService;
         this.uiDocumentService = uiDocumentService;
+        this.resourceResponseCache = resourceResponseCache;
     }
 
 
-    @Transactional
+    @Transactional(readOnly = true)
     public List<SubresourceRO> getSubResourcesForResource(Long resourceId) {
         List<DBSubresource> list = this.subresourceDao.getSubResourcesForResourceId(resourceId);
         return list.stream().map(subresource -> conversionService.convert(subresource, SubresourceRO.class)).collect(Collectors.toList());
@@ -106,6 +110,7 @@ public class UISubresourceService {
         resource.getSubresources().remove(subresource);
         documentDao.unlinkDocument(subresource.getDocument());
         subresourceDao.remove(subresource);
+        resourceResponseCache.evictResource(resourceId);
         return conversionService.convert(subresource, SubresourceRO.class);
     }
 
@@ -138,6 +143,7 @@ public class UISubresourceService {
         DBDocument document = createDocumentForSubresourceDef(optRedef.get(), subresource, resParent);
         subresource.setDocument(document);
         subresourceDao.persist(subresource);
+        resourceResponseCache.evictResource(resourceId);
         // create first member as admin user
         return conversionService.convert(subresource, SubresourceRO.class);
     }
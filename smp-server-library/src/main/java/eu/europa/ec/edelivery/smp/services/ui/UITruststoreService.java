@@ -20,7 +20,9 @@ package eu.europa.ec.edelivery.smp.services.ui;
 
 import eu.europa.ec.edelivery.security.cert.CertificateValidator;
 import eu.europa.ec.edelivery.security.utils.X509CertificateUtils;
+import eu.europa.ec.edelivery.smp.config.CacheEventListener;
 import eu.europa.ec.edelivery.smp.data.dao.UserDao;
+import eu.europa.ec.edelivery.smp.data.enums.CacheEventType;
 import eu.europa.ec.edelivery.smp.data.model.user.DBUser;
 import eu.europa.ec.edelivery.smp.data.ui.CertificateRO;
 import eu.europa.ec.edelivery.smp.exceptions.CertificateAlreadyRegisteredException;
@@ -30,6 +32,7 @@ import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
 import eu.europa.ec.edelivery.smp.services.CRLVerifierService;
+import eu.europa.ec.edelivery.smp.services.CacheEventService;
 import eu.europa.ec.edelivery.smp.services.ConfigurationService;
 import eu.europa.ec.edelivery.text.DistinguishedNamesCodingUtil;
 import org.apache.commons.lang3.StringUtils;
@@ -64,7 +67,7 @@ import static java.util.Collections.list;
  * @since 4.1
  */
 @Service
-public class UITruststoreService extends BasicKeystoreService {
+public class UITruststoreService extends BasicKeystoreService implements CacheEventListener {
 
     private static final SMPLogger LOG = SMPLoggerFactory.getLogger(UITruststoreService.class);
 
@@ -72,6 +75,7 @@ public class UITruststoreService extends BasicKeystoreService {
     private final ConfigurationService configurationService;
     private final ConversionService conversionService;
     private final UserDao userDao;
+    private final CacheEventService cacheEventService;
 
     List<String> normalizedTrustedList = new ArrayList<>();
     Map<String, X509Certificate> truststoreCertificates = new HashMap();
@@ -81,11 +85,14 @@ public class UITruststoreService extends BasicKeystoreService {
     TrustManager[] trustManagers;
     KeyStore trustStore = null;
 
-    public UITruststoreService(ConfigurationService configurationService, CRLVerifierService crlVerifierService, @Lazy ConversionService conversionService, UserDao userDao) {
+    public UITruststoreService(ConfigurationService configurationService, CRLVerifierService crlVerifierService,
+                               @Lazy ConversionService conversionService, UserDao userDao,
+                               CacheEventService cacheEventService) {
         super(crlVerifierService);
         this.configurationService = configurationService;
         this.conversionService = conversionService;
         this.userDao = userDao;
+        this.cacheEventService = cacheEventService;
     }
 
     @PostConstruct
@@ -447,6 +454,7 @@ public class UITruststoreService extends BasicKeystoreService {
         // store keystore
         storeTruststore(truststore);
         refreshData();
+        cacheEventService.publish(CacheEventType.TRUSTSTORE, alias);
         return certificate;
     }
 
@@ -473,11 +481,26 @@ public class UITruststoreService extends BasicKeystoreService {
             // store truststore
             storeTruststore(truststore);
             refreshData();
+            cacheEventService.publish(CacheEventType.TRUSTSTORE, aliasPrivate);
             return aliasPrivate;
         }
         return null;
     }
 
+    /**
+     * The truststore was changed on the local or on the other SMP node in the cluster (shared security folder).
+     */
+    @Override
+    public void onCacheEvent(CacheEventType eventType, String eventKey) {
+        LOG.debug("Reload truststore for the change [{}]: [{}]", eventType, eventKey);
+        refreshData();
+    }
+
+    @Override
+    public List<CacheEventType> handledCacheEvents() {
+        return Collections.singletonList(CacheEventType.TRUSTSTORE);
+    }
+
     public KeyStore getTrustStore() {
         return trustStore;
     }
@@ -332,6 +332,9 @@ public class UIUserService extends UIServiceBase<DBUser, UserRO> {
         dbUser.setFullName(user.getFullName());
         dbUser.setSmpTheme(user.getSmpTheme());
         dbUser.setSmpLocale(LocaleUtils.validateLocale(user.getSmpLocale()));
+        if (!dbUser.isActive()) {
+            credentialService.evictVerifiedAccessTokensForUser(dbUser.getId());
+        }
         alertService.alertUserUpdated(dbUser);
     }
 
@@ -370,6 +373,7 @@ public class UIUserService extends UIServiceBase<DBUser, UserRO> {
             throw new SMPRuntimeException(ErrorCode.INVALID_REQUEST, USER_ID_REQUEST_TYPE, "Can not find user id!");
         }
         userDao.remove(dbUser);
+        credentialService.evictVerifiedAccessTokensForUser(userId);
         return conversionService.convert(dbUser, UserRO.class);
     }
 
@@ -443,6 +447,7 @@ public class UIUserService extends UIServiceBase<DBUser, UserRO> {
         DBCredential credential = credentialDao.find(credentialId);
         validateCredentials(credential, userId, credentialType, credentialTargetType);
         credentialDao.remove(credential);
+        credentialService.evictVerifiedAccessToken(credential);
         CredentialRO credentialRO = conversionService.convert(credential, CredentialRO.class);
         credentialRO.setStatus(EntityROStatus.REMOVED.getStatusNumber());
 
@@ -485,6 +490,7 @@ public class UIUserService extends UIServiceBase<DBUser, UserRO> {
         credential.setActive(credentialDataRO.isActive());
         credential.setActiveFrom(credentialDataRO.getActiveFrom());
         credential.setExpireOn(credentialDataRO.getExpireOn());
+        credentialService.evictVerifiedAccessToken(credential);
 
         CredentialRO credentialResultRO;
         if (credentialType == CredentialType.CERTIFICATE) {
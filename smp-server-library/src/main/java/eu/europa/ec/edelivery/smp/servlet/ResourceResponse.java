@@ -58,6 +58,10 @@ public class ResourceResponse {
         response.setHeader(name, value);
     }
 
+    public void setHttpDateHeader(String name, long date) {
+        response.setDateHeader(name, date);
+    }
+
     public OutputStream getOutputStream() {
         try {
             return response.getOutputStream();
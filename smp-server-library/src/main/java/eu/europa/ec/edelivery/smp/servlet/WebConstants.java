@@ -27,6 +27,7 @@ package eu.europa.ec.edelivery.smp.servlet;
 public class WebConstants {
     public static final int HTTP_RESPONSE_CODE_CREATED = 201;
     public static final int HTTP_RESPONSE_CODE_UPDATED = 200;
+    public static final int HTTP_RESPONSE_CODE_NOT_MODIFIED = 304;
     public static final String HTTP_PARAM_DOMAIN = "Domain";
     public static final String HTTP_PARAM_RESOURCE_TYPE = "Resource-Type";
     public static final String HTTP_PARAM_ADMIN_OBSOLETE = "ServiceGroup-Owner";
@@ -33,6 +33,7 @@ import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.identifiers.Identifier;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.monitor.SMPMetrics;
 import eu.europa.ec.edelivery.smp.services.ConfigurationService;
 import eu.europa.ec.edelivery.smp.services.ui.UIKeystoreService;
 import eu.europa.ec.edelivery.smp.services.ui.UITruststoreService;
@@ -342,6 +343,102 @@ public class SmlConnector implements ApplicationContextAware {
         }
     }
 
+    /**
+     * Register the participants in the SML with one BDMSL createList request. The method is used for the bulk
+     * registration of the domain participants. If the BDMSL rejects the list (for example, because one of the
+     * participants already exists), the participants are registered one by one with the same client, and the
+     * "already exists" errors are ignored.
+     *
+     * @param client         the pre-configured participant client (see {@link #createParticipantWSClient(DBDomain)})
+     * @param participantIds the list of participant identifiers (not normalized)
+     * @param domain         the domain entity to which the participants must be registered
+     * @return {@code true} if the participants are registered; otherwise, {@code false}
+     * @throws SMPRuntimeException if an error occurs during the registration process
+     */
+    public boolean registerParticipantsInDns(IManageParticipantIdentifierWS client, List<Identifier> participantIds, DBDomain domain) {
+        if (!configurationService.isSMLIntegrationEnabled() || participantIds.isEmpty()) {
+            return false;
+        }
+        if (!domain.isSmlRegistered()) {
+            LOG.info("Participants are not registered to SML because domain {} is not registered!", domain.getDomainCode());
+            return false;
+        }
+        List<Identifier> normalizedParticipantIds = normalizeParticipants(participantIds, domain);
+        LOG.debug("Registering [{}] participants to domain: {}.", normalizedParticipantIds.size(), domain.getDomainCode());
+        try {
+            client.createList(toParticipantIdentifierPage(normalizedParticipantIds, domain.getSmlSmpId()));
+        } catch (BadRequestFault | NotFoundFault e) {
+            LOG.warn("Registration of the participant list failed with error [{}]. Register participants one by one.", e.getMessage());
+            for (Identifier normalizedParticipantId : normalizedParticipantIds) {
+                try {
+                    client.create(toBusdoxParticipantId(normalizedParticipantId, domain.getSmlSmpId()));
+                } catch (BadRequestFault | NotFoundFault ex) {
+                    processSMLErrorMessage(ex, normalizedParticipantId);
+                } catch (InternalErrorFault | UnauthorizedFault ex) {
+                    LOG.error(ex.getClass().getName() + ex.getMessage(), ex);
+                    throw new SMPRuntimeException(ErrorCode.SML_INTEGRATION_EXCEPTION, ex, ExceptionUtils.getRootCauseMessage(ex));
+                }
+            }
+        } catch (InternalErrorFault | UnauthorizedFault e) {
+            LOG.error(e.getClass().getName() + e.getMessage(), e);
+            throw new SMPRuntimeException(ErrorCode.SML_INTEGRATION_EXCEPTION, e, ExceptionUtils.getRootCauseMessage(e));
+        }
+        LOG.info("Registered [{}] participants to domain: [{}].", normalizedParticipantIds.size(), domain.getDomainCode());
+        return true;
+    }
+
+    /**
+     * Unregister the participants from the SML with one BDMSL deleteList request. If the BDMSL rejects the list (for
+     * example, because one of the participants does not exist), the participants are unregistered one by one with
+     * the same client, and the "not exists" errors are ignored.
+     *
+     * @param client         the pre-configured participant client (see {@link #createParticipantWSClient(DBDomain)})
+     * @param participantIds the list of participant identifiers (not normalized)
+     * @param domain         the domain entity from which the participants must be unregistered
+     * @return {@code true} if the participants are unregistered; otherwise, {@code false}
+     * @throws SMPRuntimeException if an error occurs during the un-registration process
+     */
+    public boolean unregisterParticipantsFromDns(IManageParticipantIdentifierWS client, List<Identifier> participantIds, DBDomain domain) {
+        if (!configurationService.isSMLIntegrationEnabled() || participantIds.isEmpty()) {
+            return false;
+        }
+        if (!domain.isSmlRegistered()) {
+            LOG.info("Participants are not unregistered from SML because domain {} is not registered!", domain.getDomainCode());
+            return false;
+        }
+        List<Identifier> normalizedParticipantIds = normalizeParticipants(participantIds, domain);
+        LOG.debug("Removing [{}] participants from domain: {}.", normalizedParticipantIds.size(), domain.getDomainCode());
+        try {
+            client.deleteList(toParticipantIdentifierPage(normalizedParticipantIds, domain.getSmlSmpId()));
+        } catch (BadRequestFault | NotFoundFault e) {
+            LOG.warn("Removal of the participant list failed with error [{}]. Remove participants one by one.", e.getMessage());
+            for (Identifier normalizedParticipantId : normalizedParticipantIds) {
+                try {
+                    client.delete(toBusdoxParticipantId(normalizedParticipantId, domain.getSmlSmpId()));
+                } catch (BadRequestFault | NotFoundFault ex) {
+                    processSMLErrorMessage(ex, normalizedParticipantId);
+                } catch (InternalErrorFault | UnauthorizedFault ex) {
+                    LOG.error(ex.getClass().getName() + ex.getMessage(), ex);
+                    throw new SMPRuntimeException(ErrorCode.SML_INTEGRATION_EXCEPTION, ex, ExceptionUtils.getRootCauseMessage(ex));
+                }
+            }
+        } catch (InternalErrorFault | UnauthorizedFault e) {
+            LOG.error(e.getClass().getName() + e.getMessage(), e);
+            throw new SMPRuntimeException(ErrorCode.SML_INTEGRATION_EXCEPTION, e, ExceptionUtils.getRootCauseMessage(e));
+        }
+        LOG.info("Removed [{}] participants from domain: [{}].", normalizedParticipantIds.size(), domain.getDomainCode());
+        return true;
+    }
+
+    private List<Identifier> normalizeParticipants(List<Identifier> participantIds, DBDomain domain) {
+        List<Identifier> normalizedParticipantIds = new ArrayList<>(participantIds.size());
+        for (Identifier participantId : participantIds) {
+            normalizedParticipantIds.add(identifierService.normalizeParticipant(domain.getDomainCode(),
+                    participantId.getScheme(), participantId.getValue()));
+        }
+        return normalizedParticipantIds;
+    }
+
     public void unregisterDomain(DBDomain domain) {
         if (!configurationService.isSMLIntegrationEnabled()) {
             return;
@@ -357,13 +454,25 @@ public class SmlConnector implements ApplicationContextAware {
         }
     }
 
+    /**
+     * Creates and configures the participant client for the domain. The configured client can be reused for
+     * several requests (e.g. when registering all domain participants) but it must not be shared between threads,
+     * because the client request context is not thread-safe.
+     *
+     * @param domain the domain entity
+     * @return the configured participant client
+     */
+    public IManageParticipantIdentifierWS createParticipantWSClient(DBDomain domain) {
+        return getParticipantWSClient(domain);
+    }
+
     private IManageParticipantIdentifierWS getParticipantWSClient(DBDomain domain) {
 
         IManageParticipantIdentifierWS iManageServiceMetadataWS = ctx.getBean(IManageParticipantIdentifierWS.class);
         // configure connection
         configureClient(IDENTIFIER_VALUE_CONTEXT, iManageServiceMetadataWS, domain);
 
-        return iManageServiceMetadataWS;
+        return timedClient(IManageParticipantIdentifierWS.class, iManageServiceMetadataWS, domain);
     }
 
     private IBDMSLServiceWS getBDMSLWSClient(DBDomain domain) {
@@ -372,7 +481,7 @@ public class SmlConnector implements ApplicationContextAware {
         // configure connection
         configureClient(BDMSL_CUSTOM_SERVICES_CONTEXT, bdmslServiceWS, domain);
 
-        return bdmslServiceWS;
+        return timedClient(IBDMSLServiceWS.class, bdmslServiceWS, domain);
     }
 
     private IManageServiceMetadataWS getSMPManagerWSClient(DBDomain domain) {
@@ -380,7 +489,18 @@ public class SmlConnector implements ApplicationContextAware {
         // configure value connection
         configureClient(SERVICE_METADATA_CONTEXT, iManageServiceMetadataWS, domain);
 
-        return iManageServiceMetadataWS;
+        return timedClient(IManageServiceMetadataWS.class, iManageServiceMetadataWS, domain);
+    }
+
+    /**
+     * Wraps the configured SML client so the duration and the outcome of each SML call are recorded to the
+     * {@link SMPMetrics#METRIC_SML_CALL} timer. The client must be configured before wrapping because the CXF client
+     * configuration requires the CXF client proxy.
+     */
+    private <T> T timedClient(Class<T> clientType, T client, DBDomain domain) {
+        return SMPMetrics.timedProxy(clientType, client, SMPMetrics.METRIC_SML_CALL,
+                SMPMetrics.TAG_DOMAIN, domain.getDomainCode(),
+                SMPMetrics.TAG_TYPE, clientType.getSimpleName());
     }
 
     protected String getSmlClientKeyAliasForDomain(DBDomain domain) {
@@ -0,0 +1,165 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The thread-safe Bloom filter of the strings. The filter answers if the string was possibly added (with the
+ * configured false positive probability) or if it was definitely not added. The strings can not be removed from
+ * the filter.
+ * <p>
+ * The bit positions are calculated with the double hashing of two 64-bit hashes of the string characters. The
+ * false positive probability is kept only until the number of added strings exceeds the expected capacity, see
+ * {@link #isSaturated()}.
+ *
+ * @since 5.2
+ */
+public class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+    private static final long SEED_1 = 0x9E3779B97F4A7C15L;
+    private static final long SEED_2 = 0xC2B2AE3D27D4EB4FL;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final long expectedCapacity;
+    private final AtomicLong size = new AtomicLong();
+
+    /**
+     * Creates the filter sized for the expected number of strings and the false positive probability.
+     *
+     * @param expectedCapacity         the expected number of added strings
+     * @param falsePositiveProbability the false positive probability when the filter contains the expected number
+     *                                 of strings. The value must be between 0 and 1.
+     */
+    public BloomFilter(long expectedCapacity, double falsePositiveProbability) {
+        if (expectedCapacity < 1) {
+            throw new IllegalArgumentException("The expected capacity must be greater than 0!");
+        }
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("The false positive probability must be between 0 and 1!");
+        }
+        // optimal number of bits m = -n ln(p)/ln(2)^2 rounded up to the whole long words
+        long optimalBits = (long) Math.ceil(-expectedCapacity * Math.log(falsePositiveProbability) / (LN2 * LN2));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) / 64));
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = words * 64L;
+        // optimal number of hash functions k = m/n ln(2)
+        this.hashCount = (int) Math.max(1, Math.min(16, Math.round((double) bitCount / expectedCapacity * LN2)));
+        this.expectedCapacity = expectedCapacity;
+    }
+
+    /**
+     * Adds the string to the filter.
+     *
+     * @param value the string value
+     */
+    public void add(String value) {
+        long hash1 = hash(value, SEED_1);
+        // odd step visits distinct bit positions
+        long hash2 = hash(value, SEED_2) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bitIndex = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+            long mask = 1L << bitIndex;
+            bits.accumulateAndGet((int) (bitIndex >>> 6), mask, (word, bit) -> word | bit);
+        }
+        size.incrementAndGet();
+    }
+
+    /**
+     * Returns false if the string was definitely not added to the filter, and true if the string was possibly added.
+     *
+     * @param value the string value
+     * @return false if the string is definitely not in the filter
+     */
+    public boolean mightContain(String value) {
+        long hash1 = hash(value, SEED_1);
+        // odd step visits distinct bit positions
+        long hash2 = hash(value, SEED_2) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bitIndex = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+            if ((bits.get((int) (bitIndex >>> 6)) & (1L << bitIndex)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of the add operations. The same string added twice is counted twice.
+     */
+    public long getSize() {
+        return size.get();
+    }
+
+    public long getExpectedCapacity() {
+        return expectedCapacity;
+    }
+
+    /**
+     * Returns true if more strings were added than the filter was sized for, and the false positive probability
+     * is higher than the configured one.
+     */
+    public boolean isSaturated() {
+        return size.get() > expectedCapacity;
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * The 64-bit hash of the string characters: the characters are mixed with the seed as the 64-bit words and
+     * the result is finalized with the MurmurHash3 fmix64 function.
+     */
+    protected static long hash(String value, long seed) {
+        long hash = seed ^ value.length();
+        int length = value.length();
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            long word = value.charAt(i)
+                    | (long) value.charAt(i + 1) << 16
+                    | (long) value.charAt(i + 2) << 32
+                    | (long) value.charAt(i + 3) << 48;
+            hash = Long.rotateLeft(hash ^ fmix64(word), 27) * 5 + 0x52DCE729;
+        }
+        long tail = 0;
+        for (int shift = 0; i < length; i++, shift += 16) {
+            tail |= (long) value.charAt(i) << shift;
+        }
+        return fmix64(hash ^ fmix64(tail ^ seed));
+    }
+
+    private static long fmix64(long value) {
+        long k = value;
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB93FE53A1A6CL;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,130 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.utils;
+
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
+import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Utility methods for the HTTP conditional requests (RFC 9110) and the Cache-Control header (RFC 9111) of the
+ * resource read responses.
+ *
+ * @since 5.2
+ */
+public class HttpCacheUtils {
+
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(HttpCacheUtils.class);
+    private static final String WEAK_ETAG_PREFIX = "W/";
+    private static final String ANY_ETAG = "*";
+    private static final int ETAG_BYTES = 16;
+
+    private HttpCacheUtils() {
+    }
+
+    /**
+     * Creates the strong ETag value from the response fingerprint.
+     *
+     * @param fingerprint the fingerprint of the response
+     * @return the quoted ETag value
+     */
+    public static String createETag(String fingerprint) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(StringUtils.defaultString(fingerprint).getBytes(StandardCharsets.UTF_8));
+            StringBuilder eTag = new StringBuilder(ETAG_BYTES * 2 + 2).append('"');
+            for (int i = 0; i < ETAG_BYTES; i++) {
+                eTag.append(String.format("%02x", digest[i]));
+            }
+            return eTag.append('"').toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new SMPRuntimeException(ErrorCode.INTERNAL_ERROR, e, "SHA-256 algorithm is not supported", e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the Cache-Control header value. The response must be always revalidated if the max-age is not positive.
+     *
+     * @param isPublic true if the response can be stored by the shared caches
+     * @param maxAge   the max-age in seconds
+     * @return the Cache-Control header value
+     */
+    public static String createCacheControl(boolean isPublic, int maxAge) {
+        String visibility = isPublic ? "public" : "private";
+        return maxAge > 0 ? visibility + ", max-age=" + maxAge : visibility + ", no-cache";
+    }
+
+    /**
+     * Evaluates the conditional request headers. The If-Modified-Since header is ignored if the If-None-Match header
+     * is present.
+     *
+     * @param ifNoneMatch     the If-None-Match header value or null
+     * @param ifModifiedSince the If-Modified-Since header value or null
+     * @param eTag            the current ETag of the response
+     * @param lastModified    the current last modification time or null
+     * @return true if the client cached response is still valid
+     */
+    public static boolean isNotModified(String ifNoneMatch, String ifModifiedSince, String eTag, Instant lastModified) {
+        if (StringUtils.isNotBlank(ifNoneMatch)) {
+            return matchesETag(ifNoneMatch, eTag);
+        }
+        if (StringUtils.isBlank(ifModifiedSince) || lastModified == null) {
+            return false;
+        }
+        Instant since = parseHttpDate(ifModifiedSince);
+        return since != null && !lastModified.truncatedTo(ChronoUnit.SECONDS).isAfter(since);
+    }
+
+    /**
+     * Weak comparison of the If-None-Match entity tags with the current ETag.
+     */
+    protected static boolean matchesETag(String ifNoneMatch, String eTag) {
+        if (eTag == null) {
+            return false;
+        }
+        String currentTag = StringUtils.removeStart(eTag, WEAK_ETAG_PREFIX);
+        for (String tag : StringUtils.split(ifNoneMatch, ',')) {
+            String requestTag = StringUtils.removeStart(StringUtils.trim(tag), WEAK_ETAG_PREFIX);
+            if (ANY_ETAG.equals(requestTag) || currentTag.equals(requestTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected static Instant parseHttpDate(String value) {
+        try {
+            return ZonedDateTime.parse(StringUtils.trim(value), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            LOG.debug("Ignore invalid HTTP date [{}]: [{}]", value, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.utils;
+
+import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
+import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Utility methods for the HTTP content coding negotiation (RFC 9110, section 12.5.3) and the encoding of the rendered
+ * resource responses.
+ *
+ * @since 5.2
+ */
+public class HttpEncodingUtils {
+
+    public static final String ENCODING_GZIP = "gzip";
+    public static final String ENCODING_IDENTITY = "identity";
+    /**
+     * The content codings supported for the resource responses in the order of the server preference.
+     */
+    public static final List<String> SUPPORTED_ENCODINGS = Collections.singletonList(ENCODING_GZIP);
+
+    private static final String ANY_ENCODING = "*";
+    private static final String QUALITY_PARAMETER = "q=";
+
+    private HttpEncodingUtils() {
+    }
+
+    /**
+     * Selects the supported content coding with the highest quality value in the Accept-Encoding header. The
+     * compressed coding is preferred over the identity when both have the same quality value.
+     *
+     * @param acceptEncoding the Accept-Encoding header value or null
+     * @return the selected content coding or null if the response must not be encoded
+     */
+    public static String negotiateEncoding(String acceptEncoding) {
+        if (StringUtils.isBlank(acceptEncoding)) {
+            return null;
+        }
+        String selected = null;
+        double selectedQuality = getQuality(acceptEncoding, ENCODING_IDENTITY, 1.0);
+        for (String encoding : SUPPORTED_ENCODINGS) {
+            double quality = getQuality(acceptEncoding, encoding, 0.0);
+            if (quality > 0 && (selected == null ? quality >= selectedQuality : quality > selectedQuality)) {
+                selected = encoding;
+                selectedQuality = quality;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Returns the quality value of the content coding. If the coding is not listed, the value of the "*" wildcard
+     * is returned, and if it is not listed either, the default value.
+     */
+    protected static double getQuality(String acceptEncoding, String encoding, double defaultQuality) {
+        Double anyQuality = null;
+        for (String item : StringUtils.split(acceptEncoding, ',')) {
+            String[] parts = StringUtils.split(item, ';');
+            if (parts.length == 0) {
+                continue;
+            }
+            String coding = StringUtils.trim(parts[0]);
+            double quality = parseQuality(parts);
+            if (StringUtils.equalsIgnoreCase(coding, encoding)) {
+                return quality;
+            }
+            if (ANY_ENCODING.equals(coding)) {
+                anyQuality = quality;
+            }
+        }
+        return anyQuality == null ? defaultQuality : anyQuality;
+    }
+
+    private static double parseQuality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = StringUtils.trim(parts[i]);
+            if (StringUtils.startsWithIgnoreCase(parameter, QUALITY_PARAMETER)) {
+                try {
+                    return Double.parseDouble(parameter.substring(QUALITY_PARAMETER.length()).trim());
+                } catch (NumberFormatException e) {
+                    return 0.0;
+                }
+            }
+        }
+        return 1.0;
+    }
+
+    /**
+     * Encodes the content with the content coding.
+     *
+     * @param encoding the supported content coding
+     * @param content  the content to encode
+     * @return the encoded content
+     */
+    public static byte[] encode(String encoding, byte[] content) {
+        if (!ENCODING_GZIP.equals(encoding)) {
+            throw new SMPRuntimeException(ErrorCode.INTERNAL_ERROR, "Unsupported content encoding", encoding);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, content.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content);
+        } catch (IOException e) {
+            throw new SMPRuntimeException(ErrorCode.INTERNAL_ERROR, e, "Can not encode the response", e.getMessage());
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,92 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.utils;
+
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread factory for the SMP internal worker pools. The factory creates the named daemon threads, or the named
+ * virtual threads when the system property {@value #PROPERTY_VIRTUAL_THREADS_ENABLED} is set to true and the JVM
+ * supports the virtual threads (Java 21+). The property is set by the SMP spring-boot launcher when the virtual
+ * thread execution mode is enabled.
+ * <p>
+ * The virtual threads are created with reflection so that the code is still compatible with Java 8.
+ *
+ * @since 5.2
+ */
+public class SMPThreadFactory implements ThreadFactory {
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(SMPThreadFactory.class);
+
+    public static final String PROPERTY_VIRTUAL_THREADS_ENABLED = "smp.threads.virtual.enabled";
+
+    private final String namePrefix;
+    private final AtomicInteger threadNumber = new AtomicInteger(1);
+    private final ThreadFactory virtualThreadFactory;
+
+    public SMPThreadFactory(String namePrefix) {
+        this.namePrefix = namePrefix;
+        this.virtualThreadFactory = isVirtualThreadsEnabled() ? createVirtualThreadFactory(namePrefix) : null;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        if (virtualThreadFactory != null) {
+            return virtualThreadFactory.newThread(runnable);
+        }
+        Thread thread = new Thread(runnable, namePrefix + threadNumber.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * @return true if the factory creates the virtual threads.
+     */
+    public boolean isVirtual() {
+        return virtualThreadFactory != null;
+    }
+
+    public static boolean isVirtualThreadsEnabled() {
+        return Boolean.parseBoolean(System.getProperty(PROPERTY_VIRTUAL_THREADS_ENABLED));
+    }
+
+    /**
+     * Method creates the virtual thread factory: Thread.ofVirtual().name(namePrefix, 1).factory()
+     *
+     * @param namePrefix the thread name prefix
+     * @return the virtual thread factory or null if the JVM does not support the virtual threads
+     */
+    protected static ThreadFactory createVirtualThreadFactory(String namePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Method nameMethod = builderClass.getMethod("name", String.class, long.class);
+            builder = nameMethod.invoke(builder, namePrefix, 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.warn("Virtual threads are not supported by the JVM [{}]. Use the platform threads for [{}]!",
+                    System.getProperty("java.version"), namePrefix);
+            return null;
+        }
+    }
+}
@@ -18,12 +18,13 @@
  */
 package eu.europa.ec.edelivery.smp.utils;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 
 import java.io.*;
 import java.nio.charset.Charset;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 import static org.apache.commons.lang3.StringUtils.lowerCase;
 import static org.apache.commons.lang3.StringUtils.trim;
@@ -121,33 +122,68 @@ public class StringNamedSubstitutor {
      */
     public static void resolve(InputStream templateIS, Map<String, String> config,
                                OutputStream outputStream, String charset) throws IOException {
-        Map<String, String> lowerCaseMap = normalizeData(config);
-        try (BufferedReader template = new BufferedReader(new InputStreamReader(templateIS, charset));
-             Writer writer = new OutputStreamWriter(outputStream, charset)) {
-            int read;
-            while ((read = template.read()) != -1) {
-                if (read != START_NAME.charAt(0) || !isStartSequence(template)) {
-                    writer.write((char) read);
-                    continue;
-                }
-
-                template.skip(1L);
-                String name = readName(template, END_NAME);
-                if (name == null) {
-                    writer.write(START_NAME);
-                } else {
-                    String key = lowerCase(name);
-                    String objValue = lowerCaseMap.get(key);
-                    if (objValue != null) {
-                        writer.write(objValue);
-                    } else {
-                        writer.write(START_NAME);
-                        writer.write(name);
-                        writer.write(END_NAME);
-                    }
-                }
+        compile(IOUtils.toByteArray(templateIS), charset).render(config, outputStream);
+    }
+
+    /**
+     * Compile the template to the list of literal byte segments and named variable placeholders. The compiled template
+     * is immutable and can be rendered many times with different property values.
+     *
+     * @param template the template bytes
+     * @param charset  the charset of the template
+     * @return the compiled template
+     */
+    public static Template compile(byte[] template, String charset) {
+        Charset templateCharset = Charset.forName(charset);
+        return compile(template, new String(template, templateCharset), templateCharset);
+    }
+
+    private static Template compile(byte[] template, String templateString, Charset charset) {
+        List<byte[]> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int literalStart = 0;
+        int index = templateString.indexOf(START_NAME);
+        while (index >= 0) {
+            int nameEnd = findNameEnd(templateString, index + START_NAME.length());
+            if (nameEnd < 0) {
+                // not a placeholder: continue searching after the start sequence
+                index = templateString.indexOf(START_NAME, index + START_NAME.length());
+                continue;
+            }
+            literals.add(templateString.substring(literalStart, index).getBytes(charset));
+            names.add(templateString.substring(index + START_NAME.length(), nameEnd));
+            literalStart = nameEnd + 1;
+            index = templateString.indexOf(START_NAME, literalStart);
+        }
+        if (names.isEmpty()) {
+            LOG.debug("Template has no placeholders");
+            return new Template(template, charset);
+        }
+        literals.add(templateString.substring(literalStart).getBytes(charset));
+        return new Template(literals, names, charset);
+    }
+
+    /**
+     * Method returns the index of the end name char if all characters from the start index are
+     * letters, digits, '_' or '.'.
+     *
+     * @param template   the template string
+     * @param startIndex the index of the first character of the name
+     * @return the index of end name char or -1 if the characters are not the valid placeholder name
+     */
+    private static int findNameEnd(String template, int startIndex) {
+        for (int i = startIndex; i < template.length(); i++) {
+            char currChar = template.charAt(i);
+            if (currChar == END_NAME) {
+                return i;
+            }
+            if (!Character.isLetterOrDigit(currChar)
+                    && currChar != '_'
+                    && currChar != '.') {
+                return -1;
             }
         }
+        return -1;
     }
 
     /**
@@ -164,49 +200,92 @@ public class StringNamedSubstitutor {
         return lowerCaseMap;
     }
 
-    private static boolean isStartSequence(BufferedReader reader) throws IOException {
-        reader.mark(START_NAME.length());
-        int read = reader.read();
-        if (read == -1) {
-            return false;
+    /**
+     * The compiled template: the literal byte segments of the template encoded with the template charset and the named
+     * variables between them. The template without the variables keeps the original bytes and renders them without
+     * copying.
+     */
+    public static final class Template {
+        private final byte[] content;
+        private final byte[][] literals;
+        private final String[] names;
+        private final String[] keys;
+        private final Charset charset;
+        private final int size;
+
+        private Template(byte[] content, Charset charset) {
+            this.content = content;
+            this.literals = null;
+            this.names = null;
+            this.keys = null;
+            this.charset = charset;
+            this.size = content.length;
+        }
+
+        private Template(List<byte[]> literals, List<String> names, Charset charset) {
+            this.content = null;
+            this.literals = literals.toArray(new byte[0][]);
+            this.names = names.toArray(new String[0]);
+            this.keys = names.stream().map(StringUtils::lowerCase).toArray(String[]::new);
+            this.charset = charset;
+            this.size = literals.stream().mapToInt(literal -> literal.length).sum();
+        }
+
+        public boolean hasPlaceholders() {
+            return content == null;
+        }
+
+        /**
+         * Returns the approximate size of the template data in bytes.
+         *
+         * @return template size
+         */
+        public int getSize() {
+            return size;
         }
-        for (int i = 1; i < START_NAME.length(); i++) {
-            if (read != START_NAME.charAt(i)) {
-                reader.reset();
-                return false;
+
+        /**
+         * Render the template with the property values to the output stream. The output stream is not closed.
+         *
+         * @param config       the map of property names and its values
+         * @param outputStream the output stream to write the resolved template
+         * @throws IOException if an I/O error occurs
+         */
+        public void render(Map<String, String> config, OutputStream outputStream) throws IOException {
+            if (!hasPlaceholders()) {
+                outputStream.write(content);
+                return;
             }
-            read = reader.read();
-            if (read == -1) {
-                return false;
+            Map<String, String> lowerCaseMap = normalizeData(config);
+            for (int i = 0; i < names.length; i++) {
+                outputStream.write(literals[i]);
+                String value = lowerCaseMap.get(keys[i]);
+                outputStream.write((value != null ? value : START_NAME + names[i] + END_NAME).getBytes(charset));
             }
+            outputStream.write(literals[names.length]);
+            outputStream.flush();
         }
-        reader.reset();
-        return true;
-    }
 
-    /**
-     * Method reads name until it finds end name char or until the first not letter/digit or
-     * _ or . character is found.
-     *
-     * @param inputStream the string to search index of the character
-     * @param searchChar  the character
-     * @return the index of the character or -1 if not found
-     */
-    private static String readName(BufferedReader inputStream, char searchChar) throws IOException {
-        StringBuilder builder = new StringBuilder();
-        int read;
-        while ((read = inputStream.read()) != -1) {
-            char currChar = (char) read;
-            if (currChar == searchChar) {
-                return builder.toString();
-            } else if (!Character.isLetterOrDigit(currChar)
-                    && currChar != '_'
-                    && currChar != '.') {
-                builder.append(currChar);
-                return builder.toString();
+        /**
+         * Returns the input stream of the template rendered with the property values. If template has no
+         * placeholders, the stream of the template bytes is returned without copying the data.
+         *
+         * @param config the map of property names and its values
+         * @return the input stream of the resolved template
+         */
+        public InputStream render(Map<String, String> config) {
+            if (!hasPlaceholders()) {
+                return new ByteArrayInputStream(content);
+            }
+            Map<String, String> lowerCaseMap = normalizeData(config);
+            List<InputStream> segments = new ArrayList<>(2 * names.length + 1);
+            for (int i = 0; i < names.length; i++) {
+                segments.add(new ByteArrayInputStream(literals[i]));
+                String value = lowerCaseMap.get(keys[i]);
+                segments.add(new ByteArrayInputStream((value != null ? value : START_NAME + names[i] + END_NAME).getBytes(charset)));
             }
-            builder.append(currChar);
+            segments.add(new ByteArrayInputStream(literals[names.length]));
+            return new SequenceInputStream(Collections.enumeration(segments));
         }
-        return null;
     }
 }
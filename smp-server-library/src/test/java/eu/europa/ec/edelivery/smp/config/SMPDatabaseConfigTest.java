@@ -18,10 +18,13 @@
  */
 package eu.europa.ec.edelivery.smp.config;
 
+import com.zaxxer.hikari.HikariDataSource;
 import eu.europa.ec.edelivery.smp.config.init.DatabaseConnectionBeanCreator;
 import eu.europa.ec.edelivery.smp.config.init.DatabaseConnectionProperties;
+import eu.europa.ec.edelivery.smp.config.init.ReadReplicaRoutingDataSource;
 import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import org.hamcrest.CoreMatchers;
+import org.hibernate.cfg.AvailableSettings;
 import org.hamcrest.MatcherAssert;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -42,6 +45,7 @@ public class SMPDatabaseConfigTest {
     public static final String DATABASE_DRIVER = "org.h2.Driver";
     public static final String DATABASE_DIALECT = "org.hibernate.dialect.H2Dialect";
     public static final String DATABASE_URL = "jdbc:h2:file:./target/myDb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=TRUE;AUTO_SERVER=TRUE";
+    public static final String DATABASE_REPLICA_URL = "jdbc:h2:mem:smp-replica;DB_CLOSE_DELAY=-1";
     public static final String DATABASE_USERNAME = "smp-dev";
     public static final String DATABASE_PASS = "smp-dev";
 
@@ -79,6 +83,67 @@ public class SMPDatabaseConfigTest {
         assertEquals(DriverManagerDataSource.class, result.getClass());
     }
 
+    @Test
+    void getPooledDataSource() {
+        setJdbcProperties();
+        Mockito.doReturn(true).when(environmentProperties).isDatabasePoolEnabled();
+        Mockito.doReturn(1).when(environmentProperties).getDatabasePoolMinIdle();
+        Mockito.doReturn(5).when(environmentProperties).getDatabasePoolMaxSize();
+        Mockito.doReturn(10000L).when(environmentProperties).getDatabasePoolConnectionTimeout();
+        Mockito.doReturn(60000L).when(environmentProperties).getDatabasePoolLeakDetectionThreshold();
+
+        DataSource result = testInstance.getDataSource();
+
+        assertNotNull(result);
+        assertEquals(HikariDataSource.class, result.getClass());
+        HikariDataSource hikariDataSource = (HikariDataSource) result;
+        assertEquals(DATABASE_URL, hikariDataSource.getJdbcUrl());
+        assertEquals(1, hikariDataSource.getMinimumIdle());
+        assertEquals(5, hikariDataSource.getMaximumPoolSize());
+        assertEquals(10000L, hikariDataSource.getConnectionTimeout());
+        assertEquals(60000L, hikariDataSource.getLeakDetectionThreshold());
+        assertNotNull(testInstance.getDataSourcePoolMetrics());
+        hikariDataSource.close();
+    }
+
+    @Test
+    void getDataSourceWithReadReplica() throws Exception {
+        setJdbcProperties();
+        Mockito.doReturn(true).when(environmentProperties).isDatabasePoolEnabled();
+        Mockito.doReturn(DATABASE_REPLICA_URL).when(environmentProperties).getReplicaJdbcUrl();
+        Mockito.doReturn(5000L).when(environmentProperties).getReplicaReadAfterWriteInterval();
+
+        DataSource result = testInstance.getDataSource();
+
+        assertEquals(ReadReplicaRoutingDataSource.class, result.getClass());
+        ReadReplicaRoutingDataSource routingDataSource = (ReadReplicaRoutingDataSource) result;
+        HikariDataSource primaryDataSource = (HikariDataSource) routingDataSource.getPrimaryDataSource();
+        HikariDataSource replicaDataSource = (HikariDataSource) routingDataSource.getReplicaDataSource();
+        assertEquals(DATABASE_URL, primaryDataSource.getJdbcUrl());
+        assertEquals(DatabaseConnectionBeanCreator.POOL_NAME, primaryDataSource.getPoolName());
+        assertEquals(DATABASE_REPLICA_URL, replicaDataSource.getJdbcUrl());
+        assertEquals(DatabaseConnectionBeanCreator.REPLICA_POOL_NAME, replicaDataSource.getPoolName());
+        // the replica uses the primary credentials if not configured
+        assertEquals(DATABASE_USERNAME, replicaDataSource.getUsername());
+        assertNotNull(testInstance.getReplicaDataSourcePoolMetrics());
+        routingDataSource.close();
+        assertTrue(primaryDataSource.isClosed());
+        assertTrue(replicaDataSource.isClosed());
+    }
+
+    @Test
+    void getPooledDataSourceMySqlStatementCache() {
+        Mockito.doReturn("jdbc:mysql://localhost:3306/smp").when(environmentProperties).getJdbcUrl();
+        Mockito.doReturn(true).when(environmentProperties).isDatabasePoolEnabled();
+        Mockito.doReturn(100).when(environmentProperties).getDatabasePoolStatementCacheSize();
+
+        HikariDataSource result = (HikariDataSource) testInstance.getDataSource();
+
+        assertEquals("true", result.getDataSourceProperties().getProperty("cachePrepStmts"));
+        assertEquals("100", result.getDataSourceProperties().getProperty("prepStmtCacheSize"));
+        result.close();
+    }
+
     @Test
     void jpaVendorAdapter() {
         setHibernateDatabaseDialect();
@@ -96,6 +161,29 @@ public class SMPDatabaseConfigTest {
         assertNotNull(result);
     }
 
+    @Test
+    void smpEntityManagerFactorySecondLevelCacheDisabled() {
+        setJdbcProperties();
+        Mockito.doReturn(false).when(environmentProperties).isSecondLevelCacheEnabled();
+
+        LocalContainerEntityManagerFactoryBean result = testInstance.smpEntityManagerFactory(testInstance.getDataSource(), testInstance.jpaVendorAdapter());
+
+        assertEquals("false", result.getJpaPropertyMap().get(AvailableSettings.USE_SECOND_LEVEL_CACHE));
+        assertEquals("false", result.getJpaPropertyMap().get(AvailableSettings.USE_QUERY_CACHE));
+    }
+
+    @Test
+    void smpEntityManagerFactorySecondLevelCacheNotAvailable() {
+        // the library does not contain the cache provider and the cache configuration
+        setJdbcProperties();
+        Mockito.doReturn(true).when(environmentProperties).isSecondLevelCacheEnabled();
+
+        LocalContainerEntityManagerFactoryBean result = testInstance.smpEntityManagerFactory(testInstance.getDataSource(), testInstance.jpaVendorAdapter());
+
+        assertEquals("false", result.getJpaPropertyMap().get(AvailableSettings.USE_SECOND_LEVEL_CACHE));
+        assertNull(result.getJpaPropertyMap().get(AvailableSettings.CACHE_REGION_FACTORY));
+    }
+
     @Test
     void smpTransactionManager() {
         setJdbcProperties();
@@ -0,0 +1,149 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * 
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.config.init;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.H2Dialect;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReadReplicaRoutingDataSourceTest {
+
+    private static final String QUERY_DATABASE_NAME = "SELECT NAME FROM DATABASE_NAME";
+
+    DataSource primaryDataSource = createDatabase("primary");
+    DataSource replicaDataSource = createDatabase("replica");
+
+    ReadReplicaRoutingDataSource testInstance;
+
+    @BeforeEach
+    public void setup() {
+        testInstance = new ReadReplicaRoutingDataSource(primaryDataSource, replicaDataSource, 0);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        new JdbcTemplate(primaryDataSource).execute("DROP TABLE DATABASE_NAME");
+        new JdbcTemplate(replicaDataSource).execute("DROP TABLE DATABASE_NAME");
+    }
+
+    @Test
+    void readOnlyTransactionUsesReplica() {
+        assertEquals("replica", queryDatabaseName(true));
+    }
+
+    @Test
+    void readWriteTransactionUsesPrimary() {
+        assertEquals("primary", queryDatabaseName(false));
+    }
+
+    @Test
+    void connectionWithoutTransactionUsesPrimary() {
+        String result = new JdbcTemplate(testInstance).queryForObject(QUERY_DATABASE_NAME, String.class);
+
+        assertEquals("primary", result);
+    }
+
+    @Test
+    void readOnlyTransactionUsesPrimaryAfterWrite() {
+        testInstance = new ReadReplicaRoutingDataSource(primaryDataSource, replicaDataSource, 60000);
+        assertEquals("replica", queryDatabaseName(true));
+
+        assertEquals("primary", queryDatabaseName(false));
+
+        assertEquals("primary", queryDatabaseName(true));
+    }
+
+    @Test
+    void jpaReadOnlyTransactionUsesReplica() {
+        assertEquals("replica", queryDatabaseNameWithJpa(true));
+    }
+
+    @Test
+    void jpaReadWriteTransactionUsesPrimary() {
+        assertEquals("primary", queryDatabaseNameWithJpa(false));
+    }
+
+    @Test
+    void jpaReadOnlyTransactionUsesPrimaryAfterWrite() {
+        testInstance = new ReadReplicaRoutingDataSource(primaryDataSource, replicaDataSource, 60000);
+        assertEquals("replica", queryDatabaseNameWithJpa(true));
+
+        assertEquals("primary", queryDatabaseNameWithJpa(false));
+
+        assertEquals("primary", queryDatabaseNameWithJpa(true));
+    }
+
+    private String queryDatabaseName(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(testInstance));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(testInstance).queryForObject(QUERY_DATABASE_NAME, String.class));
+    }
+
+    /**
+     * Query the database name in the transaction of the JPA transaction manager as used by the DomiSMP: the hibernate
+     * dialect obtains the connection and sets the read-only flag when the transaction begins.
+     */
+    private String queryDatabaseNameWithJpa(boolean readOnly) {
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(testInstance);
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaDialect(new HibernateJpaDialect());
+        // the package has no entities
+        factoryBean.setPackagesToScan(ReadReplicaRoutingDataSource.class.getPackage().getName());
+        factoryBean.setJpaPropertyMap(Collections.singletonMap(AvailableSettings.DIALECT, H2Dialect.class.getName()));
+        factoryBean.afterPropertiesSet();
+        try {
+            EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+            EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+            TransactionTemplate transactionTemplate = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+            transactionTemplate.setReadOnly(readOnly);
+            return transactionTemplate.execute(status ->
+                    (String) entityManager.createNativeQuery(QUERY_DATABASE_NAME).getSingleResult());
+        } finally {
+            factoryBean.destroy();
+        }
+    }
+
+    private static DataSource createDatabase(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:smp-" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS DATABASE_NAME (NAME VARCHAR(64))");
+        jdbcTemplate.update("INSERT INTO DATABASE_NAME (NAME) VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -21,7 +21,9 @@ package eu.europa.ec.edelivery.smp.data.dao;
 import eu.europa.ec.edelivery.smp.config.SMPDatabaseConfig;
 import eu.europa.ec.edelivery.smp.config.enums.SMPPropertyEnum;
 import eu.europa.ec.edelivery.smp.services.AbstractServiceTest;
+import eu.europa.ec.edelivery.smp.data.model.MetadataChangeListener;
 import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.annotation.DirtiesContext;
@@ -79,6 +81,12 @@ public abstract class AbstractJunit5BaseDao {
 
     protected Path resourceDirectory = Paths.get("src", "test", "resources", "keystores");
 
+    @BeforeEach
+    public void invalidateMetadataSnapshot() {
+        // the test data scripts are not executed by JPA and do not trigger the metadata change listener
+        MetadataChangeListener.markChanged();
+    }
+
     protected void resetKeystore() throws IOException {
         FileUtils.deleteDirectory(SECURITY_PATH.toFile());
         FileUtils.copyDirectory(resourceDirectory.toFile(), SECURITY_PATH.toFile());
@@ -0,0 +1,76 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * 
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.data.dao;
+
+import eu.europa.ec.edelivery.smp.data.enums.CacheEventType;
+import eu.europa.ec.edelivery.smp.data.model.DBCacheEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheEventDaoTest extends AbstractBaseDao {
+
+    @Autowired
+    CacheEventDao testInstance;
+
+    @Test
+    void getLastEventIdWithoutEvents() {
+        assertEquals(0L, testInstance.getLastEventId());
+    }
+
+    @Test
+    void getEventsAfter() {
+        DBCacheEvent event1 = testInstance.addEvent(CacheEventType.DOMAIN, "domain1", "node-1");
+        DBCacheEvent event2 = testInstance.addEvent(CacheEventType.PROPERTY, null, "node-2");
+        DBCacheEvent event3 = testInstance.addEvent(CacheEventType.TRUSTSTORE, "alias", "node-1");
+
+        List<DBCacheEvent> result = testInstance.getEventsAfter(event1.getId(), 10);
+
+        assertEquals(2, result.size());
+        assertEquals(event2.getId(), result.get(0).getId());
+        assertEquals(event3.getId(), result.get(1).getId());
+        assertEquals(CacheEventType.PROPERTY, result.get(0).getEventType());
+        assertEquals("node-2", result.get(0).getNodeId());
+        assertEquals(event3.getId().longValue(), testInstance.getLastEventId());
+    }
+
+    @Test
+    void getEventsAfterLimitsResult() {
+        DBCacheEvent event1 = testInstance.addEvent(CacheEventType.DOMAIN, "domain1", "node-1");
+        testInstance.addEvent(CacheEventType.DOMAIN, "domain2", "node-1");
+
+        List<DBCacheEvent> result = testInstance.getEventsAfter(0, 1);
+
+        assertEquals(1, result.size());
+        assertEquals(event1.getId(), result.get(0).getId());
+    }
+
+    @Test
+    void deleteEventsBefore() {
+        testInstance.addEvent(CacheEventType.KEYSTORE, null, "node-1");
+
+        assertEquals(0, testInstance.deleteEventsBefore(OffsetDateTime.now().minusMinutes(10)));
+        assertEquals(1, testInstance.deleteEventsBefore(OffsetDateTime.now().plusMinutes(1)));
+        assertEquals(0L, testInstance.getLastEventId());
+    }
+}
@@ -0,0 +1,111 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * 
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.data.dao;
+
+import eu.europa.ec.edelivery.smp.data.model.DBDomainSmlProgress;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainSmlProgressDaoTest extends AbstractBaseDao {
+
+    private static final Long DOMAIN_ID = 1000L;
+
+    @Autowired
+    DomainSmlProgressDao testInstance;
+
+    @Test
+    void tryStartCreatesProgress() {
+        OffsetDateTime now = OffsetDateTime.now();
+
+        boolean result = testInstance.tryStart(DOMAIN_ID, "REGISTER", "run-1", "node-1", now, now.plusMinutes(10));
+
+        assertTrue(result);
+        DBDomainSmlProgress progress = testInstance.find(DOMAIN_ID);
+        assertNotNull(progress);
+        assertEquals("REGISTER", progress.getOperation());
+        assertEquals("run-1", progress.getRunId());
+        assertEquals("node-1", progress.getStartedBy());
+    }
+
+    @Test
+    void tryStartFailsWhileRunning() {
+        OffsetDateTime now = OffsetDateTime.now();
+        assertTrue(testInstance.tryStart(DOMAIN_ID, "REGISTER", "run-1", "node-1", now, now.plusMinutes(10)));
+
+        boolean result = testInstance.tryStart(DOMAIN_ID, "UNREGISTER", "run-2", "node-2", now.plusMinutes(1), now.plusMinutes(11));
+
+        assertFalse(result);
+    }
+
+    @Test
+    void tryStartSucceedsWhenFinishedOrExpired() {
+        OffsetDateTime now = OffsetDateTime.now();
+        assertTrue(testInstance.tryStart(DOMAIN_ID, "REGISTER", "run-1", "node-1", now, now.plusMinutes(10)));
+        assertTrue(testInstance.finish(DOMAIN_ID, "run-1", 10, 8, 2, "error", now.plusMinutes(1)));
+
+        assertTrue(testInstance.tryStart(DOMAIN_ID, "UNREGISTER", "run-2", "node-2", now.plusMinutes(2), now.plusMinutes(12)));
+        // the progress of the stopped node expires
+        assertTrue(testInstance.tryStart(DOMAIN_ID, "REGISTER", "run-3", "node-1", now.plusMinutes(13), now.plusMinutes(23)));
+
+        testInstance.clearPersistenceContext();
+        DBDomainSmlProgress progress = testInstance.find(DOMAIN_ID);
+        assertEquals("run-3", progress.getRunId());
+        assertEquals(0, progress.getTotalCount());
+        assertNull(progress.getErrorMessage());
+        assertNull(progress.getFinishedOn());
+    }
+
+    @Test
+    void updateProgressUpdatesOnlyOwnRun() {
+        OffsetDateTime now = OffsetDateTime.now();
+        assertTrue(testInstance.tryStart(DOMAIN_ID, "REGISTER", "run-1", "node-1", now, now.plusMinutes(10)));
+
+        assertFalse(testInstance.updateProgress(DOMAIN_ID, "run-2", 10, 5, 0, now, now.plusMinutes(20)));
+        assertTrue(testInstance.updateProgress(DOMAIN_ID, "run-1", 10, 5, 1, now.plusMinutes(1), now.plusMinutes(20)));
+
+        testInstance.clearPersistenceContext();
+        DBDomainSmlProgress progress = testInstance.find(DOMAIN_ID);
+        assertEquals(10, progress.getTotalCount());
+        assertEquals(5, progress.getProcessedCount());
+        assertEquals(1, progress.getFailedCount());
+        // the running time was extended
+        assertFalse(testInstance.tryStart(DOMAIN_ID, "REGISTER", "run-2", "node-2", now.plusMinutes(15), now.plusMinutes(25)));
+    }
+
+    @Test
+    void finishSetsResult() {
+        OffsetDateTime now = OffsetDateTime.now();
+        assertTrue(testInstance.tryStart(DOMAIN_ID, "REGISTER", "run-1", "node-1", now, now.plusMinutes(10)));
+        OffsetDateTime finishedOn = now.plusMinutes(1);
+
+        assertTrue(testInstance.finish(DOMAIN_ID, "run-1", 10, 8, 2, "SML is not available", finishedOn));
+
+        testInstance.clearPersistenceContext();
+        DBDomainSmlProgress progress = testInstance.find(DOMAIN_ID);
+        assertEquals(8, progress.getProcessedCount());
+        assertEquals(2, progress.getFailedCount());
+        assertEquals("SML is not available", progress.getErrorMessage());
+        assertNotNull(progress.getFinishedOn());
+        assertFalse(progress.getRunningUntil().isAfter(finishedOn));
+    }
+}
@@ -0,0 +1,94 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * 
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.data.dao;
+
+import eu.europa.ec.edelivery.smp.data.model.DBJobLock;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobLockDaoTest extends AbstractBaseDao {
+
+    private static final String JOB_NAME = "TEST_JOB";
+
+    @Autowired
+    JobLockDao testInstance;
+
+    @Test
+    void tryLockCreatesLock() {
+        OffsetDateTime now = OffsetDateTime.now();
+
+        boolean result = testInstance.tryLock(JOB_NAME, "node-1", now, now.plusMinutes(10));
+
+        assertTrue(result);
+        DBJobLock lock = testInstance.find(JOB_NAME);
+        assertNotNull(lock);
+        assertEquals("node-1", lock.getLockedBy());
+    }
+
+    @Test
+    void tryLockFailsWhileLockIsHeld() {
+        OffsetDateTime now = OffsetDateTime.now();
+        assertTrue(testInstance.tryLock(JOB_NAME, "node-1", now, now.plusMinutes(10)));
+
+        boolean result = testInstance.tryLock(JOB_NAME, "node-2", now.plusMinutes(1), now.plusMinutes(11));
+
+        assertFalse(result);
+    }
+
+    @Test
+    void tryLockSucceedsWhenLockExpired() {
+        OffsetDateTime now = OffsetDateTime.now();
+        assertTrue(testInstance.tryLock(JOB_NAME, "node-1", now, now.plusMinutes(10)));
+
+        boolean result = testInstance.tryLock(JOB_NAME, "node-2", now.plusMinutes(11), now.plusMinutes(21));
+
+        assertTrue(result);
+        testInstance.clearPersistenceContext();
+        assertEquals("node-2", testInstance.find(JOB_NAME).getLockedBy());
+    }
+
+    @Test
+    void renewExtendsOnlyOwnValidLock() {
+        OffsetDateTime now = OffsetDateTime.now();
+        assertTrue(testInstance.tryLock(JOB_NAME, "node-1", now, now.plusMinutes(10)));
+
+        assertFalse(testInstance.renew(JOB_NAME, "node-2", now.plusMinutes(5), now.plusMinutes(15)));
+        assertTrue(testInstance.renew(JOB_NAME, "node-1", now.plusMinutes(5), now.plusMinutes(15)));
+
+        // the renewed lock is still held after the initial timeout
+        assertFalse(testInstance.tryLock(JOB_NAME, "node-2", now.plusMinutes(11), now.plusMinutes(21)));
+        // the expired lock can not be renewed
+        assertFalse(testInstance.renew(JOB_NAME, "node-1", now.plusMinutes(16), now.plusMinutes(26)));
+    }
+
+    @Test
+    void unlockReleasesOnlyOwnLock() {
+        OffsetDateTime now = OffsetDateTime.now();
+        assertTrue(testInstance.tryLock(JOB_NAME, "node-1", now, now.plusMinutes(10)));
+
+        assertFalse(testInstance.unlock(JOB_NAME, "node-2", now.plusMinutes(1)));
+        assertTrue(testInstance.unlock(JOB_NAME, "node-1", now.plusMinutes(1)));
+
+        assertTrue(testInstance.tryLock(JOB_NAME, "node-2", now.plusMinutes(2), now.plusMinutes(12)));
+    }
+}
@@ -117,6 +117,23 @@ class ResourceDaoTest extends AbstractBaseDao {
         assertEquals(testUtilsDao.getResourceD1G1RD1().getId(), optResource.get().getId());
     }
 
+    @Test
+    void getResourceCaseInsensitive() {
+        Optional<DBResource> optResource = testInstance.getResource(TEST_SG_ID_1.toUpperCase(), TEST_SG_SCHEMA_1.toUpperCase(),
+                testUtilsDao.getResourceDefSmp(), testUtilsDao.getD1(), false);
+        assertTrue(optResource.isPresent());
+        assertEquals(testUtilsDao.getResourceD1G1RD1().getId(), optResource.get().getId());
+        assertEquals(TEST_SG_ID_1.toLowerCase(), optResource.get().getNormalizedIdentifierValue());
+        assertEquals(TEST_SG_SCHEMA_1.toLowerCase(), optResource.get().getNormalizedIdentifierScheme());
+    }
+
+    @Test
+    void getResourceCaseSensitiveNotExists() {
+        Optional<DBResource> optResource = testInstance.getResource(TEST_SG_ID_1.toUpperCase(), TEST_SG_SCHEMA_1.toUpperCase(),
+                testUtilsDao.getResourceDefSmp(), testUtilsDao.getD1(), true);
+        assertFalse(optResource.isPresent());
+    }
+
     @Test
     void getResourceOKNullSchema() {
         Optional<DBResource> optResource = testInstance.getResource(TEST_SG_ID_2, null, testUtilsDao.getResourceDefSmp(), testUtilsDao.getD2());
@@ -50,6 +50,25 @@ class SubresourceDaoTest extends AbstractBaseDao {
         assertTrue(subresource.isPresent());
     }
 
+    @Test
+    void getSubResourceCaseInsensitive() {
+        Identifier suberesId = new Identifier(TEST_DOC_ID_1.toUpperCase(), TEST_DOC_SCHEMA_1.toUpperCase());
+        Optional<DBSubresource> subresource = testInstance.getSubResource(suberesId,
+                testUtilsDao.getResourceD1G1RD1(), TEST_SUBRESOURCE_DEF_SMP10_URL, false);
+
+        assertTrue(subresource.isPresent());
+        assertEquals(TEST_DOC_ID_1.toLowerCase(), subresource.get().getNormalizedIdentifierValue());
+    }
+
+    @Test
+    void getSubResourceCaseSensitiveNotExists() {
+        Identifier suberesId = new Identifier(TEST_DOC_ID_1.toUpperCase(), TEST_DOC_SCHEMA_1.toUpperCase());
+        Optional<DBSubresource> subresource = testInstance.getSubResource(suberesId,
+                testUtilsDao.getResourceD1G1RD1(), TEST_SUBRESOURCE_DEF_SMP10_URL, true);
+
+        assertFalse(subresource.isPresent());
+    }
+
     @Test
     void getSubResourceWrongResource() {
         Identifier suberesId = new Identifier(TEST_DOC_ID_1,TEST_DOC_SCHEMA_1 );
@@ -0,0 +1,66 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.monitor;
+
+import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
+import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SMPMetricsTest {
+
+    @Test
+    void outcomeSuccess() {
+        assertEquals(SMPMetrics.OUTCOME_SUCCESS, SMPMetrics.outcome(null));
+    }
+
+    @Test
+    void outcomeForSMPRuntimeException() {
+        assertEquals("internal_error", SMPMetrics.outcome(new SMPRuntimeException(ErrorCode.INTERNAL_ERROR, "test")));
+    }
+
+    @Test
+    void outcomeForException() {
+        assertEquals("IllegalStateException", SMPMetrics.outcome(new IllegalStateException("test")));
+    }
+
+    @Test
+    void timedProxyDelegatesCall() throws Exception {
+        Callable<String> target = () -> "result";
+
+        Callable<String> result = SMPMetrics.timedProxy(Callable.class, target, "smp.test.call");
+
+        assertEquals("result", result.call());
+    }
+
+    @Test
+    void timedProxyRethrowsTargetException() {
+        Callable<String> target = () -> {
+            throw new IllegalArgumentException("test");
+        };
+
+        Callable<String> result = SMPMetrics.timedProxy(Callable.class, target, "smp.test.call");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, result::call);
+        assertEquals("test", exception.getMessage());
+    }
+}
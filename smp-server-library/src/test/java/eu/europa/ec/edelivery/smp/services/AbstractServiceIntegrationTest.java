@@ -67,8 +67,8 @@ import static eu.europa.ec.edelivery.smp.testutil.TestConstants.*;
         CRLVerifierService.class,
         ConfigurationService.class,
         ServicesBeansConfiguration.class,
-        CredentialsAlertService.class,
-        CronTriggerConfig.class})
+        CredentialsAlertService.class, AlertMailService.class,
+        CronTriggerConfig.class, CacheEventService.class, SMPJobService.class})
 @Sql(scripts = {"classpath:cleanup-database.sql",
         "classpath:basic_conf_data-h2.sql"
 }, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
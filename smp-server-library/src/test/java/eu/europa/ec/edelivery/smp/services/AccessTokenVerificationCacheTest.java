@@ -0,0 +1,109 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services;
+
+import eu.europa.ec.edelivery.smp.data.model.user.DBCredential;
+import eu.europa.ec.edelivery.smp.data.model.user.DBUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessTokenVerificationCacheTest {
+
+    ConfigurationService configurationService = Mockito.mock(ConfigurationService.class);
+    AccessTokenVerificationCache testInstance = new AccessTokenVerificationCache(configurationService);
+
+    @BeforeEach
+    public void setup() {
+        Mockito.doReturn(60).when(configurationService).getAccessTokenVerificationCacheTTLInSeconds();
+        Mockito.doReturn(2).when(configurationService).getAccessTokenVerificationCacheMaxEntries();
+    }
+
+    @Test
+    void testIsVerified() {
+        DBCredential credential = createCredential(1L, "token1", "hash1");
+        testInstance.put(credential, "value1");
+
+        assertTrue(testInstance.isVerified(credential, "value1"));
+        assertFalse(testInstance.isVerified(credential, "value2"));
+    }
+
+    @Test
+    void testIsVerifiedStoredHashChanged() {
+        DBCredential credential = createCredential(1L, "token1", "hash1");
+        testInstance.put(credential, "value1");
+        credential.setValue("hash2");
+
+        assertFalse(testInstance.isVerified(credential, "value1"));
+        assertEquals(0, testInstance.size());
+    }
+
+    @Test
+    void testCacheDisabled() {
+        Mockito.doReturn(0).when(configurationService).getAccessTokenVerificationCacheTTLInSeconds();
+        DBCredential credential = createCredential(1L, "token1", "hash1");
+        testInstance.put(credential, "value1");
+
+        assertEquals(0, testInstance.size());
+        assertFalse(testInstance.isVerified(credential, "value1"));
+    }
+
+    @Test
+    void testMaxEntries() {
+        testInstance.put(createCredential(1L, "token1", "hash1"), "value1");
+        testInstance.put(createCredential(2L, "token2", "hash2"), "value2");
+        testInstance.put(createCredential(3L, "token3", "hash3"), "value3");
+
+        assertEquals(2, testInstance.size());
+        assertFalse(testInstance.isVerified(createCredential(1L, "token1", "hash1"), "value1"));
+    }
+
+    @Test
+    void testEvict() {
+        DBCredential credential = createCredential(1L, "token1", "hash1");
+        testInstance.put(credential, "value1");
+
+        testInstance.evict("token1");
+
+        assertFalse(testInstance.isVerified(credential, "value1"));
+    }
+
+    @Test
+    void testEvictForUser() {
+        DBCredential credential = createCredential(1L, "token1", "hash1");
+        testInstance.put(credential, "value1");
+
+        testInstance.evictForUser(credential.getUser().getId());
+
+        assertEquals(0, testInstance.size());
+    }
+
+    private DBCredential createCredential(Long id, String name, String hash) {
+        DBUser user = new DBUser();
+        user.setId(id + 100);
+        DBCredential credential = new DBCredential();
+        credential.setId(id);
+        credential.setName(name);
+        credential.setValue(hash);
+        credential.setUser(user);
+        return credential;
+    }
+}
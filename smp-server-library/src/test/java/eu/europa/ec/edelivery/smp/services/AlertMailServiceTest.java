@@ -0,0 +1,183 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services;
+
+import eu.europa.ec.edelivery.smp.data.dao.AlertDao;
+import eu.europa.ec.edelivery.smp.data.dao.UserDao;
+import eu.europa.ec.edelivery.smp.data.model.DBAlert;
+import eu.europa.ec.edelivery.smp.data.ui.enums.AlertStatusEnum;
+import eu.europa.ec.edelivery.smp.data.ui.enums.AlertTypeEnum;
+import eu.europa.ec.edelivery.smp.services.mail.MailMessage;
+import eu.europa.ec.edelivery.smp.services.mail.MailService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.mail.MailSendException;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+
+class AlertMailServiceTest {
+
+    AlertDao alertDao = Mockito.mock(AlertDao.class);
+    UserDao userDao = Mockito.mock(UserDao.class);
+    MailService mailService = Mockito.mock(MailService.class);
+    ConfigurationService configurationService = Mockito.mock(ConfigurationService.class);
+
+    AlertMailService testInstance = new AlertMailService(alertDao, userDao, mailService, configurationService);
+
+    @BeforeEach
+    public void setup() {
+        Mockito.doReturn("alert@test-sender-mail.eu").when(configurationService).getAlertEmailFrom();
+        Mockito.doReturn(3).when(configurationService).getAlertMailMaxAttempts();
+        Mockito.doReturn(60).when(configurationService).getAlertMailRetryDelayInSeconds();
+        Mockito.doReturn(200).when(configurationService).getAlertMailRetryMaxDelayInSeconds();
+        Mockito.doReturn(300).when(configurationService).getAlertMailProcessingTimeoutInSeconds();
+        Mockito.doReturn(true).when(alertDao).claimMail(anyLong(), any(), any());
+        Mockito.doAnswer(invocation -> {
+            MailMessage mailMessage = new MailMessage("subject", "content");
+            mailMessage.addRecipients(((String) invocation.getArgument(1)).split(";"));
+            return mailMessage;
+        }).when(mailService).composeMail(any(), anyString());
+        Mockito.doReturn(Collections.emptyMap()).when(mailService).sendMails(anyList(), anyString());
+    }
+
+    @Test
+    void testSendAlertMailsMergesSameContent() {
+        DBAlert alert1 = createAlert(1L, "user1@test-receiver-mail.eu");
+        DBAlert alert2 = createAlert(2L, "user2@test-receiver-mail.eu");
+        Mockito.doReturn(Arrays.asList(alert1, alert2)).when(alertDao).getAlertsWithProperties(any());
+
+        testInstance.sendAlertMails(Arrays.asList(1L, 2L));
+
+        ArgumentCaptor<List<MailMessage>> captor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(mailService, Mockito.times(1)).sendMails(captor.capture(), Mockito.eq("alert@test-sender-mail.eu"));
+        assertEquals(1, captor.getValue().size());
+        assertEquals(Arrays.asList("user1@test-receiver-mail.eu", "user2@test-receiver-mail.eu"),
+                captor.getValue().get(0).getRecipients());
+        assertEquals(AlertStatusEnum.SUCCESS, alert1.getAlertStatus());
+        assertEquals(AlertStatusEnum.SUCCESS, alert2.getAlertStatus());
+        assertEquals("subject", alert1.getMailSubject());
+        assertNotNull(alert1.getProcessedTime());
+        assertNull(alert1.getNextAttemptOn());
+        Mockito.verify(alertDao).update(alert1);
+        Mockito.verify(alertDao).update(alert2);
+    }
+
+    @Test
+    void testSendAlertMailsNotClaimed() {
+        Mockito.doReturn(false).when(alertDao).claimMail(anyLong(), any(), any());
+
+        testInstance.sendAlertMails(Collections.singletonList(1L));
+
+        Mockito.verify(alertDao, Mockito.never()).getAlertsWithProperties(any());
+        Mockito.verify(mailService, Mockito.never()).sendMails(anyList(), anyString());
+    }
+
+    @Test
+    void testSendAlertMailsNoMail() {
+        DBAlert alert = createAlert(1L, null);
+        Mockito.doReturn(Collections.singletonList(alert)).when(alertDao).getAlertsWithProperties(any());
+
+        testInstance.sendAlertMails(Collections.singletonList(1L));
+
+        Mockito.verify(mailService, Mockito.never()).sendMails(anyList(), anyString());
+        assertEquals(AlertStatusEnum.SUCCESS, alert.getAlertStatus());
+        assertEquals("Alert created but mail not send (empty mail) for alert!", alert.getAlertStatusDesc());
+        Mockito.verify(alertDao).update(alert);
+    }
+
+    @Test
+    void testSendAlertMailsFailedAttempt() {
+        DBAlert alert = createAlert(1L, "user1@test-receiver-mail.eu");
+        Mockito.doReturn(Collections.singletonList(alert)).when(alertDao).getAlertsWithProperties(any());
+        Mockito.doAnswer(invocation -> {
+            List<MailMessage> mailMessages = invocation.getArgument(0);
+            return Collections.singletonMap(mailMessages.get(0), new MailSendException("Mail server not available"));
+        }).when(mailService).sendMails(anyList(), anyString());
+        OffsetDateTime start = OffsetDateTime.now();
+
+        testInstance.sendAlertMails(Collections.singletonList(1L));
+
+        assertEquals(AlertStatusEnum.PROCESS, alert.getAlertStatus());
+        assertEquals(1, alert.getAttemptCount());
+        assertFalse(alert.getNextAttemptOn().isBefore(start.plusSeconds(60)));
+        assertTrue(alert.getAlertStatusDesc().contains("Mail server not available"));
+        assertNull(alert.getProcessedTime());
+        Mockito.verify(alertDao).update(alert);
+    }
+
+    @Test
+    void testSendAlertMailsMaxAttemptsReached() {
+        DBAlert alert = createAlert(1L, "user1@test-receiver-mail.eu");
+        alert.setAttemptCount(2);
+        Mockito.doReturn(Collections.singletonList(alert)).when(alertDao).getAlertsWithProperties(any());
+        Mockito.doThrow(new IllegalArgumentException("The 'from' property cannot be null"))
+                .when(mailService).sendMails(anyList(), anyString());
+
+        testInstance.sendAlertMails(Collections.singletonList(1L));
+
+        assertEquals(AlertStatusEnum.FAILED, alert.getAlertStatus());
+        assertEquals(3, alert.getAttemptCount());
+        assertNotNull(alert.getProcessedTime());
+        assertNull(alert.getNextAttemptOn());
+    }
+
+    @Test
+    void testGetRetryDelayInSeconds() {
+        assertEquals(60, testInstance.getRetryDelayInSeconds(1));
+        assertEquals(120, testInstance.getRetryDelayInSeconds(2));
+        assertEquals(200, testInstance.getRetryDelayInSeconds(3));
+        assertEquals(200, testInstance.getRetryDelayInSeconds(40));
+    }
+
+    @Test
+    void testSubmitNotPersistedAlert() {
+        AlertMailService spyInstance = Mockito.spy(testInstance);
+
+        spyInstance.submit(new DBAlert());
+
+        Mockito.verify(spyInstance, Mockito.never()).enqueue(any());
+    }
+
+    @Test
+    void testSubmitWithoutTransaction() {
+        AlertMailService spyInstance = Mockito.spy(testInstance);
+        Mockito.doReturn(true).when(spyInstance).enqueue(any());
+
+        spyInstance.submit(createAlert(5L, "user1@test-receiver-mail.eu"));
+
+        Mockito.verify(spyInstance).enqueue(5L);
+    }
+
+    private DBAlert createAlert(Long id, String mailTo) {
+        DBAlert alert = new DBAlert();
+        alert.setId(id);
+        alert.setAlertType(AlertTypeEnum.CREDENTIAL_IMMINENT_EXPIRATION);
+        alert.setAlertStatus(AlertStatusEnum.PROCESS);
+        alert.setMailTo(mailTo);
+        alert.setReportingTime(OffsetDateTime.now());
+        alert.setNextAttemptOn(alert.getReportingTime());
+        return alert;
+    }
+}
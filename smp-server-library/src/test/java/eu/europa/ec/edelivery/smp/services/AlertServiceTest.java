@@ -51,6 +51,7 @@ class AlertServiceTest {
 
     AlertDao alertDao = Mockito.mock(AlertDao.class);
     MailService mailService = Mockito.mock(MailService.class);
+    AlertMailService alertMailService = Mockito.mock(AlertMailService.class);
     ConfigurationService configurationService = Mockito.mock(ConfigurationService.class);
     UserDao userDao = Mockito.mock(UserDao.class);
     CredentialDao credentialDao = Mockito.mock(CredentialDao.class);
@@ -59,7 +60,7 @@ class AlertServiceTest {
 
 
     CredentialsAlertService testInstance = new CredentialsAlertService(alertDao,
-            mailService,
+            alertMailService,
             configurationService,
             userDao,
             credentialDao,
@@ -85,18 +86,7 @@ class AlertServiceTest {
         assertEquals(level, alert.getAlertLevel());
         assertEquals(alertType, alert.getAlertType());
         assertNotNull(alert.getReportingTime());
-
-    }
-
-    @Test
-    void testSubmitAlertMailNoMail() {
-
-        DBAlert alert = new DBAlert();
-        DBUser user = Mockito.mock(DBUser.class);
-
-        testInstance.submitAlertMail(alert, user);
-
-        verify(mailService, Mockito.never()).sendMail(Mockito.any(), Mockito.anyString(), Mockito.anyString());
+        assertEquals(alert.getReportingTime(), alert.getNextAttemptOn());
     }
 
     @Test
@@ -121,7 +111,6 @@ class AlertServiceTest {
                 expectedTemplateProperties);
 
         verify(configurationService, times(1)).getAlertBeforeExpirePasswordLevel();
-        verify(configurationService, times(1)).getAlertEmailFrom();
     }
 
     @Test
@@ -145,7 +134,6 @@ class AlertServiceTest {
                 expectedTemplateProperties);
 
         verify(configurationService, times(1)).getAlertExpiredPasswordLevel();
-        verify(configurationService, times(1)).getAlertEmailFrom();
     }
 
     @Test
@@ -170,7 +158,6 @@ class AlertServiceTest {
                 expectedTemplateProperties);
 
         verify(configurationService, times(1)).getAlertBeforeExpireAccessTokenLevel();
-        verify(configurationService, times(1)).getAlertEmailFrom();
     }
 
 
@@ -194,7 +181,6 @@ class AlertServiceTest {
                 expectedTemplateProperties);
 
         verify(configurationService, times(1)).getAlertExpiredAccessTokenLevel();
-        verify(configurationService, times(1)).getAlertEmailFrom();
     }
 
     @Test
@@ -217,7 +203,6 @@ class AlertServiceTest {
                 expectedTemplateProperties);
 
         verify(configurationService, times(1)).getAlertBeforeExpireCertificateLevel();
-        verify(configurationService, times(1)).getAlertEmailFrom();
     }
 
     @Test
@@ -241,40 +226,20 @@ class AlertServiceTest {
                 expectedTemplateProperties);
 
         verify(configurationService, times(1)).getAlertExpiredCertificateLevel();
-        verify(configurationService, times(1)).getAlertEmailFrom();
     }
 
     @Test
     void submitAlertMail() {
-        String mailTo = "test.mail@domain.eu";
-        String mailFrom = "test.mail@domain.eu";
-        String mailSubject = "mailSubject";
-        String language = "en";
-        AlertTypeEnum template = AlertTypeEnum.CREDENTIAL_IMMINENT_EXPIRATION;
         DBUser user = Mockito.mock(DBUser.class);
-        doReturn(language).when(user).getSmpLocale();
         DBAlert alert = new DBAlert();
-        alert.setAlertType(template);
-        alert.setMailTo(mailTo);
-        alert.setMailSubject(mailSubject);
-        alert.addProperty("test", "testValue");
-        doReturn(mailFrom).when(configurationService).getAlertEmailFrom();
+        alert.setId(10L);
+        alert.setMailTo("test.mail@domain.eu");
 
         testInstance.submitAlertMail(alert, user);
 
-        ArgumentCaptor<MailDataModel> argModel = ArgumentCaptor.forClass(MailDataModel.class);
-        ArgumentCaptor<String> argMailTo = ArgumentCaptor.forClass(String.class);
-        ArgumentCaptor<String> argFrom = ArgumentCaptor.forClass(String.class);
-
-        verify(mailService, times(1))
-                .sendMail(argModel.capture(), argFrom.capture(), argMailTo.capture());
-        verify(alertDao, times(1)).update(alert);
-
-        assertEquals(mailTo, argMailTo.getValue());
-        assertEquals(mailFrom, argFrom.getValue());
-        assertEquals(AlertTypeEnum.CREDENTIAL_IMMINENT_EXPIRATION, argModel.getValue().getMailType());
-        assertEquals(language, argModel.getValue().getLanguage());
-        assertEquals(3, argModel.getValue().getModel().size());
+        // mail is not sent by the alert service, but it is submitted to the alert mail queue
+        verify(alertMailService, times(1)).submit(alert);
+        verify(mailService, Mockito.never()).sendMail(Mockito.any(), Mockito.anyString(), Mockito.anyString());
     }
 
     @Test
@@ -305,7 +270,6 @@ class AlertServiceTest {
 
         verify(configurationService, times(1)).getAlertUserLoginFailureEnabled();
         verify(configurationService, times(1)).getAlertUserLoginFailureLevel();
-        verify(configurationService, times(1)).getAlertEmailFrom();
     }
 
     @Test
@@ -335,7 +299,6 @@ class AlertServiceTest {
 
         verify(configurationService, times(1)).getAlertUserLoginFailureEnabled();
         verify(configurationService, times(1)).getAlertUserLoginFailureLevel();
-        verify(configurationService, times(1)).getAlertEmailFrom();
     }
 
     @Test
@@ -365,7 +328,6 @@ class AlertServiceTest {
 
         verify(configurationService, times(1)).getAlertUserSuspendedEnabled();
         verify(configurationService, times(1)).getAlertUserSuspendedLevel();
-        verify(configurationService, times(1)).getAlertEmailFrom();
     }
 
     @Test
@@ -396,30 +358,25 @@ class AlertServiceTest {
 
         verify(configurationService, times(1)).getAlertUserSuspendedEnabled();
         verify(configurationService, times(1)).getAlertUserSuspendedLevel();
-        verify(configurationService, times(1)).getAlertEmailFrom();
     }
 
     public void assertAlertSend(AlertTypeEnum alertType, String mailTo, String mailFrom, String mailSubject,
                                 List<String> templateProperties) {
 
-        ArgumentCaptor<MailDataModel> argModel = ArgumentCaptor.forClass(MailDataModel.class);
-        ArgumentCaptor<String> argMailFrom = ArgumentCaptor.forClass(String.class);
-        ArgumentCaptor<String> argMailTo = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<DBAlert> argAlert = ArgumentCaptor.forClass(DBAlert.class);
-        ArgumentCaptor<DBAlert> argAlertUpdate = ArgumentCaptor.forClass(DBAlert.class);
-
 
         verify(alertDao, times(1)).persistFlushDetach(argAlert.capture());
-        verify(mailService, times(1))
-                .sendMail(argModel.capture(), argMailFrom.capture(), argMailTo.capture());
-
-        verify(alertDao, times(1)).update(argAlertUpdate.capture());
-
-        assertEquals(mailTo, argMailTo.getValue());
-        assertEquals(mailFrom, argMailFrom.getValue());
+        verify(alertMailService, times(1)).submit(argAlert.getValue());
+        // the mail is sent asynchronously by the alert mail service
+        verify(mailService, Mockito.never()).sendMail(Mockito.any(), Mockito.anyString(), Mockito.anyString());
 
+        DBAlert alert = argAlert.getValue();
+        assertEquals(mailTo, alert.getMailTo());
+        assertEquals(AlertStatusEnum.PROCESS, alert.getAlertStatus());
+        assertNotNull(alert.getNextAttemptOn());
 
-        MailDataModel model = argModel.getValue();
+        MailDataModel model = new AlertMailService(alertDao, userDao, mailService, configurationService)
+                .createMailDataModel(alert);
         assertEquals(alertType, model.getMailType());
         assertEquals("en", model.getLanguage());
 
@@ -23,18 +23,23 @@ import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.Mockito;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.math.BigInteger;
 import java.security.cert.*;
+import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 
@@ -169,6 +174,82 @@ class CRLVerifierServiceTest {
         assertEquals(inputStream, result);
     }
 
+    @Test
+    void getCRLByURLDownloadedOnce() throws CertificateException, CRLException {
+        String crlURL = "https://localhost/crl";
+        X509CRL crl = loadCRL();
+        doReturn(crl).when(testInstance).downloadCRL(crlURL, true);
+
+        assertSame(crl, testInstance.getCRLByURL(crlURL));
+        assertSame(crl, testInstance.getCRLByURL(" " + crlURL + " "));
+
+        Mockito.verify(testInstance, Mockito.times(1)).downloadCRL(crlURL, true);
+    }
+
+    @Test
+    void getCRLByURLExpiredInGracePeriod() throws CertificateException, CRLException {
+        String crlURL = "https://localhost/crl";
+        X509CRL crl = loadCRL();
+        doReturn(60).when(mockConfigurationService).getCRLCacheGracePeriodInMinutes();
+        // cached CRL expired 10 minutes ago
+        testInstance.crlCache.put(crlURL, new CRLVerifierService.CachedCRL(crl,
+                System.currentTimeMillis() - CRLVerifierService.REFRESH_CRL_INTERVAL - 10 * 60 * 1000L));
+        doNothing().when(testInstance).refreshCRLInBackground(crlURL);
+
+        X509CRL result = testInstance.getCRLByURL(crlURL);
+
+        assertSame(crl, result);
+        Mockito.verify(testInstance).refreshCRLInBackground(crlURL);
+        Mockito.verify(testInstance, Mockito.never()).downloadCRL(any(), Mockito.anyBoolean());
+    }
+
+    @Test
+    void getCRLByURLExpiredAfterGracePeriod() throws CertificateException, CRLException {
+        String crlURL = "https://localhost/crl";
+        X509CRL crl = loadCRL();
+        X509CRL newCrl = loadCRL();
+        doReturn(0).when(mockConfigurationService).getCRLCacheGracePeriodInMinutes();
+        testInstance.crlCache.put(crlURL, new CRLVerifierService.CachedCRL(crl,
+                System.currentTimeMillis() - CRLVerifierService.REFRESH_CRL_INTERVAL - 1000L));
+        doReturn(newCrl).when(testInstance).downloadCRL(crlURL, true);
+
+        X509CRL result = testInstance.getCRLByURL(crlURL);
+
+        assertSame(newCrl, result);
+    }
+
+    @Test
+    void getCRLByURLStoredCRL(@TempDir File tempDir) throws CertificateException, CRLException {
+        String crlURL = "https://localhost/crl";
+        X509CRL crl = loadCRL();
+        doReturn(tempDir).when(mockConfigurationService).getCRLCacheFolder();
+        testInstance.storeCRL(crlURL, crl);
+        // simulate restart
+        CRLVerifierService newInstance = Mockito.spy(new CRLVerifierService(mockConfigurationService));
+
+        X509CRL result = newInstance.getCRLByURL(crlURL);
+
+        assertNotNull(result);
+        assertEquals(crl, result);
+        Mockito.verify(newInstance, Mockito.never()).downloadCRL(any(), Mockito.anyBoolean());
+    }
+
+    @Test
+    void indexRevokedCertificates() throws CertificateException, CRLException {
+        X509CRL crl = loadCRL();
+
+        Map<BigInteger, X509CRLEntry> result = CRLVerifierService.indexRevokedCertificates(crl);
+
+        assertEquals(crl.getRevokedCertificates().size(), result.size());
+        assertNotNull(result.get(new BigInteger("11", 16)));
+        assertTrue(CRLVerifierService.indexRevokedCertificates(null).isEmpty());
+    }
+
+    private X509CRL loadCRL() throws CertificateException, CRLException {
+        CertificateFactory cf = CertificateFactory.getInstance("X.509");
+        return (X509CRL) cf.generateCRL(getClass().getResourceAsStream("/certificates/smp-crl-test.crl"));
+    }
+
     private X509Certificate loadCertificate(String filename) throws CertificateException {
         CertificateFactory fact = CertificateFactory.getInstance("X.509");
         return (X509Certificate)
@@ -0,0 +1,243 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * 
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services;
+
+import eu.europa.ec.edelivery.smp.config.CacheEventListener;
+import eu.europa.ec.edelivery.smp.cron.SMPJobResult;
+import eu.europa.ec.edelivery.smp.data.dao.CacheEventDao;
+import eu.europa.ec.edelivery.smp.data.dao.ConfigurationDao;
+import eu.europa.ec.edelivery.smp.data.enums.CacheEventType;
+import eu.europa.ec.edelivery.smp.data.model.DBCacheEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationContext;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+
+class CacheEventServiceTest {
+
+    private static final String LOCAL_NODE = "local-node";
+    private static final String OTHER_NODE = "other-node";
+
+    CacheEventDao cacheEventDao = Mockito.mock(CacheEventDao.class);
+    ConfigurationDao configurationDao = Mockito.mock(ConfigurationDao.class);
+    ConfigurationService configurationService = Mockito.mock(ConfigurationService.class);
+    SMPJobService jobService = Mockito.mock(SMPJobService.class);
+    ApplicationContext applicationContext = Mockito.mock(ApplicationContext.class);
+    CacheEventListener domainListener = Mockito.mock(CacheEventListener.class);
+
+    CacheEventService testInstance = new CacheEventService(cacheEventDao, configurationDao, configurationService,
+            jobService, applicationContext);
+
+    @BeforeEach
+    public void setup() {
+        Mockito.doReturn(true).when(configurationService).isClusterEnabled();
+        Mockito.doReturn(60).when(configurationService).getCacheEventsRetentionInMinutes();
+        Mockito.doReturn(LOCAL_NODE).when(jobService).getNodeId();
+        Mockito.doReturn(Collections.singletonList(CacheEventType.DOMAIN)).when(domainListener).handledCacheEvents();
+        Mockito.doCallRealMethod().when(domainListener).handlesCacheEvent(any());
+        Mockito.doReturn(Collections.singletonMap("domainListener", domainListener))
+                .when(applicationContext).getBeansOfType(CacheEventListener.class);
+    }
+
+    @Test
+    void publishInClusterMode() {
+        testInstance.publish(CacheEventType.DOMAIN, "domain1");
+
+        Mockito.verify(cacheEventDao).addEvent(CacheEventType.DOMAIN, "domain1", LOCAL_NODE);
+        Mockito.verify(domainListener).onCacheEvent(CacheEventType.DOMAIN, "domain1");
+    }
+
+    @Test
+    void publishWithoutClusterMode() {
+        Mockito.doReturn(false).when(configurationService).isClusterEnabled();
+
+        testInstance.publish(CacheEventType.DOMAIN, "domain1");
+
+        Mockito.verifyNoInteractions(cacheEventDao);
+        Mockito.verify(domainListener).onCacheEvent(CacheEventType.DOMAIN, "domain1");
+    }
+
+    @Test
+    void publishNotifiesOnlyHandlingListeners() {
+        testInstance.publish(CacheEventType.TRUSTSTORE, null);
+
+        Mockito.verify(domainListener, Mockito.never()).onCacheEvent(any(), any());
+    }
+
+    @Test
+    void publishPropertyChangeRefreshesProperties() {
+        testInstance.publish(CacheEventType.PROPERTY, null);
+
+        Mockito.verify(configurationDao).refreshProperties();
+    }
+
+    @Test
+    void processEventsFirstRunStartsFromLastEvent() {
+        Mockito.doReturn(10L).when(cacheEventDao).getLastEventId();
+
+        SMPJobResult result = testInstance.processEvents();
+
+        assertEquals(SMPJobResult.EMPTY, result);
+        assertEquals(10L, testInstance.getLastEventId());
+        Mockito.verify(cacheEventDao, Mockito.never()).getEventsAfter(anyLong(), anyInt());
+        // the caches loaded before the first run are reloaded
+        Mockito.verify(domainListener).onCacheEvent(CacheEventType.DOMAIN, null);
+    }
+
+    @Test
+    void processEventsReloadsCachesWhenPendingEventsExpire() {
+        Mockito.doReturn(10L).when(cacheEventDao).getLastEventId();
+        testInstance.processEvents();
+        Mockito.clearInvocations(domainListener);
+        // the event 11 was detected as missing before the timeout
+        testInstance.addPendingEventIds(11L, 12L, 0L);
+        Mockito.doReturn(Collections.singletonList(createEvent(12L, CacheEventType.DOMAIN, "domain2", OTHER_NODE)))
+                .when(cacheEventDao).getEventsAfter(eq(10L), anyInt());
+
+        testInstance.processEvents();
+
+        assertTrue(testInstance.getPendingEventIds().isEmpty());
+        Mockito.verify(domainListener).onCacheEvent(CacheEventType.DOMAIN, null);
+        Mockito.verify(domainListener, Mockito.never()).onCacheEvent(CacheEventType.DOMAIN, "domain2");
+    }
+
+    @Test
+    void processEventsReloadsCachesWhenPendingEventsExceedLimit() {
+        Mockito.doReturn(10L).when(cacheEventDao).getLastEventId();
+        testInstance.processEvents();
+        Mockito.clearInvocations(domainListener);
+        long eventId = 12L + CacheEventService.MAX_PENDING_IDS;
+        Mockito.doReturn(Collections.singletonList(createEvent(eventId, CacheEventType.DOMAIN, "domain2", OTHER_NODE)))
+                .when(cacheEventDao).getEventsAfter(eq(10L), anyInt());
+
+        testInstance.processEvents();
+
+        assertEquals(eventId, testInstance.getLastEventId());
+        assertEquals(CacheEventService.MAX_PENDING_IDS, testInstance.getPendingEventIds().size());
+        Mockito.verify(domainListener).onCacheEvent(CacheEventType.DOMAIN, null);
+    }
+
+    @Test
+    void isSynchronized() {
+        // not synchronized before the first run
+        assertFalse(testInstance.isSynchronized());
+        Mockito.doReturn(10L).when(cacheEventDao).getLastEventId();
+        testInstance.processEvents();
+        assertTrue(testInstance.isSynchronized());
+        // the failed run keeps the time of the last successful run
+        Mockito.doThrow(new IllegalStateException("Database not available")).when(cacheEventDao)
+                .getEventsAfter(anyLong(), anyInt());
+        assertThrows(IllegalStateException.class, () -> testInstance.processEvents());
+        assertTrue(testInstance.isSynchronized());
+    }
+
+    @Test
+    void isSynchronizedWithoutClusterMode() {
+        Mockito.doReturn(false).when(configurationService).isClusterEnabled();
+
+        assertTrue(testInstance.isSynchronized());
+    }
+
+    @Test
+    void processEventsSkipsOwnEventsAndDuplicates() {
+        Mockito.doReturn(10L).when(cacheEventDao).getLastEventId();
+        testInstance.processEvents();
+        Mockito.doReturn(Arrays.asList(
+                createEvent(11L, CacheEventType.DOMAIN, "domain1", OTHER_NODE),
+                createEvent(12L, CacheEventType.DOMAIN, "domain1", OTHER_NODE),
+                createEvent(13L, CacheEventType.DOMAIN, "domain2", LOCAL_NODE)
+        )).when(cacheEventDao).getEventsAfter(eq(10L), anyInt());
+
+        SMPJobResult result = testInstance.processEvents();
+
+        assertEquals(1, result.getProcessed());
+        assertEquals(13L, testInstance.getLastEventId());
+        Mockito.verify(domainListener, Mockito.times(1)).onCacheEvent(CacheEventType.DOMAIN, "domain1");
+        Mockito.verify(domainListener, Mockito.never()).onCacheEvent(CacheEventType.DOMAIN, "domain2");
+    }
+
+    @Test
+    void processEventsProcessesLateCommittedEvents() {
+        Mockito.doReturn(10L).when(cacheEventDao).getLastEventId();
+        testInstance.processEvents();
+        // the event 11 is not yet committed when the event 12 is read
+        Mockito.doReturn(Collections.singletonList(createEvent(12L, CacheEventType.DOMAIN, "domain2", OTHER_NODE)))
+                .when(cacheEventDao).getEventsAfter(eq(10L), anyInt());
+        testInstance.processEvents();
+        assertEquals(Collections.singleton(11L), testInstance.getPendingEventIds());
+
+        List<DBCacheEvent> events = Arrays.asList(
+                createEvent(11L, CacheEventType.DOMAIN, "domain1", OTHER_NODE),
+                createEvent(12L, CacheEventType.DOMAIN, "domain2", OTHER_NODE));
+        Mockito.doReturn(events).when(cacheEventDao).getEventsAfter(eq(10L), anyInt());
+
+        SMPJobResult result = testInstance.processEvents();
+
+        assertEquals(1, result.getProcessed());
+        assertTrue(testInstance.getPendingEventIds().isEmpty());
+        Mockito.verify(domainListener).onCacheEvent(CacheEventType.DOMAIN, "domain1");
+        Mockito.verify(domainListener, Mockito.times(1)).onCacheEvent(CacheEventType.DOMAIN, "domain2");
+    }
+
+    @Test
+    void notifyListenersContinuesAfterListenerFailure() {
+        CacheEventListener failingListener = Mockito.mock(CacheEventListener.class);
+        Mockito.doReturn(Collections.singletonList(CacheEventType.DOMAIN)).when(failingListener).handledCacheEvents();
+        Mockito.doCallRealMethod().when(failingListener).handlesCacheEvent(any());
+        Mockito.doThrow(new IllegalStateException("Test failure")).when(failingListener).onCacheEvent(any(), any());
+        Map<String, CacheEventListener> listeners = new LinkedHashMap<>();
+        listeners.put("failingListener", failingListener);
+        listeners.put("domainListener", domainListener);
+        Mockito.doReturn(listeners).when(applicationContext).getBeansOfType(CacheEventListener.class);
+
+        testInstance.notifyListeners(CacheEventType.DOMAIN, "domain1");
+
+        Mockito.verify(domainListener).onCacheEvent(CacheEventType.DOMAIN, "domain1");
+    }
+
+    @Test
+    void processEventsWithoutClusterMode() {
+        Mockito.doReturn(10L).when(cacheEventDao).getLastEventId();
+        testInstance.processEvents();
+        Mockito.doReturn(false).when(configurationService).isClusterEnabled();
+
+        SMPJobResult result = testInstance.processEvents();
+
+        assertEquals(SMPJobResult.EMPTY, result);
+        assertNull(testInstance.getLastEventId());
+    }
+
+    private DBCacheEvent createEvent(Long id, CacheEventType eventType, String eventKey, String nodeId) {
+        DBCacheEvent event = new DBCacheEvent();
+        event.setId(id);
+        event.setEventType(eventType);
+        event.setEventKey(eventKey);
+        event.setNodeId(nodeId);
+        return event;
+    }
+}
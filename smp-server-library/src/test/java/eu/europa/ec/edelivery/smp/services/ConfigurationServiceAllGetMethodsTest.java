@@ -82,11 +82,21 @@ public class ConfigurationServiceAllGetMethodsTest {
                 {SML_TLS_SERVER_CERT_SUBJECT_REGEXP, TEST_REXEXP, "getSMLIntegrationServerCertSubjectRegExp", true},
                 {SML_LOGICAL_ADDRESS, TEST_STRING, "getSMLIntegrationSMPLogicalAddress", false},
                 {SML_PHYSICAL_ADDRESS, TEST_STRING, "getSMLIntegrationSMPPhysicalAddress", false},
+                {SML_MANAGE_BATCH_SIZE, 50, "getManageSMLBatchSize", true},
+                {SML_MANAGE_PARALLEL_REQUESTS, 2, "getManageSMLParallelRequests", true},
+                {SML_OUTBOX_BATCH_SIZE, 200, "getSMLOutboxBatchSize", true},
+                {SML_OUTBOX_MAX_ATTEMPTS, 5, "getSMLOutboxMaxAttempts", true},
+                {SML_OUTBOX_RETRY_DELAY, 60, "getSMLOutboxRetryDelayInSeconds", true},
+                {SML_OUTBOX_RETRY_MAX_DELAY, 1800, "getSMLOutboxRetryMaxDelayInSeconds", true},
+                {SML_OUTBOX_PROCESSING_TIMEOUT, 120, "getSMLOutboxProcessingTimeoutInSeconds", true},
                 {KEYSTORE_PASSWORD, TEST_STRING, "getKeystoreCredentialToken", true},
                 {KEYSTORE_FILENAME, TEST_FILE, "getKeystoreFile", true},
                 {TRUSTSTORE_PASSWORD, TEST_STRING, "getTruststoreCredentialToken", true},
                 {TRUSTSTORE_FILENAME, TEST_FILE, "getTruststoreFile", true},
                 {CERTIFICATE_CRL_FORCE, Boolean.FALSE, "forceCRLValidation", true},
+                {CERTIFICATE_CRL_CACHE_GRACE_PERIOD, 30, "getCRLCacheGracePeriodInMinutes", true},
+                {CERTIFICATE_CRL_CACHE_REFRESH_AHEAD, 5, "getCRLCacheRefreshAheadInMinutes", true},
+                {CERTIFICATE_CRL_CACHE_FOLDER, TEST_FILE, "getCRLCacheFolder", true},
                 //{ENCRYPTION_FILENAME, TEST_STRING, "", true},
                 //{KEYSTORE_PASSWORD_DECRYPTED, TEST_STRING, "", true},
                 //{TRUSTSTORE_PASSWORD_DECRYPTED, TEST_STRING, "", true},
@@ -150,7 +160,30 @@ public class ConfigurationServiceAllGetMethodsTest {
                 {ALERT_CERTIFICATE_EXPIRED_PERIOD, 10, "getAlertExpiredCertificatePeriod", true},
                 {ALERT_CERTIFICATE_EXPIRED_INTERVAL, 10, "getAlertExpiredCertificateInterval", true},
                 {SMP_ALERT_BATCH_SIZE, 10, "getAlertCredentialsBatchSize", true},
+                {SMP_ALERT_BATCH_MAX_COUNT, 5, "getAlertCredentialsBatchMaxCount", true},
+                {SMP_JOB_LOCK_TIMEOUT, 600, "getJobLockTimeoutInSeconds", true},
+                {SMP_CACHE_EVENTS_RETENTION, 30, "getCacheEventsRetentionInMinutes", true},
                 {SMP_ALERT_MAIL_FROM, TEST_STRING, "getAlertEmailFrom", true},
+                {SMP_ALERT_MAIL_WORKERS, 4, "getAlertMailWorkers", true},
+                {SMP_ALERT_MAIL_QUEUE_CAPACITY, 500, "getAlertMailQueueCapacity", true},
+                {SMP_ALERT_MAIL_BATCH_SIZE, 10, "getAlertMailBatchSize", true},
+                {SMP_ALERT_MAIL_MAX_ATTEMPTS, 3, "getAlertMailMaxAttempts", true},
+                {SMP_ALERT_MAIL_RETRY_DELAY, 120, "getAlertMailRetryDelayInSeconds", true},
+                {SMP_ALERT_MAIL_RETRY_MAX_DELAY, 1800, "getAlertMailRetryMaxDelayInSeconds", true},
+                {SMP_ALERT_MAIL_PROCESSING_TIMEOUT, 120, "getAlertMailProcessingTimeoutInSeconds", true},
+                {RESOURCE_RESPONSE_CACHE_ENABLED, Boolean.FALSE, "isResourceResponseCacheEnabled", true},
+                {RESOURCE_RESPONSE_CACHE_MAX_ENTRIES, 100, "getResourceResponseCacheMaxEntries", true},
+                {RESOURCE_RESPONSE_CACHE_TTL, 60, "getResourceResponseCacheTTLInSeconds", true},
+                {RESOURCE_HTTP_CACHE_MAX_AGE, 600, "getResourceHttpCacheMaxAgeInSeconds", true},
+                {RESOURCE_RESPONSE_COMPRESSION_ENABLED, Boolean.FALSE, "isResourceResponseCompressionEnabled", true},
+                {METADATA_CACHE_TTL, 30, "getMetadataCacheTTLInSeconds", true},
+                {DOCUMENT_TEMPLATE_CACHE_MAX_SIZE, 1024, "getDocumentTemplateCacheMaxSizeInKB", true},
+                {UI_SEARCH_COUNT_LIMIT, 500, "getUISearchCountLimit", true},
+                {RESOURCE_IDENTIFIER_FILTER_ENABLED, Boolean.FALSE, "isResourceIdentifierFilterEnabled", true},
+                {RESOURCE_IDENTIFIER_FILTER_REBUILD, 30, "getResourceIdentifierFilterRebuildInMinutes", true},
+                {RESOURCE_SNAPSHOT_FOLDER, TEST_FILE, "getResourceSnapshotFolder", true},
+                {RESOURCE_SNAPSHOT_MAX_AGE, 30, "getResourceSnapshotMaxAgeInSeconds", true},
+                {RESOURCE_SNAPSHOT_MAX_STALE, 60, "getResourceSnapshotMaxStaleInMinutes", true},
 
                 {ALERT_USER_SUSPENDED_LEVEL, AlertLevelEnum.HIGH, "getAlertUserSuspendedLevel", true},
                 {ALERT_USER_LOGIN_FAILURE_LEVEL, AlertLevelEnum.HIGH, "getAlertUserLoginFailureLevel", true},
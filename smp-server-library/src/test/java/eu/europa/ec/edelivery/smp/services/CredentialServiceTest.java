@@ -188,6 +188,24 @@ class CredentialServiceTest extends AbstractJunit5BaseDao {
         assertEquals("ROLE_WS_USER", authentication.getAuthorities().iterator().next().getAuthority());
     }
 
+    @Test
+    void authenticateByAccessTokenVerificationCached() {
+        // given
+        String accessTokenName = TestConstants.USERNAME_3_AT;
+        String accessTokenValue = TestConstants.USERNAME_3_AT_PASSWORD;
+        AccessTokenVerificationCache verificationCache = (AccessTokenVerificationCache) ReflectionTestUtils.getField(testInstance, "accessTokenVerificationCache");
+        verificationCache.clear();
+        testInstance.authenticateByAuthenticationToken(accessTokenName, accessTokenValue);
+        assertEquals(1, verificationCache.size());
+        // when
+        Authentication authentication = testInstance.authenticateByAuthenticationToken(accessTokenName, accessTokenValue);
+        // then
+        assertEquals(TestConstants.USERNAME_3_AT, authentication.getName());
+        // invalid token value is not accepted and evicts the cached verification
+        assertThrows(BadCredentialsException.class, () -> testInstance.authenticateByAuthenticationToken(accessTokenName, "badPassword"));
+        assertEquals(0, verificationCache.size());
+    }
+
     @Test
     void authenticateByAccessTokenBadPassword() {
         // given
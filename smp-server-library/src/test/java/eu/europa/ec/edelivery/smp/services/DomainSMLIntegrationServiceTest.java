@@ -20,12 +20,18 @@
 package eu.europa.ec.edelivery.smp.services;
 
 import eu.europa.ec.bdmsl.ws.soap.IManageParticipantIdentifierWS;
+import eu.europa.ec.bdmsl.ws.soap.InternalErrorFault;
 import eu.europa.ec.bdmsl.ws.soap.IManageServiceMetadataWS;
 import eu.europa.ec.edelivery.smp.config.enums.SMPPropertyEnum;
 import eu.europa.ec.edelivery.smp.data.dao.AbstractJunit5BaseDao;
+import eu.europa.ec.edelivery.smp.data.dao.DomainSmlProgressDao;
+import eu.europa.ec.edelivery.smp.data.dao.ResourceDao;
 import eu.europa.ec.edelivery.smp.data.model.DBDomain;
 import eu.europa.ec.edelivery.smp.data.model.doc.DBResource;
+import eu.europa.ec.edelivery.smp.data.ui.SMLIntegrationProgressRO;
+import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.sml.SmlConnector;
+import org.busdox.servicemetadata.locator._1.ParticipantIdentifierPageType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -34,9 +40,9 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
+import java.time.OffsetDateTime;
 
-import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 
 /**
@@ -53,6 +59,10 @@ class DomainSMLIntegrationServiceTest extends AbstractJunit5BaseDao {
     private SMLIntegrationService smlIntegrationService;
     @Autowired
     private DomainSMLIntegrationService testInstance;
+    @Autowired
+    private ResourceDao resourceDao;
+    @Autowired
+    private DomainSmlProgressDao domainSmlProgressDao;
     // needed for mocking WS services
     @MockBean
     private IManageParticipantIdentifierWS iManageParticipantIdentifierWS;
@@ -66,6 +76,8 @@ class DomainSMLIntegrationServiceTest extends AbstractJunit5BaseDao {
 
         ReflectionTestUtils.setField(smlIntegrationService, "smlConnector", smlConnector);
         ReflectionTestUtils.setField(testInstance, "smlIntegrationService", smlIntegrationService);
+        ReflectionTestUtils.setField(testInstance, "smlConnector", smlConnector);
+        Mockito.reset(iManageParticipantIdentifierWS);
 
         resetKeystore();
         setDatabaseProperty(SMPPropertyEnum.SML_PHYSICAL_ADDRESS, "0.0.0.0");
@@ -112,4 +124,128 @@ class DomainSMLIntegrationServiceTest extends AbstractJunit5BaseDao {
         dbUpdatedResource = testUtilsDao.find(DBResource.class, dbUpdatedResource.getId());
         assertFalse(dbUpdatedResource.isSmlRegistered());
     }
+
+    @Test
+    void testRegisterDomainAndParticipantsInBatches() throws Exception {
+        // given
+        testUtilsDao.clearData();
+        testUtilsDao.createResources();
+        setDatabaseProperty(SMPPropertyEnum.SML_MANAGE_BATCH_SIZE, "1");
+        setDatabaseProperty(SMPPropertyEnum.SML_MANAGE_PARALLEL_REQUESTS, "2");
+        DBDomain testDomain = testUtilsDao.getD1();
+        long resourceCount = resourceDao.getResourceCountForDomainIdAndSmlRegistered(testDomain.getId(), false);
+        assertTrue(resourceCount > 0);
+
+        // when
+        testInstance.registerDomainAndParticipants(testDomain.getId());
+
+        // then
+        Mockito.verify(iManageParticipantIdentifierWS, Mockito.times((int) resourceCount)).createList(any(ParticipantIdentifierPageType.class));
+        SMLIntegrationProgressRO progress = testInstance.getSMLIntegrationProgress(testDomain.getId());
+        assertFalse(progress.isRunning());
+        assertEquals(DomainSMLIntegrationService.OPERATION_REGISTER, progress.getOperation());
+        assertEquals(resourceCount, progress.getTotalCount());
+        assertEquals(resourceCount, progress.getProcessedCount());
+        assertEquals(0, progress.getFailedCount());
+        assertEquals(progress.getResourceCount(), progress.getSmlRegisteredCount());
+        assertNull(progress.getErrorMessage());
+    }
+
+    @Test
+    void testRegisterDomainAndParticipantsFailedIsResumable() throws Exception {
+        // given
+        testUtilsDao.clearData();
+        testUtilsDao.createResources();
+        DBDomain testDomain = testUtilsDao.getD1();
+        DBResource testResource = testUtilsDao.getResourceD1G1RD1();
+        Mockito.doThrow(new InternalErrorFault("SML is not available"))
+                .when(iManageParticipantIdentifierWS).createList(any(ParticipantIdentifierPageType.class));
+
+        // when
+        assertThrows(SMPRuntimeException.class, () -> testInstance.registerDomainAndParticipants(testDomain.getId()));
+
+        // then
+        assertFalse(testUtilsDao.find(DBResource.class, testResource.getId()).isSmlRegistered());
+        SMLIntegrationProgressRO progress = testInstance.getSMLIntegrationProgress(testDomain.getId());
+        assertFalse(progress.isRunning());
+        assertTrue(progress.getFailedCount() > 0);
+        assertNotNull(progress.getErrorMessage());
+
+        // when SML is available again, the registration is resumed
+        Mockito.reset(iManageParticipantIdentifierWS);
+        testInstance.registerDomainAndParticipants(testDomain.getId());
+        assertTrue(testUtilsDao.find(DBResource.class, testResource.getId()).isSmlRegistered());
+    }
+
+    @Test
+    void testRegisterParticipantsNotRegisteredWhenConnectorSkipsRegistration() {
+        // given
+        testUtilsDao.clearData();
+        testUtilsDao.createResources();
+        DBDomain testDomain = testUtilsDao.getD1();
+        DBResource testResource = testUtilsDao.getResourceD1G1RD1();
+        long resourceCount = resourceDao.getResourceCountForDomainIdAndSmlRegistered(testDomain.getId(), false);
+        Mockito.doReturn(false).when(smlConnector).registerParticipantsInDns(any(), any(), any());
+
+        // when
+        testInstance.registerDomainAndParticipants(testDomain.getId());
+
+        // then
+        assertFalse(testUtilsDao.find(DBResource.class, testResource.getId()).isSmlRegistered());
+        SMLIntegrationProgressRO progress = testInstance.getSMLIntegrationProgress(testDomain.getId());
+        assertEquals(0, progress.getProcessedCount());
+        assertEquals(resourceCount, progress.getFailedCount());
+        assertEquals(0, progress.getSmlRegisteredCount());
+    }
+
+    @Test
+    void testStartRegisterDomainAndParticipantsRunsInBackground() throws Exception {
+        // given
+        testUtilsDao.clearData();
+        testUtilsDao.createResources();
+        DBDomain testDomain = testUtilsDao.getD1();
+        DBResource testResource = testUtilsDao.getResourceD1G1RD1();
+
+        // when
+        testInstance.startRegisterDomainAndParticipants(testDomain.getId());
+
+        // then
+        SMLIntegrationProgressRO progress = waitUntilFinished(testDomain.getId());
+        assertEquals(DomainSMLIntegrationService.OPERATION_REGISTER, progress.getOperation());
+        assertNotNull(progress.getFinishedOn());
+        assertNull(progress.getErrorMessage());
+        assertTrue(testUtilsDao.find(DBResource.class, testResource.getId()).isSmlRegistered());
+    }
+
+    @Test
+    void testStartRegisterDomainAndParticipantsFailsWhenRunningOnOtherNode() {
+        // given
+        testUtilsDao.clearData();
+        testUtilsDao.createResources();
+        DBDomain testDomain = testUtilsDao.getD1();
+        OffsetDateTime now = OffsetDateTime.now();
+        assertTrue(domainSmlProgressDao.tryStart(testDomain.getId(), DomainSMLIntegrationService.OPERATION_UNREGISTER,
+                "other-run", "other-node", now, now.plusMinutes(10)));
+
+        // when
+        SMPRuntimeException result = assertThrows(SMPRuntimeException.class,
+                () -> testInstance.startRegisterDomainAndParticipants(testDomain.getId()));
+
+        // then
+        assertTrue(result.getMessage().contains("is already running"));
+        SMLIntegrationProgressRO progress = testInstance.getSMLIntegrationProgress(testDomain.getId());
+        assertTrue(progress.isRunning());
+        assertEquals(DomainSMLIntegrationService.OPERATION_UNREGISTER, progress.getOperation());
+        Mockito.verifyNoInteractions(iManageParticipantIdentifierWS);
+    }
+
+    private SMLIntegrationProgressRO waitUntilFinished(Long domainId) throws InterruptedException {
+        SMLIntegrationProgressRO progress = testInstance.getSMLIntegrationProgress(domainId);
+        for (int i = 0; i < 100 && progress.isRunning(); i++) {
+            Thread.sleep(100);
+            progress = testInstance.getSMLIntegrationProgress(domainId);
+        }
+        assertFalse(progress.isRunning());
+        return progress;
+    }
 }
@@ -0,0 +1,249 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services;
+
+import eu.europa.ec.edelivery.smp.data.dao.DomainDao;
+import eu.europa.ec.edelivery.smp.data.dao.ResourceDao;
+import eu.europa.ec.edelivery.smp.data.dao.SMLOutboxDao;
+import eu.europa.ec.edelivery.smp.data.enums.SMLOutboxActionType;
+import eu.europa.ec.edelivery.smp.data.enums.SMLOutboxStatusType;
+import eu.europa.ec.edelivery.smp.data.model.DBDomain;
+import eu.europa.ec.edelivery.smp.data.model.DBSMLOutboxEntry;
+import eu.europa.ec.edelivery.smp.data.model.doc.DBResource;
+import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
+import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
+import eu.europa.ec.edelivery.smp.services.resource.ResourceMetadataCache;
+import eu.europa.ec.edelivery.smp.sml.SmlConnector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+
+class SMLOutboxServiceTest {
+
+    SMLOutboxDao smlOutboxDao = Mockito.mock(SMLOutboxDao.class);
+    DomainDao domainDao = Mockito.mock(DomainDao.class);
+    ResourceDao resourceDao = Mockito.mock(ResourceDao.class);
+    SMLIntegrationService smlIntegrationService = Mockito.mock(SMLIntegrationService.class);
+    SmlConnector smlConnector = Mockito.mock(SmlConnector.class);
+    ConfigurationService configurationService = Mockito.mock(ConfigurationService.class);
+    ResourceMetadataCache resourceMetadataCache = Mockito.mock(ResourceMetadataCache.class);
+    ResourceMetadataCache.MetadataSnapshot snapshot = Mockito.mock(ResourceMetadataCache.MetadataSnapshot.class);
+
+    SMLOutboxService testInstance = new SMLOutboxService(smlOutboxDao, domainDao, resourceDao, smlIntegrationService,
+            smlConnector, configurationService, resourceMetadataCache);
+
+    DBDomain domain = createDomain();
+    DBResource resource = createResource();
+
+    @BeforeEach
+    public void setup() {
+        Mockito.doReturn(true).when(smlIntegrationService).isSMLIntegrationEnabled();
+        Mockito.doReturn(snapshot).when(resourceMetadataCache).getSnapshot();
+        Mockito.doReturn(Optional.empty()).when(snapshot).getDomainConfiguration(any(), any());
+        Mockito.doReturn(domain).when(domainDao).find(domain.getId());
+        Mockito.doReturn(100).when(configurationService).getSMLOutboxBatchSize();
+        Mockito.doReturn(3).when(configurationService).getSMLOutboxMaxAttempts();
+        Mockito.doReturn(30).when(configurationService).getSMLOutboxRetryDelayInSeconds();
+        Mockito.doReturn(100).when(configurationService).getSMLOutboxRetryMaxDelayInSeconds();
+        Mockito.doReturn(300).when(configurationService).getSMLOutboxProcessingTimeoutInSeconds();
+        Mockito.doReturn(2).when(configurationService).getManageSMLParallelRequests();
+        Mockito.doReturn(Collections.emptyList()).when(smlOutboxDao).getEntriesForParticipant(any(), any(), any());
+    }
+
+    @Test
+    void testEnqueueRegisterParticipant() {
+        testInstance.enqueueRegisterParticipant(resource, domain);
+
+        ArgumentCaptor<DBSMLOutboxEntry> captor = ArgumentCaptor.forClass(DBSMLOutboxEntry.class);
+        Mockito.verify(smlOutboxDao).persist(captor.capture());
+        DBSMLOutboxEntry entry = captor.getValue();
+        assertEquals(SMLOutboxActionType.REGISTER, entry.getAction());
+        assertEquals(SMLOutboxStatusType.PENDING, entry.getStatus());
+        assertEquals(resource.getId(), entry.getResourceId());
+        assertEquals(resource.getIdentifierValue(), entry.getIdentifierValue());
+        assertFalse(resource.isSmlRegistered());
+    }
+
+    @Test
+    void testEnqueueRegisterParticipantDomainNotRegistered() {
+        domain.setSmlRegistered(false);
+
+        testInstance.enqueueRegisterParticipant(resource, domain);
+
+        Mockito.verify(smlOutboxDao, Mockito.never()).persist(any());
+    }
+
+    @Test
+    void testEnqueueRegisterCancelsNotSentUnregister() {
+        resource.setSmlRegistered(false);
+        DBSMLOutboxEntry unregister = createEntry(10L, SMLOutboxActionType.UNREGISTER, SMLOutboxStatusType.PENDING);
+        Mockito.doReturn(Collections.singletonList(unregister)).when(smlOutboxDao).getEntriesForParticipant(any(), any(), any());
+        Mockito.doReturn(true).when(smlOutboxDao).deleteNotSent(10L);
+
+        testInstance.enqueueRegisterParticipant(resource, domain);
+
+        Mockito.verify(smlOutboxDao, Mockito.never()).persist(any());
+        assertTrue(resource.isSmlRegistered());
+    }
+
+    @Test
+    void testEnqueueUnregisterCancelsNotSentRegister() {
+        DBSMLOutboxEntry register = createEntry(10L, SMLOutboxActionType.REGISTER, SMLOutboxStatusType.FAILED);
+        Mockito.doReturn(Collections.singletonList(register)).when(smlOutboxDao).getEntriesForParticipant(any(), any(), any());
+        Mockito.doReturn(true).when(smlOutboxDao).deleteNotSent(10L);
+
+        testInstance.enqueueUnregisterParticipant(resource, domain);
+
+        Mockito.verify(smlOutboxDao).deleteNotSent(10L);
+        Mockito.verify(smlOutboxDao, Mockito.never()).persist(any());
+    }
+
+    @Test
+    void testEnqueueUnregisterWhileRegisterIsProcessing() {
+        DBSMLOutboxEntry register = createEntry(10L, SMLOutboxActionType.REGISTER, SMLOutboxStatusType.PROCESSING);
+        Mockito.doReturn(Collections.singletonList(register)).when(smlOutboxDao).getEntriesForParticipant(any(), any(), any());
+
+        testInstance.enqueueUnregisterParticipant(resource, domain);
+
+        ArgumentCaptor<DBSMLOutboxEntry> captor = ArgumentCaptor.forClass(DBSMLOutboxEntry.class);
+        Mockito.verify(smlOutboxDao, Mockito.never()).deleteNotSent(any());
+        Mockito.verify(smlOutboxDao).persist(captor.capture());
+        assertEquals(SMLOutboxActionType.UNREGISTER, captor.getValue().getAction());
+    }
+
+    @Test
+    void testEnqueueUnregisterNotRegisteredParticipant() {
+        testInstance.enqueueUnregisterParticipant(resource, domain);
+
+        Mockito.verify(smlOutboxDao, Mockito.never()).persist(any());
+    }
+
+    @Test
+    void testDispatchSuccess() {
+        DBSMLOutboxEntry entry = createEntry(10L, SMLOutboxActionType.REGISTER, SMLOutboxStatusType.PENDING);
+        Mockito.doReturn(Collections.singletonList(entry)).when(smlOutboxDao).getDueEntries(any(), anyInt());
+        Mockito.doReturn(true).when(smlOutboxDao).claim(eq(10L), any(), any());
+        Mockito.doReturn(true).when(smlConnector).registerInDns(any(), any(), any(), any());
+
+        testInstance.dispatch();
+
+        Mockito.verify(smlConnector).registerInDns(entry.getIdentifierScheme(), entry.getIdentifierValue(), domain, null);
+        Mockito.verify(smlOutboxDao).removeById(10L);
+        Mockito.verify(resourceDao).updateSmlRegistered(Collections.singletonList(resource.getId()), true);
+    }
+
+    @Test
+    void testDispatchNotClaimed() {
+        DBSMLOutboxEntry entry = createEntry(10L, SMLOutboxActionType.UNREGISTER, SMLOutboxStatusType.PENDING);
+        Mockito.doReturn(Collections.singletonList(entry)).when(smlOutboxDao).getDueEntries(any(), anyInt());
+        Mockito.doReturn(false).when(smlOutboxDao).claim(eq(10L), any(), any());
+
+        testInstance.dispatch();
+
+        Mockito.verifyNoInteractions(smlConnector);
+        Mockito.verify(smlOutboxDao, Mockito.never()).removeById(any());
+    }
+
+    @Test
+    void testDispatchFailureSchedulesRetry() {
+        DBSMLOutboxEntry entry = createEntry(10L, SMLOutboxActionType.UNREGISTER, SMLOutboxStatusType.PENDING);
+        entry.setAttemptCount(1);
+        Mockito.doReturn(Collections.singletonList(entry)).when(smlOutboxDao).getDueEntries(any(), anyInt());
+        Mockito.doReturn(true).when(smlOutboxDao).claim(eq(10L), any(), any());
+        Mockito.doThrow(new SMPRuntimeException(ErrorCode.SML_INTEGRATION_EXCEPTION, "SML not available"))
+                .when(smlConnector).unregisterFromDns(any(), any(), any());
+        OffsetDateTime start = OffsetDateTime.now();
+
+        testInstance.dispatch();
+
+        ArgumentCaptor<OffsetDateTime> nextAttempt = ArgumentCaptor.forClass(OffsetDateTime.class);
+        Mockito.verify(smlOutboxDao).updateFailedAttempt(eq(10L), eq(SMLOutboxStatusType.PENDING), eq(2),
+                nextAttempt.capture(), contains("SML not available"));
+        // second failed attempt: initial delay 30s doubled
+        assertFalse(nextAttempt.getValue().isBefore(start.plusSeconds(60)));
+        Mockito.verify(smlOutboxDao, Mockito.never()).removeById(any());
+    }
+
+    @Test
+    void testDispatchFailureMaxAttempts() {
+        DBSMLOutboxEntry entry = createEntry(10L, SMLOutboxActionType.UNREGISTER, SMLOutboxStatusType.PENDING);
+        entry.setAttemptCount(2);
+        Mockito.doReturn(Collections.singletonList(entry)).when(smlOutboxDao).getDueEntries(any(), anyInt());
+        Mockito.doReturn(true).when(smlOutboxDao).claim(eq(10L), any(), any());
+        Mockito.doThrow(new IllegalStateException("error")).when(smlConnector).unregisterFromDns(any(), any(), any());
+
+        testInstance.dispatch();
+
+        Mockito.verify(smlOutboxDao).updateFailedAttempt(eq(10L), eq(SMLOutboxStatusType.FAILED), eq(3), any(), any());
+    }
+
+    @Test
+    void testDispatchIntegrationDisabled() {
+        Mockito.doReturn(false).when(smlIntegrationService).isSMLIntegrationEnabled();
+
+        testInstance.dispatch();
+
+        Mockito.verifyNoInteractions(smlOutboxDao);
+    }
+
+    @Test
+    void testGetRetryDelayInSeconds() {
+        assertEquals(30, testInstance.getRetryDelayInSeconds(1));
+        assertEquals(60, testInstance.getRetryDelayInSeconds(2));
+        assertEquals(100, testInstance.getRetryDelayInSeconds(3));
+        assertEquals(100, testInstance.getRetryDelayInSeconds(64));
+    }
+
+    private DBSMLOutboxEntry createEntry(Long id, SMLOutboxActionType action, SMLOutboxStatusType status) {
+        DBSMLOutboxEntry entry = new DBSMLOutboxEntry();
+        entry.setId(id);
+        entry.setDomain(domain);
+        entry.setResourceId(resource.getId());
+        entry.setIdentifierValue(resource.getIdentifierValue());
+        entry.setIdentifierScheme(resource.getIdentifierScheme());
+        entry.setAction(action);
+        entry.setStatus(status);
+        entry.setNextAttemptOn(OffsetDateTime.now());
+        return entry;
+    }
+
+    private static DBDomain createDomain() {
+        DBDomain domain = new DBDomain();
+        domain.setId(1L);
+        domain.setDomainCode("domain");
+        domain.setSmlRegistered(true);
+        return domain;
+    }
+
+    private static DBResource createResource() {
+        DBResource resource = new DBResource();
+        resource.setId(2L);
+        resource.setIdentifierValue("0007:001");
+        resource.setIdentifierScheme("iso6523-actorid-upis");
+        return resource;
+    }
+}
@@ -0,0 +1,213 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * 
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services;
+
+import eu.europa.ec.edelivery.smp.cron.SMPJobResult;
+import eu.europa.ec.edelivery.smp.cron.SMPJobStatistics;
+import eu.europa.ec.edelivery.smp.cron.SMPJobType;
+import eu.europa.ec.edelivery.smp.data.dao.JobLockDao;
+import eu.europa.ec.edelivery.smp.data.ui.JobStatusRO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+
+class SMPJobServiceTest {
+
+    ConfigurationService configurationService = Mockito.mock(ConfigurationService.class);
+    JobLockDao jobLockDao = Mockito.mock(JobLockDao.class);
+
+    SMPJobService testInstance = new SMPJobService(configurationService, jobLockDao);
+
+    @BeforeEach
+    public void setup() {
+        Mockito.doReturn(false).when(configurationService).isClusterEnabled();
+        Mockito.doReturn(600).when(configurationService).getJobLockTimeoutInSeconds();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        testInstance.shutdown();
+    }
+
+    @Test
+    void runJobRecordsStatistics() {
+        testInstance.runJob(SMPJobType.SML_OUTBOX, () -> SMPJobResult.of(5, 2));
+
+        SMPJobStatistics statistics = testInstance.getStatistics(SMPJobType.SML_OUTBOX);
+        assertFalse(statistics.isRunning());
+        assertEquals(SMPJobStatistics.RunStatus.SUCCESS, statistics.getLastStatus());
+        assertEquals(5, statistics.getLastProcessed());
+        assertEquals(2, statistics.getLastFailed());
+        assertEquals(1, statistics.getRunCount());
+        assertNotNull(statistics.getLastStartedOn());
+        assertNotNull(statistics.getLastFinishedOn());
+    }
+
+    @Test
+    void runJobRecordsFailure() {
+        testInstance.runJob(SMPJobType.ALERT_MAIL, () -> {
+            throw new IllegalStateException("Test failure");
+        });
+
+        SMPJobStatistics statistics = testInstance.getStatistics(SMPJobType.ALERT_MAIL);
+        assertEquals(SMPJobStatistics.RunStatus.FAILED, statistics.getLastStatus());
+        assertEquals(1, statistics.getFailureCount());
+        assertTrue(statistics.getLastError().contains("Test failure"));
+    }
+
+    @Test
+    void runJobSkippedWhenClusterLockNotAcquired() {
+        Mockito.doReturn(true).when(configurationService).isClusterEnabled();
+        Mockito.doReturn(false).when(jobLockDao).tryLock(anyString(), anyString(), any(), any());
+
+        testInstance.runJob(SMPJobType.CREDENTIAL_VALIDATION, () -> fail("Locked job must not be executed!"));
+
+        SMPJobStatistics statistics = testInstance.getStatistics(SMPJobType.CREDENTIAL_VALIDATION);
+        assertEquals(SMPJobStatistics.RunStatus.SKIPPED_LOCKED, statistics.getLastStatus());
+        assertEquals(0, statistics.getRunCount());
+        Mockito.verify(jobLockDao, Mockito.never()).unlock(anyString(), anyString(), any());
+    }
+
+    @Test
+    void runJobReleasesClusterLock() {
+        Mockito.doReturn(true).when(configurationService).isClusterEnabled();
+        Mockito.doReturn(true).when(jobLockDao).tryLock(anyString(), anyString(), any(), any());
+
+        testInstance.runJob(SMPJobType.CREDENTIAL_VALIDATION, () -> SMPJobResult.of(1));
+
+        Mockito.verify(jobLockDao).unlock(eq(SMPJobType.CREDENTIAL_VALIDATION.name()), eq(testInstance.getNodeId()), any());
+        assertEquals(1, testInstance.getStatistics(SMPJobType.CREDENTIAL_VALIDATION).getRunCount());
+    }
+
+    @Test
+    void runJobRenewsClusterLock() {
+        Mockito.doReturn(true).when(configurationService).isClusterEnabled();
+        Mockito.doReturn(3).when(configurationService).getJobLockTimeoutInSeconds();
+        Mockito.doReturn(true).when(jobLockDao).tryLock(anyString(), anyString(), any(), any());
+        CountDownLatch renewed = new CountDownLatch(2);
+        Mockito.doAnswer(invocation -> {
+            renewed.countDown();
+            return true;
+        }).when(jobLockDao).renew(anyString(), anyString(), any(), any());
+
+        testInstance.runJob(SMPJobType.CREDENTIAL_VALIDATION, () -> {
+            awaitLatch(renewed);
+            return SMPJobResult.EMPTY;
+        });
+
+        assertEquals(0, renewed.getCount());
+        Mockito.verify(jobLockDao, Mockito.atLeast(2)).renew(eq(SMPJobType.CREDENTIAL_VALIDATION.name()),
+                eq(testInstance.getNodeId()), any(), any());
+        Mockito.verify(jobLockDao).unlock(eq(SMPJobType.CREDENTIAL_VALIDATION.name()), eq(testInstance.getNodeId()), any());
+    }
+
+    @Test
+    void runJobStopsRenewalWhenClusterLockIsLost() {
+        Mockito.doReturn(true).when(configurationService).isClusterEnabled();
+        Mockito.doReturn(3).when(configurationService).getJobLockTimeoutInSeconds();
+        Mockito.doReturn(true).when(jobLockDao).tryLock(anyString(), anyString(), any(), any());
+        CountDownLatch renewed = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            renewed.countDown();
+            return false;
+        }).when(jobLockDao).renew(anyString(), anyString(), any(), any());
+
+        testInstance.runJob(SMPJobType.CREDENTIAL_VALIDATION, () -> {
+            awaitLatch(renewed);
+            // wait for the next renewal period
+            pause(1500);
+            return SMPJobResult.EMPTY;
+        });
+
+        Mockito.verify(jobLockDao, Mockito.times(1)).renew(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void runJobWithoutClusterDoesNotLock() {
+        testInstance.runJob(SMPJobType.CREDENTIAL_VALIDATION, () -> SMPJobResult.EMPTY);
+
+        Mockito.verifyNoInteractions(jobLockDao);
+    }
+
+    @Test
+    void triggerSkipsRunningJob() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        assertTrue(testInstance.trigger(SMPJobType.SML_OUTBOX, () -> {
+            started.countDown();
+            awaitLatch(release);
+            return SMPJobResult.EMPTY;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        boolean result = testInstance.trigger(SMPJobType.SML_OUTBOX, () -> fail("Overlapping run must not be executed!"));
+        // the job of the other pool is not blocked
+        CountDownLatch otherJob = new CountDownLatch(1);
+        assertTrue(testInstance.trigger(SMPJobType.ALERT_MAIL, () -> {
+            otherJob.countDown();
+            return SMPJobResult.EMPTY;
+        }));
+
+        assertFalse(result);
+        assertTrue(otherJob.await(5, TimeUnit.SECONDS));
+        assertTrue(testInstance.getStatistics(SMPJobType.SML_OUTBOX).isRunning());
+        assertEquals(1, testInstance.getStatistics(SMPJobType.SML_OUTBOX).getSkippedCount());
+        release.countDown();
+    }
+
+    @Test
+    void getJobStatusList() {
+        testInstance.runJob(SMPJobType.PROPERTY_REFRESH, () -> SMPJobResult.of(3));
+
+        List<JobStatusRO> result = testInstance.getJobStatusList();
+
+        assertEquals(SMPJobType.values().length, result.size());
+        JobStatusRO jobStatus = result.get(0);
+        assertEquals(SMPJobType.PROPERTY_REFRESH.name(), jobStatus.getJobName());
+        assertEquals(SMPJobType.PROPERTY_REFRESH.getPool(), jobStatus.getPool());
+        assertEquals("SUCCESS", jobStatus.getLastStatus());
+        assertEquals(3, jobStatus.getLastProcessed());
+        assertEquals(3, jobStatus.getTotalProcessed());
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitLatch(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
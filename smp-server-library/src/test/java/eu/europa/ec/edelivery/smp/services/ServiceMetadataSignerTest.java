@@ -107,4 +107,21 @@ class ServiceMetadataSignerTest extends AbstractJunit5BaseDao {
         Element adminSignature = loadAndSignDocumentForAdmin("/expected_output/PUT_ServiceMetadata_request.xml");
         SignatureUtil.validateSignature(adminSignature);
     }
+
+    @Test
+    void testSigningContextReusedUntilKeystoreRefresh() throws Exception {
+        String alias = "sample_key";
+        Mockito.clearInvocations(uiKeystoreService);
+
+        validateSignatureForDefault(loadAndSignDocumentForDefault(alias));
+        validateSignatureForDefault(loadAndSignDocumentForDefault(alias));
+        // key and certificate are retrieved only for the first signature
+        Mockito.verify(uiKeystoreService, Mockito.times(1)).getKey(alias);
+        Mockito.verify(uiKeystoreService, Mockito.times(1)).getCert(alias);
+
+        uiKeystoreService.refreshData();
+        validateSignatureForDefault(loadAndSignDocumentForDefault(alias));
+        // signing context is recreated for the reloaded keystore
+        Mockito.verify(uiKeystoreService, Mockito.times(2)).getKey(alias);
+    }
 }
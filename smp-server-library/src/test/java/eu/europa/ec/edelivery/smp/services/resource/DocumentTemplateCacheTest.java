@@ -0,0 +1,81 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services.resource;
+
+import eu.europa.ec.edelivery.smp.services.ConfigurationService;
+import eu.europa.ec.edelivery.smp.utils.StringNamedSubstitutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentTemplateCacheTest {
+
+    ConfigurationService configurationService = Mockito.mock(ConfigurationService.class);
+    DocumentTemplateCache testInstance = new DocumentTemplateCache(configurationService);
+
+    @BeforeEach
+    public void setup() {
+        Mockito.doReturn(1).when(configurationService).getDocumentTemplateCacheMaxSizeInKB();
+    }
+
+    @Test
+    void testGetCachedTemplate() {
+        StringNamedSubstitutor.Template template = createTemplate(100);
+        testInstance.put("1:1", template);
+
+        assertSame(template, testInstance.get("1:1"));
+        assertNull(testInstance.get("1:2"));
+    }
+
+    @Test
+    void testCacheDisabled() {
+        Mockito.doReturn(0).when(configurationService).getDocumentTemplateCacheMaxSizeInKB();
+        testInstance.put("1:1", createTemplate(100));
+
+        assertEquals(0, testInstance.size());
+        assertNull(testInstance.get("1:1"));
+    }
+
+    @Test
+    void testTemplateLargerThanCacheIsNotCached() {
+        testInstance.put("1:1", createTemplate(2000));
+
+        assertEquals(0, testInstance.size());
+    }
+
+    @Test
+    void testMaxSizeRemovesLeastRecentlyUsed() {
+        testInstance.put("1:1", createTemplate(400));
+        testInstance.put("2:1", createTemplate(400));
+        // access the first entry
+        assertNotNull(testInstance.get("1:1"));
+        testInstance.put("3:1", createTemplate(400));
+
+        assertEquals(2, testInstance.size());
+        assertNotNull(testInstance.get("1:1"));
+        assertNull(testInstance.get("2:1"));
+        assertNotNull(testInstance.get("3:1"));
+    }
+
+    private StringNamedSubstitutor.Template createTemplate(int size) {
+        return StringNamedSubstitutor.compile(new byte[size], "UTF-8");
+    }
+}
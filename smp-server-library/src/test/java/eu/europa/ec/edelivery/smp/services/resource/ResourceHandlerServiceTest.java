@@ -18,10 +18,14 @@
  */
 package eu.europa.ec.edelivery.smp.services.resource;
 
+import eu.europa.ec.edelivery.smp.config.enums.SMPPropertyEnum;
 import eu.europa.ec.edelivery.smp.data.dao.AbstractJunit5BaseDao;
 import eu.europa.ec.edelivery.smp.data.dao.ConfigurationDao;
+import eu.europa.ec.edelivery.smp.data.model.DBDomain;
 import eu.europa.ec.edelivery.smp.servlet.ResourceRequest;
 import eu.europa.ec.edelivery.smp.servlet.ResourceResponse;
+import eu.europa.ec.edelivery.smp.utils.HttpCacheUtils;
+import eu.europa.ec.edelivery.smp.utils.HttpEncodingUtils;
 import eu.europa.ec.smp.spi.def.OasisSMPResource10;
 import eu.europa.ec.smp.spi.def.OasisSMPSubresource10;
 import eu.europa.ec.smp.spi.handler.OasisSMPResource10Handler;
@@ -29,18 +33,30 @@ import eu.europa.ec.smp.spi.handler.OasisSMPSubresource10Handler;
 import eu.europa.ec.smp.spi.validation.Subresource10Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Collections;
+import java.util.zip.GZIPInputStream;
 
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static eu.europa.ec.edelivery.smp.servlet.WebConstants.HTTP_RESPONSE_CODE_NOT_MODIFIED;
+import static org.apache.commons.io.IOUtils.toByteArray;
+import static org.junit.jupiter.api.Assertions.*;
 
 
 // add SPI examples to the context
@@ -54,9 +70,18 @@ class ResourceHandlerServiceTest extends AbstractJunit5BaseDao {
     @Autowired
     private ConfigurationDao configurationDao;
 
+    @SpyBean
+    private ResourceStorage resourceStorage;
+
+    @SpyBean
+    private OasisSMPResource10Handler resource10Handler;
+
     @Autowired
     ResourceHandlerService testInstance;
 
+    @SpyBean
+    ResourceSnapshotStore resourceSnapshotStore;
+
     protected ResourceRequest requestData = Mockito.mock(ResourceRequest.class);
     protected ResolvedData resolvedData = Mockito.mock(ResolvedData.class);
     protected ResourceResponse responseData = Mockito.mock(ResourceResponse.class);
@@ -111,6 +136,145 @@ class ResourceHandlerServiceTest extends AbstractJunit5BaseDao {
         assertTrue(baos.size() > 0);
     }
 
+    @Test
+    void testReadResourceGzipEncoded() throws IOException {
+        ByteArrayOutputStream identity = readResource(null, null);
+
+        ByteArrayOutputStream baos = readResource(HttpEncodingUtils.ENCODING_GZIP, null);
+
+        Mockito.verify(responseData).setHttpHeader(HttpHeaders.CONTENT_ENCODING, HttpEncodingUtils.ENCODING_GZIP);
+        Mockito.verify(responseData).setHttpHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        assertArrayEquals(identity.toByteArray(), toByteArray(new GZIPInputStream(new ByteArrayInputStream(baos.toByteArray()))));
+    }
+
+    @Test
+    void testReadResourceGzipETag() {
+        readResource(null, null);
+        String eTag = getETag();
+
+        readResource("gzip;q=1.0, identity;q=0.5", null);
+
+        // the encoded response is a different representation
+        String gzipETag = getETag();
+        assertNotEquals(eTag, gzipETag);
+        assertEquals(HttpCacheUtils.createETag(getResponseFingerprint() + "|" + HttpEncodingUtils.ENCODING_GZIP), gzipETag);
+    }
+
+    @Test
+    void testReadResourceNotModifiedWithGzipETag() {
+        readResource(HttpEncodingUtils.ENCODING_GZIP, null);
+        String gzipETag = getETag();
+
+        ByteArrayOutputStream baos = readResource(HttpEncodingUtils.ENCODING_GZIP, gzipETag);
+
+        Mockito.verify(responseData).setHttpStatus(HTTP_RESPONSE_CODE_NOT_MODIFIED);
+        Mockito.verify(responseData, Mockito.never()).setHttpHeader(Mockito.eq(HttpHeaders.CONTENT_ENCODING), Mockito.anyString());
+        assertEquals(0, baos.size());
+    }
+
+    @Test
+    void testReadResourceNotModifiedIfNoneMatch() throws Exception {
+        setDatabaseProperty(SMPPropertyEnum.RESOURCE_RESPONSE_CACHE_ENABLED, "false");
+        readResource(null, null);
+        String eTag = getETag();
+        long lastModified = getLastModified();
+        String cacheControl = getCacheControl();
+        Mockito.verify(resource10Handler).readResource(Mockito.any(), Mockito.any());
+        Mockito.clearInvocations(resourceStorage, resource10Handler);
+
+        ByteArrayOutputStream baos = readResource(null, eTag, null);
+
+        assertNotModified(baos, eTag, lastModified, cacheControl);
+    }
+
+    @Test
+    void testReadResourceNotModifiedIfModifiedSince() throws Exception {
+        setDatabaseProperty(SMPPropertyEnum.RESOURCE_RESPONSE_CACHE_ENABLED, "false");
+        readResource(null, null);
+        String eTag = getETag();
+        long lastModified = getLastModified();
+        String cacheControl = getCacheControl();
+        Mockito.clearInvocations(resourceStorage, resource10Handler);
+
+        ByteArrayOutputStream baos = readResource(null, null, toHttpDate(lastModified));
+
+        assertNotModified(baos, eTag, lastModified, cacheControl);
+    }
+
+    @Test
+    void testReadResourceModifiedSince() throws Exception {
+        setDatabaseProperty(SMPPropertyEnum.RESOURCE_RESPONSE_CACHE_ENABLED, "false");
+        readResource(null, null);
+        long lastModified = getLastModified();
+        Mockito.clearInvocations(resource10Handler);
+
+        ByteArrayOutputStream baos = readResource(null, null, toHttpDate(lastModified - 60000));
+
+        Mockito.verify(responseData, Mockito.never()).setHttpStatus(HTTP_RESPONSE_CODE_NOT_MODIFIED);
+        Mockito.verify(resource10Handler).readResource(Mockito.any(), Mockito.any());
+        assertTrue(baos.size() > 0);
+    }
+
+    @Test
+    void testReadResourceGzipETagDoesNotMatchIdentity() {
+        readResource(HttpEncodingUtils.ENCODING_GZIP, null);
+        String gzipETag = getETag();
+
+        ByteArrayOutputStream baos = readResource(null, gzipETag);
+
+        Mockito.verify(responseData, Mockito.never()).setHttpStatus(HTTP_RESPONSE_CODE_NOT_MODIFIED);
+        assertTrue(baos.size() > 0);
+    }
+
+    @Test
+    void testReadResourceUnsupportedEncoding() {
+        ByteArrayOutputStream identity = readResource(null, null);
+
+        ByteArrayOutputStream baos = readResource("br, deflate", null);
+
+        Mockito.verify(responseData, Mockito.never()).setHttpHeader(Mockito.eq(HttpHeaders.CONTENT_ENCODING), Mockito.anyString());
+        assertEquals(HttpCacheUtils.createETag(getResponseFingerprint()), getETag());
+        assertArrayEquals(identity.toByteArray(), baos.toByteArray());
+    }
+
+    @Test
+    void testReadResourceNotEncodedWhenResponseCacheDisabled() {
+        setDatabaseProperty(SMPPropertyEnum.RESOURCE_RESPONSE_CACHE_ENABLED, "false");
+
+        ByteArrayOutputStream baos = readResource(HttpEncodingUtils.ENCODING_GZIP, null);
+
+        // the response is streamed without the encoding
+        Mockito.verify(responseData, Mockito.never()).setHttpHeader(Mockito.eq(HttpHeaders.CONTENT_ENCODING), Mockito.anyString());
+        Mockito.verify(responseData, Mockito.never()).setHttpHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        assertEquals(HttpCacheUtils.createETag(getResponseFingerprint()), getETag());
+        assertTrue(baos.size() > 0);
+    }
+
+    @Test
+    void testReadSnapshotGzipEncoded() {
+        DBDomain domain = testUtilsDao.getD1();
+        byte[] gzipContent = "stored gzip content".getBytes(StandardCharsets.UTF_8);
+        ResourceSnapshotFile.Snapshot snapshot = new ResourceSnapshotFile.Snapshot("snapshot-key", 1L, null, "1:1",
+                testInstance.getResponseFingerprint(domain, "1:1"), "text/xml", Collections.emptyMap(), null,
+                "stored content".getBytes(StandardCharsets.UTF_8),
+                Collections.singletonMap(HttpEncodingUtils.ENCODING_GZIP, gzipContent));
+        Mockito.doReturn(snapshot).when(resourceSnapshotStore).get("snapshot-key", false);
+        Mockito.doReturn(domain).when(requestData).getAuthorizedDomain();
+        Mockito.doReturn(HttpEncodingUtils.ENCODING_GZIP).when(requestData).getHeader(HttpHeaders.ACCEPT_ENCODING);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Mockito.doReturn(baos).when(responseData).getOutputStream();
+
+        boolean result = testInstance.readSnapshot(requestData, responseData, "snapshot-key", false);
+
+        assertTrue(result);
+        // the stored gzip body is served, and it is not encoded again
+        assertArrayEquals(gzipContent, baos.toByteArray());
+        Mockito.verify(responseData).setHttpHeader(HttpHeaders.CONTENT_ENCODING, HttpEncodingUtils.ENCODING_GZIP);
+        Mockito.verify(responseData).setHttpHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        Mockito.verify(responseData).setHttpHeader(HttpHeaders.ETAG,
+                HttpCacheUtils.createETag(snapshot.getFingerprint() + "|" + HttpEncodingUtils.ENCODING_GZIP));
+    }
+
     @Test
     void testCreateResource() {
         Mockito.doReturn(resolvedData).when(requestData).getResolvedData();
@@ -145,4 +309,86 @@ class ResourceHandlerServiceTest extends AbstractJunit5BaseDao {
         testInstance.createSubresource(requestData, responseData);
     }
 
+    /**
+     * Reads the resource with the new request and response mocks.
+     *
+     * @param acceptEncoding the Accept-Encoding header or null
+     * @param ifNoneMatch    the If-None-Match header or null
+     * @return the response body
+     */
+    private ByteArrayOutputStream readResource(String acceptEncoding, String ifNoneMatch) {
+        return readResource(acceptEncoding, ifNoneMatch, null);
+    }
+
+    /**
+     * Reads the resource with the new request and response mocks.
+     *
+     * @param acceptEncoding  the Accept-Encoding header or null
+     * @param ifNoneMatch     the If-None-Match header or null
+     * @param ifModifiedSince the If-Modified-Since header or null
+     * @return the response body
+     */
+    private ByteArrayOutputStream readResource(String acceptEncoding, String ifNoneMatch, String ifModifiedSince) {
+        requestData = Mockito.mock(ResourceRequest.class);
+        responseData = Mockito.mock(ResourceResponse.class);
+        Mockito.doReturn(resolvedData).when(requestData).getResolvedData();
+        Mockito.doReturn(acceptEncoding).when(requestData).getHeader(HttpHeaders.ACCEPT_ENCODING);
+        Mockito.doReturn(ifNoneMatch).when(requestData).getHeader(HttpHeaders.IF_NONE_MATCH);
+        Mockito.doReturn(ifModifiedSince).when(requestData).getHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        Mockito.doReturn(testUtilsDao.getResourceDefSmp()).when(resolvedData).getResourceDef();
+        Mockito.doReturn(testUtilsDao.getD1()).when(resolvedData).getDomain();
+        Mockito.doReturn(testUtilsDao.getResourceD1G1RD1()).when(resolvedData).getResource();
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Mockito.doReturn(baos).when(responseData).getOutputStream();
+
+        testInstance.readResource(requestData, responseData);
+        return baos;
+    }
+
+    private String getETag() {
+        ArgumentCaptor<String> eTag = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(responseData).setHttpHeader(Mockito.eq(HttpHeaders.ETAG), eTag.capture());
+        return eTag.getValue();
+    }
+
+    /**
+     * Verifies the 304 response: the cache headers are the same as for the full response, and the document is not
+     * loaded nor rendered by the handler.
+     */
+    private void assertNotModified(ByteArrayOutputStream baos, String eTag, long lastModified, String cacheControl) throws Exception {
+        Mockito.verify(responseData).setHttpStatus(HTTP_RESPONSE_CODE_NOT_MODIFIED);
+        Mockito.verify(responseData).setHttpHeader(HttpHeaders.ETAG, eTag);
+        Mockito.verify(responseData).setHttpDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        Mockito.verify(responseData).setHttpHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        Mockito.verify(responseData, Mockito.never()).getOutputStream();
+        Mockito.verify(resource10Handler, Mockito.never()).readResource(Mockito.any(), Mockito.any());
+        Mockito.verify(resourceStorage, Mockito.never()).getDocumentContentForResource(Mockito.any());
+        Mockito.verify(resourceStorage, Mockito.never()).getDocumentContent(Mockito.any(), Mockito.anyBoolean());
+        Mockito.verify(resourceStorage, Mockito.never()).getDocumentTemplateForResource(Mockito.any(), Mockito.any());
+        assertEquals(0, baos.size());
+    }
+
+    private long getLastModified() {
+        ArgumentCaptor<Long> lastModified = ArgumentCaptor.forClass(Long.class);
+        Mockito.verify(responseData).setHttpDateHeader(Mockito.eq(HttpHeaders.LAST_MODIFIED), lastModified.capture());
+        return lastModified.getValue();
+    }
+
+    private String getCacheControl() {
+        ArgumentCaptor<String> cacheControl = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(responseData).setHttpHeader(Mockito.eq(HttpHeaders.CACHE_CONTROL), cacheControl.capture());
+        assertNotNull(cacheControl.getValue());
+        return cacheControl.getValue();
+    }
+
+    private static String toHttpDate(long epochMillis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC));
+    }
+
+    private String getResponseFingerprint() {
+        ResourceStorage.DocumentRevision revision = resourceStorage.getDocumentRevisionForResource(testUtilsDao.getResourceD1G1RD1());
+        return testInstance.getResponseFingerprint(testUtilsDao.getD1(), revision);
+    }
+
 }
@@ -0,0 +1,235 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services.resource;
+
+import eu.europa.ec.edelivery.smp.config.CacheEventListener;
+import eu.europa.ec.edelivery.smp.data.dao.CacheEventDao;
+import eu.europa.ec.edelivery.smp.data.dao.ConfigurationDao;
+import eu.europa.ec.edelivery.smp.data.dao.DomainDao;
+import eu.europa.ec.edelivery.smp.data.dao.ResourceDao;
+import eu.europa.ec.edelivery.smp.data.enums.CacheEventType;
+import eu.europa.ec.edelivery.smp.data.model.DBDomain;
+import eu.europa.ec.edelivery.smp.data.model.DBDomainResourceDef;
+import eu.europa.ec.edelivery.smp.data.model.doc.DBResource;
+import eu.europa.ec.edelivery.smp.identifiers.Identifier;
+import eu.europa.ec.edelivery.smp.services.CacheEventService;
+import eu.europa.ec.edelivery.smp.services.ConfigurationService;
+import eu.europa.ec.edelivery.smp.services.SMPJobService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceIdentifierFilterTest {
+
+    DomainDao domainDao = Mockito.mock(DomainDao.class);
+    ResourceDao resourceDao = Mockito.mock(ResourceDao.class);
+    ConfigurationService configurationService = Mockito.mock(ConfigurationService.class);
+    CacheEventService cacheEventService = Mockito.mock(CacheEventService.class);
+    PlatformTransactionManager txManager = Mockito.mock(PlatformTransactionManager.class);
+    SMPJobService filterJobService = Mockito.mock(SMPJobService.class);
+    ResourceIdentifierFilter testInstance = new ResourceIdentifierFilter(domainDao, resourceDao, configurationService,
+            cacheEventService, filterJobService, txManager);
+
+    DBDomain domain = createDomain(1L, "domain1");
+
+    @BeforeEach
+    public void setup() {
+        Mockito.doReturn(true).when(configurationService).isResourceIdentifierFilterEnabled();
+        Mockito.doReturn(60).when(configurationService).getResourceIdentifierFilterRebuildInMinutes();
+        Mockito.doReturn(true).when(cacheEventService).isSynchronized();
+        Mockito.doReturn(1L).when(domainDao).getResourceCountForDomain(1L);
+        Mockito.doAnswer(invocation -> {
+            BiConsumer<String, String> consumer = invocation.getArgument(1);
+            consumer.accept("iso6523-actorid-upis", "0088:123456");
+            return null;
+        }).when(resourceDao).forEachNormalizedIdentifierForDomainId(ArgumentMatchers.eq(1L), ArgumentMatchers.any());
+        // run the background tasks in the calling thread
+        Mockito.doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(filterJobService).runInBackground(ArgumentMatchers.anyString(), ArgumentMatchers.any());
+    }
+
+    @Test
+    void testMightBeRegistered() {
+        assertTrue(testInstance.mightBeRegistered(domain, new Identifier("0088:123456", "iso6523-actorid-upis")));
+        // the case-insensitive match
+        assertTrue(testInstance.mightBeRegistered(domain, new Identifier("0088:123456", "ISO6523-ACTORID-UPIS")));
+        assertFalse(testInstance.mightBeRegistered(domain, new Identifier("0088:999999", "iso6523-actorid-upis")));
+        // the filter is loaded once in the new transaction
+        Mockito.verify(resourceDao, Mockito.times(1)).forEachNormalizedIdentifierForDomainId(ArgumentMatchers.eq(1L), ArgumentMatchers.any());
+        Mockito.verify(txManager, Mockito.times(1)).getTransaction(ArgumentMatchers.any());
+    }
+
+    @Test
+    void testMightBeRegisteredFilterDisabled() {
+        Mockito.doReturn(false).when(configurationService).isResourceIdentifierFilterEnabled();
+
+        assertTrue(testInstance.mightBeRegistered(domain, new Identifier("0088:999999", "iso6523-actorid-upis")));
+        Mockito.verifyNoInteractions(resourceDao);
+    }
+
+    @Test
+    void testMightBeRegisteredLoadFailed() {
+        Mockito.doThrow(new IllegalStateException("Database not available")).when(domainDao).getResourceCountForDomain(1L);
+
+        assertTrue(testInstance.mightBeRegistered(domain, new Identifier("0088:999999", "iso6523-actorid-upis")));
+    }
+
+    @Test
+    void testMightBeRegisteredNotSynchronized() {
+        Mockito.doReturn(false).when(cacheEventService).isSynchronized();
+
+        assertTrue(testInstance.mightBeRegistered(domain, new Identifier("0088:999999", "iso6523-actorid-upis")));
+        Mockito.verifyNoInteractions(resourceDao);
+    }
+
+    @Test
+    void testResourceCreatedOnOtherNodeBeforeFirstPoll() {
+        CacheEventDao cacheEventDao = Mockito.mock(CacheEventDao.class);
+        SMPJobService jobService = Mockito.mock(SMPJobService.class);
+        ApplicationContext applicationContext = Mockito.mock(ApplicationContext.class);
+        CacheEventService clusterEventService = new CacheEventService(cacheEventDao,
+                Mockito.mock(ConfigurationDao.class), configurationService, jobService, applicationContext);
+        ResourceIdentifierFilter clusterInstance = new ResourceIdentifierFilter(domainDao, resourceDao,
+                configurationService, clusterEventService, filterJobService, txManager);
+        Mockito.doReturn(Collections.singletonMap("resourceIdentifierFilter", clusterInstance))
+                .when(applicationContext).getBeansOfType(CacheEventListener.class);
+        Identifier identifier = new Identifier("0088:new", "iso6523-actorid-upis");
+        // the filter is loaded before the cluster mode is enabled
+        assertFalse(clusterInstance.mightBeRegistered(domain, identifier));
+        Mockito.doReturn(true).when(configurationService).isClusterEnabled();
+        // the resource is created on the other node before the first poll
+        Mockito.doAnswer(invocation -> {
+            BiConsumer<String, String> consumer = invocation.getArgument(1);
+            consumer.accept("iso6523-actorid-upis", "0088:123456");
+            consumer.accept("iso6523-actorid-upis", "0088:new");
+            return null;
+        }).when(resourceDao).forEachNormalizedIdentifierForDomainId(ArgumentMatchers.eq(1L), ArgumentMatchers.any());
+
+        assertTrue(clusterInstance.mightBeRegistered(domain, identifier));
+        Mockito.doReturn(10L).when(cacheEventDao).getLastEventId();
+        clusterEventService.processEvents();
+
+        assertTrue(clusterInstance.mightBeRegistered(domain, identifier));
+        Mockito.verify(resourceDao, Mockito.times(2)).forEachNormalizedIdentifierForDomainId(ArgumentMatchers.eq(1L), ArgumentMatchers.any());
+    }
+
+    @Test
+    void testMightBeRegisteredPassesWhileFilterIsLoaded() {
+        List<Runnable> backgroundTasks = new ArrayList<>();
+        Mockito.doAnswer(invocation -> backgroundTasks.add(invocation.getArgument(1)))
+                .when(filterJobService).runInBackground(ArgumentMatchers.anyString(), ArgumentMatchers.any());
+        Identifier identifier = new Identifier("0088:999999", "iso6523-actorid-upis");
+
+        assertTrue(testInstance.mightBeRegistered(domain, identifier));
+        assertTrue(testInstance.mightBeRegistered(domain, identifier));
+        // the filter is loaded once, and not by the request thread
+        assertEquals(1, backgroundTasks.size());
+        Mockito.verifyNoInteractions(resourceDao);
+
+        backgroundTasks.get(0).run();
+
+        assertFalse(testInstance.mightBeRegistered(domain, identifier));
+        Mockito.verify(resourceDao, Mockito.times(1)).forEachNormalizedIdentifierForDomainId(ArgumentMatchers.eq(1L), ArgumentMatchers.any());
+    }
+
+    @Test
+    void testFiltersLoadedOnStartup() {
+        Mockito.doReturn(Collections.singletonList(domain)).when(domainDao).getAllDomains();
+
+        testInstance.contextRefreshedEvent();
+        assertFalse(testInstance.mightBeRegistered(domain, new Identifier("0088:999999", "iso6523-actorid-upis")));
+
+        Mockito.verify(resourceDao, Mockito.times(1)).forEachNormalizedIdentifierForDomainId(ArgumentMatchers.eq(1L), ArgumentMatchers.any());
+    }
+
+    @Test
+    void testResourceCreated() {
+        Identifier identifier = new Identifier("0088:new", null);
+        assertFalse(testInstance.mightBeRegistered(domain, identifier));
+
+        testInstance.onResourceCreated(1L, null, "0088:NEW");
+
+        assertTrue(testInstance.mightBeRegistered(domain, identifier));
+    }
+
+    @Test
+    void testResourceCreatedOnOtherNode() {
+        Identifier identifier = new Identifier("0088:new", "iso6523-actorid-upis");
+        assertFalse(testInstance.mightBeRegistered(domain, identifier));
+
+        testInstance.onCacheEvent(CacheEventType.RESOURCE, "1::iso6523-actorid-upis::0088:new");
+
+        assertTrue(testInstance.mightBeRegistered(domain, identifier));
+    }
+
+    @Test
+    void testCacheEventWithoutKeyReloadsFilter() {
+        testInstance.mightBeRegistered(domain, new Identifier("0088:123456", "iso6523-actorid-upis"));
+
+        testInstance.onCacheEvent(CacheEventType.RESOURCE, null);
+        testInstance.mightBeRegistered(domain, new Identifier("0088:123456", "iso6523-actorid-upis"));
+
+        Mockito.verify(resourceDao, Mockito.times(2)).forEachNormalizedIdentifierForDomainId(ArgumentMatchers.eq(1L), ArgumentMatchers.any());
+    }
+
+    @Test
+    void testFilterReloadedAfterDeletes() {
+        testInstance.mightBeRegistered(domain, new Identifier("0088:123456", "iso6523-actorid-upis"));
+
+        testInstance.onResourceDeleted(1L);
+        testInstance.mightBeRegistered(domain, new Identifier("0088:123456", "iso6523-actorid-upis"));
+
+        Mockito.verify(resourceDao, Mockito.times(2)).forEachNormalizedIdentifierForDomainId(ArgumentMatchers.eq(1L), ArgumentMatchers.any());
+    }
+
+    @Test
+    void testPublishResourceCreated() {
+        DBResource resource = new DBResource();
+        resource.setIdentifierValue("0088:NEW");
+        resource.setIdentifierScheme("iso6523-actorid-upis");
+        resource.setDomainResourceDef(new DBDomainResourceDef());
+        resource.getDomainResourceDef().setDomain(domain);
+
+        testInstance.publishResourceCreated(resource);
+        Mockito.verifyNoInteractions(cacheEventService);
+
+        Mockito.doReturn(true).when(configurationService).isClusterEnabled();
+        testInstance.publishResourceCreated(resource);
+        Mockito.verify(cacheEventService).publish(CacheEventType.RESOURCE, "1::iso6523-actorid-upis::0088:new");
+    }
+
+    private static DBDomain createDomain(Long id, String code) {
+        DBDomain domain = new DBDomain();
+        domain.setId(id);
+        domain.setDomainCode(code);
+        return domain;
+    }
+}
@@ -0,0 +1,160 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services.resource;
+
+import eu.europa.ec.edelivery.smp.config.enums.SMPDomainPropertyEnum;
+import eu.europa.ec.edelivery.smp.data.dao.DomainConfigurationDao;
+import eu.europa.ec.edelivery.smp.data.dao.DomainDao;
+import eu.europa.ec.edelivery.smp.data.dao.ResourceDefDao;
+import eu.europa.ec.edelivery.smp.data.dao.SubresourceDefDao;
+import eu.europa.ec.edelivery.smp.data.model.DBDomain;
+import eu.europa.ec.edelivery.smp.data.model.DBDomainConfiguration;
+import eu.europa.ec.edelivery.smp.data.model.MetadataChangeListener;
+import eu.europa.ec.edelivery.smp.data.model.ext.DBResourceDef;
+import eu.europa.ec.edelivery.smp.data.model.ext.DBSubresourceDef;
+import eu.europa.ec.edelivery.smp.services.ConfigurationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceMetadataCacheTest {
+
+    DomainDao domainDao = Mockito.mock(DomainDao.class);
+    DomainConfigurationDao domainConfigurationDao = Mockito.mock(DomainConfigurationDao.class);
+    ResourceDefDao resourceDefDao = Mockito.mock(ResourceDefDao.class);
+    SubresourceDefDao subresourceDefDao = Mockito.mock(SubresourceDefDao.class);
+    ConfigurationService configurationService = Mockito.mock(ConfigurationService.class);
+    PlatformTransactionManager txManager = Mockito.mock(PlatformTransactionManager.class);
+    ResourceMetadataCache testInstance = new ResourceMetadataCache(domainDao, domainConfigurationDao, resourceDefDao, subresourceDefDao,
+            configurationService, txManager);
+
+    DBDomain domain1 = createDomain(1L, "domain1");
+    DBDomain domain2 = createDomain(2L, "domain2");
+    DBResourceDef resourceDef = createResourceDef(10L, "edelivery-oasis-smp-1.0-servicegroup", "smp-1");
+    DBSubresourceDef subresourceDef = createSubresourceDef(100L, "edelivery-oasis-smp-1.0-servicemetadata", "services", resourceDef);
+
+    @BeforeEach
+    public void setup() {
+        Mockito.doReturn(60).when(configurationService).getMetadataCacheTTLInSeconds();
+        Mockito.doReturn(Arrays.asList(domain1, domain2)).when(domainDao).getAllDomains();
+        Mockito.doReturn(Collections.singletonList(resourceDef)).when(resourceDefDao).getAllResourceDefForDomain(domain1);
+        Mockito.doReturn(Collections.emptyList()).when(resourceDefDao).getAllResourceDefForDomain(domain2);
+        Mockito.doReturn(Collections.singletonList(subresourceDef)).when(subresourceDefDao).getAllSubresourceDef();
+    }
+
+    @Test
+    void testGetSnapshotIsReused() {
+        ResourceMetadataCache.MetadataSnapshot snapshot = testInstance.getSnapshot();
+
+        assertSame(snapshot, testInstance.getSnapshot());
+        Mockito.verify(domainDao, Mockito.times(1)).getAllDomains();
+        // snapshot is loaded in the new transaction
+        Mockito.verify(txManager, Mockito.times(1)).getTransaction(ArgumentMatchers.any());
+    }
+
+    @Test
+    void testGetSnapshotReloadedOnMetadataChange() {
+        ResourceMetadataCache.MetadataSnapshot snapshot = testInstance.getSnapshot();
+
+        MetadataChangeListener.markChanged();
+
+        assertNotSame(snapshot, testInstance.getSnapshot());
+        Mockito.verify(domainDao, Mockito.times(2)).getAllDomains();
+    }
+
+    @Test
+    void testGetSnapshotReloadedAfterInvalidate() {
+        ResourceMetadataCache.MetadataSnapshot snapshot = testInstance.getSnapshot();
+
+        testInstance.invalidate();
+
+        assertNotSame(snapshot, testInstance.getSnapshot());
+    }
+
+    @Test
+    void testSnapshotLookups() {
+        ResourceMetadataCache.MetadataSnapshot snapshot = testInstance.getSnapshot();
+
+        assertFalse(snapshot.getTheOnlyDomain().isPresent());
+        assertEquals(domain1, snapshot.getFirstDomain().orElse(null));
+        assertEquals(domain2, snapshot.getDomainByCode("domain2").orElse(null));
+        assertFalse(snapshot.getDomainByCode("domainX").isPresent());
+        assertFalse(snapshot.getDomainByCode(null).isPresent());
+        assertEquals(Collections.singletonList(resourceDef), snapshot.getResourceDefsForDomain(domain1));
+        assertTrue(snapshot.getResourceDefsForDomain(domain2).isEmpty());
+        assertEquals(subresourceDef, snapshot.getSubresourceDef(resourceDef, "services").orElse(null));
+        assertFalse(snapshot.getSubresourceDef(resourceDef, "unknown").isPresent());
+        assertEquals(subresourceDef, snapshot.getSubresourceDefByIdentifier("edelivery-oasis-smp-1.0-servicemetadata").orElse(null));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getDomains().add(new DBDomain()));
+    }
+
+    @Test
+    void testSnapshotDomainConfiguration() {
+        DBDomainConfiguration configuration = new DBDomainConfiguration();
+        configuration.setProperty(SMPDomainPropertyEnum.RESOURCE_HTTP_CACHE_MAX_AGE.getProperty());
+        configuration.setValue("600");
+        Mockito.doReturn(Collections.singletonList(configuration)).when(domainConfigurationDao).getDomainConfiguration(domain1);
+        ResourceMetadataCache.MetadataSnapshot snapshot = testInstance.getSnapshot();
+
+        assertEquals(configuration, snapshot.getDomainConfiguration(domain1, SMPDomainPropertyEnum.RESOURCE_HTTP_CACHE_MAX_AGE).orElse(null));
+        assertFalse(snapshot.getDomainConfiguration(domain2, SMPDomainPropertyEnum.RESOURCE_HTTP_CACHE_MAX_AGE).isPresent());
+        assertFalse(snapshot.getDomainConfiguration(domain1, SMPDomainPropertyEnum.RESOURCE_SCH_MANDATORY).isPresent());
+    }
+
+    @Test
+    void testSnapshotNoDomain() {
+        Mockito.doReturn(Collections.emptyList()).when(domainDao).getAllDomains();
+        ResourceMetadataCache.MetadataSnapshot snapshot = testInstance.getSnapshot();
+
+        IllegalStateException result = assertThrows(IllegalStateException.class, snapshot::getTheOnlyDomain);
+        assertEquals("No domain configured on SMP, at least one domain is mandatory!", result.getMessage());
+        assertFalse(snapshot.getFirstDomain().isPresent());
+    }
+
+    private static DBDomain createDomain(Long id, String code) {
+        DBDomain domain = new DBDomain();
+        domain.setId(id);
+        domain.setDomainCode(code);
+        return domain;
+    }
+
+    private static DBResourceDef createResourceDef(Long id, String identifier, String urlSegment) {
+        DBResourceDef resourceDef = new DBResourceDef();
+        resourceDef.setId(id);
+        resourceDef.setIdentifier(identifier);
+        resourceDef.setUrlSegment(urlSegment);
+        return resourceDef;
+    }
+
+    private static DBSubresourceDef createSubresourceDef(Long id, String identifier, String urlSegment, DBResourceDef resourceDef) {
+        DBSubresourceDef subresourceDef = new DBSubresourceDef();
+        subresourceDef.setId(id);
+        subresourceDef.setIdentifier(identifier);
+        subresourceDef.setUrlSegment(urlSegment);
+        subresourceDef.setResourceDef(resourceDef);
+        return subresourceDef;
+    }
+}
@@ -0,0 +1,134 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services.resource;
+
+import eu.europa.ec.edelivery.smp.services.ConfigurationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceResponseCacheTest {
+
+    ConfigurationService configurationService = Mockito.mock(ConfigurationService.class);
+    ResourceSnapshotStore resourceSnapshotStore = Mockito.mock(ResourceSnapshotStore.class);
+    ResourceResponseCache testInstance = new ResourceResponseCache(configurationService, resourceSnapshotStore);
+
+    @BeforeEach
+    public void setup() {
+        Mockito.doReturn(true).when(configurationService).isResourceResponseCacheEnabled();
+        Mockito.doReturn(3).when(configurationService).getResourceResponseCacheMaxEntries();
+        Mockito.doReturn(60).when(configurationService).getResourceResponseCacheTTLInSeconds();
+    }
+
+    @Test
+    void testGetCachedResponse() {
+        ResourceResponseCache.CachedResponse response = createResponse("fp1");
+        testInstance.put(1L, null, response);
+
+        assertSame(response, testInstance.get(1L, null, "fp1"));
+        assertNull(testInstance.get(1L, 2L, "fp1"));
+        assertNull(testInstance.get(2L, null, "fp1"));
+    }
+
+    @Test
+    void testGetCachedResponseFingerprintChanged() {
+        testInstance.put(1L, null, createResponse("fp1"));
+
+        assertNull(testInstance.get(1L, null, "fp2"));
+        // invalid entry is removed
+        assertEquals(0, testInstance.size());
+    }
+
+    @Test
+    void testGetCachedResponseExpired() {
+        Mockito.doReturn(0).when(configurationService).getResourceResponseCacheTTLInSeconds();
+        testInstance.put(1L, null, createResponse("fp1"));
+
+        assertNull(testInstance.get(1L, null, "fp1"));
+    }
+
+    @Test
+    void testCacheDisabled() {
+        Mockito.doReturn(false).when(configurationService).isResourceResponseCacheEnabled();
+        testInstance.put(1L, null, createResponse("fp1"));
+
+        assertEquals(0, testInstance.size());
+        assertNull(testInstance.get(1L, null, "fp1"));
+    }
+
+    @Test
+    void testMaxEntriesRemovesLeastRecentlyUsed() {
+        testInstance.put(1L, null, createResponse("fp"));
+        testInstance.put(2L, null, createResponse("fp"));
+        testInstance.put(3L, null, createResponse("fp"));
+        // access the first entry
+        assertNotNull(testInstance.get(1L, null, "fp"));
+
+        testInstance.put(4L, null, createResponse("fp"));
+
+        assertEquals(3, testInstance.size());
+        assertNotNull(testInstance.get(1L, null, "fp"));
+        assertNull(testInstance.get(2L, null, "fp"));
+    }
+
+    @Test
+    void testEvictResourceRemovesSubresources() {
+        testInstance.put(1L, null, createResponse("fp"));
+        testInstance.put(1L, 10L, createResponse("fp"));
+        testInstance.put(2L, 20L, createResponse("fp"));
+
+        testInstance.evictResource(1L);
+
+        assertNull(testInstance.get(1L, null, "fp"));
+        assertNull(testInstance.get(1L, 10L, "fp"));
+        assertNotNull(testInstance.get(2L, 20L, "fp"));
+        Mockito.verify(resourceSnapshotStore).evictResource(1L);
+    }
+
+    @Test
+    void testClear() {
+        testInstance.put(1L, null, createResponse("fp"));
+        testInstance.put(2L, 20L, createResponse("fp"));
+
+        testInstance.clear();
+
+        assertEquals(0, testInstance.size());
+        Mockito.verify(resourceSnapshotStore).clear();
+    }
+
+    @Test
+    void testEncodedContentIsComputedOnce() {
+        ResourceResponseCache.CachedResponse response = createResponse("fp");
+
+        byte[] encoded = response.getEncodedContent("gzip");
+
+        assertNotNull(encoded);
+        assertSame(encoded, response.getEncodedContent("gzip"));
+        assertSame(encoded, response.getEncodedContents().get("gzip"));
+    }
+
+    private ResourceResponseCache.CachedResponse createResponse(String fingerprint) {
+        return new ResourceResponseCache.CachedResponse(fingerprint, "text/xml",
+                Collections.singletonMap("X-Test", "value"), "<test/>".getBytes());
+    }
+}
@@ -21,7 +21,10 @@ package eu.europa.ec.edelivery.smp.services.resource;
 import eu.europa.ec.dynamicdiscovery.exception.MalformedIdentifierException;
 import eu.europa.ec.edelivery.smp.auth.SMPUserDetails;
 import eu.europa.ec.edelivery.smp.data.dao.AbstractJunit5BaseDao;
+import eu.europa.ec.edelivery.smp.data.dao.SubresourceDao;
+import eu.europa.ec.edelivery.smp.data.dao.UserDao;
 import eu.europa.ec.edelivery.smp.data.model.user.DBUser;
+import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
 import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.servlet.ResourceAction;
 import eu.europa.ec.edelivery.smp.servlet.ResourceRequest;
@@ -33,8 +36,12 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.sql.SQLTransientConnectionException;
 import java.util.Arrays;
+import java.util.Collections;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
@@ -49,6 +56,9 @@ class ResourceServiceTest extends AbstractJunit5BaseDao {
     ResolvedData resolvedData = Mockito.mock(ResolvedData.class);
     ResourceResponse resourceResponse = Mockito.mock(ResourceResponse.class);
     SMPUserDetails user = Mockito.mock(SMPUserDetails.class);
+    ResourceResolverService resolverService = Mockito.mock(ResourceResolverService.class);
+    ResourceHandlerService resourceHandlerService = Mockito.mock(ResourceHandlerService.class);
+    PlatformTransactionManager transactionManager = Mockito.mock(PlatformTransactionManager.class);
 
 
     @BeforeEach
@@ -160,6 +170,68 @@ class ResourceServiceTest extends AbstractJunit5BaseDao {
     }
 
 
+    @Test
+    void handleReadRequestServedFromSnapshot() {
+        ResourceService snapshotInstance = createSnapshotTestInstance();
+        when(resourceRequest.getAction()).thenReturn(ResourceAction.READ);
+        when(resolverService.resolveSnapshotKey(resourceRequest)).thenReturn("snapshot-key");
+        when(resourceHandlerService.readSnapshot(resourceRequest, resourceResponse, "snapshot-key", false)).thenReturn(true);
+
+        snapshotInstance.handleRequest(user, resourceRequest, resourceResponse);
+
+        // the snapshot validated within the max-age is served without the database
+        Mockito.verifyNoInteractions(transactionManager);
+        Mockito.verify(resolverService, Mockito.never()).resolveAndAuthorizeRequest(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void handleReadRequestServedFromSnapshotOnDatabaseFailure() {
+        ResourceService snapshotInstance = createSnapshotTestInstance();
+        when(resourceRequest.getAction()).thenReturn(ResourceAction.READ);
+        when(resolverService.resolveSnapshotKey(resourceRequest)).thenReturn("snapshot-key");
+        when(transactionManager.getTransaction(Mockito.any()))
+                .thenThrow(new CannotCreateTransactionException("Database not available"));
+        when(resourceHandlerService.readSnapshot(resourceRequest, resourceResponse, "snapshot-key", true)).thenReturn(true);
+
+        snapshotInstance.handleRequest(user, resourceRequest, resourceResponse);
+
+        Mockito.verify(resourceHandlerService).readSnapshot(resourceRequest, resourceResponse, "snapshot-key", false);
+        Mockito.verify(resourceHandlerService).readSnapshot(resourceRequest, resourceResponse, "snapshot-key", true);
+    }
+
+    @Test
+    void handleReadRequestDatabaseFailureWithoutSnapshot() {
+        ResourceService snapshotInstance = createSnapshotTestInstance();
+        when(resourceRequest.getAction()).thenReturn(ResourceAction.READ);
+        when(resolverService.resolveSnapshotKey(resourceRequest)).thenReturn("snapshot-key");
+        when(transactionManager.getTransaction(Mockito.any()))
+                .thenThrow(new CannotCreateTransactionException("Database not available"));
+
+        assertThrows(CannotCreateTransactionException.class,
+                () -> snapshotInstance.handleRequest(user, resourceRequest, resourceResponse));
+    }
+
+    @Test
+    void handleReadRequestNotServedFromSnapshotOnRequestFailure() {
+        ResourceService snapshotInstance = createSnapshotTestInstance();
+        when(resourceRequest.getAction()).thenReturn(ResourceAction.READ);
+        when(resolverService.resolveSnapshotKey(resourceRequest)).thenReturn("snapshot-key");
+        when(resolverService.resolveAndAuthorizeRequest(user, resourceRequest))
+                .thenThrow(new SMPRuntimeException(ErrorCode.INVALID_REQUEST, "read", "Resource not found"));
+
+        assertThrows(SMPRuntimeException.class,
+                () -> snapshotInstance.handleRequest(user, resourceRequest, resourceResponse));
+        // only the database failures are served from the stale snapshot
+        Mockito.verify(resourceHandlerService, Mockito.never()).readSnapshot(resourceRequest, resourceResponse, "snapshot-key", true);
+    }
+
+    @Test
+    void testIsDatabaseFailure() {
+        assertTrue(ResourceService.isDatabaseFailure(new CannotCreateTransactionException("Database not available")));
+        assertTrue(ResourceService.isDatabaseFailure(new IllegalStateException(new SQLTransientConnectionException("Connection refused"))));
+        assertFalse(ResourceService.isDatabaseFailure(new SMPRuntimeException(ErrorCode.INVALID_REQUEST, "read", "Resource not found")));
+    }
+
     @Test
     void testFindOwnerOK() {
         DBUser user = testInstance.findOwner(testUtilsDao.getUser1().getUsername());
@@ -183,4 +255,9 @@ class ResourceServiceTest extends AbstractJunit5BaseDao {
         assertEquals("1234567890", values[1]);
     }
 
+    private ResourceService createSnapshotTestInstance() {
+        return new ResourceService(Collections.emptyList(), resolverService, resourceHandlerService,
+                Mockito.mock(SubresourceDao.class), Mockito.mock(UserDao.class), transactionManager);
+    }
+
 }
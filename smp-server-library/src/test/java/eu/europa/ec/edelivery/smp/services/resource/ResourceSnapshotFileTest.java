@@ -0,0 +1,296 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services.resource;
+
+import eu.europa.ec.edelivery.smp.utils.HttpEncodingUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceSnapshotFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    ResourceSnapshotFile testInstance;
+
+    @AfterEach
+    void closeFile() {
+        if (testInstance != null) {
+            testInstance.close();
+        }
+    }
+
+    @Test
+    void testPutAndGet() throws IOException {
+        testInstance = ResourceSnapshotFile.open(tempDir.resolve("snapshot.dat"));
+        testInstance.put(createSnapshot("key1", 1L, null, "content1"), 100L);
+
+        ResourceSnapshotFile.Snapshot result = testInstance.get("key1");
+        assertNotNull(result);
+        assertEquals(1L, result.getResourceId());
+        assertNull(result.getSubresourceId());
+        assertEquals("rev-key1", result.getRevision());
+        assertEquals("fp-key1", result.getFingerprint());
+        assertEquals("text/xml", result.getContentType());
+        assertEquals(Collections.singletonMap("ETag", "\"key1\""), result.getHttpHeaders());
+        assertEquals(1000L, result.getLastModified());
+        assertEquals("content1", toString(result.getContent()));
+        assertEquals(100L, result.getValidatedOn());
+        assertEquals("gzip-content1", toString(result.getEncodedContent("gzip")));
+        assertNull(testInstance.get("key2"));
+    }
+
+    @Test
+    void testGetReturnsViewOfMappedRecord() throws IOException {
+        testInstance = ResourceSnapshotFile.open(tempDir.resolve("snapshot.dat"));
+        testInstance.put(createSnapshot("key1", 1L, null, "content1"), 100L);
+
+        ResourceSnapshotFile.Snapshot result = testInstance.get("key1");
+        ByteBuffer content = result.getContent();
+        ByteBuffer encoded = result.getEncodedContent("gzip");
+
+        assertTrue(content.isReadOnly());
+        assertTrue(content.isDirect());
+        assertTrue(encoded.isReadOnly());
+        assertTrue(encoded.isDirect());
+        // each call returns the new view, so the consumed view does not change the snapshot
+        content.position(content.limit());
+        assertEquals("content1", toString(result.getContent()));
+        assertEquals(Collections.singleton("gzip"), result.getEncodedContents().keySet());
+    }
+
+    @Test
+    void testGetEncodesMissingVariant() throws IOException {
+        testInstance = ResourceSnapshotFile.open(tempDir.resolve("snapshot.dat"));
+        testInstance.put(new ResourceSnapshotFile.Snapshot("key1", 1L, null, "rev-key1", "fp-key1", "text/xml",
+                Collections.emptyMap(), null, "content1".getBytes(StandardCharsets.UTF_8), null), 100L);
+
+        ByteBuffer result = testInstance.get("key1").getEncodedContent(HttpEncodingUtils.ENCODING_GZIP);
+
+        assertFalse(result.isDirect());
+        assertTrue(result.remaining() > 0);
+    }
+
+    @Test
+    void testPutReplacesSnapshot() throws IOException {
+        testInstance = ResourceSnapshotFile.open(tempDir.resolve("snapshot.dat"));
+        testInstance.put(createSnapshot("key1", 1L, null, "content1"), 100L);
+        testInstance.put(createSnapshot("key1", 1L, null, "content2"), 200L);
+
+        assertEquals(1, testInstance.size());
+        assertEquals("content2", toString(testInstance.get("key1").getContent()));
+    }
+
+    @Test
+    void testReopenPersistsSnapshots() throws IOException {
+        Path path = tempDir.resolve("snapshot.dat");
+        testInstance = ResourceSnapshotFile.open(path);
+        testInstance.put(createSnapshot("key1", 1L, null, "content1"), 100L);
+        testInstance.put(createSnapshot("key2", 1L, 2L, "content2"), 100L);
+        testInstance.remove("key1");
+        testInstance.touch("key2", "fp-key2", 300L);
+        testInstance.close();
+
+        testInstance = ResourceSnapshotFile.open(path);
+        assertEquals(1, testInstance.size());
+        assertNull(testInstance.get("key1"));
+        ResourceSnapshotFile.Snapshot result = testInstance.get("key2");
+        assertNotNull(result);
+        assertEquals(2L, result.getSubresourceId());
+        assertEquals(300L, result.getValidatedOn());
+    }
+
+    @Test
+    void testTouchFingerprintMismatch() throws IOException {
+        testInstance = ResourceSnapshotFile.open(tempDir.resolve("snapshot.dat"));
+        testInstance.put(createSnapshot("key1", 1L, null, "content1"), 100L);
+
+        assertFalse(testInstance.touch("key1", "fp-other", 200L));
+        assertFalse(testInstance.touch("key2", "fp-key2", 200L));
+        assertTrue(testInstance.touch("key1", "fp-key1", 200L));
+        assertEquals(200L, testInstance.getEntries().get("key1").getValidatedOn());
+    }
+
+    @Test
+    void testRemoveResource() throws IOException {
+        testInstance = ResourceSnapshotFile.open(tempDir.resolve("snapshot.dat"));
+        testInstance.put(createSnapshot("key1", 1L, null, "content1"), 100L);
+        testInstance.put(createSnapshot("key1/sub", 1L, 2L, "content2"), 100L);
+        testInstance.put(createSnapshot("key3", 3L, null, "content3"), 100L);
+
+        assertEquals(2, testInstance.removeResource(1L));
+        assertEquals(1, testInstance.size());
+        assertNotNull(testInstance.get("key3"));
+    }
+
+    @Test
+    void testCorruptedRecordIsTruncated() throws IOException {
+        Path path = tempDir.resolve("snapshot.dat");
+        testInstance = ResourceSnapshotFile.open(path);
+        testInstance.put(createSnapshot("key1", 1L, null, "content1"), 100L);
+        int usedBytes = testInstance.getUsedBytes();
+        testInstance.put(createSnapshot("key2", 2L, null, "content2"), 100L);
+        testInstance.close();
+        testInstance = null;
+        // damage the content of the second record
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(usedBytes + 40L);
+            file.write(0x7F ^ file.read());
+        }
+
+        testInstance = ResourceSnapshotFile.open(path);
+        assertEquals(1, testInstance.size());
+        assertNotNull(testInstance.get("key1"));
+        assertNull(testInstance.get("key2"));
+        assertEquals(usedBytes, testInstance.getUsedBytes());
+    }
+
+    @Test
+    void testCompact() throws IOException {
+        Path path = tempDir.resolve("snapshot.dat");
+        testInstance = ResourceSnapshotFile.open(path);
+        for (int i = 0; i < 10; i++) {
+            testInstance.put(createSnapshot("key1", 1L, null, "content" + i), 100L);
+        }
+        testInstance.put(createSnapshot("key2", 2L, null, "content"), 100L);
+        int usedBytes = testInstance.getUsedBytes();
+
+        testInstance.compact();
+
+        assertTrue(testInstance.getUsedBytes() < usedBytes);
+        assertEquals(2, testInstance.size());
+        assertEquals("content9", toString(testInstance.get("key1").getContent()));
+        testInstance.close();
+
+        testInstance = ResourceSnapshotFile.open(path);
+        assertEquals(2, testInstance.size());
+        assertNotNull(testInstance.get("key2"));
+    }
+
+    @Test
+    void testClear() throws IOException {
+        testInstance = ResourceSnapshotFile.open(tempDir.resolve("snapshot.dat"));
+        testInstance.put(createSnapshot("key1", 1L, null, "content1"), 100L);
+
+        testInstance.clear();
+
+        assertEquals(0, testInstance.size());
+        assertNull(testInstance.get("key1"));
+    }
+
+    @Test
+    void testClearKeepsReadSnapshotValid() throws IOException {
+        Path path = tempDir.resolve("snapshot.dat");
+        testInstance = ResourceSnapshotFile.open(path);
+        testInstance.put(createSnapshot("key1", 1L, null, "content1"), 100L);
+        ResourceSnapshotFile.Snapshot snapshot = testInstance.get("key1");
+
+        testInstance.clear();
+        testInstance.put(createSnapshot("key2", 2L, null, "content2"), 100L);
+
+        // the cleared records are not overwritten by the new records
+        assertEquals("content1", toString(snapshot.getContent()));
+        assertEquals("gzip-content1", toString(snapshot.getEncodedContent("gzip")));
+        testInstance.close();
+
+        testInstance = ResourceSnapshotFile.open(path);
+        assertEquals(1, testInstance.size());
+        assertNull(testInstance.get("key1"));
+        assertEquals("content2", toString(testInstance.get("key2").getContent()));
+    }
+
+    @Test
+    void testOpenLockedFile() throws IOException {
+        Path path = tempDir.resolve("snapshot.dat");
+        testInstance = ResourceSnapshotFile.open(path);
+
+        IOException result = assertThrows(IOException.class, () -> ResourceSnapshotFile.open(path));
+
+        assertTrue(result.getMessage().contains("is used by another process"));
+        // the lock is released when the file is closed
+        testInstance.close();
+        testInstance = ResourceSnapshotFile.open(path);
+        assertNotNull(testInstance);
+    }
+
+    @Test
+    void testOpenUsesMostRecentUnusedFile() throws IOException {
+        createFile(tempDir.resolve("snapshot-old.dat"), "key1", 0L);
+        createFile(tempDir.resolve("snapshot-recent.dat"), "key2", 10_000L);
+        try (ResourceSnapshotFile usedFile = ResourceSnapshotFile.open(tempDir.resolve("snapshot-used.dat"))) {
+
+            testInstance = ResourceSnapshotFile.open(tempDir.resolve("snapshot-node.dat"),
+                    file -> file.toString().startsWith("snapshot-") && file.toString().endsWith(".dat"));
+
+            // the most recent unused file is used, the other unused file is removed, the used file is kept
+            assertEquals(Collections.singleton("key2"), testInstance.getEntries().keySet());
+            assertFalse(Files.exists(tempDir.resolve("snapshot-old.dat")));
+            assertFalse(Files.exists(tempDir.resolve("snapshot-old.dat" + ResourceSnapshotFile.LOCK_SUFFIX)));
+            assertFalse(Files.exists(tempDir.resolve("snapshot-recent.dat")));
+            assertTrue(Files.exists(usedFile.getPath()));
+        }
+    }
+
+    @Test
+    void testOpenRemovesUnusedFiles() throws IOException {
+        createFile(tempDir.resolve("snapshot-node.dat"), "key1", 0L);
+        createFile(tempDir.resolve("snapshot-other.dat"), "key2", 10_000L);
+        createFile(tempDir.resolve("other.dat"), "key3", 10_000L);
+
+        testInstance = ResourceSnapshotFile.open(tempDir.resolve("snapshot-node.dat"),
+                file -> file.toString().startsWith("snapshot-"));
+
+        assertEquals(Collections.singleton("key1"), testInstance.getEntries().keySet());
+        assertFalse(Files.exists(tempDir.resolve("snapshot-other.dat")));
+        assertTrue(Files.exists(tempDir.resolve("snapshot-node.dat" + ResourceSnapshotFile.LOCK_SUFFIX)));
+        // the files not matching the filter are kept
+        assertTrue(Files.exists(tempDir.resolve("other.dat")));
+    }
+
+    private static void createFile(Path path, String key, long modifiedAfter) throws IOException {
+        try (ResourceSnapshotFile file = ResourceSnapshotFile.open(path)) {
+            file.put(createSnapshot(key, 1L, null, "content"), 100L);
+        }
+        Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis() - 60_000L + modifiedAfter));
+    }
+
+    private static String toString(ByteBuffer buffer) {
+        return StandardCharsets.UTF_8.decode(buffer).toString();
+    }
+
+    private static ResourceSnapshotFile.Snapshot createSnapshot(String key, long resourceId, Long subresourceId,
+                                                                String content) {
+        return new ResourceSnapshotFile.Snapshot(key, resourceId, subresourceId, "rev-" + key, "fp-" + key,
+                "text/xml", Collections.singletonMap("ETag", "\"" + key + "\""), 1000L,
+                content.getBytes(StandardCharsets.UTF_8),
+                Collections.singletonMap("gzip", ("gzip-" + content).getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,148 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services.resource;
+
+import eu.europa.ec.edelivery.smp.cron.SMPJobResult;
+import eu.europa.ec.edelivery.smp.data.dao.ResourceDao;
+import eu.europa.ec.edelivery.smp.data.dao.SubresourceDao;
+import eu.europa.ec.edelivery.smp.data.model.DBDomain;
+import eu.europa.ec.edelivery.smp.data.model.DBGroup;
+import eu.europa.ec.edelivery.smp.data.model.doc.DBResource;
+import eu.europa.ec.edelivery.smp.services.CacheEventService;
+import eu.europa.ec.edelivery.smp.services.ConfigurationService;
+import eu.europa.ec.edelivery.smp.services.IdentifierService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceSnapshotServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    ConfigurationService configurationService = Mockito.mock(ConfigurationService.class);
+    ResourceSnapshotStore resourceSnapshotStore = new ResourceSnapshotStore(configurationService,
+            Mockito.mock(IdentifierService.class), Mockito.mock(CacheEventService.class));
+    ResourceDao resourceDao = Mockito.mock(ResourceDao.class);
+    SubresourceDao subresourceDao = Mockito.mock(SubresourceDao.class);
+    ResourceStorage resourceStorage = Mockito.mock(ResourceStorage.class);
+    ResourceHandlerService resourceHandlerService = Mockito.mock(ResourceHandlerService.class);
+    PlatformTransactionManager transactionManager = Mockito.mock(PlatformTransactionManager.class);
+    ResourceSnapshotService testInstance = new ResourceSnapshotService(resourceSnapshotStore, resourceDao,
+            subresourceDao, resourceStorage, resourceHandlerService, transactionManager);
+
+    DBResource resource = createResource(1L);
+
+    @BeforeEach
+    public void setup() {
+        Mockito.doReturn(tempDir.toFile()).when(configurationService).getResourceSnapshotFolder();
+        Mockito.doReturn(resource).when(resourceDao).find(1L);
+        Mockito.doReturn(true).when(resourceHandlerService).isPublic(ArgumentMatchers.any());
+        Mockito.doReturn(new ResourceStorage.DocumentRevision("rev1", null))
+                .when(resourceStorage).getDocumentRevisionForResource(resource);
+        Mockito.doReturn("fp-doc").when(resourceHandlerService)
+                .getDocumentFingerprint(ArgumentMatchers.any(), ArgumentMatchers.eq("rev1"));
+    }
+
+    @AfterEach
+    void closeFile() {
+        resourceSnapshotStore.closeSnapshotFile();
+    }
+
+    @Test
+    void testRevalidateSnapshotDisabled() {
+        Mockito.doReturn(null).when(configurationService).getResourceSnapshotFolder();
+
+        assertEquals(SMPJobResult.EMPTY, testInstance.revalidate());
+        Mockito.verifyNoInteractions(resourceDao);
+    }
+
+    @Test
+    void testRevalidate() {
+        storeSnapshot("valid", 1L, "rev1", "fp-doc|http://localhost/smp");
+        storeSnapshot("outdated-revision", 1L, "rev0", "fp-doc|http://localhost/smp");
+        storeSnapshot("outdated-configuration", 1L, "rev1", "fp-other|http://localhost/smp");
+        storeSnapshot("deleted", 2L, "rev1", "fp-doc|http://localhost/smp");
+        // the snapshot was validated long ago
+        resourceSnapshotStore.getSnapshotFile().touch("valid", "fp-doc|http://localhost/smp", 1000L);
+
+        SMPJobResult result = testInstance.revalidate();
+
+        assertEquals(1, result.getProcessed());
+        assertEquals(0, result.getFailed());
+        assertEquals(Collections.singleton("valid"), resourceSnapshotStore.getEntries().keySet());
+        assertTrue(resourceSnapshotStore.getEntries().get("valid").getValidatedOn() > 1000L);
+    }
+
+    @Test
+    void testRevalidateRemovesNotPublicSnapshots() {
+        storeSnapshot("valid", 1L, "rev1", "fp-doc|http://localhost/smp");
+        Mockito.doReturn(false).when(resourceHandlerService).isPublic(ArgumentMatchers.any());
+
+        SMPJobResult result = testInstance.revalidate();
+
+        assertEquals(0, result.getProcessed());
+        assertEquals(0, resourceSnapshotStore.size());
+    }
+
+    @Test
+    void testRevalidateDatabaseNotAvailable() {
+        storeSnapshot("valid", 1L, "rev1", "fp-doc|http://localhost/smp");
+        storeSnapshot("deleted", 2L, "rev1", "fp-doc|http://localhost/smp");
+        Mockito.doThrow(new CannotCreateTransactionException("Database not available"))
+                .when(transactionManager).getTransaction(ArgumentMatchers.any());
+
+        SMPJobResult result = testInstance.revalidate();
+
+        // the snapshots are kept when they can not be validated
+        assertEquals(0, result.getProcessed());
+        assertEquals(2, result.getFailed());
+        assertEquals(new HashSet<>(Arrays.asList("valid", "deleted")), resourceSnapshotStore.getEntries().keySet());
+    }
+
+    private void storeSnapshot(String key, long resourceId, String revision, String fingerprint) {
+        resourceSnapshotStore.put(new ResourceSnapshotFile.Snapshot(key, resourceId, null, revision, fingerprint,
+                "text/xml", Collections.emptyMap(), 1000L, key.getBytes(StandardCharsets.UTF_8),
+                Collections.emptyMap()), resourceSnapshotStore.getChangeSequence());
+    }
+
+    private static DBResource createResource(Long id) {
+        DBDomain domain = new DBDomain();
+        domain.setDomainCode("domain");
+        DBGroup group = new DBGroup();
+        group.setDomain(domain);
+        DBResource resource = new DBResource();
+        resource.setId(id);
+        resource.setGroup(group);
+        return resource;
+    }
+}
@@ -0,0 +1,262 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.services.resource;
+
+import eu.europa.ec.edelivery.smp.data.enums.CacheEventType;
+import eu.europa.ec.edelivery.smp.services.CacheEventService;
+import eu.europa.ec.edelivery.smp.services.ConfigurationService;
+import eu.europa.ec.edelivery.smp.services.IdentifierService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceSnapshotStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    ConfigurationService configurationService = Mockito.mock(ConfigurationService.class);
+    IdentifierService identifierService = Mockito.mock(IdentifierService.class);
+    CacheEventService cacheEventService = Mockito.mock(CacheEventService.class);
+    ResourceSnapshotStore testInstance = new ResourceSnapshotStore(configurationService, identifierService,
+            cacheEventService);
+
+    @BeforeEach
+    public void setup() {
+        Mockito.doReturn(tempDir.toFile()).when(configurationService).getResourceSnapshotFolder();
+    }
+
+    @AfterEach
+    void closeFile() {
+        testInstance.closeSnapshotFile();
+    }
+
+    @Test
+    void testCreateSnapshotFilename() {
+        assertEquals("resource-snapshot-smp-node1.example.com.dat",
+                ResourceSnapshotStore.createSnapshotFilename("smp-node1.example.com"));
+        assertEquals("resource-snapshot-node_1.dat", ResourceSnapshotStore.createSnapshotFilename("node/1"));
+        assertEquals("resource-snapshot.dat", ResourceSnapshotStore.createSnapshotFilename(null));
+    }
+
+    @Test
+    void testSnapshotFileIsNodeLocal() {
+        testInstance.put(createSnapshot("key1", 1L, "content1"), testInstance.getChangeSequence());
+
+        File[] snapshotFiles = tempDir.toFile().listFiles((dir, name) -> name.endsWith(ResourceSnapshotStore.SNAPSHOT_FILENAME_SUFFIX));
+        assertNotNull(snapshotFiles);
+        assertEquals(1, snapshotFiles.length);
+        assertTrue(snapshotFiles[0].getName().startsWith(ResourceSnapshotStore.SNAPSHOT_FILENAME_PREFIX));
+    }
+
+    @Test
+    void testSnapshotFileUsedByAnotherStore() {
+        testInstance.put(createSnapshot("key1", 1L, "content1"), testInstance.getChangeSequence());
+        ResourceSnapshotStore otherStore = new ResourceSnapshotStore(configurationService, identifierService,
+                cacheEventService);
+
+        // the file is locked by the first store: the snapshot of the other store is disabled
+        otherStore.put(createSnapshot("key2", 2L, "content2"), otherStore.getChangeSequence());
+
+        assertEquals(0, otherStore.size());
+        assertEquals(1, testInstance.size());
+        otherStore.closeSnapshotFile();
+    }
+
+    @Test
+    void testSnapshotFileOfPreviousHostNameIsUsed() throws IOException {
+        Path previousFile = tempDir.resolve(ResourceSnapshotStore.createSnapshotFilename("previous-host"));
+        try (ResourceSnapshotFile file = ResourceSnapshotFile.open(previousFile)) {
+            file.put(createSnapshot("key1", 1L, "content1"), System.currentTimeMillis());
+        }
+
+        // the node was restarted with the new host name: the unused file is used as the snapshot file of the node
+        assertEquals(1, testInstance.size());
+        assertFalse(Files.exists(previousFile));
+        assertTrue(ResourceSnapshotStore.isSnapshotFilename(testInstance.getSnapshotFile().getPath().getFileName()));
+    }
+
+    @Test
+    void testPutAfterRemoveIsNotStored() {
+        // the response was read from the database before the snapshot was removed by the concurrent change
+        long changeSequence = testInstance.getChangeSequence();
+        testInstance.remove("key1");
+
+        testInstance.put(createSnapshot("key1", 1L, "content1"), changeSequence);
+
+        assertEquals(0, testInstance.size());
+        testInstance.put(createSnapshot("key1", 1L, "content1"), testInstance.getChangeSequence());
+        assertEquals(1, testInstance.size());
+    }
+
+    @Test
+    void testTouchAfterEvictIsIgnored() {
+        testInstance.put(createSnapshot("key1", 1L, "content1"), testInstance.getChangeSequence());
+        long changeSequence = testInstance.getChangeSequence();
+        testInstance.evictResource(2L);
+
+        assertFalse(testInstance.touch("key1", "fp-key1", changeSequence));
+        assertTrue(testInstance.touch("key1", "fp-key1", testInstance.getChangeSequence()));
+    }
+
+    @Test
+    void testTouchDoesNotWaitForFileLock() throws InterruptedException {
+        testInstance.put(createSnapshot("key1", 1L, "content1"), testInstance.getChangeSequence());
+        ResourceSnapshotFile file = testInstance.getSnapshotFile();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            synchronized (file) {
+                locked.countDown();
+                awaitQuietly(release);
+            }
+        });
+        writer.start();
+        try {
+            assertTrue(locked.await(10, TimeUnit.SECONDS));
+            // the snapshot is validated and the same response is stored while the file is locked by the writer
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                assertTrue(testInstance.touch("key1", "fp-key1", testInstance.getChangeSequence()));
+                testInstance.put(createSnapshot("key1", 1L, "content1"), testInstance.getChangeSequence());
+            });
+        } finally {
+            release.countDown();
+            writer.join();
+        }
+        assertEquals(1, testInstance.size());
+    }
+
+    @Test
+    void testGetWithinMaxAge() {
+        Mockito.doReturn(60).when(configurationService).getResourceSnapshotMaxAgeInSeconds();
+        testInstance.put(createSnapshot("key1", 1L, "content1"), testInstance.getChangeSequence());
+
+        assertNotNull(testInstance.get("key1", false));
+        assertNull(testInstance.get("key2", false));
+    }
+
+    @Test
+    void testGetMaxAgeDisabled() {
+        Mockito.doReturn(0).when(configurationService).getResourceSnapshotMaxAgeInSeconds();
+        Mockito.doReturn(60).when(configurationService).getResourceSnapshotMaxStaleInMinutes();
+        testInstance.put(createSnapshot("key1", 1L, "content1"), testInstance.getChangeSequence());
+
+        // the snapshot is served only when the database is not available
+        assertNull(testInstance.get("key1", false));
+        assertNotNull(testInstance.get("key1", true));
+    }
+
+    @Test
+    void testGetExpiredSnapshot() {
+        Mockito.doReturn(60).when(configurationService).getResourceSnapshotMaxAgeInSeconds();
+        Mockito.doReturn(60).when(configurationService).getResourceSnapshotMaxStaleInMinutes();
+        testInstance.put(createSnapshot("key1", 1L, "content1"), testInstance.getChangeSequence());
+        // the snapshot was validated 10 minutes ago
+        testInstance.getSnapshotFile().touch("key1", "fp-key1", System.currentTimeMillis() - 10 * 60 * 1000L);
+
+        assertNull(testInstance.get("key1", false));
+        // the stale snapshot is served when the database is not available
+        assertNotNull(testInstance.get("key1", true));
+        Mockito.doReturn(5).when(configurationService).getResourceSnapshotMaxStaleInMinutes();
+        assertNull(testInstance.get("key1", true));
+    }
+
+    @Test
+    void testClearRemovesAllSnapshots() {
+        testInstance.put(createSnapshot("key1", 1L, "content1"), testInstance.getChangeSequence());
+        testInstance.put(createSnapshot("key2", 2L, "content2"), testInstance.getChangeSequence());
+
+        testInstance.clear();
+
+        assertEquals(0, testInstance.size());
+        Mockito.verify(cacheEventService).publish(CacheEventType.RESOURCE_RESPONSE, null);
+    }
+
+    @Test
+    void testEvictResource() {
+        testInstance.put(createSnapshot("key1", 1L, "content1"), testInstance.getChangeSequence());
+        testInstance.put(createSnapshot("key2", 2L, "content2"), testInstance.getChangeSequence());
+
+        testInstance.evictResource(1L);
+
+        assertEquals(Collections.singleton("key2"), testInstance.getEntries().keySet());
+        Mockito.verify(cacheEventService).publish(CacheEventType.RESOURCE_RESPONSE, "1");
+    }
+
+    @Test
+    void testOnCacheEventRemovesResource() {
+        testInstance.put(createSnapshot("key1", 1L, "content1"), testInstance.getChangeSequence());
+        testInstance.put(createSnapshot("key2", 2L, "content2"), testInstance.getChangeSequence());
+        long changeSequence = testInstance.getChangeSequence();
+
+        testInstance.onCacheEvent(CacheEventType.RESOURCE_RESPONSE, "2");
+
+        assertEquals(Collections.singleton("key1"), testInstance.getEntries().keySet());
+        // the response rendered before the change on the other node is not stored
+        testInstance.put(createSnapshot("key2", 2L, "content2"), changeSequence);
+        assertEquals(1, testInstance.size());
+        // the change received from the other node is not published again
+        Mockito.verifyNoInteractions(cacheEventService);
+    }
+
+    @Test
+    void testOnCacheEventWithoutKeyClearsSnapshots() {
+        testInstance.put(createSnapshot("key1", 1L, "content1"), testInstance.getChangeSequence());
+        testInstance.put(createSnapshot("key2", 2L, "content2"), testInstance.getChangeSequence());
+
+        testInstance.onCacheEvent(CacheEventType.RESOURCE_RESPONSE, null);
+
+        assertEquals(0, testInstance.size());
+        Mockito.verifyNoInteractions(cacheEventService);
+    }
+
+    @Test
+    void testHandledCacheEvents() {
+        assertTrue(testInstance.handlesCacheEvent(CacheEventType.RESOURCE_RESPONSE));
+        assertFalse(testInstance.handlesCacheEvent(CacheEventType.RESOURCE));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static ResourceSnapshotFile.Snapshot createSnapshot(String key, long resourceId, String content) {
+        return new ResourceSnapshotFile.Snapshot(key, resourceId, null, "rev-" + key, "fp-" + key,
+                "text/xml", Collections.emptyMap(), 1000L, content.getBytes(StandardCharsets.UTF_8),
+                Collections.emptyMap());
+    }
+}
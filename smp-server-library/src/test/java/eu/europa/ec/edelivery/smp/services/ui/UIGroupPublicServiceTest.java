@@ -28,11 +28,15 @@ import eu.europa.ec.edelivery.smp.data.model.user.DBGroupMember;
 import eu.europa.ec.edelivery.smp.data.ui.GroupRO;
 import eu.europa.ec.edelivery.smp.data.ui.MemberRO;
 import eu.europa.ec.edelivery.smp.data.ui.ServiceResult;
+import eu.europa.ec.edelivery.smp.services.resource.ResourceSnapshotStore;
 import eu.europa.ec.edelivery.smp.testutil.TestROUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.List;
 import java.util.UUID;
@@ -48,12 +52,17 @@ class UIGroupPublicServiceTest extends AbstractJunit5BaseDao {
     ConversionService conversionService;
     @Autowired
     GroupMemberDao  groupMemberDao;
+    @SpyBean
+    ResourceSnapshotStore resourceSnapshotStore;
 
     @BeforeEach
     public void prepareDatabase() {
         testUtilsDao.clearData();
         testUtilsDao.createResourceDefinitionsForDomains();
         testUtilsDao.createGroupMemberships();
+
+        ReflectionTestUtils.setField(testInstance, "resourceSnapshotStore", resourceSnapshotStore);
+        Mockito.clearInvocations(resourceSnapshotStore);
     }
 
     @Test
@@ -132,6 +141,8 @@ class UIGroupPublicServiceTest extends AbstractJunit5BaseDao {
         assertEquals(groupRO.getGroupName(), createdGroup.getGroupName());
         assertEquals(groupRO.getVisibility(), createdGroup.getVisibility());
         assertEquals(groupRO.getGroupDescription(), createdGroup.getGroupDescription());
+        // the snapshots of the group resources are not public anymore
+        Mockito.verify(resourceSnapshotStore).clear();
     }
 
     @Test
@@ -20,14 +20,17 @@ package eu.europa.ec.edelivery.smp.services.ui;
 
 import eu.europa.ec.edelivery.smp.data.dao.AbstractJunit5BaseDao;
 import eu.europa.ec.edelivery.smp.data.ui.ResourceSearchRO;
+import eu.europa.ec.edelivery.smp.data.ui.ResourceSearchResult;
 import eu.europa.ec.edelivery.smp.data.ui.ServiceResult;
+import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.services.ui.filters.ResourceFilter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
 
 
 class UIResourceSearchServiceTest extends AbstractJunit5BaseDao {
@@ -61,4 +64,49 @@ class UIResourceSearchServiceTest extends AbstractJunit5BaseDao {
         assertEquals(1, result.getCount().intValue());
     }
 
+    @Test
+    void testGetTableListWithFilterIgnoresCase() {
+        ResourceFilter filter = new ResourceFilter();
+        filter.setIdentifierValueLike(testUtilsDao.getResourceD1G1RD1().getIdentifierValue().toUpperCase());
+
+        ServiceResult<ResourceSearchRO> result = testInstance.getTableList(-1, -1, null, null, filter);
+        assertNotNull(result);
+        assertEquals(1, result.getCount().intValue());
+    }
+
+    @Test
+    void testGetTableListByCursor() {
+        ResourceFilter filter = new ResourceFilter();
+
+        ResourceSearchResult firstPage = testInstance.getTableListByCursor(null, 1, filter);
+        assertEquals(2, firstPage.getCount().intValue());
+        assertFalse(firstPage.isCountLimited());
+        assertEquals(1, firstPage.getServiceEntities().size());
+        assertNotNull(firstPage.getNextCursor());
+
+        ResourceSearchResult secondPage = testInstance.getTableListByCursor(firstPage.getNextCursor(), 1, filter);
+        assertEquals(1, secondPage.getServiceEntities().size());
+        assertNull(secondPage.getNextCursor());
+        assertNotEquals(firstPage.getServiceEntities().get(0).getId(), secondPage.getServiceEntities().get(0).getId());
+        // the count is computed only for the first page
+        assertNull(secondPage.getCount());
+    }
+
+    @Test
+    void testGetTableListByCursorAllResources() {
+        ResourceFilter filter = new ResourceFilter();
+
+        ResourceSearchResult result = testInstance.getTableListByCursor("", 10, filter);
+        assertEquals(2, result.getServiceEntities().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void testGetTableListByCursorInvalid() {
+        ResourceFilter filter = new ResourceFilter();
+
+        SMPRuntimeException result = assertThrows(SMPRuntimeException.class,
+                () -> testInstance.getTableListByCursor("invalid-cursor", 10, filter));
+        assertThat(result.getMessage(), containsString("SearchCursor"));
+    }
 }
@@ -31,12 +31,16 @@ import eu.europa.ec.edelivery.smp.data.ui.ResourceRO;
 import eu.europa.ec.edelivery.smp.data.ui.ServiceResult;
 import eu.europa.ec.edelivery.smp.exceptions.ErrorCode;
 import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
+import eu.europa.ec.edelivery.smp.services.resource.ResourceResponseCache;
 import eu.europa.ec.edelivery.smp.testutil.TestROUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.UUID;
 
@@ -56,12 +60,17 @@ class UIResourceServiceTest extends AbstractJunit5BaseDao {
     ResourceMemberDao resourceMemberDao;
     @Autowired
     ConversionService conversionService;
+    @SpyBean
+    ResourceResponseCache resourceResponseCache;
 
     @BeforeEach
     public void prepareDatabase() {
         // setup initial data!
         testUtilsDao.clearData();
         testUtilsDao.createResourceMemberships();
+
+        ReflectionTestUtils.setField(testInstance, "resourceResponseCache", resourceResponseCache);
+        Mockito.clearInvocations(resourceResponseCache);
     }
 
     @Test
@@ -180,6 +189,8 @@ class UIResourceServiceTest extends AbstractJunit5BaseDao {
         assertEquals(testResource.getIdentifierValue(), result.getIdentifierValue());
         assertEquals(testResource.getIdentifierScheme(), result.getIdentifierScheme());
         assertEquals(VisibilityType.PRIVATE, result.getVisibility());
+        // the responses and the snapshots of the resource are not public anymore
+        Mockito.verify(resourceResponseCache, Mockito.atLeastOnce()).evictResource(dbResource.getId());
     }
 
 
@@ -249,6 +260,7 @@ class UIResourceServiceTest extends AbstractJunit5BaseDao {
         testInstance.deleteResourceFromGroup(resourceId, testUtilsDao.getGroupD1G1().getId(), testUtilsDao.getD1().getId());
         // then
         assertNull(resourceDao.find(resourceId));
+        Mockito.verify(resourceResponseCache, Mockito.atLeastOnce()).evictResource(resourceId);
     }
 
 
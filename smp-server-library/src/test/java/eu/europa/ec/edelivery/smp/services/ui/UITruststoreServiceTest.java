@@ -24,6 +24,7 @@ import eu.europa.ec.edelivery.smp.data.ui.CertificateRO;
 import eu.europa.ec.edelivery.smp.exceptions.CertificateNotTrustedException;
 import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.services.CRLVerifierService;
+import eu.europa.ec.edelivery.smp.services.CacheEventService;
 import eu.europa.ec.edelivery.smp.services.ConfigurationService;
 import eu.europa.ec.edelivery.smp.testutil.X509CertificateTestUtils;
 import org.apache.commons.io.FileUtils;
@@ -65,8 +66,9 @@ class UITruststoreServiceTest {
     CRLVerifierService crlVerifierService = Mockito.mock(CRLVerifierService.class);
     ConversionService conversionService = Mockito.mock(ConversionService.class);
     UserDao userDao = Mockito.mock(UserDao.class);
+    CacheEventService cacheEventService = Mockito.mock(CacheEventService.class);
 
-    UITruststoreService testInstance = spy(new UITruststoreService(configurationService, crlVerifierService, conversionService, userDao));
+    UITruststoreService testInstance = spy(new UITruststoreService(configurationService, crlVerifierService, conversionService, userDao, cacheEventService));
 
     @BeforeEach
     public void setup() throws IOException {
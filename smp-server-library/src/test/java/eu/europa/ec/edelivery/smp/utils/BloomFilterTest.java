@@ -0,0 +1,102 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void testAddedValuesAreFound() {
+        BloomFilter testInstance = new BloomFilter(1000, 0.01);
+
+        for (int i = 0; i < 1000; i++) {
+            testInstance.add("iso6523-actorid-upis::0088:" + i);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(testInstance.mightContain("iso6523-actorid-upis::0088:" + i));
+        }
+        assertEquals(1000, testInstance.getSize());
+        assertFalse(testInstance.isSaturated());
+    }
+
+    @Test
+    void testFalsePositiveRate() {
+        BloomFilter testInstance = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            testInstance.add(UUID.randomUUID().toString());
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (testInstance.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        // expected ~100 false positives
+        assertTrue(falsePositives < 200, "False positive count: " + falsePositives);
+    }
+
+    @Test
+    void testEmptyAndShortValues() {
+        BloomFilter testInstance = new BloomFilter(10, 0.01);
+
+        assertFalse(testInstance.mightContain(""));
+        testInstance.add("");
+        testInstance.add("a");
+
+        assertTrue(testInstance.mightContain(""));
+        assertTrue(testInstance.mightContain("a"));
+        assertFalse(testInstance.mightContain("A"));
+    }
+
+    @Test
+    void testSaturated() {
+        BloomFilter testInstance = new BloomFilter(2, 0.01);
+        testInstance.add("a");
+        testInstance.add("b");
+        assertFalse(testInstance.isSaturated());
+
+        testInstance.add("c");
+
+        assertTrue(testInstance.isSaturated());
+    }
+
+    @Test
+    void testSizing() {
+        BloomFilter testInstance = new BloomFilter(1000, 0.01);
+
+        // m = -n ln(p)/ln(2)^2 = 9586 bits rounded up to the 64-bit words, k = m/n ln(2) = 7
+        assertEquals(9600, testInstance.getBitCount());
+        assertEquals(7, testInstance.getHashCount());
+        assertEquals(1000, testInstance.getExpectedCapacity());
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 1));
+    }
+}
@@ -0,0 +1,83 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpCacheUtilsTest {
+
+    private static final Instant LAST_MODIFIED = Instant.parse("2024-03-01T10:15:30.250Z");
+
+    @Test
+    void testCreateETag() {
+        String eTag = HttpCacheUtils.createETag("1|sig-key|rsa-sha256");
+
+        assertTrue(eTag.matches("\"[0-9a-f]{32}\""), eTag);
+        assertEquals(eTag, HttpCacheUtils.createETag("1|sig-key|rsa-sha256"));
+        assertNotEquals(eTag, HttpCacheUtils.createETag("2|sig-key|rsa-sha256"));
+    }
+
+    @Test
+    void testCreateCacheControl() {
+        assertEquals("public, max-age=600", HttpCacheUtils.createCacheControl(true, 600));
+        assertEquals("public, no-cache", HttpCacheUtils.createCacheControl(true, 0));
+        assertEquals("private, no-cache", HttpCacheUtils.createCacheControl(false, -1));
+    }
+
+    @Test
+    void testIsNotModifiedIfNoneMatch() {
+        String eTag = HttpCacheUtils.createETag("fingerprint");
+
+        assertTrue(HttpCacheUtils.isNotModified(eTag, null, eTag, LAST_MODIFIED));
+        assertTrue(HttpCacheUtils.isNotModified("\"other\", W/" + eTag, null, eTag, LAST_MODIFIED));
+        assertTrue(HttpCacheUtils.isNotModified("*", null, eTag, LAST_MODIFIED));
+        assertFalse(HttpCacheUtils.isNotModified("\"other\"", null, eTag, LAST_MODIFIED));
+    }
+
+    @Test
+    void testIsNotModifiedIfNoneMatchHasPrecedence() {
+        String eTag = HttpCacheUtils.createETag("fingerprint");
+        String since = httpDate(LAST_MODIFIED);
+
+        assertFalse(HttpCacheUtils.isNotModified("\"other\"", since, eTag, LAST_MODIFIED));
+    }
+
+    @Test
+    void testIsNotModifiedIfModifiedSince() {
+        String eTag = HttpCacheUtils.createETag("fingerprint");
+
+        // the HTTP date has the second precision
+        assertTrue(HttpCacheUtils.isNotModified(null, httpDate(LAST_MODIFIED), eTag, LAST_MODIFIED));
+        assertTrue(HttpCacheUtils.isNotModified(null, httpDate(LAST_MODIFIED.plusSeconds(60)), eTag, LAST_MODIFIED));
+        assertFalse(HttpCacheUtils.isNotModified(null, httpDate(LAST_MODIFIED.minusSeconds(1)), eTag, LAST_MODIFIED));
+        assertFalse(HttpCacheUtils.isNotModified(null, "invalid date", eTag, LAST_MODIFIED));
+        assertFalse(HttpCacheUtils.isNotModified(null, httpDate(LAST_MODIFIED), eTag, null));
+        assertFalse(HttpCacheUtils.isNotModified(null, null, eTag, LAST_MODIFIED));
+    }
+
+    private static String httpDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(instant.atOffset(ZoneOffset.UTC));
+    }
+}
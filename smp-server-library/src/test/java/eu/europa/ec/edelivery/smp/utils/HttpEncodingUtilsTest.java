@@ -0,0 +1,69 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.utils;
+
+import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpEncodingUtilsTest {
+
+    @Test
+    void testNegotiateEncoding() {
+        assertEquals("gzip", HttpEncodingUtils.negotiateEncoding("gzip"));
+        assertEquals("gzip", HttpEncodingUtils.negotiateEncoding("deflate, GZIP, br"));
+        assertEquals("gzip", HttpEncodingUtils.negotiateEncoding("br;q=1.0, gzip;q=0.8, *;q=0.1"));
+        assertEquals("gzip", HttpEncodingUtils.negotiateEncoding("*"));
+        assertEquals("gzip", HttpEncodingUtils.negotiateEncoding("identity;q=0.5, gzip;q=0.5"));
+    }
+
+    @Test
+    void testNegotiateEncodingIdentity() {
+        assertNull(HttpEncodingUtils.negotiateEncoding(null));
+        assertNull(HttpEncodingUtils.negotiateEncoding(""));
+        assertNull(HttpEncodingUtils.negotiateEncoding("identity"));
+        assertNull(HttpEncodingUtils.negotiateEncoding("br, deflate"));
+        assertNull(HttpEncodingUtils.negotiateEncoding("gzip;q=0"));
+        assertNull(HttpEncodingUtils.negotiateEncoding("gzip;q=0.5, identity"));
+        assertNull(HttpEncodingUtils.negotiateEncoding("gzip;q=invalid"));
+        assertNull(HttpEncodingUtils.negotiateEncoding("*;q=0"));
+    }
+
+    @Test
+    void testEncodeGzip() throws IOException {
+        byte[] content = "<ServiceGroup>test</ServiceGroup>".getBytes(StandardCharsets.UTF_8);
+
+        byte[] result = HttpEncodingUtils.encode(HttpEncodingUtils.ENCODING_GZIP, content);
+
+        assertArrayEquals(content, IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(result))));
+    }
+
+    @Test
+    void testEncodeUnsupported() {
+        byte[] content = new byte[0];
+        assertThrows(SMPRuntimeException.class, () -> HttpEncodingUtils.encode("br", content));
+    }
+}
@@ -0,0 +1,64 @@
+/*-
+ * #START_LICENSE#
+ * smp-server-library
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SMPThreadFactoryTest {
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty(SMPThreadFactory.PROPERTY_VIRTUAL_THREADS_ENABLED);
+    }
+
+    @Test
+    void testNewThreadPlatform() {
+        SMPThreadFactory testInstance = new SMPThreadFactory("test-worker-");
+
+        Thread thread1 = testInstance.newThread(() -> {
+        });
+        Thread thread2 = testInstance.newThread(() -> {
+        });
+
+        assertFalse(testInstance.isVirtual());
+        assertEquals("test-worker-1", thread1.getName());
+        assertEquals("test-worker-2", thread2.getName());
+        assertTrue(thread1.isDaemon());
+    }
+
+    @Test
+    void testNewThreadVirtualEnabled() throws InterruptedException {
+        System.setProperty(SMPThreadFactory.PROPERTY_VIRTUAL_THREADS_ENABLED, "true");
+        SMPThreadFactory testInstance = new SMPThreadFactory("test-worker-");
+        // virtual threads are supported from java 21, otherwise the platform threads are used
+        boolean virtualSupported = SMPThreadFactory.createVirtualThreadFactory("test") != null;
+
+        Thread thread = testInstance.newThread(() -> {
+        });
+        thread.start();
+        thread.join();
+
+        assertEquals(virtualSupported, testInstance.isVirtual());
+        assertEquals("test-worker-1", thread.getName());
+        assertTrue(thread.isDaemon());
+    }
+}
@@ -24,13 +24,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Stream;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 class StringNamedSubstitutorTest {
 
@@ -98,4 +104,53 @@ class StringNamedSubstitutorTest {
         //then
         assertEquals(serviceGroupWithUt8, resolved);
     }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'The quick ${FOX_COLOR fox', 'The quick ${FOX_COLOR fox'",
+            "'The quick ${FOX COLOR} fox', 'The quick ${FOX COLOR} fox'",
+            "'The quick $${FOX_COLOR} fox', 'The quick $red fox'",
+            "'The quick ${FOX_COLOR}${FOX_COLOR} fox', 'The quick redred fox'",
+            "'${FOX_COLOR}', 'red'",
+    })
+    void resolveEdgeCases(String testString, String expected) {
+        Map<String, String> mapVal = new HashMap<>();
+        mapVal.put("fox_color", "red");
+
+        String result = StringNamedSubstitutor.resolve(testString, mapVal);
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void testTemplateWithoutPlaceholdersReturnsContent() throws IOException {
+        byte[] content = "The quick red fox jumps over the slow dog".getBytes(StandardCharsets.UTF_8);
+        // when
+        StringNamedSubstitutor.Template template = StringNamedSubstitutor.compile(content, "UTF-8");
+        //then
+        assertFalse(template.hasPlaceholders());
+        assertEquals(content.length, template.getSize());
+        assertArrayEquals(content, IOUtils.toByteArray(template.render(Collections.emptyMap())));
+    }
+
+    @Test
+    void testTemplateRenderedWithDifferentValues() throws IOException, UnsupportedEncodingException {
+        String serviceGroupWithUt8 = URLDecoder.decode(SERVICE_GROUP_WITH_UTF8, "UTF-8");
+        StringNamedSubstitutor.Template template = StringNamedSubstitutor.compile(serviceGroupWithUt8.getBytes(StandardCharsets.UTF_8), "UTF-8");
+        Map<String, String> mapProperties = new HashMap<>();
+        mapProperties.put(TransientDocumentPropertyType.RESOURCE_IDENTIFIER_SCHEME.getPropertyName(), "scheme");
+        assertTrue(template.hasPlaceholders());
+
+        for (String value : new String[]{"value1", "value2"}) {
+            mapProperties.put(TransientDocumentPropertyType.RESOURCE_IDENTIFIER_VALUE.getPropertyName(), value);
+            // when
+            String resolved = new String(IOUtils.toByteArray(template.render(mapProperties)), StandardCharsets.UTF_8);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            template.render(mapProperties, outputStream);
+            //then
+            assertEquals(resolved, new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+            Assertions.assertThat(resolved)
+                    .contains("<ParticipantIdentifier scheme=\"scheme\">" + value + "</ParticipantIdentifier>")
+                    .contains(URLDecoder.decode(TEST_UTF8_STRING, "UTF-8"));
+        }
+    }
 }
@@ -29,13 +29,10 @@ import org.xml.sax.SAXException;
 
 import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.stream.XMLInputFactory;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import java.io.*;
@@ -48,7 +45,7 @@ import static eu.europa.ec.smp.spi.exceptions.ResourceException.ErrorCode.INVALI
  */
 public final class DomUtils {
 
-    public static final String DISALLOW_DOCTYPE_FEATURE = "http://apache.org/xml/features/disallow-doctype-decl";
+    public static final String DISALLOW_DOCTYPE_FEATURE = XmlProcessingUtils.DISALLOW_DOCTYPE_FEATURE;
 
     /**
      * Class has only static members. Is not meant to create instances  - also SONAR warning.
@@ -58,8 +55,7 @@ public final class DomUtils {
     }
 
     private static final String NS = "http://docs.oasis-open.org/bdxr/ns/SMP/2016/05";
-    private static final String DOC_SIGNED_SERVICE_METADATA_EMPTY = "<SignedServiceMetadata xmlns=\"" + NS + "\"/>";
-    private static final String PARSER_DISALLOW_DTD_PARSING_FEATURE = "http://apache.org/xml/features/disallow-doctype-decl";
+    private static final String SIGNED_SERVICE_METADATA_ELEMENT = "SignedServiceMetadata";
     private static final Logger LOG = LoggerFactory.getLogger(DomUtils.class);
 
     /**
@@ -72,7 +68,8 @@ public final class DomUtils {
         LOG.debug("toSignedSubresource10Document");
         try {
             Document docServiceMetadata = parse(serviceMetadataXml);
-            Document root = parse(DOC_SIGNED_SERVICE_METADATA_EMPTY.getBytes());
+            Document root = docServiceMetadata.getImplementation().createDocument(NS, SIGNED_SERVICE_METADATA_ELEMENT, null);
+            root.getDocumentElement().setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, XMLConstants.XMLNS_ATTRIBUTE, NS);
             Node imported = root.importNode(docServiceMetadata.getDocumentElement(), true);
             root.getDocumentElement().appendChild(imported);
             return root;
@@ -87,36 +84,38 @@ public final class DomUtils {
             throw new ResourceException(INVALID_RESOURCE, "Invalid serviceMetadataXml: null");
         }
         LOG.debug("Parse document with size [{}]", subresourceXml.length);
-        InputStream inputStream = new ByteArrayInputStream(subresourceXml);
-        return getDocumentBuilder().parse(inputStream);
+        DocumentBuilder documentBuilder = XmlProcessingUtils.borrowDocumentBuilder();
+        try {
+            return documentBuilder.parse(new ByteArrayInputStream(subresourceXml));
+        } finally {
+            XmlProcessingUtils.releaseDocumentBuilder(documentBuilder);
+        }
     }
 
     public static String toString(Document doc) throws TransformerException {
-        Transformer transformer = createNewSecureTransformer();
         StringWriter writer = new StringWriter();
-        transformer.transform(new DOMSource(doc), new StreamResult(writer));
+        transform(doc, new StreamResult(writer));
         return writer.toString();
     }
 
     public static byte[] toByteArray(Document doc) throws TransformerException {
         LOG.debug("Convert document to byte array");
-        Transformer transformer = createNewSecureTransformer();
         ByteArrayOutputStream stream = new ByteArrayOutputStream();
-        transformer.transform(new DOMSource(doc), new StreamResult(stream));
+        transform(doc, new StreamResult(stream));
         return stream.toByteArray();
     }
 
     public static void serialize(Document doc, OutputStream outputStream) throws TransformerException {
-        Transformer transformer = createNewSecureTransformer();
-        transformer.transform(new DOMSource(doc), new StreamResult(outputStream));
+        transform(doc, new StreamResult(outputStream));
     }
 
-    private static DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
-        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-        dbf.setNamespaceAware(true);
-        dbf.setValidating(true);
-        dbf.setFeature(PARSER_DISALLOW_DTD_PARSING_FEATURE, true);
-        return dbf.newDocumentBuilder();
+    private static void transform(Document doc, StreamResult result) throws TransformerException {
+        Transformer transformer = XmlProcessingUtils.borrowTransformer();
+        try {
+            transformer.transform(new DOMSource(doc), result);
+        } finally {
+            XmlProcessingUtils.releaseTransformer(transformer);
+        }
     }
 
     /**
@@ -125,37 +124,6 @@ public final class DomUtils {
      * @throws TransformerConfigurationException
      */
     public static Transformer createNewSecureTransformer() throws TransformerConfigurationException {
-        TransformerFactory factory = TransformerFactory.newInstance();
-        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-        // generic secure file processing
-        setConfigurationOption(factory, XMLInputFactory.SUPPORT_DTD, false);
-        setConfigurationOption(factory, XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
-        setConfigurationOption(factory, DISALLOW_DOCTYPE_FEATURE, true);
-        setAttributeOption(factory, XMLConstants.ACCESS_EXTERNAL_DTD, "");
-        setAttributeOption(factory, XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
-        return factory.newTransformer();
-    }
-
-    /**
-     * Set configuration option to the factor. If the feature is not supported by the factory,
-     * the feature is ignored.
-     * @param factory transformer factory
-     * @param feature feature to set
-     * @param value value to set
-     */
-    protected static void setConfigurationOption(TransformerFactory factory, String feature, boolean value) {
-        try {
-            factory.setFeature(feature, value);
-        } catch (UnsupportedOperationException | TransformerConfigurationException e) {
-            LOG.warn("TransformerFactory initialization error. The feature [{}] is not supported by current factory. The feature is ignored.", feature);
-        }
-    }
-
-    protected static void setAttributeOption(TransformerFactory factory, String feature, Object value) {
-        try {
-            factory.setAttribute(feature, value);
-        } catch (IllegalArgumentException e) {
-            LOG.warn("TransformerFactory initialization error. The attribute [{}] is not supported by current factory. The feature is ignored.", feature);
-        }
+        return XmlProcessingUtils.newSecureTransformer();
     }
 }
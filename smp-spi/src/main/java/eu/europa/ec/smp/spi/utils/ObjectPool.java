@@ -0,0 +1,80 @@
+/*-
+ * #START_LICENSE#
+ * smp-spi
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.smp.spi.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Simple bounded pool of the objects which are expensive to create and are not thread-safe, as for example
+ * JAXB marshallers, XML document builders and transformers. The object is borrowed from the pool and must be
+ * returned to the pool after use. If the pool is empty, a new object is created; if the pool is full, the returned
+ * object is discarded.
+ *
+ * @param <T> the type of pooled objects
+ * @since 5.2
+ */
+public final class ObjectPool<T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ObjectPool.class);
+
+    private final BlockingQueue<T> pool;
+    private final Supplier<T> factory;
+    private final Consumer<T> reset;
+
+    /**
+     * Create new object pool.
+     *
+     * @param maxIdle the maximum number of the idle objects kept in the pool
+     * @param factory the factory creating new objects
+     * @param reset   the action resetting the object to its initial state before it is returned to the pool
+     */
+    public ObjectPool(int maxIdle, Supplier<T> factory, Consumer<T> reset) {
+        this.pool = new ArrayBlockingQueue<>(Math.max(1, maxIdle));
+        this.factory = factory;
+        this.reset = reset;
+    }
+
+    public T borrow() {
+        T object = pool.poll();
+        return object != null ? object : factory.get();
+    }
+
+    public void release(T object) {
+        if (object == null) {
+            return;
+        }
+        try {
+            reset.accept(object);
+        } catch (RuntimeException e) {
+            LOG.debug("Can not reset the pooled object [{}]. The object is discarded!", object, e);
+            return;
+        }
+        pool.offer(object);
+    }
+
+    public int getIdleCount() {
+        return pool.size();
+    }
+}
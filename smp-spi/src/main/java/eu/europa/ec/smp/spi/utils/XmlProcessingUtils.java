@@ -0,0 +1,454 @@
+/*-
+ * #START_LICENSE#
+ * smp-spi
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.smp.spi.utils;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.XmlSeeAlso;
+import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapters;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.transform.Source;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The shared XML infrastructure for the resource extensions. The class keeps one JAXB context per root class and one
+ * compiled schema per XSD location, and pools the objects which are not thread-safe: JAXB marshallers and
+ * unmarshallers, secure DOM document builders, secure transformers and schema validators. The pooled objects are
+ * borrowed and must be released after use. Before the JAXB marshaller or unmarshaller is returned to the pool, the
+ * schema, event handler, listener, attachment handler and the adapters of the JAXB model are reset. For example:
+ * <pre>
+ * Unmarshaller unmarshaller = XmlProcessingUtils.borrowUnmarshaller(CPP.class);
+ * try {
+ *     return (CPP) unmarshaller.unmarshal(document);
+ * } finally {
+ *     XmlProcessingUtils.releaseUnmarshaller(CPP.class, unmarshaller);
+ * }
+ * </pre>
+ *
+ * @since 5.2
+ */
+public final class XmlProcessingUtils {
+
+    private static final Logger LOG = LoggerFactory.getLogger(XmlProcessingUtils.class);
+    public static final String DISALLOW_DOCTYPE_FEATURE = "http://apache.org/xml/features/disallow-doctype-decl";
+    private static final int POOL_MAX_IDLE = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+
+    private static final Map<Class<?>, JAXBContext> JAXB_CONTEXTS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, ObjectPool<Marshaller>> MARSHALLER_POOLS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, ObjectPool<Unmarshaller>> UNMARSHALLER_POOLS = new ConcurrentHashMap<>();
+    private static final Map<String, Schema> SCHEMAS = new ConcurrentHashMap<>();
+    private static final Map<Schema, ObjectPool<Validator>> VALIDATOR_POOLS = new ConcurrentHashMap<>();
+
+    private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = createSecureDocumentBuilderFactory();
+    private static final TransformerFactory TRANSFORMER_FACTORY = createSecureTransformerFactory();
+    private static final ObjectPool<DocumentBuilder> DOCUMENT_BUILDER_POOL = new ObjectPool<>(POOL_MAX_IDLE,
+            XmlProcessingUtils::createDocumentBuilder, DocumentBuilder::reset);
+    private static final ObjectPool<Transformer> TRANSFORMER_POOL = new ObjectPool<>(POOL_MAX_IDLE,
+            XmlProcessingUtils::createTransformer, Transformer::reset);
+
+    /**
+     * Class has only static members. Is not meant to create instances  - also SONAR warning.
+     */
+    private XmlProcessingUtils() {
+    }
+
+    /**
+     * Returns the shared JAXB context for the root class. The JAXB context is thread-safe and is created only once.
+     *
+     * @param rootClass the JAXB root class
+     * @return JAXB context
+     */
+    public static JAXBContext getJAXBContext(Class<?> rootClass) {
+        return JAXB_CONTEXTS.computeIfAbsent(rootClass, clazz -> {
+            LOG.debug("Create JAXB context for class [{}]", clazz);
+            try {
+                return JAXBContext.newInstance(clazz);
+            } catch (JAXBException ex) {
+                throw new IllegalStateException("Can not create JAXB context for class [" + clazz + "]! Error: "
+                        + ExceptionUtils.getRootCauseMessage(ex), ex);
+            }
+        });
+    }
+
+    public static Marshaller borrowMarshaller(Class<?> rootClass) {
+        return MARSHALLER_POOLS.computeIfAbsent(rootClass, clazz -> {
+            Set<Class<? extends XmlAdapter>> adapterTypes = getAdapterTypes(clazz);
+            return new ObjectPool<>(POOL_MAX_IDLE, () -> createMarshaller(clazz),
+                    marshaller -> resetMarshaller(marshaller, adapterTypes));
+        }).borrow();
+    }
+
+    public static void releaseMarshaller(Class<?> rootClass, Marshaller marshaller) {
+        ObjectPool<Marshaller> pool = MARSHALLER_POOLS.get(rootClass);
+        if (pool != null) {
+            pool.release(marshaller);
+        }
+    }
+
+    public static Unmarshaller borrowUnmarshaller(Class<?> rootClass) {
+        return UNMARSHALLER_POOLS.computeIfAbsent(rootClass, clazz -> {
+            Set<Class<? extends XmlAdapter>> adapterTypes = getAdapterTypes(clazz);
+            return new ObjectPool<>(POOL_MAX_IDLE, () -> createUnmarshaller(clazz),
+                    unmarshaller -> resetUnmarshaller(unmarshaller, adapterTypes));
+        }).borrow();
+    }
+
+    public static void releaseUnmarshaller(Class<?> rootClass, Unmarshaller unmarshaller) {
+        ObjectPool<Unmarshaller> pool = UNMARSHALLER_POOLS.get(rootClass);
+        if (pool != null) {
+            pool.release(unmarshaller);
+        }
+    }
+
+    /**
+     * Returns the secure, namespace aware document builder with disabled doctype declarations.
+     *
+     * @return pooled document builder
+     */
+    public static DocumentBuilder borrowDocumentBuilder() {
+        return DOCUMENT_BUILDER_POOL.borrow();
+    }
+
+    public static void releaseDocumentBuilder(DocumentBuilder documentBuilder) {
+        DOCUMENT_BUILDER_POOL.release(documentBuilder);
+    }
+
+    /**
+     * Returns the transformer with secure processing and disabled doctype declarations, external DTDs and schemas.
+     *
+     * @return pooled transformer
+     */
+    public static Transformer borrowTransformer() {
+        return TRANSFORMER_POOL.borrow();
+    }
+
+    public static void releaseTransformer(Transformer transformer) {
+        TRANSFORMER_POOL.release(transformer);
+    }
+
+    /**
+     * Create new transformer from the shared secure transformer factory.
+     *
+     * @return new transformer
+     * @throws TransformerConfigurationException if the transformer can not be created
+     */
+    public static Transformer newSecureTransformer() throws TransformerConfigurationException {
+        synchronized (TRANSFORMER_FACTORY) {
+            return TRANSFORMER_FACTORY.newTransformer();
+        }
+    }
+
+    /**
+     * Returns compiled schema for the XSD location. The schema is thread-safe and is compiled only once.
+     *
+     * @param xsdLocation the XSD location
+     * @return compiled schema
+     */
+    public static Schema getSchema(URL xsdLocation) {
+        if (xsdLocation == null) {
+            throw new IllegalArgumentException("XSD location must not be null!");
+        }
+        return SCHEMAS.computeIfAbsent(xsdLocation.toExternalForm(), location -> {
+            LOG.debug("Compile XML schema [{}]", location);
+            SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            try {
+                return schemaFactory.newSchema(xsdLocation);
+            } catch (SAXException ex) {
+                throw new IllegalStateException("Unable to initialize XSD schema [" + location + "]! Error: "
+                        + ExceptionUtils.getRootCauseMessage(ex), ex);
+            }
+        });
+    }
+
+    /**
+     * Validate the XML source against the schema with the pooled validator. The validator does not resolve the
+     * external DTDs and schemas.
+     *
+     * @param schema the compiled schema
+     * @param source the XML source to validate
+     * @throws SAXException if the XML is not valid
+     * @throws IOException  if the source can not be read
+     */
+    public static void validate(Schema schema, Source source) throws SAXException, IOException {
+        ObjectPool<Validator> pool = VALIDATOR_POOLS.computeIfAbsent(schema, key -> new ObjectPool<>(POOL_MAX_IDLE,
+                () -> createValidator(key), XmlProcessingUtils::resetValidator));
+        Validator validator = pool.borrow();
+        try {
+            validator.validate(source);
+        } finally {
+            pool.release(validator);
+        }
+    }
+
+    private static Marshaller createMarshaller(Class<?> rootClass) {
+        try {
+            return getJAXBContext(rootClass).createMarshaller();
+        } catch (JAXBException ex) {
+            throw new IllegalStateException("Can not create JAXB marshaller for class [" + rootClass + "]! Error: "
+                    + ExceptionUtils.getRootCauseMessage(ex), ex);
+        }
+    }
+
+    private static void resetMarshaller(Marshaller marshaller, Set<Class<? extends XmlAdapter>> adapterTypes) {
+        try {
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.FALSE);
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.FALSE);
+            marshaller.setSchema(null);
+            marshaller.setEventHandler(null);
+        } catch (JAXBException ex) {
+            throw new IllegalStateException("Can not reset JAXB marshaller! Error: "
+                    + ExceptionUtils.getRootCauseMessage(ex), ex);
+        }
+        marshaller.setListener(null);
+        marshaller.setAttachmentMarshaller(null);
+        adapterTypes.forEach(adapterType -> marshaller.setAdapter(adapterType, null));
+    }
+
+    private static Unmarshaller createUnmarshaller(Class<?> rootClass) {
+        try {
+            return getJAXBContext(rootClass).createUnmarshaller();
+        } catch (JAXBException ex) {
+            throw new IllegalStateException("Can not create JAXB unmarshaller for class [" + rootClass + "]! Error: "
+                    + ExceptionUtils.getRootCauseMessage(ex), ex);
+        }
+    }
+
+    private static void resetUnmarshaller(Unmarshaller unmarshaller, Set<Class<? extends XmlAdapter>> adapterTypes) {
+        unmarshaller.setSchema(null);
+        try {
+            unmarshaller.setEventHandler(null);
+        } catch (JAXBException ex) {
+            throw new IllegalStateException("Can not reset JAXB unmarshaller! Error: "
+                    + ExceptionUtils.getRootCauseMessage(ex), ex);
+        }
+        unmarshaller.setListener(null);
+        unmarshaller.setAttachmentUnmarshaller(null);
+        adapterTypes.forEach(adapterType -> unmarshaller.setAdapter(adapterType, null));
+    }
+
+    /**
+     * Returns the adapter types declared with the {@link XmlJavaTypeAdapter} annotations in the JAXB model of the root
+     * class. The JAXB API does not list the adapters set to the marshaller or unmarshaller, therefore the pooled
+     * objects are reset by setting the default adapter for all adapter types the model can use.
+     *
+     * @param rootClass the JAXB root class
+     * @return the adapter types of the JAXB model
+     */
+    private static Set<Class<? extends XmlAdapter>> getAdapterTypes(Class<?> rootClass) {
+        Set<Class<? extends XmlAdapter>> adapterTypes = new HashSet<>();
+        Set<Class<?>> visited = new HashSet<>();
+        Deque<Class<?>> classes = new ArrayDeque<>();
+        classes.add(rootClass);
+        while (!classes.isEmpty()) {
+            Class<?> clazz = classes.poll();
+            if (clazz.isPrimitive() || clazz.getName().startsWith("java.") || clazz.getName().startsWith("javax.")
+                    || !visited.add(clazz)) {
+                continue;
+            }
+            addAdapterTypes(adapterTypes, clazz);
+            addAdapterTypes(adapterTypes, clazz.getPackage());
+            addModelType(classes, clazz.getGenericSuperclass());
+            XmlSeeAlso seeAlso = clazz.getAnnotation(XmlSeeAlso.class);
+            if (seeAlso != null) {
+                Arrays.stream(seeAlso.value()).forEach(classes::add);
+            }
+            for (Field field : clazz.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())
+                        || field.isAnnotationPresent(XmlTransient.class)) {
+                    continue;
+                }
+                addAdapterTypes(adapterTypes, field);
+                addModelType(classes, field.getGenericType());
+            }
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (isJaxbAnnotated(method)) {
+                    addAdapterTypes(adapterTypes, method);
+                    addModelType(classes, method.getGenericReturnType());
+                }
+            }
+        }
+        LOG.debug("JAXB model of the class [{}] uses adapters [{}]", rootClass, adapterTypes);
+        return adapterTypes;
+    }
+
+    private static void addAdapterTypes(Set<Class<? extends XmlAdapter>> adapterTypes, AnnotatedElement element) {
+        if (element == null) {
+            return;
+        }
+        XmlJavaTypeAdapter adapter = element.getAnnotation(XmlJavaTypeAdapter.class);
+        if (adapter != null) {
+            adapterTypes.add(adapter.value());
+        }
+        XmlJavaTypeAdapters adapters = element.getAnnotation(XmlJavaTypeAdapters.class);
+        if (adapters != null) {
+            Arrays.stream(adapters.value()).forEach(value -> adapterTypes.add(value.value()));
+        }
+    }
+
+    private static void addModelType(Deque<Class<?>> classes, Type type) {
+        if (type instanceof Class) {
+            Class<?> clazz = (Class<?>) type;
+            classes.add(clazz.isArray() ? clazz.getComponentType() : clazz);
+        } else if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            addModelType(classes, parameterizedType.getRawType());
+            Arrays.stream(parameterizedType.getActualTypeArguments()).forEach(argument -> addModelType(classes, argument));
+        } else if (type instanceof GenericArrayType) {
+            addModelType(classes, ((GenericArrayType) type).getGenericComponentType());
+        } else if (type instanceof WildcardType) {
+            Arrays.stream(((WildcardType) type).getUpperBounds()).forEach(bound -> addModelType(classes, bound));
+        }
+    }
+
+    private static boolean isJaxbAnnotated(AnnotatedElement element) {
+        for (Annotation annotation : element.getAnnotations()) {
+            if (annotation.annotationType().getName().startsWith("javax.xml.bind.annotation.")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Validator createValidator(Schema schema) {
+        Validator validator = schema.newValidator();
+        resetValidator(validator);
+        return validator;
+    }
+
+    private static void resetValidator(Validator validator) {
+        validator.reset();
+        try {
+            validator.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+            validator.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+        } catch (SAXException ex) {
+            throw new IllegalStateException("Can not set secure validator properties! Error: "
+                    + ExceptionUtils.getRootCauseMessage(ex), ex);
+        }
+    }
+
+    private static DocumentBuilder createDocumentBuilder() {
+        try {
+            synchronized (DOCUMENT_BUILDER_FACTORY) {
+                return DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+            }
+        } catch (ParserConfigurationException ex) {
+            throw new IllegalStateException("Can not create new XML Document builder! Error: ["
+                    + ExceptionUtils.getRootCauseMessage(ex) + "]", ex);
+        }
+    }
+
+    private static Transformer createTransformer() {
+        try {
+            return newSecureTransformer();
+        } catch (TransformerConfigurationException ex) {
+            throw new IllegalStateException("Can not create new XML Transformer! Error: ["
+                    + ExceptionUtils.getRootCauseMessage(ex) + "]", ex);
+        }
+    }
+
+    private static DocumentBuilderFactory createSecureDocumentBuilderFactory() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setValidating(true);
+        setConfigurationOption(factory, DISALLOW_DOCTYPE_FEATURE, true);
+        setConfigurationOption(factory, XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        return factory;
+    }
+
+    private static TransformerFactory createSecureTransformerFactory() {
+        TransformerFactory factory = TransformerFactory.newInstance();
+        setConfigurationOption(factory, XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        // generic secure file processing
+        setConfigurationOption(factory, XMLInputFactory.SUPPORT_DTD, false);
+        setConfigurationOption(factory, XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        setConfigurationOption(factory, DISALLOW_DOCTYPE_FEATURE, true);
+        setAttributeOption(factory, XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        setAttributeOption(factory, XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+        return factory;
+    }
+
+    /**
+     * Set configuration option to the factor. If the feature is not supported by the factory,
+     * the feature is ignored.
+     *
+     * @param factory transformer factory
+     * @param feature feature to set
+     * @param value   value to set
+     */
+    private static void setConfigurationOption(TransformerFactory factory, String feature, boolean value) {
+        try {
+            factory.setFeature(feature, value);
+        } catch (UnsupportedOperationException | TransformerConfigurationException e) {
+            LOG.warn("TransformerFactory initialization error. The feature [{}] is not supported by current factory. The feature is ignored.", feature);
+        }
+    }
+
+    private static void setConfigurationOption(DocumentBuilderFactory factory, String feature, boolean value) {
+        try {
+            factory.setFeature(feature, value);
+        } catch (ParserConfigurationException e) {
+            LOG.warn("DocumentBuilderFactory initialization error. The feature [{}] is not supported by current factory. The feature is ignored.", feature);
+        }
+    }
+
+    private static void setAttributeOption(TransformerFactory factory, String feature, Object value) {
+        try {
+            factory.setAttribute(feature, value);
+        } catch (IllegalArgumentException e) {
+            LOG.warn("TransformerFactory initialization error. The attribute [{}] is not supported by current factory. The feature is ignored.", feature);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*-
+ * #START_LICENSE#
+ * smp-spi
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.smp.spi.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObjectPoolTest {
+
+    private final AtomicInteger createdCount = new AtomicInteger();
+    private final AtomicInteger resetCount = new AtomicInteger();
+
+    @Test
+    void testBorrowCreatesNewObjectIfPoolIsEmpty() {
+        ObjectPool<StringBuilder> testInstance = new ObjectPool<>(2, this::createObject, this::resetObject);
+
+        StringBuilder first = testInstance.borrow();
+        StringBuilder second = testInstance.borrow();
+
+        assertNotSame(first, second);
+        assertEquals(2, createdCount.get());
+        assertEquals(0, testInstance.getIdleCount());
+    }
+
+    @Test
+    void testReleasedObjectIsResetAndReused() {
+        ObjectPool<StringBuilder> testInstance = new ObjectPool<>(2, this::createObject, this::resetObject);
+        StringBuilder object = testInstance.borrow();
+        object.append("test");
+
+        testInstance.release(object);
+
+        assertEquals(1, resetCount.get());
+        assertEquals(1, testInstance.getIdleCount());
+        StringBuilder result = testInstance.borrow();
+        assertSame(object, result);
+        assertEquals(0, result.length());
+        assertEquals(1, createdCount.get());
+        assertEquals(0, testInstance.getIdleCount());
+    }
+
+    @Test
+    void testReleaseDiscardsObjectIfPoolIsFull() {
+        ObjectPool<StringBuilder> testInstance = new ObjectPool<>(1, this::createObject, this::resetObject);
+        StringBuilder first = testInstance.borrow();
+        StringBuilder second = testInstance.borrow();
+
+        testInstance.release(first);
+        testInstance.release(second);
+
+        assertEquals(1, testInstance.getIdleCount());
+        assertSame(first, testInstance.borrow());
+        assertNotSame(second, testInstance.borrow());
+        assertEquals(3, createdCount.get());
+    }
+
+    @Test
+    void testReleaseDiscardsObjectIfResetFails() {
+        ObjectPool<StringBuilder> testInstance = new ObjectPool<>(2, this::createObject, object -> {
+            throw new IllegalStateException("Test reset error");
+        });
+        StringBuilder object = testInstance.borrow();
+
+        testInstance.release(object);
+
+        assertEquals(0, testInstance.getIdleCount());
+        assertNotSame(object, testInstance.borrow());
+        assertEquals(2, createdCount.get());
+    }
+
+    @Test
+    void testReleaseIgnoresNull() {
+        ObjectPool<StringBuilder> testInstance = new ObjectPool<>(2, this::createObject, this::resetObject);
+
+        testInstance.release(null);
+
+        assertEquals(0, resetCount.get());
+        assertEquals(0, testInstance.getIdleCount());
+    }
+
+    private StringBuilder createObject() {
+        createdCount.incrementAndGet();
+        return new StringBuilder();
+    }
+
+    private void resetObject(StringBuilder object) {
+        resetCount.incrementAndGet();
+        object.setLength(0);
+    }
+}
@@ -0,0 +1,178 @@
+/*-
+ * #START_LICENSE#
+ * smp-spi
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.smp.spi.utils;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.ValidationEventHandler;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.SchemaFactory;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XmlProcessingUtilsTest {
+
+    private static final String DOCTYPE_XML = "<?xml version=\"1.0\"?><!DOCTYPE test [<!ENTITY value \"entity\">]>"
+            + "<test>&value;</test>";
+    private static final String EXTERNAL_DTD_XML = "<?xml version=\"1.0\"?>"
+            + "<!DOCTYPE test SYSTEM \"http://localhost/test.dtd\"><test>value</test>";
+
+    @Test
+    void testDocumentBuilderRejectsDoctype() {
+        DocumentBuilder documentBuilder = XmlProcessingUtils.borrowDocumentBuilder();
+        try {
+            assertTrue(documentBuilder.isNamespaceAware());
+            SAXException result = assertThrows(SAXException.class,
+                    () -> documentBuilder.parse(new InputSource(new StringReader(DOCTYPE_XML))));
+            assertTrue(result.getMessage().contains("DOCTYPE"), result.getMessage());
+        } finally {
+            XmlProcessingUtils.releaseDocumentBuilder(documentBuilder);
+        }
+    }
+
+    @Test
+    void testDocumentBuilderIsReused() throws Exception {
+        DocumentBuilder documentBuilder = XmlProcessingUtils.borrowDocumentBuilder();
+        XmlProcessingUtils.releaseDocumentBuilder(documentBuilder);
+
+        DocumentBuilder result = XmlProcessingUtils.borrowDocumentBuilder();
+        try {
+            assertSame(documentBuilder, result);
+            Document document = result.parse(new InputSource(new StringReader("<test>value</test>")));
+            assertEquals("value", document.getDocumentElement().getTextContent());
+        } finally {
+            XmlProcessingUtils.releaseDocumentBuilder(result);
+        }
+    }
+
+    @Test
+    void testTransformerRejectsExternalDtd() {
+        Transformer transformer = XmlProcessingUtils.borrowTransformer();
+        try {
+            assertThrows(TransformerException.class, () -> transformer.transform(
+                    new StreamSource(new StringReader(EXTERNAL_DTD_XML)), new StreamResult(new StringWriter())));
+        } finally {
+            XmlProcessingUtils.releaseTransformer(transformer);
+        }
+    }
+
+    @Test
+    void testReleaseUnmarshallerResetsHandlers() throws Exception {
+        TestAdapter adapter = new TestAdapter();
+        ValidationEventHandler eventHandler = event -> true;
+        Unmarshaller unmarshaller = XmlProcessingUtils.borrowUnmarshaller(TestElement.class);
+        unmarshaller.setSchema(SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema());
+        unmarshaller.setEventHandler(eventHandler);
+        unmarshaller.setListener(new Unmarshaller.Listener() {
+        });
+        unmarshaller.setAdapter(TestAdapter.class, adapter);
+
+        XmlProcessingUtils.releaseUnmarshaller(TestElement.class, unmarshaller);
+
+        Unmarshaller result = XmlProcessingUtils.borrowUnmarshaller(TestElement.class);
+        try {
+            assertSame(unmarshaller, result);
+            assertNull(result.getSchema());
+            assertNotSame(eventHandler, result.getEventHandler());
+            assertNull(result.getListener());
+            assertNull(result.getAttachmentUnmarshaller());
+            assertNotSame(adapter, result.getAdapter(TestAdapter.class));
+        } finally {
+            XmlProcessingUtils.releaseUnmarshaller(TestElement.class, result);
+        }
+    }
+
+    @Test
+    void testReleaseMarshallerResetsHandlers() throws Exception {
+        TestAdapter adapter = new TestAdapter();
+        ValidationEventHandler eventHandler = event -> true;
+        Marshaller marshaller = XmlProcessingUtils.borrowMarshaller(TestElement.class);
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+        marshaller.setEventHandler(eventHandler);
+        marshaller.setListener(new Marshaller.Listener() {
+        });
+        marshaller.setAdapter(TestAdapter.class, adapter);
+
+        XmlProcessingUtils.releaseMarshaller(TestElement.class, marshaller);
+
+        Marshaller result = XmlProcessingUtils.borrowMarshaller(TestElement.class);
+        try {
+            assertSame(marshaller, result);
+            assertEquals(Boolean.FALSE, result.getProperty(Marshaller.JAXB_FORMATTED_OUTPUT));
+            assertNotSame(eventHandler, result.getEventHandler());
+            assertNull(result.getListener());
+            assertNotSame(adapter, result.getAdapter(TestAdapter.class));
+        } finally {
+            XmlProcessingUtils.releaseMarshaller(TestElement.class, result);
+        }
+    }
+
+    @Test
+    void testUnmarshalWithPooledUnmarshaller() throws Exception {
+        Unmarshaller unmarshaller = XmlProcessingUtils.borrowUnmarshaller(TestElement.class);
+        TestElement result;
+        try {
+            result = (TestElement) unmarshaller.unmarshal(new StringReader("<test><values>a,b</values></test>"));
+        } finally {
+            XmlProcessingUtils.releaseUnmarshaller(TestElement.class, unmarshaller);
+        }
+
+        assertEquals(2, result.values.size());
+        assertEquals("b", result.values.get(1));
+    }
+
+    @XmlRootElement(name = "test")
+    @XmlAccessorType(XmlAccessType.FIELD)
+    static class TestElement {
+        @XmlJavaTypeAdapter(TestAdapter.class)
+        List<String> values;
+    }
+
+    static class TestAdapter extends XmlAdapter<String, List<String>> {
+        @Override
+        public List<String> unmarshal(String value) {
+            return value == null ? Collections.emptyList() : Arrays.asList(value.split(","));
+        }
+
+        @Override
+        public String marshal(List<String> value) {
+            return value == null ? null : String.join(",", value);
+        }
+    }
+}
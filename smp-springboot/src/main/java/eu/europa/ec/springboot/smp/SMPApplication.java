@@ -34,9 +34,13 @@ import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactor
 import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 
 /**
@@ -52,14 +56,25 @@ import java.io.IOException;
 public class SMPApplication implements ApplicationRunner {
 
     private static final String APPLICATION_NAME = "smp.war";
+    /**
+     * Enables the virtual thread execution mode (Java 21+): the Tomcat requests and the SMP internal worker pools
+     * are executed on the virtual threads. The property is also passed to the SMP application as system property.
+     */
+    public static final String PROPERTY_VIRTUAL_THREADS_ENABLED = "smp.threads.virtual.enabled";
+    /**
+     * The virtual thread pinning diagnostics: 'short' or 'full' stack trace of the pinned virtual thread
+     * (sets the jdk.tracePinnedThreads property).
+     */
+    public static final String PROPERTY_VIRTUAL_THREADS_TRACE_PINNED = "smp.threads.virtual.trace-pinned";
+    private static final String JDK_TRACE_PINNED_THREADS = "jdk.tracePinnedThreads";
 
     private static final Logger LOG = LoggerFactory.getLogger(SMPApplication.class);
 
     private static ConfigurableApplicationContext APPLICATION_CONTEXT;
 
     @Bean
-    public TomcatServletWebServerFactory servletContainerFactory() {
-        return new TomcatServletWebServerFactory() {
+    public TomcatServletWebServerFactory servletContainerFactory(Environment environment) {
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory() {
 
             @Override
             protected TomcatWebServer getTomcatWebServer(Tomcat tomcat) {
@@ -76,6 +91,43 @@ public class SMPApplication implements ApplicationRunner {
                 return super.getTomcatWebServer(tomcat);
             }
         };
+
+        if (environment.getProperty(PROPERTY_VIRTUAL_THREADS_ENABLED, Boolean.class, Boolean.FALSE)) {
+            configureVirtualThreads(factory, environment.getProperty(PROPERTY_VIRTUAL_THREADS_TRACE_PINNED));
+        }
+        return factory;
+    }
+
+    /**
+     * Configures the Tomcat connector to execute requests on the virtual threads and enables the virtual threads for
+     * the SMP internal worker pools. If the JVM does not support the virtual threads, the default Tomcat thread pool
+     * is used.
+     *
+     * @param factory     the tomcat server factory
+     * @param tracePinned the value of the jdk.tracePinnedThreads property (short, full) or null
+     */
+    protected void configureVirtualThreads(TomcatServletWebServerFactory factory, String tracePinned) {
+        // must be set before the first virtual thread is created
+        if (tracePinned != null && !tracePinned.trim().isEmpty() && System.getProperty(JDK_TRACE_PINNED_THREADS) == null) {
+            System.setProperty(JDK_TRACE_PINNED_THREADS, tracePinned.trim());
+        }
+        ExecutorService executor;
+        try {
+            // the application is built with Java 8: Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("smp-http-", 1).factory())
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "smp-http-", 1L);
+            ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            executor = (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.warn("Virtual threads are not supported by the JVM [{}]. Use the platform thread pool!", System.getProperty("java.version"));
+            return;
+        }
+        LOG.info("Execute the requests on the virtual threads (pinned thread trace: [{}]).", System.getProperty(JDK_TRACE_PINNED_THREADS));
+        // the SMP worker pools (eu.europa.ec.edelivery.smp.utils.SMPThreadFactory) read the system property
+        System.setProperty(PROPERTY_VIRTUAL_THREADS_ENABLED, Boolean.TRUE.toString());
+        factory.addProtocolHandlerCustomizers(protocolHandler -> protocolHandler.setExecutor(executor));
     }
 
 
@@ -0,0 +1,305 @@
+/*-
+ * #START_LICENSE#
+ * smp-webapp
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * 
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.config;
+
+
+import eu.europa.ec.edelivery.smp.auth.ResponseDelayContext;
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import org.springframework.web.filter.GenericFilterBean;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The filter sends the delayed authentication failure responses without blocking the request thread. The filter
+ * opens the {@link ResponseDelayContext} for the request, and the response written after the delay was requested
+ * is buffered. When the request processing is finished, the filter starts the asynchronous processing and the
+ * buffered response is sent by the timer thread when the delay expires, so the delayed requests do not occupy the
+ * servlet container threads.
+ * <p>
+ * If the asynchronous processing is not possible (the response was already committed, the error was sent with
+ * sendError or the request does not support the asynchronous processing), the request thread waits for the
+ * remaining delay as before.
+ *
+ * @since 5.2
+ */
+public class ResponseDelayFilter extends GenericFilterBean {
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(ResponseDelayFilter.class);
+    // the async timeout must not expire before the delayed response is sent
+    private static final long ASYNC_TIMEOUT_MARGIN_MS = 30000;
+
+    private final ScheduledExecutorService delayScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "response-delay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        if (!(request instanceof HttpServletRequest) || !(response instanceof HttpServletResponse)
+                || request.getDispatcherType() != DispatcherType.REQUEST) {
+            chain.doFilter(request, response);
+            return;
+        }
+        ResponseDelayContext delayContext = ResponseDelayContext.open();
+        DelayedResponseWrapper responseWrapper = new DelayedResponseWrapper((HttpServletResponse) response, delayContext);
+        try {
+            chain.doFilter(request, responseWrapper);
+        } catch (IOException | ServletException | RuntimeException e) {
+            // the error response is sent by the container
+            waitForDelay(delayContext.getRemainingDelayInMillis());
+            throw e;
+        } finally {
+            ResponseDelayContext.close();
+        }
+
+        long delay = delayContext.getRemainingDelayInMillis();
+        if (delay <= 0) {
+            responseWrapper.copyToResponse();
+            return;
+        }
+        if (!responseWrapper.isDeferrable() || !request.isAsyncSupported() || request.isAsyncStarted()) {
+            LOG.debug("Response can not be delayed asynchronously. Wait [{}] ms!", delay);
+            waitForDelay(delay);
+            responseWrapper.copyToResponse();
+            return;
+        }
+
+        LOG.debug("Send response asynchronously after [{}] ms!", delay);
+        AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(delay + ASYNC_TIMEOUT_MARGIN_MS);
+        try {
+            delayScheduler.schedule(() -> sendDelayedResponse(responseWrapper, asyncContext), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Response delay scheduler is stopped. Wait for [{}] ms!", delay);
+            waitForDelay(delay);
+            sendDelayedResponse(responseWrapper, asyncContext);
+        }
+    }
+
+    protected void sendDelayedResponse(DelayedResponseWrapper responseWrapper, AsyncContext asyncContext) {
+        try {
+            responseWrapper.copyToResponse();
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Error occurred while sending the delayed response!", e);
+        } finally {
+            asyncContext.complete();
+        }
+    }
+
+    protected void waitForDelay(long delayInMS) {
+        if (delayInMS <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delayInMS);
+        } catch (InterruptedException ie) {
+            LOG.debug("Thread interrupted during sleep.", ie);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        delayScheduler.shutdownNow();
+    }
+
+    /**
+     * Response wrapper which buffers the response written after the response delay was requested. The response
+     * written before the delay was requested is sent directly to the client.
+     */
+    static class DelayedResponseWrapper extends HttpServletResponseWrapper {
+        private final HttpServletResponse response;
+        private final ResponseDelayContext delayContext;
+        private ByteArrayOutputStream buffer;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+        private boolean passThrough = false;
+        private Integer errorStatus;
+        private String errorMessage;
+        private String redirectLocation;
+
+        DelayedResponseWrapper(HttpServletResponse response, ResponseDelayContext delayContext) {
+            super(response);
+            this.response = response;
+            this.delayContext = delayContext;
+        }
+
+        /**
+         * Returns true if the response is buffered. The decision is made with the first write to the response.
+         */
+        private boolean isBuffering() {
+            if (buffer != null) {
+                return true;
+            }
+            if (passThrough || !delayContext.isDelayed()) {
+                passThrough = true;
+                return false;
+            }
+            buffer = new ByteArrayOutputStream();
+            return true;
+        }
+
+        boolean isDeferrable() {
+            return !passThrough && errorStatus == null && !response.isCommitted();
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (!isBuffering()) {
+                return super.getOutputStream();
+            }
+            if (outputStream == null) {
+                outputStream = new BufferedServletOutputStream(buffer);
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (!isBuffering()) {
+                return super.getWriter();
+            }
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(buffer, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            if (!isBuffering()) {
+                super.sendError(sc, msg);
+                return;
+            }
+            errorStatus = sc;
+            errorMessage = msg;
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            sendError(sc, null);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            if (!isBuffering()) {
+                super.sendRedirect(location);
+                return;
+            }
+            redirectLocation = location;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (!isBuffering()) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public boolean isCommitted() {
+            return super.isCommitted() || errorStatus != null || redirectLocation != null;
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            resetBuffer();
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (buffer != null) {
+                if (writer != null) {
+                    writer.flush();
+                }
+                buffer.reset();
+            }
+        }
+
+        /**
+         * Sends the buffered response to the client.
+         */
+        void copyToResponse() throws IOException {
+            if (errorStatus != null) {
+                if (errorMessage == null) {
+                    response.sendError(errorStatus);
+                } else {
+                    response.sendError(errorStatus, errorMessage);
+                }
+                return;
+            }
+            if (redirectLocation != null) {
+                response.sendRedirect(redirectLocation);
+                return;
+            }
+            if (buffer == null) {
+                return;
+            }
+            if (writer != null) {
+                writer.flush();
+            }
+            if (buffer.size() > 0) {
+                response.getOutputStream().write(buffer.toByteArray());
+            }
+            response.flushBuffer();
+        }
+    }
+
+    private static class BufferedServletOutputStream extends ServletOutputStream {
+        private final ByteArrayOutputStream buffer;
+
+        BufferedServletOutputStream(ByteArrayOutputStream buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new UnsupportedOperationException("Write listener is not supported by the delayed response!");
+        }
+
+        @Override
+        public void write(int b) {
+            buffer.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            buffer.write(b, off, len);
+        }
+    }
+}
@@ -20,10 +20,17 @@ package eu.europa.ec.edelivery.smp.config;
 
 
 import eu.europa.ec.edelivery.smp.cron.SMPDynamicCronTrigger;
+import eu.europa.ec.edelivery.smp.cron.SMPJobResult;
+import eu.europa.ec.edelivery.smp.cron.SMPJobType;
 import eu.europa.ec.edelivery.smp.data.dao.ConfigurationDao;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.services.AlertMailService;
+import eu.europa.ec.edelivery.smp.services.CacheEventService;
 import eu.europa.ec.edelivery.smp.services.CredentialValidatorService;
+import eu.europa.ec.edelivery.smp.services.SMLOutboxService;
+import eu.europa.ec.edelivery.smp.services.SMPJobService;
+import eu.europa.ec.edelivery.smp.utils.SMPThreadFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
@@ -37,9 +44,16 @@ import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
+import static eu.europa.ec.edelivery.smp.cron.CronTriggerConfig.TRIGGER_BEAN_ALERT_MAIL;
+import static eu.europa.ec.edelivery.smp.cron.CronTriggerConfig.TRIGGER_BEAN_CACHE_EVENTS;
 import static eu.europa.ec.edelivery.smp.cron.CronTriggerConfig.TRIGGER_BEAN_CREDENTIAL_ALERTS;
 import static eu.europa.ec.edelivery.smp.cron.CronTriggerConfig.TRIGGER_BEAN_PROPERTY_REFRESH;
+import static eu.europa.ec.edelivery.smp.cron.CronTriggerConfig.TRIGGER_BEAN_SML_OUTBOX;
 
+/**
+ * The cron task configuration. The scheduler thread only triggers the jobs, and the jobs are executed by the
+ * {@link SMPJobService} on the job pools, so the long-running job does not delay the triggers of the other jobs.
+ */
 @Configuration
 @EnableScheduling
 public class SMPTaskSchedulerConfig implements SchedulingConfigurer {
@@ -47,8 +61,15 @@ public class SMPTaskSchedulerConfig implements SchedulingConfigurer {
 
     final ConfigurationDao configurationDao;
     final CredentialValidatorService credentialValidatorService;
+    final SMLOutboxService smlOutboxService;
+    final AlertMailService alertMailService;
+    final CacheEventService cacheEventService;
+    final SMPJobService jobService;
     final SMPDynamicCronTrigger refreshPropertiesTrigger;
     final SMPDynamicCronTrigger credentialsAlertTrigger;
+    final SMPDynamicCronTrigger smlOutboxTrigger;
+    final SMPDynamicCronTrigger alertMailTrigger;
+    final SMPDynamicCronTrigger cacheEventsTrigger;
 
     ScheduledTaskRegistrar taskRegistrar;
 
@@ -56,18 +77,32 @@ public class SMPTaskSchedulerConfig implements SchedulingConfigurer {
     public SMPTaskSchedulerConfig(
             ConfigurationDao configurationDao,
             CredentialValidatorService credentialValidatorService,
+            SMLOutboxService smlOutboxService,
+            AlertMailService alertMailService,
+            CacheEventService cacheEventService,
+            SMPJobService jobService,
             @Qualifier(TRIGGER_BEAN_PROPERTY_REFRESH) SMPDynamicCronTrigger refreshPropertiesTrigger,
-            @Qualifier(TRIGGER_BEAN_CREDENTIAL_ALERTS) SMPDynamicCronTrigger credentialsAlertTrigger
+            @Qualifier(TRIGGER_BEAN_CREDENTIAL_ALERTS) SMPDynamicCronTrigger credentialsAlertTrigger,
+            @Qualifier(TRIGGER_BEAN_SML_OUTBOX) SMPDynamicCronTrigger smlOutboxTrigger,
+            @Qualifier(TRIGGER_BEAN_ALERT_MAIL) SMPDynamicCronTrigger alertMailTrigger,
+            @Qualifier(TRIGGER_BEAN_CACHE_EVENTS) SMPDynamicCronTrigger cacheEventsTrigger
     ) {
         this.configurationDao = configurationDao;
         this.credentialValidatorService = credentialValidatorService;
+        this.smlOutboxService = smlOutboxService;
+        this.alertMailService = alertMailService;
+        this.cacheEventService = cacheEventService;
+        this.jobService = jobService;
         this.refreshPropertiesTrigger = refreshPropertiesTrigger;
         this.credentialsAlertTrigger = credentialsAlertTrigger;
+        this.smlOutboxTrigger = smlOutboxTrigger;
+        this.alertMailTrigger = alertMailTrigger;
+        this.cacheEventsTrigger = cacheEventsTrigger;
     }
 
     @Bean
     public Executor taskExecutor() {
-        return Executors.newSingleThreadScheduledExecutor();
+        return Executors.newSingleThreadScheduledExecutor(new SMPThreadFactory("smp-scheduler-"));
     }
 
     @Override
@@ -77,19 +112,39 @@ public class SMPTaskSchedulerConfig implements SchedulingConfigurer {
         this.taskRegistrar.setScheduler(taskExecutor());
         LOG.debug("Configure cron task for property refresh");
         this.taskRegistrar.addTriggerTask(
-                () -> {
+                () -> jobService.trigger(SMPJobType.PROPERTY_REFRESH, () -> {
                     configurationDao.refreshProperties();
-                },
+                    return SMPJobResult.EMPTY;
+                }),
                 refreshPropertiesTrigger
         );
 
         LOG.debug("Configure cron task for alerts: credentials validation");
         this.taskRegistrar.addTriggerTask(
-                () -> {
-                    credentialValidatorService.validateCredentials();
-                },
+                () -> jobService.trigger(SMPJobType.CREDENTIAL_VALIDATION,
+                        credentialValidatorService::validateCredentials),
                 credentialsAlertTrigger
         );
+
+        LOG.debug("Configure cron task for SML outbox dispatcher");
+        this.taskRegistrar.addTriggerTask(
+                () -> jobService.trigger(SMPJobType.SML_OUTBOX,
+                        () -> SMPJobResult.of(smlOutboxService.dispatch())),
+                smlOutboxTrigger
+        );
+
+        LOG.debug("Configure cron task for alert mail re-submission");
+        this.taskRegistrar.addTriggerTask(
+                () -> jobService.trigger(SMPJobType.ALERT_MAIL,
+                        () -> SMPJobResult.of(alertMailService.submitDueAlerts())),
+                alertMailTrigger
+        );
+
+        LOG.debug("Configure cron task for cluster cache events");
+        this.taskRegistrar.addTriggerTask(
+                () -> jobService.trigger(SMPJobType.CACHE_EVENTS, cacheEventService::processEvents),
+                cacheEventsTrigger
+        );
     }
 
     public void updateCronTasks() { //call it when you want to change chron
@@ -23,14 +23,21 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.json.JsonMapper;
+import eu.europa.ec.edelivery.smp.config.init.DatabaseConnectionBeanCreator;
 import eu.europa.ec.edelivery.smp.filter.FilterHandler;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
 import org.ehcache.jsr107.EhcacheCachingProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.jcache.JCacheCacheManager;
 import org.springframework.context.annotation.*;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.format.FormatterRegistry;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.ResourceHttpMessageConverter;
@@ -39,8 +46,9 @@ import org.springframework.web.servlet.config.annotation.*;
 import org.springframework.web.util.UrlPathHelper;
 
 import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
 import java.io.IOException;
-import java.net.URISyntaxException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.List;
@@ -66,7 +74,7 @@ import java.util.TimeZone;
  * <tr><td>error</td><td>smp-webapp</td><td>SMPWebAppConfig</td></tr>
  * <tr><td>identifiers</td><td>smp-server-library</td><td>No beans</td></tr>
  * <tr><td>logging</td><td>smp-server-library</td><td>No beans</td></tr>
- * <tr><td>monitor</td><td>smp-webapp</td><td>SMPWebAppConfig</td></tr>
+ * <tr><td>monitor</td><td>smp-server-library/smp-webapp</td><td>SMPWebAppConfig</td></tr>
  * <tr><td>security</td><td>smp-server-library</td><td>ServicesBeansConfiguration</td></tr>
  * <tr><td>services</td><td>smp-server-library</td><td>ServicesBeansConfiguration</td></tr>
  * <tr><td>servlet</td><td>smp-server-library</td><td>No beans</td></tr>
@@ -100,7 +108,6 @@ import java.util.TimeZone;
 public class SMPWebAppConfig implements WebMvcConfigurer {
     private static final Logger LOG = LoggerFactory.getLogger(SMPWebAppConfig.class);
     private static final int HIGHEST_ORDER = Integer.MAX_VALUE;
-    private static final String EHCACHE_CONFIG_LOCATION = "/ehcache-default.xml";
 
     @Override
     public void addCorsMappings(CorsRegistry registry) {
@@ -162,16 +169,39 @@ public class SMPWebAppConfig implements WebMvcConfigurer {
     }
 
     @Bean
-    public JCacheCacheManager cacheManager() throws URISyntaxException, IOException {
-        EhcacheCachingProvider provider = new EhcacheCachingProvider(); //NOSONAR : if this would be closed here (with try-with-resources or in a finally block), it would crash with IllegalStateException everywhere it'll be used further
-        ClassLoader classLoader = getClass().getClassLoader();
-        //default cache
-        final ClassPathResource classPathResource = new ClassPathResource(EHCACHE_CONFIG_LOCATION);
-
+    public JCacheCacheManager cacheManager() throws IOException {
+        // the provider and the cache manager are shared with the hibernate second-level cache (see smp.database.cache.enabled)
+        CachingProvider provider = Caching.getCachingProvider(EhcacheCachingProvider.class.getName()); //NOSONAR : if this would be closed here (with try-with-resources or in a finally block), it would crash with IllegalStateException everywhere it'll be used further
+        ClassLoader classLoader = provider.getDefaultClassLoader();
+        // the same configuration URI and class loader as the hibernate second-level cache
         CacheManager cacheManager = provider.getCacheManager(
-                classPathResource.getURL().toURI(),
+                DatabaseConnectionBeanCreator.getCacheConfigUri(),
                 classLoader);
-
+        // expose the cache hit and miss statistics (the statistics are enabled in the ehcache configuration)
+        for (String cacheName : cacheManager.getCacheNames()) {
+            JCacheMetrics.monitor(Metrics.globalRegistry, cacheManager.getCache(cacheName));
+        }
         return new JCacheCacheManager(cacheManager);
     }
+
+    /**
+     * The Prometheus registry is added to the Micrometer global registry where the DomiSMP services record the
+     * metrics. The metrics are exposed in the Prometheus text format by the /monitor/metrics endpoint.
+     */
+    @Bean(destroyMethod = "close")
+    public PrometheusMeterRegistry prometheusMeterRegistry() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT) {
+            @Override
+            public void close() {
+                // remove the registry from the global registry when application context is closed
+                Metrics.removeRegistry(this);
+                super.close();
+            }
+        };
+        new JvmMemoryMetrics().bindTo(registry);
+        new JvmThreadMetrics().bindTo(registry);
+        new ProcessorMetrics().bindTo(registry);
+        Metrics.addRegistry(registry);
+        return registry;
+    }
 }
@@ -43,6 +43,7 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.annotation.web.configurers.ExceptionHandlingConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.access.channel.ChannelProcessingFilter;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.security.web.csrf.CsrfTokenRepository;
@@ -71,6 +72,7 @@ public class UISecurityConfigurerAdapter extends WebSecurityConfigurerAdapter {
 
     SMPAuthenticationProviderForUI smpAuthenticationProviderForUI;
     MDCLogRequestFilter mdcLogRequestFilter;
+    ResponseDelayFilter responseDelayFilter;
 
     CsrfTokenRepository csrfTokenRepository;
     HttpFirewall httpFirewall;
@@ -81,6 +83,7 @@ public class UISecurityConfigurerAdapter extends WebSecurityConfigurerAdapter {
     public UISecurityConfigurerAdapter(SMPAuthenticationProviderForUI smpAuthenticationProviderForUI,
                                        ConfigurationService configurationService,
                                        @Lazy MDCLogRequestFilter mdcLogRequestFilter,
+                                       @Lazy ResponseDelayFilter responseDelayFilter,
                                        @Lazy CsrfTokenRepository csrfTokenRepository,
                                        @Lazy RequestMatcher csrfURLMatcher,
                                        @Lazy HttpFirewall httpFirewall
@@ -89,6 +92,7 @@ public class UISecurityConfigurerAdapter extends WebSecurityConfigurerAdapter {
         this.configurationService = configurationService;
         this.smpAuthenticationProviderForUI = smpAuthenticationProviderForUI;
         this.mdcLogRequestFilter = mdcLogRequestFilter;
+        this.responseDelayFilter = responseDelayFilter;
         this.csrfTokenRepository = csrfTokenRepository;
         this.csrfURLMatcher = csrfURLMatcher;
         this.httpFirewall = httpFirewall;
@@ -112,6 +116,7 @@ public class UISecurityConfigurerAdapter extends WebSecurityConfigurerAdapter {
                 .xssProtection().xssProtectionEnabled(true).and()
                 .and();
         httpSecurity
+                .addFilterBefore(responseDelayFilter, ChannelProcessingFilter.class)
                 .addFilterAfter(mdcLogRequestFilter, BasicAuthenticationFilter.class)
                 .httpBasic().authenticationEntryPoint(smpSecurityExceptionHandler).and() // username
                 .anonymous().authorities(SMPAuthority.S_AUTHORITY_ANONYMOUS.getAuthority()).and()
@@ -198,6 +203,11 @@ public class UISecurityConfigurerAdapter extends WebSecurityConfigurerAdapter {
         return filter;
     }
 
+    @Bean
+    public ResponseDelayFilter getResponseDelayFilter() {
+        return new ResponseDelayFilter();
+    }
+
     @Bean
     public CsrfTokenRepository tokenRepository() {
         return CookieCsrfTokenRepository.withHttpOnlyFalse();
@@ -218,6 +228,7 @@ public class UISecurityConfigurerAdapter extends WebSecurityConfigurerAdapter {
         requestMatcher.addIgnoreUrl("/ui/.*", HttpMethod.GET);
         // monitor
         requestMatcher.addIgnoreUrl("/monitor/is-alive", HttpMethod.GET);
+        requestMatcher.addIgnoreUrl("/monitor/metrics", HttpMethod.GET);
         return requestMatcher;
     }
 
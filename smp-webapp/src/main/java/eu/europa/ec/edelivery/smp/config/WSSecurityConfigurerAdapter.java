@@ -52,6 +52,7 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.annotation.web.configurers.ExceptionHandlingConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.access.channel.ChannelProcessingFilter;
 import org.springframework.security.web.csrf.CsrfTokenRepository;
 import org.springframework.security.web.firewall.DefaultHttpFirewall;
 import org.springframework.security.web.firewall.HttpFirewall;
@@ -76,6 +77,7 @@ public class WSSecurityConfigurerAdapter extends WebSecurityConfigurerAdapter {
 
     SMPAuthenticationProvider smpAuthenticationProvider;
     MDCLogRequestFilter mdcLogRequestFilter;
+    ResponseDelayFilter responseDelayFilter;
 
     CsrfTokenRepository csrfTokenRepository;
     HttpFirewall httpFirewall;
@@ -94,6 +96,7 @@ public class WSSecurityConfigurerAdapter extends WebSecurityConfigurerAdapter {
     public WSSecurityConfigurerAdapter(SMPAuthenticationProvider smpAuthenticationProvider,
                                        @Lazy ConfigurationService configurationService,
                                        @Lazy MDCLogRequestFilter mdcLogRequestFilter,
+                                       @Lazy ResponseDelayFilter responseDelayFilter,
                                        @Lazy CsrfTokenRepository csrfTokenRepository,
                                        @Lazy RequestMatcher csrfURLMatcher,
                                        @Lazy HttpFirewall httpFirewall,
@@ -106,6 +109,7 @@ public class WSSecurityConfigurerAdapter extends WebSecurityConfigurerAdapter {
         this.configurationService = configurationService;
         this.smpAuthenticationProvider = smpAuthenticationProvider;
         this.mdcLogRequestFilter = mdcLogRequestFilter;
+        this.responseDelayFilter = responseDelayFilter;
         this.csrfTokenRepository = csrfTokenRepository;
         this.csrfURLMatcher = csrfURLMatcher;
         this.httpFirewall = httpFirewall;
@@ -141,6 +145,7 @@ public class WSSecurityConfigurerAdapter extends WebSecurityConfigurerAdapter {
             httpSecurity = httpSecurity.addFilter(casAuthenticationFilter);
         }
         httpSecurity
+                .addFilterBefore(responseDelayFilter, ChannelProcessingFilter.class)
                 .addFilterAfter(mdcLogRequestFilter, EDeliveryX509AuthenticationFilter.class)
                 .addFilter(getClientCertAuthenticationFilter())
                 .addFilter(getEDeliveryX509AuthenticationFilter());
@@ -31,7 +31,10 @@ import org.springframework.stereotype.Component;
 import java.util.*;
 
 import static eu.europa.ec.edelivery.smp.config.enums.SMPPropertyEnum.SMP_ALERT_CREDENTIALS_CRON;
+import static eu.europa.ec.edelivery.smp.config.enums.SMPPropertyEnum.SMP_ALERT_MAIL_CRON;
+import static eu.europa.ec.edelivery.smp.config.enums.SMPPropertyEnum.SMP_CACHE_EVENTS_CRON;
 import static eu.europa.ec.edelivery.smp.config.enums.SMPPropertyEnum.SMP_PROPERTY_REFRESH_CRON;
+import static eu.europa.ec.edelivery.smp.config.enums.SMPPropertyEnum.SML_OUTBOX_CRON;
 
 /**
  * Property change listener for cron expression. Component updates crone version for the trigger with matching
@@ -100,6 +103,9 @@ public class SMPCronExpressionPropertyUpdateListener implements PropertyUpdateLi
     @Override
     public List<SMPPropertyEnum> handledProperties() {
         return Arrays.asList(SMP_PROPERTY_REFRESH_CRON,
-                SMP_ALERT_CREDENTIALS_CRON);
+                SMP_ALERT_CREDENTIALS_CRON,
+                SMP_ALERT_MAIL_CRON,
+                SML_OUTBOX_CRON,
+                SMP_CACHE_EVENTS_CRON);
     }
 }
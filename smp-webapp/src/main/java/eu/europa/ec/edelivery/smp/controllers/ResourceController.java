@@ -19,9 +19,11 @@
 package eu.europa.ec.edelivery.smp.controllers;
 
 import eu.europa.ec.edelivery.smp.auth.SMPUserDetails;
+import eu.europa.ec.edelivery.smp.data.model.DBDomain;
 import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.monitor.SMPMetrics;
 import eu.europa.ec.edelivery.smp.security.DomainGroupGuard;
 import eu.europa.ec.edelivery.smp.services.resource.ResourceService;
 import eu.europa.ec.edelivery.smp.servlet.ResourceAction;
@@ -30,6 +32,7 @@ import eu.europa.ec.edelivery.smp.servlet.ResourceResponse;
 import eu.europa.ec.edelivery.smp.utils.SessionSecurityUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -72,7 +75,10 @@ public class ResourceController {
             lowerCase(HTTP_PARAM_ADMIN_OBSOLETE),
             lowerCase(HTTP_PARAM_RESOURCE_GROUP),
             lowerCase(HTTP_PARAM_RESOURCE_VISIBILITY),
-            lowerCase(HTTP_PARAM_RESOURCE_TYPE));
+            lowerCase(HTTP_PARAM_RESOURCE_TYPE),
+            lowerCase(HttpHeaders.IF_NONE_MATCH),
+            lowerCase(HttpHeaders.IF_MODIFIED_SINCE),
+            lowerCase(HttpHeaders.ACCEPT_ENCODING));
     final ResourceService resourceService;
     final DomainGroupGuard domainGuard;
 
@@ -145,7 +151,7 @@ public class ResourceController {
      * @throws AuthenticationException if user rejected to access the domain resources
      */
     protected SMPUserDetails authorizeForDomain(ResourceRequest resourceRequest) {
-
+        long start = System.nanoTime();
         SMPUserDetails user = getLoggedInUser();
         // guard check from generic to domain specific
         if (user == null && resourceRequest.getAction() != ResourceAction.READ) {
@@ -155,6 +161,8 @@ public class ResourceController {
         domainGuard.resolveAndAuthorizeForDomain(resourceRequest, user);
         // resolve group and test authorization for the group.
         domainGuard.resolveAndAuthorizeForGroup(resourceRequest, user);
+        DBDomain domain = resourceRequest.getAuthorizedDomain();
+        SMPMetrics.recordStage(SMPMetrics.RequestStage.AUTHORIZE, domain == null ? null : domain.getDomainCode(), start);
         return user;
     }
 
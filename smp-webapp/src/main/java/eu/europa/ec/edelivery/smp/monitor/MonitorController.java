@@ -24,6 +24,8 @@ import eu.europa.ec.edelivery.smp.data.model.DBDomain;
 import eu.europa.ec.edelivery.smp.data.ui.auth.SMPAuthority;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -47,9 +49,11 @@ public class MonitorController {
     private static final SMPLogger LOG = SMPLoggerFactory.getLogger(MonitorController.class);
 
     private final DomainDao domainDao;
+    private final PrometheusMeterRegistry prometheusMeterRegistry;
 
-    public MonitorController(DomainDao domainDao) {
+    public MonitorController(DomainDao domainDao, PrometheusMeterRegistry prometheusMeterRegistry) {
         this.domainDao = domainDao;
+        this.prometheusMeterRegistry = prometheusMeterRegistry;
     }
 
     @GetMapping(path = "/is-alive")
@@ -69,6 +73,18 @@ public class MonitorController {
 
     }
 
+    /**
+     * Returns the DomiSMP metrics in the Prometheus text format.
+     *
+     * @return the metrics scrape
+     */
+    @GetMapping(path = "/metrics", produces = TextFormat.CONTENT_TYPE_004)
+    @Secured({SMPAuthority.S_AUTHORITY_TOKEN_WS_SYSTEM_ADMIN})
+    public String metrics() {
+        LOG.debug("Scrape metrics for user: [{}]", SecurityContextHolder.getContext().getAuthentication().getName());
+        return prometheusMeterRegistry.scrape();
+    }
+
     protected boolean testDatabase() {
         List<DBDomain> lstDomain = domainDao.getAllDomains();
         if (lstDomain.isEmpty()) {
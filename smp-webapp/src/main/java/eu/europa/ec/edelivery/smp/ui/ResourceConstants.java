@@ -89,6 +89,9 @@ public class ResourceConstants {
 
     public static final String PATH_ACTION_SML_REGISTER = "sml-register";
     public static final String PATH_ACTION_SML_UNREGISTER = "sml-unregister";
+    public static final String PATH_ACTION_SML_PROGRESS = "sml-progress";
+    public static final String PATH_ACTION_SML_OUTBOX = "sml-outbox";
+    public static final String PATH_ACTION_SML_OUTBOX_RETRY = "sml-outbox-retry";
 
     // --------------------------------------
     // context paths
@@ -177,6 +180,7 @@ public class ResourceConstants {
     //internal
     public static final String CONTEXT_PATH_INTERNAL_DOMAIN = CONTEXT_PATH_INTERNAL_USERID + PATH_RESOURCE_TYPE_DOMAIN;
     public static final String CONTEXT_PATH_INTERNAL_ALERT = CONTEXT_PATH_INTERNAL + "alert";
+    public static final String CONTEXT_PATH_INTERNAL_JOB = CONTEXT_PATH_INTERNAL + "job";
     public static final String CONTEXT_PATH_INTERNAL_PROPERTY = CONTEXT_PATH_INTERNAL + PATH_RESOURCE_TYPE_PROPERTY;
     public static final String CONTEXT_PATH_INTERNAL_APPLICATION = CONTEXT_PATH_INTERNAL + "application";
     public static final String CONTEXT_PATH_INTERNAL_USER = CONTEXT_PATH_INTERNAL + "user";
@@ -193,6 +197,9 @@ public class ResourceConstants {
     public static final String SUB_CONTEXT_INTERNAL_DOMAIN_UPDATE_SML_DATA=  "/{" + PATH_PARAM_ENC_DOMAIN_ID + "}/" + PATH_ACTION_UPDATE_SML_DATA;
     public static final String SUB_CONTEXT_INTERNAL_DOMAIN_UPDATE_SML_REGISTER=  "/{" + PATH_PARAM_ENC_DOMAIN_ID + "}/" + PATH_ACTION_SML_REGISTER;
     public static final String SUB_CONTEXT_INTERNAL_DOMAIN_UPDATE_SML_UNREGISTER=  "/{" + PATH_PARAM_ENC_DOMAIN_ID + "}/" + PATH_ACTION_SML_UNREGISTER;
+    public static final String SUB_CONTEXT_INTERNAL_DOMAIN_SML_PROGRESS=  "/{" + PATH_PARAM_ENC_DOMAIN_ID + "}/" + PATH_ACTION_SML_PROGRESS;
+    public static final String SUB_CONTEXT_INTERNAL_DOMAIN_SML_OUTBOX=  "/{" + PATH_PARAM_ENC_DOMAIN_ID + "}/" + PATH_ACTION_SML_OUTBOX;
+    public static final String SUB_CONTEXT_INTERNAL_DOMAIN_SML_OUTBOX_RETRY=  "/{" + PATH_PARAM_ENC_DOMAIN_ID + "}/" + PATH_ACTION_SML_OUTBOX_RETRY;
 
     // --------------------------------------
     // parameters
@@ -201,6 +208,7 @@ public class ResourceConstants {
     public static final String PARAM_PAGINATION_FILTER = "filter";
     public static final String PARAM_PAGINATION_ORDER_BY = "orderBy";
     public static final String PARAM_PAGINATION_ORDER_TYPE = "orderType";
+    public static final String PARAM_PAGINATION_CURSOR = "cursor";
     public static final String PARAM_NAME_TYPE = "type";
     public static final String PARAM_NAME_VERSION = "version";
     public static final String PARAM_ROLE = "role";
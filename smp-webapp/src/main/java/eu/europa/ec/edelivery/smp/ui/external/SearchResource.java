@@ -67,7 +67,8 @@ public class SearchResource {
             @RequestParam(value = PARAM_QUERY_PARTC_ID, required = false) String participantIdentifier,
             @RequestParam(value = PARAM_QUERY_PARTC_SCHEME, required = false) String participantScheme,
             @RequestParam(value = PARAM_QUERY_DOMAIN_CODE, required = false) String domainCode,
-            @RequestParam(value = PARAM_QUERY_DOCUMENT_TYPE, required = false) String documentType) {
+            @RequestParam(value = PARAM_QUERY_DOCUMENT_TYPE, required = false) String documentType,
+            @RequestParam(value = PARAM_PAGINATION_CURSOR, required = false) String cursor) {
 
         String participantIdentifierDecoded = decodeUrlToUTF8(participantIdentifier);
         String participantSchemeDecoded = decodeUrlToUTF8(participantScheme);
@@ -84,6 +85,10 @@ public class SearchResource {
         sgf.setDomain(domainDao.validateDomainCode(domainCodeDecoded));
         sgf.setDocumentType(documentTypeDecoded);
 
+        // the cursor parameter (also empty for the first page) switches the search to the keyset pagination
+        if (cursor != null) {
+            return uiServiceGroupService.getTableListByCursor(cursor, pageSize, sgf);
+        }
         return uiServiceGroupService.getTableList(page, pageSize, orderBy, orderType, sgf);
     }
 
@@ -321,6 +321,7 @@ public class UserController {
         node.addChild(new NavigationTreeNodeRO("system-admin-properties", "navigation.label.system.settings.properties", "settings", "properties"));
         // node.addChild(new NavigationTreeNodeRO("system-admin-authentication", "navigation.label.system.settings.authentication", "shield", "authentication"));
         node.addChild(new NavigationTreeNodeRO("system-admin-alert", "navigation.label.system.settings.alerts", "notifications", "alert"));
+        node.addChild(new NavigationTreeNodeRO("system-admin-job", "navigation.label.system.settings.jobs", "schedule", "job"));
         return node;
     }
 
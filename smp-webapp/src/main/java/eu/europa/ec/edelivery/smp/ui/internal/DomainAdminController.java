@@ -21,12 +21,15 @@ package eu.europa.ec.edelivery.smp.ui.internal;
 
 import eu.europa.ec.edelivery.smp.data.ui.DomainPropertyRO;
 import eu.europa.ec.edelivery.smp.data.ui.DomainRO;
+import eu.europa.ec.edelivery.smp.data.ui.SMLIntegrationProgressRO;
 import eu.europa.ec.edelivery.smp.data.ui.SMLIntegrationResult;
+import eu.europa.ec.edelivery.smp.data.ui.SMLOutboxEntryRO;
 import eu.europa.ec.edelivery.smp.data.ui.enums.EntityROStatus;
 import eu.europa.ec.edelivery.smp.exceptions.SMPRuntimeException;
 import eu.europa.ec.edelivery.smp.logging.SMPLogger;
 import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
 import eu.europa.ec.edelivery.smp.services.DomainSMLIntegrationService;
+import eu.europa.ec.edelivery.smp.services.SMLOutboxService;
 import eu.europa.ec.edelivery.smp.services.ui.UIDomainAdminService;
 import eu.europa.ec.edelivery.smp.utils.SessionSecurityUtils;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -52,10 +55,13 @@ public class DomainAdminController {
     private static final SMPLogger LOG = SMPLoggerFactory.getLogger(DomainAdminController.class);
     final UIDomainAdminService uiDomainService;
     final DomainSMLIntegrationService domainService;
+    final SMLOutboxService smlOutboxService;
 
-    public DomainAdminController(UIDomainAdminService uiDomainService, DomainSMLIntegrationService domainService) {
+    public DomainAdminController(UIDomainAdminService uiDomainService, DomainSMLIntegrationService domainService,
+                                 SMLOutboxService smlOutboxService) {
         this.uiDomainService = uiDomainService;
         this.domainService = domainService;
+        this.smlOutboxService = smlOutboxService;
 
     }
 
@@ -144,6 +150,15 @@ public class DomainAdminController {
         return domainRO;
     }
 
+    /**
+     * Method starts the registration of the domain and its participants to the SML in the background. The success
+     * result means that the registration was started, and its progress and result are returned by the
+     * {@link #getSmlIntegrationProgress(String, String)}.
+     *
+     * @param userId      encrypted user identifier
+     * @param domainEncId the encrypted domain identifier
+     * @return the result of starting the registration
+     */
     @PreAuthorize("@smpAuthorizationService.isCurrentlyLoggedIn(#userId) and @smpAuthorizationService.systemAdministrator")
     @PutMapping(value = SUB_CONTEXT_INTERNAL_DOMAIN_UPDATE_SML_REGISTER, produces = MimeTypeUtils.APPLICATION_JSON_VALUE)
     public SMLIntegrationResult registerDomainAndParticipants(@PathVariable(PATH_PARAM_ENC_USER_ID) String userId,
@@ -153,7 +168,7 @@ public class DomainAdminController {
         SMLIntegrationResult result = new SMLIntegrationResult();
         try {
             Long domainId = SessionSecurityUtils.decryptEntityId(domainEncId);
-            domainService.registerDomainAndParticipants(domainId);
+            domainService.startRegisterDomainAndParticipants(domainId);
             result.setSuccess(true);
         } catch (SMPRuntimeException e) {
             result.setSuccess(false);
@@ -163,6 +178,14 @@ public class DomainAdminController {
     }
 
 
+    /**
+     * Method starts the un-registration of the domain and its participants from the SML in the background. See the
+     * {@link #registerDomainAndParticipants(String, String)}.
+     *
+     * @param userId      encrypted user identifier
+     * @param domainEncId the encrypted domain identifier
+     * @return the result of starting the un-registration
+     */
     @PreAuthorize("@smpAuthorizationService.isCurrentlyLoggedIn(#userId) and @smpAuthorizationService.systemAdministrator")
     @PutMapping(value = SUB_CONTEXT_INTERNAL_DOMAIN_UPDATE_SML_UNREGISTER, produces = MimeTypeUtils.APPLICATION_JSON_VALUE)
     public SMLIntegrationResult unregisterDomainAndParticipants(@PathVariable(PATH_PARAM_ENC_USER_ID) String userId,
@@ -172,7 +195,7 @@ public class DomainAdminController {
         SMLIntegrationResult result = new SMLIntegrationResult();
         try {
             Long domainId = SessionSecurityUtils.decryptEntityId(domainEncId);
-            domainService.unregisterDomainAndParticipantsFromSml(domainId);
+            domainService.startUnregisterDomainAndParticipants(domainId);
             result.setSuccess(true);
         } catch (SMPRuntimeException e) {
             result.setSuccess(false);
@@ -181,6 +204,53 @@ public class DomainAdminController {
         return result;
     }
 
+    /**
+     * Method returns the progress of the domain participants registration/un-registration to/from the SML.
+     *
+     * @param userId      encrypted user identifier
+     * @param domainEncId the encrypted domain identifier
+     * @return the SML integration progress for the domain
+     */
+    @PreAuthorize("@smpAuthorizationService.isCurrentlyLoggedIn(#userId) and @smpAuthorizationService.systemAdministrator")
+    @GetMapping(value = SUB_CONTEXT_INTERNAL_DOMAIN_SML_PROGRESS, produces = MimeTypeUtils.APPLICATION_JSON_VALUE)
+    public SMLIntegrationProgressRO getSmlIntegrationProgress(@PathVariable(PATH_PARAM_ENC_USER_ID) String userId,
+                                                              @PathVariable(PATH_PARAM_ENC_DOMAIN_ID) String domainEncId) {
+        Long domainId = SessionSecurityUtils.decryptEntityId(domainEncId);
+        return domainService.getSMLIntegrationProgress(domainId);
+    }
+
+    /**
+     * Method returns the participant registrations/un-registrations of the domain which are not yet sent to the SML.
+     *
+     * @param userId      encrypted user identifier
+     * @param domainEncId the encrypted domain identifier
+     * @return the list of the SML outbox entries
+     */
+    @PreAuthorize("@smpAuthorizationService.isCurrentlyLoggedIn(#userId) and @smpAuthorizationService.systemAdministrator")
+    @GetMapping(value = SUB_CONTEXT_INTERNAL_DOMAIN_SML_OUTBOX, produces = MimeTypeUtils.APPLICATION_JSON_VALUE)
+    public List<SMLOutboxEntryRO> getSmlOutboxEntries(@PathVariable(PATH_PARAM_ENC_USER_ID) String userId,
+                                                      @PathVariable(PATH_PARAM_ENC_DOMAIN_ID) String domainEncId) {
+        Long domainId = SessionSecurityUtils.decryptEntityId(domainEncId);
+        return smlOutboxService.getDomainEntries(domainId);
+    }
+
+    /**
+     * Method schedules the failed SML outbox entries of the domain for the immediate retry.
+     *
+     * @param userId      encrypted user identifier
+     * @param domainEncId the encrypted domain identifier
+     * @return the list of the SML outbox entries
+     */
+    @PreAuthorize("@smpAuthorizationService.isCurrentlyLoggedIn(#userId) and @smpAuthorizationService.systemAdministrator")
+    @PutMapping(value = SUB_CONTEXT_INTERNAL_DOMAIN_SML_OUTBOX_RETRY, produces = MimeTypeUtils.APPLICATION_JSON_VALUE)
+    public List<SMLOutboxEntryRO> retrySmlOutboxEntries(@PathVariable(PATH_PARAM_ENC_USER_ID) String userId,
+                                                        @PathVariable(PATH_PARAM_ENC_DOMAIN_ID) String domainEncId) {
+        LOG.info("Retry failed SML outbox entries for domain: {}, user id {}", domainEncId, userId);
+        Long domainId = SessionSecurityUtils.decryptEntityId(domainEncId);
+        smlOutboxService.retryFailedDomainEntries(domainId);
+        return smlOutboxService.getDomainEntries(domainId);
+    }
+
     /**
      * Method returns ALL domain properties for domain for authenticated/authorized user. If the property is not set
      * default value is returned with isSystemDefault set to true.
@@ -0,0 +1,85 @@
+/*-
+ * #START_LICENSE#
+ * smp-webapp
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * 
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.ui.internal;
+
+
+import eu.europa.ec.edelivery.smp.cron.SMPJobType;
+import eu.europa.ec.edelivery.smp.data.ui.JobStatusRO;
+import eu.europa.ec.edelivery.smp.logging.SMPLogger;
+import eu.europa.ec.edelivery.smp.logging.SMPLoggerFactory;
+import eu.europa.ec.edelivery.smp.services.SMPJobService;
+import eu.europa.ec.edelivery.smp.services.resource.ResourceSnapshotService;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static eu.europa.ec.edelivery.smp.ui.ResourceConstants.CONTEXT_PATH_INTERNAL_JOB;
+
+/**
+ * The scheduled job status controller for the system administrator.
+ *
+ * @since 5.2
+ */
+@RestController
+@RequestMapping(value = CONTEXT_PATH_INTERNAL_JOB)
+public class JobController {
+
+    private static final SMPLogger LOG = SMPLoggerFactory.getLogger(JobController.class);
+
+    final SMPJobService jobService;
+    final ResourceSnapshotService resourceSnapshotService;
+
+    public JobController(SMPJobService jobService, ResourceSnapshotService resourceSnapshotService) {
+        this.jobService = jobService;
+        this.resourceSnapshotService = resourceSnapshotService;
+    }
+
+    /**
+     * Method returns the status and the run statistics of the scheduled jobs on the SMP node which serves the request.
+     *
+     * @param userEncId - user id (encrypted) - used for authorization
+     * @return the list of the job statuses
+     */
+    @GetMapping(path = "/{user-enc-id}", produces = MimeTypeUtils.APPLICATION_JSON_VALUE)
+    @PreAuthorize("@smpAuthorizationService.isCurrentlyLoggedIn(#userEncId) and @smpAuthorizationService.isSystemAdministrator")
+    public List<JobStatusRO> getJobStatusList(@PathVariable("user-enc-id") String userEncId) {
+        LOG.debug("Get job status list for node [{}]", jobService.getNodeId());
+        return jobService.getJobStatusList();
+    }
+
+    /**
+     * Method triggers the revalidation and compaction of the resource snapshots on the SMP node which serves the
+     * request. The progress can be followed in the job status list.
+     *
+     * @param userEncId - user id (encrypted) - used for authorization
+     * @return true if the job run was submitted, false if the previous run is still running
+     */
+    @PostMapping(path = "/{user-enc-id}/resource-snapshot/revalidate", produces = MimeTypeUtils.APPLICATION_JSON_VALUE)
+    @PreAuthorize("@smpAuthorizationService.isCurrentlyLoggedIn(#userEncId) and @smpAuthorizationService.isSystemAdministrator")
+    public boolean revalidateResourceSnapshot(@PathVariable("user-enc-id") String userEncId) {
+        LOG.info("Revalidate resource snapshot on node [{}]", jobService.getNodeId());
+        return jobService.trigger(SMPJobType.RESOURCE_SNAPSHOT_REVALIDATION, resourceSnapshotService::revalidate);
+    }
+}
@@ -0,0 +1,30 @@
+-- drop the cluster cache event table
+DROP TABLE SMP_CACHE_EVENT;
+
+-- drop the domain participants SML registration progress table
+DROP TABLE SMP_DOMAIN_SML_PROGRESS;
+
+-- drop the scheduled job cluster lock table
+DROP TABLE SMP_JOB_LOCK;
+
+-- drop the alert mail submission queue columns
+DROP INDEX SMP_ALERT_STATUS_IDX ON SMP_ALERT;
+ALTER TABLE SMP_ALERT DROP COLUMN ATTEMPT_COUNT;
+ALTER TABLE SMP_ALERT DROP COLUMN NEXT_ATTEMPT_ON;
+ALTER TABLE SMP_ALERT_AUD DROP COLUMN ATTEMPT_COUNT;
+ALTER TABLE SMP_ALERT_AUD DROP COLUMN NEXT_ATTEMPT_ON;
+
+-- drop the SML outbox table
+DROP TABLE SMP_SML_OUTBOX;
+
+-- drop the added indexes
+DROP INDEX SMP_RS_NRM_ID_IDX ON SMP_RESOURCE;
+DROP INDEX SMP_RS_NRM_SCH_IDX ON SMP_RESOURCE;
+DROP INDEX SMP_RS_NRM_IDENT_DOREDEF_IDX ON SMP_RESOURCE;
+DROP INDEX SMP_SRS_NRM_ID_RES_IDX ON SMP_SUBRESOURCE;
+
+-- Drop added columns
+ALTER TABLE SMP_RESOURCE DROP COLUMN NRM_IDENTIFIER_SCHEME;
+ALTER TABLE SMP_RESOURCE DROP COLUMN NRM_IDENTIFIER_VALUE;
+ALTER TABLE SMP_SUBRESOURCE DROP COLUMN NRM_IDENTIFIER_SCHEME;
+ALTER TABLE SMP_SUBRESOURCE DROP COLUMN NRM_IDENTIFIER_VALUE;
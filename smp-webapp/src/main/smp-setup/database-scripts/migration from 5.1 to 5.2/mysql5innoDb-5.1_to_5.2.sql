@@ -0,0 +1,111 @@
+-- update existing tables with new columns
+ALTER TABLE SMP_RESOURCE
+    ADD NRM_IDENTIFIER_SCHEME varchar(256)  CHARACTER SET utf8 COLLATE utf8_bin comment 'Lower-cased identifier scheme for case-insensitive search',
+    ADD NRM_IDENTIFIER_VALUE varchar(256)  CHARACTER SET utf8 COLLATE utf8_bin comment 'Lower-cased identifier value for case-insensitive search';
+
+ALTER TABLE SMP_SUBRESOURCE
+    ADD NRM_IDENTIFIER_SCHEME varchar(500)  CHARACTER SET utf8 COLLATE utf8_bin comment 'Lower-cased identifier scheme for case-insensitive lookup',
+    ADD NRM_IDENTIFIER_VALUE varchar(500)  CHARACTER SET utf8 COLLATE utf8_bin comment 'Lower-cased identifier value for case-insensitive lookup';
+
+-- ----------------------------------------------
+-- set the normalized identifiers used by the public resource search and case-insensitive lookup
+UPDATE SMP_RESOURCE
+    SET NRM_IDENTIFIER_SCHEME = LOWER(IDENTIFIER_SCHEME),
+        NRM_IDENTIFIER_VALUE = LOWER(IDENTIFIER_VALUE);
+
+UPDATE SMP_SUBRESOURCE
+    SET NRM_IDENTIFIER_SCHEME = LOWER(IDENTIFIER_SCHEME),
+        NRM_IDENTIFIER_VALUE = LOWER(IDENTIFIER_VALUE);
+
+-- create constraints and indexes
+create index SMP_RS_NRM_ID_IDX on SMP_RESOURCE (NRM_IDENTIFIER_VALUE);
+create index SMP_RS_NRM_SCH_IDX on SMP_RESOURCE (NRM_IDENTIFIER_SCHEME);
+create index SMP_RS_NRM_IDENT_DOREDEF_IDX on SMP_RESOURCE (NRM_IDENTIFIER_VALUE, NRM_IDENTIFIER_SCHEME, FK_DOREDEF_ID);
+create index SMP_SRS_NRM_ID_RES_IDX on SMP_SUBRESOURCE (FK_RESOURCE_ID, NRM_IDENTIFIER_VALUE, NRM_IDENTIFIER_SCHEME);
+
+-- ----------------------------------------------
+-- create the SML outbox table
+create table SMP_SML_OUTBOX (
+       ID bigint not null auto_increment comment 'Unique SML outbox entry id',
+        CREATED_ON datetime not null,
+        LAST_UPDATED_ON datetime not null,
+        ACTION_TYPE varchar(64)  CHARACTER SET utf8 COLLATE utf8_bin not null comment 'The participant action: REGISTER, UNREGISTER',
+        ATTEMPT_COUNT integer not null comment 'The number of the failed attempts',
+        IDENTIFIER_SCHEME varchar(256)  CHARACTER SET utf8 COLLATE utf8_bin comment 'The participant identifier scheme',
+        IDENTIFIER_VALUE varchar(256)  CHARACTER SET utf8 COLLATE utf8_bin not null comment 'The participant identifier value',
+        LAST_ERROR varchar(1024)  CHARACTER SET utf8 COLLATE utf8_bin comment 'The error of the last failed attempt',
+        NAPTR_SERVICE varchar(256)  CHARACTER SET utf8 COLLATE utf8_bin comment 'The custom naptr service for the participant registration',
+        NEXT_ATTEMPT_ON datetime not null comment 'Date time of the next attempt',
+        RESOURCE_ID bigint comment 'The id of the resource. The column has no foreign key because the resource can be deleted before the un-registration is sent',
+        ENTRY_STATUS varchar(64)  CHARACTER SET utf8 COLLATE utf8_bin not null comment 'The entry status: PENDING, PROCESSING, FAILED',
+        FK_DOMAIN_ID bigint not null,
+        primary key (ID)
+    ) comment='Participant registrations/un-registrations waiting to be sent to the SML' ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+create index SMP_SMLOBX_STATUS_IDX on SMP_SML_OUTBOX (ENTRY_STATUS, NEXT_ATTEMPT_ON);
+create index SMP_SMLOBX_PARTICIPANT_IDX on SMP_SML_OUTBOX (FK_DOMAIN_ID, IDENTIFIER_VALUE, IDENTIFIER_SCHEME);
+create index SMP_SMLOBX_RESOURCE_IDX on SMP_SML_OUTBOX (RESOURCE_ID);
+
+alter table SMP_SML_OUTBOX
+    add constraint FK3t3ll3y6hr7xemt3qwoqu900m
+    foreign key (FK_DOMAIN_ID)
+    references SMP_DOMAIN (ID);
+
+-- ----------------------------------------------
+-- add the alert mail submission queue columns. The existing alerts are not submitted again.
+ALTER TABLE SMP_ALERT
+    ADD ATTEMPT_COUNT integer default 0 not null comment 'The number of the failed mail submission attempts',
+    ADD NEXT_ATTEMPT_ON datetime comment 'Date time of the next mail submission attempt';
+
+ALTER TABLE SMP_ALERT_AUD
+    ADD ATTEMPT_COUNT integer,
+    ADD NEXT_ATTEMPT_ON datetime;
+
+create index SMP_ALERT_STATUS_IDX on SMP_ALERT (ALERT_STATUS, NEXT_ATTEMPT_ON);
+
+-- ----------------------------------------------
+-- create the scheduled job cluster lock table
+create table SMP_JOB_LOCK (
+       JOB_NAME varchar(64)  CHARACTER SET utf8 COLLATE utf8_bin not null comment 'The scheduled job name',
+        CREATED_ON datetime not null,
+        LAST_UPDATED_ON datetime not null,
+        LOCKED_AT datetime comment 'Date time when the lock was acquired',
+        LOCKED_BY varchar(256)  CHARACTER SET utf8 COLLATE utf8_bin comment 'The SMP node which holds or held the lock',
+        LOCKED_UNTIL datetime not null comment 'Date time until the lock is held. The lock is released by setting the value to the release time',
+        primary key (JOB_NAME)
+    ) comment='Cluster locks of the scheduled jobs' ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- ----------------------------------------------
+-- create the domain participants SML registration progress table
+create table SMP_DOMAIN_SML_PROGRESS (
+       DOMAIN_ID bigint not null comment 'The domain id. The column has no foreign key because the progress is removed with the domain',
+        CREATED_ON datetime not null,
+        LAST_UPDATED_ON datetime not null,
+        ERROR_MESSAGE varchar(1024)  CHARACTER SET utf8 COLLATE utf8_bin comment 'The error of the failed operation',
+        FAILED_COUNT integer not null comment 'The number of the failed participants',
+        FINISHED_ON datetime comment 'Date time when the operation was finished',
+        OPERATION varchar(64)  CHARACTER SET utf8 COLLATE utf8_bin not null comment 'The operation: REGISTER, UNREGISTER',
+        PROCESSED_COUNT integer not null comment 'The number of the processed participants',
+        RUN_ID varchar(64)  CHARACTER SET utf8 COLLATE utf8_bin not null comment 'The unique id of the operation run',
+        RUNNING_UNTIL datetime not null comment 'Date time until the operation is running, if it is not finished or the progress is not updated before',
+        STARTED_BY varchar(256)  CHARACTER SET utf8 COLLATE utf8_bin comment 'The SMP node which runs or ran the operation',
+        STARTED_ON datetime comment 'Date time when the operation was started',
+        TOTAL_COUNT integer not null comment 'The number of the participants to process',
+        primary key (DOMAIN_ID)
+    ) comment='Progress of the domain participants SML registration' ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- ----------------------------------------------
+-- create the cluster cache event table
+create table SMP_CACHE_EVENT (
+       ID bigint not null auto_increment comment 'Unique cache event id',
+        CREATED_ON datetime not null,
+        LAST_UPDATED_ON datetime not null,
+        EVENT_KEY varchar(256)  CHARACTER SET utf8 COLLATE utf8_bin comment 'The key of the changed data as example the domain code',
+        EVENT_TYPE varchar(64)  CHARACTER SET utf8 COLLATE utf8_bin not null comment 'The changed data type: DOMAIN, RESOURCE_DEF, RESOURCE, PROPERTY, TRUSTSTORE, KEYSTORE, RESOURCE_RESPONSE',
+        NODE_ID varchar(256)  CHARACTER SET utf8 COLLATE utf8_bin not null comment 'The SMP node which changed the data',
+        primary key (ID)
+    ) comment='Cache change events for the cluster cache invalidation' ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+create index SMP_CACHE_EVENT_CREATED_IDX on SMP_CACHE_EVENT (CREATED_ON);
+
+commit;
@@ -0,0 +1,32 @@
+-- Rollback for the cluster cache event table
+DROP TABLE SMP_CACHE_EVENT CASCADE CONSTRAINTS;
+DROP SEQUENCE SMP_CACHE_EVENT_SEQ;
+
+-- Rollback for the domain participants SML registration progress table
+DROP TABLE SMP_DOMAIN_SML_PROGRESS CASCADE CONSTRAINTS;
+
+-- Rollback for the scheduled job cluster lock table
+DROP TABLE SMP_JOB_LOCK CASCADE CONSTRAINTS;
+
+-- Rollback for the alert mail submission queue columns
+DROP INDEX SMP_ALERT_STATUS_IDX;
+ALTER TABLE SMP_ALERT DROP COLUMN ATTEMPT_COUNT;
+ALTER TABLE SMP_ALERT DROP COLUMN NEXT_ATTEMPT_ON;
+ALTER TABLE SMP_ALERT_AUD DROP COLUMN ATTEMPT_COUNT;
+ALTER TABLE SMP_ALERT_AUD DROP COLUMN NEXT_ATTEMPT_ON;
+
+-- Rollback for the SML outbox table
+DROP TABLE SMP_SML_OUTBOX CASCADE CONSTRAINTS;
+DROP SEQUENCE SMP_SML_OUTBOX_SEQ;
+
+-- Rollback for constraints and indexes
+DROP INDEX SMP_RS_NRM_ID_IDX;
+DROP INDEX SMP_RS_NRM_SCH_IDX;
+DROP INDEX SMP_RS_NRM_IDENT_DOREDEF_IDX;
+DROP INDEX SMP_SRS_NRM_ID_RES_IDX;
+
+-- Rollback for table alterations
+ALTER TABLE SMP_RESOURCE DROP COLUMN NRM_IDENTIFIER_SCHEME;
+ALTER TABLE SMP_RESOURCE DROP COLUMN NRM_IDENTIFIER_VALUE;
+ALTER TABLE SMP_SUBRESOURCE DROP COLUMN NRM_IDENTIFIER_SCHEME;
+ALTER TABLE SMP_SUBRESOURCE DROP COLUMN NRM_IDENTIFIER_VALUE;
@@ -0,0 +1,221 @@
+ALTER TABLE SMP_RESOURCE ADD NRM_IDENTIFIER_SCHEME varchar2(256 char);
+ALTER TABLE SMP_RESOURCE ADD NRM_IDENTIFIER_VALUE varchar2(256 char);
+comment on column SMP_RESOURCE.NRM_IDENTIFIER_SCHEME is
+    'Lower-cased identifier scheme for case-insensitive search';
+comment on column SMP_RESOURCE.NRM_IDENTIFIER_VALUE is
+    'Lower-cased identifier value for case-insensitive search';
+
+ALTER TABLE SMP_SUBRESOURCE ADD NRM_IDENTIFIER_SCHEME varchar2(500 char);
+ALTER TABLE SMP_SUBRESOURCE ADD NRM_IDENTIFIER_VALUE varchar2(500 char);
+comment on column SMP_SUBRESOURCE.NRM_IDENTIFIER_SCHEME is
+    'Lower-cased identifier scheme for case-insensitive lookup';
+comment on column SMP_SUBRESOURCE.NRM_IDENTIFIER_VALUE is
+    'Lower-cased identifier value for case-insensitive lookup';
+
+-- ----------------------------------------------
+-- set the normalized identifiers used by the public resource search and case-insensitive lookup
+UPDATE SMP_RESOURCE
+    SET NRM_IDENTIFIER_SCHEME = LOWER(IDENTIFIER_SCHEME),
+        NRM_IDENTIFIER_VALUE = LOWER(IDENTIFIER_VALUE);
+
+UPDATE SMP_SUBRESOURCE
+    SET NRM_IDENTIFIER_SCHEME = LOWER(IDENTIFIER_SCHEME),
+        NRM_IDENTIFIER_VALUE = LOWER(IDENTIFIER_VALUE);
+
+-- create constraints and indexes
+create index SMP_RS_NRM_ID_IDX on SMP_RESOURCE (NRM_IDENTIFIER_VALUE);
+create index SMP_RS_NRM_SCH_IDX on SMP_RESOURCE (NRM_IDENTIFIER_SCHEME);
+create index SMP_RS_NRM_IDENT_DOREDEF_IDX on SMP_RESOURCE (NRM_IDENTIFIER_VALUE, NRM_IDENTIFIER_SCHEME, FK_DOREDEF_ID);
+create index SMP_SRS_NRM_ID_RES_IDX on SMP_SUBRESOURCE (FK_RESOURCE_ID, NRM_IDENTIFIER_VALUE, NRM_IDENTIFIER_SCHEME);
+
+-- ----------------------------------------------
+-- create the SML outbox table
+create sequence SMP_SML_OUTBOX_SEQ start with 1 increment by  1;
+
+    create table SMP_SML_OUTBOX (
+       ID number(19,0) not null,
+        CREATED_ON timestamp not null,
+        LAST_UPDATED_ON timestamp not null,
+        ACTION_TYPE varchar2(64 char) not null,
+        ATTEMPT_COUNT number(10,0) not null,
+        IDENTIFIER_SCHEME varchar2(256 char),
+        IDENTIFIER_VALUE varchar2(256 char) not null,
+        LAST_ERROR varchar2(1024 char),
+        NAPTR_SERVICE varchar2(256 char),
+        NEXT_ATTEMPT_ON timestamp not null,
+        RESOURCE_ID number(19,0),
+        ENTRY_STATUS varchar2(64 char) not null,
+        FK_DOMAIN_ID number(19,0) not null,
+        primary key (ID)
+    );
+
+    comment on table SMP_SML_OUTBOX is
+        'Participant registrations/un-registrations waiting to be sent to the SML';
+
+    comment on column SMP_SML_OUTBOX.ID is
+        'Unique SML outbox entry id';
+
+    comment on column SMP_SML_OUTBOX.ACTION_TYPE is
+        'The participant action: REGISTER, UNREGISTER';
+
+    comment on column SMP_SML_OUTBOX.ATTEMPT_COUNT is
+        'The number of the failed attempts';
+
+    comment on column SMP_SML_OUTBOX.IDENTIFIER_SCHEME is
+        'The participant identifier scheme';
+
+    comment on column SMP_SML_OUTBOX.IDENTIFIER_VALUE is
+        'The participant identifier value';
+
+    comment on column SMP_SML_OUTBOX.LAST_ERROR is
+        'The error of the last failed attempt';
+
+    comment on column SMP_SML_OUTBOX.NAPTR_SERVICE is
+        'The custom naptr service for the participant registration';
+
+    comment on column SMP_SML_OUTBOX.NEXT_ATTEMPT_ON is
+        'Date time of the next attempt';
+
+    comment on column SMP_SML_OUTBOX.RESOURCE_ID is
+        'The id of the resource. The column has no foreign key because the resource can be deleted before the un-registration is sent';
+
+    comment on column SMP_SML_OUTBOX.ENTRY_STATUS is
+        'The entry status: PENDING, PROCESSING, FAILED';
+
+create index SMP_SMLOBX_STATUS_IDX on SMP_SML_OUTBOX (ENTRY_STATUS, NEXT_ATTEMPT_ON);
+create index SMP_SMLOBX_PARTICIPANT_IDX on SMP_SML_OUTBOX (FK_DOMAIN_ID, IDENTIFIER_VALUE, IDENTIFIER_SCHEME);
+create index SMP_SMLOBX_RESOURCE_IDX on SMP_SML_OUTBOX (RESOURCE_ID);
+
+alter table SMP_SML_OUTBOX
+    add constraint FK3t3ll3y6hr7xemt3qwoqu900m
+    foreign key (FK_DOMAIN_ID)
+    references SMP_DOMAIN;
+
+-- ----------------------------------------------
+-- add the alert mail submission queue columns. The existing alerts are not submitted again.
+ALTER TABLE SMP_ALERT ADD ATTEMPT_COUNT number(10,0) default 0 not null;
+ALTER TABLE SMP_ALERT ADD NEXT_ATTEMPT_ON timestamp;
+comment on column SMP_ALERT.ATTEMPT_COUNT is
+    'The number of the failed mail submission attempts';
+comment on column SMP_ALERT.NEXT_ATTEMPT_ON is
+    'Date time of the next mail submission attempt';
+
+ALTER TABLE SMP_ALERT_AUD ADD ATTEMPT_COUNT number(10,0);
+ALTER TABLE SMP_ALERT_AUD ADD NEXT_ATTEMPT_ON timestamp;
+
+create index SMP_ALERT_STATUS_IDX on SMP_ALERT (ALERT_STATUS, NEXT_ATTEMPT_ON);
+
+-- ----------------------------------------------
+-- create the scheduled job cluster lock table
+create table SMP_JOB_LOCK (
+       JOB_NAME varchar2(64 char) not null,
+        CREATED_ON timestamp not null,
+        LAST_UPDATED_ON timestamp not null,
+        LOCKED_AT timestamp,
+        LOCKED_BY varchar2(256 char),
+        LOCKED_UNTIL timestamp not null,
+        primary key (JOB_NAME)
+    );
+
+    comment on table SMP_JOB_LOCK is
+        'Cluster locks of the scheduled jobs';
+
+    comment on column SMP_JOB_LOCK.JOB_NAME is
+        'The scheduled job name';
+
+    comment on column SMP_JOB_LOCK.LOCKED_AT is
+        'Date time when the lock was acquired';
+
+    comment on column SMP_JOB_LOCK.LOCKED_BY is
+        'The SMP node which holds or held the lock';
+
+    comment on column SMP_JOB_LOCK.LOCKED_UNTIL is
+        'Date time until the lock is held. The lock is released by setting the value to the release time';
+
+-- ----------------------------------------------
+-- create the domain participants SML registration progress table
+create table SMP_DOMAIN_SML_PROGRESS (
+       DOMAIN_ID number(19,0) not null,
+        CREATED_ON timestamp not null,
+        LAST_UPDATED_ON timestamp not null,
+        ERROR_MESSAGE varchar2(1024 char),
+        FAILED_COUNT number(10,0) not null,
+        FINISHED_ON timestamp,
+        OPERATION varchar2(64 char) not null,
+        PROCESSED_COUNT number(10,0) not null,
+        RUN_ID varchar2(64 char) not null,
+        RUNNING_UNTIL timestamp not null,
+        STARTED_BY varchar2(256 char),
+        STARTED_ON timestamp,
+        TOTAL_COUNT number(10,0) not null,
+        primary key (DOMAIN_ID)
+    );
+
+    comment on table SMP_DOMAIN_SML_PROGRESS is
+        'Progress of the domain participants SML registration';
+
+    comment on column SMP_DOMAIN_SML_PROGRESS.DOMAIN_ID is
+        'The domain id. The column has no foreign key because the progress is removed with the domain';
+
+    comment on column SMP_DOMAIN_SML_PROGRESS.ERROR_MESSAGE is
+        'The error of the failed operation';
+
+    comment on column SMP_DOMAIN_SML_PROGRESS.FAILED_COUNT is
+        'The number of the failed participants';
+
+    comment on column SMP_DOMAIN_SML_PROGRESS.FINISHED_ON is
+        'Date time when the operation was finished';
+
+    comment on column SMP_DOMAIN_SML_PROGRESS.OPERATION is
+        'The operation: REGISTER, UNREGISTER';
+
+    comment on column SMP_DOMAIN_SML_PROGRESS.PROCESSED_COUNT is
+        'The number of the processed participants';
+
+    comment on column SMP_DOMAIN_SML_PROGRESS.RUN_ID is
+        'The unique id of the operation run';
+
+    comment on column SMP_DOMAIN_SML_PROGRESS.RUNNING_UNTIL is
+        'Date time until the operation is running, if it is not finished or the progress is not updated before';
+
+    comment on column SMP_DOMAIN_SML_PROGRESS.STARTED_BY is
+        'The SMP node which runs or ran the operation';
+
+    comment on column SMP_DOMAIN_SML_PROGRESS.STARTED_ON is
+        'Date time when the operation was started';
+
+    comment on column SMP_DOMAIN_SML_PROGRESS.TOTAL_COUNT is
+        'The number of the participants to process';
+
+-- ----------------------------------------------
+-- create the cluster cache event table
+create sequence SMP_CACHE_EVENT_SEQ start with 1 increment by  1;
+
+create table SMP_CACHE_EVENT (
+       ID number(19,0) not null,
+        CREATED_ON timestamp not null,
+        LAST_UPDATED_ON timestamp not null,
+        EVENT_KEY varchar2(256 char),
+        EVENT_TYPE varchar2(64 char) not null,
+        NODE_ID varchar2(256 char) not null,
+        primary key (ID)
+    );
+
+    comment on table SMP_CACHE_EVENT is
+        'Cache change events for the cluster cache invalidation';
+
+    comment on column SMP_CACHE_EVENT.ID is
+        'Unique cache event id';
+
+    comment on column SMP_CACHE_EVENT.EVENT_KEY is
+        'The key of the changed data as example the domain code';
+
+    comment on column SMP_CACHE_EVENT.EVENT_TYPE is
+        'The changed data type: DOMAIN, RESOURCE_DEF, RESOURCE, PROPERTY, TRUSTSTORE, KEYSTORE, RESOURCE_RESPONSE';
+
+    comment on column SMP_CACHE_EVENT.NODE_ID is
+        'The SMP node which changed the data';
+
+create index SMP_CACHE_EVENT_CREATED_IDX on SMP_CACHE_EVENT (CREATED_ON);
+
+commit;
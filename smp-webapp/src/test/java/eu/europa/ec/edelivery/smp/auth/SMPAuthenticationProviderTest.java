@@ -25,6 +25,7 @@ import eu.europa.ec.edelivery.smp.data.enums.CredentialTargetType;
 import eu.europa.ec.edelivery.smp.data.enums.CredentialType;
 import eu.europa.ec.edelivery.smp.data.model.user.DBCredential;
 import eu.europa.ec.edelivery.smp.data.model.user.DBUser;
+import eu.europa.ec.edelivery.smp.services.AccessTokenVerificationCache;
 import eu.europa.ec.edelivery.smp.services.CRLVerifierService;
 import eu.europa.ec.edelivery.smp.services.ConfigurationService;
 import eu.europa.ec.edelivery.smp.services.CredentialService;
@@ -59,10 +60,11 @@ class SMPAuthenticationProviderTest {
     UITruststoreService mockTruststoreService = Mockito.mock(UITruststoreService.class);
     ConfigurationService mockConfigurationService = Mockito.mock(ConfigurationService.class);
     CredentialsAlertService mocAlertService = Mockito.mock(CredentialsAlertService.class);
+    AccessTokenVerificationCache mockAccessTokenVerificationCache = Mockito.mock(AccessTokenVerificationCache.class);
     UserDao mockUserDao = Mockito.mock(UserDao.class);
 
 
-    CredentialService mockCredentialService = new CredentialService(mockUserDao, mockCredentialDao, mockConversionService, mockCrlVerifierService, mockTruststoreService, mockConfigurationService, mocAlertService);
+    CredentialService mockCredentialService = new CredentialService(mockUserDao, mockCredentialDao, mockConversionService, mockCrlVerifierService, mockTruststoreService, mockConfigurationService, mocAlertService, mockAccessTokenVerificationCache);
     SMPAuthenticationProvider testInstance = new SMPAuthenticationProvider(mockCredentialService);
 
 
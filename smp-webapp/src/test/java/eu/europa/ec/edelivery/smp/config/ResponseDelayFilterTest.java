@@ -0,0 +1,111 @@
+/*-
+ * #START_LICENSE#
+ * smp-webapp
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * 
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.config;
+
+import eu.europa.ec.edelivery.smp.auth.ResponseDelayContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @since 5.2
+ */
+class ResponseDelayFilterTest {
+    private static final long TEST_DELAY_MS = 200;
+
+    ResponseDelayFilter testInstance = new ResponseDelayFilter();
+
+    @AfterEach
+    void tearDown() {
+        testInstance.destroy();
+    }
+
+    @Test
+    void testDoFilterNoDelay() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        testInstance.doFilter(request, response, writeResponse(false));
+
+        assertFalse(request.isAsyncStarted());
+        assertEquals(HttpServletResponse.SC_UNAUTHORIZED, response.getStatus());
+        assertEquals("test", response.getContentAsString());
+    }
+
+    @Test
+    void testDoFilterDelayedAsynchronously() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        long startTime = System.currentTimeMillis();
+
+        testInstance.doFilter(request, response, writeResponse(true));
+        // the request thread is released before the delay expires
+        assertTrue(request.isAsyncStarted());
+        assertEquals("", response.getContentAsString());
+
+        long timeout = System.currentTimeMillis() + 5000;
+        while (request.isAsyncStarted() && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertFalse(request.isAsyncStarted());
+        assertTrue(System.currentTimeMillis() - startTime >= TEST_DELAY_MS);
+        assertEquals(HttpServletResponse.SC_UNAUTHORIZED, response.getStatus());
+        assertEquals("test", response.getContentAsString());
+    }
+
+    @Test
+    void testDoFilterDelayedAsyncNotSupported() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        long startTime = System.currentTimeMillis();
+
+        testInstance.doFilter(request, response, writeResponse(true));
+
+        assertFalse(request.isAsyncStarted());
+        assertTrue(System.currentTimeMillis() - startTime >= TEST_DELAY_MS);
+        assertEquals(HttpServletResponse.SC_UNAUTHORIZED, response.getStatus());
+        assertEquals("test", response.getContentAsString());
+    }
+
+    @Test
+    void testDeferResponseWithoutContext() {
+        assertFalse(ResponseDelayContext.deferResponseUntil(System.currentTimeMillis() + TEST_DELAY_MS));
+    }
+
+    private FilterChain writeResponse(boolean delay) {
+        return (req, res) -> {
+            if (delay) {
+                ResponseDelayContext.deferResponseUntil(System.currentTimeMillis() + TEST_DELAY_MS);
+            }
+            HttpServletResponse httpResponse = (HttpServletResponse) res;
+            httpResponse.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            httpResponse.getOutputStream().write("test".getBytes());
+            httpResponse.flushBuffer();
+        };
+    }
+}
@@ -0,0 +1,198 @@
+/*-
+ * #START_LICENSE#
+ * smp-webapp
+ * %%
+ * Copyright (C) 2017 - 2024 European Commission | eDelivery | DomiSMP
+ * %%
+ * Licensed under the EUPL, Version 1.2 or – as soon they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ * 
+ * [PROJECT_HOME]\license\eupl-1.2\license.txt or https://joinup.ec.europa.eu/collection/eupl/eupl-text-eupl-12
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and limitations under the Licence.
+ * #END_LICENSE#
+ */
+package eu.europa.ec.edelivery.smp.config;
+
+import eu.europa.ec.edelivery.smp.config.enums.SMPDomainPropertyEnum;
+import eu.europa.ec.edelivery.smp.data.model.CacheRegions;
+import eu.europa.ec.edelivery.smp.data.dao.DomainDao;
+import eu.europa.ec.edelivery.smp.data.enums.VisibilityType;
+import eu.europa.ec.edelivery.smp.data.model.DBDomain;
+import eu.europa.ec.edelivery.smp.data.model.DBDomainConfiguration;
+import eu.europa.ec.edelivery.smp.data.ui.DomainPropertyRO;
+import eu.europa.ec.edelivery.smp.data.ui.DomainRO;
+import eu.europa.ec.edelivery.smp.services.ui.UIDomainAdminService;
+import eu.europa.ec.edelivery.smp.services.ui.UIDomainEditService;
+import eu.europa.ec.edelivery.smp.test.PropertiesTestConfig;
+import eu.europa.ec.edelivery.smp.test.SmpTestWebAppConfig;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.jcache.JCacheCacheManager;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static eu.europa.ec.edelivery.smp.config.enums.SMPEnvPropertyEnum.DATABASE_CACHE_ENABLED;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.BEFORE_TEST_METHOD;
+
+/**
+ * Integration test of the DomiSMP application context with the hibernate second-level cache enabled. The other
+ * webapp tests run with the cache disabled (see {@link PropertiesTestConfig}).
+ *
+ * @since 5.2
+ */
+@ExtendWith(SpringExtension.class)
+@WebAppConfiguration
+@ContextConfiguration(classes = {SmpTestWebAppConfig.class})
+// the property is not read from the spring environment, but it keeps the context apart from the cached test contexts
+// created with the second-level cache disabled
+@TestPropertySource(properties = "smp.database.cache.enabled=true")
+@DirtiesContext
+@Sql(scripts = {
+        "classpath:/cleanup-database.sql",
+        "classpath:/webapp_integration_test_data.sql"},
+        executionPhase = BEFORE_TEST_METHOD)
+class SecondLevelCacheIT {
+
+    // the webapp_integration_test_data data
+    private static final Long DOMAIN_ID = 1L;
+    private static final String RESOURCE_DEF_SMP_ONE = "edelivery-oasis-smp-1.0-servicegroup";
+    private static final String RESOURCE_DEF_CPPA = "edelivery-oasis-cppa";
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    JCacheCacheManager cacheManager;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    DomainDao domainDao;
+    @Autowired
+    UIDomainAdminService domainAdminService;
+    @Autowired
+    UIDomainEditService domainEditService;
+
+    TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void enableSecondLevelCache() throws ClassNotFoundException {
+        // initialize the test properties first, because they disable the cache
+        Class.forName(PropertiesTestConfig.class.getName());
+        System.setProperty(DATABASE_CACHE_ENABLED.getProperty(), "true");
+    }
+
+    @AfterAll
+    static void disableSecondLevelCache() {
+        System.setProperty(DATABASE_CACHE_ENABLED.getProperty(), "false");
+    }
+
+    @BeforeEach
+    void setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // the sql scripts bypass the cache
+        domainDao.evictAllFromCache();
+    }
+
+    @Test
+    void testCacheRegionsLoaded() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        assertTrue(sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled());
+        assertTrue(sessionFactory.getSessionFactoryOptions().isQueryCacheEnabled());
+
+        RegionFactory regionFactory = sessionFactory.getCache().getRegionFactory();
+        assertTrue(regionFactory instanceof JCacheRegionFactory);
+        // the hibernate regions and the spring caches are managed by the same cache manager
+        javax.cache.CacheManager jCacheManager = cacheManager.getCacheManager();
+        assertSame(jCacheManager, ((JCacheRegionFactory) regionFactory).getCacheManager());
+        assertNotNull(jCacheManager.getCache(CacheRegions.CONFIGURATION_ENTITIES));
+        assertNotNull(cacheManager.getCache(CacheRegions.CONFIGURATION_ENTITIES));
+    }
+
+    @Test
+    void testDomainEntityCached() {
+        // load the domain into the cache
+        getDomainSignatureKeyAlias();
+
+        assertTrue(entityManagerFactory.getCache().contains(DBDomain.class, DOMAIN_ID));
+    }
+
+    @Test
+    void testUpdateBasicDomainDataReturnsFreshData() {
+        assertEquals("single_domain_key", getDomainSignatureKeyAlias());
+        DomainRO domainRO = domainAdminService.getDomainData(DOMAIN_ID);
+        domainRO.setSignatureKeyAlias("second_domain_alias");
+        domainRO.setVisibility(VisibilityType.PRIVATE);
+
+        domainAdminService.updateBasicDomainData(DOMAIN_ID, domainRO);
+
+        assertEquals("second_domain_alias", getDomainSignatureKeyAlias());
+        assertEquals(VisibilityType.PRIVATE, domainDao.getDomainByCode(domainRO.getDomainCode())
+                .map(DBDomain::getVisibility).orElse(null));
+    }
+
+    @Test
+    void testUpdateResourceDefDomainListReturnsFreshData() {
+        // load the domain resource definition collection into the cache
+        assertThat(getDomainResourceDefIdentifiers(), containsInAnyOrder(RESOURCE_DEF_SMP_ONE));
+
+        domainAdminService.updateResourceDefDomainList(DOMAIN_ID, Arrays.asList(RESOURCE_DEF_SMP_ONE, RESOURCE_DEF_CPPA));
+
+        assertThat(getDomainResourceDefIdentifiers(), containsInAnyOrder(RESOURCE_DEF_SMP_ONE, RESOURCE_DEF_CPPA));
+    }
+
+    @Test
+    void testUpdateDomainEditPropertiesReturnsFreshData() {
+        String property = SMPDomainPropertyEnum.RESOURCE_SCH_REGEXP_MSG.getProperty();
+        // load the domain configuration collection into the cache
+        assertNull(getDomainPropertyValue(property));
+        DomainPropertyRO domainPropertyRO = new DomainPropertyRO(property, "This is test message");
+        domainPropertyRO.setSystemDefault(false);
+
+        domainEditService.updateDomainEditProperties(DOMAIN_ID, Collections.singletonList(domainPropertyRO));
+
+        assertEquals("This is test message", getDomainPropertyValue(property));
+    }
+
+    private String getDomainSignatureKeyAlias() {
+        return transactionTemplate.execute(status -> domainDao.find(DOMAIN_ID).getSignatureKeyAlias());
+    }
+
+    private List<String> getDomainResourceDefIdentifiers() {
+        return transactionTemplate.execute(status -> domainDao.find(DOMAIN_ID).getDomainResourceDefs().stream()
+                .map(domainResourceDef -> domainResourceDef.getResourceDef().getIdentifier())
+                .collect(Collectors.toList()));
+    }
+
+    private String getDomainPropertyValue(String property) {
+        return transactionTemplate.execute(status -> domainDao.find(DOMAIN_ID).getDomainConfigurations().stream()
+                .filter(domainConfiguration -> property.equals(domainConfiguration.getProperty()))
+                .map(DBDomainConfiguration::getValue)
+                .findFirst().orElse(null));
+    }
+}
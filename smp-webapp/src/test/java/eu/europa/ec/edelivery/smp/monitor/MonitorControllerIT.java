@@ -22,6 +22,7 @@ import eu.europa.ec.edelivery.smp.ui.AbstractControllerTest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.RequestPostProcessor;
 
 import java.io.IOException;
@@ -39,6 +40,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class MonitorControllerIT extends AbstractControllerTest {
 
     private static final String URL = "/monitor/is-alive";
+    private static final String METRICS_URL = "/monitor/metrics";
     private static final RequestPostProcessor ADMIN_CREDENTIALS = httpBasic("pat_smp_admin", "123456");
 
     @Autowired
@@ -63,6 +65,22 @@ class MonitorControllerIT extends AbstractControllerTest {
                         .isOk());
     }
 
+    @Test
+    void metricsNotAuthorized() throws Exception {
+        mvc.perform(get(METRICS_URL))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void metrics() throws Exception {
+        MvcResult result = mvc.perform(get(METRICS_URL)
+                        .with(ADMIN_CREDENTIALS))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertTrue(result.getResponse().getContentAsString().contains("jvm_memory_used_bytes"));
+    }
+
     @Test
     void testDatabase() {
         // when
@@ -20,6 +20,7 @@ package eu.europa.ec.edelivery.smp.monitor;
 
 import eu.europa.ec.edelivery.smp.data.dao.DomainDao;
 import eu.europa.ec.edelivery.smp.data.model.DBDomain;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -42,7 +43,8 @@ import static org.junit.jupiter.api.Assertions.*;
 class MonitorControllerTest {
 
     DomainDao mockDomainDao = Mockito.mock(DomainDao.class);
-    MonitorController testInstance = new MonitorController(mockDomainDao);
+    PrometheusMeterRegistry mockPrometheusMeterRegistry = Mockito.mock(PrometheusMeterRegistry.class);
+    MonitorController testInstance = new MonitorController(mockDomainDao, mockPrometheusMeterRegistry);
 
     // mock security context and authentication
     @BeforeAll
@@ -86,6 +88,16 @@ class MonitorControllerTest {
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, result.getStatusCode());
     }
 
+    @Test
+    void metrics() {
+        // given
+        Mockito.when(mockPrometheusMeterRegistry.scrape()).thenReturn("smp_resource_request_seconds_count 1.0");
+        // when
+        String result = testInstance.metrics();
+        // then
+        assertEquals("smp_resource_request_seconds_count 1.0", result);
+    }
+
     @Test
     void testDatabaseEmpty() {
         // when
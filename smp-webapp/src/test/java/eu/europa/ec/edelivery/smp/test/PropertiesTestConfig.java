@@ -67,6 +67,8 @@ public class PropertiesTestConfig {
 
         System.setProperty(SMP_MODE_DEVELOPMENT.getProperty(), "true");
         System.setProperty(DATABASE_CREATE_DDL.getProperty(), "true");
+        // the test data is reset with the sql scripts which bypass the hibernate second-level cache
+        System.setProperty(DATABASE_CACHE_ENABLED.getProperty(), "false");
         System.setProperty(SECURITY_FOLDER.getProperty(), SECURITY_PATH.toFile().getPath());
     }
 }
@@ -23,6 +23,8 @@ import eu.europa.ec.edelivery.smp.data.dao.DomainDao;
 import eu.europa.ec.edelivery.smp.data.model.DBDomain;
 import eu.europa.ec.edelivery.smp.data.ui.DomainPropertyRO;
 import eu.europa.ec.edelivery.smp.data.ui.DomainRO;
+import eu.europa.ec.edelivery.smp.data.ui.SMLIntegrationProgressRO;
+import eu.europa.ec.edelivery.smp.data.ui.SMLOutboxEntryRO;
 import eu.europa.ec.edelivery.smp.data.ui.UserRO;
 import eu.europa.ec.edelivery.smp.data.ui.enums.EntityROStatus;
 import eu.europa.ec.edelivery.smp.data.ui.exceptions.ErrorResponseRO;
@@ -171,6 +173,47 @@ class DomainAdminControllerIT extends AbstractControllerTest {
         assertEquals(EntityROStatus.REMOVED.getStatusNumber(), resultObject.getStatus());
     }
 
+    @Test
+    void testGetSmlIntegrationProgress() throws Exception {
+        String domainCode = "domainTwo";
+        MockHttpSession session = loginWithSystemAdmin(mvc);
+        UserRO userRO = MockMvcUtils.getLoggedUserData(mvc, session);
+        DomainRO domain = getDomain(domainCode, userRO, session);
+        assertNotNull(domain);
+
+        MvcResult result = mvc.perform(get(PATH + SUB_CONTEXT_INTERNAL_DOMAIN_SML_PROGRESS
+                        , userRO.getUserId(), domain.getDomainId())
+                        .session(session)
+                        .with(csrf())
+                        .header("Content-Type", " application/json"))
+                .andExpect(status().isOk()).andReturn();
+        SMLIntegrationProgressRO resultObject = parseResponse(result, SMLIntegrationProgressRO.class);
+
+        assertNotNull(resultObject);
+        assertFalse(resultObject.isRunning());
+        assertTrue(resultObject.getResourceCount() >= resultObject.getSmlRegisteredCount());
+    }
+
+    @Test
+    void testGetSmlOutboxEntries() throws Exception {
+        String domainCode = "domainTwo";
+        MockHttpSession session = loginWithSystemAdmin(mvc);
+        UserRO userRO = MockMvcUtils.getLoggedUserData(mvc, session);
+        DomainRO domain = getDomain(domainCode, userRO, session);
+        assertNotNull(domain);
+
+        MvcResult result = mvc.perform(get(PATH + SUB_CONTEXT_INTERNAL_DOMAIN_SML_OUTBOX
+                        , userRO.getUserId(), domain.getDomainId())
+                        .session(session)
+                        .with(csrf())
+                        .header("Content-Type", " application/json"))
+                .andExpect(status().isOk()).andReturn();
+        List<SMLOutboxEntryRO> resultObject = parseResponseArray(result, SMLOutboxEntryRO.class);
+
+        assertNotNull(resultObject);
+        assertTrue(resultObject.isEmpty());
+    }
+
     @Test
     void updateDomainData() throws Exception {
         String domainCode = "domainTwo";
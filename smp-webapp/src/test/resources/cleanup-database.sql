@@ -37,6 +37,10 @@ DELETE FROM SMP_GROUP;
 DELETE FROM SMP_GROUP_AUD;
 DELETE FROM SMP_USER;
 DELETE FROM SMP_USER_AUD;
+DELETE FROM SMP_SML_OUTBOX;
+DELETE FROM SMP_DOMAIN_SML_PROGRESS;
+DELETE FROM SMP_JOB_LOCK;
+DELETE FROM SMP_CACHE_EVENT;
 DELETE FROM SMP_DOMAIN_CONFIGURATION;
 DELETE FROM SMP_DOMAIN_CONFIGURATION_AUD;
 DELETE FROM SMP_DOMAIN;
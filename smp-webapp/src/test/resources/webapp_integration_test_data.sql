@@ -116,12 +116,12 @@ insert into SMP_DOCUMENT_VERSION (ID, FK_DOCUMENT_ID, VERSION, STATUS, DOCUMENT_
 (-2, -2, 1, 'PUBLISHED', '<ServiceGroup xmlns="http://docs.oasis-open.org/bdxr/ns/SMP/2016/05"><ParticipantIdentifier scheme="iso6523-actorid-upis">0088:777002abzz777</ParticipantIdentifier><ServiceMetadataReferenceCollection/></ServiceGroup>' , NOW(),  NOW()),
 (-3, -3, 1, 'PUBLISHED', FILE_READ('classpath:/input/ServiceMetadata.xml') , NOW(),  NOW());
 
-insert into SMP_RESOURCE ( ID, FK_GROUP_ID, FK_DOCUMENT_ID, FK_DOREDEF_ID,  IDENTIFIER_SCHEME, IDENTIFIER_VALUE, SML_REGISTERED, VISIBILITY, CREATED_ON, LAST_UPDATED_ON) values
-(-1, 1, -1, 1, 'ehealth-actorid-qns', 'urn:australia:ncpb', 0, 'PUBLIC', NOW(),  NOW()),
-(-2, 1, -2, 1, 'ehealth-actorid-qns', 'urn:brazil:ncpb', 0, 'PUBLIC', NOW(),  NOW());
+insert into SMP_RESOURCE ( ID, FK_GROUP_ID, FK_DOCUMENT_ID, FK_DOREDEF_ID,  IDENTIFIER_SCHEME, IDENTIFIER_VALUE, NRM_IDENTIFIER_SCHEME, NRM_IDENTIFIER_VALUE, SML_REGISTERED, VISIBILITY, CREATED_ON, LAST_UPDATED_ON) values
+(-1, 1, -1, 1, 'ehealth-actorid-qns', 'urn:australia:ncpb', 'ehealth-actorid-qns', 'urn:australia:ncpb', 0, 'PUBLIC', NOW(),  NOW()),
+(-2, 1, -2, 1, 'ehealth-actorid-qns', 'urn:brazil:ncpb', 'ehealth-actorid-qns', 'urn:brazil:ncpb', 0, 'PUBLIC', NOW(),  NOW());
 
-insert into SMP_SUBRESOURCE (ID, FK_RESOURCE_ID,FK_SUREDEF_ID, FK_DOCUMENT_ID, IDENTIFIER_SCHEME, IDENTIFIER_VALUE, CREATED_ON, LAST_UPDATED_ON) values
-(-1, -1, 1, -3, 'busdox-docid-qn', 'doc_7', NOW(),  NOW());
+insert into SMP_SUBRESOURCE (ID, FK_RESOURCE_ID,FK_SUREDEF_ID, FK_DOCUMENT_ID, IDENTIFIER_SCHEME, IDENTIFIER_VALUE, NRM_IDENTIFIER_SCHEME, NRM_IDENTIFIER_VALUE, CREATED_ON, LAST_UPDATED_ON) values
+(-1, -1, 1, -3, 'busdox-docid-qn', 'doc_7', 'busdox-docid-qn', 'doc_7', NOW(),  NOW());
 
 insert into SMP_DOMAIN_MEMBER (ID, FK_DOMAIN_ID, FK_USER_ID, MEMBERSHIP_ROLE, CREATED_ON, LAST_UPDATED_ON) values
 (1, 1, 3, 'ADMIN', NOW(),  NOW());